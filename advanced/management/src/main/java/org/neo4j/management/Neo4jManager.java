@@ -243,6 +243,11 @@ public final class Neo4jManager extends KernelProxy implements Kernel
         return getBean( MemoryMapping.class );
     }
 
+    public QueryCache getQueryCacheBean()
+    {
+        return getBean( QueryCache.class );
+    }
+
     public Primitives getPrimitivesBean()
     {
         return getBean( Primitives.class );
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import org.neo4j.jmx.Description;
+import org.neo4j.jmx.ManagementInterface;
+
+@ManagementInterface( name = QueryCache.NAME )
+@Description( "Information about the caching of Cypher query plans" )
+public interface QueryCache
+{
+    String NAME = "Query Cache";
+
+    @Description( "The number of times a query was executed with an already cached plan" )
+    long getHitCount();
+
+    @Description( "The number of times a query had to be planned before being executed" )
+    long getMissCount();
+
+    @Description( "The number of cached plans that were dropped to make room for other plans" )
+    long getEvictionCount();
+
+    @Description( "The number of cached plans that were replanned because of a schema change affecting them" )
+    long getInvalidationCount();
+
+    @Description( "The number of query plans that have been built" )
+    long getCompilationCount();
+
+    @Description( "The total time spent building query plans, in milliseconds" )
+    long getCompilationTimeMillis();
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management.impl;
+
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.jmx.impl.ManagementBeanProvider;
+import org.neo4j.jmx.impl.ManagementData;
+import org.neo4j.jmx.impl.Neo4jMBean;
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics;
+import org.neo4j.management.QueryCache;
+
+@Service.Implementation( ManagementBeanProvider.class )
+public final class QueryCacheBean extends ManagementBeanProvider
+{
+    public QueryCacheBean()
+    {
+        super( QueryCache.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new QueryCacheImpl( management );
+    }
+
+    @Override
+    protected Neo4jMBean createMXBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new QueryCacheImpl( management, true );
+    }
+
+    private static class QueryCacheImpl extends Neo4jMBean implements QueryCache
+    {
+        private final QueryPlanCacheStatistics statistics;
+
+        QueryCacheImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            this.statistics = statistics( management );
+        }
+
+        QueryCacheImpl( ManagementData management, boolean isMxBean )
+        {
+            super( management, isMxBean );
+            this.statistics = statistics( management );
+        }
+
+        private static QueryPlanCacheStatistics statistics( ManagementData management )
+        {
+            return management.getKernelData().graphDatabase().getDependencyResolver().resolveDependency(
+                    QueryPlanCacheStatistics.class );
+        }
+
+        @Override
+        public long getHitCount()
+        {
+            return statistics.getHitCount();
+        }
+
+        @Override
+        public long getMissCount()
+        {
+            return statistics.getMissCount();
+        }
+
+        @Override
+        public long getEvictionCount()
+        {
+            return statistics.getEvictionCount();
+        }
+
+        @Override
+        public long getInvalidationCount()
+        {
+            return statistics.getInvalidationCount();
+        }
+
+        @Override
+        public long getCompilationCount()
+        {
+            return statistics.getCompilationCount();
+        }
+
+        @Override
+        public long getCompilationTimeMillis()
+        {
+            return statistics.getCompilationTimeMillis();
+        }
+    }
+}
@@ -122,6 +122,12 @@ public class ManagementBeansTest
         assertNotNull( getManager().getMemoryMappingBean() );
     }
 
+    @Test
+    public void canGetQueryCacheBean() throws Exception
+    {
+        assertNotNull( getManager().getQueryCacheBean() );
+    }
+
     @Test
     public void canGetPrimitivesBean() throws Exception
     {
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.neo4j.cypher.javacompat.ExecutionEngine;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * End to end execution of representative Cypher queries, including parsing and planning, against a
+ * small social graph.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class CypherBenchmark
+{
+    private static final int PEOPLE = 1000;
+    private static final int FRIENDS = 10;
+    private static final Label PERSON = DynamicLabel.label( "Person" );
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+
+    private static final Map<String, String> QUERIES = stringMap(
+            "labelScan", "MATCH (p:Person) RETURN count(p)",
+            "indexSeek", "MATCH (p:Person) WHERE p.name = {name} RETURN p",
+            "friendsOfFriends",
+            "START p=node({id}) MATCH (p)-[:KNOWS]->()-[:KNOWS]->(fof) RETURN count(distinct fof)",
+            "aggregation",
+            "MATCH (p:Person)-[:KNOWS]->(f) RETURN p.name, count(f) AS friends ORDER BY friends DESC LIMIT 10" );
+
+    @Param( { "labelScan", "indexSeek", "friendsOfFriends", "aggregation" } )
+    public String query;
+
+    private TemporaryDatabase database;
+    private ExecutionEngine engine;
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    @Setup
+    public void createGraph() throws IOException
+    {
+        database = new TemporaryDatabase( stringMap() );
+        engine = new ExecutionEngine( database.db() );
+        engine.execute( "CREATE INDEX ON :Person(name)" );
+
+        Random random = new Random( 42 );
+        Node[] people = new Node[PEOPLE];
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            for ( int i = 0; i < PEOPLE; i++ )
+            {
+                people[i] = database.db().createNode( PERSON );
+                people[i].setProperty( "name", "person-" + i );
+            }
+            for ( Node person : people )
+            {
+                for ( int i = 0; i < FRIENDS; i++ )
+                {
+                    person.createRelationshipTo( people[random.nextInt( PEOPLE )], KNOWS );
+                }
+            }
+            tx.success();
+        }
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            database.db().schema().awaitIndexesOnline( 1, TimeUnit.MINUTES );
+            tx.success();
+        }
+
+        parameters.put( "name", "person-" + PEOPLE / 2 );
+        parameters.put( "id", people[PEOPLE / 2].getId() );
+    }
+
+    @TearDown
+    public void shutdown() throws IOException
+    {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void execute( Blackhole blackhole )
+    {
+        try ( Transaction tx = database.db().beginTx();
+              ResourceIterator<Map<String, Object>> rows =
+                      engine.execute( QUERIES.get( query ), parameters ).iterator() )
+        {
+            while ( rows.hasNext() )
+            {
+                blackhole.consume( rows.next() );
+            }
+            tx.success();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.neo4j.cypher.javacompat.ExecutionEngine;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.cypher_compiled_expressions;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Filter and projection queries over a label scan, with expressions interpreted or compiled, see
+ * {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#cypher_compiled_expressions}. The queries do little
+ * but evaluate their expressions on each row, so the difference between the two modes shows up here first.
+ * Compare the scores of the two {@code expressions} parameters for the same {@code query}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class CypherExpressionBenchmark
+{
+    private static final int PEOPLE = 10000;
+    private static final Label PERSON = DynamicLabel.label( "Person" );
+
+    private static final Map<String, String> QUERIES = stringMap(
+            "filter", "MATCH (p:Person) WHERE p.age > {age} AND p.name <> {name} RETURN count(*)",
+            "projection", "MATCH (p:Person) RETURN p.name, p.age + 1, p.age * 2" );
+
+    @Param( { "filter", "projection" } )
+    public String query;
+
+    @Param( { "interpreted", "compiled" } )
+    public String expressions;
+
+    private TemporaryDatabase database;
+    private ExecutionEngine engine;
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    @Setup
+    public void createGraph() throws IOException
+    {
+        database = new TemporaryDatabase( stringMap(
+                cypher_compiled_expressions.name(), String.valueOf( "compiled".equals( expressions ) ) ) );
+        engine = new ExecutionEngine( database.db() );
+
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            for ( int i = 0; i < PEOPLE; i++ )
+            {
+                Node person = database.db().createNode( PERSON );
+                person.setProperty( "name", "person-" + i );
+                person.setProperty( "age", i % 100 );
+            }
+            tx.success();
+        }
+
+        parameters.put( "age", 20 );
+        parameters.put( "name", "person-" + PEOPLE / 2 );
+    }
+
+    @TearDown
+    public void shutdown() throws IOException
+    {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public void execute( Blackhole blackhole )
+    {
+        try ( Transaction tx = database.db().beginTx();
+              ResourceIterator<Map<String, Object>> rows =
+                      engine.execute( QUERIES.get( query ), parameters ).iterator() )
+        {
+            while ( rows.hasNext() )
+            {
+                blackhole.consume( rows.next() );
+            }
+            tx.success();
+        }
+    }
+}
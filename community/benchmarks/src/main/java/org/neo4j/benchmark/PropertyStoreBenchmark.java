@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Loading property records with inlined short strings and arrays from the {@link PropertyStore},
+ * bypassing the caches.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class PropertyStoreBenchmark
+{
+    private TemporaryDatabase database;
+    private PropertyStore propertyStore;
+    private long stringRecord;
+    private long arrayRecord;
+    private int stringKey;
+    private int arrayKey;
+
+    @Setup
+    public void createProperties() throws IOException
+    {
+        database = new TemporaryDatabase( stringMap() );
+        long stringNode;
+        long arrayNode;
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            Node node = database.db().createNode();
+            node.setProperty( "name", "user-4711@example" );
+            stringNode = node.getId();
+            node = database.db().createNode();
+            node.setProperty( "scores", new int[] { 1, 2, 3, 4, 5, 6, 7, 8 } );
+            arrayNode = node.getId();
+            tx.success();
+        }
+
+        NeoStore neoStore = database.resolve( NeoStoreXaDataSource.class ).getNeoStore();
+        propertyStore = neoStore.getPropertyStore();
+        stringRecord = neoStore.getNodeStore().getRecord( stringNode ).getNextProp();
+        arrayRecord = neoStore.getNodeStore().getRecord( arrayNode ).getNextProp();
+        stringKey = propertyStore.getRecord( stringRecord ).getPropertyBlocks().get( 0 ).getKeyIndexId();
+        arrayKey = propertyStore.getRecord( arrayRecord ).getPropertyBlocks().get( 0 ).getKeyIndexId();
+    }
+
+    @TearDown
+    public void shutdown() throws IOException
+    {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public Object loadShortString()
+    {
+        return load( stringRecord, stringKey );
+    }
+
+    @Benchmark
+    public Object loadShortArray()
+    {
+        return load( arrayRecord, arrayKey );
+    }
+
+    private Object load( long recordId, int keyId )
+    {
+        PropertyBlock block = propertyStore.getRecord( recordId ).getPropertyBlock( keyId );
+        return block.getType().getValue( block, propertyStore );
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.core.NodeManager;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Loading the relationships of a node, from the node cache and from the stores. The cold cache benchmarks
+ * clear the whole cache and so shouldn't be run with more than one thread.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class RelationshipLoadingBenchmark
+{
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LIKES = DynamicRelationshipType.withName( "LIKES" );
+
+    @Param( { "10", "1000" } )
+    public int degree;
+
+    private TemporaryDatabase database;
+    private NodeManager nodeManager;
+    private long nodeId;
+
+    @Setup
+    public void createNode() throws IOException
+    {
+        database = new TemporaryDatabase( stringMap() );
+        nodeManager = database.resolve( NodeManager.class );
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            Node node = database.db().createNode();
+            for ( int i = 0; i < degree; i++ )
+            {
+                Node other = database.db().createNode();
+                RelationshipType type = i % 4 == 0 ? LIKES : KNOWS;
+                if ( i % 2 == 0 )
+                {
+                    node.createRelationshipTo( other, type );
+                }
+                else
+                {
+                    other.createRelationshipTo( node, type );
+                }
+            }
+            nodeId = node.getId();
+            tx.success();
+        }
+    }
+
+    @TearDown
+    public void shutdown() throws IOException
+    {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public int allRelationshipsWarmCache()
+    {
+        return countRelationships( null, Direction.BOTH );
+    }
+
+    @Benchmark
+    public int allRelationshipsColdCache()
+    {
+        nodeManager.clearCache();
+        return countRelationships( null, Direction.BOTH );
+    }
+
+    @Benchmark
+    public int typedRelationshipsColdCache()
+    {
+        nodeManager.clearCache();
+        return countRelationships( LIKES, Direction.OUTGOING );
+    }
+
+    private int countRelationships( RelationshipType type, Direction direction )
+    {
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            Node node = database.db().getNodeById( nodeId );
+            Iterable<Relationship> relationships = type == null ? node.getRelationships( direction ) :
+                    node.getRelationships( type, direction );
+            int count = 0;
+            for ( Relationship relationship : relationships )
+            {
+                count++;
+            }
+            tx.success();
+            return count;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.neo4j.kernel.impl.nioneo.store.LongerShortString;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyType;
+import org.neo4j.kernel.impl.nioneo.store.ShortArray;
+
+/**
+ * Encoding and decoding of strings and arrays small enough to be inlined in property blocks.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class ShortPropertyBenchmark
+{
+    private static final int KEY_ID = 1;
+    private static final String SHORT_STRING = "user-4711@example";
+    private static final int[] SHORT_ARRAY = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+    private PropertyBlock shortStringBlock;
+    private PropertyBlock shortArrayBlock;
+
+    @Setup
+    public void encode()
+    {
+        shortStringBlock = encodeShortString();
+        shortArrayBlock = encodeShortArray();
+    }
+
+    @Benchmark
+    public PropertyBlock encodeShortString()
+    {
+        PropertyBlock block = new PropertyBlock();
+        if ( !LongerShortString.encode( KEY_ID, SHORT_STRING, block, PropertyType.getPayloadSize() ) )
+        {
+            throw new IllegalStateException( SHORT_STRING + " is not a short string" );
+        }
+        return block;
+    }
+
+    @Benchmark
+    public String decodeShortString()
+    {
+        return LongerShortString.decode( shortStringBlock );
+    }
+
+    @Benchmark
+    public PropertyBlock encodeShortArray()
+    {
+        PropertyBlock block = new PropertyBlock();
+        if ( !ShortArray.encode( KEY_ID, SHORT_ARRAY, block, PropertyType.getPayloadSize() ) )
+        {
+            throw new IllegalStateException( "Not a short array" );
+        }
+        return block;
+    }
+
+    @Benchmark
+    public Object decodeShortArray()
+    {
+        return ShortArray.decode( shortArrayBlock );
+    }
+}
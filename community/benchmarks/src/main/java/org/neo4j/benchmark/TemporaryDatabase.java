@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.util.FileUtils;
+
+/**
+ * An embedded database in a temporary directory, which is deleted again when the database is shut down.
+ */
+class TemporaryDatabase
+{
+    private final File storeDir;
+    private final GraphDatabaseAPI db;
+
+    TemporaryDatabase( Map<String, String> config ) throws IOException
+    {
+        storeDir = Files.createTempDirectory( "neo4j-benchmark" ).toFile();
+        db = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir.getPath() )
+                .setConfig( config ).newGraphDatabase();
+    }
+
+    GraphDatabaseAPI db()
+    {
+        return db;
+    }
+
+    <T> T resolve( Class<T> type )
+    {
+        return db.getDependencyResolver().resolveDependency( type );
+    }
+
+    void shutdown() throws IOException
+    {
+        db.shutdown();
+        FileUtils.deleteRecursively( storeDir );
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Small write transactions committed concurrently, which makes the logical log force the dominant cost.
+ * Compares committing with and without group commit.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+@Threads( 8 )
+public class TransactionCommitBenchmark
+{
+    @Param( { "false", "true" } )
+    public String groupCommit;
+
+    private TemporaryDatabase database;
+
+    @Setup
+    public void startDatabase() throws IOException
+    {
+        database = new TemporaryDatabase( stringMap(
+                GraphDatabaseSettings.group_commit_enabled.name(), groupCommit ) );
+    }
+
+    @TearDown
+    public void shutdown() throws IOException
+    {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public long createNode()
+    {
+        try ( Transaction tx = database.db().beginTx() )
+        {
+            Node node = database.db().createNode();
+            node.setProperty( "name", "node" );
+            tx.success();
+            return node.getId();
+        }
+    }
+}
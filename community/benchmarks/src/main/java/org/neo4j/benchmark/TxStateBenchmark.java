@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.api.DiffSets;
+import org.neo4j.tooling.GlobalGraphOperations;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Reads that have to merge transaction state with committed state: applying {@link DiffSets} to a
+ * committed id sequence directly, and a label scan in a transaction that has labeled nodes itself.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class TxStateBenchmark
+{
+    private static final int COMMITTED = 10_000;
+    private static final int CHANGED = 100;
+    private static final Label LABEL = DynamicLabel.label( "Label" );
+
+    @State( Scope.Thread )
+    public static class Diff
+    {
+        private final List<Long> committed = new ArrayList<>();
+        private final DiffSets<Long> diffSets = new DiffSets<>();
+
+        @Setup
+        public void createDiff()
+        {
+            for ( long id = 0; id < COMMITTED; id++ )
+            {
+                committed.add( id );
+            }
+            for ( long i = 0; i < CHANGED; i++ )
+            {
+                diffSets.add( COMMITTED + i );
+                diffSets.remove( i * (COMMITTED / CHANGED) );
+            }
+        }
+    }
+
+    @State( Scope.Benchmark )
+    public static class Database
+    {
+        private TemporaryDatabase database;
+
+        @Setup
+        public void createNodes() throws IOException
+        {
+            database = new TemporaryDatabase( stringMap() );
+            try ( Transaction tx = database.db().beginTx() )
+            {
+                for ( int i = 0; i < COMMITTED; i++ )
+                {
+                    Node node = database.db().createNode();
+                    if ( i % 2 == 0 )
+                    {
+                        node.addLabel( LABEL );
+                    }
+                }
+                tx.success();
+            }
+        }
+
+        @TearDown
+        public void shutdown() throws IOException
+        {
+            database.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void applyDiffSets( Diff diff, Blackhole blackhole )
+    {
+        Iterator<Long> ids = diff.diffSets.apply( diff.committed.iterator() );
+        while ( ids.hasNext() )
+        {
+            blackhole.consume( ids.next() );
+        }
+    }
+
+    @Benchmark
+    public int labelScanWithTransactionState( Database database )
+    {
+        try ( Transaction tx = database.database.db().beginTx() )
+        {
+            for ( int i = 0; i < CHANGED; i++ )
+            {
+                database.database.db().createNode( LABEL );
+            }
+            int count = 0;
+            for ( Node node : GlobalGraphOperations.at( database.database.db() ).getAllNodesWithLabel( LABEL ) )
+            {
+                count++;
+            }
+            tx.failure();
+            return count;
+        }
+    }
+}
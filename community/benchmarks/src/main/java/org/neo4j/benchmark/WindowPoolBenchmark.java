@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
+import org.neo4j.kernel.impl.nioneo.store.OperationType;
+import org.neo4j.kernel.impl.nioneo.store.PersistenceWindow;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolType;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+/**
+ * Random reads through each {@link WindowPoolType} from a store file four times larger than the
+ * memory mapped for it, so that windows are both hit and replaced.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+@Threads( 4 )
+public class WindowPoolBenchmark
+{
+    private static final int RECORD_SIZE = 33;
+    private static final long FILE_SIZE = 64 * 1024 * 1024;
+    private static final long RECORDS = FILE_SIZE / RECORD_SIZE;
+
+    @Param( { "MOST_FREQUENTLY_USED", "PAGE_CACHE" } )
+    public WindowPoolType windowPool;
+
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private WindowPool pool;
+
+    @Setup
+    public void createPool() throws IOException
+    {
+        file = File.createTempFile( "neo4j-benchmark", ".db" );
+        randomAccessFile = new RandomAccessFile( file, "rw" );
+        randomAccessFile.setLength( FILE_SIZE );
+        FileChannel channel = randomAccessFile.getChannel();
+        Config config = new Config( stringMap(
+                DefaultWindowPoolFactory.memoryMappingSetting( file.getName() ).name(), "16M",
+                CommonAbstractStore.Configuration.use_memory_mapped_buffers.name(), "true" ),
+                GraphDatabaseSettings.class );
+        pool = windowPool.windowPoolFactory().create( file, RECORD_SIZE, channel, config, StringLogger.DEV_NULL );
+    }
+
+    @TearDown
+    public void closePool() throws IOException
+    {
+        pool.close();
+        randomAccessFile.close();
+        file.delete();
+    }
+
+    @State( Scope.Thread )
+    public static class Positions
+    {
+        private final Random random = new Random();
+
+        long next()
+        {
+            return (random.nextLong() & Long.MAX_VALUE) % RECORDS;
+        }
+    }
+
+    @Benchmark
+    public byte randomRead( Positions positions )
+    {
+        long position = positions.next();
+        PersistenceWindow window = pool.acquire( position, OperationType.READ );
+        try
+        {
+            return window.getOffsettedBuffer( position ).get();
+        }
+        finally
+        {
+            pool.release( window );
+        }
+    }
+}
@@ -25,12 +25,14 @@ import org.neo4j.graphdb.ConstraintViolationException
 import org.neo4j.graphdb.TransactionFailureException
 import scala.collection
 import org.neo4j.cypher.internal.compiler.v2_0.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_0.pipes.spill.SpillFiles
 
 /**
  * An iterator that decorates an inner iterator, and calls close() on the QueryContext once
- * the inner iterator is empty.
+ * the inner iterator is empty. Spill files the query still has on disk are deleted at the same time.
  */
-class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext) extends Iterator[Map[String, Any]] {
+class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext: QueryContext,
+                      spillFiles: SpillFiles = new SpillFiles) extends Iterator[Map[String, Any]] {
   private var closed: Boolean = false
   lazy val still_has_relationships = "Node record Node\\[(\\d),.*] still has relationships".r
 
@@ -62,6 +64,7 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
     translateException {
       if (!closed) {
         closed = true
+        spillFiles.deleteAll()
         queryContext.close(success = true)
       }
     }
@@ -91,6 +94,7 @@ class ClosingIterator(inner: Iterator[collection.Map[String, Any]], queryContext
     f
   } catch {
     case t: Throwable if !closed =>
+      spillFiles.deleteAll()
       queryContext.close(success = false)
       throw t
   }
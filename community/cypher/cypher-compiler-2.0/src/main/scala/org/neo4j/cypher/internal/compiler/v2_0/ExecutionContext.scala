@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_0
 
 import mutation.UpdateAction
 import pipes.MutableMaps
+import pipes.slots.SlotRow
 import collection.{immutable, Iterator}
 import collection.mutable.{Queue, Map => MutableMap}
 
@@ -50,6 +51,10 @@ case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
     this
   }
 
+  override def update(key: String, value: Any) {
+    m.update(key, value)
+  }
+
   def -=(key: String) = {
     m -= key
     this
@@ -72,6 +77,37 @@ case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
   def newWith(newEntry: (String, Any)) =
     createWithNewMap(MutableMaps.create(this.m) += newEntry)
 
+  /**
+   * Like newWith, for the entities of a match. Slot rows keep matched nodes and relationships as ids.
+   */
+  def newWithMatched(matched: TraversableOnce[(String, Any)]): ExecutionContext = m match {
+    case row: SlotRow => createWithNewMap(row.clone().putEntities(matched))
+    case _            => createWithNewMap(MutableMaps.create(this.m) ++= matched)
+  }
+
+  /**
+   * One row per match, each this row with the match added. The last match is written into this row itself, so a row
+   * with a single match is not copied at all. This is for pipes, which own the rows they are handed, like the
+   * extract pipe that writes its columns in place.
+   */
+  def withMatches(matches: Iterator[scala.collection.Map[String, Any]]): Iterator[ExecutionContext] =
+    new Iterator[ExecutionContext] {
+      def hasNext = matches.hasNext
+
+      def next() = {
+        val matched = matches.next()
+        if (matches.hasNext) newWithMatched(matched) else addMatched(matched)
+      }
+    }
+
+  private def addMatched(matched: TraversableOnce[(String, Any)]): ExecutionContext = {
+    m match {
+      case row: SlotRow => row.putEntities(matched)
+      case _            => m ++= matched
+    }
+    this
+  }
+
   override def clone(): ExecutionContext = newFrom(m)
 
   protected def createWithNewMap(newMap: MutableMap[String, Any]) = {
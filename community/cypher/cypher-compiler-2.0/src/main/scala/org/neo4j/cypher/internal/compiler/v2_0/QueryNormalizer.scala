@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0
+
+import scala.collection.mutable
+
+case class NormalizedQuery(text: String, parameters: Map[String, Any])
+
+/**
+ * Replaces string and number literals with parameters, so that queries that only differ in the values they
+ * compare against share one execution plan.
+ *
+ * This works on the query text rather than the AST, since the plan cache is consulted before anything is parsed.
+ * Only literals in positions where a parameter is guaranteed to mean the same thing are replaced: the right hand
+ * side of a comparison, a map value, a SKIP or LIMIT count, or a whole IN list of literals, and then only when the
+ * literal is directly followed by the end of the expression. Literals in RETURN and WITH projections are left alone,
+ * since column names are taken from the query text. Anything the normalizer does not understand leaves the query
+ * as it is.
+ */
+object QueryNormalizer {
+  val PARAMETER_PREFIX = "  AUTOPARAM"
+
+  private val comparisons = Set("=", "<>", "<", ">", "<=", ">=")
+
+  private val expressionEnds = Set("AND", "OR", "XOR", "WHERE", "RETURN", "WITH", "MATCH", "OPTIONAL", "START",
+    "CREATE", "MERGE", "SET", "DELETE", "REMOVE", "FOREACH", "ORDER", "SKIP", "LIMIT", "UNION", "USING", "ON",
+    "WHEN", "THEN", "ELSE", "END")
+
+  private val projectionEnds = Set("MATCH", "OPTIONAL", "START", "CREATE", "MERGE", "SET", "DELETE", "REMOVE",
+    "FOREACH", "WITH", "RETURN", "UNION", "SKIP", "LIMIT")
+
+  def apply(query: String): NormalizedQuery = {
+    if (query.contains(PARAMETER_PREFIX.trim))
+      return NormalizedQuery(query, Map.empty)
+
+    tokenize(query) match {
+      case Some(tokens) => rewrite(query, tokens)
+      case None         => NormalizedQuery(query, Map.empty)
+    }
+  }
+
+  private sealed trait TokenKind
+  private case object WordToken extends TokenKind
+  private case object StringToken extends TokenKind
+  private case object NumberToken extends TokenKind
+  private case object SymbolToken extends TokenKind
+
+  private case class Token(kind: TokenKind, start: Int, end: Int, text: String, value: Any = null) {
+    def is(symbol: String) = kind == SymbolToken && text == symbol
+    def isWord(words: Set[String]) = kind == WordToken && words(text.toUpperCase)
+    def isLiteral = kind == StringToken || kind == NumberToken
+  }
+
+  private def rewrite(query: String, tokens: IndexedSeq[Token]): NormalizedQuery = {
+    val replacements = mutable.ArrayBuffer[(Int, Int, Any)]()
+    var depth = 0
+    var openings = List[String]()
+    var projection = false
+    var projectionIsWith = false
+
+    def endsExpression(i: Int) = i >= tokens.size || {
+      val next = tokens(i)
+      next.is(")") || next.is("]") || next.is("}") || next.is(",") || next.isWord(expressionEnds)
+    }
+
+    def extractable(literal: Token, previous: Token) =
+      previous.kind == SymbolToken && comparisons(previous.text) ||
+      previous.is(":") && openings.headOption == Some("{") ||
+      literal.kind == NumberToken && previous.isWord(Set("SKIP", "LIMIT")) && literal.value.isInstanceOf[Long]
+
+    var i = 0
+    while (i < tokens.size) {
+      val token = tokens(i)
+      val previous = if (i > 0) Some(tokens(i - 1)) else None
+
+      if (token.kind == WordToken && depth == 0) {
+        val word = token.text.toUpperCase
+        if (word == "RETURN" || word == "WITH") {
+          projection = true
+          projectionIsWith = word == "WITH"
+        } else if (projectionEnds(word) || (word == "WHERE" && projectionIsWith)) {
+          projection = false
+        }
+      }
+
+      if (token.is("(") || token.is("[") || token.is("{")) {
+        depth += 1
+        openings = token.text :: openings
+      } else if (token.is(")") || token.is("]") || token.is("}")) {
+        depth -= 1
+        if (openings.isEmpty)
+          return NormalizedQuery(query, Map.empty)
+        openings = openings.tail
+      }
+
+      if (!projection) previous match {
+        case Some(p) if token.isLiteral && extractable(token, p) && endsExpression(i + 1) =>
+          replacements += ((token.start, token.end, token.value))
+
+        case Some(p) if token.is("-") && i + 1 < tokens.size && tokens(i + 1).kind == NumberToken &&
+          tokens(i + 1).start == token.end && extractable(tokens(i + 1), p) && endsExpression(i + 2) =>
+          val number = tokens(i + 1)
+          val negated = number.value match {
+            case l: Long   => -l
+            case d: Double => -d
+          }
+          replacements += ((token.start, number.end, negated))
+          i += 1
+
+        case Some(p) if token.is("[") && p.isWord(Set("IN")) =>
+          literalList(tokens, i + 1) match {
+            case Some((values, close)) if endsExpression(close + 1) =>
+              replacements += ((token.start, tokens(close).end, values))
+              depth -= 1
+              openings = openings.tail
+              i = close
+
+            case _ =>
+          }
+
+        case _ =>
+      }
+
+      i += 1
+    }
+
+    if (replacements.isEmpty)
+      NormalizedQuery(query, Map.empty)
+    else {
+      val text = new java.lang.StringBuilder
+      val parameters = Map.newBuilder[String, Any]
+      var position = 0
+      replacements.zipWithIndex.foreach {
+        case ((start, end, value), n) =>
+          val name = PARAMETER_PREFIX + n
+          text.append(query, position, start).append("{`").append(name).append("`}")
+          parameters += name -> value
+          position = end
+      }
+      text.append(query, position, query.length)
+      NormalizedQuery(text.toString(), parameters.result())
+    }
+  }
+
+  private def literalList(tokens: IndexedSeq[Token], from: Int): Option[(List[Any], Int)] = {
+    val values = mutable.ListBuffer[Any]()
+    var i = from
+    while (i < tokens.size) {
+      val token = tokens(i)
+      if (token.isLiteral && (values.isEmpty || tokens(from).kind == token.kind)) {
+        values += token.value
+        i += 1
+        if (i < tokens.size && tokens(i).is("]"))
+          return Some((values.toList, i))
+        if (i >= tokens.size || !tokens(i).is(","))
+          return None
+        i += 1
+      } else
+        return None
+    }
+    None
+  }
+
+  private def tokenize(query: String): Option[IndexedSeq[Token]] = {
+    val tokens = mutable.ArrayBuffer[Token]()
+    val length = query.length
+    var i = 0
+
+    def at(n: Int) = if (n < length) query.charAt(n) else 0.toChar
+
+    while (i < length) {
+      val c = query.charAt(i)
+      val start = i
+
+      if (Character.isWhitespace(c)) {
+        i += 1
+      } else if (c == '/' && at(i + 1) == '/') {
+        while (i < length && query.charAt(i) != '\n') i += 1
+      } else if (c == '/' && at(i + 1) == '*') {
+        val end = query.indexOf("*/", i + 2)
+        if (end < 0)
+          return None
+        i = end + 2
+      } else if (c == '`') {
+        val end = query.indexOf('`', i + 1)
+        if (end < 0)
+          return None
+        i = end + 1
+        tokens += Token(WordToken, start, i, query.substring(start, i))
+      } else if (c == '\'' || c == '"') {
+        val value = new StringBuilder
+        i += 1
+        while (i < length && query.charAt(i) != c) {
+          if (query.charAt(i) == '\\') {
+            at(i + 1) match {
+              case '\\' | '\'' | '"' => value.append(at(i + 1))
+              case 'b' => value.append('\b')
+              case 'f' => value.append('\f')
+              case 'n' => value.append('\n')
+              case 'r' => value.append('\r')
+              case 't' => value.append('\t')
+              case 'u' if i + 6 <= length && query.substring(i + 2, i + 6).forall(Character.digit(_, 16) >= 0) =>
+                value.append(Integer.parseInt(query.substring(i + 2, i + 6), 16).toChar)
+                i += 4
+              case _   => return None
+            }
+            i += 2
+          } else {
+            value.append(query.charAt(i))
+            i += 1
+          }
+        }
+        if (i >= length)
+          return None
+        i += 1
+        tokens += Token(StringToken, start, i, query.substring(start, i), value.toString())
+      } else if (Character.isDigit(c)) {
+        while (Character.isDigit(at(i))) i += 1
+        val decimal = at(i) == '.' && Character.isDigit(at(i + 1))
+        if (decimal) {
+          i += 1
+          while (Character.isDigit(at(i))) i += 1
+        }
+        val text = query.substring(start, i)
+        val integral = if (decimal) text.substring(0, text.indexOf('.')) else text
+        if (integral.length > 1 && integral.charAt(0) == '0')
+          tokens += Token(SymbolToken, start, i, text)
+        else try {
+          tokens += Token(NumberToken, start, i, text, if (decimal) text.toDouble else text.toLong)
+        } catch {
+          case _: NumberFormatException => tokens += Token(SymbolToken, start, i, text)
+        }
+      } else if (Character.isLetter(c) || c == '_') {
+        while (Character.isLetterOrDigit(at(i)) || at(i) == '_') i += 1
+        tokens += Token(WordToken, start, i, query.substring(start, i))
+      } else {
+        val two = query.substring(i, math.min(i + 2, length))
+        val symbol = if (Set("<>", "<=", ">=", "=~", "<-", "->", "..")(two)) two else c.toString
+        i += symbol.length
+        tokens += Token(SymbolToken, start, i, symbol)
+      }
+    }
+
+    Some(tokens)
+  }
+}
@@ -20,7 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_0.commands
 
 import org.neo4j.cypher.internal.compiler.v2_0._
-import expressions.{Identifier, Literal, Expression}
+import expressions.{Property, Identifier, Literal, Expression}
 import pipes.QueryState
 import symbols._
 import org.neo4j.cypher.internal.helpers.IsCollection
@@ -61,16 +61,15 @@ case class Equals(a: Expression, b: Expression) extends Predicate with Comparer
     else             None
   }
 
-  def isMatch(m: ExecutionContext)(implicit state: QueryState): Option[Boolean] = {
-    val a1 = a(m)
-    val b1 = b(m)
-
-    (a1, b1) match {
-      case (null, _)                          => None
-      case (_, null)                          => None
-      case (IsCollection(l), IsCollection(r)) => Some(l == r)
-      case _                                  => Some(a1 == b1)
-    }
+  def isMatch(m: ExecutionContext)(implicit state: QueryState): Option[Boolean] = (a, b) match {
+    case (p: Property, _) => propertyMatch(p, b(m), m)
+    case (_, p: Property) => propertyMatch(p, a(m), m)
+    case _                => Equals.valuesMatch(a(m), b(m))
+  }
+
+  private def propertyMatch(p: Property, value: Any, m: ExecutionContext)(implicit state: QueryState) = value match {
+    case s: String => p.equalsString(m, s)
+    case _         => Equals.valuesMatch(p(m), value)
   }
 
   override def toString = a.toString() + " == " + b.toString()
@@ -92,6 +91,15 @@ case class Equals(a: Expression, b: Expression) extends Predicate with Comparer
   def symbolTableDependencies = a.symbolTableDependencies ++ b.symbolTableDependencies
 }
 
+object Equals {
+  def valuesMatch(a: Any, b: Any): Option[Boolean] = (a, b) match {
+    case (null, _)                          => None
+    case (_, null)                          => None
+    case (IsCollection(l), IsCollection(r)) => Some(l == r)
+    case _                                  => Some(a == b)
+  }
+}
+
 case class LessThan(a: Expression, b: Expression) extends ComparablePredicate(a, b) {
   def compare(comparisonResult: Int) = comparisonResult < 0
   def sign: String = "<"
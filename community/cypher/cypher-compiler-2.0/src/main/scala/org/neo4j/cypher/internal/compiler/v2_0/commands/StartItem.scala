@@ -84,6 +84,29 @@ case class SchemaIndex(identifier: String, label: String, property: String, kind
   extends StartItem(identifier, Map("label" -> label, "property" -> property) ++ query.map("query" -> _.toString()))
   with ReadOnlyStartItem with Hint with NodeStartItemIdentifiers
 
+case class CompositeSchemaIndex(identifier: String, label: String, properties: Seq[String], queries: Seq[Expression])
+  extends StartItem(identifier, Map("label" -> label, "properties" -> properties.mkString(", "),
+                                    "query" -> queries.mkString(", ")))
+  with ReadOnlyStartItem with NodeStartItemIdentifiers
+
+case class RangeBound(expression: Expression, inclusive: Boolean) {
+  override def toString = expression.toString() + (if (inclusive) " (inclusive)" else " (exclusive)")
+}
+
+sealed abstract class IndexSeekRange
+
+case class ValueRange(lower: Option[RangeBound], upper: Option[RangeBound]) extends IndexSeekRange {
+  override def toString = lower.map(_.toString).getOrElse("-") + " to " + upper.map(_.toString).getOrElse("-")
+}
+
+case class PrefixRange(prefix: String) extends IndexSeekRange {
+  override def toString = "starts with '" + prefix + "'"
+}
+
+case class SchemaIndexRange(identifier: String, label: String, property: String, range: IndexSeekRange)
+  extends StartItem(identifier, Map("label" -> label, "property" -> property, "range" -> range.toString))
+  with ReadOnlyStartItem with NodeStartItemIdentifiers
+
 case class NodeById(varName: String, expression: Expression)
   extends StartItem(varName, Map("name" -> expression.toString()))
   with ReadOnlyStartItem with NodeStartItemIdentifiers
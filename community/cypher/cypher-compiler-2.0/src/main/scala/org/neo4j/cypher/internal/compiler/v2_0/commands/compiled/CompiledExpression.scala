@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.commands.compiled
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import commands.expressions.Expression
+import commands.Predicate
+import pipes.QueryState
+
+/**
+ * An expression compiled for repeated evaluation. Compiled expressions take the query state as a plain parameter and
+ * are specialised for the shape of the tree they came from, falling back to the interpreted expression where no
+ * specialisation exists.
+ */
+abstract class CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState): Any
+}
+
+/**
+ * A compiled predicate. The outcome is one of the Ternary constants, which avoids allocating an Option per row.
+ */
+abstract class CompiledPredicate extends CompiledExpression {
+  def isMatch(ctx: ExecutionContext, state: QueryState): Int
+
+  def isTrue(ctx: ExecutionContext, state: QueryState): Boolean = isMatch(ctx, state) == Ternary.TRUE
+
+  def apply(ctx: ExecutionContext, state: QueryState): Any = isMatch(ctx, state) match {
+    case Ternary.TRUE  => true
+    case Ternary.FALSE => false
+    case _             => null
+  }
+}
+
+object Ternary {
+  final val FALSE = 0
+  final val TRUE = 1
+  final val UNKNOWN = 2
+
+  def apply(value: Boolean): Int = if (value) TRUE else FALSE
+
+  def apply(value: Option[Boolean]): Int = value match {
+    case Some(true)  => TRUE
+    case Some(false) => FALSE
+    case None        => UNKNOWN
+  }
+}
+
+class InterpretedExpression(expression: Expression) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = expression(ctx)(state)
+
+  override def toString = "Interpreted(" + expression + ")"
+}
+
+class InterpretedPredicate(predicate: Predicate) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = Ternary(predicate.isMatch(ctx)(state))
+
+  override def toString = "Interpreted(" + predicate + ")"
+}
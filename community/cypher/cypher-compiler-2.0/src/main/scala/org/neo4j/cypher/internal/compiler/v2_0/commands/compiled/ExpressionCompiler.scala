@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.commands.compiled
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import commands._
+import commands.expressions._
+import commands.values.KeyToken
+import helpers.IsMap
+import pipes.QueryState
+import pipes.slots.{SlotLayout, SlotRow}
+import spi.Operations
+import org.neo4j.cypher.{CypherTypeException, EntityNotFoundException}
+import org.neo4j.cypher.internal.helpers.{CastSupport, IsCollection}
+import org.neo4j.graphdb.{NotFoundException, PropertyContainer, Relationship, Node}
+import org.neo4j.helpers.ThisShouldNotHappenError
+
+/**
+ * Turns expression and predicate trees into trees of specialised closures. Identifier lookups, property reads,
+ * comparisons and boolean logic are compiled; anything else is evaluated by the interpreted expression, so every tree
+ * can be compiled, and the result always behaves exactly like the interpreted tree.
+ */
+object ExpressionCompiler {
+  def compile(expression: Expression): CompiledExpression = expression match {
+    case Literal(v)                  => new CompiledLiteral(v)
+    case Identifier(name)            => new CompiledIdentifier(name)
+    case CachedExpression(key, _)    => new CompiledCachedExpression(key)
+    case ParameterExpression(name)   => new CompiledParameter(name)
+    case p: Property                 => compileProperty(p)
+    case a: Add                      => new CompiledAdd(a, compile(a.a), compile(a.b))
+    case s: Subtract                 => new CompiledArithmetic(s, compile(s.a), compile(s.b))
+    case m: Multiply                 => new CompiledArithmetic(m, compile(m.a), compile(m.b))
+    case m: Modulo                   => new CompiledArithmetic(m, compile(m.a), compile(m.b))
+    case p: Predicate                => compile(p)
+    case _                           => new InterpretedExpression(expression)
+  }
+
+  def compile(predicate: Predicate): CompiledPredicate = predicate match {
+    case True()                      => new CompiledTrue
+    case p: And                      => new CompiledAnd(compile(p.a), compile(p.b))
+    case Or(a, b)                    => new CompiledOr(compile(a), compile(b))
+    case Xor(a, b)                   => new CompiledXor(compile(a), compile(b))
+    case Not(a)                      => new CompiledNot(compile(a))
+    case IsNull(e)                   => new CompiledIsNull(compile(e))
+    case Equals(p: Property, b)      => new CompiledPropertyEquals(compileProperty(p), compile(b))
+    case Equals(a, p: Property)      => new CompiledPropertyEquals(compileProperty(p), compile(a))
+    case Equals(a, b)                => new CompiledEquals(compile(a), compile(b))
+    case p: ComparablePredicate      =>
+      val Seq(left, right) = p.arguments
+      new CompiledComparison(p, compile(left), compile(right))
+    case Has(e, key)                 => new CompiledHas(compile(e), key, e)
+    case HasLabel(e, label)          => new CompiledHasLabel(compile(e), label)
+    case CoercedPredicate(inner)     => new CompiledCoercedPredicate(compile(inner))
+    case _                           => new InterpretedPredicate(predicate)
+  }
+
+  private def compileProperty(property: Property) = new CompiledProperty(property, compile(property.mapExpr))
+}
+
+class CompiledLiteral(value: Any) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = value
+}
+
+/*
+Rows laid out in slots are read by slot index. The slot is looked up once per layout and cached; the cached pair is
+immutable, so concurrent executions of a cached plan at worst look it up again.
+ */
+class CompiledIdentifier(name: String) extends CompiledExpression {
+  private var cached: (SlotLayout, Int) = null
+
+  def apply(ctx: ExecutionContext, state: QueryState) = ctx.m match {
+    case row: SlotRow =>
+      val slot = slotIn(row.layout)
+      if (slot >= 0 && row.hasValueAt(slot)) row.valueAt(slot) else lookup(ctx)
+    case _            =>
+      lookup(ctx)
+  }
+
+  def slotIn(layout: SlotLayout): Int = {
+    val current = cached
+    if (current != null && (current._1 eq layout)) {
+      current._2
+    } else {
+      val slot = layout.slotOf(name)
+      cached = (layout, slot)
+      slot
+    }
+  }
+
+  private def lookup(ctx: ExecutionContext) =
+    ctx.getOrElse(name, throw new NotFoundException("Unknown identifier `%s`.".format(name)))
+}
+
+class CompiledCachedExpression(key: String) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = ctx(key)
+}
+
+class CompiledParameter(name: String) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = state.getParam(name)
+}
+
+/*
+Reads node and relationship properties straight through the query context by property key id, instead of going
+through a property container map and signalling missing properties with exceptions. Entities held in slot rows as
+bare ids are read without being looked up.
+ */
+class CompiledProperty(property: Property, mapExpr: CompiledExpression) extends CompiledExpression {
+  private val key = property.propertyKey
+  private val resolvedKeyId = key match {
+    case KeyToken.Resolved(_, id, _) => id
+    case _                           => -1
+  }
+  private val identifier = mapExpr match {
+    case i: CompiledIdentifier => i
+    case _                     => null
+  }
+
+  def apply(ctx: ExecutionContext, state: QueryState): Any = {
+    val slot = unmaterializedSlotIn(ctx)
+    if (slot >= 0) {
+      val row = ctx.m.asInstanceOf[SlotRow]
+      if (row.layout.kindOf(slot) == SlotLayout.NODE)
+        read(row.entityIdAt(slot), state.query.nodeOps, state)
+      else
+        read(row.entityIdAt(slot), state.query.relationshipOps, state)
+    } else {
+      readFrom(mapExpr(ctx, state), state)
+    }
+  }
+
+  /*
+  Strings are compared with node and relationship properties by the query context, which doesn't read properties kept
+  in the string dictionary to do so. None if there's no such property.
+   */
+  def equalsString(ctx: ExecutionContext, state: QueryState, value: String): Option[Boolean] = {
+    val slot = unmaterializedSlotIn(ctx)
+    if (slot >= 0) {
+      val row = ctx.m.asInstanceOf[SlotRow]
+      if (row.layout.kindOf(slot) == SlotLayout.NODE)
+        equalsString(row.entityIdAt(slot), state.query.nodeOps, state, value)
+      else
+        equalsString(row.entityIdAt(slot), state.query.relationshipOps, state, value)
+    } else mapExpr(ctx, state) match {
+      case n: Node         => equalsString(n.getId, state.query.nodeOps, state, value)
+      case r: Relationship => equalsString(r.getId, state.query.relationshipOps, state, value)
+      case container       => Option(readFrom(container, state)).map(_ == value)
+    }
+  }
+
+  private def unmaterializedSlotIn(ctx: ExecutionContext): Int = ctx.m match {
+    case row: SlotRow if identifier != null =>
+      val slot = identifier.slotIn(row.layout)
+      if (slot >= 0 && row.isUnmaterialized(slot)) slot else -1
+    case _                                  =>
+      -1
+  }
+
+  private def readFrom(value: Any, state: QueryState): Any = value match {
+    case null            => null
+    case n: Node         => read(n.getId, state.query.nodeOps, state)
+    case r: Relationship => read(r.getId, state.query.relationshipOps, state)
+    case IsMap(mapFunc)  => try {
+      mapFunc(state.query).apply(key.name)
+    } catch {
+      case _: EntityNotFoundException => null
+      case _: NotFoundException       => null
+    }
+    case _               => throw new ThisShouldNotHappenError("Andres", "Need something with properties")
+  }
+
+  private def read[T <: PropertyContainer](id: Long, ops: Operations[T], state: QueryState): Any = {
+    val keyId = keyIdIn(state)
+    if (keyId < 0)
+      null
+    else try {
+      ops.getProperty(id, keyId)
+    } catch {
+      case _: EntityNotFoundException => null
+      case _: NotFoundException       => null
+    }
+  }
+
+  private def equalsString[T <: PropertyContainer](id: Long, ops: Operations[T], state: QueryState,
+                                                   value: String): Option[Boolean] = {
+    val keyId = keyIdIn(state)
+    if (keyId < 0)
+      None
+    else try {
+      ops.propertyEquals(id, keyId, value)
+    } catch {
+      case _: EntityNotFoundException => None
+      case _: NotFoundException       => None
+    }
+  }
+
+  private def keyIdIn(state: QueryState): Int =
+    if (resolvedKeyId >= 0) resolvedKeyId else key.getOptId(state.query).getOrElse(-1)
+}
+
+class CompiledAdd(add: Add, a: CompiledExpression, b: CompiledExpression) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = {
+    val aVal = a(ctx, state)
+    val bVal = b(ctx, state)
+
+    (aVal, bVal) match {
+      case (null, _)                          => null
+      case (_, null)                          => null
+      case (x: Number, y: Number)             => add.plus(x, y)
+      case (x: String, y: String)             => x + y
+      case (IsCollection(x), IsCollection(y)) => x ++ y
+      case (IsCollection(x), y)               => x ++ Seq(y)
+      case (x, IsCollection(y))               => Seq(x) ++ y
+      case (x: String, y: Number)             => x + y.toString
+      case (x: Number, y: String)             => x.toString + y
+      case _                                  => throw new CypherTypeException("Don't know how to add `" + aVal.toString + "` and `" + bVal.toString + "`")
+    }
+  }
+}
+
+class CompiledArithmetic(arithmetic: Arithmetics, a: CompiledExpression, b: CompiledExpression) extends CompiledExpression {
+  def apply(ctx: ExecutionContext, state: QueryState) = {
+    val aVal = a(ctx, state)
+    val bVal = b(ctx, state)
+
+    (aVal, bVal) match {
+      case (null, _)              => null
+      case (_, null)              => null
+      case (x: Number, y: Number) => arithmetic.calc(x, y)
+      case _                      => arithmetic.throwTypeError(bVal, aVal)
+    }
+  }
+}
+
+class CompiledTrue extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = Ternary.TRUE
+}
+
+// Both sides are always evaluated, like the interpreted predicates, so errors surface the same way
+class CompiledAnd(a: CompiledPredicate, b: CompiledPredicate) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = {
+    val l = a.isMatch(ctx, state)
+    val r = b.isMatch(ctx, state)
+    if (l == Ternary.FALSE || r == Ternary.FALSE) Ternary.FALSE
+    else if (l == Ternary.UNKNOWN || r == Ternary.UNKNOWN) Ternary.UNKNOWN
+    else Ternary.TRUE
+  }
+}
+
+class CompiledOr(a: CompiledPredicate, b: CompiledPredicate) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = {
+    val l = a.isMatch(ctx, state)
+    val r = b.isMatch(ctx, state)
+    if (l == Ternary.TRUE || r == Ternary.TRUE) Ternary.TRUE
+    else if (l == Ternary.UNKNOWN || r == Ternary.UNKNOWN) Ternary.UNKNOWN
+    else Ternary.FALSE
+  }
+}
+
+class CompiledXor(a: CompiledPredicate, b: CompiledPredicate) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = {
+    val l = a.isMatch(ctx, state)
+    val r = b.isMatch(ctx, state)
+    if (l == Ternary.UNKNOWN || r == Ternary.UNKNOWN) Ternary.UNKNOWN
+    else Ternary(l != r)
+  }
+}
+
+class CompiledNot(a: CompiledPredicate) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = a.isMatch(ctx, state) match {
+    case Ternary.TRUE  => Ternary.FALSE
+    case Ternary.FALSE => Ternary.TRUE
+    case _             => Ternary.UNKNOWN
+  }
+}
+
+class CompiledIsNull(e: CompiledExpression) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = Ternary(e(ctx, state) == null)
+}
+
+class CompiledEquals(a: CompiledExpression, b: CompiledExpression) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = Ternary(Equals.valuesMatch(a(ctx, state), b(ctx, state)))
+}
+
+class CompiledPropertyEquals(property: CompiledProperty, other: CompiledExpression) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = other(ctx, state) match {
+    case s: String => Ternary(property.equalsString(ctx, state, s))
+    case value     => Ternary(Equals.valuesMatch(property(ctx, state), value))
+  }
+}
+
+class CompiledComparison(predicate: ComparablePredicate, left: CompiledExpression, right: CompiledExpression)
+  extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = {
+    val l = left(ctx, state)
+    val r = right(ctx, state)
+
+    if (l == null || r == null)
+      Ternary.UNKNOWN
+    else
+      Ternary(predicate.compare(predicate.compare(l, r)(state)))
+  }
+}
+
+class CompiledHas(e: CompiledExpression, key: KeyToken, identifier: Expression) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = e(ctx, state) match {
+    case n: Node         => Ternary(key.getOptId(state.query).exists(state.query.nodeOps.hasProperty(n.getId, _)))
+    case r: Relationship => Ternary(key.getOptId(state.query).exists(state.query.relationshipOps.hasProperty(r.getId, _)))
+    case null            => Ternary.UNKNOWN
+    case _               => throw new CypherTypeException("Expected " + identifier + " to be a property container.")
+  }
+}
+
+class CompiledHasLabel(e: CompiledExpression, label: KeyToken) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = e(ctx, state) match {
+    case null  => Ternary.UNKNOWN
+    case value =>
+      val node = CastSupport.castOrFail[Node](value)
+      label.getOptId(state.query) match {
+        case None          => Ternary.FALSE
+        case Some(labelId) => Ternary(state.query.isLabelSetOnNode(labelId, node.getId))
+      }
+  }
+}
+
+class CompiledCoercedPredicate(inner: CompiledExpression) extends CompiledPredicate {
+  def isMatch(ctx: ExecutionContext, state: QueryState) = inner(ctx, state) match {
+    case x: Boolean         => Ternary(x)
+    case null               => Ternary.UNKNOWN
+    case IsCollection(coll) => Ternary(coll.nonEmpty)
+    case x                  => throw new CypherTypeException(s"Don't know how to treat that as a predicate: $x")
+  }
+}
@@ -25,13 +25,35 @@ import pipes.QueryState
 import symbols._
 import org.neo4j.cypher.EntityNotFoundException
 import org.neo4j.helpers.ThisShouldNotHappenError
-import org.neo4j.graphdb.NotFoundException
+import org.neo4j.graphdb.{PropertyContainer, Relationship, Node, NotFoundException}
 import org.neo4j.cypher.internal.compiler.v2_0.helpers.IsMap
+import org.neo4j.cypher.internal.compiler.v2_0.spi.Operations
 
 case class Property(mapExpr: Expression, propertyKey: KeyToken)
   extends Expression with Product with Serializable
 {
-  def apply(ctx: ExecutionContext)(implicit state: QueryState): Any = mapExpr(ctx) match {
+  def apply(ctx: ExecutionContext)(implicit state: QueryState): Any = readFrom(mapExpr(ctx))
+
+  /*
+  Node and relationship properties are compared with strings by the query context, which doesn't read properties kept
+  in the string dictionary to do so.
+   */
+  def equalsString(ctx: ExecutionContext, value: String)(implicit state: QueryState): Option[Boolean] =
+    mapExpr(ctx) match {
+      case n: Node         => equalsString(n.getId, state.query.nodeOps, value)
+      case r: Relationship => equalsString(r.getId, state.query.relationshipOps, value)
+      case container       => Option(readFrom(container)).map(_ == value)
+    }
+
+  private def equalsString[T <: PropertyContainer](id: Long, ops: Operations[T], value: String)
+                                                  (implicit state: QueryState): Option[Boolean] = try {
+    propertyKey.getOptId(state.query).flatMap(ops.propertyEquals(id, _, value))
+  } catch {
+    case _: EntityNotFoundException => None
+    case _: NotFoundException       => None
+  }
+
+  private def readFrom(container: Any)(implicit state: QueryState): Any = container match {
     case null           => null
     case IsMap(mapFunc) => try {
       mapFunc(state.query).apply(propertyKey.name)
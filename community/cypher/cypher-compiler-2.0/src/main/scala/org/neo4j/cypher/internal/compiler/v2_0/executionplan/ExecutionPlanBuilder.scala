@@ -25,25 +25,40 @@ import commands._
 import commands.values.{TokenType, KeyToken}
 import org.neo4j.cypher.internal.compiler.v2_0.executionplan.builders.prepare.{AggregationPreparationRewriter, KeyTokenResolver}
 import pipes._
+import pipes.slots.SlotLayout
+import pipes.spill.SpillFiles
 import profiler.Profiler
 import symbols.SymbolTable
 import org.neo4j.cypher.{SyntaxException, ExecutionResult}
 import org.neo4j.graphdb.GraphDatabaseService
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.InternalAbstractGraphDatabase
 import org.neo4j.cypher.internal.compiler.v2_0.spi.{QueryContext, PlanContext}
 
 class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuilder {
 
   type PipeAndIsUpdating = (Pipe, Boolean)
 
+  private lazy val rowsInMemory: Int = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.query_rows_in_memory).intValue()
+    case _                                 => QueryState.UNBOUNDED_ROWS_IN_MEMORY
+  }
+
+  private lazy val compiledExpressions: Boolean = graph match {
+    case db: InternalAbstractGraphDatabase => db.getConfig.get(GraphDatabaseSettings.cypher_compiled_expressions).booleanValue()
+    case _                                 => false
+  }
+
   def build(planContext: PlanContext, inputQuery: AbstractQuery): ExecutionPlan = {
 
     val (p, isUpdating) = buildPipes(planContext, inputQuery)
+    val slots = SlotLayout.forPipe(p)
 
     val columns = getQueryResultColumns(inputQuery, p.symbols)
     val func = if (isUpdating) {
-      getEagerReadWriteQuery(p, columns)
+      getEagerReadWriteQuery(p, columns, slots)
     } else {
-      getLazyReadonlyQuery(p, columns)
+      getLazyReadonlyQuery(p, columns, slots)
     }
 
     new ExecutionPlan {
@@ -121,9 +136,9 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
   }
 
 
-  private def getLazyReadonlyQuery(pipe: Pipe, columns: List[String]): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
+  private def getLazyReadonlyQuery(pipe: Pipe, columns: List[String], slots: SlotLayout): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
     val func = (queryContext: QueryContext, params: Map[String, Any], profile: Boolean) => {
-      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile)
+      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile, slots)
 
       new PipeExecutionResult(results, columns, state, descriptor)
     }
@@ -131,23 +146,27 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
     func
   }
 
-  private def getEagerReadWriteQuery(pipe: Pipe, columns: List[String]): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
+  private def getEagerReadWriteQuery(pipe: Pipe, columns: List[String], slots: SlotLayout): (QueryContext, Map[String, Any], Boolean) => ExecutionResult = {
     val func = (queryContext: QueryContext, params: Map[String, Any], profile: Boolean) => {
-      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile)
+      val (state, results, descriptor) = prepareStateAndResult(queryContext, params, pipe, profile, slots)
       new EagerPipeExecutionResult(results, columns, state, descriptor)
     }
 
     func
   }
 
-  private def prepareStateAndResult(queryContext: QueryContext, params: Map[String, Any], pipe: Pipe, profile:Boolean):
+  private def prepareStateAndResult(queryContext: QueryContext, params: Map[String, Any], pipe: Pipe, profile:Boolean,
+                                    slots: SlotLayout):
     (QueryState, ClosingIterator, () => PlanDescription) = {
 
+    val spillFiles = new SpillFiles
     try {
       val decorator = if (profile) new Profiler() else NullDecorator
-      val state = new QueryState(graph, queryContext, params, decorator)
+      val state = new QueryState(graph, queryContext, params, decorator,
+        rowsInMemory = rowsInMemory, compiledExpressions = compiledExpressions, slots = Some(slots),
+        spillFiles = spillFiles)
       val results: Iterator[collection.Map[String, Any]] = pipe.createResults(state)
-      val closingIterator = new ClosingIterator(results, queryContext)
+      val closingIterator = new ClosingIterator(results, queryContext, spillFiles)
       val descriptor = { () =>
         val result = decorator.decorate(pipe.executionPlanDescription, closingIterator.isEmpty)
         result
@@ -156,6 +175,7 @@ class ExecutionPlanBuilder(graph: GraphDatabaseService) extends PatternGraphBuil
     }
     catch {
       case (t: Throwable) =>
+        spillFiles.deleteAll()
         queryContext.close(success = false)
         throw t
     }
@@ -24,10 +24,11 @@ import commands._
 import data.SimpleVal
 import data.SimpleVal._
 import mutation.GraphElementPropertyFunctions
-import pipes.{EntityProducer, QueryState}
+import pipes.{EntityIdProducer, EntityProducer, QueryState}
 import org.neo4j.cypher.internal.helpers._
 import org.neo4j.cypher.{EntityNotFoundException, IndexHintException, InternalException}
 import org.neo4j.graphdb.{PropertyContainer, Relationship, Node}
+import org.neo4j.kernel.api.index.CompositeValue
 import org.neo4j.cypher.internal.compiler.v2_0.spi.PlanContext
 
 class EntityProducerFactory extends GraphElementPropertyFunctions {
@@ -42,11 +43,30 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
       def description = Materialized.mapValues(startItem.args, fromStr).toSeq
     }
 
+  private def asLabelScanProducer(startItem: StartItem)
+                                 (labelId: QueryState => Option[Int]) = new EntityIdProducer[Node] {
+    def apply(m: ExecutionContext, q: QueryState) = labelId(q) match {
+      case Some(id) => q.query.getNodesByLabel(id)
+      case None     => Iterator.empty
+    }
+
+    def ids(m: ExecutionContext, q: QueryState) = labelId(q) match {
+      case Some(id) => q.query.getNodeIdsByLabel(id)
+      case None     => Iterator.empty
+    }
+
+    def name = startItem.name
+
+    def description = Materialized.mapValues(startItem.args, fromStr).toSeq
+  }
+
   def nodeStartItems: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] =
     nodeById orElse
       nodeByIndex orElse
       nodeByIndexQuery orElse
       nodeByIndexHint orElse
+      nodeByIndexRange orElse
+      nodeByCompositeIndex orElse
       nodeByLabel orElse
       nodesAll
 
@@ -93,19 +113,12 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
   val nodeByLabel: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
     // The label exists at compile time - no need to look up the label id for every run
     case (planContext, startItem@NodeByLabel(identifier, label)) if planContext.getOptLabelId(label).nonEmpty =>
-      val labelId: Int = planContext.getOptLabelId(label).get
-      asProducer[Node](startItem) {
-        (m: ExecutionContext, state: QueryState) => state.query.getNodesByLabel(labelId)
-      }
+      val labelId: Option[Int] = planContext.getOptLabelId(label)
+      asLabelScanProducer(startItem)(state => labelId)
 
     // The label is missing at compile time - we look it up every time this plan is run
-    case (planContext, startItem@NodeByLabel(identifier, label)) => asProducer(startItem) {
-      (m: ExecutionContext, state: QueryState) =>
-        state.query.getOptLabelId(label) match {
-          case Some(labelId) => state.query.getNodesByLabel(labelId)
-          case None          => Iterator.empty
-        }
-    }
+    case (planContext, startItem@NodeByLabel(identifier, label)) =>
+      asLabelScanProducer(startItem)(state => state.query.getOptLabelId(label))
   }
 
   val nodesAll: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
@@ -154,6 +167,62 @@ class EntityProducerFactory extends GraphElementPropertyFunctions {
       }
   }
 
+  val nodeByIndexRange: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
+    case (planContext, startItem @ SchemaIndexRange(identifier, labelName, propertyName, range)) =>
+
+      val indexGetter = planContext.getIndexRule(labelName, propertyName)
+
+      val index = indexGetter getOrElse
+        (throw new IndexHintException(identifier, labelName, propertyName, "No such index found."))
+
+      range match {
+        case PrefixRange(prefix) =>
+          asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+            state.query.prefixIndexSearch(index, prefix)
+          }
+
+        case ValueRange(lower, upper) =>
+          asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+            val lowerValue = lower.map(_.expression(m)(state))
+            val upperValue = upper.map(_.expression(m)(state))
+            val includeLower = lower.forall(_.inclusive)
+            val includeUpper = upper.forall(_.inclusive)
+            val bounds = (lowerValue ++ upperValue).toSeq
+
+            if (bounds.contains(null))
+              // Comparing with null is never true
+              Iterator.empty
+            else if (bounds.forall(_.isInstanceOf[Number]))
+              state.query.numberRangeIndexSearch(index,
+                lowerValue.map(_.asInstanceOf[Number]), includeLower, upperValue.map(_.asInstanceOf[Number]), includeUpper)
+            else if (bounds.forall(_.isInstanceOf[String]))
+              state.query.stringRangeIndexSearch(index,
+                lowerValue.map(_.asInstanceOf[String]), includeLower, upperValue.map(_.asInstanceOf[String]), includeUpper)
+            else
+              // The index can't answer this, scan the label and leave it to the filter
+              state.query.getNodesByLabel(index.getLabelId)
+          }
+      }
+  }
+
+  val nodeByCompositeIndex: PartialFunction[(PlanContext, StartItem), EntityProducer[Node]] = {
+    case (planContext, startItem @ CompositeSchemaIndex(identifier, labelName, propertyNames, valueExps)) =>
+
+      val index = planContext.getCompositeIndexRules(labelName).collectFirst {
+        case (`propertyNames`, descriptor) => descriptor
+      } getOrElse
+        (throw new IndexHintException(identifier, labelName, propertyNames.mkString(", "), "No such index found."))
+
+      asProducer[Node](startItem) { (m: ExecutionContext, state: QueryState) =>
+        val values = valueExps.map(expression => makeValueNeoSafe(expression(m)(state)))
+        if (values.contains(null))
+          // Comparing with null is never true
+          Iterator.empty
+        else
+          state.query.exactIndexSearch(index, CompositeValue.of(values.map(_.asInstanceOf[AnyRef]): _*))
+      }
+  }
+
   val relationshipByIndex: PartialFunction[(PlanContext, StartItem), EntityProducer[Relationship]] = {
     case (planContext, startItem @ RelationshipByIndex(varName, idxName, key, value)) =>
       planContext.checkRelIndex(idxName)
@@ -34,20 +34,30 @@ class IndexLookupBuilder extends PlanBuilder {
     val hint = querylessHint.token
     val propertyPredicates = findPropertyPredicates(plan, hint)
     val labelPredicates = findLabelPredicates(plan, hint)
+    val range = findRange(plan, hint)
 
-    if (propertyPredicates.isEmpty || labelPredicates.isEmpty)
+    if (labelPredicates.isEmpty || (propertyPredicates.isEmpty && range.isEmpty))
       throw IndexHintException(hint, "No useful predicate was found for your index hint. Make sure the" +
         " property expression is alone either side of the equality sign.")
 
-    val (predicate, expression) = propertyPredicates.head
-
     val q: PartiallySolvedQuery = plan.query
 
-    val queryfullHint: Unsolved[StartItem] = Unsolved(hint.copy(query = Some(expression)))
-    val newQuery = q.copy(
-      where = q.where.filterNot(x => x == predicate || labelPredicates.contains(x)) ++ labelPredicates.map(_.solve) :+ predicate.solve,
-      start = q.start.filterNot(_ == querylessHint) :+ queryfullHint
-    )
+    val newQuery = if (propertyPredicates.nonEmpty) {
+      val (predicate, expression) = propertyPredicates.head
+
+      val queryfullHint: Unsolved[StartItem] = Unsolved(hint.copy(query = Some(expression)))
+      q.copy(
+        where = q.where.filterNot(x => x == predicate || labelPredicates.contains(x)) ++ labelPredicates.map(_.solve) :+ predicate.solve,
+        start = q.start.filterNot(_ == querylessHint) :+ queryfullHint
+      )
+    } else {
+      // The range predicates are left for the filter, the seek only narrows down the candidates
+      val rangeSeek: Unsolved[StartItem] = Unsolved(SchemaIndexRange(hint.identifier, hint.label, hint.property, range.get))
+      q.copy(
+        where = q.where.filterNot(x => labelPredicates.contains(x)) ++ labelPredicates.map(_.solve),
+        start = q.start.filterNot(_ == querylessHint) :+ rangeSeek
+      )
+    }
 
     plan.copy(query = newQuery)
   }
@@ -67,6 +77,9 @@ class IndexLookupBuilder extends PlanBuilder {
         if id == hint.identifier && prop.name == hint.property => (predicate, expression)
     }
 
+  private def findRange(plan: ExecutionPlanInProgress, hint: SchemaIndex): Option[IndexSeekRange] =
+    IndexRangeSeekStrategy.findRanges(hint.identifier, plan.query.where.map(_.token)).get(hint.property)
+
   private def extractInterestingStartItem(plan: ExecutionPlanInProgress): QueryToken[SchemaIndex] =
     plan.query.start.filter(interestingFilter).head.asInstanceOf[QueryToken[SchemaIndex]]
 
@@ -32,7 +32,9 @@ to be true for that node
  */
 object NodeFetchStrategy {
 
-  val nodeStrategies: Seq[NodeStrategy] = Seq(NodeByIdStrategy, IndexSeekStrategy, LabelScanStrategy, GlobalStrategy)
+  val nodeStrategies: Seq[NodeStrategy] =
+    Seq(NodeByIdStrategy, CompositeIndexSeekStrategy, IndexSeekStrategy, IndexRangeSeekStrategy, LabelScanStrategy,
+      GlobalStrategy)
 
   def findStartStrategy(node: String, boundIdentifiers: Set[String], where: Seq[Predicate], ctx: PlanContext): RatedStartItem = {
     val ratedItems = nodeStrategies.flatMap(_.findRatedStartItems(node, boundIdentifiers, where, ctx))
@@ -61,6 +63,7 @@ object NodeFetchStrategy {
 import NodeFetchStrategy.Single
 import NodeFetchStrategy.Global
 import NodeFetchStrategy.IndexEquality
+import NodeFetchStrategy.IndexRange
 import NodeFetchStrategy.LabelScan
 
 /*
@@ -144,6 +147,115 @@ object IndexSeekStrategy extends NodeStrategy {
     }
 }
 
+/*
+Finds seeks on composite indexes, where every indexed property is compared for equality with a value that is known
+before the query starts. Listed ahead of IndexSeekStrategy so that it wins ties against single property indexes
+ */
+object CompositeIndexSeekStrategy extends NodeStrategy {
+
+  def findRatedStartItems(node: String, boundIdentifiers: Set[String], where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] = {
+    val equalities: Map[PropertyKey, SolvedPredicate[Expression]] = findEqualityPredicatesOnProperty(node, where)
+
+    if (equalities.size < 2)
+      Seq.empty
+    else for (
+      labelPredicate <- findLabelsForNode(node, where);
+      (propertyKeys, _) <- ctx.getCompositeIndexRules(labelPredicate.solution) if propertyKeys.forall(equalities.contains)
+    ) yield {
+      val solved = propertyKeys.map(equalities)
+      val schemaIndex = CompositeSchemaIndex(node, labelPredicate.solution, propertyKeys, solved.map(_.solution))
+      RatedStartItem(schemaIndex, IndexEquality, labelPredicate.predicate +: solved.map(_.predicate))
+    }
+  }
+
+  private def findEqualityPredicatesOnProperty(identifier: IdentifierName, where: Seq[Predicate]): Map[PropertyKey, SolvedPredicate[Expression]] =
+    where.collect {
+      case predicate @ Equals(Property(Identifier(id), propertyKey), expression) if id == identifier && seekable(expression) =>
+        propertyKey.name -> SolvedPredicate(expression, predicate)
+      case predicate @ Equals(expression, Property(Identifier(id), propertyKey)) if id == identifier && seekable(expression) =>
+        propertyKey.name -> SolvedPredicate(expression, predicate)
+    }.toMap
+
+  private def seekable(value: Expression): Boolean = value match {
+    case _: Literal             => true
+    case _: ParameterExpression => true
+    case _                      => false
+  }
+}
+
+/*
+Finds range and prefix seeks on indexed properties, for predicates like n.age > 30 or n.name =~ 'Foo.*'.
+The seek only narrows down the candidates, so the range predicates themselves are left for the filter to verify
+ */
+object IndexRangeSeekStrategy extends NodeStrategy {
+
+  def findRatedStartItems(node: String, boundIdentifiers: Set[String], where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] = {
+    val labelPredicates: Seq[SolvedPredicate[LabelName]] = findLabelsForNode(node, where)
+    val ranges: Map[PropertyKey, IndexSeekRange] = findRanges(node, where)
+
+    for (
+      labelPredicate <- labelPredicates;
+      (propertyKey, range) <- ranges.toSeq if ctx.getIndexRule(labelPredicate.solution, propertyKey).nonEmpty
+    ) yield {
+      val schemaIndex = SchemaIndexRange(node, labelPredicate.solution, propertyKey, range)
+      RatedStartItem(schemaIndex, IndexRange, Seq(labelPredicate.predicate))
+    }
+  }
+
+  def findRanges(identifier: IdentifierName, where: Seq[Predicate]): Map[PropertyKey, IndexSeekRange] = {
+    object SeekedProperty {
+      def unapply(expression: Expression): Option[PropertyKey] = expression match {
+        case Property(Identifier(id), propertyKey) if id == identifier => Some(propertyKey.name)
+        case _                                                         => None
+      }
+    }
+
+    val lowerBounds: Seq[(PropertyKey, RangeBound)] = where.collect {
+      case GreaterThan(SeekedProperty(key), bound) if seekable(bound)        => key -> RangeBound(bound, inclusive = false)
+      case GreaterThanOrEqual(SeekedProperty(key), bound) if seekable(bound) => key -> RangeBound(bound, inclusive = true)
+      case LessThan(bound, SeekedProperty(key)) if seekable(bound)           => key -> RangeBound(bound, inclusive = false)
+      case LessThanOrEqual(bound, SeekedProperty(key)) if seekable(bound)    => key -> RangeBound(bound, inclusive = true)
+    }
+
+    val upperBounds: Seq[(PropertyKey, RangeBound)] = where.collect {
+      case LessThan(SeekedProperty(key), bound) if seekable(bound)           => key -> RangeBound(bound, inclusive = false)
+      case LessThanOrEqual(SeekedProperty(key), bound) if seekable(bound)    => key -> RangeBound(bound, inclusive = true)
+      case GreaterThan(bound, SeekedProperty(key)) if seekable(bound)        => key -> RangeBound(bound, inclusive = false)
+      case GreaterThanOrEqual(bound, SeekedProperty(key)) if seekable(bound) => key -> RangeBound(bound, inclusive = true)
+    }
+
+    val prefixRanges: Seq[(PropertyKey, IndexSeekRange)] = where.collect {
+      case LiteralRegularExpression(SeekedProperty(key), Literal(PrefixRegex(prefix))) => key -> PrefixRange(prefix)
+    }
+
+    val valueRanges: Seq[(PropertyKey, IndexSeekRange)] = (lowerBounds ++ upperBounds).map(_._1).distinct.map {
+      key => key -> ValueRange(lowerBounds.find(_._1 == key).map(_._2), upperBounds.find(_._1 == key).map(_._2))
+    }
+
+    // Where a property has both, the value range wins
+    (prefixRanges ++ valueRanges).toMap
+  }
+
+  // Only bounds that are known before the query starts can be handed to the index
+  private def seekable(bound: Expression): Boolean = bound match {
+    case _: Literal             => true
+    case _: ParameterExpression => true
+    case _                      => false
+  }
+
+  /*
+  Matches regular expressions of the form 'Foo.*', where the prefix contains no other regular expression syntax
+   */
+  object PrefixRegex {
+    private val pattern = """([^\\.\[\](){}*+?^$|]+)\.\*""".r
+
+    def unapply(regex: Any): Option[String] = regex match {
+      case pattern(prefix) => Some(prefix)
+      case _               => None
+    }
+  }
+}
+
 object GlobalStrategy extends NodeStrategy {
   def findRatedStartItems(node: String, boundIdentifiers: Set[String], where: Seq[Predicate], ctx: PlanContext): Seq[RatedStartItem] =
     Seq(RatedStartItem(AllNodes(node), Global, Seq.empty))
@@ -54,6 +54,7 @@ class StartPointBuilder extends PlanBuilder {
     entityFactory.nodeByIndex orElse
       entityFactory.nodeByIndexQuery orElse
       entityFactory.nodeByIndexHint orElse
+      entityFactory.nodeByIndexRange orElse
       entityFactory.nodeById orElse
       entityFactory.nodesAll orElse
       entityFactory.nodeByLabel
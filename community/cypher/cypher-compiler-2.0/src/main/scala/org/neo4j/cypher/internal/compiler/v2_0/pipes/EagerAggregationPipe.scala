@@ -23,8 +23,8 @@ import aggregation.AggregationFunction
 import org.neo4j.cypher.internal.compiler.v2_0._
 import commands.expressions.{Expression, AggregationExpression}
 import data.SimpleVal
+import spill.{NotSpillableException, SpillFile}
 import symbols._
-import collection.mutable.{Map => MutableMap}
 
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
@@ -46,22 +46,30 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
     SymbolTable(keyIdentifiers ++ aggrIdentifiers)
   }
 
+  private lazy val keyTypes: Seq[CypherType] = keyExpressions.toSeq.map {
+    case (_, exp) => exp.getType(source.symbols)
+  }
+
+  /*
+  Groups are aggregated in memory until the query's row budget is reached. After that, rows belonging to groups that
+  are not already in memory are spilled to hash partitions on disk, which are aggregated one at a time, with a
+  different hash, once the in memory groups have been emitted. Should a row turn out not to be spillable, the spilled
+  partitions are read back and aggregation carries on in memory.
+   */
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
-    // This is the temporary storage used while the aggregation is going on
-    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
     val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
     val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
 
-    def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
+    def createResults(group: AggregationGroup): ExecutionContext = {
       val newMap = MutableMaps.empty
 
       //add key values
-      (keyNames zip key.original).foreach(newMap += _)
+      (keyNames zip group.key).foreach(newMap += _)
 
       //add aggregated values
-      (aggregationNames zip aggregator.map(_.result)).foreach(newMap += _)
+      (aggregationNames zip group.functions.map(_.result)).foreach(newMap += _)
 
-      ctx.newFrom(newMap)
+      group.ctx.newFrom(newMap)
     }
 
     def createEmptyResult(params:Map[String,Any]): Iterator[ExecutionContext] = {
@@ -73,19 +81,61 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
       Iterator.single(ExecutionContext(newMap))
     }
 
-    input.foreach(ctx => {
-      val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
-      val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
-      val (_, functions) = result.getOrElseUpdate(groupValues, (ctx, aggregateFunctions))
-      functions.foreach(func => func(ctx)(state))
-    })
+    def aggregate(rows: Iterator[ExecutionContext], depth: Int): (GroupTable, Seq[SpillFile]) = {
+      val table = GroupTable(keyTypes)
+      var partitions: IndexedSeq[SpillFile] = IndexedSeq.empty
+      var spilling = state.rowsInMemory != QueryState.UNBOUNDED_ROWS_IN_MEMORY && depth < EagerAggregationPipe.MAX_SPILL_DEPTH
+
+      def addToGroup(key: Seq[Any], ctx: ExecutionContext) {
+        val existing = table.get(key)
+        val group = if (existing != null) {
+          existing
+        } else {
+          val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
+          table.add(new AggregationGroup(key, ctx, aggregateFunctions))
+        }
+        group.aggregate(ctx)(state)
+      }
+
+      def spill(key: Seq[Any], ctx: ExecutionContext): Boolean = {
+        if (partitions.isEmpty)
+          partitions = IndexedSeq.fill(EagerAggregationPipe.PARTITIONS)(state.spillFiles.create())
+        try {
+          partitions(EagerAggregationPipe.partitionOf(table.hash(key), depth)).write(ctx)
+          true
+        } catch {
+          case e: NotSpillableException =>
+            spilling = false
+            val spilled = partitions
+            partitions = IndexedSeq.empty
+            spilled.foreach(_.read(state).foreach(row => addToGroup(keyNames.map(row), row)))
+            false
+        }
+      }
+
+      rows.foreach(ctx => {
+        val key: Seq[Any] = keyNames.map(ctx)
+        val mustSpill = spilling && table.size >= state.rowsInMemory && table.get(key) == null
+        if (!mustSpill || !spill(key, ctx))
+          addToGroup(key, ctx)
+      })
+
+      (table, partitions)
+    }
+
+    def results(table: GroupTable, partitions: Seq[SpillFile], depth: Int): Iterator[ExecutionContext] =
+      table.groups.map(createResults) ++ partitions.iterator.flatMap {
+        partition =>
+          val (partitionTable, subPartitions) = aggregate(partition.read(state), depth + 1)
+          results(partitionTable, subPartitions, depth + 1)
+      }
 
-    if (result.isEmpty && keyNames.isEmpty) {
+    val (table, partitions) = aggregate(input, 0)
+
+    if (table.size == 0 && partitions.isEmpty && keyNames.isEmpty) {
       createEmptyResult(state.params)
     } else {
-      result.map {
-        case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
-      }.toIterator
+      results(table, partitions, 0)
     }
   }
 
@@ -102,3 +152,22 @@ class EagerAggregationPipe(source: Pipe, val keyExpressions: Map[String, Express
 
   override def isLazy = false
 }
+
+object EagerAggregationPipe {
+  val PARTITIONS = 16
+  val MAX_SPILL_DEPTH = 4
+
+  private val PARTITION_BITS = Integer.numberOfTrailingZeros(PARTITIONS)
+
+  /*
+  Each level of partitioning uses different bits of the scrambled hash, so groups that shared a partition are spread
+  out again when that partition is aggregated.
+   */
+  def partitionOf(hash: Int, depth: Int): Int = {
+    var h = hash * 0x85EBCA6B
+    h ^= h >>> 13
+    h *= 0xC2B2AE35
+    h ^= h >>> 16
+    Integer.rotateRight(h, depth * PARTITION_BITS) & (PARTITIONS - 1)
+  }
+}
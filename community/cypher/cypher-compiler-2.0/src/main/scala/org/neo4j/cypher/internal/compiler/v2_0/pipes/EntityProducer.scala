@@ -28,6 +28,14 @@ trait EntityProducer[T <: PropertyContainer] extends ((ExecutionContext, QuerySt
   def description: Seq[(String, SimpleVal)]
 }
 
+/**
+ * A producer that can also hand out just the ids of its entities, so that rows keeping entities in slots only look
+ * them up if something reads them.
+ */
+trait EntityIdProducer[T <: PropertyContainer] extends EntityProducer[T] {
+  def ids(m: ExecutionContext, state: QueryState): Iterator[Long]
+}
+
 object EntityProducer {
   def apply[T <: PropertyContainer](nameStr: String, args: (String, SimpleVal)*)(f:(ExecutionContext, QueryState) => Iterator[T]) =
     new EntityProducer[T] {
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_0.pipes
 
 import org.neo4j.cypher.internal.compiler.v2_0._
 import commands.expressions.Expression
+import commands.compiled.{CompiledExpression, ExpressionCompiler}
 import data.SimpleVal
 import symbols._
 
@@ -44,14 +45,33 @@ class ExtractPipe(val source: Pipe, val expressions: Map[String, Expression]) ex
     source.symbols.add(newIdentifiers)
   }
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = input.map(
-    subgraph => {
-      expressions.foreach {
-        case (name, expression) =>
-        subgraph += name -> expression(subgraph)(state)
+  private lazy val compiledExpressions: Array[(String, CompiledExpression)] = expressions.map {
+    case (name, expression) => name -> ExpressionCompiler.compile(expression)
+  }.toArray
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
+    if (state.compiledExpressions) {
+      val compiled = compiledExpressions
+      input.map(
+        subgraph => {
+          var i = 0
+          while (i < compiled.length) {
+            val (name, expression) = compiled(i)
+            subgraph.update(name, expression(subgraph, state))
+            i += 1
+          }
+          subgraph
+        })
+    } else {
+      input.map(
+        subgraph => {
+          expressions.foreach {
+            case (name, expression) =>
+            subgraph += name -> expression(subgraph)(state)
+        }
+        subgraph
+      })
     }
-    subgraph
-  })
 
   override def executionPlanDescription =
     source.executionPlanDescription
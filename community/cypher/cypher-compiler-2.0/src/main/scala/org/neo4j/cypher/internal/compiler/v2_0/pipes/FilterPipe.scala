@@ -21,14 +21,22 @@ package org.neo4j.cypher.internal.compiler.v2_0.pipes
 
 import org.neo4j.cypher.internal.compiler.v2_0._
 import commands.Predicate
+import commands.compiled.ExpressionCompiler
 import data.SimpleVal
 import symbols._
 
 class FilterPipe(source: Pipe, val predicate: Predicate) extends PipeWithSource(source) {
   val symbols = source.symbols
 
+  private lazy val compiledPredicate = ExpressionCompiler.compile(predicate)
+
   protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) =
-    input.filter(ctx => predicate.isTrue(ctx)(state))
+    if (state.compiledExpressions) {
+      val compiled = compiledPredicate
+      input.filter(ctx => compiled.isTrue(ctx, state))
+    } else {
+      input.filter(ctx => predicate.isTrue(ctx)(state))
+    }
 
   override def executionPlanDescription =
     source.executionPlanDescription.andThen(this, "Filter", "pred" -> SimpleVal.fromStr(predicate))
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes
+
+import aggregation.AggregationFunction
+import org.neo4j.cypher.internal.compiler.v2_0._
+import symbols.{RelationshipType, NodeType, CypherType}
+import org.neo4j.graphdb.{Relationship, Node}
+import collection.mutable.{Map => MutableMap}
+
+/**
+ * One group of an aggregation: its key values, the first row seen with that key, and the functions aggregating it.
+ */
+class AggregationGroup(val key: Seq[Any], val ctx: ExecutionContext, val functions: Seq[AggregationFunction]) {
+  def aggregate(row: ExecutionContext)(implicit state: QueryState) {
+    functions.foreach(func => func(row)(state))
+  }
+}
+
+/**
+ * Holds the groups of an aggregation in memory, looked up by key values.
+ */
+abstract class GroupTable {
+  /**
+   * The group with the given key values, or null if there is none.
+   */
+  def get(key: Seq[Any]): AggregationGroup
+
+  def add(group: AggregationGroup): AggregationGroup
+
+  def size: Int
+
+  def groups: Iterator[AggregationGroup]
+
+  /**
+   * A hash of the key values, consistent with the equality used for lookups.
+   */
+  def hash(key: Seq[Any]): Int
+}
+
+object GroupTable {
+  def apply(keyTypes: Seq[CypherType]): GroupTable = keyTypes match {
+    case Seq(keyType) if NodeType().isAssignableFrom(keyType)         => new EntityGroupTable(nodes = true)
+    case Seq(keyType) if RelationshipType().isAssignableFrom(keyType) => new EntityGroupTable(nodes = false)
+    case _                                                            => new GenericGroupTable
+  }
+}
+
+class GenericGroupTable extends GroupTable {
+  private val table = MutableMap[NiceHasher, AggregationGroup]()
+
+  def get(key: Seq[Any]) = table.getOrElse(new NiceHasher(key), null)
+
+  def add(group: AggregationGroup) = {
+    table.put(new NiceHasher(group.key), group)
+    group
+  }
+
+  def size = table.size
+
+  def groups = table.valuesIterator
+
+  def hash(key: Seq[Any]) = new NiceHasher(key).hashCode()
+}
+
+/*
+Groups on a single node or relationship key by entity id, using open addressing over primitive arrays instead of
+hashing boxed keys. Key values that are not entities of the expected kind, such as nulls, are kept in a generic table.
+ */
+class EntityGroupTable(nodes: Boolean) extends GroupTable {
+  private val others = new GenericGroupTable
+  private var ids = new Array[Long](16)
+  private var values = new Array[AggregationGroup](16)
+  private var count = 0
+
+  def get(key: Seq[Any]) = {
+    val id = idOf(key)
+    if (id < 0) others.get(key) else values(slotOf(id, ids, values))
+  }
+
+  def add(group: AggregationGroup) = {
+    val id = idOf(group.key)
+    if (id < 0) {
+      others.add(group)
+    } else {
+      if ((count + 1) * 4 > values.length * 3)
+        grow()
+      val slot = slotOf(id, ids, values)
+      ids(slot) = id
+      values(slot) = group
+      count += 1
+      group
+    }
+  }
+
+  def size = count + others.size
+
+  def groups = values.iterator.filter(_ != null) ++ others.groups
+
+  def hash(key: Seq[Any]) = {
+    val id = idOf(key)
+    if (id < 0) others.hash(key) else (id ^ (id >>> 32)).toInt
+  }
+
+  private def idOf(key: Seq[Any]): Long = key.head match {
+    case n: Node if nodes          => n.getId
+    case r: Relationship if !nodes => r.getId
+    case _                         => -1
+  }
+
+  private def slotOf(id: Long, ids: Array[Long], values: Array[AggregationGroup]): Int = {
+    val mask = values.length - 1
+    var slot = mix(id) & mask
+    while (values(slot) != null && ids(slot) != id)
+      slot = (slot + 1) & mask
+    slot
+  }
+
+  private def mix(id: Long): Int = {
+    val h = id * 0x9E3779B97F4A7C15L
+    (h ^ (h >>> 32)).toInt
+  }
+
+  private def grow() {
+    val newIds = new Array[Long](ids.length * 2)
+    val newValues = new Array[AggregationGroup](values.length * 2)
+    for (i <- 0 until values.length if values(i) != null) {
+      val slot = slotOf(ids(i), newIds, newValues)
+      newIds(slot) = ids(i)
+      newValues(slot) = values(i)
+    }
+    ids = newIds
+    values = newValues
+  }
+}
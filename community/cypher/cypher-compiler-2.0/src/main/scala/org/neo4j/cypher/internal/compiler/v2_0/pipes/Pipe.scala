@@ -57,8 +57,10 @@ trait Pipe {
 
 case class NullPipe(symbols: SymbolTable = SymbolTable(),
                     executionPlanDescription:PlanDescription = NullPlanDescription) extends Pipe {
+  // A nested plan starts from a copy of the enclosing row, which is read again if the nested plan finds nothing.
+  // The pipes above may then write into the rows they are handed.
   def internalCreateResults(state: QueryState) =
-    Iterator(state.initialContext getOrElse ExecutionContext.empty)
+    Iterator(state.initialContext.map(_.clone()) getOrElse state.newExecutionContext())
 
   def exists(pred: Pipe => Boolean) = pred(this)
 }
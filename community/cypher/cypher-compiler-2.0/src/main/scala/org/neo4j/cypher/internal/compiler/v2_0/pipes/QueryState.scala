@@ -21,6 +21,8 @@ package org.neo4j.cypher.internal.compiler.v2_0.pipes
 
 import org.neo4j.cypher.internal.compiler.v2_0._
 import org.neo4j.cypher.internal.compiler.v2_0.spi.{QueryContext, UpdateCountingQueryContext}
+import slots.{EntityAccessor, SlotRow, SlotLayout}
+import spill.SpillFiles
 import org.neo4j.cypher.ParameterNotFoundException
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.kernel.GraphDatabaseAPI
@@ -30,7 +32,11 @@ case class QueryState(db: GraphDatabaseService,
                       params: Map[String, Any],
                       decorator: PipeDecorator,
                       timeReader: TimeReader = new TimeReader,
-                      var initialContext: Option[ExecutionContext] = None) {
+                      var initialContext: Option[ExecutionContext] = None,
+                      rowsInMemory: Int = QueryState.UNBOUNDED_ROWS_IN_MEMORY,
+                      compiledExpressions: Boolean = false,
+                      slots: Option[SlotLayout] = None,
+                      spillFiles: SpillFiles = new SpillFiles) {
   def readTimeStamp(): Long = timeReader.getTime
 
   private val updateTrackingQryCtx: UpdateCountingQueryContext = new UpdateCountingQueryContext(inner)
@@ -45,6 +51,27 @@ case class QueryState(db: GraphDatabaseService,
     params.getOrElse(key, throw new ParameterNotFoundException("Expected a parameter named " + key))
 
   def getStatistics = updateTrackingQryCtx.getStatistics
+
+  lazy val entityAccessor: EntityAccessor = new EntityAccessor {
+    def node(id: Long) = query.nodeOps.getById(id)
+
+    def relationship(id: Long) = query.relationshipOps.getById(id)
+  }
+
+  /**
+   * A new, empty row, laid out in slots if the plan has a slot layout.
+   */
+  def newExecutionContext(): ExecutionContext = slots match {
+    case Some(layout) => ExecutionContext(new SlotRow(layout, entityAccessor))
+    case None         => ExecutionContext.empty
+  }
+}
+
+object QueryState {
+  /**
+   * Eager pipes never spill rows to disk when given this budget.
+   */
+  val UNBOUNDED_ROWS_IN_MEMORY = Int.MaxValue
 }
 
 class TimeReader {
@@ -40,7 +40,7 @@ class ShortestPathPipe(source: Pipe, ast: ShortestPath) extends PipeWithSource(s
       case path: Path    => Stream(path)
     }
 
-    result.map(x => ctx.newWith(pathName -> x))
+    ctx.withMatches(result.iterator.map(x => Map(pathName -> x)))
   })
 
   val symbols = source.symbols.add(pathName, PathType())
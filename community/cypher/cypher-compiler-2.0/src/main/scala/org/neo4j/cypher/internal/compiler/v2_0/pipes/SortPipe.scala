@@ -22,14 +22,75 @@ package org.neo4j.cypher.internal.compiler.v2_0.pipes
 import org.neo4j.cypher.internal.compiler.v2_0._
 import commands.SortItem
 import symbols._
+import spill.SpillFile
 import scala.math.signum
+import collection.mutable.ArrayBuffer
+import java.util.{Comparator, PriorityQueue}
 
 class SortPipe(source: Pipe, sortDescription: List[SortItem]) extends PipeWithSource(source) with ExecutionContextComparer {
   def symbols = source.symbols
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
-    input.toList.
-      sortWith((a, b) => compareBy(a, b, sortDescription)(state)).iterator
+  /*
+  Rows are collected until the query's row budget is reached, at which point they are sorted and spilled to disk as
+  a run. Once the input is exhausted, the runs and the rows still in memory are merged. If a row can not be spilled,
+  sorting falls back to keeping everything in memory.
+   */
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
+    val runs = new ArrayBuffer[SpillFile]
+    var buffer = new ArrayBuffer[ExecutionContext]
+    var spilling = state.rowsInMemory != QueryState.UNBOUNDED_ROWS_IN_MEMORY
+
+    input.foreach {
+      row =>
+        buffer += row
+        if (spilling && buffer.size >= state.rowsInMemory) {
+          SpillFile.writeAll(sort(buffer, state), state.spillFiles) match {
+            case Some(run) =>
+              runs += run
+              buffer = new ArrayBuffer[ExecutionContext]
+            case None =>
+              spilling = false
+          }
+        }
+    }
+
+    val inMemory = sort(buffer, state)
+    if (runs.isEmpty)
+      inMemory.iterator
+    else
+      merge(runs.map(_.read(state)) :+ inMemory.iterator, state)
+  }
+
+  private def sort(rows: Seq[ExecutionContext], state: QueryState): Seq[ExecutionContext] =
+    rows.sortWith((a, b) => compareBy(a, b, sortDescription)(state))
+
+  private def merge(sortedRuns: Seq[Iterator[ExecutionContext]], state: QueryState): Iterator[ExecutionContext] = {
+    // Ties are broken by run, which keeps the merge stable since earlier runs hold earlier rows
+    val heads = new PriorityQueue[(ExecutionContext, Int)](sortedRuns.size, new Comparator[(ExecutionContext, Int)] {
+      def compare(a: (ExecutionContext, Int), b: (ExecutionContext, Int)): Int =
+        if (compareBy(a._1, b._1, sortDescription)(state)) -1
+        else if (compareBy(b._1, a._1, sortDescription)(state)) 1
+        else a._2 - b._2
+    })
+
+    sortedRuns.zipWithIndex.foreach {
+      case (run, idx) => if (run.hasNext) heads.add((run.next(), idx))
+    }
+
+    new Iterator[ExecutionContext] {
+      def hasNext = !heads.isEmpty
+
+      def next() = {
+        if (!hasNext)
+          Iterator.empty.next()
+
+        val (row, idx) = heads.poll()
+        val run = sortedRuns(idx)
+        if (run.hasNext) heads.add((run.next(), idx))
+        row
+      }
+    }
+  }
 
   def throwIfSymbolsMissing(symbols: SymbolTable) {
     sortDescription.foreach {
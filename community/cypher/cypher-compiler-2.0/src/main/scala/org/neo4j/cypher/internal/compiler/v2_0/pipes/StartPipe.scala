@@ -22,22 +22,50 @@ package org.neo4j.cypher.internal.compiler.v2_0.pipes
 import org.neo4j.cypher.internal.compiler.v2_0._
 import data.SimpleVal._
 import symbols._
+import slots.{SlotRow, SlotLayout}
 import org.neo4j.graphdb.{Relationship, Node, PropertyContainer}
 
 abstract class StartPipe[T <: PropertyContainer](source: Pipe, name: String, createSource: EntityProducer[T]) extends PipeWithSource(source) {
   def identifierType: CypherType
 
+  protected def slotKind: Byte
+
   val symbols = source.symbols.add(name, identifierType)
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
     input.flatMap(ctx => {
-      val source = createSource(ctx, state)
-      source.map(x => {
-        ctx.newWith(name -> x)
-      })
+      val slot = idSlot(ctx)
+      if (slot >= 0) {
+        val row = ctx.m.asInstanceOf[SlotRow]
+        val ids = createSource.asInstanceOf[EntityIdProducer[T]].ids(ctx, state)
+        ids.map(id => {
+          if (ids.hasNext) {
+            val newRow = row.clone()
+            newRow.setEntityId(slot, id)
+            ctx.copy(m = newRow)
+          } else {
+            // The last id goes into the row we were handed, like the last match of the matcher pipes
+            row.setEntityId(slot, id)
+            ctx
+          }
+        })
+      } else {
+        val source = createSource(ctx, state)
+        source.map(x => {
+          ctx.newWith(name -> x)
+        })
+      }
     })
   }
 
+  // Rows laid out in slots take the ids of the entities, when the producer can hand those out
+  private def idSlot(ctx: ExecutionContext): Int = (createSource, ctx.m) match {
+    case (_: EntityIdProducer[_], row: SlotRow) =>
+      val slot = row.layout.slotOf(name)
+      if (slot >= 0 && row.layout.kindOf(slot) == slotKind) slot else -1
+    case _                                      => -1
+  }
+
   override def executionPlanDescription = {
     val description = createSource.description :+ (("identifier" -> fromStr(name)))
     source.executionPlanDescription
@@ -50,9 +78,13 @@ abstract class StartPipe[T <: PropertyContainer](source: Pipe, name: String, cre
 class NodeStartPipe(source: Pipe, name: String, createSource: EntityProducer[Node])
   extends StartPipe[Node](source, name, createSource) {
   def identifierType = NodeType()
+
+  protected def slotKind = SlotLayout.NODE
 }
 
 class RelationshipStartPipe(source: Pipe, name: String, createSource: EntityProducer[Relationship])
   extends StartPipe[Relationship](source, name, createSource) {
   def identifierType = RelationshipType()
+
+  protected def slotKind = SlotLayout.RELATIONSHIP
 }
@@ -34,12 +34,14 @@ class TraversalMatchPipe(source: Pipe, matcher: TraversalMatcher, trail: Trail)
       case ctx =>
         val paths = matcher.findMatchingPaths(state, ctx)
 
-        paths.flatMap {
+        val matches = paths.flatMap {
 
           case path =>
             val seq=path.iterator().asScala.toStream // todo map different path implementations better to a list, aka path.toList
-            trail.decompose(seq).map(ctx.newWith)
+            trail.decompose(seq)
         }
+
+        ctx.withMatches(matches)
     }
   }
 
@@ -69,7 +69,7 @@ class AddedHistory(val parent : History, val pair : MatchingPair) extends Histor
   def add(pair: MatchingPair) = if (contains(pair)) this else new AddedHistory(this,pair)
 
   lazy val toMap = {
-    parent.toMap.newWith(toSeq(pair))
+    parent.toMap.newWithMatched(toSeq(pair))
   }
 
   def toSeq(p: MatchingPair) : Seq[(String,Any)] = {
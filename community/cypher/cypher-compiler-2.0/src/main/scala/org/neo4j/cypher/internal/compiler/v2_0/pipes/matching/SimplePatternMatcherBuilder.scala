@@ -107,16 +107,13 @@ class SimplePatternMatcherBuilder(pattern: PatternGraph,
       if (alreadyUsed(patternMatch)) {
         None
       } else {
-        val result: ExecutionContext = ctx.clone()
-
-        patternNodes.foreach {
-          case (key, pn) => val tuple = key -> patternMatch.getNodeFor(pn)
-            result += tuple
+        val nodes = patternNodes.iterator.map {
+          case (key, pn) => key -> patternMatch.getNodeFor(pn)
         }
-        patternRels.foreach {
-          case (key, pr) => val tuple = key -> patternMatch.getRelationshipFor(pr)
-            result += tuple
+        val rels = patternRels.iterator.map {
+          case (key, pr) => key -> patternMatch.getRelationshipFor(pr)
         }
+        val result: ExecutionContext = ctx.newWithMatched(nodes ++ rels)
 
         Some(result).filter(r => validPredicates.forall(_.isTrue(r)(state)))
       }
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.slots
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import pipes.Pipe
+import symbols.{RelationshipType, NodeType, CypherType}
+import collection.mutable
+
+object SlotLayout {
+  final val REFERENCE: Byte = 0
+  final val NODE: Byte = 1
+  final val RELATIONSHIP: Byte = 2
+
+  /**
+   * A layout with one slot for every identifier known to any pipe of the plan.
+   */
+  def forPipe(pipe: Pipe): SlotLayout = {
+    val kinds = mutable.LinkedHashMap[String, Byte]()
+
+    def collect(p: Pipe) {
+      p.symbols.identifiers.foreach {
+        case (name, typ) =>
+          val kind = kindOf(typ)
+          kinds.get(name) match {
+            case Some(existing) if existing != kind => kinds(name) = REFERENCE
+            case Some(_)                            =>
+            case None                               => kinds(name) = kind
+          }
+      }
+      p.sources.foreach(collect)
+    }
+
+    collect(pipe)
+    new SlotLayout(kinds.toSeq)
+  }
+
+  private def kindOf(typ: CypherType): Byte =
+    if (NodeType().isAssignableFrom(typ)) NODE
+    else if (RelationshipType().isAssignableFrom(typ)) RELATIONSHIP
+    else REFERENCE
+}
+
+/**
+ * Maps the identifiers of an execution plan to fixed slots in a SlotRow. Node and relationship identifiers get slots
+ * that can hold bare entity ids.
+ */
+class SlotLayout(slots: Seq[(String, Byte)]) {
+  private val names: Array[String] = slots.map(_._1).toArray
+  private val kinds: Array[Byte] = slots.map(_._2).toArray
+  private val indexes = new java.util.HashMap[String, Integer]()
+  for (i <- 0 until names.length) indexes.put(names(i), i)
+
+  def size: Int = names.length
+
+  /**
+   * The slot of the named identifier, or -1 if it has none.
+   */
+  def slotOf(name: String): Int = {
+    val index = indexes.get(name)
+    if (index == null) -1 else index.intValue()
+  }
+
+  def nameOf(slot: Int): String = names(slot)
+
+  def kindOf(slot: Int): Byte = kinds(slot)
+
+  override def toString = slots.map {
+    case (name, kind) => name + ":" + kind
+  }.mkString("SlotLayout(", ", ", ")")
+}
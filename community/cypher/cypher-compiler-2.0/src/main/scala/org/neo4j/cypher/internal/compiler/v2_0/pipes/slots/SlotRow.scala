@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.slots
+
+import org.neo4j.graphdb.{Relationship, Node}
+import collection.mutable.{Map => MutableMap, OpenHashMap}
+
+/**
+ * Turns bare entity ids held by rows back into nodes and relationships when they are read.
+ */
+trait EntityAccessor {
+  def node(id: Long): Node
+
+  def relationship(id: Long): Relationship
+}
+
+object SlotRow {
+  private object Absent
+
+  private object Unmaterialized
+}
+
+/**
+ * A row backed by arrays laid out by a SlotLayout. Copying a row copies two arrays, instead of rehashing every entry
+ * into a new map. Entity slots may hold just an id, in which case the node or relationship is only looked up when
+ * the value is read. Identifiers missing from the layout are kept in an overflow map.
+ */
+final class SlotRow private(val layout: SlotLayout,
+                            entities: EntityAccessor,
+                            values: Array[Any],
+                            ids: Array[Long],
+                            private var overflow: MutableMap[String, Any]) extends MutableMap[String, Any] {
+  import SlotRow._
+
+  def this(layout: SlotLayout, entities: EntityAccessor) =
+    this(layout, entities, Array.fill[Any](layout.size)(SlotRow.Absent), new Array[Long](layout.size), null)
+
+  def get(key: String): Option[Any] = {
+    val slot = layout.slotOf(key)
+    if (slot >= 0) {
+      if (hasValueAt(slot)) Some(valueAt(slot)) else None
+    } else if (overflow == null) {
+      None
+    } else {
+      overflow.get(key)
+    }
+  }
+
+  def hasValueAt(slot: Int): Boolean = values(slot).asInstanceOf[AnyRef] ne Absent
+
+  /**
+   * The value in the slot, looking up the entity if the slot only holds its id. The slot must not be empty.
+   */
+  def valueAt(slot: Int): Any = values(slot) match {
+    case Unmaterialized =>
+      val entity = layout.kindOf(slot) match {
+        case SlotLayout.NODE => entities.node(ids(slot))
+        case _               => entities.relationship(ids(slot))
+      }
+      values(slot) = entity
+      entity
+    case value          => value
+  }
+
+  def isUnmaterialized(slot: Int): Boolean = values(slot).asInstanceOf[AnyRef] eq Unmaterialized
+
+  /**
+   * The id of the entity in the slot, or -1 if the slot does not hold a node or relationship of its kind.
+   */
+  def entityIdAt(slot: Int): Long = if (hasValueAt(slot)) ids(slot) else -1
+
+  def setEntityId(slot: Int, id: Long) {
+    values(slot) = Unmaterialized
+    ids(slot) = id
+  }
+
+  def setValueAt(slot: Int, value: Any) {
+    values(slot) = value
+    ids(slot) = value match {
+      case n: Node if layout.kindOf(slot) == SlotLayout.NODE                 => n.getId
+      case r: Relationship if layout.kindOf(slot) == SlotLayout.RELATIONSHIP => r.getId
+      case _                                                                 => -1
+    }
+  }
+
+  /**
+   * Stores an entity found by a matcher. A slot of the entity's kind keeps only its id, so the row does not hold on to
+   * the proxy; any other value is stored as it is.
+   */
+  def setEntityAt(slot: Int, value: Any) {
+    value match {
+      case n: Node if layout.kindOf(slot) == SlotLayout.NODE                 => setEntityId(slot, n.getId)
+      case r: Relationship if layout.kindOf(slot) == SlotLayout.RELATIONSHIP => setEntityId(slot, r.getId)
+      case _                                                                 => setValueAt(slot, value)
+    }
+  }
+
+  /**
+   * Writes the entities of a match into this row, see setEntityAt.
+   */
+  def putEntities(entries: TraversableOnce[(String, Any)]): SlotRow = {
+    entries.foreach {
+      case (key, value) =>
+        val slot = layout.slotOf(key)
+        if (slot >= 0) setEntityAt(slot, value) else updateOverflow(key, value)
+    }
+    this
+  }
+
+  override def update(key: String, value: Any) {
+    val slot = layout.slotOf(key)
+    if (slot >= 0) {
+      setValueAt(slot, value)
+    } else {
+      updateOverflow(key, value)
+    }
+  }
+
+  private def updateOverflow(key: String, value: Any) {
+    if (overflow == null)
+      overflow = new OpenHashMap[String, Any]()
+    overflow.update(key, value)
+  }
+
+  def +=(kv: (String, Any)) = {
+    update(kv._1, kv._2)
+    this
+  }
+
+  def -=(key: String) = {
+    val slot = layout.slotOf(key)
+    if (slot >= 0) {
+      values(slot) = Absent
+      ids(slot) = -1
+    } else if (overflow != null) {
+      overflow -= key
+    }
+    this
+  }
+
+  def iterator: Iterator[(String, Any)] = {
+    val inSlots = (0 until layout.size).iterator.filter(hasValueAt).map(slot => layout.nameOf(slot) -> valueAt(slot))
+    if (overflow == null) inSlots else inSlots ++ overflow.iterator
+  }
+
+  override def size = {
+    var count = if (overflow == null) 0 else overflow.size
+    for (slot <- 0 until layout.size if hasValueAt(slot)) count += 1
+    count
+  }
+
+  override def empty = new SlotRow(layout, entities)
+
+  override def clone(): SlotRow =
+    new SlotRow(layout, entities, values.clone(), ids.clone(), if (overflow == null) null else overflow.clone())
+}
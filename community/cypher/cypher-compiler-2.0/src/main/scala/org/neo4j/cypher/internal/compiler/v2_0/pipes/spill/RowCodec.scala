@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.spill
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import org.neo4j.cypher.internal.PathImpl
+import org.neo4j.graphdb.{Path, PropertyContainer, Relationship, Node}
+import pipes.QueryState
+import pipes.slots.{SlotLayout, SlotRow}
+import java.io.{DataInput, DataOutput}
+import collection.mutable.ListBuffer
+import collection.JavaConverters._
+
+class NotSpillableException(message: String) extends RuntimeException(message)
+
+/**
+ * Binary encoding of execution context rows, used by eager pipes that spill intermediate rows to disk.
+ * Nodes and relationships are written as ids and looked up again through the query context when read back.
+ * Rows holding values that cannot be encoded, or pending mutation commands, make the writer throw a
+ * NotSpillableException, and are then expected to be kept in memory instead.
+ */
+object RowCodec {
+  private val NULL: Byte = 0
+  private val TRUE: Byte = 1
+  private val FALSE: Byte = 2
+  private val BYTE: Byte = 3
+  private val SHORT: Byte = 4
+  private val INT: Byte = 5
+  private val LONG: Byte = 6
+  private val FLOAT: Byte = 7
+  private val DOUBLE: Byte = 8
+  private val CHAR: Byte = 9
+  private val STRING: Byte = 10
+  private val NODE: Byte = 11
+  private val RELATIONSHIP: Byte = 12
+  private val PATH: Byte = 13
+  private val ARRAY: Byte = 14
+  private val SEQ: Byte = 15
+  private val MAP: Byte = 16
+
+  def write(row: ExecutionContext, out: DataOutput) {
+    if (row.mutationCommands.nonEmpty)
+      throw new NotSpillableException("Rows with pending updates can not be spilled")
+
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        out.writeUTF(key)
+        writeValue(value, out)
+    }
+  }
+
+  def read(in: DataInput, state: QueryState): ExecutionContext = {
+    val row = state.newExecutionContext()
+    val size = in.readInt()
+    for (i <- 0 until size) {
+      val key = in.readUTF()
+      val marker = in.readByte()
+      val slot =
+        if (marker == NODE) entitySlot(row, key, SlotLayout.NODE)
+        else if (marker == RELATIONSHIP) entitySlot(row, key, SlotLayout.RELATIONSHIP)
+        else -1
+
+      if (slot >= 0)
+        row.m.asInstanceOf[SlotRow].setEntityId(slot, in.readLong())
+      else
+        row.update(key, readValue(marker, in, state))
+    }
+    row
+  }
+
+  // Entities read back into slot rows are kept as ids until something reads them
+  private def entitySlot(row: ExecutionContext, key: String, kind: Byte): Int = row.m match {
+    case slotRow: SlotRow =>
+      val slot = slotRow.layout.slotOf(key)
+      if (slot >= 0 && slotRow.layout.kindOf(slot) == kind) slot else -1
+    case _                => -1
+  }
+
+  private def writeValue(value: Any, out: DataOutput) {
+    value match {
+      case null          => out.writeByte(NULL)
+      case x: Boolean    => out.writeByte(if (x) TRUE else FALSE)
+      case x: Byte       => out.writeByte(BYTE); out.writeByte(x)
+      case x: Short      => out.writeByte(SHORT); out.writeShort(x)
+      case x: Int        => out.writeByte(INT); out.writeInt(x)
+      case x: Long       => out.writeByte(LONG); out.writeLong(x)
+      case x: Float      => out.writeByte(FLOAT); out.writeFloat(x)
+      case x: Double     => out.writeByte(DOUBLE); out.writeDouble(x)
+      case x: Char       => out.writeByte(CHAR); out.writeChar(x)
+      case x: String     => out.writeByte(STRING); writeString(x, out)
+      case x: Node       => out.writeByte(NODE); out.writeLong(x.getId)
+      case x: Relationship => out.writeByte(RELATIONSHIP); out.writeLong(x.getId)
+      case x: PathImpl   => out.writeByte(PATH); writeSeq(x.pathEntities, out)
+      case x: Path       => out.writeByte(PATH); writeSeq(x.iterator().asScala.toList, out)
+      case x: Array[_]   => out.writeByte(ARRAY); writeArray(x, out)
+      case x: Seq[_]     => out.writeByte(SEQ); writeSeq(x, out)
+      case x: collection.Map[_, _] if x.keys.forall(_.isInstanceOf[String]) =>
+        out.writeByte(MAP)
+        out.writeInt(x.size)
+        x.foreach {
+          case (k, v) =>
+            writeString(k.asInstanceOf[String], out)
+            writeValue(v, out)
+        }
+      case x             => throw new NotSpillableException("Can not spill values of type " + x.getClass.getName)
+    }
+  }
+
+  // writeUTF is limited to 64k of encoded data
+  private def writeString(value: String, out: DataOutput) {
+    out.writeInt(value.length)
+    out.writeChars(value)
+  }
+
+  private def readString(in: DataInput): String = {
+    val chars = new Array[Char](in.readInt())
+    for (i <- 0 until chars.length) chars(i) = in.readChar()
+    new String(chars)
+  }
+
+  private def writeSeq(values: Seq[_], out: DataOutput) {
+    out.writeInt(values.size)
+    values.foreach(writeValue(_, out))
+  }
+
+  private def readSeq(in: DataInput, state: QueryState): List[Any] = {
+    val size = in.readInt()
+    val result = new ListBuffer[Any]
+    for (i <- 0 until size) result += readValue(in, state)
+    result.toList
+  }
+
+  private def writeArray(array: Array[_], out: DataOutput) {
+    out.writeUTF(array.getClass.getComponentType.getName)
+    writeSeq(array.toSeq, out)
+  }
+
+  private def readArray(in: DataInput, state: QueryState): Array[_] = {
+    val componentType = in.readUTF()
+    val values = readSeq(in, state)
+    componentType match {
+      case "boolean"          => values.map(_.asInstanceOf[Boolean]).toArray
+      case "byte"             => values.map(_.asInstanceOf[Byte]).toArray
+      case "short"            => values.map(_.asInstanceOf[Short]).toArray
+      case "int"              => values.map(_.asInstanceOf[Int]).toArray
+      case "long"             => values.map(_.asInstanceOf[Long]).toArray
+      case "float"            => values.map(_.asInstanceOf[Float]).toArray
+      case "double"           => values.map(_.asInstanceOf[Double]).toArray
+      case "char"             => values.map(_.asInstanceOf[Char]).toArray
+      case "java.lang.String" => values.map(_.asInstanceOf[String]).toArray
+      case _                  => values.map(_.asInstanceOf[AnyRef]).toArray
+    }
+  }
+
+  private def readValue(in: DataInput, state: QueryState): Any = readValue(in.readByte(), in, state)
+
+  private def readValue(marker: Byte, in: DataInput, state: QueryState): Any = marker match {
+    case NULL         => null
+    case TRUE         => true
+    case FALSE        => false
+    case BYTE         => in.readByte()
+    case SHORT        => in.readShort()
+    case INT          => in.readInt()
+    case LONG         => in.readLong()
+    case FLOAT        => in.readFloat()
+    case DOUBLE       => in.readDouble()
+    case CHAR         => in.readChar()
+    case STRING       => readString(in)
+    case NODE         => state.query.nodeOps.getById(in.readLong())
+    case RELATIONSHIP => state.query.relationshipOps.getById(in.readLong())
+    case PATH         => PathImpl(readSeq(in, state).map(_.asInstanceOf[PropertyContainer]): _*)
+    case ARRAY        => readArray(in, state)
+    case SEQ          => readSeq(in, state)
+    case MAP          =>
+      val size = in.readInt()
+      (for (i <- 0 until size) yield readString(in) -> readValue(in, state)).toMap
+    case _            => throw new IllegalStateException("Unknown value marker in spill file: " + marker)
+  }
+}
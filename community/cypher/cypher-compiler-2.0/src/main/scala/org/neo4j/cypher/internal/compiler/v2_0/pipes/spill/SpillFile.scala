@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.spill
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import pipes.QueryState
+import java.io._
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+
+  /**
+   * Writes all rows to a new spill file, or returns None, leaving nothing on disk, if any of them can not be spilled.
+   */
+  def writeAll(rows: TraversableOnce[ExecutionContext], files: SpillFiles): Option[SpillFile] = {
+    val file = files.create()
+    try {
+      rows.foreach(file.write)
+      Some(file)
+    } catch {
+      case e: NotSpillableException =>
+        file.discard()
+        None
+    }
+  }
+}
+
+/**
+ * A temporary file holding rows that did not fit in memory. Rows are appended until the file is read, and the file is
+ * deleted once it has been read to the end or is discarded, at the latest when the query owning it is closed, see
+ * [[org.neo4j.cypher.internal.compiler.v2_0.pipes.spill.SpillFiles]].
+ */
+class SpillFile private[spill](files: SpillFiles) {
+  import SpillFile.BUFFER_SIZE
+
+  private val file = File.createTempFile("cypher-", ".spill")
+
+  private var in: InputStream = null
+  private val out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))
+  private val rowBuffer = new ByteArrayOutputStream()
+  private val rowOut = new DataOutputStream(rowBuffer)
+  private var rows = 0
+
+  /**
+   * Appends a row. Rows are encoded in full before being written, so a NotSpillableException leaves the file intact.
+   */
+  def write(row: ExecutionContext) {
+    rowBuffer.reset()
+    RowCodec.write(row, rowOut)
+    rowBuffer.writeTo(out)
+    rows += 1
+  }
+
+  def size: Int = rows
+
+  def read(state: QueryState): Iterator[ExecutionContext] = {
+    out.close()
+    if (rows == 0) {
+      discard()
+      return Iterator.empty
+    }
+
+    val in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))
+    this.in = in
+    new Iterator[ExecutionContext] {
+      private var remaining = rows
+
+      def hasNext = remaining > 0
+
+      def next() = {
+        if (!hasNext)
+          Iterator.empty.next()
+
+        val row = RowCodec.read(in, state)
+        remaining -= 1
+        if (remaining == 0)
+          discard()
+        row
+      }
+    }
+  }
+
+  def discard() {
+    out.close()
+    if (in != null)
+      in.close()
+    file.delete()
+    files.deleted(this)
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.spill
+
+import collection.mutable
+
+/**
+ * The spill files of a query. Files are deleted as soon as they have been read, and the ones still on disk when the
+ * query is closed, because it failed or because its results were not read to the end, are deleted then.
+ */
+class SpillFiles {
+  private val files = mutable.Set[SpillFile]()
+
+  def create(): SpillFile = {
+    val file = new SpillFile(this)
+    files += file
+    file
+  }
+
+  def isEmpty: Boolean = files.isEmpty
+
+  def deleteAll() {
+    files.toList.foreach(_.discard())
+  }
+
+  private[spill] def deleted(file: SpillFile) {
+    files -= file
+  }
+}
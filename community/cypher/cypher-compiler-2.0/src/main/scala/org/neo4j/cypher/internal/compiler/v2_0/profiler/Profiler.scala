@@ -106,6 +106,11 @@ class ProfilingQueryContext(val inner: QueryContext, val p: Pipe) extends Delega
       inner.hasProperty(id, propertyKeyId)
     }
 
+    override def propertyEquals(id: Long, propertyKeyId: Int, value: String): Option[Boolean] = {
+      increment()
+      inner.propertyEquals(id, propertyKeyId, value)
+    }
+
     override def setProperty(id: Long, propertyKeyId: Int, value: Any) {
       increment()
       inner.setProperty(id, propertyKeyId, value)
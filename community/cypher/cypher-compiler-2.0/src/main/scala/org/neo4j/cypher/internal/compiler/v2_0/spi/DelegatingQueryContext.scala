@@ -70,8 +70,20 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] = inner.exactIndexSearch(index, value)
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                             upper: Option[Number], includeUpper: Boolean): Iterator[Node] =
+    inner.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper)
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: Option[String], includeLower: Boolean,
+                             upper: Option[String], includeUpper: Boolean): Iterator[Node] =
+    inner.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper)
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] = inner.prefixIndexSearch(index, prefix)
+
   def getNodesByLabel(id: Int): Iterator[Node] = inner.getNodesByLabel(id)
 
+  override def getNodeIdsByLabel(id: Int): Iterator[Long] = inner.getNodeIdsByLabel(id)
+
   def upgrade(context: QueryContext): LockingQueryContext = inner.upgrade(context)
 
   def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V = inner.getOrCreateFromSchemaState(key, creator)
@@ -102,6 +114,9 @@ class DelegatingOperations[T <: PropertyContainer](protected val inner: Operatio
 
   def hasProperty(obj: Long, propertyKeyId: Int) = inner.hasProperty(obj, propertyKeyId)
 
+  override def propertyEquals(obj: Long, propertyKeyId: Int, value: String) =
+    inner.propertyEquals(obj, propertyKeyId, value)
+
   def propertyKeyIds(obj: Long) = inner.propertyKeyIds(obj)
 
   def removeProperty(obj: Long, propertyKeyId: Int) {
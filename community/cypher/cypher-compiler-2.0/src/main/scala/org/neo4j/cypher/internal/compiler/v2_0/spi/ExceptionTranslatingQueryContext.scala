@@ -88,9 +88,23 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
   override def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] =
     translateException(super.exactIndexSearch(index, value))
 
+  override def numberRangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                                      upper: Option[Number], includeUpper: Boolean): Iterator[Node] =
+    translateException(super.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def stringRangeIndexSearch(index: IndexDescriptor, lower: Option[String], includeLower: Boolean,
+                                      upper: Option[String], includeUpper: Boolean): Iterator[Node] =
+    translateException(super.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    translateException(super.prefixIndexSearch(index, prefix))
+
   override def getNodesByLabel(id: Int): Iterator[Node] =
     translateException(super.getNodesByLabel(id))
 
+  override def getNodeIdsByLabel(id: Int): Iterator[Long] =
+    translateException(super.getNodeIdsByLabel(id))
+
   override def getOrCreateFromSchemaState[K, V](key: K, creator: => V): V =
     translateException(super.getOrCreateFromSchemaState(key, creator))
 
@@ -129,6 +143,9 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
     override def hasProperty(id: Long, propertyKeyId: Int): Boolean =
       translateException(super.hasProperty(id, propertyKeyId))
 
+    override def propertyEquals(id: Long, propertyKeyId: Int, value: String): Option[Boolean] =
+      translateException(super.propertyEquals(id, propertyKeyId, value))
+
     override def propertyKeyIds(id: Long): Iterator[Int] =
       translateException(super.propertyKeyIds(id))
 
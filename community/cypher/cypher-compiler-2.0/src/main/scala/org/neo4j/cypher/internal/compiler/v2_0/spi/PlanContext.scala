@@ -36,6 +36,11 @@ trait PlanContext extends TokenContext {
 
   def getUniqueIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor]
 
+  /*
+  The online composite indexes on a label, each with the names of the properties it covers, in index order
+   */
+  def getCompositeIndexRules(labelName: String): Seq[(Seq[String], IndexDescriptor)]
+
   def getUniquenessConstraint(labelName: String, propertyKey: String): Option[UniquenessConstraint]
 
   def checkNodeIndex(idxName: String)
@@ -69,8 +69,21 @@ trait QueryContext extends TokenContext {
 
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node]
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                             upper: Option[Number], includeUpper: Boolean): Iterator[Node]
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: Option[String], includeLower: Boolean,
+                             upper: Option[String], includeUpper: Boolean): Iterator[Node]
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node]
+
   def getNodesByLabel(id: Int): Iterator[Node]
 
+  /**
+   * The ids of the nodes with the label, for callers that don't need the nodes themselves, or not yet.
+   */
+  def getNodeIdsByLabel(id: Int): Iterator[Long] = getNodesByLabel(id).map(_.getId)
+
   def upgradeToLockingQueryContext: LockingQueryContext = upgrade(this)
 
   def upgrade(context: QueryContext): LockingQueryContext
@@ -102,6 +115,14 @@ trait Operations[T <: PropertyContainer] {
 
   def hasProperty(obj: Long, propertyKeyId: Int): Boolean
 
+  /**
+   * Compares a property with a string, without reading the property if its value is kept in the string dictionary.
+   *
+   * @return None if there's no such property.
+   */
+  def propertyEquals(obj: Long, propertyKeyId: Int, value: String): Option[Boolean] =
+    Option(getProperty(obj, propertyKeyId)).map(_ == value)
+
   def propertyKeyIds(obj: Long): Iterator[Int]
 
   def getById(id: Long): T
@@ -49,8 +49,22 @@ class RepeatableReadQueryContext(inner: QueryContext, locker: Locker) extends De
   override def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] =
     lockAll(inner.exactIndexSearch(index, value))
 
+  override def numberRangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                                      upper: Option[Number], includeUpper: Boolean): Iterator[Node] =
+    lockAll(inner.numberRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def stringRangeIndexSearch(index: IndexDescriptor, lower: Option[String], includeLower: Boolean,
+                                      upper: Option[String], includeUpper: Boolean): Iterator[Node] =
+    lockAll(inner.stringRangeIndexSearch(index, lower, includeLower, upper, includeUpper))
+
+  override def prefixIndexSearch(index: IndexDescriptor, prefix: String): Iterator[Node] =
+    lockAll(inner.prefixIndexSearch(index, prefix))
+
   override def getNodesByLabel(id: Int): Iterator[Node] = lockAll(inner.getNodesByLabel(id))
 
+  // The nodes are needed to lock them
+  override def getNodeIdsByLabel(id: Int): Iterator[Long] = getNodesByLabel(id).map(_.getId)
+
   val nodeOpsValue = new RepeatableReadOperations[Node](inner.nodeOps)
   val relationshipOpsValue = new RepeatableReadOperations[Relationship](inner.relationshipOps)
 
@@ -75,6 +89,12 @@ class RepeatableReadQueryContext(inner: QueryContext, locker: Locker) extends De
       inner.hasProperty(id, propertyKeyId)
     }
 
+    override def propertyEquals(id: Long, propertyKeyId: Int, value: String) = {
+      val obj = inner.getById(id)
+      locker.acquireLock(obj)
+      inner.propertyEquals(id, propertyKeyId, value)
+    }
+
     override def getById(id: Long): T = {
       val result = inner.getById(id)
       locker.acquireLock(result)
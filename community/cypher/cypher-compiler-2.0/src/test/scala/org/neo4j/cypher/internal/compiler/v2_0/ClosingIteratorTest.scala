@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_0
 
 import org.neo4j.cypher.internal.compiler.v2_0.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_0.pipes.spill.SpillFiles
 import org.junit.Test
 import org.hamcrest.CoreMatchers.is
 import org.junit.Assert.assertThat
@@ -78,6 +79,21 @@ class ClosingIteratorTest extends Assertions {
     assertThat(result, is(false))
   }
 
+  @Test
+  def should_delete_spill_files_left_on_disk_when_closing() {
+    //Given
+    val ctx      = mock(classOf[QueryContext])
+    val files    = new SpillFiles
+    files.create()
+    val iterator = new ClosingIterator(Iterator.empty, ctx, files)
+
+    //When
+    iterator.hasNext
+
+    //Then
+    assertThat(files.isEmpty, is(true))
+  }
+
   @Test
   def exception_in_hasNext_should_fail_transaction() {
     //Given
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0
+
+import org.junit.Test
+import org.scalatest.Assertions
+
+class QueryNormalizerTest extends Assertions {
+  private def param(n: Int) = "{`" + QueryNormalizer.PARAMETER_PREFIX + n + "`}"
+  private def name(n: Int) = QueryNormalizer.PARAMETER_PREFIX + n
+
+  @Test def should_replace_literals_being_compared_against() {
+    val normalized = QueryNormalizer("MATCH (n:Person) WHERE n.name = 'Andres' AND n.age >= 30 RETURN n")
+
+    assert(normalized.text === s"MATCH (n:Person) WHERE n.name = ${param(0)} AND n.age >= ${param(1)} RETURN n")
+    assert(normalized.parameters === Map(name(0) -> "Andres", name(1) -> 30L))
+  }
+
+  @Test def should_leave_projections_alone() {
+    val normalized = QueryNormalizer("MATCH (n) WHERE n.age > 30 RETURN n.age > 30, n.age + 1")
+
+    assert(normalized.text === s"MATCH (n) WHERE n.age > ${param(0)} RETURN n.age > 30, n.age + 1")
+    assert(normalized.parameters === Map(name(0) -> 30L))
+  }
+
+  @Test def should_replace_map_values() {
+    val normalized = QueryNormalizer("CREATE (n {name: 'a', weight: -1.5})")
+
+    assert(normalized.text === s"CREATE (n {name: ${param(0)}, weight: ${param(1)}})")
+    assert(normalized.parameters === Map(name(0) -> "a", name(1) -> -1.5))
+  }
+
+  @Test def should_replace_whole_in_lists_and_limits() {
+    val normalized = QueryNormalizer("MATCH (n) WHERE n.id IN [1, 2, 3] RETURN n LIMIT 10")
+
+    assert(normalized.text === s"MATCH (n) WHERE n.id IN ${param(0)} RETURN n LIMIT ${param(1)}")
+    assert(normalized.parameters === Map(name(0) -> List(1L, 2L, 3L), name(1) -> 10L))
+  }
+
+  @Test def should_understand_string_escapes() {
+    val normalized = QueryNormalizer("MATCH (n) WHERE n.name = 'it\\'s' RETURN n")
+
+    assert(normalized.parameters === Map(name(0) -> "it's"))
+  }
+
+  @Test def should_pick_up_again_after_a_with_projection() {
+    val normalized = QueryNormalizer("MATCH (n) WITH n, 1 AS one WHERE n.x = 2 RETURN n")
+
+    assert(normalized.text === s"MATCH (n) WITH n, 1 AS one WHERE n.x = ${param(0)} RETURN n")
+  }
+
+  @Test def should_not_touch_literals_that_are_part_of_larger_expressions() {
+    val queries = Seq(
+      "MATCH (n) WHERE n.x = 1 + n.y RETURN n",
+      "MATCH (n) WHERE n.name =~ 'A.*' RETURN n",
+      "MATCH (a)-[:KNOWS*1..3]->(b) RETURN b",
+      "START n=node(1) RETURN n"
+    )
+
+    for (query <- queries)
+      assert(QueryNormalizer(query) === NormalizedQuery(query, Map.empty))
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.commands.compiled
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import commands._
+import commands.expressions._
+import commands.values.UnresolvedProperty
+import pipes.{FakePipe, FilterPipe, QueryStateHelper}
+import symbols.NumberType
+import org.neo4j.cypher.CypherTypeException
+import org.junit.Test
+import org.scalatest.Assertions
+
+class ExpressionCompilerTest extends Assertions {
+
+  val ctx = ExecutionContext.from("x" -> 10, "y" -> null, "name" -> "Andres", "map" -> Map("age" -> 36, "name" -> "Andres"))
+  val state = QueryStateHelper.empty
+
+  @Test def compiled_expressions_evaluate_like_interpreted_ones() {
+    val expressions = Seq(
+      Literal(42),
+      Identifier("x"),
+      Identifier("y"),
+      Add(Identifier("x"), Literal(1)),
+      Add(Identifier("name"), Identifier("x")),
+      Add(Collection(Literal(1)), Identifier("x")),
+      Add(Identifier("y"), Literal(1)),
+      Subtract(Identifier("x"), Literal(3)),
+      Multiply(Identifier("x"), Literal(2.5)),
+      Modulo(Identifier("x"), Literal(3)),
+      Property(Identifier("map"), UnresolvedProperty("age")),
+      Property(Identifier("y"), UnresolvedProperty("age")))
+
+    expressions.foreach {
+      expression =>
+        assert(ExpressionCompiler.compile(expression)(ctx, state) === expression(ctx)(state), expression.toString)
+    }
+  }
+
+  @Test def compiled_predicates_use_three_valued_logic_like_interpreted_ones() {
+    val unknown = Equals(Identifier("y"), Literal(1))
+    val predicates = Seq(
+      True(),
+      Not(True()),
+      Equals(Identifier("x"), Literal(10)),
+      Equals(Collection(Literal(1)), Literal(Seq(1))),
+      Equals(Property(Identifier("map"), UnresolvedProperty("name")), Literal("Andres")),
+      Equals(Identifier("name"), Property(Identifier("map"), UnresolvedProperty("name"))),
+      Equals(Property(Identifier("map"), UnresolvedProperty("name")), Literal("Stefan")),
+      Equals(Property(Identifier("map"), UnresolvedProperty("age")), Literal(36)),
+      Equals(Property(Identifier("map"), UnresolvedProperty("missing")), Literal("Andres")),
+      unknown,
+      LessThan(Identifier("x"), Literal(11)),
+      GreaterThanOrEqual(Identifier("x"), Literal(11)),
+      LessThan(Identifier("y"), Literal(11)),
+      And(unknown, Not(True())),
+      And(unknown, True()),
+      Or(unknown, True()),
+      Or(unknown, Not(True())),
+      Xor(True(), Not(True())),
+      Xor(unknown, True()),
+      Not(unknown),
+      IsNull(Identifier("y")),
+      CoercedPredicate(Collection()),
+      CoercedPredicate(Identifier("y")))
+
+    predicates.foreach {
+      predicate =>
+        val compiled = ExpressionCompiler.compile(predicate)
+        assert(compiled(ctx, state) === predicate(ctx)(state), predicate.toString)
+        assert(compiled.isTrue(ctx, state) === predicate.isTrue(ctx)(state), predicate.toString)
+    }
+  }
+
+  @Test def unsupported_expressions_fall_back_to_interpretation() {
+    val expression = Divide(Identifier("x"), Literal(4))
+
+    assert(ExpressionCompiler.compile(expression).isInstanceOf[InterpretedExpression])
+    assert(ExpressionCompiler.compile(expression)(ctx, state) === expression(ctx)(state))
+  }
+
+  @Test(expected = classOf[CypherTypeException]) def compiled_expressions_fail_like_interpreted_ones() {
+    ExpressionCompiler.compile(Subtract(Identifier("name"), Literal(1)))(ctx, state)
+  }
+
+  @Test def filter_pipe_gives_the_same_rows_with_compiled_expressions() {
+    val rows = (1 to 10).map(x => Map[String, Any]("x" -> x))
+    val predicate = And(GreaterThan(Identifier("x"), Literal(3)), Not(Equals(Identifier("x"), Literal(7))))
+
+    val interpreted = new FilterPipe(new FakePipe(rows, "x" -> NumberType()), predicate)
+    val compiled = new FilterPipe(new FakePipe(rows, "x" -> NumberType()), predicate)
+
+    assert(compiled.createResults(state.copy(compiledExpressions = true)).toList ===
+      interpreted.createResults(state).toList)
+  }
+}
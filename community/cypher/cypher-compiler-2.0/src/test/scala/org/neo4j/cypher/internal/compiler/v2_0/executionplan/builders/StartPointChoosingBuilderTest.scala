@@ -135,6 +135,48 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
     assert(plan.query.start.toList === Seq(Unsolved(SchemaIndex(identifier, label, property, AnyIndex, None))))
   }
 
+  @Test
+  def should_pick_an_index_range_seek_for_comparisons_on_an_indexed_property() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      GreaterThan(Property(Identifier(identifier), propertyKey), Literal(30)),
+      LessThanOrEqual(Property(Identifier(identifier), propertyKey), Literal(40))
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.getIndexRule("Person", "prop")).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    val range = ValueRange(Some(RangeBound(Literal(30), inclusive = false)), Some(RangeBound(Literal(40), inclusive = true)))
+    assert(plan.query.start.toList === Seq(Unsolved(SchemaIndexRange(identifier, label, property, range))))
+  }
+
+  @Test
+  def should_pick_an_index_prefix_seek_for_prefix_regular_expressions() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      LiteralRegularExpression(Property(Identifier(identifier), propertyKey), Literal("Foo.*"))
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.getIndexRule("Person", "prop")).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+
+    // When
+    val plan = assertAccepts(query)
+
+    // Then
+    assert(plan.query.start.toList === Seq(Unsolved(SchemaIndexRange(identifier, label, property, PrefixRange("Foo")))))
+  }
+
   @Test
   def should_pick_an_uniqueness_constraint_index_if_only_one_possible_exists() {
     // Given
@@ -269,6 +311,7 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
 
     when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
     when(context.getIndexRule(label, otherProperty)).thenReturn(Some(new IndexDescriptor(2468,3579)))
+    when(context.getCompositeIndexRules(label)).thenReturn(Seq.empty)
     when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
 
     // When
@@ -291,6 +334,7 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
 
     when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
     when(context.getIndexRule(label, otherProperty)).thenReturn(Some(new IndexDescriptor(2468,3579)))
+    when(context.getCompositeIndexRules(label)).thenReturn(Seq.empty)
     when(context.getUniquenessConstraint( label, property )).thenReturn(None)
     when(context.getUniquenessConstraint( label, otherProperty )).thenReturn(Some(new UniquenessConstraint(2468,3579)))
 
@@ -314,6 +358,7 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
 
     when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
     when(context.getIndexRule(label, otherProperty)).thenReturn(Some(new IndexDescriptor(2468,3579)))
+    when(context.getCompositeIndexRules(label)).thenReturn(Seq.empty)
     when(context.getUniquenessConstraint( label, property )).thenReturn(Some(new UniquenessConstraint(123,456)))
     when(context.getUniquenessConstraint( label, otherProperty )).thenReturn(None)
 
@@ -324,6 +369,56 @@ class StartPointChoosingBuilderTest extends BuilderTest with MockitoSugar {
     assertEquals(Some(Unsolved(SchemaIndex(identifier, label, property, AnyIndex, None))), result.start.find(_.token.isInstanceOf[SchemaIndex]))
   }
 
+  @Test
+  def should_prefer_a_composite_index_covering_all_compared_properties() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      Equals(Property(Identifier(identifier), propertyKey), expression),
+      Equals(Property(Identifier(identifier), otherPropertyKey), expression)
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getIndexRule(label, otherProperty)).thenReturn(Some(new IndexDescriptor(123,3579)))
+    when(context.getCompositeIndexRules(label)).thenReturn(
+      Seq((Seq(property, otherProperty), new IndexDescriptor(123, Array(456, 3579)))))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+
+    // When
+    val result = assertAccepts(query).query
+
+    // Then
+    assertEquals(Some(Unsolved(CompositeSchemaIndex(identifier, label, Seq(property, otherProperty), Seq(expression, expression)))),
+      result.start.find(_.token.isInstanceOf[CompositeSchemaIndex]))
+    assert(result.where.forall(_.solved))
+  }
+
+  @Test
+  def should_not_use_a_composite_index_when_some_of_its_properties_are_not_compared() {
+    // Given
+    val query = q(where = Seq(
+      HasLabel(Identifier(identifier), KeyToken.Unresolved(label, TokenType.Label)),
+      Equals(Property(Identifier(identifier), propertyKey), expression),
+      Equals(Property(Identifier(identifier), otherPropertyKey), expression)
+    ), patterns = Seq(
+      SingleNode(identifier)
+    ))
+
+    when(context.getIndexRule(label, property)).thenReturn(Some(new IndexDescriptor(123,456)))
+    when(context.getIndexRule(label, otherProperty)).thenReturn(None)
+    when(context.getCompositeIndexRules(label)).thenReturn(
+      Seq((Seq(property, "prop3"), new IndexDescriptor(123, Array(456, 789)))))
+    when(context.getUniquenessConstraint( Matchers.any(), Matchers.any() )).thenReturn(None)
+
+    // When
+    val result = assertAccepts(query).query
+
+    // Then
+    assertEquals(Some(Unsolved(SchemaIndex(identifier, label, property, AnyIndex, None))), result.start.find(_.token.isInstanceOf[SchemaIndex]))
+  }
+
   @Test
   def should_produce_label_start_points_when_no_property_predicate_is_used() {
     // Given MATCH n:Person
@@ -107,6 +107,34 @@ class EagerAggregationPipeTest extends JUnitSuite {
     assertEquals(List(Map("count(name)" -> 3)), aggregationPipe.createResults(QueryStateHelper.empty).toList)
   }
 
+  @Test def shouldAggregateGroupsSpilledToDisk() {
+    val rows = for (i <- 0 until 200) yield Map[String, Any]("name" -> ("n" + i % 50), "age" -> i)
+    val source = new FakePipe(rows, "name" -> StringType(), "age" -> NumberType())
+
+    val returnItems = createReturnItemsFor("name")
+    val grouping = Map("count(*)" -> CountStar(), "collect(age)" -> Collect(Identifier("age")))
+    val aggregationPipe = new EagerAggregationPipe(source, returnItems, grouping)
+
+    val results = aggregationPipe.createResults(QueryStateHelper.empty.copy(rowsInMemory = 3)).map(_.m.toMap).toList
+    assertEquals(50, results.size)
+    for (n <- 0 until 50)
+      assertTrue(results.contains(Map("name" -> ("n" + n), "count(*)" -> 4, "collect(age)" -> List(n, n + 50, n + 100, n + 150))))
+  }
+
+  @Test def shouldKeepAggregatingInMemoryWhenRowsCanNotBeSpilled() {
+    val rows = for (i <- 0 until 60) yield Map[String, Any]("name" -> ("n" + i % 20), "age" -> i, "x" -> (if (i == 45) new Object else i))
+    val source = new FakePipe(rows, "name" -> StringType(), "age" -> NumberType(), "x" -> AnyType())
+
+    val returnItems = createReturnItemsFor("name")
+    val grouping = Map("collect(age)" -> Collect(Identifier("age")))
+    val aggregationPipe = new EagerAggregationPipe(source, returnItems, grouping)
+
+    val results = aggregationPipe.createResults(QueryStateHelper.empty.copy(rowsInMemory = 3)).map(_.m.toMap).toList
+    assertEquals(20, results.size)
+    for (n <- 0 until 20)
+      assertTrue(results.contains(Map("name" -> ("n" + n), "collect(age)" -> List(n, n + 20, n + 40))))
+  }
+
   private def createSymbolTableFor(name: String) = name -> NodeType()
 
   private def getResults(p: Pipe): JIterable[Map[String, Any]] = p.createResults(QueryStateHelper.empty).map(_.m.toMap).toIterable.asJava
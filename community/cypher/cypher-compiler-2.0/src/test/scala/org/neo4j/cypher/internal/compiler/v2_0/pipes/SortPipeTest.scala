@@ -111,6 +111,44 @@ class SortPipeTest extends JUnitSuite {
     assertEquals(expectedResult, actualResult)
   }
 
+  @Test def shouldMergeSortedRunsSpilledToDisk() {
+    val list:Seq[MutableMap[String, Any]] = Random.shuffle(
+      for (v <- 1 to 100) yield MutableMap("x" -> (v: Any)))
+
+    val source = new FakePipe(list, "x" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+
+    val actualResult = sortPipe.createResults(QueryStateHelper.empty.copy(rowsInMemory = 7)).toList
+    assertEquals((1 to 100).map(v => MutableMap("x" -> v)).toList, actualResult)
+  }
+
+  @Test def shouldKeepEqualRowsInInputOrderWhenSpilling() {
+    val list:Seq[MutableMap[String, Any]] = for (v <- 0 until 30) yield MutableMap("x" -> (v % 3: Any), "y" -> (v: Any))
+
+    val source = new FakePipe(list, "x" -> NumberType(), "y" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), false)))
+
+    val actualResult = sortPipe.createResults(QueryStateHelper.empty.copy(rowsInMemory = 4)).toList
+    val expectedResult = for (x <- List(2, 1, 0); y <- 0 until 30 if y % 3 == x) yield MutableMap("x" -> x, "y" -> y)
+    assertEquals(expectedResult, actualResult)
+  }
+
+  @Test def shouldDeleteSpilledRunsOnceTheyHaveBeenRead() {
+    val list:Seq[MutableMap[String, Any]] = for (v <- 1 to 20) yield MutableMap("x" -> (v: Any))
+
+    val source = new FakePipe(list, "x" -> NumberType())
+
+    val sortPipe = new SortPipe(source, List(SortItem(Identifier("x"), true)))
+
+    val state = QueryStateHelper.empty.copy(rowsInMemory = 7)
+    val result = sortPipe.createResults(state)
+    assertFalse(state.spillFiles.isEmpty)
+    result.toList
+    assertTrue(state.spillFiles.isEmpty)
+  }
+
   @Test(expected = classOf[PatternException]) def shouldNotAllowSortingWithRandomValues() {
     val list:Seq[MutableMap[String, Any]] = Random.shuffle(
       for (v <- 1 to 1000) yield MutableMap("x" -> (v: Any)))
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_0.pipes.slots
+
+import org.neo4j.cypher.internal.compiler.v2_0._
+import pipes._
+import spi.QueryContext
+import symbols.{StringType, RelationshipType, NodeType}
+import org.neo4j.graphdb.{Relationship, Node}
+import org.junit.Test
+import org.scalatest.Assertions
+import org.scalatest.mock.MockitoSugar
+import org.mockito.Mockito.{when, verifyZeroInteractions}
+
+class SlotRowTest extends MockitoSugar with Assertions {
+  val layout = SlotLayout.forPipe(new FakePipe(List(), "a" -> NodeType(), "r" -> RelationshipType(), "name" -> StringType()))
+  val entities = mock[EntityAccessor]
+
+  @Test def layout_gives_entity_identifiers_entity_slots() {
+    assert(layout.size === 3)
+    assert(layout.kindOf(layout.slotOf("a")) === SlotLayout.NODE)
+    assert(layout.kindOf(layout.slotOf("r")) === SlotLayout.RELATIONSHIP)
+    assert(layout.kindOf(layout.slotOf("name")) === SlotLayout.REFERENCE)
+    assert(layout.slotOf("unknown") === -1)
+  }
+
+  @Test def behaves_like_a_map() {
+    val row = new SlotRow(layout, entities)
+    row += "name" -> "Andres"
+    row += "a" -> null
+    row += "other" -> 42
+
+    assert(row.toMap === Map("name" -> "Andres", "a" -> null, "other" -> 42))
+    assert(row.get("r") === None)
+
+    row -= "name"
+    row -= "other"
+    assert(row.toMap === Map("a" -> null))
+  }
+
+  @Test def copies_are_independent() {
+    val row = new SlotRow(layout, entities)
+    row += "name" -> "Andres"
+
+    val copy = row.clone()
+    copy += "name" -> "Peter"
+    copy += "other" -> 42
+
+    assert(row.toMap === Map("name" -> "Andres"))
+    assert(copy.toMap === Map("name" -> "Peter", "other" -> 42))
+  }
+
+  @Test def keeps_entity_ids_of_entities_put_in_entity_slots() {
+    val node = mock[Node]
+    when(node.getId).thenReturn(12L)
+    val row = new SlotRow(layout, entities)
+
+    row += "a" -> node
+
+    assert(row.entityIdAt(layout.slotOf("a")) === 12L)
+    assert(row.get("a") === Some(node))
+  }
+
+  @Test def looks_up_entities_held_as_ids_only_when_read() {
+    val rel = mock[Relationship]
+    when(entities.relationship(7L)).thenReturn(rel)
+    val row = new SlotRow(layout, entities)
+    val slot = layout.slotOf("r")
+
+    row.setEntityId(slot, 7L)
+    assert(row.isUnmaterialized(slot))
+    assert(row.entityIdAt(slot) === 7L)
+    verifyZeroInteractions(entities)
+
+    assert(row.get("r") === Some(rel))
+    assert(!row.isUnmaterialized(slot))
+  }
+
+  @Test def execution_contexts_derived_from_slot_rows_stay_in_slots() {
+    val ctx = ExecutionContext(new SlotRow(layout, entities)).newWith("name" -> "Andres")
+
+    assert(ctx.m.isInstanceOf[SlotRow])
+    assert(ctx.newWith(Seq("a" -> null)).m.isInstanceOf[SlotRow])
+    assert(ctx.toMap === Map("name" -> "Andres"))
+  }
+
+  @Test def matched_entities_are_kept_as_ids() {
+    val node = mock[Node]
+    when(node.getId).thenReturn(12L)
+    val ctx = ExecutionContext(new SlotRow(layout, entities))
+
+    val matched = ctx.newWithMatched(Seq("a" -> node, "name" -> "Andres")).m.asInstanceOf[SlotRow]
+
+    val slot = layout.slotOf("a")
+    assert(matched.isUnmaterialized(slot))
+    assert(matched.entityIdAt(slot) === 12L)
+    assert(matched.get("name") === Some("Andres"))
+    assert(ctx.toMap === Map())
+  }
+
+  @Test def the_last_match_is_written_into_the_row_itself() {
+    val ctx = ExecutionContext(new SlotRow(layout, entities))
+
+    val rows = ctx.withMatches(Iterator(Map("name" -> "Andres"), Map("name" -> "Peter"))).toList
+
+    assert(rows.map(_("name")) === List("Andres", "Peter"))
+    assert(!(rows(0) eq ctx))
+    assert(rows(1) eq ctx)
+  }
+
+  @Test def start_pipes_keep_nodes_from_label_scans_as_ids() {
+    val queryContext = mock[QueryContext]
+    when(queryContext.getNodeIdsByLabel(3)).thenReturn(Iterator(5L, 6L))
+    val producer = new EntityIdProducer[Node] {
+      def apply(m: ExecutionContext, state: QueryState) = fail("nodes should not be looked up")
+
+      def ids(m: ExecutionContext, state: QueryState) = state.query.getNodeIdsByLabel(3)
+
+      def name = "NodeByLabel"
+
+      def description = Seq.empty
+    }
+    val pipe = new NodeStartPipe(NullPipe(), "a", producer)
+    val layout = SlotLayout.forPipe(pipe)
+    val state = new QueryState(null, queryContext, Map.empty, NullDecorator, slots = Some(layout))
+
+    val rows = pipe.createResults(state).map(_.m.asInstanceOf[SlotRow]).toList
+
+    val slot = layout.slotOf("a")
+    assert(rows.map(row => (row.isUnmaterialized(slot), row.entityIdAt(slot))) === List((true, 5L), (true, 6L)))
+  }
+}
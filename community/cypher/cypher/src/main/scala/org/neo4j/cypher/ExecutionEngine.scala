@@ -29,6 +29,7 @@ import scala.collection.JavaConverters._
 import java.util.{Map => JavaMap}
 import org.neo4j.cypher.internal.compiler.v2_0.prettifier.Prettifier
 import org.neo4j.kernel.impl.coreapi.ThreadToStatementContextBridge
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics
 
 class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = StringLogger.DEV_NULL) {
 
@@ -40,8 +41,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   @throws(classOf[SyntaxException])
   def profile(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    val (plan, tx) = prepare(query)
-    plan.profile(graphAPI, tx, txBridge.instance(), params)
+    val (plan, tx, parameters) = prepare(query, params)
+    plan.profile(graphAPI, tx, txBridge.instance(), parameters)
   }
 
   @throws(classOf[SyntaxException])
@@ -57,16 +58,23 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
   @throws(classOf[SyntaxException])
   def execute(query: String, params: Map[String, Any]): ExecutionResult = {
     logger.debug(query)
-    val (plan, tx) = prepare(query)
-    plan.execute(graphAPI, tx, txBridge.instance(), params)
+    val (plan, tx, parameters) = prepare(query, params)
+    plan.execute(graphAPI, tx, txBridge.instance(), parameters)
   }
 
   @throws(classOf[SyntaxException])
   def execute(query: String, params: JavaMap[String, Any]): ExecutionResult = execute(query, params.asScala.toMap)
 
   @throws(classOf[SyntaxException])
-  private def prepare(query: String): (ExecutionPlan, Transaction)=  {
+  private def prepare(query: String, params: Map[String, Any]): (ExecutionPlan, Transaction, Map[String, Any]) = {
 
+    // queries that only differ in their literals share a plan, unless the literals turned out to matter
+    val normalized = compiler.normalize(query)
+    var (cacheKey, parameters) =
+      if (normalized.parameters.isEmpty || unnormalizable.containsKey(normalized.text)) (query, params)
+      else (normalized.text, params ++ normalized.parameters)
+
+    var planned = false
     var n = 0
     while (n < ExecutionEngine.PLAN_BUILDING_TRIES) {
       // create transaction and query context
@@ -74,14 +82,31 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
       val tx = graph.beginTx()
       val statement = txBridge.instance()
       val plan = try {
-        // fetch plan cache
-        val planCache = getOrCreateFromSchemaState(statement, new LRUCache[String, ExecutionPlan](getPlanCacheSize))
+        // a new schema state means the schema has changed since plans were last validated
+        val schema = getOrCreateFromSchemaState(statement, new Object)
 
         // get plan or build it
-        planCache.getOrElseUpdate(query, {
-          touched = true
-          compiler.prepare(query, graph, statement)
-        })
+        planCache.get(cacheKey) match {
+          case Some(cached) if cached.isValidFor(schema, statement) =>
+            cached.plan
+
+          case stale =>
+            if (stale.isDefined)
+              statistics.invalidated()
+            touched = true
+            planned = true
+            val plan = try {
+              compile(cacheKey, statement)
+            } catch {
+              case e: CypherException if cacheKey != query =>
+                unnormalizable.put(cacheKey, true)
+                cacheKey = query
+                parameters = params
+                compile(query, statement)
+            }
+            planCache.put(cacheKey, new CachedPlan(plan, schema))
+            plan
+        }
       }
       catch {
         case (t: Throwable) =>
@@ -100,7 +125,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
         // close the old statement reference after the statement has been "upgraded"
         // to either a schema data or a schema statement, so that the locks are "handed over".
         statement.close()
-        return (plan, tx)
+        if (planned) statistics.miss() else statistics.hit()
+        return (plan, tx, parameters)
       }
 
       n += 1
@@ -109,6 +135,26 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
     throw new IllegalStateException("Could not execute query due to insanely frequent schema changes")
   }
 
+  private def compile(query: String, statement: Statement): ExecutionPlan = {
+    val start = System.currentTimeMillis()
+    val plan = compiler.prepare(query, graph, statement)
+    statistics.compiled(System.currentTimeMillis() - start)
+    plan
+  }
+
+  private class CachedPlan(val plan: ExecutionPlan, @volatile private var schema: AnyRef) {
+    // plans only go stale when the schema changes in a way that affects the indexes or constraints they use
+    def isValidFor(currentSchema: AnyRef, statement: Statement): Boolean =
+      (schema eq currentSchema) || (!plan.isStale(graph, statement) && { schema = currentSchema; true })
+  }
+
+  private val statistics = Option(graphAPI.getDependencyResolver.resolveDependency(classOf[QueryPlanCacheStatistics]))
+    .getOrElse(new QueryPlanCacheStatistics)
+
+  private val planCache = new LRUCache[String, CachedPlan](getPlanCacheSize, (_, _) => statistics.evicted())
+
+  private val unnormalizable = new LRUCache[String, Boolean](getPlanCacheSize)
+
   private val txBridge = graph.asInstanceOf[GraphDatabaseAPI]
     .getDependencyResolver
     .resolveDependency(classOf[ThreadToStatementContextBridge])
@@ -29,7 +29,8 @@ import org.neo4j.cypher.internal.compiler.v1_9.{CypherCompiler => CypherCompiler
 import org.neo4j.cypher.internal.compiler.v2_0.executionplan.{ExecutionPlan => ExecutionPlan_v2_0}
 import org.neo4j.cypher.internal.compiler.v1_9.executionplan.{ExecutionPlan => ExecutionPlan_v1_9}
 import org.neo4j.kernel.api.Statement
-import org.neo4j.cypher.internal.spi.v2_0.{TransactionBoundExecutionContext, TransactionBoundPlanContext}
+import org.neo4j.cypher.internal.spi.v2_0.{SchemaDependencies, SchemaRecordingPlanContext, TransactionBoundExecutionContext, TransactionBoundPlanContext}
+import org.neo4j.cypher.internal.compiler.v2_0.{NormalizedQuery, QueryNormalizer}
 import org.neo4j.cypher.internal.compiler.v2_0.spi.ExceptionTranslatingQueryContext
 import org.neo4j.cypher.internal.spi.v1_9.GDSBackedQueryContext
 
@@ -50,10 +51,7 @@ object CypherCompiler {
 
     @throws(classOf[SyntaxException])
     def prepare(query: String, context: GraphDatabaseService, statement: Statement): ExecutionPlan = {
-      val (version, remainingQuery) = query match {
-        case hasVersionDefined(versionName, remainingQuery) => (CypherVersion(versionName), remainingQuery)
-        case _ => (vDefault, query)
-      }
+      val (version, remainingQuery) = versionOf(query)
 
       version match {
         case CypherVersion.v1_9 =>
@@ -61,11 +59,37 @@ object CypherCompiler {
           new ExecutionPlanWrapperForV1_9(plan)
 
         case CypherVersion.v2_0 => 
-          val plan = compiler2_0.prepare(remainingQuery, new TransactionBoundPlanContext(statement, context))
-          new ExecutionPlanWrapperForV2_0(plan)
+          val planContext = new SchemaRecordingPlanContext(new TransactionBoundPlanContext(statement, context))
+          val plan = compiler2_0.prepare(remainingQuery, planContext)
+          new ExecutionPlanWrapperForV2_0(plan, planContext.dependencies)
+      }
+    }
+
+    /*
+    Moves the literals of a query out into parameters, see QueryNormalizer. Only 2.0 queries are normalized.
+     */
+    def normalize(query: String): NormalizedQuery = {
+      val (version, remainingQuery) = try {
+        versionOf(query)
+      } catch {
+        case _: SyntaxException => return NormalizedQuery(query, Map.empty)
+      }
+
+      version match {
+        case CypherVersion.v2_0 =>
+          val normalized = QueryNormalizer(remainingQuery)
+          normalized.copy(text = query.substring(0, query.length - remainingQuery.length) + normalized.text)
+
+        case _ =>
+          NormalizedQuery(query, Map.empty)
       }
     }
 
+    private def versionOf(query: String): (CypherVersion, String) = query match {
+      case hasVersionDefined(versionName, remainingQuery) => (CypherVersion(versionName), remainingQuery)
+      case _ => (vDefault, query)
+    }
+
     private def getQueryCacheSize : Int =
       optGraphAs[InternalAbstractGraphDatabase]
         .andThen(_.getConfig.get(GraphDatabaseSettings.query_cache_size))
@@ -81,7 +105,7 @@ object CypherCompiler {
   }
 }
 
-class ExecutionPlanWrapperForV2_0(inner: ExecutionPlan_v2_0) extends ExecutionPlan {
+class ExecutionPlanWrapperForV2_0(inner: ExecutionPlan_v2_0, schema: SchemaDependencies) extends ExecutionPlan {
 
   private def queryContext(graph: GraphDatabaseAPI, tx: Transaction, statement: Statement) =
     new ExceptionTranslatingQueryContext(new TransactionBoundExecutionContext(graph, tx, statement))
@@ -91,6 +115,9 @@ class ExecutionPlanWrapperForV2_0(inner: ExecutionPlan_v2_0) extends ExecutionPl
 
   def execute(graph: GraphDatabaseAPI, tx: Transaction, statement: Statement, params: Map[String, Any]) =
     inner.execute(queryContext(graph, tx, statement), params)
+
+  def isStale(graph: GraphDatabaseService, statement: Statement) =
+    !schema.holdIn(new TransactionBoundPlanContext(statement, graph))
 }
 
 class ExecutionPlanWrapperForV1_9(inner: ExecutionPlan_v1_9) extends ExecutionPlan {
@@ -103,5 +130,7 @@ class ExecutionPlanWrapperForV1_9(inner: ExecutionPlan_v1_9) extends ExecutionPl
 
   def execute(graph: GraphDatabaseAPI, tx: Transaction, statement: Statement, params: Map[String, Any]) =
     inner.execute(queryContext(graph), tx, params)
+
+  def isStale(graph: GraphDatabaseService, statement: Statement) = false
 }
 
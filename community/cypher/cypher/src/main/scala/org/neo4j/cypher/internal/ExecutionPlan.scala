@@ -21,10 +21,15 @@ package org.neo4j.cypher.internal
 
 import org.neo4j.cypher.ExecutionResult
 import org.neo4j.kernel.GraphDatabaseAPI
-import org.neo4j.graphdb.Transaction
+import org.neo4j.graphdb.{GraphDatabaseService, Transaction}
 import org.neo4j.kernel.api.Statement
 
 trait ExecutionPlan {
   def execute(graph: GraphDatabaseAPI, tx: Transaction, statement: Statement, params: Map[String, Any]): ExecutionResult
   def profile(graph: GraphDatabaseAPI, tx: Transaction, statement: Statement, params: Map[String, Any]): ExecutionResult
+
+  /*
+  True if the schema has changed in a way that would make planning this query again give a different plan
+   */
+  def isStale(graph: GraphDatabaseService, statement: Statement): Boolean
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.spi.v2_0
+
+import org.neo4j.cypher.internal.compiler.v2_0.spi.PlanContext
+import org.neo4j.kernel.impl.api.index.IndexDescriptor
+import org.neo4j.kernel.api.constraints.UniquenessConstraint
+import scala.collection.mutable
+
+/**
+ * Remembers every index and constraint lookup made while planning a query, together with its answer, so that a
+ * cached plan only needs to be replanned when one of those answers has changed.
+ */
+class SchemaRecordingPlanContext(inner: PlanContext) extends PlanContext {
+  private val lookups = mutable.ListBuffer[(PlanContext => Any, Any)]()
+
+  def dependencies = new SchemaDependencies(lookups.toList)
+
+  private def record[T](lookup: PlanContext => T): T = {
+    val result = lookup(inner)
+    lookups += ((lookup, result))
+    result
+  }
+
+  def getIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor] =
+    record(_.getIndexRule(labelName, propertyKey))
+
+  def getUniqueIndexRule(labelName: String, propertyKey: String): Option[IndexDescriptor] =
+    record(_.getUniqueIndexRule(labelName, propertyKey))
+
+  def getCompositeIndexRules(labelName: String): Seq[(Seq[String], IndexDescriptor)] =
+    record(_.getCompositeIndexRules(labelName).toList)
+
+  def getUniquenessConstraint(labelName: String, propertyKey: String): Option[UniquenessConstraint] =
+    record(_.getUniquenessConstraint(labelName, propertyKey))
+
+  def checkNodeIndex(idxName: String) {
+    inner.checkNodeIndex(idxName)
+  }
+
+  def checkRelIndex(idxName: String) {
+    inner.checkRelIndex(idxName)
+  }
+
+  def getLabelName(id: Int) = inner.getLabelName(id)
+
+  def getOptLabelId(labelName: String) = inner.getOptLabelId(labelName)
+
+  def getLabelId(labelName: String) = inner.getLabelId(labelName)
+
+  def getPropertyKeyName(id: Int) = inner.getPropertyKeyName(id)
+
+  def getOptPropertyKeyId(propertyKeyName: String) = inner.getOptPropertyKeyId(propertyKeyName)
+
+  def getPropertyKeyId(propertyKeyName: String) = inner.getPropertyKeyId(propertyKeyName)
+}
+
+class SchemaDependencies(lookups: Seq[(PlanContext => Any, Any)]) {
+  def holdIn(context: PlanContext): Boolean = lookups.forall {
+    case (lookup, result) => lookup(context) == result
+  }
+}
@@ -112,6 +112,19 @@ class TransactionBoundExecutionContext(graph: GraphDatabaseAPI, tx: Transaction,
   def exactIndexSearch(index: IndexDescriptor, value: Any) =
     mapToScala(statement.readOperations().nodesGetFromIndexLookup(index, value))(nodeOps.getById)
 
+  def numberRangeIndexSearch(index: IndexDescriptor, lower: Option[Number], includeLower: Boolean,
+                             upper: Option[Number], includeUpper: Boolean) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByNumber(
+      index, lower.orNull, includeLower, upper.orNull, includeUpper))(nodeOps.getById)
+
+  def stringRangeIndexSearch(index: IndexDescriptor, lower: Option[String], includeLower: Boolean,
+                             upper: Option[String], includeUpper: Boolean) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByString(
+      index, lower.orNull, includeLower, upper.orNull, includeUpper))(nodeOps.getById)
+
+  def prefixIndexSearch(index: IndexDescriptor, prefix: String) =
+    mapToScala(statement.readOperations().nodesGetFromIndexRangeSeekByPrefix(index, prefix))(nodeOps.getById)
+
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node] = {
     val nodeId: Long = statement.readOperations().nodeGetUniqueFromIndexLookup(index, value)
     if (StatementConstants.NO_SUCH_NODE == nodeId) None else Some(nodeOps.getById(nodeId))
@@ -129,6 +142,9 @@ class TransactionBoundExecutionContext(graph: GraphDatabaseAPI, tx: Transaction,
   def getNodesByLabel(id: Int): Iterator[Node] =
     mapToScala(statement.readOperations().nodesGetForLabel(id))(nodeOps.getById)
 
+  override def getNodeIdsByLabel(id: Int): Iterator[Long] =
+    JavaConversionSupport.asScala(statement.readOperations().nodesGetForLabel(id))
+
   class NodeOperations extends BaseOperations[Node] {
     def delete(obj: Node) {
       statement.dataWriteOperations().nodeDelete(obj.getId)
@@ -144,6 +160,9 @@ class TransactionBoundExecutionContext(graph: GraphDatabaseAPI, tx: Transaction,
     def hasProperty(id: Long, propertyKey: Int) =
       statement.readOperations().nodeGetProperty(id, propertyKey).isDefined
 
+    override def propertyEquals(id: Long, propertyKeyId: Int, value: String): Option[Boolean] =
+      propertyEquals(statement.readOperations().nodeGetProperty(id, propertyKeyId), value)
+
     def removeProperty(id: Long, propertyKeyId: Int) {
       statement.dataWriteOperations().nodeRemoveProperty(id, propertyKeyId)
     }
@@ -182,6 +201,9 @@ class TransactionBoundExecutionContext(graph: GraphDatabaseAPI, tx: Transaction,
     def hasProperty(id: Long, propertyKey: Int) =
       statement.readOperations().relationshipGetProperty(id, propertyKey).isDefined
 
+    override def propertyEquals(id: Long, propertyKeyId: Int, value: String): Option[Boolean] =
+      propertyEquals(statement.readOperations().relationshipGetProperty(id, propertyKeyId), value)
+
     def removeProperty(id: Long, propertyKeyId: Int) {
       statement.dataWriteOperations().relationshipRemoveProperty(id, propertyKeyId)
     }
@@ -218,6 +240,15 @@ class TransactionBoundExecutionContext(graph: GraphDatabaseAPI, tx: Transaction,
   })
 
   abstract class BaseOperations[T <: PropertyContainer] extends Operations[T] {
+    /*
+    The kernel compares properties read from the string dictionary by the ids of their entries. It also takes chars
+    to be equal to strings of that char, which Cypher doesn't, so those are compared here.
+     */
+    protected def propertyEquals(property: properties.Property, value: String): Option[Boolean] =
+      if (!property.isDefined) None
+      else if (value.length == 1) Some(property.value() == value)
+      else Some(property.valueEquals(value))
+
     def primitiveLongIteratorToScalaIterator(primitiveIterator: PrimitiveLongIterator): Iterator[Long] =
       new Iterator[Long] {
         def hasNext: Boolean = primitiveIterator.hasNext
@@ -28,6 +28,8 @@ import org.neo4j.kernel.api.exceptions.KernelException
 import org.neo4j.kernel.api.Statement
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException
 import org.neo4j.cypher.internal.compiler.v2_0.spi.PlanContext
+import org.neo4j.kernel.api.operations.KeyReadOperations
+import scala.collection.JavaConverters._
 
 class TransactionBoundPlanContext(statement:Statement, gdb:GraphDatabaseService)
   extends TransactionBoundTokenContext(statement) with PlanContext {
@@ -46,6 +48,21 @@ class TransactionBoundPlanContext(statement:Statement, gdb:GraphDatabaseService)
     Some(statement.readOperations().uniqueIndexGetForLabelAndPropertyKey(labelId, propertyKeyId))
   }
 
+  def getCompositeIndexRules(labelName: String): Seq[(Seq[String], IndexDescriptor)] = {
+    val labelId = statement.readOperations().labelGetForName(labelName)
+
+    if (labelId == KeyReadOperations.NO_SUCH_LABEL)
+      Seq.empty
+    else {
+      val descriptors = statement.readOperations().indexesGetForLabel(labelId).asScala ++
+        statement.readOperations().uniqueIndexesGetForLabel(labelId).asScala
+
+      descriptors.filter(_.isComposite).flatMap(getOnlineIndex).map {
+        descriptor => (descriptor.getPropertyKeyIds.toSeq.map(statement.readOperations().propertyKeyGetName), descriptor)
+      }.toList
+    }
+  }
+
   private def evalOrNone[T](f: => Option[T]): Option[T] =
     try { f } catch { case _: SchemaRuleNotFoundException => None }
 
@@ -59,8 +76,9 @@ class TransactionBoundPlanContext(statement:Statement, gdb:GraphDatabaseService)
     val labelId = statement.readOperations().labelGetForName(labelName)
     val propertyKeyId = statement.readOperations().propertyKeyGetForName(propertyKey)
 
+    // A composite constraint only makes the combination of its properties unique, not each of them
     val matchingConstraints = statement.readOperations().constraintsGetForLabelAndPropertyKey(labelId, propertyKeyId)
-    if ( matchingConstraints.hasNext ) Some(matchingConstraints.next()) else None
+    matchingConstraints.asScala.find(!_.isComposite)
   } catch {
     case _: KernelException => None
   }
@@ -2613,4 +2613,23 @@ RETURN x0.name""")
     assert(result("name") === "Foo")
     assert(result("count") === 1)
   }
+
+  @Test def should_compare_properties_kept_in_the_string_dictionary_with_strings() {
+    // given
+    val db = new ImpermanentGraphDatabase(MapUtil.stringMap(GraphDatabaseSettings.string_dictionary_keys.name(), "status"))
+    try {
+      val engine = new ExecutionEngine(db)
+      engine.execute("CREATE ({name: 'a', status: 'active'}), ({name: 'b', status: 'inactive'}), ({name: 'c'})")
+
+      // when
+      val active = engine.execute("MATCH (n) WHERE n.status = {status} RETURN n.name", Map("status" -> "active"))
+      val notActive = engine.execute("MATCH (n) WHERE NOT('active' = n.status) RETURN n.name")
+
+      // then
+      assert(active.columnAs[String]("n.name").toList === List("a"))
+      assert(notActive.columnAs[String]("n.name").toList === List("b"))
+    } finally {
+      db.shutdown()
+    }
+  }
 }
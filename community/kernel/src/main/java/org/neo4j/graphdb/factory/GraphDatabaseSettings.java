@@ -32,10 +32,14 @@ import org.neo4j.kernel.configuration.Migrator;
 import org.neo4j.kernel.configuration.Title;
 import org.neo4j.kernel.impl.cache.CacheProvider;
 import org.neo4j.kernel.impl.cache.MonitorGc;
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecordCompression;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolType;
 
 import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
+import static org.neo4j.helpers.Settings.DURATION;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.INTEGER;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
@@ -44,10 +48,12 @@ import static org.neo4j.helpers.Settings.STRING;
 import static org.neo4j.helpers.Settings.TRUE;
 import static org.neo4j.helpers.Settings.basePath;
 import static org.neo4j.helpers.Settings.illegalValueMessage;
+import static org.neo4j.helpers.Settings.list;
 import static org.neo4j.helpers.Settings.matches;
 import static org.neo4j.helpers.Settings.min;
 import static org.neo4j.helpers.Settings.options;
 import static org.neo4j.helpers.Settings.port;
+import static org.neo4j.helpers.Settings.range;
 import static org.neo4j.helpers.Settings.setting;
 
 /**
@@ -76,6 +82,19 @@ public abstract class GraphDatabaseSettings
     public static final Setting<String> tx_manager_impl = setting("tx_manager_impl", STRING, "native",
             illegalValueMessage( "Must be class name of TransactionManager implementation", matches( ANY )));
 
+    @Description("The lock manager to use. 'rag' guards all locks and the resource allocation graph used for " +
+            "deadlock detection with single monitors. 'striped' keeps locks in striped lock tables, acquires " +
+            "uncontended locks with a compare-and-set and only does deadlock detection when a transaction " +
+            "has to wait for a lock.")
+    public static final Setting<String> lock_manager = setting( "lock_manager", options( "rag", "striped" ), "rag" );
+
+    @Description("The label scan store to use. 'lucene' keeps label membership in a Lucene index. 'native' keeps " +
+            "a compressed bitmap of the nodes per label in memory, backed by a snapshot file and an append-only " +
+            "log. The store last in use is recorded in schema/label/authoritative, and when this setting " +
+            "selects another one, that store is rebuilt from the node store on the next startup.")
+    public static final Setting<String> label_scan_store = setting( "label_scan_store", options( "lucene", "native" ),
+            "lucene" );
+
     @Description("Whether to allow a store upgrade in case the current version of the database starts against an " +
             "older store version. " +
             "Setting this to true does not guarantee successful upgrade, just " +
@@ -97,6 +116,16 @@ public abstract class GraphDatabaseSettings
     @Description("Used to set the number of Cypher query execution plans that are cached.")
     public static Setting<Integer> query_cache_size = setting( "query_cache_size", INTEGER, "100", min( 0 ) );
 
+    @Description("The maximum number of rows a Cypher sort, or groups a Cypher aggregation, keeps in memory. " +
+            "Beyond this, intermediate rows are spilled to temporary files and read back when results are produced.")
+    public static Setting<Integer> query_rows_in_memory = setting( "query_rows_in_memory", INTEGER, "1000000",
+            min( 1 ) );
+
+    @Description("Enable this to evaluate Cypher filter and projection expressions through compiled, specialised " +
+            "expression trees rather than by interpreting the query's expression trees.")
+    public static final Setting<Boolean> cypher_compiled_expressions = setting( "cypher_compiled_expressions",
+            BOOLEAN, FALSE );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final Setting<File> store_dir = setting("store_dir", PATH, NO_DEFAULT );
@@ -164,6 +193,38 @@ public abstract class GraphDatabaseSettings
                   "Default is 25M" )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "logical_log_rotation_threshold", BYTES, "25M" );
 
+    @Description( "Whether or not transactions committing at the same time should share the force of the logical " +
+                  "log to disk, instead of forcing it once per transaction. Trades a little commit latency for " +
+                  "much higher throughput with many concurrent writers." )
+    public static final Setting<Boolean> group_commit_enabled = setting( "group_commit_enabled", BOOLEAN, FALSE );
+
+    @Description( "The longest time a group commit waits for more transactions to join it before the logical log " +
+                  "is forced. Only applies if group_commit_enabled is true." )
+    public static final Setting<Long> group_commit_max_delay = setting( "group_commit_max_delay", DURATION, "2ms" );
+
+    @Description( "The number of transactions waiting for a group commit at which the logical log is forced " +
+                  "without waiting any longer. Only applies if group_commit_enabled is true." )
+    public static final Setting<Integer> group_commit_max_batch_size = setting( "group_commit_max_batch_size", INTEGER, "64", min( 1 ) );
+
+    @Description( "How much memory outside of the heap a single transaction may use for the sets of node ids it " +
+                  "changed the labels of, and of node and relationship ids it deleted. Beyond this, those id sets " +
+                  "are moved to a temporary file. This does not bound the memory used by a transaction: the rest " +
+                  "of its state, such as the properties it changed and the records and commands it is about to " +
+                  "write, is kept on the heap regardless, so very large transactions still need to be split up." )
+    public static final Setting<Long> tx_state_id_set_memory_budget =
+            setting( "tx_state_id_set_memory_budget", BYTES, "64M" );
+
+    @Description( "Whether transactions that touch both the graph and legacy indexes should let the one phase " +
+                  "commit of the graph decide their outcome, instead of going through a full two phase commit. " +
+                  "The prepared index changes are carried by the commit of the graph rather than forced on their " +
+                  "own, so such a transaction costs a single force, that of the commit of the graph." )
+    public static final Setting<Boolean> last_resource_commit = setting( "last_resource_commit", BOOLEAN, FALSE );
+
+    @Description( "The number of ids each thread takes at a time for the records it creates. A value above 1 " +
+                  "lets threads creating nodes, relationships and properties concurrently allocate ids without " +
+                  "contending on the id generators. Ids left unused are given back at shutdown." )
+    public static final Setting<Integer> id_batch_size = setting( "id_batch_size", INTEGER, "1", min( 1 ) );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     public static final Setting<Boolean> rebuild_idgenerators_fast = setting("rebuild_idgenerators_fast", BOOLEAN, TRUE );
@@ -175,6 +236,12 @@ public abstract class GraphDatabaseSettings
     @Description("Target size for pages of mapped memory.")
     public static final Setting<Long> mapped_memory_page_size = setting("mapped_memory_page_size", BYTES, "1M" );
 
+    @Description("The strategy for managing the memory mapped windows of each store. MOST_FREQUENTLY_USED periodically " +
+            "remaps the regions of the store with the most hits, PAGE_CACHE maps the store into a fixed number of pages " +
+            "of mapped_memory_page_size and replaces them one at a time using CLOCK eviction.")
+    public static final Setting<WindowPoolType> window_pool_implementation = setting( "window_pool_implementation",
+            options( WindowPoolType.class ), WindowPoolType.MOST_FREQUENTLY_USED.name() );
+
     @Description("The size to allocate for a memory mapping pool to be shared between all stores.")
     public static final Setting<Long> all_stores_total_mapped_memory_size = setting("all_stores_total_mapped_memory_size", BYTES, "500M" );
 
@@ -212,6 +279,13 @@ public abstract class GraphDatabaseSettings
     @Description("How many relationships to read at a time during iteration")
     public static final Setting<Integer> relationship_grab_size = setting("relationship_grab_size", INTEGER, "100", min( 1 ));
 
+    @Description("Relationship count threshold for considering a node dense, 0 disables it. When a node that " +
+            "isn't dense reaches this many relationships its relationships are split up into one chain per type and " +
+            "direction, so that asking for relationships of a certain type only reads those. Nodes that are dense " +
+            "stay dense when the threshold is raised or disabled.")
+    public static final Setting<Integer> dense_node_threshold = setting("dense_node_threshold", INTEGER, "0",
+            range( 0, NodeRecord.MAX_DEGREE_HINT + 1 ));
+
     @Description("Specifies the block size for storing strings. This parameter is only honored when the store is " +
             "created, otherwise it is ignored. " +
             "Note that each character in a string occupies two bytes, meaning that a block size of 120 (the default " +
@@ -227,6 +301,26 @@ public abstract class GraphDatabaseSettings
             "i.e., 8 bytes.")
     public static final Setting<Integer> array_block_size = setting("array_block_size", INTEGER, "120",min(1));
 
+    @Description( "Compression of strings too long to be inlined in property records, before they are divided " +
+                  "into string blocks. Strings written without compression can still be read when this is changed, " +
+                  "and the other way around. LZF is a fast LZ77 based codec, only applied to strings that then " +
+                  "take fewer blocks." )
+    public static final Setting<DynamicRecordCompression> string_block_compression = setting(
+            "string_block_compression", options( DynamicRecordCompression.class ),
+            DynamicRecordCompression.NONE.name() );
+
+    @Description( "Compression of arrays too large to be inlined in property records, before they are divided " +
+                  "into array blocks. Works like string_block_compression." )
+    public static final Setting<DynamicRecordCompression> array_block_compression = setting(
+            "array_block_compression", options( DynamicRecordCompression.class ),
+            DynamicRecordCompression.NONE.name() );
+
+    @Description( "Comma separated names of properties whose string values are stored in a dictionary, once per " +
+                  "distinct value, instead of once per entity. Meant for properties with few distinct values, " +
+                  "like a status or a country code, that are repeated over many nodes or relationships." )
+    public static final Setting<List<String>> string_dictionary_keys = setting( "string_dictionary_keys",
+            list( ",", STRING ), "" );
+
     @Description("Specifies the block size for storing labels exceeding in-lined space in node record. " +
     		"This parameter is only honored when the store is created, otherwise it is ignored. " +
             "The default block size is 60 bytes, and the overhead of each block is the same as for string blocks, " +
@@ -38,7 +38,9 @@ public enum IdType
     LABEL_TOKEN_NAME( false ),
     NEOSTORE_BLOCK( false ),
     SCHEMA( 35, false ),
-    NODE_LABELS( 35, true );
+    NODE_LABELS( 35, true ),
+    RELATIONSHIP_GROUP( 35, false ),
+    STRING_DICTIONARY_BLOCK( 36, false );
 
     private final long max;
     private final boolean allowAggressiveReuse;
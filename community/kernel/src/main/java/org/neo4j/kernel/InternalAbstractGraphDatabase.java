@@ -91,6 +91,7 @@ import org.neo4j.kernel.impl.cache.BridgingCacheAccess;
 import org.neo4j.kernel.impl.cache.Cache;
 import org.neo4j.kernel.impl.cache.CacheProvider;
 import org.neo4j.kernel.impl.cache.MonitorGc;
+import org.neo4j.kernel.impl.cache.QueryPlanCacheStatistics;
 import org.neo4j.kernel.impl.cleanup.CleanupIfOutsideTransaction;
 import org.neo4j.kernel.impl.cleanup.CleanupService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
@@ -119,7 +120,7 @@ import org.neo4j.kernel.impl.coreapi.RelationshipAutoIndexerImpl;
 import org.neo4j.kernel.impl.coreapi.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.coreapi.schema.SchemaImpl;
 import org.neo4j.kernel.impl.index.IndexStore;
-import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
+import org.neo4j.kernel.impl.nioneo.store.BatchingIdGeneratorFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
 import org.neo4j.kernel.impl.nioneo.store.StoreId;
@@ -133,6 +134,7 @@ import org.neo4j.kernel.impl.transaction.LockManagerImpl;
 import org.neo4j.kernel.impl.transaction.LockType;
 import org.neo4j.kernel.impl.transaction.RagManager;
 import org.neo4j.kernel.impl.transaction.ReadOnlyTxManager;
+import org.neo4j.kernel.impl.transaction.StripedLockManager;
 import org.neo4j.kernel.impl.transaction.TransactionManagerProvider;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
 import org.neo4j.kernel.impl.transaction.TxHook;
@@ -248,6 +250,7 @@ public abstract class InternalAbstractGraphDatabase
     protected JobScheduler jobScheduler;
     protected UpdateableSchemaState updateableSchemaState;
     protected CleanupService cleanupService;
+    protected final QueryPlanCacheStatistics queryPlanCacheStatistics = new QueryPlanCacheStatistics();
 
     protected final LifeSupport life = new LifeSupport();
     private final Map<String, CacheProvider> cacheProviders;
@@ -470,7 +473,8 @@ public abstract class InternalAbstractGraphDatabase
             if ( GraphDatabaseSettings.tx_manager_impl.getDefaultValue().equals( serviceName ) )
             {
                 txManager = new TxManager( this.storeDir, xaDataSourceManager, kernelPanicEventGenerator,
-                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory );
+                        logging.getMessagesLog( TxManager.class ), fileSystem, stateFactory,
+                        new TxManager.Monitor.Adapter(), config.get( GraphDatabaseSettings.last_resource_commit ) );
             }
             else
             {
@@ -764,7 +768,8 @@ public abstract class InternalAbstractGraphDatabase
 
     protected StoreFactory createStoreFactory()
     {
-        return new StoreFactory( config, idGeneratorFactory, new DefaultWindowPoolFactory(), fileSystem,
+        return new StoreFactory( config, idGeneratorFactory,
+                config.get( GraphDatabaseSettings.window_pool_implementation ).windowPoolFactory(), fileSystem,
                 logging.getMessagesLog( StoreFactory.class ), txHook );
     }
 
@@ -879,11 +884,17 @@ public abstract class InternalAbstractGraphDatabase
 
     protected IdGeneratorFactory createIdGeneratorFactory()
     {
-        return new DefaultIdGeneratorFactory();
+        int batchSize = config.get( GraphDatabaseSettings.id_batch_size );
+        IdGeneratorFactory factory = new DefaultIdGeneratorFactory();
+        return batchSize > 1 ? new BatchingIdGeneratorFactory( factory, batchSize ) : factory;
     }
 
     protected LockManager createLockManager()
     {
+        if ( "striped".equals( config.get( GraphDatabaseSettings.lock_manager ) ) )
+        {
+            return new StripedLockManager();
+        }
         return new LockManagerImpl( new RagManager() );
     }
 
@@ -1359,6 +1370,10 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( cleanupService );
             }
+            else if ( QueryPlanCacheStatistics.class.equals( type ) )
+            {
+                return type.cast( queryPlanCacheStatistics );
+            }
             else if ( LabelScanStore.class.isAssignableFrom( type )
                 && type.isInstance( neoDataSource.getLabelScanStore() ) )
             {
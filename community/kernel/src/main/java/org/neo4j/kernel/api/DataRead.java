@@ -47,6 +47,52 @@ interface DataRead
     PrimitiveLongIterator nodesGetFromIndexLookup( IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the nodes in the given index whose numeric value lies between {@code lower} and {@code upper}.
+     * A {@code null} bound leaves that side of the range open. Nodes come in ascending value order, unless
+     * the current transaction has changed the indexed label or property.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( IndexDescriptor index,
+                                                              Number lower, boolean includeLower,
+                                                              Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the given index whose string value lies between {@code lower} and {@code upper}.
+     * A {@code null} bound leaves that side of the range open. Nodes come in ascending value order, unless
+     * the current transaction has changed the indexed label or property.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( IndexDescriptor index,
+                                                              String lower, boolean includeLower,
+                                                              String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns the nodes in the given index whose string value starts with {@code prefix}, in ascending value
+     * order unless the current transaction has changed the indexed label or property.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( IndexDescriptor index, String prefix )
+            throws IndexNotFoundKernelException;
+
+    /**
+     * Returns all nodes in the given index, numbers first and then strings, in ascending value order unless
+     * the current transaction has changed the indexed label or property.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexScan( IndexDescriptor index )
+            throws IndexNotFoundKernelException;
+
     /**
      * Returns node id of unique node found in the given unique index for value or
      * {@link StatementConstants#NO_SUCH_NODE} if the index does not contain a
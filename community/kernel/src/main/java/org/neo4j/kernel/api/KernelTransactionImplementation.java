@@ -47,6 +47,7 @@ import org.neo4j.kernel.impl.api.state.OldTxStateBridge;
 import org.neo4j.kernel.impl.api.state.OldTxStateBridgeImpl;
 import org.neo4j.kernel.impl.api.state.TxState;
 import org.neo4j.kernel.impl.api.state.TxStateImpl;
+import org.neo4j.kernel.impl.api.state.TxStateMemory;
 import org.neo4j.kernel.impl.core.NodeManager;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
@@ -75,6 +76,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final LegacyKernelOperations legacyKernelOperations;
     private final StatementOperationParts operations;
     private final boolean readOnly;
+    private final long idSetMemoryBudget;
 
     private TransactionType transactionType = TransactionType.ANY;
     private boolean closing, closed;
@@ -88,7 +90,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                             UpdateableSchemaState schemaState,
                                             LockHolder lockHolder, PersistenceManager persistenceManager,
                                             SchemaIndexProviderMap providerMap, NeoStore neoStore,
-                                            TransactionState legacyTxState )
+                                            TransactionState legacyTxState, long idSetMemoryBudget )
     {
         this.operations = operations;
         this.legacyKernelOperations = legacyKernelOperations;
@@ -100,6 +102,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.schemaState = schemaState;
         this.persistenceManager = persistenceManager;
         this.lockHolder = lockHolder;
+        this.idSetMemoryBudget = idSetMemoryBudget;
 
         constraintIndexCreator = new ConstraintIndexCreator( new Transactor( transactionManager, persistenceManager ),
                 this.indexService );
@@ -259,7 +262,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     {
         if ( !hasTxState() )
         {
-            txState = new TxStateImpl( legacyStateBridge, persistenceManager, null );
+            txState = new TxStateImpl( legacyStateBridge, persistenceManager, null,
+                    new TxStateMemory( idSetMemoryBudget ) );
         }
         return txState;
     }
@@ -285,6 +289,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             currentStatement.forceClose();
             currentStatement = null;
         }
+        if ( hasTxState() )
+        {
+            txState.close();
+        }
     }
 
     private void beginClose()
@@ -324,13 +332,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     if ( isConstraintIndex )
                     {
                         rule = IndexRule.constraintIndexRule( schemaStorage.newRuleId(), element.getLabelId(),
-                                element.getPropertyKeyId(), providerDescriptor,
+                                element.getPropertyKeyIds(), providerDescriptor,
                                 null );
                     }
                     else
                     {
                         rule = IndexRule.indexRule( schemaStorage.newRuleId(), element.getLabelId(),
-                                element.getPropertyKeyId(), providerDescriptor );
+                                element.getPropertyKeyIds(), providerDescriptor );
                     }
                     persistenceManager.createSchemaRule( rule );
                 }
@@ -341,7 +349,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     try
                     {
                         IndexRule rule = schemaStorage
-                                .indexRule( element.getLabelId(), element.getPropertyKeyId() );
+                                .indexRule( element.getLabelId(), element.getPropertyKeyIds() );
                         persistenceManager.dropSchemaRule( rule );
                     }
                     catch ( SchemaRuleNotFoundException e )
@@ -361,7 +369,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     IndexRule indexRule;
                     try
                     {
-                        indexRule = schemaStorage.indexRule( element.label(), element.propertyKeyId() );
+                        indexRule = schemaStorage.indexRule( element.label(), element.propertyKeyIds() );
                     }
                     catch ( SchemaRuleNotFoundException e )
                     {
@@ -370,7 +378,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                 "Index is always created for the constraint before this point.");
                     }
                     persistenceManager.createSchemaRule( UniquenessConstraintRule.uniquenessConstraintRule(
-                            constraintId, element.label(), element.propertyKeyId(), indexRule.getId() ) );
+                            constraintId, element.label(), element.propertyKeyIds(), indexRule.getId() ) );
                     persistenceManager.setConstraintIndexOwner( indexRule, constraintId );
                 }
 
@@ -381,7 +389,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                     {
                         clearState.set( true );
                         UniquenessConstraintRule rule = schemaStorage
-                                .uniquenessConstraint( element.label(), element.propertyKeyId() );
+                                .uniquenessConstraint( element.label(), element.propertyKeyIds() );
                         persistenceManager.dropSchemaRule( rule );
                     }
                     catch ( SchemaRuleNotFoundException e )
@@ -392,7 +400,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                         "have been validated earlier and the schema should have been locked." );
                     }
                     // Remove the index for the constraint as well
-                    visitRemovedIndex( new IndexDescriptor( element.label(), element.propertyKeyId() ), true );
+                    visitRemovedIndex( new IndexDescriptor( element.label(), element.propertyKeyIds() ), true );
                 }
             } );
             if ( clearState.get() )
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.api.constraints;
 
+import java.util.Arrays;
+
 import org.neo4j.kernel.api.operations.TokenNameLookup;
 
 // TODO: When we add other types of constraints, we will either want to create a hierarchy, or...
@@ -26,12 +28,25 @@ import org.neo4j.kernel.api.operations.TokenNameLookup;
 public class UniquenessConstraint
 {
     private final int labelId;
-    private final int propertyKeyId;
+    private final int[] propertyKeyIds;
 
     public UniquenessConstraint( int labelId, int propertyKeyId )
     {
+        this( labelId, new int[]{propertyKeyId} );
+    }
+
+    /**
+     * A composite uniqueness constraint: no two nodes with the label may have the same values for all of the
+     * given property keys. Nodes lacking any of the properties are not constrained.
+     */
+    public UniquenessConstraint( int labelId, int[] propertyKeyIds )
+    {
+        if ( propertyKeyIds.length == 0 )
+        {
+            throw new IllegalArgumentException( "A uniqueness constraint needs at least one property key" );
+        }
         this.labelId = labelId;
-        this.propertyKeyId = propertyKeyId;
+        this.propertyKeyIds = propertyKeyIds.clone();
     }
 
     @Override
@@ -44,7 +59,7 @@ public class UniquenessConstraint
         if ( obj != null && getClass() == obj.getClass() )
         {
             UniquenessConstraint that = (UniquenessConstraint) obj;
-            return this.equals( that.labelId, that.propertyKeyId );
+            return this.labelId == that.labelId && Arrays.equals( this.propertyKeyIds, that.propertyKeyIds );
         }
         return false;
     }
@@ -53,7 +68,7 @@ public class UniquenessConstraint
     public int hashCode()
     {
         int result = labelId;
-        result = 31 * result + propertyKeyId;
+        result = 31 * result + Arrays.hashCode( propertyKeyIds );
         return result;
     }
 
@@ -62,27 +77,70 @@ public class UniquenessConstraint
         return labelId;
     }
 
+    /**
+     * @return the property key of a single property constraint, or the first property key of a composite one.
+     */
     public int propertyKeyId()
     {
-        return propertyKeyId;
+        return propertyKeyIds[0];
+    }
+
+    public int[] propertyKeyIds()
+    {
+        return propertyKeyIds.clone();
+    }
+
+    public boolean isComposite()
+    {
+        return propertyKeyIds.length > 1;
+    }
+
+    public boolean containsPropertyKeyId( int propertyKeyId )
+    {
+        for ( int keyId : propertyKeyIds )
+        {
+            if ( keyId == propertyKeyId )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean equals( int labelId, int propertyKeyId )
     {
-        return this.labelId == labelId && this.propertyKeyId == propertyKeyId;
+        return this.labelId == labelId && !isComposite() && this.propertyKeyIds[0] == propertyKeyId;
+    }
+
+    public boolean equals( int labelId, int[] propertyKeyIds )
+    {
+        return this.labelId == labelId && Arrays.equals( this.propertyKeyIds, propertyKeyIds );
     }
 
     @Override
     public String toString()
     {
-        return String.format( "CONSTRAINT ON ( n:label[%s] ) ASSERT n.property[%s] IS UNIQUE", labelId, propertyKeyId );
+        StringBuilder properties = new StringBuilder();
+        for ( int propertyKeyId : propertyKeyIds )
+        {
+            properties.append( properties.length() > 0 ? ", " : "" )
+                      .append( String.format( "n.property[%s]", propertyKeyId ) );
+        }
+        return String.format( "CONSTRAINT ON ( n:label[%s] ) ASSERT %s IS UNIQUE", labelId,
+                isComposite() ? "(" + properties + ")" : properties );
     }
 
     public String userDescription( TokenNameLookup tokenNameLookup )
     {
         String labelName = tokenNameLookup.labelGetName( labelId );
         String boundIdentifier = labelName.toLowerCase();
-        return String.format( "CONSTRAINT ON ( %s:%s ) ASSERT %s.%s IS UNIQUE", boundIdentifier, labelName,
-                boundIdentifier, tokenNameLookup.propertyKeyGetName( propertyKeyId ) );
+        StringBuilder properties = new StringBuilder();
+        for ( int propertyKeyId : propertyKeyIds )
+        {
+            properties.append( properties.length() > 0 ? ", " : "" ).append( boundIdentifier ).append( '.' )
+                      .append( tokenNameLookup.propertyKeyGetName( propertyKeyId ) );
+        }
+        return String.format( "CONSTRAINT ON ( %s:%s ) ASSERT %s IS UNIQUE", boundIdentifier, labelName,
+                isComposite() ? "(" + properties + ")" : properties );
     }
 }
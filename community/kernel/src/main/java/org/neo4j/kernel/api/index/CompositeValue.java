@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.Arrays;
+
+/**
+ * The value of a node in a composite index: the values of the indexed property keys, in the order the
+ * keys are declared in the index. Two composite values are equal when they would be indexed as the same
+ * entry, i.e. numbers compare by their double value, just like for single property indexes.
+ */
+public final class CompositeValue
+{
+    private final Object[] values;
+    private final String encoded;
+
+    private CompositeValue( Object[] values )
+    {
+        this.values = values;
+        this.encoded = encode( values );
+    }
+
+    public static CompositeValue of( Object... values )
+    {
+        if ( values.length < 2 )
+        {
+            throw new IllegalArgumentException( "A composite value needs at least two values, got " +
+                    Arrays.toString( values ) );
+        }
+        for ( Object value : values )
+        {
+            if ( value == null )
+            {
+                throw new IllegalArgumentException( "Null values can not be indexed: " + Arrays.toString( values ) );
+            }
+        }
+        return new CompositeValue( values.clone() );
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    public Object get( int i )
+    {
+        return values[i];
+    }
+
+    /**
+     * @return a string that is equal for two composite values if and only if they are equal.
+     */
+    public String encoded()
+    {
+        return encoded;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        return this == obj || obj instanceof CompositeValue && encoded.equals( ((CompositeValue) obj).encoded );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return encoded.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder( "(" );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                result.append( ", " );
+            }
+            Object value = values[i];
+            result.append( value.getClass().isArray() ? ArrayEncoder.encode( value ) : value );
+        }
+        return result.append( ")" ).toString();
+    }
+
+    private static String encode( Object[] values )
+    {
+        // Each value is encoded type tagged by the ArrayEncoder, arrays are marked as such so that a single
+        // element array does not clash with a plain value. The encoded forms never contain a ';'.
+        StringBuilder builder = new StringBuilder();
+        for ( Object value : values )
+        {
+            if ( value.getClass().isArray() )
+            {
+                builder.append( 'A' ).append( ArrayEncoder.encode( value ) );
+            }
+            else
+            {
+                builder.append( ArrayEncoder.encode( new Object[]{value} ) );
+            }
+            builder.append( ';' );
+        }
+        return builder.toString();
+    }
+}
@@ -34,6 +34,31 @@ public interface IndexReader extends Closeable
 {
     PrimitiveLongIterator lookup( Object value );
 
+    /**
+     * Searches this index for numeric values between {@code lower} and {@code upper}. A {@code null} bound
+     * leaves that side of the range open. Matching nodes are returned in ascending order of their value.
+     */
+    PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower, Number upper, boolean includeUpper );
+
+    /**
+     * Searches this index for string values between {@code lower} and {@code upper}, compared lexicographically.
+     * A {@code null} bound leaves that side of the range open. Matching nodes are returned in ascending order
+     * of their value.
+     */
+    PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower, String upper, boolean includeUpper );
+
+    /**
+     * Searches this index for string values starting with {@code prefix}. Matching nodes are returned in
+     * ascending order of their value.
+     */
+    PrimitiveLongIterator rangeSeekByPrefix( String prefix );
+
+    /**
+     * Returns all nodes in this index, numeric values first and then strings, each in ascending value order.
+     * Nodes with boolean or array values come last, in no particular order.
+     */
+    PrimitiveLongIterator scan();
+
     @Override
     void close();
     
@@ -44,6 +69,32 @@ public interface IndexReader extends Closeable
         {
             return emptyPrimitiveLongIterator();
         }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                        Number upper, boolean includeUpper )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower,
+                                                        String upper, boolean includeUpper )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+        {
+            return emptyPrimitiveLongIterator();
+        }
+
+        @Override
+        public PrimitiveLongIterator scan()
+        {
+            return emptyPrimitiveLongIterator();
+        }
         
         @Override
         public void close()
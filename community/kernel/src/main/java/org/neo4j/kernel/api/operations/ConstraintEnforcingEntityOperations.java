@@ -27,6 +27,7 @@ import org.neo4j.kernel.api.constraints.UniquenessConstraint;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.LockHolder;
@@ -62,6 +63,11 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         while ( constraints.hasNext() )
         {
             UniquenessConstraint constraint = constraints.next();
+            if ( constraint.isComposite() )
+            {
+                validateNoExistingNodeWithLabelAndProperties( state, constraint, null, nodeId );
+                continue;
+            }
             int propertyKeyId = constraint.propertyKeyId();
             Property property = entityReadOperations.nodeGetProperty( state, nodeId, propertyKeyId );
             if ( property.isDefined() )
@@ -83,9 +89,19 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
             int propertyKeyId = property.propertyKeyId();
             Iterator<UniquenessConstraint> constraintIterator =
                     schemaReadOperations.constraintsGetForLabelAndPropertyKey( state, labelId, propertyKeyId );
-            if ( constraintIterator.hasNext() )
+            boolean validated = false;
+            while ( constraintIterator.hasNext() )
             {
-                validateNoExistingNodeWithLabelAndProperty( state, labelId, property, nodeId );
+                UniquenessConstraint constraint = constraintIterator.next();
+                if ( constraint.isComposite() )
+                {
+                    validateNoExistingNodeWithLabelAndProperties( state, constraint, property, nodeId );
+                }
+                else if ( !validated )
+                {
+                    validateNoExistingNodeWithLabelAndProperty( state, labelId, property, nodeId );
+                    validated = true;
+                }
             }
         }
         return entityWriteOperations.nodeSetProperty( state, nodeId, property );
@@ -119,6 +135,56 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         }
     }
 
+    /**
+     * Validates a composite constraint for a node, using the {@code changedProperty} instead of the value the node
+     * currently has for that key. Nodes that lack any of the constrained properties are not validated.
+     */
+    private void validateNoExistingNodeWithLabelAndProperties( KernelStatement state, UniquenessConstraint constraint,
+                                                               DefinedProperty changedProperty, long modifiedNode )
+            throws ConstraintValidationKernelException, EntityNotFoundException
+    {
+        int labelId = constraint.label();
+        int[] propertyKeyIds = constraint.propertyKeyIds();
+        Object[] values = new Object[propertyKeyIds.length];
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            if ( changedProperty != null && changedProperty.propertyKeyId() == propertyKeyIds[i] )
+            {
+                values[i] = changedProperty.value();
+                continue;
+            }
+            Property property = entityReadOperations.nodeGetProperty( state, modifiedNode, propertyKeyIds[i] );
+            if ( !property.isDefined() )
+            {
+                return;
+            }
+            values[i] = ((DefinedProperty) property).value();
+        }
+
+        try
+        {
+            CompositeValue value = CompositeValue.of( values );
+            IndexDescriptor indexDescriptor = new IndexDescriptor( labelId, propertyKeyIds );
+            assertIndexOnline( state, indexDescriptor );
+            state.locks().acquireIndexEntryWriteLock( labelId, propertyKeyIds[0], value.encoded() );
+            PrimitiveLongIterator existingNodes = entityReadOperations.nodesGetFromIndexLookup(
+                    state, indexDescriptor, value );
+            while ( existingNodes.hasNext() )
+            {
+                long existingNode = existingNodes.next();
+                if ( existingNode != modifiedNode )
+                {
+                    throw new UniqueConstraintViolationKernelException( labelId, propertyKeyIds, value,
+                            existingNode );
+                }
+            }
+        }
+        catch ( IndexNotFoundKernelException | IndexBrokenKernelException e )
+        {
+            throw new UnableToValidateConstraintKernelException( e );
+        }
+    }
+
     private void assertIndexOnline( KernelStatement state, IndexDescriptor indexDescriptor )
             throws IndexNotFoundKernelException, IndexBrokenKernelException
     {
@@ -202,6 +268,57 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         return entityReadOperations.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        // this should move somewhere else
+        LockHolder holder = state.locks();
+        holder.acquireSchemaReadLock();
+
+        return entityReadOperations.nodesGetFromIndexRangeSeekByNumber( state, index, lower, includeLower,
+                upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+                                                                     String lower, boolean includeLower,
+                                                                     String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        // this should move somewhere else
+        LockHolder holder = state.locks();
+        holder.acquireSchemaReadLock();
+
+        return entityReadOperations.nodesGetFromIndexRangeSeekByString( state, index, lower, includeLower,
+                upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+                                                                     String prefix )
+            throws IndexNotFoundKernelException
+    {
+        // this should move somewhere else
+        LockHolder holder = state.locks();
+        holder.acquireSchemaReadLock();
+
+        return entityReadOperations.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index )
+            throws IndexNotFoundKernelException
+    {
+        // this should move somewhere else
+        LockHolder holder = state.locks();
+        holder.acquireSchemaReadLock();
+
+        return entityReadOperations.nodesGetFromIndexScan( state, index );
+    }
+
     @Override
     public long nodeGetUniqueFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException, IndexBrokenKernelException
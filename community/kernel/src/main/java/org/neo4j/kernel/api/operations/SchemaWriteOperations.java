@@ -38,6 +38,13 @@ public interface SchemaWriteOperations
     IndexDescriptor indexCreate( KernelStatement state, int labelId, int propertyKeyId )
             throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException;
 
+    /**
+     * Creates a composite index, indexing the values of all of the given {@code propertyKeyIds}, in that order,
+     * for nodes with the given {@code labelId}.
+     */
+    IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException;
+
     /** Drops a {@link IndexDescriptor} from the database */
     void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException;
 
@@ -50,5 +57,9 @@ public interface SchemaWriteOperations
     UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int propertyKeyId )
             throws AlreadyConstrainedException, CreateConstraintFailureException, AlreadyIndexedException;
 
+    /** Creates a constraint asserting that the values of all of the given properties together are unique. */
+    UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws AlreadyConstrainedException, CreateConstraintFailureException, AlreadyIndexedException;
+
     void constraintDrop( KernelStatement state, UniquenessConstraint constraint ) throws DropConstraintFailureException;
 }
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.properties;
+
+import java.util.concurrent.Callable;
+
+import org.neo4j.kernel.impl.nioneo.store.StringDictionary;
+
+import static org.neo4j.kernel.impl.cache.SizeOfs.withObjectOverhead;
+import static org.neo4j.kernel.impl.cache.SizeOfs.withReference;
+
+/**
+ * A string property stored in the {@link StringDictionary}. There's one entry per value in the dictionary, so values
+ * are compared by the ids of their entries, without reading them.
+ */
+class DictionaryStringProperty extends LazyStringProperty
+{
+    private final long entryId;
+    private final StringDictionary dictionary;
+
+    DictionaryStringProperty( int propertyKeyId, long entryId, StringDictionary dictionary,
+                              Callable<String> producer )
+    {
+        super( propertyKeyId, producer );
+        this.entryId = entryId;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public boolean valueEquals( Object value )
+    {
+        if ( value instanceof String )
+        {
+            Long id = dictionary.idOf( (String) value );
+            if ( id != null )
+            {
+                return id == entryId;
+            }
+            // Either not in the dictionary at all, or the entry of this property isn't committed yet
+        }
+        return super.valueEquals( value );
+    }
+
+    @Override
+    boolean hasEqualValue( DefinedProperty that )
+    {
+        DictionaryStringProperty other = (DictionaryStringProperty) that;
+        if ( other.dictionary == dictionary )
+        {
+            return other.entryId == entryId;
+        }
+        return super.hasEqualValue( that );
+    }
+
+    @Override
+    public int sizeOfObjectInBytesIncludingOverhead()
+    {
+        // The value is shared by all properties with that value, so only count the reference to it
+        return withObjectOverhead( withReference( withReference( 8 ) ) );
+    }
+}
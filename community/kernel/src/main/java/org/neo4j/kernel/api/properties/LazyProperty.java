@@ -36,7 +36,7 @@ abstract class LazyProperty<T> extends DefinedProperty
     }
 
     @Override
-    final boolean hasEqualValue( DefinedProperty that )
+    boolean hasEqualValue( DefinedProperty that )
     {
         return valueEquals( ((LazyProperty<?>)that).value() );
     }
@@ -23,6 +23,7 @@ import java.util.concurrent.Callable;
 
 import org.neo4j.kernel.api.EntityType;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
+import org.neo4j.kernel.impl.nioneo.store.StringDictionary;
 
 public abstract class Property
 {
@@ -111,6 +112,12 @@ public abstract class Property
         return new LazyStringProperty( propertyKeyId, producer );
     }
 
+    public static DefinedProperty dictionaryStringProperty( int propertyKeyId, long entryId,
+                                                            StringDictionary dictionary, Callable<String> producer )
+    {
+        return new DictionaryStringProperty( propertyKeyId, entryId, dictionary, producer );
+    }
+
     public static DefinedProperty lazyArrayProperty( int propertyKeyId, Callable<Object> producer )
     {
         return new LazyArrayProperty( propertyKeyId, producer );
@@ -87,10 +87,18 @@ public class DataIntegrityValidatingStatementOperations implements
     public IndexDescriptor indexCreate( KernelStatement state, int labelId, int propertyKey )
             throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
     {
-        checkIndexExistence( state, labelId, propertyKey );
+        checkIndexExistence( state, labelId, new int[]{propertyKey} );
         return schemaWriteDelegate.indexCreate( state, labelId, propertyKey );
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeys )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
+    {
+        checkIndexExistence( state, labelId, propertyKeys );
+        return schemaWriteDelegate.indexCreate( state, labelId, propertyKeys );
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -117,19 +125,23 @@ public class DataIntegrityValidatingStatementOperations implements
     public UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int propertyKey )
             throws AlreadyConstrainedException, CreateConstraintFailureException, AlreadyIndexedException
     {
-        Iterator<UniquenessConstraint> constraints = schemaReadDelegate.constraintsGetForLabelAndPropertyKey(
-                state, labelId, propertyKey );
-        if ( constraints.hasNext() )
-        {
-            throw new AlreadyConstrainedException( constraints.next() );
-        }
+        checkConstraintExistence( state, labelId, new int[]{propertyKey} );
 
         // It is not allowed to create uniqueness constraints on indexed label/property pairs
-        checkIndexExistence( state, labelId, propertyKey );
+        checkIndexExistence( state, labelId, new int[]{propertyKey} );
 
         return schemaWriteDelegate.uniquenessConstraintCreate( state, labelId, propertyKey );
     }
 
+    @Override
+    public UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int[] propertyKeys )
+            throws AlreadyConstrainedException, CreateConstraintFailureException, AlreadyIndexedException
+    {
+        checkConstraintExistence( state, labelId, propertyKeys );
+        checkIndexExistence( state, labelId, propertyKeys );
+        return schemaWriteDelegate.uniquenessConstraintCreate( state, labelId, propertyKeys );
+    }
+
     @Override
     public void constraintDrop( KernelStatement state, UniquenessConstraint constraint ) throws DropConstraintFailureException
     {
@@ -145,22 +157,36 @@ public class DataIntegrityValidatingStatementOperations implements
         schemaWriteDelegate.constraintDrop( state, constraint );
     }
 
-    private void checkIndexExistence( KernelStatement state, int labelId, int propertyKey )
+    private void checkConstraintExistence( KernelStatement state, int labelId, int[] propertyKeys )
+            throws AlreadyConstrainedException
+    {
+        for ( UniquenessConstraint constraint : loop( schemaReadDelegate.constraintsGetForLabelAndPropertyKey(
+                state, labelId, propertyKeys[0] ) ) )
+        {
+            if ( constraint.equals( labelId, propertyKeys ) )
+            {
+                throw new AlreadyConstrainedException( constraint );
+            }
+        }
+    }
+
+    private void checkIndexExistence( KernelStatement state, int labelId, int[] propertyKeys )
             throws AlreadyIndexedException, AlreadyConstrainedException
     {
+        IndexDescriptor wanted = new IndexDescriptor( labelId, propertyKeys );
         for ( IndexDescriptor descriptor : loop( schemaReadDelegate.indexesGetForLabel( state, labelId ) ) )
         {
-            if ( descriptor.getPropertyKeyId() == propertyKey )
+            if ( descriptor.equals( wanted ) )
             {
                 throw new AlreadyIndexedException( descriptor );
             }
         }
         for ( IndexDescriptor descriptor : loop( schemaReadDelegate.uniqueIndexesGetForLabel( state, labelId ) ) )
         {
-            if ( descriptor.getPropertyKeyId() == propertyKey )
+            if ( descriptor.equals( wanted ) )
             {
                 throw new AlreadyConstrainedException(
-                        new UniquenessConstraint( descriptor.getLabelId(), descriptor.getPropertyKeyId() ) );
+                        new UniquenessConstraint( descriptor.getLabelId(), descriptor.getPropertyKeyIds() ) );
             }
         }
     }
@@ -181,7 +207,7 @@ public class DataIntegrityValidatingStatementOperations implements
         while ( uniqueIndexes.hasNext() )
         {
             IndexDescriptor uniqueIndex = uniqueIndexes.next();
-            if ( uniqueIndex.getPropertyKeyId() == descriptor.getPropertyKeyId() )
+            if ( uniqueIndex.equals( descriptor ) )
             {
                 throw new IndexBelongsToConstraintException( descriptor );
             }
@@ -193,7 +219,7 @@ public class DataIntegrityValidatingStatementOperations implements
     {
         for ( IndexDescriptor existing : loop( indexes ) )
         {
-            if ( existing.getPropertyKeyId() == descriptor.getPropertyKeyId() )
+            if ( existing.equals( descriptor ) )
             {
                 return;
             }
@@ -206,7 +232,7 @@ public class DataIntegrityValidatingStatementOperations implements
     {
         for ( UniquenessConstraint existing : loop( constraints ) )
         {
-            if ( existing.equals( constraint.label(), constraint.propertyKeyId() ) )
+            if ( existing.equals( constraint ) )
             {
                 return;
             }
@@ -246,7 +246,7 @@ public class DiffSets<T>
         return added( false ).size() - removed( false ).size();
     }
 
-    private Set<T> newSet()
+    protected Set<T> newSet()
     {
         return new HashSet<>();
     }
@@ -126,6 +126,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
     private final StatementOperationParts statementOperations;
 
     private final boolean readOnly;
+    private final long idSetMemoryBudget;
 
     private boolean isShutdown = false;
 
@@ -134,7 +135,8 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
                    PersistenceManager persistenceManager, LockManager lockManager, UpdateableSchemaState schemaState,
                    SchemaWriteGuard schemaWriteGuard,
                    IndexingService indexService, NodeManager nodeManager, NeoStore neoStore, PersistenceCache persistenceCache,
-                   SchemaCache schemaCache, SchemaIndexProviderMap providerMap, LabelScanStore labelScanStore, boolean readOnly )
+                   SchemaCache schemaCache, SchemaIndexProviderMap providerMap, LabelScanStore labelScanStore, boolean readOnly,
+                   long idSetMemoryBudget )
     {
         this.transactionManager = transactionManager;
         this.propertyKeyTokenHolder = propertyKeyTokenHolder;
@@ -145,6 +147,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
         this.schemaState = schemaState;
         this.providerMap = providerMap;
         this.readOnly = readOnly;
+        this.idSetMemoryBudget = idSetMemoryBudget;
         this.schemaWriteGuard = schemaWriteGuard;
         this.indexService = indexService;
         this.neoStore = neoStore;
@@ -179,7 +182,7 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
         return new KernelTransactionImplementation( statementOperations, legacyKernelOperations, readOnly,
                 schemaWriteGuard, labelScanStore, indexService, transactionManager, nodeManager,
                 schemaState, new LockHolderImpl( lockManager, getJTATransaction(), nodeManager ),
-                persistenceManager, providerMap, neoStore, getLegacyTxState() );
+                persistenceManager, providerMap, neoStore, getLegacyTxState(), idSetMemoryBudget );
     }
 
     // We temporarily need this until all transaction state has moved into the kernel
@@ -90,6 +90,14 @@ public class LockingStatementOperations implements
         return schemaWriteDelegate.indexCreate( state, labelId, propertyKey );
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeys )
+            throws AddIndexFailureException, AlreadyIndexedException, AlreadyConstrainedException
+    {
+        state.locks().acquireSchemaWriteLock();
+        return schemaWriteDelegate.indexCreate( state, labelId, propertyKeys );
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -197,6 +205,14 @@ public class LockingStatementOperations implements
         return schemaWriteDelegate.uniquenessConstraintCreate( state, labelId, propertyKeyId );
     }
 
+    @Override
+    public UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws CreateConstraintFailureException, AlreadyConstrainedException, AlreadyIndexedException
+    {
+        state.locks().acquireSchemaWriteLock();
+        return schemaWriteDelegate.uniquenessConstraintCreate( state, labelId, propertyKeyIds );
+    }
+
     @Override
     public Iterator<UniquenessConstraint> constraintsGetForLabelAndPropertyKey( KernelStatement state, int labelId, int propertyKeyId )
     {
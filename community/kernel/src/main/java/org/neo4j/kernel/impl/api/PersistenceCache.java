@@ -130,6 +130,7 @@ public class PersistenceCache
                     labels[i] = (int)labelsAfter[i];
                 }
                 node.commitLabels( labels );
+                nodeCache.updateSize( node, node.sizeOfObjectInBytesIncludingOverhead() );
             }
         }
     }
@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.neo4j.helpers.Predicate;
@@ -34,6 +36,7 @@ import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
 import org.neo4j.kernel.api.exceptions.schema.DropIndexFailureException;
 import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.operations.AuxiliaryStoreOperations;
 import org.neo4j.kernel.api.operations.EntityReadOperations;
@@ -192,6 +195,14 @@ public class StateHandlingStatementOperations implements
         return rule;
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeys )
+    {
+        IndexDescriptor rule = new IndexDescriptor( labelId, propertyKeys );
+        state.txState().indexRuleDoAdd( rule );
+        return rule;
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -233,6 +244,35 @@ public class StateHandlingStatementOperations implements
         }
     }
 
+    @Override
+    public UniquenessConstraint uniquenessConstraintCreate( KernelStatement state, int labelId, int[] propertyKeyIds )
+            throws CreateConstraintFailureException
+    {
+        UniquenessConstraint constraint = new UniquenessConstraint( labelId, propertyKeyIds );
+        try
+        {
+            if ( !state.txState().constraintDoUnRemove( constraint ) )
+            {
+                for ( Iterator<UniquenessConstraint> it = schemaReadDelegate.constraintsGetForLabelAndPropertyKey(
+                        state, labelId, propertyKeyIds[0] ); it.hasNext(); )
+                {
+                    if ( it.next().equals( constraint ) )
+                    {
+                        return constraint;
+                    }
+                }
+                long indexId = constraintIndexCreator.createUniquenessConstraintIndex(
+                        state, this, labelId, propertyKeyIds );
+                state.txState().constraintDoAdd( constraint, indexId );
+            }
+            return constraint;
+        }
+        catch ( TransactionalException | ConstraintVerificationFailedKernelException | DropIndexFailureException e )
+        {
+            throw new CreateConstraintFailureException( constraint, e );
+        }
+    }
+
     @Override
     public Iterator<UniquenessConstraint> constraintsGetForLabelAndPropertyKey( KernelStatement state,
             int labelId, int propertyKeyId )
@@ -319,7 +359,16 @@ public class StateHandlingStatementOperations implements
         {
             committedRules = emptyList();
         }
-        DiffSets<IndexDescriptor> ruleDiffSet = state.txState().indexDiffSetsByLabel( labelId );
+        final IndexDescriptor wanted = new IndexDescriptor( labelId, propertyKey );
+        DiffSets<IndexDescriptor> ruleDiffSet = state.txState().indexDiffSetsByLabel( labelId ).filterAdded(
+                new Predicate<IndexDescriptor>()
+                {
+                    @Override
+                    public boolean accept( IndexDescriptor item )
+                    {
+                        return item.equals( wanted );
+                    }
+                } );
 
         Iterator<IndexDescriptor> rules =
                 state.hasTxStateWithChanges() ? ruleDiffSet.apply( committedRules.iterator() ) : committedRules
@@ -486,6 +535,75 @@ public class StateHandlingStatementOperations implements
         return entityReadDelegate.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexRangeSeekByNumber( state, index,
+                lower, includeLower, upper, includeUpper );
+        return applyIndexSeekTxState( state, index, committed,
+                new NumberRangePredicate( lower, includeLower, upper, includeUpper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+                                                                     String lower, boolean includeLower,
+                                                                     String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexRangeSeekByString( state, index,
+                lower, includeLower, upper, includeUpper );
+        return applyIndexSeekTxState( state, index, committed,
+                new StringRangePredicate( lower, includeLower, upper, includeUpper ) );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+                                                                     final String prefix )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexRangeSeekByPrefix( state, index, prefix );
+        return applyIndexSeekTxState( state, index, committed, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return value instanceof String && ((String) value).startsWith( prefix );
+            }
+        } );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongIterator committed = entityReadDelegate.nodesGetFromIndexScan( state, index );
+        return applyIndexSeekTxState( state, index, committed, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                // Deleted nodes and removed properties show up as plain Objects in the changed property map
+                return value.getClass() != Object.class;
+            }
+        } );
+    }
+
+    private PrimitiveLongIterator applyIndexSeekTxState( KernelStatement state, IndexDescriptor index,
+                                                         PrimitiveLongIterator committed, Predicate<Object> seek )
+    {
+        if ( state.hasTxStateWithChanges() )
+        {
+            TxState txState = state.txState();
+            DiffSets<Long> diff = nodesWithLabelAndPropertyDiffSet( state, index, seek );
+            return
+                txState.nodesDeletedInTx().applyPrimitiveLongIterator( diff.applyPrimitiveLongIterator( committed ) );
+        }
+        return committed;
+    }
+
     @Override
     public Property nodeSetProperty( KernelStatement state, long nodeId, DefinedProperty property )
             throws EntityNotFoundException
@@ -725,6 +843,11 @@ public class StateHandlingStatementOperations implements
 
     private DiffSets<Long> nodesWithLabelAndPropertyDiffSet( KernelStatement state, IndexDescriptor index, Object value )
     {
+        if ( index.isComposite() )
+        {
+            return nodesWithLabelAndCompositeValueDiffSet( state, index, (CompositeValue) value );
+        }
+
         TxState txState = state.txState();
         int labelId = index.getLabelId();
         int propertyKeyId = index.getPropertyKeyId();
@@ -747,6 +870,76 @@ public class StateHandlingStatementOperations implements
         return diff;
     }
 
+    private DiffSets<Long> nodesWithLabelAndPropertyDiffSet( KernelStatement state, IndexDescriptor index,
+                                                             Predicate<Object> seek )
+    {
+        TxState txState = state.txState();
+        int labelId = index.getLabelId();
+        int propertyKeyId = index.getPropertyKeyId();
+
+        // Start with nodes where the given property has changed, added if the new value is sought
+        DiffSets<Long> diff = new DiffSets<>();
+        for ( Map.Entry<Long, Object> change : txState.nodesWithChangedProperty( propertyKeyId ).entrySet() )
+        {
+            if ( seek.accept( change.getValue() ) )
+            {
+                diff.add( change.getKey() );
+            }
+            else
+            {
+                diff.remove( change.getKey() );
+            }
+        }
+
+        // Ensure remaining nodes have the correct label
+        diff = diff.filter( new HasLabelFilter( state, labelId ) );
+
+        // Include newly labeled nodes that already had a sought value, remove de-labeled ones that had one
+        HasPropertyFilter hasPropertyFilter = new HasPropertyFilter( state, propertyKeyId, seek );
+        diff.addAll( filter( hasPropertyFilter, txState.nodesWithLabelAdded( labelId ).iterator() ) );
+        Set<Long> removedNodesWithLabel = txState.nodesWithLabelChanged( labelId ).getRemoved();
+        diff.removeAll( filter( hasPropertyFilter, removedNodesWithLabel.iterator() ) );
+        return diff;
+    }
+
+    private DiffSets<Long> nodesWithLabelAndCompositeValueDiffSet( KernelStatement state, IndexDescriptor index,
+                                                                   CompositeValue value )
+    {
+        TxState txState = state.txState();
+        int labelId = index.getLabelId();
+
+        // Every node where any of the indexed properties or the label changed may have entered or left the result
+        Set<Long> candidates = new HashSet<>();
+        for ( int propertyKeyId : index.getPropertyKeyIds() )
+        {
+            candidates.addAll( txState.nodesWithChangedProperty( propertyKeyId ).keySet() );
+        }
+        DiffSets<Long> labelChanges = txState.nodesWithLabelChanged( labelId );
+        candidates.addAll( labelChanges.getAdded() );
+        candidates.addAll( labelChanges.getRemoved() );
+
+        HasLabelFilter hasLabel = new HasLabelFilter( state, labelId );
+        int[] propertyKeyIds = index.getPropertyKeyIds();
+        DiffSets<Long> diff = new DiffSets<>();
+        for ( Long nodeId : candidates )
+        {
+            boolean matches = hasLabel.accept( nodeId );
+            for ( int i = 0; matches && i < propertyKeyIds.length; i++ )
+            {
+                matches = new HasPropertyFilter( state, propertyKeyIds[i], value.get( i ) ).accept( nodeId );
+            }
+            if ( matches )
+            {
+                diff.add( nodeId );
+            }
+            else
+            {
+                diff.remove( nodeId );
+            }
+        }
+        return diff;
+    }
+
     private long nodeIfNotDeleted( long nodeId, TxState txState )
     {
         return txState.nodeIsDeletedInThisTx( nodeId ) ? NO_SUCH_NODE : nodeId;
@@ -755,6 +948,7 @@ public class StateHandlingStatementOperations implements
     private class HasPropertyFilter implements Predicate<Long>
     {
         private final Object value;
+        private final Predicate<Object> seek;
         private final int propertyKeyId;
         private final KernelStatement state;
 
@@ -762,6 +956,15 @@ public class StateHandlingStatementOperations implements
         {
             this.state = state;
             this.value = value;
+            this.seek = null;
+            this.propertyKeyId = propertyKeyId;
+        }
+
+        public HasPropertyFilter( KernelStatement state, int propertyKeyId, Predicate<Object> seek )
+        {
+            this.state = state;
+            this.value = null;
+            this.seek = seek;
             this.propertyKeyId = propertyKeyId;
         }
 
@@ -775,7 +978,13 @@ public class StateHandlingStatementOperations implements
                     return false;
                 }
                 Property property = nodeGetProperty( state, nodeId, propertyKeyId );
-                return property.isDefined() && property.valueEquals( value );
+                if ( !property.isDefined() )
+                {
+                    return false;
+                }
+                return seek == null
+                        ? property.valueEquals( value )
+                        : seek.accept( ((DefinedProperty) property).value() );
             }
             catch ( EntityNotFoundException e )
             {
@@ -809,6 +1018,93 @@ public class StateHandlingStatementOperations implements
         }
     }
 
+    private static class NumberRangePredicate implements Predicate<Object>
+    {
+        private final Number lower;
+        private final boolean includeLower;
+        private final Number upper;
+        private final boolean includeUpper;
+
+        NumberRangePredicate( Number lower, boolean includeLower, Number upper, boolean includeUpper )
+        {
+            this.lower = lower;
+            this.includeLower = includeLower;
+            this.upper = upper;
+            this.includeUpper = includeUpper;
+        }
+
+        @Override
+        public boolean accept( Object value )
+        {
+            if ( !(value instanceof Number) )
+            {
+                return false;
+            }
+            // Compared as doubles, like the schema index stores them
+            double number = ((Number) value).doubleValue();
+            if ( lower != null )
+            {
+                int compare = Double.compare( number, lower.doubleValue() );
+                if ( compare < 0 || (compare == 0 && !includeLower) )
+                {
+                    return false;
+                }
+            }
+            if ( upper != null )
+            {
+                int compare = Double.compare( number, upper.doubleValue() );
+                if ( compare > 0 || (compare == 0 && !includeUpper) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class StringRangePredicate implements Predicate<Object>
+    {
+        private final String lower;
+        private final boolean includeLower;
+        private final String upper;
+        private final boolean includeUpper;
+
+        StringRangePredicate( String lower, boolean includeLower, String upper, boolean includeUpper )
+        {
+            this.lower = lower;
+            this.includeLower = includeLower;
+            this.upper = upper;
+            this.includeUpper = includeUpper;
+        }
+
+        @Override
+        public boolean accept( Object value )
+        {
+            if ( !(value instanceof String) )
+            {
+                return false;
+            }
+            String string = (String) value;
+            if ( lower != null )
+            {
+                int compare = string.compareTo( lower );
+                if ( compare < 0 || (compare == 0 && !includeLower) )
+                {
+                    return false;
+                }
+            }
+            if ( upper != null )
+            {
+                int compare = string.compareTo( upper );
+                if ( compare > 0 || (compare == 0 && !includeUpper) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     // === TODO Below is unnecessary delegate methods
 
     @Override
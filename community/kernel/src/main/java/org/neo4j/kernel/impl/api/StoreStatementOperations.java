@@ -108,10 +108,7 @@ public class StoreStatementOperations implements
         @Override
         public UniquenessConstraint apply( UniquenessConstraintRule rule )
         {
-            // We can use propertyKeyId straight up here, without reading from the record, since we have
-            // verified that it has that propertyKeyId in the predicate. And since we currently only support
-            // uniqueness on single properties, there is nothing else to pass in to UniquenessConstraint.
-            return new UniquenessConstraint( rule.getLabel(), rule.getPropertyKey() );
+            return new UniquenessConstraint( rule.getLabel(), rule.getPropertyKeys() );
         }
     };
 
@@ -314,7 +311,7 @@ public class StoreStatementOperations implements
 
     private static IndexDescriptor descriptor( IndexRule ruleRecord )
     {
-        return new IndexDescriptor( ruleRecord.getLabel(), ruleRecord.getPropertyKey() );
+        return new IndexDescriptor( ruleRecord.getLabel(), ruleRecord.getPropertyKeys() );
     }
 
     @Override
@@ -399,13 +396,13 @@ public class StoreStatementOperations implements
     public Long indexGetOwningUniquenessConstraintId( KernelStatement state, IndexDescriptor index )
             throws SchemaRuleNotFoundException
     {
-        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyId() ).getOwningConstraint();
+        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyIds() ).getOwningConstraint();
     }
 
     @Override
     public long indexGetCommittedId( KernelStatement state, IndexDescriptor index ) throws SchemaRuleNotFoundException
     {
-        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyId() ).getId();
+        return schemaStorage.indexRule( index.getLabelId(), index.getPropertyKeyIds() ).getId();
     }
 
     @Override
@@ -425,7 +422,7 @@ public class StoreStatementOperations implements
     {
         try
         {
-            return schemaStorage.indexRule( descriptor.getLabelId(), descriptor.getPropertyKeyId() ).getId();
+            return schemaStorage.indexRule( descriptor.getLabelId(), descriptor.getPropertyKeyIds() ).getId();
         }
         catch ( SchemaRuleNotFoundException e )
         {
@@ -437,7 +434,8 @@ public class StoreStatementOperations implements
     {
         try
         {
-            return schemaStorage.constraintIndexRule( descriptor.getLabelId(), descriptor.getPropertyKeyId() ).getId();
+            return schemaStorage.constraintIndexRule( descriptor.getLabelId(), descriptor.getPropertyKeyIds() )
+                                .getId();
         }
         catch ( SchemaRuleNotFoundException e )
         {
@@ -581,6 +579,39 @@ public class StoreStatementOperations implements
         return state.getIndexReader( indexId( index ) ).lookup( value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByNumber( KernelStatement state, IndexDescriptor index,
+                                                                     Number lower, boolean includeLower,
+                                                                     Number upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return state.getIndexReader( indexId( index ) ).rangeSeekByNumber( lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByString( KernelStatement state, IndexDescriptor index,
+                                                                     String lower, boolean includeLower,
+                                                                     String upper, boolean includeUpper )
+            throws IndexNotFoundKernelException
+    {
+        return state.getIndexReader( indexId( index ) ).rangeSeekByString( lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexRangeSeekByPrefix( KernelStatement state, IndexDescriptor index,
+                                                                     String prefix )
+            throws IndexNotFoundKernelException
+    {
+        return state.getIndexReader( indexId( index ) ).rangeSeekByPrefix( prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index )
+            throws IndexNotFoundKernelException
+    {
+        return state.getIndexReader( indexId( index ) ).scan();
+    }
+
     @Override
     public void nodeAddStoreProperty( long nodeId, DefinedProperty property )
     {
@@ -55,8 +55,19 @@ public class ConstraintIndexCreator
             throws ConstraintVerificationFailedKernelException, TransactionalException,
                    CreateConstraintFailureException, DropIndexFailureException
     {
-        IndexDescriptor descriptor = transactor.execute( createConstraintIndex( labelId, propertyKeyId ) );
-        UniquenessConstraint constraint = new UniquenessConstraint( labelId, propertyKeyId );
+        return createUniquenessConstraintIndex( state, schema, labelId, new int[]{propertyKeyId} );
+    }
+
+    /**
+     * You MUST hold a schema write lock before you call this method.
+     */
+    public long createUniquenessConstraintIndex( KernelStatement state, SchemaReadOperations schema,
+            int labelId, int[] propertyKeyIds )
+            throws ConstraintVerificationFailedKernelException, TransactionalException,
+                   CreateConstraintFailureException, DropIndexFailureException
+    {
+        IndexDescriptor descriptor = transactor.execute( createConstraintIndex( labelId, propertyKeyIds ) );
+        UniquenessConstraint constraint = new UniquenessConstraint( labelId, propertyKeyIds );
 
         boolean success = false;
         try
@@ -123,6 +134,12 @@ public class ConstraintIndexCreator
 
     public static Transactor.Work<IndexDescriptor, CreateConstraintFailureException> createConstraintIndex(
             final int labelId, final int propertyKeyId )
+    {
+        return createConstraintIndex( labelId, new int[]{propertyKeyId} );
+    }
+
+    public static Transactor.Work<IndexDescriptor, CreateConstraintFailureException> createConstraintIndex(
+            final int labelId, final int[] propertyKeyIds )
     {
         return new Transactor.Work<IndexDescriptor, CreateConstraintFailureException>()
         {
@@ -133,7 +150,7 @@ public class ConstraintIndexCreator
                 // write lock. It is assumed that the transaction that invoked this "inner" transaction
                 // holds a schema write lock, and that it will wait for this inner transaction to do its
                 // work.
-                IndexDescriptor rule = new IndexDescriptor( labelId, propertyKeyId );
+                IndexDescriptor rule = new IndexDescriptor( labelId, propertyKeyIds );
                 // TODO (Ben+Jake): The Transactor is really part of the kernel internals, so it needs access to the
                 // internal implementation of Statement. However it is currently used by the external
                 // RemoveOrphanConstraintIndexesOnStartup job. This needs revisiting.
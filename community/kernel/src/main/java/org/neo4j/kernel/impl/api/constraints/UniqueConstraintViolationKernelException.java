@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api.constraints;
 
+import java.util.Arrays;
+
 import org.neo4j.kernel.api.operations.TokenNameLookup;
 
 import static java.lang.String.format;
@@ -26,7 +28,7 @@ import static java.lang.String.format;
 public class UniqueConstraintViolationKernelException extends ConstraintViolationKernelException
 {
     private final int labelId;
-    private final int propertyKeyId;
+    private final int[] propertyKeyIds;
     private final Object value;
     private final long existingNodeId;
 
@@ -34,7 +36,21 @@ public class UniqueConstraintViolationKernelException extends ConstraintViolatio
     {
         super( "Node %d already exists with label %d and property %d=%s", existingNodeId, labelId, propertyKeyId, value );
         this.labelId = labelId;
-        this.propertyKeyId = propertyKeyId;
+        this.propertyKeyIds = new int[]{propertyKeyId};
+        this.value = value;
+        this.existingNodeId = existingNodeId;
+    }
+
+    /**
+     * Violation of a composite uniqueness constraint, the {@code value} holds the values of all the properties.
+     */
+    public UniqueConstraintViolationKernelException( int labelId, int[] propertyKeyIds, Object value,
+                                                     long existingNodeId )
+    {
+        super( "Node %d already exists with label %d and properties %s=%s", existingNodeId, labelId,
+                Arrays.toString( propertyKeyIds ), value );
+        this.labelId = labelId;
+        this.propertyKeyIds = propertyKeyIds.clone();
         this.value = value;
         this.existingNodeId = existingNodeId;
     }
@@ -42,9 +58,20 @@ public class UniqueConstraintViolationKernelException extends ConstraintViolatio
     @Override
     public String getUserMessage( TokenNameLookup tokenNameLookup )
     {
+        if ( propertyKeyIds.length > 1 )
+        {
+            StringBuilder properties = new StringBuilder();
+            for ( int propertyKeyId : propertyKeyIds )
+            {
+                properties.append( properties.length() > 0 ? ", " : "" ).append( '"' )
+                          .append( tokenNameLookup.propertyKeyGetName( propertyKeyId ) ).append( '"' );
+            }
+            return format( "Node %d already exists with label %s and properties (%s)=%s", existingNodeId,
+                    tokenNameLookup.labelGetName( labelId ), properties, value );
+        }
         return format( "Node %d already exists with label %s and property \"%s\"=[%s]", existingNodeId,
                 tokenNameLookup.labelGetName( labelId ),
-                tokenNameLookup.propertyKeyGetName( propertyKeyId ),
+                tokenNameLookup.propertyKeyGetName( propertyKeyIds[0] ),
                 value );
     }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.kernel.api.index.CompositeValue;
+import org.neo4j.kernel.api.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.index.NodePropertyUpdate;
+
+/**
+ * Translates single property updates into updates of the composite indexes that cover those properties.
+ * <p/>
+ * The single property updates are first routed to the label/property pairs they concern, exactly like for
+ * single property indexes. For each node and composite index the routed updates tell, per property, what the
+ * value was before and is after. Properties without an update have the same value before and after, which is
+ * read from the store. Updates are only routed to a composite index of nodes that have its label, so only the
+ * properties of the index are read, not the whole node. The composite value of a node exists only if all of its
+ * properties have values.
+ */
+class CompositeIndexUpdates
+{
+    private final IndexStoreView storeView;
+    private Map<IndexDescriptor, Map<Long, Map<Integer, NodePropertyUpdate>>> updatesByIndex;
+
+    CompositeIndexUpdates( IndexStoreView storeView )
+    {
+        this.storeView = storeView;
+    }
+
+    /**
+     * Collects an update that has been routed to the given label and the property key of the update.
+     */
+    void collect( IndexDescriptor descriptor, NodePropertyUpdate update )
+    {
+        if ( updatesByIndex == null )
+        {
+            updatesByIndex = new HashMap<>();
+        }
+        Map<Long, Map<Integer, NodePropertyUpdate>> nodes = updatesByIndex.get( descriptor );
+        if ( nodes == null )
+        {
+            updatesByIndex.put( descriptor, nodes = new HashMap<>() );
+        }
+        Map<Integer, NodePropertyUpdate> properties = nodes.get( update.getNodeId() );
+        if ( properties == null )
+        {
+            nodes.put( update.getNodeId(), properties = new HashMap<>() );
+        }
+        properties.put( update.getPropertyKeyId(), update );
+    }
+
+    void apply( IndexUpdaterMap updaterMap ) throws IOException, IndexEntryConflictException
+    {
+        if ( updatesByIndex == null )
+        {
+            return;
+        }
+        for ( Map.Entry<IndexDescriptor, Map<Long, Map<Integer, NodePropertyUpdate>>> index :
+                updatesByIndex.entrySet() )
+        {
+            IndexDescriptor descriptor = index.getKey();
+            IndexUpdater updater = updaterMap.getUpdater( descriptor );
+            if ( updater == null )
+            {
+                continue;
+            }
+            for ( Map.Entry<Long, Map<Integer, NodePropertyUpdate>> node : index.getValue().entrySet() )
+            {
+                NodePropertyUpdate update = compositeUpdate( descriptor, node.getKey(), node.getValue() );
+                if ( update != null )
+                {
+                    updater.process( update );
+                }
+            }
+        }
+        updatesByIndex = null;
+    }
+
+    private NodePropertyUpdate compositeUpdate( IndexDescriptor descriptor, long nodeId,
+                                                Map<Integer, NodePropertyUpdate> updates )
+    {
+        int[] propertyKeyIds = descriptor.getPropertyKeyIds();
+        Object[] before = new Object[propertyKeyIds.length];
+        Object[] after = new Object[propertyKeyIds.length];
+        boolean hasBefore = true;
+        boolean hasAfter = true;
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            NodePropertyUpdate update = updates.get( propertyKeyIds[i] );
+            if ( update == null )
+            {
+                Object value = storeView.nodeGetProperty( nodeId, propertyKeyIds[i] ).value( null );
+                before[i] = after[i] = value;
+                hasBefore &= value != null;
+                hasAfter &= value != null;
+                continue;
+            }
+            switch ( update.getUpdateMode() )
+            {
+            case ADDED:
+                hasBefore = false;
+                after[i] = update.getValueAfter();
+                break;
+            case REMOVED:
+                before[i] = update.getValueBefore();
+                hasAfter = false;
+                break;
+            case CHANGED:
+                before[i] = update.getValueBefore();
+                after[i] = update.getValueAfter();
+                break;
+            }
+        }
+
+        long[] labels = new long[]{descriptor.getLabelId()};
+        int propertyKeyId = descriptor.getPropertyKeyId();
+        if ( hasBefore && hasAfter )
+        {
+            CompositeValue valueBefore = CompositeValue.of( before );
+            CompositeValue valueAfter = CompositeValue.of( after );
+            return valueBefore.equals( valueAfter ) ? null :
+                   NodePropertyUpdate.change( nodeId, propertyKeyId, valueBefore, labels, valueAfter, labels );
+        }
+        if ( hasAfter )
+        {
+            return NodePropertyUpdate.add( nodeId, propertyKeyId, CompositeValue.of( after ), labels );
+        }
+        if ( hasBefore )
+        {
+            return NodePropertyUpdate.remove( nodeId, propertyKeyId, CompositeValue.of( before ), labels );
+        }
+        return null;
+    }
+}
@@ -19,9 +19,12 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.neo4j.helpers.BiConsumer;
 
@@ -35,16 +38,21 @@ public final class IndexMap implements Cloneable
 {
     private final Map<Long, IndexProxy> indexesById;
     private final Map<IndexDescriptor, IndexProxy> indexesByDescriptor;
+    /** Composite index descriptors by the single label/property pairs they cover. */
+    private final Map<IndexDescriptor, Set<IndexDescriptor>> compositeDescriptorsByComponent;
 
     public IndexMap()
     {
-        this( new HashMap<Long, IndexProxy>(), new HashMap<IndexDescriptor, IndexProxy>() );
+        this( new HashMap<Long, IndexProxy>(), new HashMap<IndexDescriptor, IndexProxy>(),
+                new HashMap<IndexDescriptor, Set<IndexDescriptor>>() );
     }
 
-    private IndexMap( Map<Long, IndexProxy> indexesById, Map<IndexDescriptor, IndexProxy> indexesByDescriptor )
+    private IndexMap( Map<Long, IndexProxy> indexesById, Map<IndexDescriptor, IndexProxy> indexesByDescriptor,
+                      Map<IndexDescriptor, Set<IndexDescriptor>> compositeDescriptorsByComponent )
     {
         this.indexesById = indexesById;
         this.indexesByDescriptor = indexesByDescriptor;
+        this.compositeDescriptorsByComponent = compositeDescriptorsByComponent;
     }
 
     public IndexProxy getIndexProxy( long indexId )
@@ -57,10 +65,37 @@ public final class IndexMap implements Cloneable
         return indexesByDescriptor.get( descriptor );
     }
 
+    /**
+     * @return the composite indexes that include the given property key for the given label.
+     */
+    public Iterable<IndexDescriptor> getCompositeDescriptors( int labelId, int propertyKeyId )
+    {
+        if ( compositeDescriptorsByComponent.isEmpty() )
+        {
+            return Collections.emptySet();
+        }
+        Set<IndexDescriptor> descriptors =
+                compositeDescriptorsByComponent.get( new IndexDescriptor( labelId, propertyKeyId ) );
+        return descriptors == null ? Collections.<IndexDescriptor>emptySet() : descriptors;
+    }
+
     public void putIndexProxy( long indexId, IndexProxy indexProxy )
     {
         indexesById.put( indexId, indexProxy );
-        indexesByDescriptor.put( indexProxy.getDescriptor(), indexProxy );
+        IndexDescriptor descriptor = indexProxy.getDescriptor();
+        indexesByDescriptor.put( descriptor, indexProxy );
+        if ( descriptor.isComposite() )
+        {
+            for ( int propertyKeyId : descriptor.getPropertyKeyIds() )
+            {
+                IndexDescriptor component = new IndexDescriptor( descriptor.getLabelId(), propertyKeyId );
+                Set<IndexDescriptor> composites = compositeDescriptorsByComponent.get( component );
+                // Copy on write, the sets are shared with clones of this map
+                composites = composites == null ? new HashSet<IndexDescriptor>() : new HashSet<>( composites );
+                composites.add( descriptor );
+                compositeDescriptorsByComponent.put( component, composites );
+            }
+        }
     }
 
     public IndexProxy removeIndexProxy( long indexId )
@@ -68,7 +103,29 @@ public final class IndexMap implements Cloneable
         IndexProxy removedProxy = indexesById.remove( indexId );
         if ( null != removedProxy )
         {
-            indexesByDescriptor.remove( removedProxy.getDescriptor() );
+            IndexDescriptor descriptor = removedProxy.getDescriptor();
+            indexesByDescriptor.remove( descriptor );
+            if ( descriptor.isComposite() )
+            {
+                for ( int propertyKeyId : descriptor.getPropertyKeyIds() )
+                {
+                    IndexDescriptor component = new IndexDescriptor( descriptor.getLabelId(), propertyKeyId );
+                    Set<IndexDescriptor> composites = compositeDescriptorsByComponent.get( component );
+                    if ( composites != null )
+                    {
+                        composites = new HashSet<>( composites );
+                        composites.remove( descriptor );
+                        if ( composites.isEmpty() )
+                        {
+                            compositeDescriptorsByComponent.remove( component );
+                        }
+                        else
+                        {
+                            compositeDescriptorsByComponent.put( component, composites );
+                        }
+                    }
+                }
+            }
         }
         return removedProxy;
     }
@@ -89,7 +146,8 @@ public final class IndexMap implements Cloneable
     @Override
     public IndexMap clone()
     {
-        return new IndexMap( cloneMap( indexesById ), cloneMap( indexesByDescriptor ) );
+        return new IndexMap( cloneMap( indexesById ), cloneMap( indexesByDescriptor ),
+                cloneMap( compositeDescriptorsByComponent ) );
     }
 
     private <K, V> Map<K, V> cloneMap( Map<K, V> map )
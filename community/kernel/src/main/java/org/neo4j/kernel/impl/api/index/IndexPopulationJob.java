@@ -20,9 +20,13 @@
 package org.neo4j.kernel.impl.api.index;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 
@@ -45,139 +49,88 @@ import static org.neo4j.helpers.ValueGetter.NO_VALUE;
 import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
 
 /**
- * Represents one job of initially populating an index over existing data in the database.
- * Scans the store directly.
+ * Represents one job of initially populating one or more indexes over existing data in the database.
+ * Scans the store directly, once for all of its indexes.
+ *
+ * Indexes are added to the job with {@link #addPopulator(IndexPopulator, IndexDescriptor,
+ * SchemaIndexProvider.Descriptor, String, FlippableIndexProxy, FailedIndexProxyFactory)} before it is run.
+ * Each index fails, is cancelled and comes online on its own, without affecting the other indexes of the job.
  *
  * @author Mattias Persson
  */
 public class IndexPopulationJob implements Runnable
 {
     private final IndexStoreView storeView;
-    private final String indexUserDescription;
-
-    // NOTE: unbounded queue expected here
-    private final Queue<NodePropertyUpdate> queue = new ConcurrentLinkedQueue<>();
-
-    private final IndexDescriptor descriptor;
-    private final FailedIndexProxyFactory failureDelegate;
-    private final IndexPopulator populator;
-    private final FlippableIndexProxy flipper;
     private final UpdateableSchemaState updateableSchemaState;
     private final StringLogger log;
     private final CountDownLatch doneSignal = new CountDownLatch( 1 );
+    private final List<IndexPopulation> populations = new CopyOnWriteArrayList<>();
 
     private volatile StoreScan<IndexPopulationFailedKernelException> storeScan;
-    private volatile boolean cancelled;
-    private final SchemaIndexProvider.Descriptor providerDescriptor;
-
-    public IndexPopulationJob(IndexDescriptor descriptor, SchemaIndexProvider.Descriptor providerDescriptor,
-                              String indexUserDescription,
-                              FailedIndexProxyFactory failureDelegateFactory,
-                              IndexPopulator populator, FlippableIndexProxy flipper,
-                              IndexStoreView storeView, UpdateableSchemaState updateableSchemaState,
-                              Logging logging)
+
+    public IndexPopulationJob( IndexStoreView storeView, UpdateableSchemaState updateableSchemaState,
+                               Logging logging )
     {
-        this.descriptor = descriptor;
-        this.providerDescriptor = providerDescriptor;
-        this.populator = populator;
-        this.flipper = flipper;
         this.storeView = storeView;
         this.updateableSchemaState = updateableSchemaState;
-        this.indexUserDescription = indexUserDescription;
-        this.failureDelegate = failureDelegateFactory;
         this.log = logging.getMessagesLog( getClass() );
     }
 
+    /**
+     * Adds an index to populate in this job. Must be called before the job is run.
+     *
+     * @return the population of the index, which takes the updates made to the index while it populates.
+     */
+    public IndexPopulation addPopulator( IndexPopulator populator, IndexDescriptor descriptor,
+                                         SchemaIndexProvider.Descriptor providerDescriptor,
+                                         String indexUserDescription, FlippableIndexProxy flipper,
+                                         FailedIndexProxyFactory failureDelegateFactory )
+    {
+        IndexPopulation population = new IndexPopulation( populator, descriptor, providerDescriptor,
+                indexUserDescription, flipper, failureDelegateFactory );
+        populations.add( population );
+        return population;
+    }
+
     @Override
     public void run()
     {
         String oldThreadName = currentThread().getName();
-        currentThread().setName( format( "Index populator on %s [runs on: %s]", indexUserDescription, oldThreadName ) );
-        boolean success = false;
-        Throwable failureCause = null;
+        currentThread().setName( format( "Index populator on %s [runs on: %s]", indexUserDescriptions(),
+                oldThreadName ) );
         try
         {
-            try
+            for ( IndexPopulation population : populations )
             {
-                log.info( format("Index population started: [%s]", indexUserDescription) );
-                log.flush();
-                populator.create();
+                population.create();
+            }
 
+            try
+            {
                 indexAllNodes();
-                if ( cancelled )
-                {
-                    // We remain in POPULATING state
-                    return;
-                }
-
-                Callable<Void> duringFlip = new Callable<Void>()
-                {
-                    @Override
-                    public Void call() throws Exception
-                    {
-                        populateFromQueueIfAvailable( Long.MAX_VALUE );
-                        populator.close( true );
-                        updateableSchemaState.clear();
-                        return null;
-                    }
-                };
-
-                flipper.flip( duringFlip, failureDelegate );
-                success = true;
-                log.info( format("Index population completed. Index is now online: [%s]", indexUserDescription) );
-                log.flush();
             }
             catch ( Throwable t )
             {
-                // If the cause of index population failure is a conflict in a (unique) index, the conflict is the
-                // failure
-                if ( t instanceof IndexPopulationFailedKernelException )
+                // Reading the store failed, which fails all indexes still populating
+                for ( IndexPopulation population : populations )
                 {
-                    Throwable cause = t.getCause();
-                    if ( cause instanceof IndexEntryConflictException )
+                    if ( population.isActive() )
                     {
-                        t = cause;
+                        population.fail( t );
                     }
                 }
-
-                // Index conflicts are expected (for unique indexes) so we don't need to log them.
-                if ( !(t instanceof IndexEntryConflictException) /*TODO: && this is a unique index...*/ )
-                {
-                    log.error( format("Failed to populate index: [%s]", indexUserDescription), t );
-                    log.flush();
-                }
-
-                // Set failure cause to be stored persistently
-                failureCause = t;
-
-                // The flipper will have already flipped to a failed index context here, but
-                // it will not include the cause of failure, so we do another flip to a failed
-                // context that does.
-
-                // The reason for having the flipper transition to the failed index context in the first
-                // place is that we would otherwise introduce a race condition where updates could come
-                // in to the old context, if something failed in the job we send to the flipper.
-                flipper.flipTo( new FailedIndexProxy( descriptor, providerDescriptor, indexUserDescription,
-                                                      populator, failure( t ) ) );
             }
-            finally
+
+            for ( IndexPopulation population : populations )
             {
-                try
+                if ( population.isActive() )
                 {
-                    if ( !success )
-                    {
-                        if ( failureCause != null )
-                        {
-                            populator.markAsFailed( failure( failureCause ).asString() );
-                        }
-
-                        populator.close( false );
-                    }
+                    population.flip();
                 }
-                catch ( Throwable e )
+                else if ( population.cancelled && !population.failed )
                 {
-                    log.error( format("Unable to close failed populator for index: [%s]", indexUserDescription), e );
-                    log.flush();
+                    // We remain in POPULATING state
+                    population.closeCancelled();
                 }
             }
         }
@@ -190,74 +143,292 @@ public class IndexPopulationJob implements Runnable
 
     private void indexAllNodes() throws IndexPopulationFailedKernelException
     {
-        storeScan = storeView.visitNodesWithPropertyAndLabel( descriptor, new Visitor<NodePropertyUpdate,
-                IndexPopulationFailedKernelException>()
+        Map<IndexDescriptor, Visitor<NodePropertyUpdate, IndexPopulationFailedKernelException>> visitors =
+                new LinkedHashMap<>();
+        for ( final IndexPopulation population : populations )
         {
-            @Override
-            public boolean visit( NodePropertyUpdate update ) throws IndexPopulationFailedKernelException
+            if ( population.isActive() )
             {
-                try
+                visitors.put( population.descriptor, new Visitor<NodePropertyUpdate,
+                        IndexPopulationFailedKernelException>()
                 {
-                    populator.add( update.getNodeId(), update.getValueAfter() );
-                    populateFromQueueIfAvailable( update.getNodeId() );
-                }
-                catch ( Exception conflict )
-                {
-                    throw new IndexPopulationFailedKernelException( descriptor, indexUserDescription, conflict );
-                }
-                return false;
+                    @Override
+                    public boolean visit( NodePropertyUpdate update )
+                    {
+                        population.add( update );
+                        return false;
+                    }
+                } );
             }
-        });
+        }
+        if ( visitors.isEmpty() )
+        {
+            return;
+        }
+
+        storeScan = storeView.visitNodesWithPropertyAndLabel( visitors );
+        if ( !anyActive() )
+        {   // All populations were cancelled before the scan got started
+            return;
+        }
         storeScan.run();
     }
 
-    private void populateFromQueueIfAvailable( final long highestIndexedNodeId )
-            throws IndexEntryConflictException, IOException
+    private boolean anyActive()
     {
-        if ( !queue.isEmpty() )
+        for ( IndexPopulation population : populations )
         {
-            try ( IndexUpdater updater = populator.newPopulatingUpdater() )
+            if ( population.isActive() )
             {
-                for ( NodePropertyUpdate update : queue )
-                {
-                    if ( update.getNodeId() <= highestIndexedNodeId )
-                    {
-                        updater.process( update );
-                    }
-                }
+                return true;
             }
         }
+        return false;
     }
 
-    public Future<Void> cancel()
+    /**
+     * Stops the scan if no index in this job is populating anymore.
+     */
+    private void stopScanIfDone()
     {
-        // Stop the population
-        if ( storeScan != null )
+        StoreScan<IndexPopulationFailedKernelException> scan = storeScan;
+        if ( scan != null && !anyActive() )
         {
-            cancelled = true;
-            storeScan.stop();
+            scan.stop();
         }
-
-        return latchGuardedValue( NO_VALUE, doneSignal );
     }
 
     /**
-     * A transaction happened that produced the given updates. Let this job incorporate its data,
-     * feeding it to the {@link IndexPopulator}.
+     * Cancels the population of all indexes in this job.
      */
-    public void update( NodePropertyUpdate update )
+    public Future<Void> cancel()
     {
-        queue.add( update );
+        for ( IndexPopulation population : populations )
+        {
+            population.cancelled = true;
+        }
+        stopScanIfDone();
+        return latchGuardedValue( NO_VALUE, doneSignal );
+    }
+
+    private String indexUserDescriptions()
+    {
+        StringBuilder descriptions = new StringBuilder();
+        for ( IndexPopulation population : populations )
+        {
+            descriptions.append( descriptions.length() == 0 ? "" : ", " ).append( population.indexUserDescription );
+        }
+        return descriptions.toString();
     }
 
     @Override
     public String toString()
     {
-        return getClass().getSimpleName() + "[populator:" + populator + ", descriptor:" + descriptor + "]";
+        return getClass().getSimpleName() + "[populations:" + populations + "]";
     }
 
     public void awaitCompletion() throws InterruptedException
     {
         doneSignal.await();
     }
+
+    /**
+     * The population of one of the indexes in a job.
+     */
+    public class IndexPopulation
+    {
+        private final IndexPopulator populator;
+        private final IndexDescriptor descriptor;
+        private final SchemaIndexProvider.Descriptor providerDescriptor;
+        private final String indexUserDescription;
+        private final FlippableIndexProxy flipper;
+        private final FailedIndexProxyFactory failureDelegate;
+
+        // NOTE: unbounded queue expected here
+        private final Queue<NodePropertyUpdate> queue = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean cancelled;
+        private volatile boolean failed;
+
+        private IndexPopulation( IndexPopulator populator, IndexDescriptor descriptor,
+                                 SchemaIndexProvider.Descriptor providerDescriptor, String indexUserDescription,
+                                 FlippableIndexProxy flipper, FailedIndexProxyFactory failureDelegate )
+        {
+            this.populator = populator;
+            this.descriptor = descriptor;
+            this.providerDescriptor = providerDescriptor;
+            this.indexUserDescription = indexUserDescription;
+            this.flipper = flipper;
+            this.failureDelegate = failureDelegate;
+        }
+
+        /**
+         * A transaction happened that produced the given updates. Let this population incorporate its data,
+         * feeding it to the {@link IndexPopulator}.
+         */
+        public void update( NodePropertyUpdate update )
+        {
+            queue.add( update );
+        }
+
+        /**
+         * Cancels the population of this index, the other indexes of the job keep populating.
+         */
+        public Future<Void> cancel()
+        {
+            cancelled = true;
+            stopScanIfDone();
+            return latchGuardedValue( NO_VALUE, doneSignal );
+        }
+
+        public void awaitCompletion() throws InterruptedException
+        {
+            doneSignal.await();
+        }
+
+        private boolean isActive()
+        {
+            return !cancelled && !failed;
+        }
+
+        private void create()
+        {
+            try
+            {
+                log.info( format( "Index population started: [%s]", indexUserDescription ) );
+                log.flush();
+                populator.create();
+            }
+            catch ( Throwable t )
+            {
+                fail( t );
+            }
+        }
+
+        private void add( NodePropertyUpdate update )
+        {
+            if ( !isActive() )
+            {
+                return;
+            }
+            try
+            {
+                populator.add( update.getNodeId(), update.getValueAfter() );
+                populateFromQueueIfAvailable( update.getNodeId() );
+            }
+            catch ( Exception conflict )
+            {
+                fail( new IndexPopulationFailedKernelException( descriptor, indexUserDescription, conflict ) );
+                stopScanIfDone();
+            }
+        }
+
+        private void populateFromQueueIfAvailable( final long highestIndexedNodeId )
+                throws IndexEntryConflictException, IOException
+        {
+            if ( !queue.isEmpty() )
+            {
+                try ( IndexUpdater updater = populator.newPopulatingUpdater() )
+                {
+                    for ( NodePropertyUpdate update : queue )
+                    {
+                        if ( update.getNodeId() <= highestIndexedNodeId )
+                        {
+                            updater.process( update );
+                        }
+                    }
+                }
+            }
+        }
+
+        private void flip()
+        {
+            try
+            {
+                Callable<Void> duringFlip = new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        populateFromQueueIfAvailable( Long.MAX_VALUE );
+                        populator.close( true );
+                        updateableSchemaState.clear();
+                        return null;
+                    }
+                };
+
+                flipper.flip( duringFlip, failureDelegate );
+                log.info( format( "Index population completed. Index is now online: [%s]", indexUserDescription ) );
+                log.flush();
+            }
+            catch ( Throwable t )
+            {
+                fail( t );
+            }
+        }
+
+        private void fail( Throwable t )
+        {
+            failed = true;
+
+            // If the cause of index population failure is a conflict in a (unique) index, the conflict is the
+            // failure
+            if ( t instanceof IndexPopulationFailedKernelException )
+            {
+                Throwable cause = t.getCause();
+                if ( cause instanceof IndexEntryConflictException )
+                {
+                    t = cause;
+                }
+            }
+
+            // Index conflicts are expected (for unique indexes) so we don't need to log them.
+            if ( !(t instanceof IndexEntryConflictException) /*TODO: && this is a unique index...*/ )
+            {
+                log.error( format( "Failed to populate index: [%s]", indexUserDescription ), t );
+                log.flush();
+            }
+
+            // The flipper will have already flipped to a failed index context here, but
+            // it will not include the cause of failure, so we do another flip to a failed
+            // context that does.
+
+            // The reason for having the flipper transition to the failed index context in the first
+            // place is that we would otherwise introduce a race condition where updates could come
+            // in to the old context, if something failed in the job we send to the flipper.
+            flipper.flipTo( new FailedIndexProxy( descriptor, providerDescriptor, indexUserDescription,
+                                                  populator, failure( t ) ) );
+
+            try
+            {
+                // Set failure cause to be stored persistently
+                populator.markAsFailed( failure( t ).asString() );
+                populator.close( false );
+            }
+            catch ( Throwable e )
+            {
+                log.error( format( "Unable to close failed populator for index: [%s]", indexUserDescription ), e );
+                log.flush();
+            }
+        }
+
+        private void closeCancelled()
+        {
+            try
+            {
+                populator.close( false );
+            }
+            catch ( Throwable e )
+            {
+                log.error( format( "Unable to close failed populator for index: [%s]", indexUserDescription ), e );
+                log.flush();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return getClass().getSimpleName() + "[populator:" + populator + ", descriptor:" + descriptor + "]";
+        }
+    }
 }
@@ -19,21 +19,36 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.Map;
+
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.api.properties.Property;
 
 /** The indexing services view of the universe. */
 public interface IndexStoreView
 {
     /**
      * Retrieve all nodes in the database with a given label and property, as pairs of node id and property value.
+     * For a composite descriptor only nodes having all of its properties are visited, each with a
+     * {@link org.neo4j.kernel.api.index.CompositeValue} of those property values.
      *
      * @return a {@link StoreScan} to start and to stop the scan.
      */
     <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
             IndexDescriptor descriptor, Visitor<NodePropertyUpdate, FAILURE> visitor );
 
+    /**
+     * Like {@link #visitNodesWithPropertyAndLabel(IndexDescriptor, Visitor)}, but for many indexes in one scan,
+     * feeding each visitor the nodes of its index. The store may be read by many threads, but each visitor is
+     * called from the thread running the scan, in node id order.
+     *
+     * @return a {@link StoreScan} to start and to stop the scan.
+     */
+    <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
+            Map<IndexDescriptor, ? extends Visitor<NodePropertyUpdate, FAILURE>> visitors );
+
     /**
      * Retrieve all nodes in the database which has got one or more of the given labels AND
      * one or more of the given property key ids.
@@ -45,4 +60,12 @@ public interface IndexStoreView
             Visitor<NodeLabelUpdate, FAILURE> labelUpdateVisitor );
 
     Iterable<NodePropertyUpdate> nodeAsUpdates( long nodeId );
+
+    /**
+     * Reads a committed property of a node, without reading the values of its other properties. The value is read
+     * when asked for, and strings kept in the string dictionary compare by the ids of their entries.
+     *
+     * @return the property, or {@link Property#noNodeProperty(long, int) no property} if the node doesn't have it.
+     */
+    Property nodeGetProperty( long nodeId, int propertyKeyId );
 }
@@ -70,6 +70,14 @@ public class IndexUpdaterMap implements AutoCloseable, Iterable<IndexUpdater>
         return updater;
     }
 
+    /**
+     * @return the composite indexes that include the given property key for the given label.
+     */
+    public Iterable<IndexDescriptor> getCompositeDescriptors( int labelId, int propertyKeyId )
+    {
+        return indexMap.getCompositeDescriptors( labelId, propertyKeyId );
+    }
+
     @Override
     public void close() throws UnderlyingStorageException
     {
@@ -201,7 +201,8 @@ public class IndexingService extends LifecycleAdapter
         // Drop placeholder proxies for indexes that need to be rebuilt
         dropRecoveringIndexes( indexMap, rebuildingDescriptors );
 
-        // Rebuild indexes by recreating and repopulating them
+        // Rebuild indexes by recreating and repopulating them, all in one scan of the store
+        IndexPopulationJob populationJob = newPopulationJob();
         for ( Map.Entry<Long, Pair<IndexDescriptor, SchemaIndexProvider.Descriptor>> entry :
                 rebuildingDescriptors.entrySet() )
         {
@@ -209,10 +210,14 @@ public class IndexingService extends LifecycleAdapter
             Pair<IndexDescriptor, SchemaIndexProvider.Descriptor> descriptors = entry.getValue();
             IndexDescriptor indexDescriptor = descriptors.first();
             SchemaIndexProvider.Descriptor providerDescriptor = descriptors.other();
-            IndexProxy indexProxy =
-                createAndStartPopulatingIndexProxy( indexId, indexDescriptor, providerDescriptor, serviceRunning );
+            IndexProxy indexProxy = createAndStartPopulatingIndexProxy( populationJob, indexId, indexDescriptor,
+                    providerDescriptor, serviceRunning );
             indexMap.putIndexProxy( indexId, indexProxy );
         }
+        if ( !rebuildingDescriptors.isEmpty() )
+        {
+            scheduler.schedule( populationJob );
+        }
 
         serviceRunning = true;
         indexMapReference.setIndexMap( indexMap );
@@ -258,14 +263,17 @@ public class IndexingService extends LifecycleAdapter
         boolean constraint = rule.isConstraintIndex();
         if ( serviceRunning )
         {
+            IndexPopulationJob populationJob = newPopulationJob();
             try
             {
-                index = createAndStartPopulatingIndexProxy( ruleId, descriptor, providerDescriptor, constraint );
+                index = createAndStartPopulatingIndexProxy( populationJob, ruleId, descriptor, providerDescriptor,
+                        constraint );
             }
             catch ( IOException e )
             {
                 throw new RuntimeException( e );
             }
+            scheduler.schedule( populationJob );
         }
         else
         {
@@ -319,6 +327,7 @@ public class IndexingService extends LifecycleAdapter
 
     private void applyUpdates( Iterable<NodePropertyUpdate> updates, IndexUpdaterMap updaterMap )
     {
+        CompositeIndexUpdates compositeUpdates = new CompositeIndexUpdates( storeView );
         for ( NodePropertyUpdate update : updates )
         {
             int propertyKeyId = update.getPropertyKeyId();
@@ -327,14 +336,16 @@ public class IndexingService extends LifecycleAdapter
             case ADDED:
                 for ( int len = update.getNumberOfLabelsAfter(), i = 0; i < len; i++ )
                 {
-                    processUpdateIfIndexExists( updaterMap, update, propertyKeyId, update.getLabelAfter( i ) );
+                    processUpdateIfIndexExists( updaterMap, compositeUpdates, update, propertyKeyId,
+                            update.getLabelAfter( i ) );
                 }
                 break;
 
             case REMOVED:
                 for ( int len = update.getNumberOfLabelsBefore(), i = 0; i < len; i++ )
                 {
-                    processUpdateIfIndexExists( updaterMap, update, propertyKeyId, update.getLabelBefore( i ) );
+                    processUpdateIfIndexExists( updaterMap, compositeUpdates, update, propertyKeyId,
+                            update.getLabelBefore( i ) );
                 }
                 break;
 
@@ -349,7 +360,7 @@ public class IndexingService extends LifecycleAdapter
 
                     if ( labelBefore == labelAfter )
                     {
-                        processUpdateIfIndexExists( updaterMap, update, propertyKeyId, labelAfter );
+                        processUpdateIfIndexExists( updaterMap, compositeUpdates, update, propertyKeyId, labelAfter );
                         i++;
                         j++;
                     }
@@ -368,12 +379,25 @@ public class IndexingService extends LifecycleAdapter
                 break;
             }
         }
+
+        try
+        {
+            compositeUpdates.apply( updaterMap );
+        }
+        catch ( IOException | IndexEntryConflictException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
     }
 
-    private void processUpdateIfIndexExists( IndexUpdaterMap updaterMap, NodePropertyUpdate update,
-                                             int propertyKeyId, int labelId )
+    private void processUpdateIfIndexExists( IndexUpdaterMap updaterMap, CompositeIndexUpdates compositeUpdates,
+                                             NodePropertyUpdate update, int propertyKeyId, int labelId )
     {
         IndexDescriptor descriptor = new IndexDescriptor( labelId, propertyKeyId );
+        for ( IndexDescriptor composite : updaterMap.getCompositeDescriptors( labelId, propertyKeyId ) )
+        {
+            compositeUpdates.collect( composite, update );
+        }
         try
         {
             IndexUpdater updater = updaterMap.getUpdater( descriptor );
@@ -407,7 +431,17 @@ public class IndexingService extends LifecycleAdapter
         }
     }
 
-    private IndexProxy createAndStartPopulatingIndexProxy( final long ruleId,
+    private IndexPopulationJob newPopulationJob()
+    {
+        return new IndexPopulationJob( storeView, updateableSchemaState, logging );
+    }
+
+    /**
+     * Creates a proxy for an index that gets populated by the given job. The job must be scheduled once all its
+     * indexes have been added to it.
+     */
+    private IndexProxy createAndStartPopulatingIndexProxy( IndexPopulationJob populationJob,
+                                                           final long ruleId,
                                                            final IndexDescriptor descriptor,
                                                            final SchemaIndexProvider.Descriptor providerDescriptor,
                                                            final boolean unique ) throws IOException
@@ -422,10 +456,9 @@ public class IndexingService extends LifecycleAdapter
         FailedIndexProxyFactory failureDelegateFactory =
             new FailedPopulatingIndexProxyFactory( descriptor, providerDescriptor, populator, indexUserDescription );
 
-        PopulatingIndexProxy populatingIndex =
-            new PopulatingIndexProxy( scheduler, descriptor, providerDescriptor,
-                    failureDelegateFactory, populator, flipper, storeView,
-                indexUserDescription, updateableSchemaState, logging );
+        PopulatingIndexProxy populatingIndex = new PopulatingIndexProxy( descriptor, providerDescriptor,
+                populationJob.addPopulator( populator, descriptor, providerDescriptor, indexUserDescription, flipper,
+                        failureDelegateFactory ) );
         flipper.flipTo( populatingIndex );
 
         // Prepare for flipping to online mode
@@ -525,7 +558,7 @@ public class IndexingService extends LifecycleAdapter
 
     private IndexDescriptor createDescriptor( IndexRule rule )
     {
-        return new IndexDescriptor( rule.getLabel(), rule.getPropertyKey() );
+        return new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
     }
 
     private void awaitIndexFuture( Future<Void> future ) throws Exception
@@ -129,7 +129,7 @@ public class TentativeConstraintIndexProxy extends AbstractDelegatingIndexProxy
             } while ( iterator.hasNext() );
             IndexDescriptor descriptor = getDescriptor();
             throw new ConstraintVerificationFailedKernelException(
-                    new UniquenessConstraint( descriptor.getLabelId(), descriptor.getPropertyKeyId() ), evidence );
+                    new UniquenessConstraint( descriptor.getLabelId(), descriptor.getPropertyKeyIds() ), evidence );
         }
     }
 
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import static java.util.Arrays.binarySearch;
+import static java.util.Arrays.copyOf;
+
+/**
+ * A {@link Container} for up to {@link #MAX_ARRAY_SIZE} values, kept as a sorted array of unsigned 16 bit values.
+ */
+final class ArrayContainer extends Container
+{
+    private char[] values;
+    private int size;
+
+    ArrayContainer( long generation )
+    {
+        this( generation, new char[4], 0 );
+    }
+
+    ArrayContainer( long generation, char[] values, int size )
+    {
+        super( generation );
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return size;
+    }
+
+    @Override
+    boolean contains( int value )
+    {
+        return binarySearch( values, 0, size, (char) value ) >= 0;
+    }
+
+    @Override
+    Container add( int value, long generation )
+    {
+        int index = binarySearch( values, 0, size, (char) value );
+        if ( index >= 0 )
+        {
+            return this;
+        }
+        if ( size == MAX_ARRAY_SIZE )
+        {
+            return toBits( generation ).add( value, generation );
+        }
+
+        ArrayContainer target = writable( generation, size + 1 );
+        index = -index - 1;
+        System.arraycopy( values, index, target.values, index + 1, size - index );
+        if ( target != this )
+        {
+            System.arraycopy( values, 0, target.values, 0, index );
+        }
+        target.values[index] = (char) value;
+        target.size = size + 1;
+        return target;
+    }
+
+    @Override
+    Container remove( int value, long generation )
+    {
+        int index = binarySearch( values, 0, size, (char) value );
+        if ( index < 0 )
+        {
+            return this;
+        }
+        if ( size == 1 )
+        {
+            return null;
+        }
+
+        ArrayContainer target = writable( generation, size );
+        if ( target != this )
+        {
+            System.arraycopy( values, 0, target.values, 0, index );
+        }
+        System.arraycopy( values, index + 1, target.values, index, size - index - 1 );
+        target.size = size - 1;
+        return target;
+    }
+
+    @Override
+    int next( int from )
+    {
+        if ( from > MAX_VALUE )
+        {
+            return -1;
+        }
+        int index = binarySearch( values, 0, size, (char) from );
+        if ( index < 0 )
+        {
+            index = -index - 1;
+        }
+        return index < size ? values[index] : -1;
+    }
+
+    @Override
+    byte kind()
+    {
+        return ARRAY;
+    }
+
+    char value( int index )
+    {
+        return values[index];
+    }
+
+    /**
+     * @return this container if it belongs to the given generation and has room for {@code capacity} values,
+     * otherwise an empty container of the given generation that has.
+     */
+    private ArrayContainer writable( long generation, int capacity )
+    {
+        if ( this.generation == generation )
+        {
+            if ( values.length < capacity )
+            {
+                values = copyOf( values, Math.min( MAX_ARRAY_SIZE, values.length * 2 ) );
+            }
+            return this;
+        }
+        int length = Math.min( MAX_ARRAY_SIZE, Math.max( capacity, size + (size >> 1) ) );
+        return new ArrayContainer( generation, new char[length], 0 );
+    }
+
+    private BitsContainer toBits( long generation )
+    {
+        BitsContainer bits = new BitsContainer( generation );
+        for ( int i = 0; i < size; i++ )
+        {
+            bits.set( values[i] );
+        }
+        return bits;
+    }
+}
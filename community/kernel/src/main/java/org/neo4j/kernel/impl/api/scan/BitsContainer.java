@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+/**
+ * A {@link Container} for more than {@link #MAX_ARRAY_SIZE} values, kept as a bitmap of all 65536 possible values.
+ */
+final class BitsContainer extends Container
+{
+    static final int WORDS = (MAX_VALUE + 1) / Long.SIZE;
+
+    private final long[] words;
+    private int cardinality;
+
+    BitsContainer( long generation )
+    {
+        this( generation, new long[WORDS], 0 );
+    }
+
+    BitsContainer( long generation, long[] words, int cardinality )
+    {
+        super( generation );
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality()
+    {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains( int value )
+    {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add( int value, long generation )
+    {
+        if ( contains( value ) )
+        {
+            return this;
+        }
+        BitsContainer target = writable( generation );
+        target.set( value );
+        return target;
+    }
+
+    @Override
+    Container remove( int value, long generation )
+    {
+        if ( !contains( value ) )
+        {
+            return this;
+        }
+        if ( cardinality - 1 <= MAX_ARRAY_SIZE )
+        {
+            return toArray( value, generation );
+        }
+        BitsContainer target = writable( generation );
+        target.words[value >>> 6] &= ~(1L << value);
+        target.cardinality--;
+        return target;
+    }
+
+    @Override
+    int next( int from )
+    {
+        if ( from > MAX_VALUE )
+        {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while ( word == 0 )
+        {
+            if ( ++index == WORDS )
+            {
+                return -1;
+            }
+            word = words[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros( word );
+    }
+
+    @Override
+    byte kind()
+    {
+        return BITS;
+    }
+
+    long word( int index )
+    {
+        return words[index];
+    }
+
+    void set( int value )
+    {
+        words[value >>> 6] |= 1L << value;
+        cardinality++;
+    }
+
+    private BitsContainer writable( long generation )
+    {
+        return this.generation == generation ? this : new BitsContainer( generation, words.clone(), cardinality );
+    }
+
+    private ArrayContainer toArray( int without, long generation )
+    {
+        char[] values = new char[MAX_ARRAY_SIZE];
+        int size = 0;
+        for ( int value = next( 0 ); value != -1; value = next( value + 1 ) )
+        {
+            if ( value != without )
+            {
+                values[size++] = (char) value;
+            }
+        }
+        return new ArrayContainer( generation, values, size );
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+/**
+ * Holds the low 16 bits of those node ids in a {@link LabelBitmap} that share the same high bits. Sparse containers
+ * keep a sorted array of values and dense ones a plain bitmap, in the manner of roaring bitmaps, so that no
+ * container ever needs more than 8kB.
+ *
+ * A container may only be changed by the writer of the {@link LabelBitmap} generation that created it, any other
+ * generation gets a changed copy back from {@link #add(int, long)} and {@link #remove(int, long)}. That way readers
+ * of earlier generations never see a container change under their feet.
+ */
+abstract class Container
+{
+    static final int MAX_VALUE = 0xFFFF;
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    static final byte ARRAY = 0;
+    static final byte BITS = 1;
+
+    protected final long generation;
+
+    protected Container( long generation )
+    {
+        this.generation = generation;
+    }
+
+    abstract int cardinality();
+
+    abstract boolean contains( int value );
+
+    /**
+     * @return the container holding the result, which may be this container, a copy of it or a container of the
+     * other kind.
+     */
+    abstract Container add( int value, long generation );
+
+    /**
+     * @return the container holding the result, or {@code null} if no values are left.
+     */
+    abstract Container remove( int value, long generation );
+
+    /**
+     * @return the lowest value in this container that is equal to or greater than {@code from}, or -1 if there is
+     * none.
+     */
+    abstract int next( int from );
+
+    abstract byte kind();
+}
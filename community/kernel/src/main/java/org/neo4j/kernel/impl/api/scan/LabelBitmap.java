@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * A compressed bitmap of the nodes having a label. Node ids are split in their high bits, the container key, and
+ * their low 16 bits which are kept in a {@link Container}. Containers are found by their key through pages of
+ * {@link #PAGE_SIZE} containers each, since node ids are dense.
+ *
+ * Instances are copy-on-write: a {@link #writableCopy(long) writable copy} shares all pages and containers with the
+ * bitmap it was made from, and copies each of them the first time it changes it. A bitmap that has been handed out
+ * to readers is never changed again, so readers need no locking and see a stable view of the label.
+ */
+final class LabelBitmap
+{
+    static final int CONTAINER_BITS = 16;
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final long generation;
+    private Container[][] pages;
+    private long[] pageGenerations;
+    private long cardinality;
+
+    LabelBitmap( long generation )
+    {
+        this( generation, new Container[0][], new long[0], 0 );
+    }
+
+    private LabelBitmap( long generation, Container[][] pages, long[] pageGenerations, long cardinality )
+    {
+        this.generation = generation;
+        this.pages = pages;
+        this.pageGenerations = pageGenerations;
+        this.cardinality = cardinality;
+    }
+
+    LabelBitmap writableCopy( long generation )
+    {
+        return new LabelBitmap( generation, pages.clone(), pageGenerations.clone(), cardinality );
+    }
+
+    long generation()
+    {
+        return generation;
+    }
+
+    long cardinality()
+    {
+        return cardinality;
+    }
+
+    boolean isEmpty()
+    {
+        return cardinality == 0;
+    }
+
+    boolean contains( long nodeId )
+    {
+        Container container = container( nodeId >>> CONTAINER_BITS );
+        return container != null && container.contains( low( nodeId ) );
+    }
+
+    void add( long nodeId )
+    {
+        long key = nodeId >>> CONTAINER_BITS;
+        Container[] page = writablePage( key );
+        int slot = slot( key );
+        Container container = page[slot];
+        if ( container == null )
+        {
+            container = new ArrayContainer( generation );
+        }
+        int cardinalityBefore = container.cardinality();
+        page[slot] = container = container.add( low( nodeId ), generation );
+        cardinality += container.cardinality() - cardinalityBefore;
+    }
+
+    void remove( long nodeId )
+    {
+        long key = nodeId >>> CONTAINER_BITS;
+        Container container = container( key );
+        if ( container == null || !container.contains( low( nodeId ) ) )
+        {
+            return;
+        }
+        writablePage( key )[slot( key )] = container.remove( low( nodeId ), generation );
+        cardinality--;
+    }
+
+    /**
+     * @return one more than the highest container key this bitmap has room for.
+     */
+    long keyLimit()
+    {
+        return (long) pages.length << PAGE_BITS;
+    }
+
+    Container container( long key )
+    {
+        int pageIndex = (int) (key >>> PAGE_BITS);
+        if ( pageIndex >= pages.length || pages[pageIndex] == null )
+        {
+            return null;
+        }
+        return pages[pageIndex][slot( key )];
+    }
+
+    /**
+     * Puts a whole container in place, used when loading a bitmap.
+     */
+    void put( long key, Container container )
+    {
+        Container[] page = writablePage( key );
+        Container existing = page[slot( key )];
+        cardinality += container.cardinality() - (existing == null ? 0 : existing.cardinality());
+        page[slot( key )] = container;
+    }
+
+    /**
+     * Iterates the node ids in ascending order, without allocating anything per node.
+     */
+    PrimitiveLongIterator iterator()
+    {
+        final Container[][] pages = this.pages;
+        return new AbstractPrimitiveLongIterator()
+        {
+            private final long keyLimit = (long) pages.length << PAGE_BITS;
+            private long key;
+            private int from;
+
+            {
+                computeNext();
+            }
+
+            @Override
+            protected void computeNext()
+            {
+                while ( key < keyLimit )
+                {
+                    Container[] page = pages[(int) (key >>> PAGE_BITS)];
+                    if ( page == null )
+                    {
+                        key += PAGE_SIZE;
+                        continue;
+                    }
+                    Container container = page[slot( key )];
+                    int value = container == null ? -1 : container.next( from );
+                    if ( value != -1 )
+                    {
+                        from = value + 1;
+                        next( (key << CONTAINER_BITS) | value );
+                        return;
+                    }
+                    key++;
+                    from = 0;
+                }
+                endReached();
+            }
+        };
+    }
+
+    private Container[] writablePage( long key )
+    {
+        int pageIndex = (int) (key >>> PAGE_BITS);
+        if ( pageIndex >= pages.length )
+        {
+            pages = copyOf( pages, pageIndex + 1 );
+            pageGenerations = copyOf( pageGenerations, pageIndex + 1 );
+        }
+        Container[] page = pages[pageIndex];
+        if ( page == null )
+        {
+            page = pages[pageIndex] = new Container[PAGE_SIZE];
+            pageGenerations[pageIndex] = generation;
+        }
+        else if ( pageGenerations[pageIndex] != generation )
+        {
+            page = pages[pageIndex] = page.clone();
+            pageGenerations[pageIndex] = generation;
+        }
+        return page;
+    }
+
+    private static int slot( long key )
+    {
+        return (int) (key & (PAGE_SIZE - 1));
+    }
+
+    private static int low( long nodeId )
+    {
+        return (int) (nodeId & Container.MAX_VALUE);
+    }
+}
@@ -19,6 +19,10 @@
  */
 package org.neo4j.kernel.impl.api.scan;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -33,10 +37,12 @@ import org.neo4j.kernel.extension.KernelExtensions;
 import org.neo4j.kernel.impl.api.AbstractPrimitiveLongIterator;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.core.Token;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeStore;
 import org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
@@ -83,12 +89,43 @@ public class LabelScanStoreProvider extends LifecycleAdapter implements Comparab
         }
     };
 
+    /**
+     * Name of the file recording which label scan store is kept up to date with the labels of the nodes, see
+     * {@link #makeAuthoritative(long, StringLogger)}.
+     */
+    public static final String AUTHORITATIVE_FILE_NAME = "authoritative";
+
+    /**
+     * The label scan store used by databases from before the label scan store in use was recorded.
+     */
+    private static final String LEGACY_STORE_NAME = "lucene";
+
+    private final String name;
+    private final File storeDir;
+    private final FileSystemAbstraction fs;
+
     private final LabelScanStore labelScanStore;
 
     private final int priority;
 
+    /**
+     * A provider for a label scan store without any files of its own, which is rebuilt on every startup.
+     */
     public LabelScanStoreProvider( LabelScanStore labelScanStore, int priority )
     {
+        this( null, null, null, labelScanStore, priority );
+    }
+
+    /**
+     * A provider for a label scan store keeping its files in the {@link #directoryOf(File, String) directory}
+     * of the given name.
+     */
+    public LabelScanStoreProvider( String name, File storeDir, FileSystemAbstraction fs,
+                                   LabelScanStore labelScanStore, int priority )
+    {
+        this.name = name;
+        this.storeDir = storeDir;
+        this.fs = fs;
         this.labelScanStore = labelScanStore;
         this.priority = priority;
     }
@@ -98,6 +135,80 @@ public class LabelScanStoreProvider extends LifecycleAdapter implements Comparab
         return labelScanStore;
     }
 
+    /**
+     * @return the directory of the label scan store of the given name, {@code <db>/schema/label/<name>}.
+     */
+    public static File directoryOf( File storeDir, String name )
+    {
+        return new File( labelDirectory( storeDir ), name );
+    }
+
+    private static File labelDirectory( File storeDir )
+    {
+        return new File( new File( storeDir, "schema" ), "label" );
+    }
+
+    /**
+     * Called with the id of the last committed transaction before the provided label scan store is initialized,
+     * to make it the one kept up to date with the labels of the nodes. Only one label scan store is, and which one
+     * it is, along with the transaction it became the one at, is recorded in the {@link #AUTHORITATIVE_FILE_NAME}
+     * file. If another store was the authoritative one until now, the files of this store are from before that,
+     * and miss the changes made since. They're deleted, so that this store is rebuilt from the node store when
+     * it's initialized.
+     */
+    public void makeAuthoritative( long lastCommittedTx, StringLogger logger ) throws IOException
+    {
+        if ( name == null )
+        {
+            return;
+        }
+        File file = new File( labelDirectory( storeDir ), AUTHORITATIVE_FILE_NAME );
+        String previous = LEGACY_STORE_NAME;
+        long sinceTx = -1;
+        boolean recorded = fs.fileExists( file );
+        if ( recorded )
+        {
+            try ( BufferedReader reader = new BufferedReader( fs.openAsReader( file, "UTF-8" ) ) )
+            {
+                previous = reader.readLine();
+                sinceTx = Long.parseLong( reader.readLine() );
+            }
+            catch ( NumberFormatException e )
+            {   // Not a file we wrote in full, so we can't trust any of the stores
+                logger.warn( "Unable to tell which label scan store is up to date from " + file + ". " +
+                        "Preparing to rebuild the " + name + " one." );
+                previous = null;
+            }
+        }
+        if ( name.equals( previous ) && recorded )
+        {
+            return;
+        }
+
+        File directory = directoryOf( storeDir, name );
+        if ( !name.equals( previous ) && fs.fileExists( directory ) )
+        {
+            if ( previous != null )
+            {
+                logger.info( "The " + name + " label scan store replaces the " + previous + " one" +
+                        (sinceTx != -1 ? ", in use since transaction " + sinceTx : "") + ". Preparing to rebuild it." );
+            }
+            fs.deleteRecursively( directory );
+        }
+        fs.mkdirs( labelDirectory( storeDir ) );
+        File tempFile = new File( labelDirectory( storeDir ), AUTHORITATIVE_FILE_NAME + ".tmp" );
+        try ( Writer writer = fs.openAsWriter( tempFile, "UTF-8", false ) )
+        {
+            writer.write( name + "\n" + lastCommittedTx + "\n" );
+        }
+        fs.deleteFile( file );
+        if ( !fs.renameFile( tempFile, file ) )
+        {
+            throw new IOException( "Unable to record the " + name + " label scan store as the one in use in " +
+                    file );
+        }
+    }
+
     @Override
     public int compareTo( LabelScanStoreProvider o )
     {
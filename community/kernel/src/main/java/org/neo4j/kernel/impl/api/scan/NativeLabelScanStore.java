@@ -0,0 +1,826 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.kernel.api.direct.AllEntriesLabelScanReader;
+import org.neo4j.kernel.api.direct.NodeLabelRange;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIteratorForArray;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * A {@link LabelScanStore} keeping a compressed {@link LabelBitmap} per label in memory, which makes label scans
+ * plain bitmap iterations.
+ *
+ * On disk the store is a snapshot file with all bitmaps and an append-only log of the label changes made since
+ * that snapshot. Committing only appends to the log. {@link #force()} forces the log, and writes a new snapshot and
+ * truncates the log once the log has grown large compared to the snapshot. Startup loads the snapshot and replays
+ * the log. Replaying is idempotent since each entry sets or clears bits to a definite state, so a log that
+ * outlived the snapshot it was written after does no harm. If the snapshot is missing or unreadable the store
+ * is rebuilt from the node store.
+ */
+public class NativeLabelScanStore implements LabelScanStore
+{
+    public static final String SNAPSHOT_FILE_NAME = "labelscan.db";
+    public static final String LOG_FILE_NAME = "labelscan.log";
+
+    private static final long MAGIC = 0x4C424C5343414E31L; // "LBLSCAN1"
+    private static final int BUFFER_SIZE = 1 << 16;
+    // A new snapshot is written when the log is bigger than this fraction of the snapshot
+    private static final int LOG_TO_SNAPSHOT_RATIO = 4;
+    // ... but never for logs smaller than this, to not rewrite small stores over and over
+    private static final long MIN_LOG_SIZE_FOR_SNAPSHOT = 1 << 20;
+
+    private final File directory;
+    private final File snapshotFile;
+    private final File logFile;
+    private final FileSystemAbstraction fs;
+    // We get in a full store stream here in case we need to fully rebuild the store if it's missing or corrupted.
+    private final FullStoreChangeStream fullStoreStream;
+    private final StringLogger logger;
+
+    // Published state, never changed once published
+    private volatile Map<Integer, LabelBitmap> labels = Collections.emptyMap();
+    // Guarded by this
+    private long generation;
+    private FileChannel log;
+    private ChannelWriter logWriter;
+    private long snapshotSize;
+    private int openSnapshots;
+    private boolean needsRebuild;
+
+    public NativeLabelScanStore( File directory, FileSystemAbstraction fs, FullStoreChangeStream fullStoreStream,
+                                 StringLogger logger )
+    {
+        this.directory = directory;
+        this.snapshotFile = new File( directory, SNAPSHOT_FILE_NAME );
+        this.logFile = new File( directory, LOG_FILE_NAME );
+        this.fs = fs;
+        this.fullStoreStream = fullStoreStream;
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void updateAndCommit( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        apply( updates, true );
+        logWriter.flush();
+    }
+
+    @Override
+    public void recover( Iterator<NodeLabelUpdate> updates ) throws IOException
+    {
+        // Applying an update sets the labels of the node to a definite state, so it's fine to apply
+        // updates that are already in the store.
+        updateAndCommit( updates );
+    }
+
+    @Override
+    public synchronized void force()
+    {
+        try
+        {
+            logWriter.flush();
+            log.force( false );
+            if ( openSnapshots == 0 && log.size() > Math.max( MIN_LOG_SIZE_FOR_SNAPSHOT,
+                                                              snapshotSize / LOG_TO_SNAPSHOT_RATIO ) )
+            {
+                writeSnapshot();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public LabelScanReader newReader()
+    {
+        final Map<Integer, LabelBitmap> labels = this.labels;
+        return new LabelScanReader()
+        {
+            @Override
+            public PrimitiveLongIterator nodesWithLabel( int labelId )
+            {
+                LabelBitmap bitmap = labels.get( labelId );
+                return bitmap == null ? PrimitiveLongIteratorForArray.EMPTY : bitmap.iterator();
+            }
+
+            @Override
+            public Iterator<Long> labelsForNode( long nodeId )
+            {
+                List<Long> result = new ArrayList<>();
+                for ( Map.Entry<Integer, LabelBitmap> label : labels.entrySet() )
+                {
+                    if ( label.getValue().contains( nodeId ) )
+                    {
+                        result.add( (long) label.getKey() );
+                    }
+                }
+                return result.iterator();
+            }
+
+            @Override
+            public void close()
+            {   // Nothing to close, the bitmaps of this reader never change
+            }
+        };
+    }
+
+    @Override
+    public AllEntriesLabelScanReader newAllEntriesReader()
+    {
+        return new BitmapAllEntriesReader( labels );
+    }
+
+    /**
+     * Writes a snapshot of the current state, so that the files can be copied as they are. No new snapshot is
+     * written until the returned iterator is closed, changes made meanwhile only go to the log.
+     */
+    @Override
+    public synchronized ResourceIterator<File> snapshotStoreFiles() throws IOException
+    {
+        logWriter.flush();
+        log.force( false );
+        if ( openSnapshots == 0 )
+        {
+            writeSnapshot();
+        }
+        openSnapshots++;
+        final Iterator<File> files = Arrays.asList( snapshotFile, logFile ).iterator();
+        return new ResourceIterator<File>()
+        {
+            private boolean closed;
+
+            @Override
+            public boolean hasNext()
+            {
+                return files.hasNext();
+            }
+
+            @Override
+            public File next()
+            {
+                return files.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close()
+            {
+                synchronized ( NativeLabelScanStore.this )
+                {
+                    if ( !closed )
+                    {
+                        closed = true;
+                        openSnapshots--;
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized void init() throws IOException
+    {
+        fs.mkdirs( directory );
+        if ( !fs.fileExists( snapshotFile ) )
+        {   // This is the first time we start up this scan store, prepare to rebuild from scratch later.
+            logger.info( "No native label scan store found, this might just be first use. Preparing to rebuild." );
+            needsRebuild = true;
+        }
+        else
+        {
+            try
+            {
+                labels = readSnapshot();
+                snapshotSize = fs.getFileSize( snapshotFile );
+            }
+            catch ( IOException e )
+            {
+                logger.warn( "Corrupt native label scan store found. Preparing to rebuild.", e );
+                labels = Collections.emptyMap();
+                needsRebuild = true;
+            }
+        }
+
+        log = fs.open( logFile, "rw" );
+        if ( needsRebuild )
+        {   // Whatever is in the log relates to a snapshot we no longer have
+            log.truncate( 0 );
+        }
+        else
+        {
+            replayLog();
+        }
+        logWriter = new ChannelWriter( log );
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        if ( needsRebuild )
+        {   // we saw in init() that we need to rebuild the store, so do it here after the
+            // neostore has been properly started.
+            logger.info( "Rebuilding native label scan store, this may take a while" );
+            apply( fullStoreStream.iterator(), false );
+            writeSnapshot();
+            logger.info( "Native label scan store rebuilt (roughly " + fullStoreStream.highestNodeId() + " nodes)" );
+            needsRebuild = false;
+        }
+    }
+
+    @Override
+    public void stop()
+    {   // Not needed
+    }
+
+    @Override
+    public synchronized void shutdown() throws IOException
+    {
+        logWriter.flush();
+        if ( log.size() > 0 && openSnapshots == 0 )
+        {   // Start up quicker next time
+            writeSnapshot();
+        }
+        log.force( false );
+        log.close();
+        log = null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + directory + "]";
+    }
+
+    private void apply( Iterator<NodeLabelUpdate> updates, boolean logged ) throws IOException
+    {
+        long generation = ++this.generation;
+        Map<Integer, LabelBitmap> current = labels;
+        Map<Integer, LabelBitmap> changed = new HashMap<>();
+        while ( updates.hasNext() )
+        {
+            NodeLabelUpdate update = updates.next();
+            long nodeId = update.getNodeId();
+            long[] before = update.getLabelsBefore();
+            long[] after = update.getLabelsAfter();
+            for ( long labelId : after )
+            {
+                if ( !contains( before, labelId ) )
+                {
+                    writableBitmap( current, changed, (int) labelId, generation ).add( nodeId );
+                }
+            }
+            for ( long labelId : before )
+            {
+                if ( !contains( after, labelId ) )
+                {
+                    writableBitmap( current, changed, (int) labelId, generation ).remove( nodeId );
+                }
+            }
+            if ( logged )
+            {
+                appendToLog( update );
+            }
+        }
+        publish( current, changed );
+    }
+
+    private static LabelBitmap writableBitmap( Map<Integer, LabelBitmap> current, Map<Integer, LabelBitmap> changed,
+                                               int labelId, long generation )
+    {
+        LabelBitmap bitmap = changed.get( labelId );
+        if ( bitmap == null )
+        {
+            LabelBitmap published = current.get( labelId );
+            bitmap = published == null ? new LabelBitmap( generation ) : published.writableCopy( generation );
+            changed.put( labelId, bitmap );
+        }
+        return bitmap;
+    }
+
+    private void publish( Map<Integer, LabelBitmap> current, Map<Integer, LabelBitmap> changed )
+    {
+        if ( changed.isEmpty() )
+        {
+            return;
+        }
+        Map<Integer, LabelBitmap> next = new HashMap<>( current );
+        for ( Map.Entry<Integer, LabelBitmap> entry : changed.entrySet() )
+        {
+            if ( entry.getValue().isEmpty() )
+            {
+                next.remove( entry.getKey() );
+            }
+            else
+            {
+                next.put( entry.getKey(), entry.getValue() );
+            }
+        }
+        labels = next;
+    }
+
+    private static boolean contains( long[] labels, long labelId )
+    {
+        for ( long label : labels )
+        {
+            if ( label == labelId )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Log entry: node id, number of labels before, number of labels after, labels before, labels after
+    private void appendToLog( NodeLabelUpdate update ) throws IOException
+    {
+        logWriter.putLong( update.getNodeId() );
+        logWriter.putInt( update.getLabelsBefore().length );
+        logWriter.putInt( update.getLabelsAfter().length );
+        for ( long labelId : update.getLabelsBefore() )
+        {
+            logWriter.putInt( (int) labelId );
+        }
+        for ( long labelId : update.getLabelsAfter() )
+        {
+            logWriter.putInt( (int) labelId );
+        }
+    }
+
+    private void replayLog() throws IOException
+    {
+        final ChannelReader reader = new ChannelReader( log );
+        final long[] validLength = {0};
+        apply( new Iterator<NodeLabelUpdate>()
+        {
+            private NodeLabelUpdate next = readEntry();
+
+            @Override
+            public boolean hasNext()
+            {
+                return next != null;
+            }
+
+            @Override
+            public NodeLabelUpdate next()
+            {
+                if ( next == null )
+                {
+                    throw new NoSuchElementException();
+                }
+                NodeLabelUpdate result = next;
+                next = readEntry();
+                return result;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            /*
+             * The counts of a complete entry are never negative, and its labels are all in the log. Checking that
+             * before allocating keeps a torn tail from being read as an entry with billions of labels.
+             */
+            private boolean validLabelCounts( int beforeCount, int afterCount ) throws IOException
+            {
+                return beforeCount >= 0 && afterCount >= 0 &&
+                       ((long) beforeCount + afterCount) * 4 <= log.size() - reader.position();
+            }
+
+            private NodeLabelUpdate readEntry()
+            {
+                try
+                {
+                    long nodeId = reader.getLong();
+                    int beforeCount = reader.getInt();
+                    int afterCount = reader.getInt();
+                    if ( !validLabelCounts( beforeCount, afterCount ) )
+                    {   // Garbage from an entry that wasn't completely written
+                        return null;
+                    }
+                    long[] before = new long[beforeCount];
+                    long[] after = new long[afterCount];
+                    for ( int i = 0; i < before.length; i++ )
+                    {
+                        before[i] = reader.getInt();
+                    }
+                    for ( int i = 0; i < after.length; i++ )
+                    {
+                        after[i] = reader.getInt();
+                    }
+                    validLength[0] = reader.position();
+                    return NodeLabelUpdate.labelChanges( nodeId, before, after );
+                }
+                catch ( IOException e )
+                {   // The tail of the log didn't make it to disk, everything before it did
+                    return null;
+                }
+            }
+        }, false );
+
+        // Cut off a partially written entry, if any, so that new entries are appended after the last complete one
+        log.truncate( validLength[0] );
+        log.position( validLength[0] );
+    }
+
+    // Snapshot: magic, number of labels, and for each label its id, number of containers and the containers,
+    // each as its key, kind, cardinality and then either the values or the bitmap words.
+    private void writeSnapshot() throws IOException
+    {
+        File tempFile = new File( directory, SNAPSHOT_FILE_NAME + ".tmp" );
+        fs.deleteFile( tempFile );
+        Map<Integer, LabelBitmap> labels = this.labels;
+        try ( FileChannel channel = fs.create( tempFile ) )
+        {
+            ChannelWriter writer = new ChannelWriter( channel );
+            writer.putLong( MAGIC );
+            writer.putInt( labels.size() );
+            for ( Map.Entry<Integer, LabelBitmap> label : labels.entrySet() )
+            {
+                writeBitmap( writer, label.getKey(), label.getValue() );
+            }
+            writer.flush();
+            channel.force( false );
+            snapshotSize = channel.size();
+        }
+
+        // Should we crash in between here the snapshot is gone, which only means that it gets rebuilt
+        fs.deleteFile( snapshotFile );
+        if ( !fs.renameFile( tempFile, snapshotFile ) )
+        {
+            throw new IOException( "Unable to move " + tempFile + " to " + snapshotFile );
+        }
+        log.truncate( 0 );
+        log.position( 0 );
+        log.force( false );
+    }
+
+    private static void writeBitmap( ChannelWriter writer, int labelId, LabelBitmap bitmap ) throws IOException
+    {
+        int containers = 0;
+        for ( long key = 0; key < bitmap.keyLimit(); key++ )
+        {
+            if ( bitmap.container( key ) != null )
+            {
+                containers++;
+            }
+        }
+        writer.putInt( labelId );
+        writer.putInt( containers );
+        for ( long key = 0; key < bitmap.keyLimit(); key++ )
+        {
+            Container container = bitmap.container( key );
+            if ( container == null )
+            {
+                continue;
+            }
+            writer.putLong( key );
+            writer.putByte( container.kind() );
+            writer.putInt( container.cardinality() );
+            if ( container.kind() == Container.ARRAY )
+            {
+                ArrayContainer array = (ArrayContainer) container;
+                for ( int i = 0; i < array.cardinality(); i++ )
+                {
+                    writer.putChar( array.value( i ) );
+                }
+            }
+            else
+            {
+                BitsContainer bits = (BitsContainer) container;
+                for ( int i = 0; i < BitsContainer.WORDS; i++ )
+                {
+                    writer.putLong( bits.word( i ) );
+                }
+            }
+        }
+    }
+
+    private Map<Integer, LabelBitmap> readSnapshot() throws IOException
+    {
+        long generation = ++this.generation;
+        try ( FileChannel channel = fs.open( snapshotFile, "r" ) )
+        {
+            ChannelReader reader = new ChannelReader( channel );
+            if ( reader.getLong() != MAGIC )
+            {
+                throw new IOException( "Not a label scan store snapshot: " + snapshotFile );
+            }
+            Map<Integer, LabelBitmap> labels = new HashMap<>();
+            for ( int labelCount = reader.getInt(); labelCount > 0; labelCount-- )
+            {
+                int labelId = reader.getInt();
+                LabelBitmap bitmap = new LabelBitmap( generation );
+                for ( int containers = reader.getInt(); containers > 0; containers-- )
+                {
+                    bitmap.put( reader.getLong(), readContainer( reader, generation ) );
+                }
+                labels.put( labelId, bitmap );
+            }
+            return labels;
+        }
+    }
+
+    private static Container readContainer( ChannelReader reader, long generation ) throws IOException
+    {
+        byte kind = reader.getByte();
+        int cardinality = reader.getInt();
+        if ( kind == Container.ARRAY && cardinality > 0 && cardinality <= Container.MAX_ARRAY_SIZE )
+        {
+            char[] values = new char[cardinality];
+            for ( int i = 0; i < cardinality; i++ )
+            {
+                values[i] = reader.getChar();
+            }
+            return new ArrayContainer( generation, values, cardinality );
+        }
+        if ( kind == Container.BITS && cardinality > Container.MAX_ARRAY_SIZE && cardinality <= Container.MAX_VALUE + 1 )
+        {
+            long[] words = new long[BitsContainer.WORDS];
+            for ( int i = 0; i < words.length; i++ )
+            {
+                words[i] = reader.getLong();
+            }
+            return new BitsContainer( generation, words, cardinality );
+        }
+        throw new IOException( "Invalid container of kind " + kind + " with " + cardinality + " values" );
+    }
+
+    private static class ChannelWriter
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+
+        ChannelWriter( FileChannel channel )
+        {
+            this.channel = channel;
+        }
+
+        void putByte( byte value ) throws IOException
+        {
+            room( 1 ).put( value );
+        }
+
+        void putChar( char value ) throws IOException
+        {
+            room( 2 ).putChar( value );
+        }
+
+        void putInt( int value ) throws IOException
+        {
+            room( 4 ).putInt( value );
+        }
+
+        void putLong( long value ) throws IOException
+        {
+            room( 8 ).putLong( value );
+        }
+
+        void flush() throws IOException
+        {
+            buffer.flip();
+            while ( buffer.hasRemaining() )
+            {
+                channel.write( buffer );
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer room( int bytes ) throws IOException
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                flush();
+            }
+            return buffer;
+        }
+    }
+
+    private static class ChannelReader
+    {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+        private long position;
+
+        ChannelReader( FileChannel channel ) throws IOException
+        {
+            this.channel = channel;
+            this.position = channel.position();
+            buffer.flip();
+        }
+
+        byte getByte() throws IOException
+        {
+            return available( 1 ).get();
+        }
+
+        char getChar() throws IOException
+        {
+            return available( 2 ).getChar();
+        }
+
+        int getInt() throws IOException
+        {
+            return available( 4 ).getInt();
+        }
+
+        long getLong() throws IOException
+        {
+            return available( 8 ).getLong();
+        }
+
+        /**
+         * @return the position in the channel of the next value to read.
+         */
+        long position()
+        {
+            return position - buffer.remaining();
+        }
+
+        private ByteBuffer available( int bytes ) throws IOException
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                buffer.compact();
+                while ( buffer.position() < bytes )
+                {
+                    int read = channel.read( buffer );
+                    if ( read == -1 )
+                    {
+                        throw new EOFException();
+                    }
+                    position += read;
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Presents the labels of the nodes in ranges of the same size as the containers, for the consistency checker.
+     */
+    private static class BitmapAllEntriesReader implements AllEntriesLabelScanReader
+    {
+        private final Map<Integer, LabelBitmap> labels;
+        private final long keyLimit;
+
+        BitmapAllEntriesReader( Map<Integer, LabelBitmap> labels )
+        {
+            this.labels = labels;
+            long keyLimit = 0;
+            for ( LabelBitmap bitmap : labels.values() )
+            {
+                keyLimit = Math.max( keyLimit, bitmap.keyLimit() );
+            }
+            this.keyLimit = keyLimit;
+        }
+
+        @Override
+        public long maxCount()
+        {
+            return keyLimit;
+        }
+
+        @Override
+        public void close()
+        {   // Nothing to close
+        }
+
+        @Override
+        public Iterator<NodeLabelRange> iterator()
+        {
+            return new Iterator<NodeLabelRange>()
+            {
+                private long key;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return key < keyLimit;
+                }
+
+                @Override
+                public NodeLabelRange next()
+                {
+                    if ( !hasNext() )
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    return range( key++ );
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        private NodeLabelRange range( final long key )
+        {
+            // Low node id bits --> labels, kept sorted by node id
+            final Map<Integer, List<Long>> labelsByNode = new java.util.TreeMap<>();
+            for ( Map.Entry<Integer, LabelBitmap> label : labels.entrySet() )
+            {
+                Container container = label.getValue().container( key );
+                for ( int value = container == null ? -1 : container.next( 0 ); value != -1;
+                      value = container.next( value + 1 ) )
+                {
+                    List<Long> nodeLabels = labelsByNode.get( value );
+                    if ( nodeLabels == null )
+                    {
+                        labelsByNode.put( value, nodeLabels = new ArrayList<>() );
+                    }
+                    nodeLabels.add( (long) label.getKey() );
+                }
+            }
+
+            final long[] nodes = new long[labelsByNode.size()];
+            final long[][] nodeLabels = new long[nodes.length][];
+            int i = 0;
+            for ( Map.Entry<Integer, List<Long>> node : labelsByNode.entrySet() )
+            {
+                nodes[i] = (key << LabelBitmap.CONTAINER_BITS) | node.getKey();
+                nodeLabels[i] = new long[node.getValue().size()];
+                for ( int j = 0; j < nodeLabels[i].length; j++ )
+                {
+                    nodeLabels[i][j] = node.getValue().get( j );
+                }
+                Arrays.sort( nodeLabels[i] );
+                i++;
+            }
+
+            return new NodeLabelRange()
+            {
+                @Override
+                public int id()
+                {
+                    return (int) key;
+                }
+
+                @Override
+                public long[] nodes()
+                {
+                    return nodes;
+                }
+
+                @Override
+                public long[] labels( long nodeId )
+                {
+                    int index = Arrays.binarySearch( nodes, nodeId );
+                    return index < 0 ? new long[0] : nodeLabels[index];
+                }
+            };
+        }
+    }
+}
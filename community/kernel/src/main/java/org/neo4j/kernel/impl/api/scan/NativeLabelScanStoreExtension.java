@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Service;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreProvider;
+import org.neo4j.kernel.logging.Logging;
+
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.directoryOf;
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.fullStoreLabelUpdateStream;
+
+/**
+ * Provides the {@link NativeLabelScanStore}. It gets the highest priority of the label scan stores when
+ * {@link GraphDatabaseSettings#label_scan_store} is set to "native", and the lowest one otherwise.
+ */
+@Service.Implementation(KernelExtensionFactory.class)
+public class NativeLabelScanStoreExtension extends KernelExtensionFactory<NativeLabelScanStoreExtension.Dependencies>
+{
+    public static final String NAME = "native";
+
+    private static final int SELECTED_PRIORITY = 50;
+    private static final int DEFAULT_PRIORITY = 1;
+
+    public interface Dependencies
+    {
+        Config getConfig();
+
+        FileSystemAbstraction getFileSystem();
+
+        NeoStoreProvider getNeoStoreProvider();
+
+        Logging getLogging();
+    }
+
+    public NativeLabelScanStoreExtension()
+    {
+        super( NAME );
+    }
+
+    @Override
+    public LabelScanStoreProvider newKernelExtension( Dependencies dependencies ) throws Throwable
+    {
+        Config config = dependencies.getConfig();
+        File storeDir = config.get( GraphDatabaseSettings.store_dir );
+        NativeLabelScanStore scanStore = new NativeLabelScanStore(
+                // <db>/schema/label/native
+                directoryOf( storeDir, NAME ),
+
+                dependencies.getFileSystem(),
+                fullStoreLabelUpdateStream( dependencies.getNeoStoreProvider() ),
+                dependencies.getLogging().getMessagesLog( NativeLabelScanStore.class ) );
+
+        boolean selected = NAME.equals( config.get( GraphDatabaseSettings.label_scan_store ) );
+        return new LabelScanStoreProvider( NAME, storeDir, dependencies.getFileSystem(), scanStore,
+                selected ? SELECTED_PRIORITY : DEFAULT_PRIORITY );
+    }
+}
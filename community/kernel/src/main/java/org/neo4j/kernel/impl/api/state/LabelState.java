@@ -25,14 +25,15 @@ import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 
 public final class LabelState extends EntityState
 {
-    private final DiffSets<Long> nodeDiffSets = new DiffSets<Long>();
+    private final DiffSets<Long> nodeDiffSets;
     private final DiffSets<IndexDescriptor> indexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<IndexDescriptor> constraintIndexChanges = new DiffSets<IndexDescriptor>();
     private final DiffSets<UniquenessConstraint> constraintsChanges = new DiffSets<UniquenessConstraint>();
 
-    public LabelState( long id )
+    public LabelState( long id, TxStateMemory memory )
     {
         super( id );
+        this.nodeDiffSets = new PrimitiveLongDiffSets( memory );
     }
 
     public DiffSets<Long> getNodeDiffSets()
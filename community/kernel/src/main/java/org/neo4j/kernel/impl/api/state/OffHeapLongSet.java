@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An open addressing hash set of entity ids, kept in a buffer handed out by {@link TxStateMemory} rather than as
+ * boxed {@link Long} instances on the heap. Entity ids are never negative, which is what lets negative values mark
+ * free and removed slots.
+ *
+ * This implements {@link java.util.Set} so that it can be used in {@link org.neo4j.kernel.impl.api.DiffSets}
+ * without changing how transaction state is read, but elements are only boxed on their way out.
+ *
+ * The set is closed along with its {@link TxStateMemory}, after which any use of it, including through iterators
+ * handed out earlier, throws {@link IllegalStateException}.
+ */
+public class OffHeapLongSet extends AbstractSet<Long>
+{
+    private static final long FREE = -1;
+    private static final long REMOVED = -2;
+    private static final int INITIAL_CAPACITY = 32;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private final TxStateMemory memory;
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int removed;
+
+    public OffHeapLongSet( TxStateMemory memory )
+    {
+        this.memory = memory;
+        allocate( INITIAL_CAPACITY );
+        memory.register( this );
+    }
+
+    @Override
+    public boolean add( Long value )
+    {
+        return add( value.longValue() );
+    }
+
+    public boolean add( long value )
+    {
+        assertValid( value );
+        int slot = slotFor( value );
+        int firstRemoved = -1;
+        while ( true )
+        {
+            long current = get( slot );
+            if ( current == value )
+            {
+                return false;
+            }
+            if ( current == FREE )
+            {
+                break;
+            }
+            if ( current == REMOVED && firstRemoved == -1 )
+            {
+                firstRemoved = slot;
+            }
+            slot = next( slot );
+        }
+
+        if ( firstRemoved != -1 )
+        {
+            put( firstRemoved, value );
+            removed--;
+        }
+        else
+        {
+            put( slot, value );
+        }
+        size++;
+        if ( (size + removed) * 4L > capacity * 3L )
+        {
+            rehash( size * 2L > capacity ? capacity * 2 : capacity );
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains( Object value )
+    {
+        return value instanceof Long && contains( ((Long) value).longValue() );
+    }
+
+    public boolean contains( long value )
+    {
+        return value >= 0 && find( value ) != -1;
+    }
+
+    @Override
+    public boolean remove( Object value )
+    {
+        return value instanceof Long && remove( ((Long) value).longValue() );
+    }
+
+    public boolean remove( long value )
+    {
+        int slot = value >= 0 ? find( value ) : -1;
+        if ( slot == -1 )
+        {
+            return false;
+        }
+        removeAt( slot );
+        return true;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        memory.release( slots() );
+        size = 0;
+        removed = 0;
+        allocate( INITIAL_CAPACITY );
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        return new Iterator<Long>()
+        {
+            private int slot = -1;
+            private int nextSlot = advance( -1 );
+
+            @Override
+            public boolean hasNext()
+            {
+                slots();
+                return nextSlot < capacity;
+            }
+
+            @Override
+            public Long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                slot = nextSlot;
+                nextSlot = advance( slot );
+                return get( slot );
+            }
+
+            @Override
+            public void remove()
+            {
+                if ( slot == -1 || get( slot ) < 0 )
+                {
+                    throw new IllegalStateException();
+                }
+                removeAt( slot );
+            }
+
+            private int advance( int from )
+            {
+                int candidate = from + 1;
+                while ( candidate < capacity && get( candidate ) < 0 )
+                {
+                    candidate++;
+                }
+                return candidate;
+            }
+        };
+    }
+
+    /**
+     * Lets go of the buffer of this set, without giving it back to its memory, which is about to free it.
+     */
+    void close()
+    {
+        slots = null;
+        size = 0;
+        removed = 0;
+    }
+
+    private int find( long value )
+    {
+        int slot = slotFor( value );
+        while ( true )
+        {
+            long current = get( slot );
+            if ( current == value )
+            {
+                return slot;
+            }
+            if ( current == FREE )
+            {
+                return -1;
+            }
+            slot = next( slot );
+        }
+    }
+
+    private void removeAt( int slot )
+    {
+        put( slot, REMOVED );
+        size--;
+        removed++;
+    }
+
+    private void rehash( int newCapacity )
+    {
+        if ( newCapacity > MAX_CAPACITY )
+        {
+            throw new IllegalStateException( "Too many entities changed in a single transaction, at most " +
+                    (MAX_CAPACITY / 4 * 3) + " can be tracked per kind of change" );
+        }
+        ByteBuffer oldSlots = slots();
+        int oldCapacity = capacity;
+        allocate( newCapacity );
+        removed = 0;
+        for ( int i = 0; i < oldCapacity; i++ )
+        {
+            long value = oldSlots.getLong( i << 3 );
+            if ( value >= 0 )
+            {
+                int slot = slotFor( value );
+                while ( get( slot ) != FREE )
+                {
+                    slot = next( slot );
+                }
+                put( slot, value );
+            }
+        }
+        memory.release( oldSlots );
+    }
+
+    private void allocate( int newCapacity )
+    {
+        capacity = newCapacity;
+        slots = memory.allocate( newCapacity << 3 );
+        for ( int i = 0; i < newCapacity; i++ )
+        {
+            put( i, FREE );
+        }
+    }
+
+    private int slotFor( long value )
+    {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    private int next( int slot )
+    {
+        return (slot + 1) & (capacity - 1);
+    }
+
+    private long get( int slot )
+    {
+        return slots().getLong( slot << 3 );
+    }
+
+    private void put( int slot, long value )
+    {
+        slots().putLong( slot << 3, value );
+    }
+
+    private ByteBuffer slots()
+    {
+        ByteBuffer slots = this.slots;
+        if ( slots == null )
+        {
+            throw new IllegalStateException( "The transaction this set belongs to is closed" );
+        }
+        return slots;
+    }
+
+    private static void assertValid( long value )
+    {
+        if ( value < 0 )
+        {
+            throw new IllegalArgumentException( "Entity ids can not be negative, got " + value );
+        }
+    }
+}
@@ -76,15 +76,6 @@ import static org.neo4j.helpers.collection.Iterables.map;
  */
 public final class TxStateImpl implements TxState
 {
-    private static final StateCreator<LabelState> LABEL_STATE_CREATOR = new StateCreator<LabelState>()
-    {
-        @Override
-        public LabelState newState( long id )
-        {
-            return new LabelState( id );
-        }
-    };
-
     private static final StateCreator<NodeState> NODE_STATE_CREATOR = new StateCreator<NodeState>()
     {
         @Override
@@ -119,16 +110,42 @@ public final class TxStateImpl implements TxState
     private final OldTxStateBridge legacyState;
     private final PersistenceManager persistenceManager; // should go away dammit!
     private final IdGeneration idGeneration; // needed when we move createNode() and createRelationship() to here...
+    private final TxStateMemory memory;
+    private final StateCreator<LabelState> labelStateCreator = new StateCreator<LabelState>()
+    {
+        @Override
+        public LabelState newState( long id )
+        {
+            return new LabelState( id, memory );
+        }
+    };
 
     private boolean hasChanges;
 
     public TxStateImpl( OldTxStateBridge legacyState,
                     PersistenceManager legacyTransaction,
                     IdGeneration idGeneration )
+    {
+        this( legacyState, legacyTransaction, idGeneration, new TxStateMemory( TxStateMemory.DEFAULT_BUDGET ) );
+    }
+
+    public TxStateImpl( OldTxStateBridge legacyState,
+                    PersistenceManager legacyTransaction,
+                    IdGeneration idGeneration, TxStateMemory memory )
     {
         this.legacyState = legacyState;
         this.persistenceManager = legacyTransaction;
         this.idGeneration = idGeneration;
+        this.memory = memory;
+    }
+
+    /**
+     * Releases the memory, and any temporary file, holding the primitive parts of this state.
+     * The state must not be used after this.
+     */
+    public void close()
+    {
+        memory.close();
     }
 
     @Override
@@ -535,7 +552,7 @@ public final class TxStateImpl implements TxState
     {
         if ( !hasDeletedNodesDiffSets() )
         {
-            deletedNodes = new DiffSets<>();
+            deletedNodes = new PrimitiveLongDiffSets( memory );
         }
         return deletedNodes;
     }
@@ -549,7 +566,7 @@ public final class TxStateImpl implements TxState
     {
         if ( !hasDeletedRelationshipsDiffSets() )
         {
-            deletedRelationships = new DiffSets<>();
+            deletedRelationships = new PrimitiveLongDiffSets( memory );
         }
         return deletedRelationships;
     }
@@ -561,7 +578,7 @@ public final class TxStateImpl implements TxState
 
     private LabelState getOrCreateLabelState( int labelId )
     {
-        return getState( labelStatesMap(), labelId, LABEL_STATE_CREATOR );
+        return getState( labelStatesMap(), labelId, labelStateCreator );
     }
 
     private NodeState getOrCreateNodeState( long nodeId )
@@ -623,7 +640,7 @@ public final class TxStateImpl implements TxState
             @Override
             public boolean accept( UniquenessConstraint item )
             {
-                return item.propertyKeyId() == propertyKey;
+                return item.containsPropertyKeyId( propertyKey );
             }
         } );
     }
@@ -659,7 +676,7 @@ public final class TxStateImpl implements TxState
             // I think this can wait until commit/rollback, but we need to be able to know that the index was created...
         }
 
-        constraintIndexDoDrop( new IndexDescriptor( constraint.label(), constraint.propertyKeyId() ));
+        constraintIndexDoDrop( new IndexDescriptor( constraint.label(), constraint.propertyKeyIds() ));
         constraintsChangesForLabel( constraint.label() ).remove( constraint );
         hasChanges = true;
     }
@@ -670,7 +687,7 @@ public final class TxStateImpl implements TxState
         // hasChanges should already be set correctly when this is called
         if(constraintsChanges().unRemove( constraint ))
         {
-            constraintIndexChanges.unRemove( new IndexDescriptor( constraint.label(), constraint.propertyKeyId() ) );
+            constraintIndexChanges.unRemove( new IndexDescriptor( constraint.label(), constraint.propertyKeyIds() ) );
             return true;
         }
         return false;
@@ -689,7 +706,7 @@ public final class TxStateImpl implements TxState
                    @Override
                    public IndexDescriptor apply( UniquenessConstraint constraint )
                    {
-                       return new IndexDescriptor( constraint.label(), constraint.propertyKeyId() );
+                       return new IndexDescriptor( constraint.label(), constraint.propertyKeyIds() );
                    }
                }, constraintMap.keySet() );
            }
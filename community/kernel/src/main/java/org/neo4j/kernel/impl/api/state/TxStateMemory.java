@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.neo4j.kernel.impl.util.DirectBuffers;
+
+/**
+ * Hands out the buffers that back the entity id sets of a transaction's state, see {@link OffHeapLongSet}. Buffers
+ * are allocated outside of the heap until the budget of the transaction is used up, after which they are mapped
+ * from a temporary file instead, leaving it to the OS to decide how much of that file is kept in memory. Small
+ * buffers are kept on the heap, since allocating direct memory for them costs more than it saves.
+ *
+ * Direct and mapped buffers are freed as soon as they're {@link #release(ByteBuffer) released}, and the ones still
+ * in use when the transaction is done are freed by {@link #close()}, rather than left for the garbage collector to
+ * find. Before that, {@link #close()} closes the sets backed by this memory, so that reading a set, or an iterator
+ * over it, that outlived the transaction fails with an exception rather than reading memory no longer mapped.
+ * Instances are not thread safe, and are meant to be owned by a single transaction, which must close it once the
+ * transaction is done.
+ */
+public class TxStateMemory
+{
+    public static final long DEFAULT_BUDGET = 64 * 1024 * 1024;
+
+    private static final int SMALL_BUFFER = 8 * 1024;
+
+    private final long budget;
+    private long allocated;
+    private File spillFile;
+    private RandomAccessFile spillChannelOwner;
+    private FileChannel spillChannel;
+    private long spillPosition;
+    private final Set<ByteBuffer> direct = Collections.newSetFromMap( new IdentityHashMap<ByteBuffer, Boolean>() );
+    private final Set<ByteBuffer> spilled = Collections.newSetFromMap( new IdentityHashMap<ByteBuffer, Boolean>() );
+    private final List<OffHeapLongSet> sets = new ArrayList<>();
+    private boolean closed;
+
+    public TxStateMemory( long budget )
+    {
+        this.budget = budget;
+    }
+
+    public ByteBuffer allocate( int bytes )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "The transaction owning this memory is closed" );
+        }
+        if ( bytes <= SMALL_BUFFER )
+        {
+            return ByteBuffer.allocate( bytes );
+        }
+        if ( allocated + bytes <= budget )
+        {
+            ByteBuffer buffer = ByteBuffer.allocateDirect( bytes );
+            allocated += bytes;
+            direct.add( buffer );
+            return buffer;
+        }
+        return spill( bytes );
+    }
+
+    /**
+     * Give back a buffer previously handed out by {@link #allocate(int)}, which will no longer be used.
+     */
+    public void release( ByteBuffer buffer )
+    {
+        if ( direct.remove( buffer ) )
+        {
+            allocated -= buffer.capacity();
+            DirectBuffers.free( buffer );
+        }
+        else if ( spilled.remove( buffer ) )
+        {   // The region of the file isn't reused, but at least it no longer takes up address space
+            DirectBuffers.free( buffer );
+        }
+    }
+
+    public long allocatedBytes()
+    {
+        return allocated;
+    }
+
+    public long spilledBytes()
+    {
+        return spillPosition;
+    }
+
+    /**
+     * Called by sets backed by this memory, to be closed along with it.
+     */
+    void register( OffHeapLongSet set )
+    {
+        sets.add( set );
+    }
+
+    public void close()
+    {
+        closed = true;
+        for ( OffHeapLongSet set : sets )
+        {
+            set.close();
+        }
+        sets.clear();
+        freeAll( direct );
+        freeAll( spilled );
+        allocated = 0;
+        if ( spillChannelOwner != null )
+        {
+            try
+            {
+                spillChannelOwner.close();
+            }
+            catch ( IOException e )
+            {
+                // Nothing more to do about it, the file is removed below anyway
+            }
+            finally
+            {
+                spillFile.delete();
+                spillChannelOwner = null;
+                spillChannel = null;
+                spillFile = null;
+                spillPosition = 0;
+            }
+        }
+    }
+
+    private ByteBuffer spill( int bytes )
+    {
+        try
+        {
+            if ( spillChannel == null )
+            {
+                spillFile = File.createTempFile( "neo4j-txstate", ".tmp" );
+                spillChannelOwner = new RandomAccessFile( spillFile, "rw" );
+                spillChannel = spillChannelOwner.getChannel();
+            }
+            ByteBuffer buffer = spillChannel.map( FileChannel.MapMode.READ_WRITE, spillPosition, bytes );
+            spillPosition += bytes;
+            spilled.add( buffer );
+            return buffer;
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( "Transaction state exceeded its memory budget of " + budget +
+                    " bytes, and could not be moved to a temporary file", e );
+        }
+    }
+
+    private static void freeAll( Set<ByteBuffer> buffers )
+    {
+        for ( ByteBuffer buffer : buffers )
+        {
+            DirectBuffers.free( buffer );
+        }
+        buffers.clear();
+    }
+}
@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.helpers.Counter;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * A cache that keeps the bulk of its entities serialized in direct memory, out of reach of the garbage collector.
+ * <p>
+ * Entities are mutable and handed out by reference, so the most recently used ones are kept as live objects in a
+ * bounded on-heap tier. Entities falling out of that tier are serialized into an {@link OffHeapStore} and are
+ * deserialized into a new instance, which moves back into the on-heap tier, when asked for again. An entity is
+ * only ever in one of the tiers. The off-heap tier is bounded in bytes and drops its oldest entries when full.
+ * <p>
+ * The cache is split into stripes to keep contention down. Serialization happens outside of the stripe lock,
+ * while holding the monitor of the entity itself, which is what the entities synchronize their own mutations on.
+ * The stripe lock is never held while acquiring an entity monitor since entities call
+ * {@link #updateSize(EntityWithSizeObject, int)} while holding their own monitor.
+ * <p>
+ * A mutation of an instance that is no longer in the on-heap tier, signaled through
+ * {@link #updateSize(EntityWithSizeObject, int)}, drops the entity from the cache altogether since any serialized
+ * or deserialized copy of it would be stale.
+ */
+public class OffHeapCache<E extends EntityWithSizeObject> implements Cache<E>
+{
+    /**
+     * Converts entities to and from the bytes kept off heap. {@link #write(Object, DataOutput)} is called while
+     * holding the monitor of the entity.
+     */
+    public interface Serializer<E>
+    {
+        /**
+         * @throws IOException if the entity can't be serialized, it's then just left out of the cache.
+         */
+        void write( E entity, DataOutput out ) throws IOException;
+
+        E read( long id, DataInput in ) throws IOException;
+    }
+
+    private static final int STRIPES = 16;
+    private static final int MAX_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    private static final int MIN_SEGMENTS = 4;
+
+    private final String name;
+    private final Serializer<E> serializer;
+    private final StringLogger logger;
+    private final Stripe<E>[] stripes;
+    private final HitCounter counter = new HitCounter();
+    private final Counter offHeapHits = new Counter();
+    private final Counter serializationFailures = new Counter();
+
+    @SuppressWarnings( "unchecked" )
+    public OffHeapCache( String name, Serializer<E> serializer, long maxOffHeapBytes, int maxHeapEntries,
+            StringLogger logger )
+    {
+        if ( maxOffHeapBytes < 0 || maxHeapEntries < 1 )
+        {
+            throw new IllegalArgumentException( "maxOffHeapBytes=" + maxOffHeapBytes +
+                    ", maxHeapEntries=" + maxHeapEntries );
+        }
+        this.name = name;
+        this.serializer = serializer;
+        this.logger = logger;
+
+        long bytesPerStripe = maxOffHeapBytes / STRIPES;
+        int segmentSize = (int) Math.max( MIN_SEGMENT_SIZE,
+                Math.min( MAX_SEGMENT_SIZE, bytesPerStripe / (MIN_SEGMENTS * 2) ) );
+        int segmentCount = (int) Math.max( MIN_SEGMENTS, Math.min( Integer.MAX_VALUE, bytesPerStripe / segmentSize ) );
+        int heapEntriesPerStripe = Math.max( 1, maxHeapEntries / STRIPES );
+        this.stripes = new Stripe[STRIPES];
+        for ( int i = 0; i < stripes.length; i++ )
+        {
+            stripes[i] = new Stripe<>( heapEntriesPerStripe, segmentSize, segmentCount );
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public E put( E value )
+    {
+        long id = value.getId();
+        Stripe<E> stripe = stripeFor( id );
+        E result;
+        List<E> evicted;
+        synchronized ( stripe )
+        {
+            E existing = stripe.heap.get( id );
+            if ( existing != null )
+            {
+                return existing;
+            }
+            existing = stripe.evicting.remove( id );
+            if ( existing != null )
+            {
+                result = existing;
+            }
+            else
+            {
+                // Whatever was loaded from the store now takes precedence over an older copy
+                stripe.store.remove( id );
+                result = value;
+            }
+            stripe.heap.put( id, result );
+            evicted = stripe.evictOverflow();
+        }
+        moveOffHeap( stripe, evicted );
+        return result;
+    }
+
+    @Override
+    public void putAll( Collection<E> values )
+    {
+        for ( E value : values )
+        {
+            put( value );
+        }
+    }
+
+    @Override
+    public E get( long key )
+    {
+        Stripe<E> stripe = stripeFor( key );
+        E result;
+        List<E> evicted;
+        synchronized ( stripe )
+        {
+            result = stripe.heap.get( key );
+            if ( result != null )
+            {
+                return counter.count( result );
+            }
+            result = stripe.evicting.remove( key );
+            if ( result == null )
+            {
+                byte[] data = stripe.store.get( key );
+                if ( data != null )
+                {
+                    stripe.store.remove( key );
+                    result = deserialize( key, data );
+                    if ( result != null )
+                    {
+                        offHeapHits.inc();
+                    }
+                }
+            }
+            if ( result == null )
+            {
+                return counter.count( null );
+            }
+            stripe.heap.put( key, result );
+            evicted = stripe.evictOverflow();
+        }
+        moveOffHeap( stripe, evicted );
+        return counter.count( result );
+    }
+
+    @Override
+    public E remove( long key )
+    {
+        Stripe<E> stripe = stripeFor( key );
+        synchronized ( stripe )
+        {
+            stripe.store.remove( key );
+            E removed = stripe.heap.remove( key );
+            E removedWhileEvicting = stripe.evicting.remove( key );
+            return removed != null ? removed : removedWhileEvicting;
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        for ( Stripe<E> stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.heap.clear();
+                stripe.evicting.clear();
+                stripe.store.clear();
+            }
+        }
+    }
+
+    @Override
+    public long size()
+    {
+        long size = 0;
+        for ( Stripe<E> stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                size += stripe.heap.size() + stripe.evicting.size() + stripe.store.entryCount();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long hitCount()
+    {
+        return counter.getHitsCount();
+    }
+
+    @Override
+    public long missCount()
+    {
+        return counter.getMissCount();
+    }
+
+    @Override
+    public void updateSize( E entity, int newSize )
+    {
+        long id = entity.getId();
+        Stripe<E> stripe = stripeFor( id );
+        synchronized ( stripe )
+        {
+            E live = stripe.heap.get( id );
+            if ( live == entity )
+            {
+                return;
+            }
+            // An instance outside of the on-heap tier changed, every other copy of it is now stale
+            if ( live != null )
+            {
+                stripe.heap.remove( id );
+            }
+            stripe.evicting.remove( id );
+            stripe.store.remove( id );
+        }
+    }
+
+    @Override
+    public void printStatistics()
+    {
+        long heapEntries = 0, offHeapEntries = 0, offHeapBytes = 0, allocatedBytes = 0;
+        for ( Stripe<E> stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                heapEntries += stripe.heap.size() + stripe.evicting.size();
+                offHeapEntries += stripe.store.entryCount();
+                offHeapBytes += stripe.store.entryBytes();
+                allocatedBytes += stripe.store.allocatedBytes();
+            }
+        }
+        logger.logMessage( name + " on heap: " + heapEntries + ", off heap: " + offHeapEntries + " (" +
+                offHeapBytes + "b of " + allocatedBytes + "b allocated), hits: " + hitCount() + " (" +
+                offHeapHits.count() + " off heap), misses: " + missCount() + ", serialization failures: " +
+                serializationFailures.count(), true );
+    }
+
+    private Stripe<E> stripeFor( long id )
+    {
+        return stripes[(int) (id & (STRIPES - 1))];
+    }
+
+    private void moveOffHeap( Stripe<E> stripe, List<E> evicted )
+    {
+        if ( evicted == null )
+        {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( 128 );
+        for ( E entity : evicted )
+        {
+            bytes.reset();
+            boolean serialized;
+            synchronized ( entity )
+            {
+                serialized = serialize( entity, bytes );
+            }
+            long id = entity.getId();
+            synchronized ( stripe )
+            {
+                // It may have been asked for, removed or changed while we were serializing it
+                if ( stripe.evicting.get( id ) == entity )
+                {
+                    stripe.evicting.remove( id );
+                    if ( serialized )
+                    {
+                        stripe.store.put( id, bytes.toByteArray(), bytes.size() );
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean serialize( E entity, ByteArrayOutputStream target )
+    {
+        try
+        {
+            serializer.write( entity, new DataOutputStream( target ) );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            serializationFailures.inc();
+            return false;
+        }
+    }
+
+    private E deserialize( long id, byte[] data )
+    {
+        try
+        {
+            return serializer.read( id, new DataInputStream( new ByteArrayInputStream( data ) ) );
+        }
+        catch ( IOException e )
+        {
+            serializationFailures.inc();
+            logger.warn( "Unable to read " + id + " from " + name + ", dropping it from the cache", e );
+            return null;
+        }
+    }
+
+    private static class Stripe<E extends EntityWithSizeObject>
+    {
+        private final int maxHeapEntries;
+        private final LinkedHashMap<Long,E> heap = new LinkedHashMap<>( 16, 0.75f, true );
+        // Entities taken out of the on-heap tier, but not yet serialized into the off-heap tier
+        private final Map<Long,E> evicting = new HashMap<>();
+        private final OffHeapStore store;
+
+        Stripe( int maxHeapEntries, int segmentSize, int segmentCount )
+        {
+            this.maxHeapEntries = maxHeapEntries;
+            this.store = new OffHeapStore( segmentSize, segmentCount );
+        }
+
+        List<E> evictOverflow()
+        {
+            List<E> evicted = null;
+            for ( Iterator<E> eldest = heap.values().iterator(); heap.size() > maxHeapEntries; )
+            {
+                E entity = eldest.next();
+                eldest.remove();
+                evicting.put( entity.getId(), entity );
+                if ( evicted == null )
+                {
+                    evicted = new ArrayList<>( 2 );
+                }
+                evicted.add( entity );
+            }
+            return evicted;
+        }
+    }
+}
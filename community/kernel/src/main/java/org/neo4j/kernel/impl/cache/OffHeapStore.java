@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Byte arrays keyed by id, kept in direct memory outside of the Java heap.
+ * <p>
+ * Entries are appended to a ring of fixed size segments. When the ring is full the oldest segment is
+ * recycled and all entries still in it are dropped, which keeps the memory used within
+ * {@code segmentSize * segmentCount} bytes. The only bookkeeping on the heap is an open addressing index from
+ * id to location, kept in primitive arrays so that it doesn't add to what the garbage collector has to trace.
+ * Entries that are removed or replaced leave garbage in their segment until it is recycled.
+ * <p>
+ * Not thread safe, callers need to synchronize.
+ */
+class OffHeapStore
+{
+    private static final int HEADER_SIZE = 8/*id*/ + 4/*length*/;
+    private static final long EMPTY = -1;
+    private static final long REMOVED = -2;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    private final ByteBuffer[] segments;
+    private final int[] segmentEnds;
+    private final int segmentSize;
+    private int currentSegment;
+    private int writePosition;
+
+    private long[] keys;
+    private long[] locations;
+    private int entryCount;
+    private int usedSlots;
+    private long entryBytes;
+
+    OffHeapStore( int segmentSize, int segmentCount )
+    {
+        if ( segmentSize <= HEADER_SIZE || segmentCount < 1 )
+        {
+            throw new IllegalArgumentException( "Illegal segment size " + segmentSize + " or count " + segmentCount );
+        }
+        this.segmentSize = segmentSize;
+        this.segments = new ByteBuffer[segmentCount];
+        this.segmentEnds = new int[segmentCount];
+        initIndex( INITIAL_INDEX_CAPACITY );
+    }
+
+    /**
+     * Stores {@code length} bytes of {@code data} for {@code id}, replacing any previous entry for it.
+     *
+     * @return {@code false} if the entry is too big to store at all, in which case any previous entry for
+     * {@code id} is removed.
+     */
+    boolean put( long id, byte[] data, int length )
+    {
+        int entrySize = HEADER_SIZE + length;
+        if ( entrySize > segmentSize )
+        {
+            remove( id );
+            return false;
+        }
+        if ( writePosition + entrySize > segmentSize )
+        {
+            segmentEnds[currentSegment] = writePosition;
+            currentSegment = (currentSegment + 1) % segments.length;
+            recycle( currentSegment );
+            writePosition = 0;
+        }
+        ByteBuffer segment = segment( currentSegment );
+        segment.putLong( writePosition, id );
+        segment.putInt( writePosition + 8, length );
+        segment.position( writePosition + HEADER_SIZE );
+        segment.put( data, 0, length );
+
+        remove( id );
+        putLocation( id, location( currentSegment, writePosition ) );
+        entryCount++;
+        entryBytes += length;
+        writePosition += entrySize;
+        segmentEnds[currentSegment] = writePosition;
+        return true;
+    }
+
+    /**
+     * @return a copy of the bytes stored for {@code id}, or {@code null} if there are none.
+     */
+    byte[] get( long id )
+    {
+        int slot = findSlot( id );
+        if ( slot == -1 )
+        {
+            return null;
+        }
+        long location = locations[slot];
+        ByteBuffer segment = segments[segmentOf( location )];
+        int offset = offsetOf( location );
+        byte[] data = new byte[segment.getInt( offset + 8 )];
+        segment.position( offset + HEADER_SIZE );
+        segment.get( data );
+        return data;
+    }
+
+    boolean contains( long id )
+    {
+        return findSlot( id ) != -1;
+    }
+
+    boolean remove( long id )
+    {
+        int slot = findSlot( id );
+        if ( slot == -1 )
+        {
+            return false;
+        }
+        long location = locations[slot];
+        entryBytes -= segments[segmentOf( location )].getInt( offsetOf( location ) + 8 );
+        entryCount--;
+        keys[slot] = REMOVED;
+        return true;
+    }
+
+    void clear()
+    {
+        Arrays.fill( segmentEnds, 0 );
+        currentSegment = 0;
+        writePosition = 0;
+        entryCount = 0;
+        entryBytes = 0;
+        initIndex( INITIAL_INDEX_CAPACITY );
+    }
+
+    int entryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * @return the number of bytes of all entries currently stored, not counting headers or garbage.
+     */
+    long entryBytes()
+    {
+        return entryBytes;
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated so far.
+     */
+    long allocatedBytes()
+    {
+        long allocated = 0;
+        for ( ByteBuffer segment : segments )
+        {
+            if ( segment != null )
+            {
+                allocated += segment.capacity();
+            }
+        }
+        return allocated;
+    }
+
+    private ByteBuffer segment( int index )
+    {
+        if ( segments[index] == null )
+        {   // Allocated on first use so that a generous budget doesn't cost anything until the cache fills up
+            segments[index] = ByteBuffer.allocateDirect( segmentSize );
+        }
+        return segments[index];
+    }
+
+    private void recycle( int segmentIndex )
+    {
+        ByteBuffer segment = segments[segmentIndex];
+        int end = segmentEnds[segmentIndex];
+        int offset = 0;
+        while ( offset < end )
+        {
+            long id = segment.getLong( offset );
+            int length = segment.getInt( offset + 8 );
+            int slot = findSlot( id );
+            if ( slot != -1 && locations[slot] == location( segmentIndex, offset ) )
+            {
+                keys[slot] = REMOVED;
+                entryCount--;
+                entryBytes -= length;
+            }
+            offset += HEADER_SIZE + length;
+        }
+        segmentEnds[segmentIndex] = 0;
+    }
+
+    private static long location( int segment, int offset )
+    {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segmentOf( long location )
+    {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf( long location )
+    {
+        return (int) location;
+    }
+
+    private void initIndex( int capacity )
+    {
+        keys = new long[capacity];
+        locations = new long[capacity];
+        Arrays.fill( keys, EMPTY );
+        usedSlots = 0;
+    }
+
+    private int slotFor( long id, int capacity )
+    {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (capacity - 1);
+    }
+
+    private int findSlot( long id )
+    {
+        int mask = keys.length - 1;
+        for ( int slot = slotFor( id, keys.length ); ; slot = (slot + 1) & mask )
+        {
+            long key = keys[slot];
+            if ( key == id )
+            {
+                return slot;
+            }
+            if ( key == EMPTY )
+            {
+                return -1;
+            }
+        }
+    }
+
+    private void putLocation( long id, long location )
+    {
+        if ( (usedSlots + 1) * 3 > keys.length * 2 )
+        {
+            rehash();
+        }
+        int mask = keys.length - 1;
+        int slot = slotFor( id, keys.length );
+        while ( keys[slot] != EMPTY && keys[slot] != REMOVED )
+        {
+            slot = (slot + 1) & mask;
+        }
+        if ( keys[slot] == EMPTY )
+        {
+            usedSlots++;
+        }
+        keys[slot] = id;
+        locations[slot] = location;
+    }
+
+    private void rehash()
+    {
+        long[] oldKeys = keys;
+        long[] oldLocations = locations;
+        int capacity = INITIAL_INDEX_CAPACITY;
+        while ( capacity < entryCount * 4 )
+        {
+            capacity <<= 1;
+        }
+        initIndex( capacity );
+        int mask = capacity - 1;
+        for ( int i = 0; i < oldKeys.length; i++ )
+        {
+            long key = oldKeys[i];
+            if ( key >= 0 )
+            {
+                int slot = slotFor( key, capacity );
+                while ( keys[slot] != EMPTY )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                locations[slot] = oldLocations[i];
+                usedSlots++;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.helpers.Counter;
+
+/**
+ * Counters for the query plan caches of a database, shared by every query engine running against it so that
+ * they can be monitored in one place.
+ */
+public class QueryPlanCacheStatistics
+{
+    private final Counter hits = new Counter();
+    private final Counter misses = new Counter();
+    private final Counter evictions = new Counter();
+    private final Counter invalidations = new Counter();
+    private final Counter compilations = new Counter();
+    private final AtomicLong compilationMillis = new AtomicLong();
+
+    public void hit()
+    {
+        hits.inc();
+    }
+
+    public void miss()
+    {
+        misses.inc();
+    }
+
+    public void evicted()
+    {
+        evictions.inc();
+    }
+
+    /**
+     * A cached plan was dropped because the schema it was planned against has changed.
+     */
+    public void invalidated()
+    {
+        invalidations.inc();
+    }
+
+    public void compiled( long millis )
+    {
+        compilations.inc();
+        compilationMillis.addAndGet( millis );
+    }
+
+    public long getHitCount()
+    {
+        return hits.count();
+    }
+
+    public long getMissCount()
+    {
+        return misses.count();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.count();
+    }
+
+    public long getInvalidationCount()
+    {
+        return invalidations.count();
+    }
+
+    public long getCompilationCount()
+    {
+        return compilations.count();
+    }
+
+    public long getCompilationTimeMillis()
+    {
+        return compilationMillis.get();
+    }
+}
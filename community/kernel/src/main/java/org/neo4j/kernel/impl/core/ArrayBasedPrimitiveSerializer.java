@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
+
+/**
+ * Common parts of {@link NodeImplSerializer} and {@link RelationshipImplSerializer}, i.e. the cached properties
+ * and compact encoding of numbers.
+ */
+abstract class ArrayBasedPrimitiveSerializer
+{
+    private static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+    private static final byte BOOLEAN = 0, BYTE = 1, SHORT = 2, CHAR = 3, INT = 4, LONG = 5, FLOAT = 6, DOUBLE = 7,
+            STRING = 8, BOOLEAN_ARRAY = 9, BYTE_ARRAY = 10, SHORT_ARRAY = 11, CHAR_ARRAY = 12, INT_ARRAY = 13,
+            LONG_ARRAY = 14, FLOAT_ARRAY = 15, DOUBLE_ARRAY = 16, STRING_ARRAY = 17;
+
+    static void writeProperties( ArrayBasedPrimitive primitive, DataOutput out ) throws IOException
+    {
+        if ( !primitive.hasLoadedProperties() )
+        {
+            out.writeBoolean( false );
+            return;
+        }
+        List<DefinedProperty> properties = new ArrayList<>();
+        for ( Iterator<DefinedProperty> cached = primitive.getCachedProperties(); cached.hasNext(); )
+        {
+            properties.add( cached.next() );
+        }
+        out.writeBoolean( true );
+        writeVarInt( properties.size(), out );
+        for ( DefinedProperty property : properties )
+        {
+            writeVarInt( property.propertyKeyId(), out );
+            Object value;
+            try
+            {
+                value = property.value();
+            }
+            catch ( RuntimeException e )
+            {   // A lazily loaded value that we couldn't load
+                throw new IOException( e );
+            }
+            writeValue( value, out );
+        }
+    }
+
+    static void readProperties( ArrayBasedPrimitive primitive, DataInput in ) throws IOException
+    {
+        if ( !in.readBoolean() )
+        {
+            return;
+        }
+        int count = readVarInt( in );
+        List<DefinedProperty> properties = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            int key = readVarInt( in );
+            properties.add( Property.property( key, readValue( in ) ) );
+        }
+        primitive.setProperties( properties.iterator() );
+    }
+
+    private static void writeValue( Object value, DataOutput out ) throws IOException
+    {
+        if ( value instanceof String )
+        {
+            out.writeByte( STRING );
+            writeString( (String) value, out );
+        }
+        else if ( value instanceof Integer )
+        {
+            out.writeByte( INT );
+            out.writeInt( (Integer) value );
+        }
+        else if ( value instanceof Long )
+        {
+            out.writeByte( LONG );
+            out.writeLong( (Long) value );
+        }
+        else if ( value instanceof Boolean )
+        {
+            out.writeByte( BOOLEAN );
+            out.writeBoolean( (Boolean) value );
+        }
+        else if ( value instanceof Double )
+        {
+            out.writeByte( DOUBLE );
+            out.writeDouble( (Double) value );
+        }
+        else if ( value instanceof Float )
+        {
+            out.writeByte( FLOAT );
+            out.writeFloat( (Float) value );
+        }
+        else if ( value instanceof Byte )
+        {
+            out.writeByte( BYTE );
+            out.writeByte( (Byte) value );
+        }
+        else if ( value instanceof Short )
+        {
+            out.writeByte( SHORT );
+            out.writeShort( (Short) value );
+        }
+        else if ( value instanceof Character )
+        {
+            out.writeByte( CHAR );
+            out.writeChar( (Character) value );
+        }
+        else if ( value instanceof String[] )
+        {
+            String[] array = (String[]) value;
+            out.writeByte( STRING_ARRAY );
+            writeVarInt( array.length, out );
+            for ( String item : array )
+            {
+                writeString( item, out );
+            }
+        }
+        else if ( value instanceof int[] )
+        {
+            int[] array = (int[]) value;
+            out.writeByte( INT_ARRAY );
+            writeVarInt( array.length, out );
+            for ( int item : array )
+            {
+                out.writeInt( item );
+            }
+        }
+        else if ( value instanceof long[] )
+        {
+            long[] array = (long[]) value;
+            out.writeByte( LONG_ARRAY );
+            writeVarInt( array.length, out );
+            for ( long item : array )
+            {
+                out.writeLong( item );
+            }
+        }
+        else if ( value instanceof boolean[] )
+        {
+            boolean[] array = (boolean[]) value;
+            out.writeByte( BOOLEAN_ARRAY );
+            writeVarInt( array.length, out );
+            for ( boolean item : array )
+            {
+                out.writeBoolean( item );
+            }
+        }
+        else if ( value instanceof double[] )
+        {
+            double[] array = (double[]) value;
+            out.writeByte( DOUBLE_ARRAY );
+            writeVarInt( array.length, out );
+            for ( double item : array )
+            {
+                out.writeDouble( item );
+            }
+        }
+        else if ( value instanceof float[] )
+        {
+            float[] array = (float[]) value;
+            out.writeByte( FLOAT_ARRAY );
+            writeVarInt( array.length, out );
+            for ( float item : array )
+            {
+                out.writeFloat( item );
+            }
+        }
+        else if ( value instanceof byte[] )
+        {
+            byte[] array = (byte[]) value;
+            out.writeByte( BYTE_ARRAY );
+            writeVarInt( array.length, out );
+            out.write( array );
+        }
+        else if ( value instanceof short[] )
+        {
+            short[] array = (short[]) value;
+            out.writeByte( SHORT_ARRAY );
+            writeVarInt( array.length, out );
+            for ( short item : array )
+            {
+                out.writeShort( item );
+            }
+        }
+        else if ( value instanceof char[] )
+        {
+            char[] array = (char[]) value;
+            out.writeByte( CHAR_ARRAY );
+            writeVarInt( array.length, out );
+            for ( char item : array )
+            {
+                out.writeChar( item );
+            }
+        }
+        else
+        {
+            throw new IOException( "Unsupported property value type " + value.getClass() );
+        }
+    }
+
+    private static Object readValue( DataInput in ) throws IOException
+    {
+        byte type = in.readByte();
+        switch ( type )
+        {
+        case BOOLEAN: return in.readBoolean();
+        case BYTE: return in.readByte();
+        case SHORT: return in.readShort();
+        case CHAR: return in.readChar();
+        case INT: return in.readInt();
+        case LONG: return in.readLong();
+        case FLOAT: return in.readFloat();
+        case DOUBLE: return in.readDouble();
+        case STRING: return readString( in );
+        case BOOLEAN_ARRAY:
+        {
+            boolean[] array = new boolean[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readBoolean();
+            }
+            return array;
+        }
+        case BYTE_ARRAY:
+        {
+            byte[] array = new byte[readVarInt( in )];
+            in.readFully( array );
+            return array;
+        }
+        case SHORT_ARRAY:
+        {
+            short[] array = new short[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readShort();
+            }
+            return array;
+        }
+        case CHAR_ARRAY:
+        {
+            char[] array = new char[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readChar();
+            }
+            return array;
+        }
+        case INT_ARRAY:
+        {
+            int[] array = new int[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readInt();
+            }
+            return array;
+        }
+        case LONG_ARRAY:
+        {
+            long[] array = new long[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readLong();
+            }
+            return array;
+        }
+        case FLOAT_ARRAY:
+        {
+            float[] array = new float[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readFloat();
+            }
+            return array;
+        }
+        case DOUBLE_ARRAY:
+        {
+            double[] array = new double[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = in.readDouble();
+            }
+            return array;
+        }
+        case STRING_ARRAY:
+        {
+            String[] array = new String[readVarInt( in )];
+            for ( int i = 0; i < array.length; i++ )
+            {
+                array[i] = readString( in );
+            }
+            return array;
+        }
+        default:
+            throw new IOException( "Unknown property value type " + type );
+        }
+    }
+
+    private static void writeString( String value, DataOutput out ) throws IOException
+    {
+        byte[] bytes = value.getBytes( UTF8 );
+        writeVarInt( bytes.length, out );
+        out.write( bytes );
+    }
+
+    private static String readString( DataInput in ) throws IOException
+    {
+        byte[] bytes = new byte[readVarInt( in )];
+        in.readFully( bytes );
+        return new String( bytes, UTF8 );
+    }
+
+    static void writeVarInt( int value, DataOutput out ) throws IOException
+    {
+        writeVarLong( value & 0xFFFFFFFFL, out );
+    }
+
+    static int readVarInt( DataInput in ) throws IOException
+    {
+        return (int) readVarLong( in );
+    }
+
+    /**
+     * Writes a non-negative long in as few bytes as needed, seven bits at a time.
+     */
+    static void writeVarLong( long value, DataOutput out ) throws IOException
+    {
+        while ( (value & ~0x7FL) != 0 )
+        {
+            out.writeByte( (int) ((value & 0x7F) | 0x80) );
+            value >>>= 7;
+        }
+        out.writeByte( (int) value );
+    }
+
+    static long readVarLong( DataInput in ) throws IOException
+    {
+        long value = 0;
+        for ( int shift = 0; ; shift += 7 )
+        {
+            byte b = in.readByte();
+            value |= (b & 0x7FL) << shift;
+            if ( (b & 0x80) == 0 )
+            {
+                return value;
+            }
+        }
+    }
+}
@@ -40,7 +40,6 @@ import org.neo4j.kernel.impl.api.CacheLoader;
 import org.neo4j.kernel.impl.core.WritableTransactionState.CowEntityElement;
 import org.neo4j.kernel.impl.core.WritableTransactionState.PrimitiveElement;
 import org.neo4j.kernel.impl.nioneo.store.InvalidRecordException;
-import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.CombinedRelIdIterator;
 import org.neo4j.kernel.impl.util.RelIdArray;
@@ -72,10 +71,13 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     // Sorted array
     private volatile int[] labels;
+    private static final int[] ALL_TYPES = new int[0];
+
     /*
-     * This is the id of the next relationship to load from disk.
+     * This is where to continue loading relationships from disk. It is never modified in place while
+     * loading, instead a new position is published when a batch of relationships has been loaded.
      */
-    private volatile long relChainPosition = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private volatile RelationshipLoadingPosition relChainPosition = RelationshipLoadingPosition.EMPTY;
     private final long id;
 
     public NodeImpl( long id )
@@ -97,6 +99,16 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
+    // Only used for restoring a node serialized by NodeImplSerializer
+    NodeImpl( long id, RelIdArray[] relationships, RelationshipLoadingPosition relChainPosition, int[] labels )
+    {
+        super( false );
+        this.id = id;
+        this.relationships = relationships != null && relationships.length == 0 ? NO_RELATIONSHIPS : relationships;
+        this.relChainPosition = relChainPosition;
+        this.labels = labels;
+    }
+
     @Override
     protected Iterator<DefinedProperty> loadProperties( NodeManager nodeManager )
     {
@@ -114,7 +126,7 @@ public class NodeImpl extends ArrayBasedPrimitive
     {
         int size = super.sizeOfObjectInBytesIncludingOverhead() +
                 REFERENCE_SIZE/*relationships reference*/ +
-                8/*relChainPosition*/ + 8/*id*/ +
+                REFERENCE_SIZE/*relChainPosition reference*/ + 8/*id*/ +
                 REFERENCE_SIZE/*labels reference*/;
         if ( relationships != null && relationships.length > 0 )
         {
@@ -146,14 +158,14 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     Iterable<Relationship> getAllRelationships( NodeManager nodeManager, DirectionWrapper direction )
     {
-        ensureRelationshipMapNotNull( nodeManager );
+        ensureRelationshipMapNotNull( nodeManager, direction, ALL_TYPES );
 
         // We need to check if there are more relationships to load before grabbing
         // the references to the RelIdArrays since otherwise there could be
         // another concurrent thread exhausting the chain position in between the point
         // where we got an empty iterator for a type that the other thread loaded and
         // the point where we check whether or not there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, ALL_TYPES );
 
         RelIdArray[] localRelationships = relationships;
         RelIdIterator[] result = new RelIdIterator[localRelationships.length];
@@ -206,24 +218,49 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
         if ( result.length == 0 )
         {
-            return Collections.emptyList();
+            if ( !hasMore )
+            {
+                return Collections.emptyList();
+            }
+            // Only chains of other types or directions have been loaded for this (dense) node so far,
+            // let the iterator load the rest
+            result = new RelIdIterator[] { RelIdArray.EMPTY.iterator( direction ) };
         }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, true );
+        return new RelationshipIterator( result, this, direction, ALL_TYPES, nodeManager, hasMore );
     }
 
     Iterable<Relationship> getAllRelationshipsOfType( NodeManager nodeManager,
                                                       DirectionWrapper direction, RelationshipType... types )
     {
-        ensureRelationshipMapNotNull( nodeManager );
+        int[] typeIds = new int[types.length];
+        int actualLength = 0;
+        for ( RelationshipType type : types )
+        {
+            int typeId = nodeManager.getRelationshipTypeIdFor( type );
+            if ( typeId != TokenHolder.NO_ID )
+            {
+                typeIds[actualLength++] = typeId;
+            }
+        }
+        if ( actualLength == 0 )
+        {
+            return Collections.emptyList();
+        }
+        if ( actualLength < typeIds.length )
+        {
+            typeIds = Arrays.copyOf( typeIds, actualLength );
+        }
+
+        ensureRelationshipMapNotNull( nodeManager, direction, typeIds );
 
         // We need to check if there are more relationships to load before grabbing
         // the references to the RelIdArrays. Otherwise there could be
         // another concurrent thread exhausting the chain position in between the point
         // where we got an empty iterator for a type that the other thread loaded and
         // the point where we check if there are more relationships to load.
-        boolean hasMore = hasMoreRelationshipsToLoad();
+        boolean hasMore = hasMoreRelationshipsToLoad( direction, typeIds );
 
-        RelIdIterator[] result = new RelIdIterator[types.length];
+        RelIdIterator[] result = new RelIdIterator[typeIds.length];
         TransactionState tx = nodeManager.getTransactionState();
         ArrayMap<Integer, RelIdArray> addMap = null;
         ArrayMap<Integer, Collection<Long>> skipMap = null;
@@ -232,31 +269,14 @@ public class NodeImpl extends ArrayBasedPrimitive
             addMap = tx.getCowRelationshipAddMap( this );
             skipMap = tx.getCowRelationshipRemoveMap( this );
         }
-        int actualLength = 0;
-        for ( RelationshipType type : types )
+        for ( int i = 0; i < typeIds.length; i++ )
         {
-            int typeId = nodeManager.getRelationshipTypeIdFor( type );
-            if ( typeId == TokenHolder.NO_ID )
-            {
-                continue;
-            }
-
-            result[actualLength++] = getRelationshipsIterator( direction,
-                                                               addMap != null ? addMap.get( typeId ) : null,
-                                                               skipMap != null ? skipMap.get( typeId ) : null, typeId );
+            int typeId = typeIds[i];
+            result[i] = getRelationshipsIterator( direction,
+                                                  addMap != null ? addMap.get( typeId ) : null,
+                                                  skipMap != null ? skipMap.get( typeId ) : null, typeId );
         }
-
-        if ( actualLength < result.length )
-        {
-            RelIdIterator[] compacted = new RelIdIterator[actualLength];
-            arraycopy( result, 0, compacted, 0, actualLength );
-            result = compacted;
-        }
-        if ( result.length == 0 )
-        {
-            return Collections.emptyList();
-        }
-        return new RelationshipIterator( result, this, direction, nodeManager, hasMore, false );
+        return new RelationshipIterator( result, this, direction, typeIds, nodeManager, hasMore );
     }
 
     private RelIdIterator getRelationshipsIterator( DirectionWrapper direction, RelIdArray add,
@@ -337,17 +357,17 @@ public class NodeImpl extends ArrayBasedPrimitive
         return "NodeImpl#" + this.getId();
     }
 
-    private void ensureRelationshipMapNotNull( NodeManager nodeManager )
+    private void ensureRelationshipMapNotNull( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         if ( relationships == null )
         {
-            loadInitialRelationships( nodeManager );
+            loadInitialRelationships( nodeManager, direction, types );
         }
     }
 
-    private void loadInitialRelationships( NodeManager nodeManager )
+    private void loadInitialRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels = null;
+        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition> rels = null;
         synchronized ( this )
         {
             if ( relationships == null )
@@ -363,7 +383,7 @@ public class NodeImpl extends ArrayBasedPrimitive
                 }
 
                 ArrayMap<Integer, RelIdArray> tmpRelMap = new ArrayMap<>();
-                rels = getMoreRelationships( nodeManager, tmpRelMap );
+                rels = getMoreRelationships( nodeManager, tmpRelMap, direction, types );
                 this.relationships = toRelIdArray( tmpRelMap );
                 if ( rels != null )
                 {
@@ -426,16 +446,17 @@ public class NodeImpl extends ArrayBasedPrimitive
         Arrays.sort( array, RELATIONSHIP_TYPE_COMPARATOR_FOR_SORTING );
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships(
-            NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap )
+    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition>
+    getMoreRelationships( NodeManager nodeManager, ArrayMap<Integer, RelIdArray> tmpRelMap,
+                          DirectionWrapper direction, int[] types )
     {
-        if ( !hasMoreRelationshipsToLoad() )
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return null;
         }
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
+        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition> rels;
 
-        rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+        rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
 
         ArrayMap<Integer, RelIdArray> addMap = rels.first();
         if ( addMap.size() == 0 )
@@ -466,7 +487,12 @@ public class NodeImpl extends ArrayBasedPrimitive
 
     boolean hasMoreRelationshipsToLoad()
     {
-        return getRelChainPosition() != Record.NO_NEXT_RELATIONSHIP.intValue();
+        return hasMoreRelationshipsToLoad( DirectionWrapper.BOTH, ALL_TYPES );
+    }
+
+    boolean hasMoreRelationshipsToLoad( DirectionWrapper direction, int[] types )
+    {
+        return getRelChainPosition().hasMore( direction, types );
     }
 
     static enum LoadStatus
@@ -495,21 +521,21 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    LoadStatus getMoreRelationships( NodeManager nodeManager )
+    LoadStatus getMoreRelationships( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
-        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> rels;
-        if ( !hasMoreRelationshipsToLoad() )
+        Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition> rels;
+        if ( !hasMoreRelationshipsToLoad( direction, types ) )
         {
             return LoadStatus.NOTHING;
         }
         boolean more;
         synchronized ( this )
         {
-            if ( !hasMoreRelationshipsToLoad() )
+            if ( !hasMoreRelationshipsToLoad( direction, types ) )
             {
                 return LoadStatus.NOTHING;
             }
-            rels = loadMoreRelationshipsFromNodeManager( nodeManager );
+            rels = loadMoreRelationshipsFromNodeManager( nodeManager, direction, types );
             ArrayMap<Integer, RelIdArray> addMap = rels.first();
             if ( addMap.size() == 0 )
             {
@@ -534,19 +560,19 @@ public class NodeImpl extends ArrayBasedPrimitive
                 }
             }
             setRelChainPosition( rels.third() );
-            more = hasMoreRelationshipsToLoad();
+            more = hasMoreRelationshipsToLoad( direction, types );
             updateSize( nodeManager );
         }
         nodeManager.putAllInRelCache( rels.second() );
         return more ? LoadStatus.LOADED_MORE : LoadStatus.LOADED_END;
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long>
-    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager )
+    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition>
+    loadMoreRelationshipsFromNodeManager( NodeManager nodeManager, DirectionWrapper direction, int[] types )
     {
         try
         {
-            return nodeManager.getMoreRelationships( this );
+            return nodeManager.getMoreRelationships( this, direction, types );
         }
         catch ( InvalidRecordException e )
         {
@@ -662,12 +688,12 @@ public class NodeImpl extends ArrayBasedPrimitive
         }
     }
 
-    long getRelChainPosition()
+    RelationshipLoadingPosition getRelChainPosition()
     {
         return relChainPosition;
     }
 
-    void setRelChainPosition( long position )
+    void setRelChainPosition( RelationshipLoadingPosition position )
     { // precondition: must be called under synchronization
         relChainPosition = position;
         // use local reference to avoid multiple read barriers
@@ -725,6 +751,11 @@ public class NodeImpl extends ArrayBasedPrimitive
         return binarySearch( labels, labelId ) >= 0;
     }
 
+    int[] getLabelsIfLoaded()
+    {
+        return labels;
+    }
+
     public synchronized void commitLabels( int[] labels )
     {
         this.labels = labels;
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.cache.OffHeapCache;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+import org.neo4j.kernel.impl.util.RelIdArrayWithLoops;
+
+/**
+ * Serializes whatever a {@link NodeImpl} has loaded, i.e. relationship ids and how far into the relationship chain
+ * they've been loaded, labels and properties, for keeping it in an {@link OffHeapCache}. Relationships of a dense
+ * node which are only partly loaded are left out, since their per type chain positions are not serialized, and
+ * will be loaded again when needed.
+ */
+public class NodeImplSerializer extends ArrayBasedPrimitiveSerializer implements OffHeapCache.Serializer<NodeImpl>
+{
+    private static final DirectionWrapper[] DIRECTIONS =
+            { DirectionWrapper.OUTGOING, DirectionWrapper.INCOMING, DirectionWrapper.BOTH };
+    private static final int[] ALL_TYPES = new int[0];
+
+    @Override
+    public void write( NodeImpl node, DataOutput out ) throws IOException
+    {
+        RelationshipLoadingPosition position = node.getRelChainPosition();
+        RelIdArray[] relationships = node.getRelationshipIds();
+        if ( !position.hasMore( DirectionWrapper.BOTH, ALL_TYPES ) )
+        {
+            out.writeLong( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        }
+        else if ( position instanceof SingleChainPosition )
+        {
+            out.writeLong( position.position( DirectionWrapper.BOTH, ALL_TYPES ) );
+        }
+        else
+        {
+            out.writeLong( Record.NO_NEXT_RELATIONSHIP.intValue() );
+            relationships = null;
+        }
+        out.writeBoolean( relationships != null );
+        if ( relationships != null )
+        {
+            writeVarInt( relationships.length, out );
+            for ( RelIdArray ids : relationships )
+            {
+                writeVarInt( ids.getType(), out );
+                for ( DirectionWrapper direction : DIRECTIONS )
+                {
+                    long[] idsInDirection = ids.getIds( direction );
+                    writeVarInt( idsInDirection.length, out );
+                    for ( long id : idsInDirection )
+                    {
+                        writeVarLong( id, out );
+                    }
+                }
+            }
+        }
+
+        int[] labels = node.getLabelsIfLoaded();
+        out.writeBoolean( labels != null );
+        if ( labels != null )
+        {
+            writeVarInt( labels.length, out );
+            for ( int label : labels )
+            {
+                writeVarInt( label, out );
+            }
+        }
+
+        writeProperties( node, out );
+    }
+
+    @Override
+    public NodeImpl read( long id, DataInput in ) throws IOException
+    {
+        long relChainPosition = in.readLong();
+        boolean doneLoading = relChainPosition == Record.NO_NEXT_RELATIONSHIP.intValue();
+        RelIdArray[] relationships = null;
+        if ( in.readBoolean() )
+        {
+            relationships = new RelIdArray[readVarInt( in )];
+            for ( int i = 0; i < relationships.length; i++ )
+            {
+                relationships[i] = readRelIdArray( in, doneLoading );
+            }
+        }
+
+        int[] labels = null;
+        if ( in.readBoolean() )
+        {
+            labels = new int[readVarInt( in )];
+            for ( int i = 0; i < labels.length; i++ )
+            {
+                labels[i] = readVarInt( in );
+            }
+        }
+
+        NodeImpl node = new NodeImpl( id, relationships, doneLoading ? RelationshipLoadingPosition.EMPTY :
+                new SingleChainPosition( relChainPosition ), labels );
+        readProperties( node, in );
+        return node;
+    }
+
+    private RelIdArray readRelIdArray( DataInput in, boolean doneLoading ) throws IOException
+    {
+        int type = readVarInt( in );
+        long[][] idsPerDirection = new long[DIRECTIONS.length][];
+        for ( int d = 0; d < DIRECTIONS.length; d++ )
+        {
+            long[] ids = new long[readVarInt( in )];
+            for ( int i = 0; i < ids.length; i++ )
+            {
+                ids[i] = readVarLong( in );
+            }
+            idsPerDirection[d] = ids;
+        }
+
+        boolean hasLoops = idsPerDirection[DIRECTIONS.length - 1].length > 0;
+        RelIdArray result = hasLoops ? new RelIdArrayWithLoops( type ) : new RelIdArray( type );
+        for ( int d = 0; d < DIRECTIONS.length; d++ )
+        {
+            for ( long relId : idsPerDirection[d] )
+            {
+                result.add( relId, DIRECTIONS[d] );
+            }
+        }
+        // Same as NodeImpl does when it has loaded all its relationships
+        return doneLoading ? result.shrink() : result;
+    }
+}
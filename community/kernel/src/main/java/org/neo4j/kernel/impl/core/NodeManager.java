@@ -570,13 +570,17 @@ public class NodeManager implements Lifecycle, EntityFactory
     private void invalidateNode( long nodeId, long relIdDeleted, long nextRelId )
     {
         NodeImpl node = nodeCache.getIfCached( nodeId );
-        if ( node != null && node.getRelChainPosition() == relIdDeleted )
+        if ( node != null )
         {
-            node.setRelChainPosition( nextRelId );
+            RelationshipLoadingPosition position = node.getRelChainPosition();
+            if ( position.compareAndAdvance( relIdDeleted, nextRelId ) )
+            {
+                node.setRelChainPosition( position );
+            }
         }
     }
 
-    long getRelationshipChainPosition( NodeImpl node )
+    RelationshipLoadingPosition getRelationshipChainPosition( NodeImpl node )
     {
         return persistenceManager.getRelationshipChainPosition( node.getId() );
     }
@@ -775,9 +779,10 @@ public class NodeManager implements Lifecycle, EntityFactory
         }
     }
 
-    public Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships( NodeImpl node )
+    public Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition>
+            getMoreRelationships( NodeImpl node, DirectionWrapper direction, int[] types )
     {
-        return relationshipLoader.getMoreRelationships( node );
+        return relationshipLoader.getMoreRelationships( node, direction, types );
     }
 
     public NodeImpl getNodeIfCached( long nodeId )
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.cache.OffHeapCache;
+
+/**
+ * Serializes a {@link RelationshipImpl}, along with any properties it has loaded, for keeping it in an
+ * {@link OffHeapCache}.
+ */
+public class RelationshipImplSerializer extends ArrayBasedPrimitiveSerializer
+        implements OffHeapCache.Serializer<RelationshipImpl>
+{
+    @Override
+    public void write( RelationshipImpl relationship, DataOutput out ) throws IOException
+    {
+        writeVarLong( relationship.getStartNodeId(), out );
+        writeVarLong( relationship.getEndNodeId(), out );
+        writeVarInt( relationship.getTypeId(), out );
+        writeProperties( relationship, out );
+    }
+
+    @Override
+    public RelationshipImpl read( long id, DataInput in ) throws IOException
+    {
+        long startNodeId = readVarLong( in );
+        long endNodeId = readVarLong( in );
+        int typeId = readVarInt( in );
+        RelationshipImpl relationship = new RelationshipImpl( id, startNodeId, endNodeId, typeId, false );
+        readProperties( relationship, in );
+        return relationship;
+    }
+}
@@ -43,12 +43,14 @@ public class RelationshipLoader
         this.relationshipCache = relationshipCache;
     }
 
-    public Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> getMoreRelationships( NodeImpl node )
+    public Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition>
+            getMoreRelationships( NodeImpl node, RelIdArray.DirectionWrapper direction, int[] types )
     {
         long nodeId = node.getId();
-        long position = node.getRelChainPosition();
-        Pair<Map<RelIdArray.DirectionWrapper, Iterable<RelationshipRecord>>, Long> rels =
-                persistenceManager.getMoreRelationships( nodeId, position );
+        // Load using a copy so that the position of the node stays intact if loading fails half way
+        RelationshipLoadingPosition position = node.getRelChainPosition().clone();
+        Pair<Map<RelIdArray.DirectionWrapper, Iterable<RelationshipRecord>>, RelationshipLoadingPosition> rels =
+                persistenceManager.getMoreRelationships( nodeId, position, direction, types );
         ArrayMap<Integer, RelIdArray> newRelationshipMap =
                 new ArrayMap<>();
 
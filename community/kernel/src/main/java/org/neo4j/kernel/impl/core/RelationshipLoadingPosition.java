@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+/**
+ * Keeps track of how far into the relationship chain(s) of a node its relationships have been loaded.
+ * A sparse node has a single chain, see {@link SingleChainPosition}, whereas a dense node has one chain
+ * per type and direction, which means that relationships of only a few types can be loaded without
+ * reading the others.
+ *
+ * Instances are not thread safe. {@link NodeImpl} loads relationships using a {@link #clone() clone} of
+ * its current position and publishes the advanced position when done.
+ */
+public interface RelationshipLoadingPosition extends Cloneable
+{
+    /**
+     * @param direction the direction of relationships to load.
+     * @param types the relationship types to load, an empty array means all types.
+     * @return the id of the next relationship to load, or {@code -1} if there are no more
+     * relationships for the given direction and types.
+     */
+    long position( DirectionWrapper direction, int[] types );
+
+    /**
+     * Moves the chain currently being loaded forward to {@code position}. If that chain is exhausted
+     * the position of the next chain matching {@code direction} and {@code types} is returned.
+     *
+     * @param position the id of the next relationship in the chain currently being loaded.
+     * @return the id of the next relationship to load, or {@code -1} if there are no more.
+     */
+    long nextPosition( long position, DirectionWrapper direction, int[] types );
+
+    boolean hasMore( DirectionWrapper direction, int[] types );
+
+    /**
+     * Called when relationship {@code relIdDeleted} has been deleted, so that a chain positioned at it
+     * continues from {@code nextRelId} instead.
+     *
+     * @return {@code true} if any chain position was changed.
+     */
+    boolean compareAndAdvance( long relIdDeleted, long nextRelId );
+
+    RelationshipLoadingPosition clone();
+
+    /**
+     * Position of a node which has no more relationships to load.
+     */
+    RelationshipLoadingPosition EMPTY = new RelationshipLoadingPosition()
+    {
+        @Override
+        public long position( DirectionWrapper direction, int[] types )
+        {
+            return -1;
+        }
+
+        @Override
+        public long nextPosition( long position, DirectionWrapper direction, int[] types )
+        {
+            return -1;
+        }
+
+        @Override
+        public boolean hasMore( DirectionWrapper direction, int[] types )
+        {
+            return false;
+        }
+
+        @Override
+        public boolean compareAndAdvance( long relIdDeleted, long nextRelId )
+        {
+            return false;
+        }
+
+        @Override
+        public RelationshipLoadingPosition clone()
+        {
+            return this;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "EMPTY";
+        }
+    };
+}
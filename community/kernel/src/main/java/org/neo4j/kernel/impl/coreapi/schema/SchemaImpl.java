@@ -71,7 +71,7 @@ import static org.neo4j.graphdb.schema.Schema.IndexState.POPULATING;
 import static org.neo4j.helpers.collection.Iterables.map;
 import static org.neo4j.helpers.collection.IteratorUtil.addToCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
-import static org.neo4j.helpers.collection.IteratorUtil.single;
+import static org.neo4j.helpers.collection.IteratorUtil.loop;
 
 public class SchemaImpl implements Schema
 {
@@ -136,8 +136,13 @@ public class SchemaImpl implements Schema
                 try
                 {
                     Label label = label( statement.labelGetName( rule.getLabelId() ) );
-                    String propertyKey = statement.propertyKeyGetName( rule.getPropertyKeyId() );
-                    return new IndexDefinitionImpl( actions, label, propertyKey, constraintIndex );
+                    int[] propertyKeyIds = rule.getPropertyKeyIds();
+                    String[] propertyKeys = new String[propertyKeyIds.length];
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        propertyKeys[i] = statement.propertyKeyGetName( propertyKeyIds[i] );
+                    }
+                    return new IndexDefinitionImpl( actions, label, propertyKeys, constraintIndex );
                 }
                 catch ( LabelNotFoundKernelException | PropertyKeyIdNotFoundKernelException e )
                 {
@@ -207,23 +212,19 @@ public class SchemaImpl implements Schema
     {
         assertInTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
+        String[] propertyKeys = propertyKeysOf( index );
+        String propertyKey = describe( propertyKeys );
         try ( Statement statement = statementContextProvider.instance() )
         {
             int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+            int[] propertyKeyIds = propertyKeyIds( statement.readOperations(), propertyKeys );
 
             if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
             {
                 throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
             }
 
-            if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
-            {
-                throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
-            }
-
-            IndexDescriptor descriptor = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
+            IndexDescriptor descriptor = indexDescriptor( statement.readOperations(), labelId, propertyKeyIds );
             InternalIndexState indexState = statement.readOperations().indexGetState( descriptor );
             switch ( indexState )
             {
@@ -249,23 +250,19 @@ public class SchemaImpl implements Schema
     {
         assertInTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
+        String[] propertyKeys = propertyKeysOf( index );
+        String propertyKey = describe( propertyKeys );
         try ( Statement statement = statementContextProvider.instance() )
         {
             int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+            int[] propertyKeyIds = propertyKeyIds( statement.readOperations(), propertyKeys );
 
             if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
             {
                 throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
             }
 
-            if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
-            {
-                throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
-            }
-
-            IndexDescriptor indexId = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
+            IndexDescriptor indexId = indexDescriptor( statement.readOperations(), labelId, propertyKeyIds );
             return statement.readOperations().indexGetFailure( indexId );
         }
         catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
@@ -275,6 +272,64 @@ public class SchemaImpl implements Schema
         }
     }
 
+    private static int[] propertyKeyIds( ReadOperations readOperations, String[] propertyKeys )
+    {
+        int[] propertyKeyIds = new int[propertyKeys.length];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            propertyKeyIds[i] = readOperations.propertyKeyGetForName( propertyKeys[i] );
+            if ( propertyKeyIds[i] == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
+            {
+                throw new NotFoundException( format( "Property key %s not found", propertyKeys[i] ) );
+            }
+        }
+        return propertyKeyIds;
+    }
+
+    /**
+     * Looks up the index, or constraint index, on exactly the given property keys.
+     */
+    private static IndexDescriptor indexDescriptor( ReadOperations readOperations, int labelId,
+                                                    int[] propertyKeyIds ) throws SchemaRuleNotFoundException
+    {
+        if ( propertyKeyIds.length == 1 )
+        {
+            return readOperations.indexesGetForLabelAndPropertyKey( labelId, propertyKeyIds[0] );
+        }
+        IndexDescriptor wanted = new IndexDescriptor( labelId, propertyKeyIds );
+        for ( IndexDescriptor descriptor : loop( readOperations.indexesGetForLabel( labelId ) ) )
+        {
+            if ( descriptor.equals( wanted ) )
+            {
+                return descriptor;
+            }
+        }
+        for ( IndexDescriptor descriptor : loop( readOperations.uniqueIndexesGetForLabel( labelId ) ) )
+        {
+            if ( descriptor.equals( wanted ) )
+            {
+                return descriptor;
+            }
+        }
+        throw new SchemaRuleNotFoundException( "Index rule " + wanted + " not found" );
+    }
+
+    private static String[] propertyKeysOf( IndexDefinition index )
+    {
+        Collection<String> propertyKeys = asCollection( index.getPropertyKeys() );
+        return propertyKeys.toArray( new String[propertyKeys.size()] );
+    }
+
+    private static String describe( String[] propertyKeys )
+    {
+        StringBuilder result = new StringBuilder();
+        for ( String propertyKey : propertyKeys )
+        {
+            result.append( result.length() > 0 ? ", " : "" ).append( propertyKey );
+        }
+        return result.toString();
+    }
+
     @Override
     public ConstraintCreator constraintFor( Label label )
     {
@@ -356,16 +411,29 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
+            String propertyKey = describe( propertyKeys );
             try ( Statement statement = ctxProvider.instance() )
             {
                 try
                 {
                     int labelId = statement.schemaWriteOperations().labelGetOrCreateForName( label.name() );
-                    int propertyKeyId = statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKey );
-                    statement.schemaWriteOperations().indexCreate( labelId, propertyKeyId );
-                    return new IndexDefinitionImpl( this, label, propertyKey, false );
+                    int[] propertyKeyIds = new int[propertyKeys.length];
+                    for ( int i = 0; i < propertyKeys.length; i++ )
+                    {
+                        propertyKeyIds[i] =
+                                statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKeys[i] );
+                    }
+                    if ( propertyKeyIds.length == 1 )
+                    {
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyIds[0] );
+                    }
+                    else
+                    {
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyIds );
+                    }
+                    return new IndexDefinitionImpl( this, label, propertyKeys, false );
                 }
                 catch ( AlreadyIndexedException e )
                 {
@@ -404,17 +472,24 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
+            String propertyKey = describe( propertyKeys );
             try ( Statement statement = ctxProvider.instance() )
             {
                 int labelId = statement.readOperations().labelGetForName( label.name() );
-                int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+                int[] propertyKeyIds = new int[propertyKeys.length];
+                boolean allPropertyKeysExist = true;
+                for ( int i = 0; i < propertyKeys.length; i++ )
+                {
+                    propertyKeyIds[i] = statement.readOperations().propertyKeyGetForName( propertyKeys[i] );
+                    allPropertyKeysExist &= propertyKeyIds[i] != KeyReadOperations.NO_SUCH_PROPERTY_KEY;
+                }
 
-                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && propertyKeyId != KeyReadOperations
-                        .NO_SUCH_PROPERTY_KEY )
+                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && allPropertyKeysExist )
                 {
-                    statement.schemaWriteOperations().indexDrop( statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId ) );
+                    statement.schemaWriteOperations().indexDrop(
+                            indexDescriptor( statement.readOperations(), labelId, propertyKeyIds ) );
                 }
             }
             catch ( SchemaRuleNotFoundException | DropIndexFailureException e )
@@ -71,6 +71,7 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
     private final Config conf;
     private int blockSize;
     protected final DynamicRecordAllocator recordAllocator;
+    private DynamicRecordCompression compression = DynamicRecordCompression.NONE;
 
     public AbstractDynamicStore( File fileName, Config conf, IdType idType,
                                  IdGeneratorFactory idGeneratorFactory, WindowPoolFactory windowPoolFactory,
@@ -140,6 +141,15 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
         return blockSize;
     }
 
+    /**
+     * Sets the codec that chains written from now on are compressed with. Chains are read regardless of
+     * which codec, if any, they were written with.
+     */
+    public void setCompression( DynamicRecordCompression compression )
+    {
+        this.compression = compression;
+    }
+
     /**
      * Calculate the size of a dynamic record given the size of the data block.
      *
@@ -170,10 +180,12 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
                         : (int) ( ( nextBlock & 0xF00000000L ) >> 8 );
                 highByteInFirstInteger |= ( Record.IN_USE.byteValue() << 28 );
                 highByteInFirstInteger |= (record.isStartRecord() ? 0 : 1) << 31;
+                highByteInFirstInteger |= (record.isCompressed() ? 1 : 0) << 30;
 
                 /*
                  * First 4b
                  * [x   ,    ][    ,    ][    ,    ][    ,    ] 0: start record, 1: linked record
+         * [ x  ,    ][    ,    ][    ,    ][    ,    ] compressed chain, only set in start records
                  * [   x,    ][    ,    ][    ,    ][    ,    ] inUse
                  * [    ,xxxx][    ,    ][    ,    ][    ,    ] high next block bits
                  * [    ,    ][xxxx,xxxx][xxxx,xxxx][xxxx,xxxx] nr of bytes in the data field in this record
@@ -219,8 +231,33 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
 
     protected Collection<DynamicRecord> allocateRecordsFromBytes( byte src[] )
     {
-        return allocateRecordsFromBytes( src, Collections.<DynamicRecord>emptyList().iterator(),
-                recordAllocator );
+        return allocateRecordsFromBytes( src, Collections.<DynamicRecord>emptyList().iterator() );
+    }
+
+    /**
+     * Like {@link #allocateRecordsFromBytes(byte[], Iterator, DynamicRecordAllocator)}, but compresses
+     * {@code src} with the codec of this store if that makes the chain use fewer records.
+     */
+    protected Collection<DynamicRecord> allocateRecordsFromBytes( byte src[], Iterator<DynamicRecord> recordsToUseFirst )
+    {
+        int dataSize = recordAllocator.dataSize();
+        if ( src.length > dataSize )
+        {
+            byte[] compressed = compression.compress( src );
+            if ( compressed != null && recordsNeeded( compressed, dataSize ) < recordsNeeded( src, dataSize ) )
+            {
+                Collection<DynamicRecord> records =
+                        allocateRecordsFromBytes( compressed, recordsToUseFirst, recordAllocator );
+                records.iterator().next().setCompressed( true );
+                return records;
+            }
+        }
+        return allocateRecordsFromBytes( src, recordsToUseFirst, recordAllocator );
+    }
+
+    private static int recordsNeeded( byte[] src, int dataSize )
+    {
+        return (src.length - 1) / dataSize + 1;
     }
 
     public static Collection<DynamicRecord> allocateRecordsFromBytes(
@@ -236,6 +273,7 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
         {
             DynamicRecord record = nextRecord;
             record.setStartRecord( srcOffset == 0 );
+            record.setCompressed( false );
             if ( src.length - srcOffset > dataSize )
             {
                 byte data[] = new byte[dataSize];
@@ -312,7 +350,7 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
 
     protected boolean isRecordInUse( ByteBuffer buffer )
     {
-        return ( ( buffer.get() & (byte) 0xF0 ) >> 4 ) == Record.IN_USE.byteValue();
+        return ( ( buffer.get() & (byte) 0xB0 ) >> 4 ) == Record.IN_USE.byteValue();
     }
 
     private DynamicRecord getRecord( long blockId, PersistenceWindow window, RecordLoad load )
@@ -323,6 +361,7 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
         /*
          * First 4b
          * [x   ,    ][    ,    ][    ,    ][    ,    ] 0: start record, 1: linked record
+         * [ x  ,    ][    ,    ][    ,    ][    ,    ] compressed chain, only set in start records
          * [   x,    ][    ,    ][    ,    ][    ,    ] inUse
          * [    ,xxxx][    ,    ][    ,    ][    ,    ] high next block bits
          * [    ,    ][xxxx,xxxx][xxxx,xxxx][xxxx,xxxx] nr of bytes in the data field in this record
@@ -330,7 +369,8 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
          */
         long firstInteger = buffer.getUnsignedInt();
         boolean isStartRecord = (firstInteger & 0x80000000) == 0;
-        long maskedInteger = firstInteger & ~0x80000000;
+        boolean isCompressed = (firstInteger & 0x40000000) != 0;
+        long maskedInteger = firstInteger & ~0xC0000000;
         int highNibbleInMaskedInteger = (int) ( ( maskedInteger ) >> 28 );
         boolean inUse = highNibbleInMaskedInteger == Record.IN_USE.intValue();
         if ( !inUse && load != RecordLoad.FORCE )
@@ -359,6 +399,7 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
         }
         record.setInUse( inUse );
         record.setStartRecord( isStartRecord );
+        record.setCompressed( isCompressed );
         record.setLength( nrOfBytes );
         record.setNextBlock( longNextBlock );
         /*
@@ -615,6 +656,12 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
     public static Pair<byte[]/*header in the first record*/,byte[]/*all other bytes*/> readFullByteArrayFromHeavyRecords(
             Iterable<DynamicRecord> records, PropertyType propertyType )
     {
+        Iterator<DynamicRecord> iterator = records.iterator();
+        if ( iterator.hasNext() && iterator.next().isCompressed() )
+        {
+            return readFullByteArrayFromCompressedRecords( records, propertyType );
+        }
+
         byte[] header = null;
         List<byte[]> byteList = new LinkedList<>();
         int totalSize = 0, i = 0;
@@ -643,4 +690,27 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore implement
         }
         return Pair.of( header, bArray );
     }
+
+    private static Pair<byte[],byte[]> readFullByteArrayFromCompressedRecords(
+            Iterable<DynamicRecord> records, PropertyType propertyType )
+    {
+        int totalSize = 0;
+        for ( DynamicRecord record : records )
+        {
+            totalSize += record.getData().length;
+        }
+        byte[] compressed = new byte[totalSize];
+        int offset = 0;
+        for ( DynamicRecord record : records )
+        {
+            System.arraycopy( record.getData(), 0, compressed, offset, record.getData().length );
+            offset += record.getData().length;
+        }
+
+        byte[] data = DynamicRecordCompression.decompress( compressed );
+        byte[] header = propertyType.readDynamicRecordHeader( data );
+        byte[] bArray = new byte[data.length - header.length];
+        System.arraycopy( data, header.length, bArray, 0, bArray.length );
+        return Pair.of( header, bArray );
+    }
 }
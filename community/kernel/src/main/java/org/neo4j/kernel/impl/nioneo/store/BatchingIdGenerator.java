@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IdGenerator} which hands out ids from batches local to each thread, so that threads creating
+ * records don't contend on the synchronized {@link IdGenerator#nextId()} of the delegate. A thread
+ * grabs a new batch from {@link IdGenerator#nextIdBatch(int)} only when its current batch runs out.
+ * <p>
+ * Ids left unused in any batch are freed back to the delegate when this generator is closed, so that
+ * they can be reused in the next session. If {@code reuseFreedIds} is set, ids freed during this session
+ * are kept in a lock free queue and handed out again before any new id, like an aggressively reusing
+ * {@link IdGeneratorImpl} would do. Otherwise freed ids are passed straight to the delegate.
+ */
+public class BatchingIdGenerator implements IdGenerator
+{
+    private final IdGenerator delegate;
+    private final int batchSize;
+    private final boolean reuseFreedIds;
+    private final ThreadLocal<IdBatch> localBatch = new ThreadLocal<>();
+    private final Set<IdBatch> batches = Collections.newSetFromMap( new ConcurrentHashMap<IdBatch, Boolean>() );
+    private final Queue<Long> freedIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong freedIdCount = new AtomicLong();
+    private volatile int generation;
+
+    public BatchingIdGenerator( IdGenerator delegate, int batchSize, boolean reuseFreedIds )
+    {
+        if ( batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Illegal batchSize: " + batchSize );
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.reuseFreedIds = reuseFreedIds;
+    }
+
+    @Override
+    public long nextId()
+    {
+        if ( reuseFreedIds )
+        {
+            Long id = freedIds.poll();
+            if ( id != null )
+            {
+                freedIdCount.decrementAndGet();
+                return id;
+            }
+        }
+
+        IdBatch batch = localBatch.get();
+        long id = batch != null && batch.generation == generation ? batch.next() : IdBatch.NO_ID;
+        while ( id == IdBatch.NO_ID )
+        {
+            if ( batch != null )
+            {
+                batches.remove( batch );
+            }
+            batch = newBatch();
+            if ( batch == null )
+            {
+                // Too close to the capacity of the delegate for a whole batch, take the remaining ids one by one
+                return delegate.nextId();
+            }
+            localBatch.set( batch );
+            batches.add( batch );
+            id = batch.next();
+        }
+        return id;
+    }
+
+    private IdBatch newBatch()
+    {
+        int batchGeneration = generation;
+        IdRange range;
+        try
+        {
+            range = delegate.nextIdBatch( batchSize );
+        }
+        catch ( UnderlyingStorageException e )
+        {
+            return null;
+        }
+        return new IdBatch( range, batchGeneration );
+    }
+
+    @Override
+    public IdRange nextIdBatch( int size )
+    {
+        return delegate.nextIdBatch( size );
+    }
+
+    /**
+     * Drops the batches grabbed so far without freeing their remaining ids, making every thread grab a new
+     * batch on its next call to {@link #nextId()}. Used when the ids handed out by the delegate can no longer be
+     * trusted, f.ex. when its high id is moved back or when it is swapped for another one.
+     */
+    public void discardBatches()
+    {
+        generation++;
+        batches.clear();
+    }
+
+    @Override
+    public void setHighId( long id )
+    {
+        if ( id < delegate.getHighId() )
+        {
+            discardBatches();
+        }
+        delegate.setHighId( id );
+    }
+
+    @Override
+    public long getHighId()
+    {
+        return delegate.getHighId();
+    }
+
+    @Override
+    public void freeId( long id )
+    {
+        if ( reuseFreedIds )
+        {
+            freedIds.add( id );
+            freedIdCount.incrementAndGet();
+        }
+        else
+        {
+            delegate.freeId( id );
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        for ( IdBatch batch : batches )
+        {
+            for ( long id = batch.next(); id != IdBatch.NO_ID; id = batch.next() )
+            {
+                delegate.freeId( id );
+            }
+        }
+        batches.clear();
+        for ( Long id = freedIds.poll(); id != null; id = freedIds.poll() )
+        {
+            delegate.freeId( id );
+        }
+        freedIdCount.set( 0 );
+        delegate.close();
+    }
+
+    @Override
+    public long getNumberOfIdsInUse()
+    {
+        long unused = freedIdCount.get();
+        for ( IdBatch batch : batches )
+        {
+            unused += batch.remaining();
+        }
+        return delegate.getNumberOfIdsInUse() - unused;
+    }
+
+    @Override
+    public long getDefragCount()
+    {
+        return delegate.getDefragCount() + freedIdCount.get();
+    }
+
+    @Override
+    public void delete()
+    {
+        delegate.delete();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + delegate + ", batchSize=" + batchSize + "]";
+    }
+
+    /**
+     * The ids of one {@link IdRange}, only ever handed out by the thread that grabbed it.
+     */
+    private static class IdBatch
+    {
+        static final long NO_ID = -1;
+
+        private final long[] defragIds;
+        private final long rangeStart;
+        private final int rangeLength;
+        private final int generation;
+        private volatile int position;
+
+        IdBatch( IdRange range, int generation )
+        {
+            this.defragIds = range.getDefragIds();
+            this.rangeStart = range.getRangeStart();
+            this.rangeLength = range.getRangeLength();
+            this.generation = generation;
+        }
+
+        long next()
+        {
+            while ( position < defragIds.length + rangeLength )
+            {
+                int current = position++;
+                long id = current < defragIds.length ? defragIds[current] :
+                        rangeStart + (current - defragIds.length);
+                if ( id != IdGeneratorImpl.INTEGER_MINUS_ONE )
+                {
+                    // -1 as an int marks the end of record chains, so it's never handed out
+                    return id;
+                }
+            }
+            return NO_ID;
+        }
+
+        int remaining()
+        {
+            return defragIds.length + rangeLength - position;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.neo4j.kernel.IdGeneratorFactory;
+import org.neo4j.kernel.IdType;
+
+/**
+ * Wraps the id generators of another {@link IdGeneratorFactory} in {@link BatchingIdGenerator}s, so that each
+ * thread allocates ids from a batch of its own.
+ */
+public class BatchingIdGeneratorFactory implements IdGeneratorFactory
+{
+    private final Map<IdType, IdGenerator> generators = new EnumMap<>( IdType.class );
+    private final IdGeneratorFactory delegate;
+    private final int batchSize;
+
+    public BatchingIdGeneratorFactory( IdGeneratorFactory delegate, int batchSize )
+    {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public IdGenerator open( FileSystemAbstraction fs, File fileName, int grabSize, IdType idType, long highId )
+    {
+        IdGenerator generator = new BatchingIdGenerator( delegate.open( fs, fileName, grabSize, idType, highId ),
+                batchSize, idType.allowAggressiveReuse() );
+        generators.put( idType, generator );
+        return generator;
+    }
+
+    @Override
+    public void create( FileSystemAbstraction fs, File fileName, long highId )
+    {
+        delegate.create( fs, fileName, highId );
+    }
+
+    @Override
+    public IdGenerator get( IdType idType )
+    {
+        return generators.get( idType );
+    }
+}
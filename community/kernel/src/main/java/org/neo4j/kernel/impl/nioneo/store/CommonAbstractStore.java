@@ -55,7 +55,7 @@ public abstract class CommonAbstractStore implements IdSequence
         public static final Setting<Boolean> use_memory_mapped_buffers = GraphDatabaseSettings.use_memory_mapped_buffers;
     }
 
-    public static final String ALL_STORES_VERSION = "v0.A.1";
+    public static final String ALL_STORES_VERSION = "v0.A.2";
     public static final String UNKNOWN_VERSION = "Uknown";
 
     protected Config configuration;
@@ -342,6 +342,18 @@ public abstract class CommonAbstractStore implements IdSequence
         return idGenerator.nextId();
     }
 
+    /**
+     * Returns a batch of ids from this store's {@link IdGenerator}, for callers allocating lots of
+     * ids at once.
+     *
+     * @param size The number of ids to allocate
+     * @return The allocated ids
+     */
+    public IdRange nextIdBatch( int size )
+    {
+        return idGenerator.nextIdBatch( size );
+    }
+
     /**
      * Frees an id for this store's {@link IdGenerator}.
      *
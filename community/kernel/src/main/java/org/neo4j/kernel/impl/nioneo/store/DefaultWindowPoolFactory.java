@@ -46,12 +46,12 @@ public class DefaultWindowPoolFactory implements WindowPoolFactory
                 new ConcurrentHashMap<Long, PersistenceRow>(), BrickElementFactory.DEFAULT, log );
     }
 
-    private boolean isBackupSlave( Config configuration )
+    static boolean isBackupSlave( Config configuration )
     {
         return configuration.get( CommonAbstractStore.Configuration.backup_slave );
     }
 
-    private boolean isReadOnly( Config configuration )
+    static boolean isReadOnly( Config configuration )
     {
         return configuration.get( CommonAbstractStore.Configuration.read_only );
     }
@@ -66,7 +66,7 @@ public class DefaultWindowPoolFactory implements WindowPoolFactory
      * @param storageFileName Name of the file on disk
      * @return The number of bytes memory mapped windows this store has
      */
-    private long calculateMappedMemory( Config config, File storageFileName )
+    static long calculateMappedMemory( Config config, File storageFileName )
     {
         Long mem = config.get( memoryMappingSetting( storageFileName.getName() ) );
         if ( mem == null )
@@ -72,6 +72,11 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static Collection<DynamicRecord> allocateFromNumbers( Object array, Iterator<DynamicRecord> recordsToUseFirst,
                                                                  DynamicRecordAllocator recordAllocator )
+    {
+        return allocateRecordsFromBytes( encodeFromNumbers( array ), recordsToUseFirst, recordAllocator );
+    }
+
+    private static byte[] encodeFromNumbers( Object array )
     {
         Class<?> componentType = array.getClass().getComponentType();
         boolean isPrimitiveByteArray = componentType.equals( Byte.TYPE );
@@ -109,11 +114,10 @@ public class DynamicArrayStore extends AbstractDynamicStore
             type.writeAll(array, arrayLength,requiredBits,bits);
             bytes = bits.asBytes();
         }
-        return allocateRecordsFromBytes( bytes, recordsToUseFirst, recordAllocator );
+        return bytes;
     }
 
-    private static Collection<DynamicRecord> allocateFromString( String[] array, Iterator<DynamicRecord> recordsToUseFirst,
-                                                                 DynamicRecordAllocator recordAllocator )
+    private static byte[] encodeFromStrings( String[] array )
     {
         List<byte[]> stringsAsBytes = new ArrayList<>();
         int totalBytesRequired = STRING_HEADER_SIZE; // 1b type + 4b array length
@@ -132,7 +136,7 @@ public class DynamicArrayStore extends AbstractDynamicStore
             buf.putInt( stringAsBytes.length );
             buf.put( stringAsBytes );
         }
-        return allocateRecordsFromBytes( buf.array(), recordsToUseFirst, recordAllocator );
+        return buf.array();
     }
 
     public Collection<DynamicRecord> allocateRecords( Object array )
@@ -148,14 +152,8 @@ public class DynamicArrayStore extends AbstractDynamicStore
         }
 
         Class<?> type = array.getClass().getComponentType();
-        if ( type.equals( String.class ) )
-        {
-            return allocateFromString( (String[]) array, recordsToUseFirst, recordAllocator );
-        }
-        else
-        {
-            return allocateFromNumbers( array, recordsToUseFirst, recordAllocator );
-        }
+        byte[] bytes = type.equals( String.class ) ? encodeFromStrings( (String[]) array ) : encodeFromNumbers( array );
+        return allocateRecordsFromBytes( bytes, recordsToUseFirst );
     }
 
     public static Object getRightArray( Pair<byte[],byte[]> data )
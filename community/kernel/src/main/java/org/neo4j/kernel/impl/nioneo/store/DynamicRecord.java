@@ -27,6 +27,7 @@ public class DynamicRecord extends Abstract64BitRecord
     private long nextBlock = Record.NO_NEXT_BLOCK.intValue();
     private int type;
     private boolean startRecord = true;
+    private boolean compressed;
 
     public static DynamicRecord dynamicRecord( long id, boolean inUse )
     {
@@ -62,6 +63,20 @@ public class DynamicRecord extends Abstract64BitRecord
         return startRecord;
     }
 
+    /**
+     * @param compressed whether the data of the chain started by this record is compressed, see
+     * {@link DynamicRecordCompression}. Only ever set on the start record of a chain.
+     */
+    public void setCompressed( boolean compressed )
+    {
+        this.compressed = compressed;
+    }
+
+    public boolean isCompressed()
+    {
+        return compressed;
+    }
+
     public int getType()
     {
         return type;
@@ -138,7 +153,7 @@ public class DynamicRecord extends Abstract64BitRecord
         buf.append( ",data=" );
         if ( data != null )
         {
-            if ( type == PropertyType.STRING && data.length <= MAX_CHARS_IN_TO_STRING )
+            if ( type == PropertyType.STRING && !compressed && data.length <= MAX_CHARS_IN_TO_STRING )
             {
                 buf.append( '"' );
                 buf.append( PropertyStore.decodeString( data ) );
@@ -167,6 +182,7 @@ public class DynamicRecord extends Abstract64BitRecord
             buf.append( "null," );
         }
         buf.append( "start=" ).append( startRecord );
+        if ( compressed ) buf.append( ",compressed" );
         buf.append( ",next=" ).append( nextBlock ).append( "]" );
         return buf.toString();
     }
@@ -182,6 +198,7 @@ public class DynamicRecord extends Abstract64BitRecord
         result.nextBlock = nextBlock;
         result.type = type;
         result.startRecord = startRecord;
+        result.compressed = compressed;
         return result;
     }
     
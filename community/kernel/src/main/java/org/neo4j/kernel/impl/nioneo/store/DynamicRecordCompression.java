@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * How the bytes of a dynamic record chain are compressed before they are divided into records. A compressed
+ * chain is marked as such in the header of its first record, so chains written with and without compression
+ * can be read from the same store.
+ * <p>
+ * The data of a compressed chain is laid out as [codec id (1 byte)][uncompressed length (4 bytes)][compressed].
+ */
+public enum DynamicRecordCompression
+{
+    NONE( 0 )
+    {
+        @Override
+        byte[] compressBytes( byte[] src )
+        {
+            return null;
+        }
+
+        @Override
+        byte[] decompressBytes( byte[] src, int offset, int length )
+        {
+            throw new InvalidRecordException( "Dynamic record chain marked as compressed without a codec" );
+        }
+    },
+    LZF( 1 )
+    {
+        @Override
+        byte[] compressBytes( byte[] src )
+        {
+            return Lzf.compress( src );
+        }
+
+        @Override
+        byte[] decompressBytes( byte[] src, int offset, int length )
+        {
+            return Lzf.decompress( src, offset, length );
+        }
+    };
+
+    private static final int HEADER_SIZE = 1 + 4;
+
+    private final byte id;
+
+    private DynamicRecordCompression( int id )
+    {
+        this.id = (byte) id;
+    }
+
+    abstract byte[] compressBytes( byte[] src );
+
+    abstract byte[] decompressBytes( byte[] src, int offset, int length );
+
+    /**
+     * @return {@code src} compressed with this codec, or {@code null} if that wouldn't make it any smaller.
+     */
+    public byte[] compress( byte[] src )
+    {
+        byte[] compressed = compressBytes( src );
+        if ( compressed == null || compressed.length + HEADER_SIZE >= src.length )
+        {
+            return null;
+        }
+        return ByteBuffer.allocate( HEADER_SIZE + compressed.length )
+                .put( id ).putInt( src.length ).put( compressed ).array();
+    }
+
+    /**
+     * Decompresses data produced by {@link #compress(byte[])} of whichever codec compressed it.
+     */
+    public static byte[] decompress( byte[] data )
+    {
+        ByteBuffer buffer = ByteBuffer.wrap( data );
+        byte id = buffer.get();
+        int length = buffer.getInt();
+        for ( DynamicRecordCompression codec : values() )
+        {
+            if ( codec.id == id )
+            {
+                return codec.decompressBytes( data, HEADER_SIZE, length );
+            }
+        }
+        throw new InvalidRecordException( "Unknown compression codec " + id + " of dynamic record chain" );
+    }
+}
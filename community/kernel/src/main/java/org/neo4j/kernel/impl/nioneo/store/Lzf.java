@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.Arrays;
+
+/**
+ * A pure Java implementation of the LZF compression format, a fast member of the LZ77 family.
+ * <p>
+ * The compressed data is a sequence of chunks, each starting with a control byte. A control byte below 32
+ * is followed by that many plus one literal bytes. Otherwise its three highest bits hold the length of a
+ * back reference minus two (7 meaning that the next byte is to be added to it) and its five lowest bits the
+ * high bits of the distance of the back reference minus one, whose low bits are in the byte that follows.
+ */
+public class Lzf
+{
+    private static final int HASH_BITS = 14;
+    private static final int MAX_LITERAL = 1 << 5;
+    private static final int MAX_OFFSET = 1 << 13;
+    private static final int MAX_REFERENCE = (1 << 8) + (1 << 3);
+
+    private Lzf()
+    {
+    }
+
+    /**
+     * @return the compressed form of {@code src}, or {@code null} if that isn't smaller than {@code src}.
+     */
+    public static byte[] compress( byte[] src )
+    {
+        int length = src.length;
+        if ( length < 4 )
+        {
+            return null;
+        }
+
+        byte[] out = new byte[length];
+        int[] hashTable = new int[1 << HASH_BITS];
+        int in = 0;
+        int pos = 1; // leaves room for the control byte of the first literal run
+        int literals = 0;
+        while ( in < length - 2 )
+        {
+            int hash = hash( src, in );
+            int reference = hashTable[hash] - 1;
+            hashTable[hash] = in + 1;
+            int offset = in - reference - 1;
+            if ( reference >= 0 && offset < MAX_OFFSET && src[reference] == src[in] &&
+                 src[reference + 1] == src[in + 1] && src[reference + 2] == src[in + 2] )
+            {
+                int maxMatch = Math.min( length - in, MAX_REFERENCE );
+                int match = 3;
+                while ( match < maxMatch && src[reference + match] == src[in + match] )
+                {
+                    match++;
+                }
+
+                pos = endLiteralRun( out, pos, literals );
+                if ( pos + 4 >= length )
+                {
+                    return null;
+                }
+                int encodedMatch = match - 2;
+                if ( encodedMatch < 7 )
+                {
+                    out[pos++] = (byte) ((offset >> 8) + (encodedMatch << 5));
+                }
+                else
+                {
+                    out[pos++] = (byte) ((offset >> 8) + (7 << 5));
+                    out[pos++] = (byte) (encodedMatch - 7);
+                }
+                out[pos++] = (byte) offset;
+                pos++;
+                literals = 0;
+                in += match;
+            }
+            else
+            {
+                if ( pos >= length )
+                {
+                    return null;
+                }
+                out[pos++] = src[in++];
+                if ( ++literals == MAX_LITERAL )
+                {
+                    out[pos - literals - 1] = (byte) (literals - 1);
+                    pos++;
+                    literals = 0;
+                }
+            }
+        }
+        while ( in < length )
+        {
+            if ( pos >= length )
+            {
+                return null;
+            }
+            out[pos++] = src[in++];
+            if ( ++literals == MAX_LITERAL )
+            {
+                out[pos - literals - 1] = (byte) (literals - 1);
+                pos++;
+                literals = 0;
+            }
+        }
+        pos = endLiteralRun( out, pos, literals );
+        return pos < length ? Arrays.copyOf( out, pos ) : null;
+    }
+
+    private static int endLiteralRun( byte[] out, int pos, int literals )
+    {
+        if ( literals == 0 )
+        {
+            return pos - 1; // takes back the room left for a control byte
+        }
+        out[pos - literals - 1] = (byte) (literals - 1);
+        return pos;
+    }
+
+    private static int hash( byte[] src, int in )
+    {
+        int value = ((src[in] & 0xFF) << 16) | ((src[in + 1] & 0xFF) << 8) | (src[in + 2] & 0xFF);
+        return (value * -1640531535) >>> (32 - HASH_BITS);
+    }
+
+    /**
+     * Decompresses the data in {@code src}, starting at {@code offset}, into {@code length} bytes.
+     */
+    public static byte[] decompress( byte[] src, int offset, int length )
+    {
+        byte[] out = new byte[length];
+        int in = offset;
+        int pos = 0;
+        while ( in < src.length )
+        {
+            int control = src[in++] & 0xFF;
+            if ( control < MAX_LITERAL )
+            {
+                int literals = control + 1;
+                System.arraycopy( src, in, out, pos, literals );
+                in += literals;
+                pos += literals;
+            }
+            else
+            {
+                int match = control >> 5;
+                if ( match == 7 )
+                {
+                    match += src[in++] & 0xFF;
+                }
+                match += 2;
+                int reference = pos - ((control & 0x1F) << 8) - (src[in++] & 0xFF) - 1;
+                if ( reference < 0 )
+                {
+                    throw new InvalidRecordException( "Illegal back reference in compressed data" );
+                }
+                // The reference may overlap the bytes being written, so copy byte by byte
+                for ( int i = 0; i < match; i++ )
+                {
+                    out[pos++] = out[reference++];
+                }
+            }
+        }
+        if ( pos != length )
+        {
+            throw new InvalidRecordException( "Compressed data decompressed into " + pos + " bytes, expected " +
+                    length );
+        }
+        return out;
+    }
+}
@@ -50,6 +50,7 @@ public class NeoStore extends AbstractStore
         extends AbstractStore.Configuration
     {
         public static final Setting<Integer> relationship_grab_size = GraphDatabaseSettings.relationship_grab_size;
+        public static final Setting<Integer> dense_node_threshold = GraphDatabaseSettings.dense_node_threshold;
     }
 
     public static final String TYPE_DESCRIPTOR = "NeoStore";
@@ -80,6 +81,7 @@ public class NeoStore extends AbstractStore
     private NodeStore nodeStore;
     private PropertyStore propStore;
     private RelationshipStore relStore;
+    private RelationshipGroupStore relGroupStore;
     private RelationshipTypeTokenStore relTypeStore;
     private LabelTokenStore labelTokenStore;
     private SchemaStore schemaStore;
@@ -88,6 +90,7 @@ public class NeoStore extends AbstractStore
     private long latestConstraintIntroducingTx = -1;
 
     private final int REL_GRAB_SIZE;
+    private final int DENSE_NODE_THRESHOLD;
 
     public NeoStore( File fileName, Config conf,
                      IdGeneratorFactory idGeneratorFactory, WindowPoolFactory windowPoolFactory,
@@ -95,7 +98,7 @@ public class NeoStore extends AbstractStore
                      StringLogger stringLogger, TxHook txHook,
                      RelationshipTypeTokenStore relTypeStore, LabelTokenStore labelTokenStore,
                      PropertyStore propStore, RelationshipStore relStore,
-                     NodeStore nodeStore, SchemaStore schemaStore )
+                     RelationshipGroupStore relGroupStore, NodeStore nodeStore, SchemaStore schemaStore )
     {
         super( fileName, conf, IdType.NEOSTORE_BLOCK, idGeneratorFactory, windowPoolFactory,
                 fileSystemAbstraction, stringLogger);
@@ -103,9 +106,11 @@ public class NeoStore extends AbstractStore
         this.labelTokenStore = labelTokenStore;
         this.propStore = propStore;
         this.relStore = relStore;
+        this.relGroupStore = relGroupStore;
         this.nodeStore = nodeStore;
         this.schemaStore = schemaStore;
         REL_GRAB_SIZE = conf.get( Configuration.relationship_grab_size );
+        DENSE_NODE_THRESHOLD = conf.get( Configuration.dense_node_threshold );
         this.txHook = txHook;
 
         /* [MP:2012-01-03] Fix for the problem in 1.5.M02 where store version got upgraded but
@@ -259,6 +264,11 @@ public class NeoStore extends AbstractStore
             relStore.close();
             relStore = null;
         }
+        if ( relGroupStore != null )
+        {
+            relGroupStore.close();
+            relGroupStore = null;
+        }
         if ( nodeStore != null )
         {
             nodeStore.close();
@@ -275,7 +285,7 @@ public class NeoStore extends AbstractStore
     public void flushAll()
     {
         if ( relTypeStore == null || labelTokenStore == null || propStore == null || relStore == null ||
-                nodeStore == null || schemaStore == null )
+                relGroupStore == null || nodeStore == null || schemaStore == null )
         {
             return;
         }
@@ -284,6 +294,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.flushAll();
         propStore.flushAll();
         relStore.flushAll();
+        relGroupStore.flushAll();
         nodeStore.flushAll();
         schemaStore.flushAll();
     }
@@ -428,6 +439,7 @@ public class NeoStore extends AbstractStore
             nodeStore.setRecovered();
             propStore.setRecovered();
             relStore.setRecovered();
+            relGroupStore.setRecovered();
             relTypeStore.setRecovered();
             labelTokenStore.setRecovered();
             schemaStore.setRecovered();
@@ -438,6 +450,7 @@ public class NeoStore extends AbstractStore
             nodeStore.unsetRecovered();
             propStore.unsetRecovered();
             relStore.unsetRecovered();
+            relGroupStore.unsetRecovered();
             relTypeStore.unsetRecovered();
             labelTokenStore.unsetRecovered();
             schemaStore.unsetRecovered();
@@ -575,6 +588,16 @@ public class NeoStore extends AbstractStore
         return relStore;
     }
 
+    /**
+     * The relationship group store.
+     *
+     * @return The relationship group store
+     */
+    public RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return relGroupStore;
+    }
+
     /**
      * Returns the relationship type store.
      *
@@ -612,6 +635,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.makeStoreOk();
         propStore.makeStoreOk();
         relStore.makeStoreOk();
+        relGroupStore.makeStoreOk();
         nodeStore.makeStoreOk();
         schemaStore.makeStoreOk();
         super.makeStoreOk();
@@ -624,6 +648,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.rebuildIdGenerators();
         propStore.rebuildIdGenerators();
         relStore.rebuildIdGenerators();
+        relGroupStore.rebuildIdGenerators();
         nodeStore.rebuildIdGenerators();
         schemaStore.rebuildIdGenerators();
         super.rebuildIdGenerators();
@@ -636,6 +661,7 @@ public class NeoStore extends AbstractStore
         labelTokenStore.updateIdGenerators();
         propStore.updateIdGenerators();
         relStore.updateHighId();
+        relGroupStore.updateHighId();
         nodeStore.updateIdGenerators();
         schemaStore.updateHighId();
     }
@@ -645,6 +671,11 @@ public class NeoStore extends AbstractStore
         return REL_GRAB_SIZE;
     }
 
+    public int getDenseNodeThreshold()
+    {
+        return DENSE_NODE_THRESHOLD;
+    }
+
     @Override
     public List<WindowPoolStats> getAllWindowPoolStats()
     {
@@ -654,6 +685,7 @@ public class NeoStore extends AbstractStore
         list.addAll( nodeStore.getAllWindowPoolStats() );
         list.addAll( propStore.getAllWindowPoolStats() );
         list.addAll( relStore.getAllWindowPoolStats() );
+        list.addAll( relGroupStore.getAllWindowPoolStats() );
         list.addAll( relTypeStore.getAllWindowPoolStats() );
         list.addAll( labelTokenStore.getAllWindowPoolStats() );
         return list;
@@ -666,6 +698,7 @@ public class NeoStore extends AbstractStore
         // TODO no stats for schema store?
         nodeStore.logAllWindowPoolStats( logger );
         relStore.logAllWindowPoolStats( logger );
+        relGroupStore.logAllWindowPoolStats( logger );
         relTypeStore.logAllWindowPoolStats( logger );
         labelTokenStore.logAllWindowPoolStats( logger );
         propStore.logAllWindowPoolStats( logger );
@@ -674,7 +707,8 @@ public class NeoStore extends AbstractStore
     public boolean isStoreOk()
     {
         return getStoreOk() && relTypeStore.getStoreOk() && labelTokenStore.getStoreOk() &&
-            propStore.getStoreOk() && relStore.getStoreOk() && nodeStore.getStoreOk() && schemaStore.getStoreOk();
+            propStore.getStoreOk() && relStore.getStoreOk() && relGroupStore.getStoreOk() &&
+            nodeStore.getStoreOk() && schemaStore.getStoreOk();
     }
 
     @Override
@@ -686,6 +720,7 @@ public class NeoStore extends AbstractStore
         schemaStore.logVersions( msgLog );
         nodeStore.logVersions( msgLog );
         relStore.logVersions( msgLog );
+        relGroupStore.logVersions( msgLog );
         relTypeStore.logVersions( msgLog );
         labelTokenStore.logVersions( msgLog );
         propStore.logVersions( msgLog );
@@ -700,6 +735,7 @@ public class NeoStore extends AbstractStore
         schemaStore.logIdUsage( msgLog );
         nodeStore.logIdUsage( msgLog );
         relStore.logIdUsage( msgLog );
+        relGroupStore.logIdUsage( msgLog );
         relTypeStore.logIdUsage( msgLog );
         labelTokenStore.logIdUsage( msgLog );
         propStore.logIdUsage( msgLog );
@@ -29,8 +29,16 @@ import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLab
 
 public class NodeRecord extends PrimitiveRecord
 {
+    /**
+     * Degrees above this aren't kept in the degree hint, it becomes {@link #UNKNOWN_DEGREE} instead.
+     */
+    public static final int MAX_DEGREE_HINT = 126;
+    public static final int UNKNOWN_DEGREE = -1;
+
     private final long committedNextRel;
     private long nextRel;
+    private boolean dense;
+    private int degreeHint = UNKNOWN_DEGREE;
     private long labels;
     private Collection<DynamicRecord> dynamicLabelRecords = emptyList();
     private boolean isLight = true;
@@ -56,6 +64,34 @@ public class NodeRecord extends PrimitiveRecord
         return isCreated() ? Record.NO_NEXT_RELATIONSHIP.intValue() : committedNextRel;
     }
 
+    /**
+     * A dense node has its relationships split up by type in {@link RelationshipGroupRecord groups},
+     * the first of which {@link #getNextRel()} points to.
+     */
+    public boolean isDense()
+    {
+        return dense;
+    }
+
+    public void setDense( boolean dense )
+    {
+        this.dense = dense;
+    }
+
+    /**
+     * The number of relationships of a node that isn't dense, or {@link #UNKNOWN_DEGREE} if that hasn't
+     * been counted. It is only used to decide when to make a node dense.
+     */
+    public int getDegreeHint()
+    {
+        return degreeHint;
+    }
+
+    public void setDegreeHint( int degreeHint )
+    {
+        this.degreeHint = degreeHint > MAX_DEGREE_HINT ? UNKNOWN_DEGREE : degreeHint;
+    }
+
     /**
      * Sets the label field to a pointer to the first changed dynamic record. All changed
      * dynamic records by doing this are supplied here.
@@ -95,6 +131,8 @@ public class NodeRecord extends PrimitiveRecord
         StringBuilder builder = new StringBuilder( "Node[" ).append( getId() )
                 .append( ",used=" ).append( inUse() )
                 .append( ",rel=" ).append( nextRel )
+                .append( dense ? ",dense" : "" )
+                .append( ",degreeHint=" ).append( degreeHint )
                 .append( ",prop=" ).append( getNextProp() )
                 .append( ",labels=" ).append( parseLabelsField( this ) )
                 .append( "," ).append( isLight ? "light" : "heavy" );
@@ -117,6 +155,8 @@ public class NodeRecord extends PrimitiveRecord
         NodeRecord clone = new NodeRecord( getId(), getCommittedNextRel(), getCommittedNextProp() );
         clone.setNextProp( getNextProp() );
         clone.nextRel = nextRel;
+        clone.dense = dense;
+        clone.degreeHint = degreeHint;
         clone.labels = labels;
         clone.isLight = isLight;
         clone.setInUse( inUse() );
@@ -65,8 +65,8 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
 
     public static final String TYPE_DESCRIPTOR = "NodeStore";
 
-    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)
-    public static final int RECORD_SIZE = 14;
+    // in_use(byte)+next_rel_id(int)+next_prop_id(int)+labels(5)+dense_and_degree(byte)
+    public static final int RECORD_SIZE = 15;
 
     private DynamicArrayStore dynamicLabelStore;
 
@@ -254,10 +254,12 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
         long lsbLabels = buffer.getUnsignedInt();
         long hsbLabels = buffer.get() & 0xFF; // so that a negative bye won't fill the "extended" bits with ones.
         long labels = lsbLabels | (hsbLabels << 32);
+        byte denseAndDegree = buffer.get();
 
         NodeRecord nodeRecord = new NodeRecord( id, longFromIntAndMod( nextRel, relModifier ),
                 longFromIntAndMod( nextProp, propModifier ) );
         nodeRecord.setInUse( inUse );
+        setDenseAndDegree( nodeRecord, denseAndDegree );
         nodeRecord.setLabelField( labels, Collections.<DynamicRecord>emptyList() );
 
         return nodeRecord;
@@ -288,6 +290,7 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
             buffer.putInt( (int) labelField );
             // msb of labels
             buffer.put( (byte) ((labelField&0xFF00000000L) >> 32) );
+            buffer.put( denseAndDegree( record ) );
         }
         else
         {
@@ -299,6 +302,22 @@ public class NodeStore extends AbstractRecordStore<NodeRecord> implements Store
         }
     }
 
+    /**
+     * [       x] dense
+     * [xxxxxxx ] degree hint plus one, zero if it's unknown
+     */
+    public static byte denseAndDegree( NodeRecord record )
+    {
+        int degree = record.getDegreeHint() + 1;
+        return (byte) ((degree << 1) | (record.isDense() ? 0x1 : 0));
+    }
+
+    public static void setDenseAndDegree( NodeRecord record, byte denseAndDegree )
+    {
+        record.setDense( (denseAndDegree & 0x1) != 0 );
+        record.setDegreeHint( ((denseAndDegree & 0xFE) >> 1) - 1 );
+    }
+
     @Override
     public List<WindowPoolStats> getAllWindowPoolStats()
     {
@@ -0,0 +1,582 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * A {@link WindowPool} that maps a store into a fixed number of equally sized {@link PageFrame page frames}.
+ * Where {@link PersistenceWindowPool} periodically sorts all its bricks by hit count and remaps them under
+ * a lock, this pool replaces one page at a time using CLOCK eviction: a hand sweeps over the frames and
+ * evicts the first one that is neither pinned nor referenced since the hand last passed it.
+ * <p>
+ * Acquiring a record in a mapped page is a lookup in a concurrent map and a CAS on the pin state of
+ * the frame. Reads of the same page happen in parallel, each through its own view of the mapped buffer.
+ * Mapping a page that isn't in memory only synchronizes on a stripe of pages, so there is no point
+ * where all readers of a store wait for a global refresh. If a page can't be mapped, because every
+ * frame is pinned, memory mapping fails or the page lies beyond the end of a read-only store, the
+ * record is accessed through a {@link PersistenceRow} instead, just like in {@link PersistenceWindowPool}.
+ * No page is mapped while there are rows over it, so rows and mapped pages never see different
+ * versions of the same record.
+ */
+public class PageCacheWindowPool implements WindowPool
+{
+    static final int MIN_FRAME_COUNT = 16;
+    private static final int STRIPE_COUNT = 64; // must be a power of two
+    private static final long CLOSE_TIMEOUT_MILLIS = 10000;
+
+    private final File storeName;
+    private final int blockSize;
+    private FileChannel fileChannel;
+    private final long availableMem;
+    private final boolean readOnly;
+    private final MapMode mapMode;
+    private final ConcurrentMap<Long,PersistenceRow> activeRowWindows;
+    private final StringLogger log;
+
+    private final int recordsPerPage;
+    private final int pageSize;
+    private final PageFrame[] frames;
+    private final ConcurrentMap<Long,PageFrame> mappedPages = new ConcurrentHashMap<>();
+    private final PageStripe[] stripes = new PageStripe[STRIPE_COUNT];
+    private final AtomicInteger clockHand = new AtomicInteger();
+
+    // Like in PersistenceWindowPool it's OK to miss some updates for these statistics
+    private int hit = 0;
+    private int miss = 0;
+    private int evictions = 0;
+    private int ooe = 0;
+
+    /**
+     * Create new pool for a store.
+     *
+     * @param storeName Name of store that use this pool
+     * @param blockSize The size of each record/block in the store
+     * @param fileChannel A fileChannel to the store
+     * @param mappedMem Number of bytes dedicated to page frames
+     * @param targetPageSize Preferred size of each page in bytes, will be lowered if {@code mappedMem}
+     * can't hold at least {@link #MIN_FRAME_COUNT} pages of that size
+     * @param readOnly whether or not this store is read only, pages beyond the end of a read only store aren't mapped
+     * @param activeRowWindows Data structure for storing active "row windows", generally just provide a concurrent
+     * hash map.
+     */
+    public PageCacheWindowPool( File storeName, int blockSize, FileChannel fileChannel, long mappedMem,
+                                long targetPageSize, boolean readOnly,
+                                ConcurrentMap<Long, PersistenceRow> activeRowWindows, StringLogger log )
+    {
+        this.storeName = storeName;
+        this.blockSize = blockSize;
+        this.fileChannel = fileChannel;
+        this.readOnly = readOnly;
+        this.mapMode = readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE;
+        this.activeRowWindows = activeRowWindows;
+        this.log = log;
+        for ( int i = 0; i < stripes.length; i++ )
+        {
+            stripes[i] = new PageStripe();
+        }
+
+        // If we can't fit even 10 blocks in available memory don't even try to use available memory.
+        if ( blockSize == 0 || mappedMem < blockSize * 10l )
+        {
+            if ( mappedMem > 0 )
+            {
+                logWarn( "Unable to use " + mappedMem + "b as page frames, need at least "
+                        + blockSize * 10 + "b (block size * 10)" );
+                logWarn( "Memory mapped page frames have been turned off" );
+            }
+            this.availableMem = 0;
+            this.recordsPerPage = 0;
+            this.pageSize = 0;
+            this.frames = new PageFrame[0];
+        }
+        else
+        {
+            long pageBytes = Math.min( targetPageSize, Math.max( mappedMem / MIN_FRAME_COUNT, blockSize ) );
+            pageBytes = Math.min( pageBytes, Integer.MAX_VALUE );
+            this.availableMem = mappedMem;
+            this.recordsPerPage = (int) Math.max( 1, pageBytes / blockSize );
+            this.pageSize = recordsPerPage * blockSize;
+            long frameCount = Math.min( mappedMem / pageSize, Integer.MAX_VALUE );
+            this.frames = new PageFrame[(int) frameCount];
+            for ( int i = 0; i < frames.length; i++ )
+            {
+                frames[i] = new PageFrame( i );
+            }
+        }
+        dumpStatus();
+    }
+
+    /**
+     * Acquires a window for <CODE>position</CODE> and <CODE>operationType</CODE>. Readers of a mapped page
+     * share it, while a writer has the page to itself until it is released.
+     *
+     * @param position The position the needs to be encapsulated by the window
+     * @param operationType The type of operation (READ or WRITE)
+     * @return A pinned or locked window encapsulating the position
+     */
+    @Override
+    public PersistenceWindow acquire( long position, OperationType operationType )
+    {
+        if ( frames.length == 0 )
+        {
+            miss++;
+            return acquireRow( position, operationType );
+        }
+
+        long pageId = position / recordsPerPage;
+        while ( true )
+        {
+            PageFrame frame = mappedPages.get( pageId );
+            if ( frame != null )
+            {
+                if ( frame.pin( pageId, operationType ) )
+                {
+                    hit++;
+                    return new PageWindow( frame, operationType, recordsPerPage, blockSize );
+                }
+                // The frame was evicted after we looked it up, look again
+                continue;
+            }
+
+            miss++;
+            PageStripe stripe = stripe( pageId );
+            synchronized ( stripe )
+            {
+                frame = mappedPages.get( pageId );
+                if ( frame == null )
+                {
+                    frame = stripe.hasRows( pageId ) ? null : mapPage( pageId );
+                    if ( frame == null )
+                    {
+                        // We can't have a mapped page here right now, so the row count for this page
+                        // keeps it from being mapped until this row has been released.
+                        stripe.rowAcquired( pageId );
+                        break;
+                    }
+                }
+            }
+        }
+        return acquireRow( position, operationType );
+    }
+
+    private PersistenceWindow acquireRow( long position, OperationType operationType )
+    {
+        LockableWindow window;
+        while ( true )
+        {
+            // Lock-free implementation of instantiating an active window for this position,
+            // see PersistenceWindowPool#acquire for details.
+            PersistenceRow dpw = activeRowWindows.get( position );
+            if ( dpw != null && dpw.markAsInUse() )
+            {
+                window = dpw;
+                break;
+            }
+            dpw = new PersistenceRow( position, blockSize, fileChannel );
+            PersistenceRow existing = activeRowWindows.putIfAbsent( position, dpw );
+            if ( existing == null )
+            {
+                window = dpw;
+                break;
+            }
+            dpw.close();
+        }
+        window.lock( operationType );
+        return window;
+    }
+
+    /**
+     * Maps {@code pageId} into a frame chosen by the CLOCK hand. Called while synchronized on the stripe
+     * of {@code pageId}.
+     *
+     * @return the frame now holding {@code pageId}, or {@code null} if it couldn't be mapped.
+     */
+    private PageFrame mapPage( long pageId )
+    {
+        if ( readOnly && !isWithinFile( pageId ) )
+        {
+            return null;
+        }
+        PageFrame frame = evict();
+        if ( frame == null )
+        {
+            return null;
+        }
+        try
+        {
+            MappedByteBuffer buffer = fileChannel.map( mapMode, pageId * pageSize, pageSize );
+            frame.bind( pageId, buffer );
+            mappedPages.put( pageId, frame );
+            frame.releaseClaim();
+            return frame;
+        }
+        catch ( IOException e )
+        {
+            ooe++;
+            logWarn( "Unable to memory map", e );
+        }
+        catch ( OutOfMemoryError e )
+        {
+            ooe++;
+            logWarn( "Unable to allocate direct buffer", e );
+        }
+        frame.releaseClaim();
+        return null;
+    }
+
+    private boolean isWithinFile( long pageId )
+    {
+        try
+        {
+            return (pageId + 1) * pageSize <= fileChannel.size();
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to get file size for " + storeName, e );
+        }
+    }
+
+    /**
+     * Sweeps the CLOCK hand over the frames, giving referenced frames a second chance, until a frame
+     * that isn't pinned can be claimed. Gives up after two full laps, i.e. when every frame is pinned.
+     *
+     * @return a claimed frame with no page mapped into it, or {@code null} if no frame could be claimed.
+     */
+    private PageFrame evict()
+    {
+        for ( int i = 0; i < frames.length * 2; i++ )
+        {
+            PageFrame frame = frames[(clockHand.getAndIncrement() & Integer.MAX_VALUE) % frames.length];
+            if ( frame.clearReferenced() || !frame.claimForEviction() )
+            {
+                continue;
+            }
+
+            long evictedPageId = frame.pageId();
+            if ( evictedPageId != PageFrame.NO_PAGE )
+            {
+                mappedPages.remove( evictedPageId, frame );
+                if ( !readOnly )
+                {
+                    frame.force();
+                }
+                evictions++;
+            }
+            frame.unbind();
+            return frame;
+        }
+        return null;
+    }
+
+    /**
+     * Releases a window used for an operation back to the pool, unpinning its page frame or
+     * unlocking and writing out the row.
+     *
+     * @param window The window to be released
+     */
+    @Override
+    public void release( PersistenceWindow window )
+    {
+        if ( window instanceof PageWindow )
+        {
+            ((PageWindow) window).release();
+            return;
+        }
+
+        try
+        {
+            PersistenceRow dpw = (PersistenceRow) window;
+            try
+            {
+                if ( dpw.writeOutAndCloseIfFree( readOnly ) )
+                {
+                    activeRowWindows.remove( dpw.position(), dpw );
+                }
+                else
+                {
+                    dpw.reset();
+                }
+            }
+            finally
+            {
+                if ( frames.length > 0 )
+                {
+                    long pageId = dpw.position() / recordsPerPage;
+                    PageStripe stripe = stripe( pageId );
+                    synchronized ( stripe )
+                    {
+                        stripe.rowReleased( pageId );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            ((LockableWindow) window).unLock();
+        }
+    }
+
+    private PageStripe stripe( long pageId )
+    {
+        return stripes[(int) (pageId & (STRIPE_COUNT - 1))];
+    }
+
+    /**
+     * Unmaps the pages of all frames. A frame is only unmapped once it's been claimed, so that no thread can
+     * have it pinned, waiting a while for threads that do. Frames still pinned after that are left mapped,
+     * for the garbage collector to unmap once the windows over them are gone. Claimed frames are never handed
+     * back, so nothing can be mapped into them after this.
+     */
+    @Override
+    public synchronized void close()
+    {
+        flushAll();
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MILLIS;
+        for ( PageFrame frame : frames )
+        {
+            if ( claimForClose( frame, deadline ) )
+            {
+                frame.unbind();
+            }
+            else
+            {
+                logWarn( frame + " is still pinned, leaving it to be unmapped by the garbage collector" );
+                frame.abandon();
+            }
+        }
+        mappedPages.clear();
+        fileChannel = null;
+        activeRowWindows.clear();
+        dumpStatistics();
+    }
+
+    private static boolean claimForClose( PageFrame frame, long deadline )
+    {
+        while ( !frame.claimForEviction() )
+        {
+            if ( System.currentTimeMillis() > deadline )
+            {
+                return false;
+            }
+            try
+            {
+                Thread.sleep( 1 );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void flushAll()
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+
+        for ( PageFrame frame : frames )
+        {
+            frame.force();
+        }
+        try
+        {
+            fileChannel.force( false );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Failed to flush file channel " + storeName, e );
+        }
+    }
+
+    @Override
+    public WindowPoolStats getStats()
+    {
+        return new WindowPoolStats( storeName, availableMem, (long) mappedPages.size() * pageSize, frames.length,
+                pageSize, hit, miss, ooe, evictions, 0, 0, 0 );
+    }
+
+    private void dumpStatus()
+    {
+        try
+        {
+            log.info( "[" + storeName + "] frameCount=" + frames.length + " pageSize=" + pageSize
+                    + "b mappedMem=" + availableMem + "b (storeSize=" + fileChannel.size() + "b)" );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to get file size for " + storeName, e );
+        }
+    }
+
+    private void dumpStatistics()
+    {
+        log.info( storeName + " hit=" + hit + " miss=" + miss + " evictions=" + evictions + " ooe=" + ooe );
+    }
+
+    private void logWarn( String logMessage )
+    {
+        log.warn( "[" + storeName + "] " + logMessage );
+    }
+
+    private void logWarn( String logMessage, Throwable cause )
+    {
+        log.warn( "[" + storeName + "] " + logMessage, cause );
+    }
+
+    /**
+     * Keeps track of the number of {@link PersistenceRow rows} acquired over the pages in a stripe.
+     * Only accessed while synchronized on the stripe.
+     */
+    private static class PageStripe
+    {
+        private final Map<Long,int[]> rowsPerPage = new HashMap<>();
+
+        boolean hasRows( long pageId )
+        {
+            return rowsPerPage.containsKey( pageId );
+        }
+
+        void rowAcquired( long pageId )
+        {
+            int[] count = rowsPerPage.get( pageId );
+            if ( count == null )
+            {
+                rowsPerPage.put( pageId, new int[]{1} );
+            }
+            else
+            {
+                count[0]++;
+            }
+        }
+
+        void rowReleased( long pageId )
+        {
+            int[] count = rowsPerPage.get( pageId );
+            assert count != null : "No rows acquired over page " + pageId;
+            if ( --count[0] == 0 )
+            {
+                rowsPerPage.remove( pageId );
+            }
+        }
+    }
+
+    /**
+     * The window handed out for a record in a mapped page. Each acquisition gets its own view of the
+     * mapped buffer, which is what allows several readers to use the same page at the same time.
+     */
+    private static class PageWindow implements PersistenceWindow
+    {
+        private final PageFrame frame;
+        private final OperationType operationType;
+        private final long position;
+        private final int size;
+        private final int recordSize;
+        private final Buffer buffer;
+        private boolean released;
+
+        PageWindow( PageFrame frame, OperationType operationType, int recordsPerPage, int recordSize )
+        {
+            this.frame = frame;
+            this.operationType = operationType;
+            this.position = frame.pageId() * recordsPerPage;
+            this.size = recordsPerPage;
+            this.recordSize = recordSize;
+            this.buffer = new Buffer( this, frame.buffer().duplicate() );
+        }
+
+        void release()
+        {
+            if ( released )
+            {
+                throw new IllegalStateException( this + " has already been released" );
+            }
+            released = true;
+            frame.unpin( operationType );
+        }
+
+        @Override
+        public Buffer getBuffer()
+        {
+            return buffer;
+        }
+
+        @Override
+        public Buffer getOffsettedBuffer( long id )
+        {
+            int offset = (int) (id - position) * recordSize;
+            buffer.setOffset( offset );
+            return buffer;
+        }
+
+        @Override
+        public int getRecordSize()
+        {
+            return recordSize;
+        }
+
+        @Override
+        public long position()
+        {
+            return position;
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public void force()
+        {
+            frame.force();
+        }
+
+        @Override
+        public void close()
+        {
+            // The frame outlives this window, it's up to the pool to unmap it
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PageWindow[p=" + position + ",rs=" + recordSize + ",ws=" + size + "," + frame + "]";
+        }
+    }
+}
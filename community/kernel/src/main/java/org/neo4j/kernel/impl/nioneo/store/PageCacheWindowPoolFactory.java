@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPool;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolFactory;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory.calculateMappedMemory;
+import static org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory.isBackupSlave;
+import static org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory.isReadOnly;
+
+/**
+ * Creates {@link PageCacheWindowPool page cache window pools}, which get the same amount of mapped memory
+ * per store as the pools created by {@link DefaultWindowPoolFactory}, divided into pages of
+ * {@link GraphDatabaseSettings#mapped_memory_page_size}.
+ */
+public class PageCacheWindowPoolFactory implements WindowPoolFactory
+{
+    @Override
+    public WindowPool create( File storageFileName, int recordSize, FileChannel fileChannel, Config configuration,
+                              StringLogger log )
+    {
+        return new PageCacheWindowPool( storageFileName, recordSize, fileChannel,
+                calculateMappedMemory( configuration, storageFileName ),
+                configuration.get( GraphDatabaseSettings.mapped_memory_page_size ),
+                isReadOnly( configuration ) && !isBackupSlave( configuration ),
+                new ConcurrentHashMap<Long, PersistenceRow>(), log );
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.kernel.impl.transaction.LockException;
+import org.neo4j.kernel.impl.util.DirectBuffers;
+
+/**
+ * One of the fixed number of frames that a {@link PageCacheWindowPool} maps store pages into.
+ * A frame is pinned by the threads reading or writing records in it; readers share the frame
+ * while a writer has it exclusively. Pinning and unpinning are plain CAS operations on the pin
+ * state, so threads working on different pages, or reading the same page, never block each other.
+ * <p>
+ * Like the windows of {@link PersistenceWindowPool}, a frame can be pinned again by the thread that has it
+ * pinned, in any mode. A thread that has the frame pinned for reading and asks to write waits for the other
+ * readers to go away, and then upgrades its shared pins to the exclusive one. If two threads try to upgrade
+ * the same frame they'd wait for each other forever, so the second one fails with a {@link LockException}.
+ * <p>
+ * A frame that isn't pinned can be claimed for eviction, which is what the CLOCK hand in the pool
+ * does when it needs to map a new page.
+ */
+class PageFrame
+{
+    private static final int WRITE_LOCKED = -1;
+    private static final int EVICTING = Integer.MIN_VALUE;
+    static final long NO_PAGE = -1;
+
+    private final int index;
+    private final AtomicInteger pins = new AtomicInteger();
+    private volatile long pageId = NO_PAGE;
+    private volatile MappedByteBuffer buffer;
+    private volatile boolean referenced;
+    private volatile boolean dirty;
+    private volatile Thread writer;
+    // Only touched by the writer thread, while holding the write pin
+    private int writerReentries;
+    private final AtomicReference<Thread> upgrader = new AtomicReference<>();
+    private final ThreadLocal<int[]> sharedPins = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1];
+        }
+    };
+
+    PageFrame( int index )
+    {
+        this.index = index;
+    }
+
+    int index()
+    {
+        return index;
+    }
+
+    long pageId()
+    {
+        return pageId;
+    }
+
+    MappedByteBuffer buffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Pins this frame for the given operation, spinning while a writer holds it.
+     *
+     * @return {@code true} if the frame was pinned and still holds {@code expectedPageId},
+     * otherwise {@code false}, in which case the frame isn't pinned and the caller should look the page up again.
+     */
+    boolean pin( long expectedPageId, OperationType operationType )
+    {
+        boolean pinned = operationType == OperationType.WRITE ? pinExclusive() : pinShared();
+        if ( !pinned )
+        {
+            return false;
+        }
+        if ( pageId != expectedPageId )
+        {
+            unpin( operationType );
+            return false;
+        }
+        referenced = true;
+        if ( operationType == OperationType.WRITE )
+        {
+            dirty = true;
+        }
+        return true;
+    }
+
+    private boolean pinShared()
+    {
+        Thread currentThread = Thread.currentThread();
+        while ( true )
+        {
+            int state = pins.get();
+            if ( state >= 0 )
+            {
+                if ( pins.compareAndSet( state, state + 1 ) )
+                {
+                    sharedPins.get()[0]++;
+                    return true;
+                }
+            }
+            else if ( state == EVICTING )
+            {
+                return false;
+            }
+            else if ( writer == currentThread )
+            {
+                writerReentries++;
+                return true;
+            }
+            else
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    private boolean pinExclusive()
+    {
+        Thread currentThread = Thread.currentThread();
+        int[] shared = sharedPins.get();
+        boolean upgrading = false;
+        try
+        {
+            while ( true )
+            {
+                int state = pins.get();
+                if ( state == shared[0] )
+                {   // Nobody but this thread has the frame pinned, any shared pins of ours become reentries
+                    if ( pins.compareAndSet( state, WRITE_LOCKED ) )
+                    {
+                        writer = currentThread;
+                        writerReentries = shared[0];
+                        shared[0] = 0;
+                        return true;
+                    }
+                }
+                else if ( state == EVICTING )
+                {
+                    return false;
+                }
+                else if ( state == WRITE_LOCKED && writer == currentThread )
+                {
+                    writerReentries++;
+                    return true;
+                }
+                else
+                {
+                    if ( shared[0] > 0 && !upgrading )
+                    {
+                        Thread otherUpgrader = upgrader.get();
+                        if ( !upgrader.compareAndSet( null, currentThread ) )
+                        {
+                            throw new LockException( currentThread + " can't pin " + this + " for writing " +
+                                    "while having it pinned for reading, since " + otherUpgrader +
+                                    " is waiting to do the same" );
+                        }
+                        upgrading = true;
+                    }
+                    Thread.yield();
+                }
+            }
+        }
+        finally
+        {
+            if ( upgrading )
+            {
+                upgrader.set( null );
+            }
+        }
+    }
+
+    void unpin( OperationType operationType )
+    {
+        int state = pins.get();
+        if ( state == WRITE_LOCKED )
+        {
+            if ( writerReentries > 0 )
+            {
+                writerReentries--;
+                return;
+            }
+            writer = null;
+            pins.set( 0 );
+            return;
+        }
+        if ( state <= 0 )
+        {
+            throw new IllegalStateException( this + " isn't pinned for " + operationType );
+        }
+        pins.decrementAndGet();
+        sharedPins.get()[0]--;
+    }
+
+    /**
+     * Gives this frame a second chance in the CLOCK sweep if it has been used since the hand last passed it.
+     *
+     * @return {@code true} if the frame had been referenced since the last sweep.
+     */
+    boolean clearReferenced()
+    {
+        if ( referenced )
+        {
+            referenced = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Claims this frame for eviction, which is only possible if no thread has it pinned.
+     * A claimed frame must be handed back with {@link #bind(long, MappedByteBuffer)} or {@link #releaseClaim()}.
+     */
+    boolean claimForEviction()
+    {
+        return pins.compareAndSet( 0, EVICTING );
+    }
+
+    boolean isDirty()
+    {
+        return dirty;
+    }
+
+    /**
+     * Writes out changes made to the mapped page, if any.
+     */
+    void force()
+    {
+        MappedByteBuffer currentBuffer = buffer;
+        if ( dirty && currentBuffer != null )
+        {
+            dirty = false;
+            currentBuffer.force();
+        }
+    }
+
+    /**
+     * Detaches the currently mapped page from this claimed frame and unmaps it. Since nobody has the frame
+     * pinned there can't be any windows left using the mapping, so it can be unmapped right away instead
+     * of leaving it to the garbage collector, which with a high eviction rate would exhaust the address space.
+     */
+    void unbind()
+    {
+        MappedByteBuffer evictedBuffer = buffer;
+        pageId = NO_PAGE;
+        buffer = null;
+        dirty = false;
+        referenced = false;
+        if ( evictedBuffer != null )
+        {
+            DirectBuffers.free( evictedBuffer );
+        }
+    }
+
+    /**
+     * Detaches the currently mapped page from this frame without unmapping it, for when the frame can't be
+     * claimed because some thread still has it pinned. The mapping stays valid for the windows over it, and
+     * is unmapped by the garbage collector once they're gone.
+     */
+    void abandon()
+    {
+        pageId = NO_PAGE;
+        buffer = null;
+        dirty = false;
+        referenced = false;
+    }
+
+    /**
+     * Maps {@code newPageId} into this claimed frame. The claim is kept until {@link #releaseClaim()},
+     * so that the frame can't be evicted again before the pool has published it.
+     */
+    void bind( long newPageId, MappedByteBuffer newBuffer )
+    {
+        buffer = newBuffer;
+        pageId = newPageId;
+        referenced = true;
+    }
+
+    void releaseClaim()
+    {
+        pins.set( 0 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageFrame[" + index + ",page=" + pageId + ",pins=" + pins.get() + "]";
+    }
+}
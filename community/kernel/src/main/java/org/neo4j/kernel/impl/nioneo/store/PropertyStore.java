@@ -25,7 +25,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.IdGeneratorFactory;
@@ -42,11 +46,15 @@ import static org.neo4j.kernel.impl.nioneo.store.DynamicArrayStore.getRightArray
 /**
  * Implementation of the property store. This implementation has two dynamic
  * stores. One used to store keys and another for string property values.
+ * Values of the properties named in {@link Configuration#string_dictionary_keys}
+ * are kept in a {@link StringDictionary}.
  */
 public class PropertyStore extends AbstractRecordStore<PropertyRecord> implements Store
 {
     public static abstract class Configuration extends AbstractStore.Configuration
     {
+        public static final Setting<List<String>> string_dictionary_keys =
+                GraphDatabaseSettings.string_dictionary_keys;
     }
     
     public static final int DEFAULT_DATA_BLOCK_SIZE = 120;
@@ -63,19 +71,24 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     private DynamicStringStore stringPropertyStore;
     private PropertyKeyTokenStore propertyKeyTokenStore;
     private DynamicArrayStore arrayPropertyStore;
+    private StringDictionary stringDictionary;
+    private final List<String> stringDictionaryKeys;
+    private final ConcurrentMap<Integer, Boolean> stringDictionaryKeyIds = new ConcurrentHashMap<>();
     private final PropertyPhysicalToLogicalConverter physicalToLogicalConverter;
 
     public PropertyStore(File fileName, Config configuration,
                          IdGeneratorFactory idGeneratorFactory, WindowPoolFactory windowPoolFactory,
                          FileSystemAbstraction fileSystemAbstraction, StringLogger stringLogger,
                          DynamicStringStore stringPropertyStore, PropertyKeyTokenStore propertyKeyTokenStore,
-                         DynamicArrayStore arrayPropertyStore)
+                         DynamicArrayStore arrayPropertyStore, StringDictionary stringDictionary)
     {
         super( fileName, configuration, IdType.PROPERTY, idGeneratorFactory, windowPoolFactory,
                 fileSystemAbstraction, stringLogger );
         this.stringPropertyStore = stringPropertyStore;
         this.propertyKeyTokenStore = propertyKeyTokenStore;
         this.arrayPropertyStore = arrayPropertyStore;
+        this.stringDictionary = stringDictionary;
+        this.stringDictionaryKeys = configuration.get( Configuration.string_dictionary_keys );
         this.physicalToLogicalConverter = new PropertyPhysicalToLogicalConverter( this );
     }
 
@@ -96,6 +109,11 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         return arrayPropertyStore;
     }
 
+    public StringDictionary getStringDictionary()
+    {
+        return stringDictionary;
+    }
+
     @Override
     protected void setRecovered()
     {
@@ -103,6 +121,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         stringPropertyStore.setRecovered();
         propertyKeyTokenStore.setRecovered();
         arrayPropertyStore.setRecovered();
+        stringDictionary.getStore().setRecovered();
     }
 
     @Override
@@ -112,6 +131,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         stringPropertyStore.unsetRecovered();
         propertyKeyTokenStore.unsetRecovered();
         arrayPropertyStore.unsetRecovered();
+        stringDictionary.getStore().unsetRecovered();
     }
 
     @Override
@@ -132,6 +152,11 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
             arrayPropertyStore.close();
             arrayPropertyStore = null;
         }
+        if ( stringDictionary != null )
+        {
+            stringDictionary.getStore().close();
+            stringDictionary = null;
+        }
     }
 
     @Override
@@ -140,6 +165,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         stringPropertyStore.flushAll();
         propertyKeyTokenStore.flushAll();
         arrayPropertyStore.flushAll();
+        stringDictionary.getStore().flushAll();
         super.flushAll();
     }
 
@@ -171,6 +197,31 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         arrayPropertyStore.freeId( blockId );
     }
 
+    public void freeDictionaryBlockId( long blockId )
+    {
+        stringDictionary.freeBlockId( blockId );
+    }
+
+    /**
+     * Called before {@code block} is removed, or set to another value, by the transaction with the given new
+     * dictionary entries, see {@link StringDictionary.NewEntries#remove(PropertyBlock, StringDictionary)}.
+     */
+    public void releaseDictionaryEntry( PropertyBlock block, StringDictionary.NewEntries newEntries )
+    {
+        if ( block.getType() == PropertyType.DICTIONARY_STRING )
+        {
+            newEntries.remove( block, stringDictionary );
+        }
+    }
+
+    /**
+     * Called when a transaction with the given new dictionary entries rolls back.
+     */
+    public void releaseDictionaryEntries( StringDictionary.NewEntries newEntries )
+    {
+        newEntries.release( stringDictionary );
+    }
+
     public PropertyKeyTokenStore getPropertyKeyTokenStore()
     {
         return propertyKeyTokenStore;
@@ -238,6 +289,11 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
                      && block.getValueRecords().get( 0 ).isCreated() )
                 {
                     updateDynamicRecords( block.getValueRecords() );
+                    if ( block.getType() == PropertyType.DICTIONARY_STRING )
+                    {
+                        stringDictionary.register( getStringFor( block.getValueRecords() ),
+                                block.getSingleValueLong() );
+                    }
                 }
             }
             if ( longsAppended < PropertyType.getPayloadSizeLongs() )
@@ -270,6 +326,10 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
             {
                 arrayPropertyStore.updateRecord( valueRecord );
             }
+            else if ( valueRecord.getType() == PropertyType.DICTIONARY_STRING.intValue() )
+            {
+                stringDictionary.getStore().updateRecord( valueRecord );
+            }
             else
             {
                 throw new InvalidRecordException( "Unknown dynamic record"
@@ -456,6 +516,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.makeStoreOk();
         stringPropertyStore.makeStoreOk();
         arrayPropertyStore.makeStoreOk();
+        stringDictionary.getStore().makeStoreOk();
         super.makeStoreOk();
     }
 
@@ -465,6 +526,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.rebuildIdGenerators();
         stringPropertyStore.rebuildIdGenerators();
         arrayPropertyStore.rebuildIdGenerators();
+        stringDictionary.getStore().rebuildIdGenerators();
         super.rebuildIdGenerators();
     }
 
@@ -473,6 +535,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.updateIdGenerators();
         stringPropertyStore.updateHighId();
         arrayPropertyStore.updateHighId();
+        stringDictionary.getStore().updateHighId();
         this.updateHighId();
     }
 
@@ -487,6 +550,15 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     }
 
     public void encodeValue( PropertyBlock block, int keyId, Object value )
+    {
+        encodeValue( block, keyId, value, null );
+    }
+
+    /**
+     * Encodes {@code value} into {@code block}, keeping track of the dictionary entries the block refers to in
+     * {@code newEntries}, if given. Transactions that may remove or change the block before they're done need that.
+     */
+    public void encodeValue( PropertyBlock block, int keyId, Object value, StringDictionary.NewEntries newEntries )
     {
         if ( value instanceof String )
         {   // Try short string first, i.e. inlined in the property block
@@ -496,6 +568,38 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
                 return;
             }
 
+            // Then the dictionary, for the properties that have one
+            if ( isStringDictionaryKey( keyId ) )
+            {
+                Long entry = stringDictionary.idOf( string );
+                if ( entry != null )
+                {
+                    setSingleBlockValue( block, keyId, PropertyType.DICTIONARY_STRING, entry );
+                    return;
+                }
+                entry = newEntries != null ? newEntries.idOf( string ) : null;
+                if ( entry != null )
+                {
+                    setSingleBlockValue( block, keyId, PropertyType.DICTIONARY_STRING, entry );
+                    newEntries.add( string, block );
+                    return;
+                }
+                if ( stringDictionary.reserve( string ) )
+                {
+                    Collection<DynamicRecord> valueRecords = stringDictionary.allocateRecords( string );
+                    setSingleBlockValue( block, keyId, PropertyType.DICTIONARY_STRING, first( valueRecords ).getId() );
+                    for ( DynamicRecord valueRecord : valueRecords )
+                    {
+                        block.addValueRecord( valueRecord );
+                    }
+                    if ( newEntries != null )
+                    {
+                        newEntries.add( string, block );
+                    }
+                    return;
+                }
+            }
+
             // Fall back to dynamic string store
             byte[] encodedString = encodeString( string );
             Collection<DynamicRecord> valueRecords = allocateStringRecords( encodedString );
@@ -570,6 +674,21 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         }
     }
 
+    private boolean isStringDictionaryKey( int keyId )
+    {
+        if ( stringDictionaryKeys.isEmpty() )
+        {
+            return false;
+        }
+        Boolean dictionaryKey = stringDictionaryKeyIds.get( keyId );
+        if ( dictionaryKey == null )
+        {
+            dictionaryKey = stringDictionaryKeys.contains( propertyKeyTokenStore.getToken( keyId ).name() );
+            stringDictionaryKeyIds.put( keyId, dictionaryKey );
+        }
+        return dictionaryKey;
+    }
+
     private void setSingleBlockValue( PropertyBlock block, int keyId, PropertyType type, long longValue )
     {
         block.setSingleBlock( keyId | (((long) type.intValue()) << 24)
@@ -588,6 +707,15 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
     
     public String getStringFor( PropertyBlock propertyBlock )
     {
+        if ( propertyBlock.getType() == PropertyType.DICTIONARY_STRING )
+        {
+            if ( !propertyBlock.isLight() && propertyBlock.getValueRecords().get( 0 ).isCreated() )
+            {
+                // A new entry, not written to the dictionary yet
+                return getStringFor( propertyBlock.getValueRecords() );
+            }
+            return stringDictionary.valueOf( propertyBlock.getSingleValueLong() );
+        }
         ensureHeavy( propertyBlock );
         return getStringFor( propertyBlock.getValueRecords() );
     }
@@ -616,6 +744,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         List<WindowPoolStats> list = new ArrayList<>();
         list.add( stringPropertyStore.getWindowPoolStats() );
         list.add( arrayPropertyStore.getWindowPoolStats() );
+        list.add( stringDictionary.getStore().getWindowPoolStats() );
         list.add( getWindowPoolStats() );
         return list;
     }
@@ -627,6 +756,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.logAllWindowPoolStats( logger );
         logger.logLine( stringPropertyStore.getWindowPoolStats().toString() );
         logger.logLine( arrayPropertyStore.getWindowPoolStats().toString() );
+        logger.logLine( stringDictionary.getStore().getWindowPoolStats().toString() );
     }
 
     public int getStringBlockSize()
@@ -654,6 +784,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.logVersions( logger );
         stringPropertyStore.logVersions( logger );
         arrayPropertyStore.logVersions(logger  );
+        stringDictionary.getStore().logVersions( logger );
     }
 
     @Override
@@ -663,6 +794,7 @@ public class PropertyStore extends AbstractRecordStore<PropertyRecord> implement
         propertyKeyTokenStore.logIdUsage( logger );
         stringPropertyStore.logIdUsage( logger );
         arrayPropertyStore.logIdUsage( logger );
+        stringDictionary.getStore().logIdUsage( logger );
     }
 
     @Override
@@ -301,6 +301,32 @@ public enum PropertyType
         {
             return ShortArray.calculateNumberOfBlocksUsed( firstBlock );
         }
+    },
+    DICTIONARY_STRING( 13 )
+    {
+        @Override
+        public DefinedProperty readProperty( int propertyKeyId, final PropertyBlock block, final PropertyStore store )
+        {
+            return Property.dictionaryStringProperty( propertyKeyId, block.getSingleValueLong(),
+                    store.getStringDictionary(), new Callable<String>()
+            {
+                @Override
+                public String call() throws Exception
+                {
+                    return getValue( block, store );
+                }
+            });
+        }
+
+        @Override
+        public String getValue( PropertyBlock block, PropertyStore store )
+        {
+            if ( store == null )
+            {
+                return null;
+            }
+            return store.getStringFor( block );
+        }
     };
 
     private final int type;
@@ -369,6 +395,8 @@ public enum PropertyType
             return SHORT_STRING;
         case 12:
             return SHORT_ARRAY;
+        case 13:
+            return DICTIONARY_STRING;
         default: if (nullOnIllegal)
         {
             return null;
@@ -98,6 +98,12 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
             processRecord( RelationshipRecord.class, store, rel );
         }
 
+        public void processRelationshipGroup( RecordStore<RelationshipGroupRecord> store,
+                                              RelationshipGroupRecord group ) throws FAILURE
+        {
+            processRecord( RelationshipGroupRecord.class, store, group );
+        }
+
         public void processProperty( RecordStore<PropertyRecord> store, PropertyRecord property ) throws FAILURE
         {
             processRecord( PropertyRecord.class, store, property );
@@ -151,6 +157,17 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
         @SafeVarargs
         public final <R extends AbstractBaseRecord> Iterable<R> scan( final RecordStore<R> store,
                 final Predicate<? super R>... filters )
+        {
+            return scan( store, 0, Long.MAX_VALUE, filters );
+        }
+
+        /**
+         * Scans the records with ids in the range {@code [fromId, toId)}, stopping at the high id of the store,
+         * which is read when the scan starts.
+         */
+        @SafeVarargs
+        public final <R extends AbstractBaseRecord> Iterable<R> scan( final RecordStore<R> store,
+                final long fromId, final long toId, final Predicate<? super R>... filters )
         {
             return new Iterable<R>()
             {
@@ -159,8 +176,8 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
                 {
                     return new PrefetchingIterator<R>()
                     {
-                        final long highId = store.getHighId();
-                        int id = 0;
+                        final long highId = Math.min( store.getHighId(), toId - 1 );
+                        long id = fromId;
 
                         @Override
                         protected R fetchNextOrNull()
@@ -220,13 +237,29 @@ public interface RecordStore<R extends AbstractBaseRecord> extends IdSequence
             apply( store, progressListener, filters );
         }
 
+        /**
+         * Like {@link #applyFiltered(RecordStore, ProgressListener, Predicate[])}, but only for the records with ids in
+         * the range {@code [fromId, toId)}. Progress is reported relative to {@code fromId}.
+         */
+        public <R extends AbstractBaseRecord> void applyFiltered( RecordStore<R> store, long fromId, long toId,
+                ProgressListener progressListener, Predicate<? super R>... filters ) throws FAILURE
+        {
+            apply( store, fromId, toId, progressListener, filters );
+        }
+
         private <R extends AbstractBaseRecord> void apply( RecordStore<R> store, ProgressListener progressListener,
                 Predicate<? super R>... filters ) throws FAILURE
         {
-            for ( R record : scan( store, filters ) )
+            apply( store, 0, Long.MAX_VALUE, progressListener, filters );
+        }
+
+        private <R extends AbstractBaseRecord> void apply( RecordStore<R> store, long fromId, long toId,
+                ProgressListener progressListener, Predicate<? super R>... filters ) throws FAILURE
+        {
+            for ( R record : scan( store, fromId, toId, filters ) )
             {
                 store.accept( this, record );
-                progressListener.set( record.getLongId() );
+                progressListener.set( record.getLongId() - fromId );
             }
             progressListener.done();
         }
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+/**
+ * The relationships of one type for a dense node. A dense node points to the first of its groups instead of
+ * to a relationship, and each group keeps separate chains for outgoing, incoming and loop relationships of
+ * its type, see {@link RelationshipGroupStore}.
+ */
+public class RelationshipGroupRecord extends Abstract64BitRecord
+{
+    // The chains of a group, see chainOf
+    public static final int OUT = 0, IN = 1, LOOP = 2;
+
+    private int type;
+    private long next = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstOut = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstIn = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long firstLoop = Record.NO_NEXT_RELATIONSHIP.intValue();
+    private long owningNode = Record.NO_NEXT_RELATIONSHIP.intValue();
+
+    public RelationshipGroupRecord( long id, int type )
+    {
+        super( id );
+        this.type = type;
+    }
+
+    public int getType()
+    {
+        return type;
+    }
+
+    public void setType( int type )
+    {
+        this.type = type;
+    }
+
+    public long getNext()
+    {
+        return next;
+    }
+
+    public void setNext( long next )
+    {
+        this.next = next;
+    }
+
+    public long getFirstOut()
+    {
+        return firstOut;
+    }
+
+    public void setFirstOut( long firstOut )
+    {
+        this.firstOut = firstOut;
+    }
+
+    public long getFirstIn()
+    {
+        return firstIn;
+    }
+
+    public void setFirstIn( long firstIn )
+    {
+        this.firstIn = firstIn;
+    }
+
+    public long getFirstLoop()
+    {
+        return firstLoop;
+    }
+
+    public void setFirstLoop( long firstLoop )
+    {
+        this.firstLoop = firstLoop;
+    }
+
+    public long getOwningNode()
+    {
+        return owningNode;
+    }
+
+    public void setOwningNode( long owningNode )
+    {
+        this.owningNode = owningNode;
+    }
+
+    /**
+     * @return the chain of a group owned by {@code nodeId} that {@code rel} belongs in.
+     */
+    public static int chainOf( RelationshipRecord rel, long nodeId )
+    {
+        if ( rel.getFirstNode() == rel.getSecondNode() )
+        {
+            return LOOP;
+        }
+        return rel.getFirstNode() == nodeId ? OUT : IN;
+    }
+
+    public long getFirstInChain( int chain )
+    {
+        switch ( chain )
+        {
+        case OUT:
+            return firstOut;
+        case IN:
+            return firstIn;
+        default:
+            return firstLoop;
+        }
+    }
+
+    public void setFirstInChain( int chain, long relId )
+    {
+        switch ( chain )
+        {
+        case OUT:
+            firstOut = relId;
+            break;
+        case IN:
+            firstIn = relId;
+            break;
+        default:
+            firstLoop = relId;
+        }
+    }
+
+    /**
+     * @return whether or not all three chains of this group are empty.
+     */
+    public boolean isEmpty()
+    {
+        return firstOut == Record.NO_NEXT_RELATIONSHIP.intValue() &&
+                firstIn == Record.NO_NEXT_RELATIONSHIP.intValue() &&
+                firstLoop == Record.NO_NEXT_RELATIONSHIP.intValue();
+    }
+
+    @Override
+    public String toString()
+    {
+        return new StringBuilder( "RelationshipGroup[" ).append( getId() ).append( ",used=" ).append( inUse() )
+                .append( ",type=" ).append( type ).append( ",out=" ).append( firstOut )
+                .append( ",in=" ).append( firstIn ).append( ",loop=" ).append( firstLoop )
+                .append( ",next=" ).append( next ).append( ",owner=" ).append( owningNode )
+                .append( "]" ).toString();
+    }
+
+    @Override
+    public RelationshipGroupRecord clone()
+    {
+        RelationshipGroupRecord clone = new RelationshipGroupRecord( getId(), type );
+        clone.setInUse( inUse() );
+        clone.next = next;
+        clone.firstOut = firstOut;
+        clone.firstIn = firstIn;
+        clone.firstLoop = firstLoop;
+        clone.owningNode = owningNode;
+        return clone;
+    }
+}
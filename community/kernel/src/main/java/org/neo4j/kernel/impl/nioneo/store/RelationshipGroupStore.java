@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.IdGeneratorFactory;
+import org.neo4j.kernel.IdType;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.windowpool.WindowPoolFactory;
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * Implementation of the relationship group store. Nodes reaching
+ * {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#dense_node_threshold} relationships have their relationships
+ * split up into one chain per type and direction. The node record is then marked {@link NodeRecord#isDense() dense}
+ * and points to its first group instead of to its first relationship, and groups of a node are linked together
+ * through {@link RelationshipGroupRecord#getNext()}.
+ */
+public class RelationshipGroupStore extends AbstractRecordStore<RelationshipGroupRecord> implements Store
+{
+    public static abstract class Configuration
+        extends AbstractStore.Configuration
+    {
+    }
+
+    public static final String TYPE_DESCRIPTOR = "RelationshipGroupStore";
+
+    // in_use+high_bits(byte)+high_bits(byte)+type(2 bytes)+next(int)+first_out(int)+first_in(int)+first_loop(int)+
+    // owning_node(int)+owning_node_high_bits(byte)
+    public static final int RECORD_SIZE = 25;
+
+    public RelationshipGroupStore( File fileName, Config configuration, IdGeneratorFactory idGeneratorFactory,
+                                   WindowPoolFactory windowPoolFactory, FileSystemAbstraction fileSystemAbstraction,
+                                   StringLogger stringLogger )
+    {
+        super( fileName, configuration, IdType.RELATIONSHIP_GROUP, idGeneratorFactory,
+                windowPoolFactory, fileSystemAbstraction, stringLogger );
+    }
+
+    @Override
+    public <FAILURE extends Exception> void accept( Processor<FAILURE> processor, RelationshipGroupRecord record )
+            throws FAILURE
+    {
+        processor.processRelationshipGroup( this, record );
+    }
+
+    @Override
+    public String getTypeDescriptor()
+    {
+        return TYPE_DESCRIPTOR;
+    }
+
+    @Override
+    public int getRecordSize()
+    {
+        return RECORD_SIZE;
+    }
+
+    @Override
+    public int getRecordHeaderSize()
+    {
+        return getRecordSize();
+    }
+
+    @Override
+    public RelationshipGroupRecord getRecord( long id )
+    {
+        PersistenceWindow window = acquireWindow( id, OperationType.READ );
+        try
+        {
+            return getRecord( id, window, RecordLoad.NORMAL );
+        }
+        finally
+        {
+            releaseWindow( window );
+        }
+    }
+
+    @Override
+    public RelationshipGroupRecord forceGetRecord( long id )
+    {
+        PersistenceWindow window;
+        try
+        {
+            window = acquireWindow( id, OperationType.READ );
+        }
+        catch ( InvalidRecordException e )
+        {
+            return new RelationshipGroupRecord( id, -1 );
+        }
+
+        try
+        {
+            return getRecord( id, window, RecordLoad.FORCE );
+        }
+        finally
+        {
+            releaseWindow( window );
+        }
+    }
+
+    @Override
+    public RelationshipGroupRecord forceGetRaw( RelationshipGroupRecord record )
+    {
+        return record;
+    }
+
+    @Override
+    public RelationshipGroupRecord forceGetRaw( long id )
+    {
+        return forceGetRecord( id );
+    }
+
+    @Override
+    public void updateRecord( RelationshipGroupRecord record )
+    {
+        PersistenceWindow window = acquireWindow( record.getId(), OperationType.WRITE );
+        try
+        {
+            updateRecord( record, window, false );
+        }
+        finally
+        {
+            releaseWindow( window );
+        }
+    }
+
+    @Override
+    public void forceUpdateRecord( RelationshipGroupRecord record )
+    {
+        PersistenceWindow window = acquireWindow( record.getId(), OperationType.WRITE );
+        try
+        {
+            updateRecord( record, window, true );
+        }
+        finally
+        {
+            releaseWindow( window );
+        }
+    }
+
+    private void updateRecord( RelationshipGroupRecord record, PersistenceWindow window, boolean force )
+    {
+        long id = record.getId();
+        registerIdFromUpdateRecord( id );
+        Buffer buffer = window.getOffsettedBuffer( id );
+        if ( record.inUse() || force )
+        {
+            long next = record.getNext();
+            long firstOut = record.getFirstOut();
+            long firstIn = record.getFirstIn();
+            long firstLoop = record.getFirstLoop();
+            long owningNode = record.getOwningNode();
+
+            // [    ,   x] in use flag
+            // [    ,xxx ] next high order bits
+            // [ xxx,    ] first out high order bits
+            long inUseByte = (record.inUse() ? Record.IN_USE : Record.NOT_IN_USE).byteValue() |
+                    highBits( next ) >> 31 | highBits( firstOut ) >> 28;
+
+            // [    , xxx] first in high order bits
+            // [ xxx,    ] first loop high order bits
+            long highByte = highBits( firstIn ) >> 32 | highBits( firstLoop ) >> 28;
+
+            int type = record.getType();
+            buffer.put( (byte) inUseByte ).put( (byte) highByte ).put( (byte) (type >> 8) ).put( (byte) type )
+                    .putInt( (int) next ).putInt( (int) firstOut ).putInt( (int) firstIn ).putInt( (int) firstLoop )
+                    .putInt( (int) owningNode ).put( (byte) (owningNode >> 32) );
+        }
+        else
+        {
+            buffer.put( Record.NOT_IN_USE.byteValue() );
+            if ( !isInRecoveryMode() )
+            {
+                freeId( id );
+            }
+        }
+    }
+
+    private static long highBits( long reference )
+    {
+        return reference == Record.NO_NEXT_RELATIONSHIP.intValue() ? 0 : reference & 0x700000000L;
+    }
+
+    private RelationshipGroupRecord getRecord( long id, PersistenceWindow window, RecordLoad load )
+    {
+        Buffer buffer = window.getOffsettedBuffer( id );
+
+        long inUseByte = buffer.get();
+        boolean inUse = (inUseByte & 0x1) == Record.IN_USE.intValue();
+        if ( !inUse )
+        {
+            switch ( load )
+            {
+            case NORMAL:
+                throw new InvalidRecordException( "RelationshipGroupRecord[" + id + "] not in use" );
+            case CHECK:
+                return null;
+            case FORCE:
+                break;
+            }
+        }
+
+        long highByte = buffer.get();
+        int type = ((buffer.get() & 0xFF) << 8) | (buffer.get() & 0xFF);
+        long next = buffer.getUnsignedInt();
+        long firstOut = buffer.getUnsignedInt();
+        long firstIn = buffer.getUnsignedInt();
+        long firstLoop = buffer.getUnsignedInt();
+        long owningNode = buffer.getUnsignedInt() | ((buffer.get() & 0xFFL) << 32);
+
+        RelationshipGroupRecord record = new RelationshipGroupRecord( id, type );
+        record.setInUse( inUse );
+        record.setNext( longFromIntAndMod( next, (inUseByte & 0xEL) << 31 ) );
+        record.setFirstOut( longFromIntAndMod( firstOut, (inUseByte & 0x70L) << 28 ) );
+        record.setFirstIn( longFromIntAndMod( firstIn, (highByte & 0x7L) << 32 ) );
+        record.setFirstLoop( longFromIntAndMod( firstLoop, (highByte & 0x70L) << 28 ) );
+        record.setOwningNode( owningNode );
+        return record;
+    }
+
+    @Override
+    public List<WindowPoolStats> getAllWindowPoolStats()
+    {
+        List<WindowPoolStats> list = new ArrayList<>();
+        list.add( getWindowPoolStats() );
+        return list;
+    }
+}
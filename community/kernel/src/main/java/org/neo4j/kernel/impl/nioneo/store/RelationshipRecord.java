@@ -105,6 +105,49 @@ public class RelationshipRecord extends PrimitiveRecord
         this.secondNextRel = secondNextRel;
     }
 
+    /**
+     * @return the next relationship in the chain of {@code nodeId}, which must be one of the nodes of this
+     * relationship.
+     */
+    public long getNextRel( long nodeId )
+    {
+        if ( firstNode == nodeId )
+        {
+            return firstNextRel;
+        }
+        if ( secondNode == nodeId )
+        {
+            return secondNextRel;
+        }
+        throw new InvalidRecordException( "Node[" + nodeId + "] is neither firstNode[" + firstNode +
+                                          "] nor secondNode[" + secondNode + "] for " + this );
+    }
+
+    // Both sides of a loop are kept in sync
+    public void setNextRel( long nodeId, long nextRel )
+    {
+        if ( firstNode == nodeId )
+        {
+            firstNextRel = nextRel;
+        }
+        if ( secondNode == nodeId )
+        {
+            secondNextRel = nextRel;
+        }
+    }
+
+    public void setPrevRel( long nodeId, long prevRel )
+    {
+        if ( firstNode == nodeId )
+        {
+            firstPrevRel = prevRel;
+        }
+        if ( secondNode == nodeId )
+        {
+            secondPrevRel = prevRel;
+        }
+    }
+
     @Override
     public String toString()
     {
@@ -41,17 +41,21 @@ public class SchemaStorage implements SchemaRuleAccess
         this.schemaStore = schemaStore;
     }
 
-    public IndexRule constraintIndexRule( int labelId, int propertyKeyId ) throws SchemaRuleNotFoundException
+    public IndexRule constraintIndexRule( int labelId, int... propertyKeyIds ) throws SchemaRuleNotFoundException
     {
-        IndexRule rule = indexRule( labelId, propertyKeyId );
+        IndexRule rule = indexRule( labelId, propertyKeyIds );
         if ( rule.isConstraintIndex() )
         {
             return rule;
         }
-        throw new SchemaRuleNotFoundException( labelId, propertyKeyId, "is not a constraint index" );
+        throw new SchemaRuleNotFoundException( labelId, propertyKeyIds[0], "is not a constraint index" );
     }
 
-    public IndexRule indexRule( int labelId, final int propertyKeyId ) throws SchemaRuleNotFoundException
+    /**
+     * Finds the index rule on exactly the given property keys, in that order. A single property key will not
+     * match composite indexes containing that key.
+     */
+    public IndexRule indexRule( int labelId, final int... propertyKeyIds ) throws SchemaRuleNotFoundException
     {
         Iterator<IndexRule> rules = schemaRules(
                 IndexRule.class, labelId,
@@ -60,20 +64,20 @@ public class SchemaStorage implements SchemaRuleAccess
                     @Override
                     public boolean accept( IndexRule item )
                     {
-                        return item.getPropertyKey() == propertyKeyId;
+                        return item.hasPropertyKeys( propertyKeyIds );
                     }
                 } );
 
         if ( !rules.hasNext() )
         {
-            throw new SchemaRuleNotFoundException( labelId, propertyKeyId, "not found" );
+            throw new SchemaRuleNotFoundException( labelId, propertyKeyIds[0], "not found" );
         }
 
         IndexRule rule = rules.next();
 
         if ( rules.hasNext() )
         {
-            throw new SchemaRuleNotFoundException( labelId, propertyKeyId, String.format("found more than one matching index rule, %s and %s", rule, rules.next()) );
+            throw new SchemaRuleNotFoundException( labelId, propertyKeyIds[0], String.format("found more than one matching index rule, %s and %s", rule, rules.next()) );
         }
         return rule;
     }
@@ -202,7 +206,7 @@ public class SchemaStorage implements SchemaRuleAccess
         return schemaStore.nextId();
     }
 
-    public UniquenessConstraintRule uniquenessConstraint( int labelId, final int propertyKeyId )
+    public UniquenessConstraintRule uniquenessConstraint( int labelId, final int... propertyKeyIds )
             throws SchemaRuleNotFoundException
     {
         Iterator<UniquenessConstraintRule> rules = schemaRules(
@@ -212,19 +216,19 @@ public class SchemaStorage implements SchemaRuleAccess
                     @Override
                     public boolean accept( UniquenessConstraintRule item )
                     {
-                        return item.containsPropertyKeyId( propertyKeyId );
+                        return item.hasPropertyKeys( propertyKeyIds );
                     }
                 } );
         if ( !rules.hasNext() )
         {
-            throw new SchemaRuleNotFoundException( labelId, propertyKeyId, "not found" );
+            throw new SchemaRuleNotFoundException( labelId, propertyKeyIds[0], "not found" );
         }
 
         UniquenessConstraintRule rule = rules.next();
 
         if ( rules.hasNext() )
         {
-            throw new SchemaRuleNotFoundException( labelId, propertyKeyId, "found more than one matching index" );
+            throw new SchemaRuleNotFoundException( labelId, propertyKeyIds[0], "found more than one matching index" );
         }
         return rule;
     }
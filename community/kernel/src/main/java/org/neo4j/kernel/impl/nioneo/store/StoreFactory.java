@@ -50,6 +50,10 @@ public class StoreFactory
         public static final Setting<Integer> string_block_size = GraphDatabaseSettings.string_block_size;
         public static final Setting<Integer> array_block_size = GraphDatabaseSettings.array_block_size;
         public static final Setting<Integer> label_block_size = GraphDatabaseSettings.label_block_size;
+        public static final Setting<DynamicRecordCompression> string_block_compression =
+                GraphDatabaseSettings.string_block_compression;
+        public static final Setting<DynamicRecordCompression> array_block_compression =
+                GraphDatabaseSettings.array_block_compression;
     }
 
     private final Config config;
@@ -65,6 +69,7 @@ public class StoreFactory
     public static final String KEYS_PART = ".keys";
     public static final String ARRAYS_PART = ".arrays";
     public static final String STRINGS_PART = ".strings";
+    public static final String DICTIONARY_PART = ".dictionary";
 
     public static final String NODE_STORE_NAME = ".nodestore.db";
     public static final String NODE_LABELS_STORE_NAME = NODE_STORE_NAME + LABELS_PART;
@@ -73,7 +78,9 @@ public class StoreFactory
     public static final String PROPERTY_KEY_TOKEN_NAMES_STORE_NAME = PROPERTY_STORE_NAME + INDEX_PART + KEYS_PART;
     public static final String PROPERTY_STRINGS_STORE_NAME = PROPERTY_STORE_NAME + STRINGS_PART;
     public static final String PROPERTY_ARRAYS_STORE_NAME = PROPERTY_STORE_NAME + ARRAYS_PART;
+    public static final String PROPERTY_STRING_DICTIONARY_STORE_NAME = PROPERTY_STRINGS_STORE_NAME + DICTIONARY_PART;
     public static final String RELATIONSHIP_STORE_NAME = ".relationshipstore.db";
+    public static final String RELATIONSHIP_GROUP_STORE_NAME = ".relationshipgroupstore.db";
     public static final String RELATIONSHIP_TYPE_TOKEN_STORE_NAME = ".relationshiptypestore.db";
     public static final String RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME = RELATIONSHIP_TYPE_TOKEN_STORE_NAME + NAMES_PART;
     public static final String LABEL_TOKEN_STORE_NAME = ".labeltokenstore.db";
@@ -133,6 +140,7 @@ public class StoreFactory
                 newLabelTokenStore( new File( fileName.getPath() + LABEL_TOKEN_STORE_NAME ) ),
                 newPropertyStore(new File( fileName.getPath() + PROPERTY_STORE_NAME)),
                 newRelationshipStore(new File( fileName.getPath() + RELATIONSHIP_STORE_NAME)),
+                newRelationshipGroupStore( new File( fileName.getPath() + RELATIONSHIP_GROUP_STORE_NAME ) ),
                 newNodeStore(new File( fileName.getPath() + NODE_STORE_NAME)),
                 // We don't need any particular upgrade when we add the schema store
                 newSchemaStore(new File( fileName.getPath() + SCHEMA_STORE_NAME)));
@@ -140,6 +148,12 @@ public class StoreFactory
 
     private void tryToUpgradeStores( File fileName )
     {
+        if ( config.get( GraphDatabaseSettings.read_only ) )
+        {
+            throw new StoreUpgrader.UnableToUpgradeException( "The store at " + fileName.getParent() +
+                    " is of an older version and needs to be upgraded, which can't be done in read only mode. " +
+                    "Start it once without " + GraphDatabaseSettings.read_only.name() + " to upgrade it." );
+        }
         new StoreUpgrader(config, new ConfigMapUpgradeConfiguration(config),
                 new UpgradableDatabase( fileSystemAbstraction ),
                 new StoreMigrator( new VisibleMigrationProgressMonitor( stringLogger, System.out ) ),
@@ -173,8 +187,12 @@ public class StoreFactory
         PropertyKeyTokenStore propertyKeyTokenStore = newPropertyKeyTokenStore(
                 new File( baseFileName.getPath() + INDEX_PART ) );
         DynamicArrayStore arrayPropertyStore = newDynamicArrayStore( new File( baseFileName.getPath() + ARRAYS_PART ) );
+        stringPropertyStore.setCompression( config.get( Configuration.string_block_compression ) );
+        arrayPropertyStore.setCompression( config.get( Configuration.array_block_compression ) );
+        StringDictionary stringDictionary = new StringDictionary( newDynamicStringStore(
+                new File( baseFileName.getPath() + STRINGS_PART + DICTIONARY_PART ), IdType.STRING_DICTIONARY_BLOCK ) );
         return new PropertyStore( baseFileName, config, idGeneratorFactory, windowPoolFactory, fileSystemAbstraction,
-                stringLogger, stringPropertyStore, propertyKeyTokenStore, arrayPropertyStore );
+                stringLogger, stringPropertyStore, propertyKeyTokenStore, arrayPropertyStore, stringDictionary );
     }
 
     public PropertyKeyTokenStore newPropertyKeyTokenStore( File baseFileName )
@@ -199,6 +217,12 @@ public class StoreFactory
                 fileSystemAbstraction, stringLogger);
     }
 
+    private RelationshipGroupStore newRelationshipGroupStore( File fileName )
+    {
+        return new RelationshipGroupStore( fileName, config, idGeneratorFactory, windowPoolFactory,
+                fileSystemAbstraction, stringLogger );
+    }
+
     public DynamicArrayStore newDynamicArrayStore(File baseFileName)
     {
         return new DynamicArrayStore( baseFileName, config, IdType.ARRAY_BLOCK, idGeneratorFactory, windowPoolFactory,
@@ -224,6 +248,7 @@ public class StoreFactory
         createEmptyStore( fileName, buildTypeDescriptorAndVersion( NeoStore.TYPE_DESCRIPTOR ) );
         createNodeStore(new File( fileName.getPath() + NODE_STORE_NAME));
         createRelationshipStore(new File( fileName.getPath() + RELATIONSHIP_STORE_NAME));
+        createRelationshipGroupStore( new File( fileName.getPath() + RELATIONSHIP_GROUP_STORE_NAME ) );
         createPropertyStore(new File( fileName.getPath() + PROPERTY_STORE_NAME));
         createRelationshipTypeStore(new File( fileName.getPath() + RELATIONSHIP_TYPE_TOKEN_STORE_NAME ));
         createLabelTokenStore( new File( fileName.getPath() + LABEL_TOKEN_STORE_NAME ) );
@@ -280,6 +305,11 @@ public class StoreFactory
         createEmptyStore( fileName, buildTypeDescriptorAndVersion( RelationshipStore.TYPE_DESCRIPTOR ) );
     }
 
+    private void createRelationshipGroupStore( File fileName )
+    {
+        createEmptyStore( fileName, buildTypeDescriptorAndVersion( RelationshipGroupStore.TYPE_DESCRIPTOR ) );
+    }
+
     /**
      * Creates a new property store contained in <CODE>fileName</CODE> If
      * filename is <CODE>null</CODE> or the file already exists an
@@ -295,6 +325,8 @@ public class StoreFactory
         int arrayStoreBlockSize = config.get( Configuration.array_block_size );
 
         createDynamicStringStore(new File( fileName.getPath() + STRINGS_PART), stringStoreBlockSize, IdType.STRING_BLOCK);
+        createDynamicStringStore( new File( fileName.getPath() + STRINGS_PART + DICTIONARY_PART ),
+                stringStoreBlockSize, IdType.STRING_DICTIONARY_BLOCK );
         createPropertyKeyTokenStore( new File( fileName.getPath() + INDEX_PART ) );
         createDynamicArrayStore( new File( fileName.getPath() + ARRAYS_PART ), arrayStoreBlockSize );
     }
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary of string property values, for properties with few distinct values repeated over many entities.
+ * Each distinct value is stored once, as a chain of records in a {@link DynamicStringStore} of its own, and
+ * {@link PropertyType#DICTIONARY_STRING} property blocks refer to it by the id of its first record.
+ * <p>
+ * Entries are immutable and never removed. A new entry is written by the transaction that first sets the value,
+ * as the value records of its property block, so it's logged, recovered and replicated like any other dynamic
+ * record. Until that transaction is done the value is reserved, and other transactions setting the same value
+ * store it as a regular string instead of adding a second entry for it, while the transaction itself refers to
+ * its new entry from all its blocks with that value, see {@link NewEntries}. That keeps one entry per value, so two
+ * dictionary values are equal exactly when their ids are, and the values read from the dictionary are shared
+ * instances, whose {@link String#equals(Object)} returns at the identity check.
+ */
+public class StringDictionary
+{
+    private final DynamicStringStore store;
+    private final ConcurrentMap<String, Long> ids = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> values = new ConcurrentHashMap<>();
+    private final Set<String> reserved = Collections.newSetFromMap( new ConcurrentHashMap<String, Boolean>() );
+    private volatile boolean loaded;
+
+    public StringDictionary( DynamicStringStore store )
+    {
+        this.store = store;
+    }
+
+    public DynamicStringStore getStore()
+    {
+        return store;
+    }
+
+    /**
+     * @return the id of the entry for {@code value}, or {@code null} if there's no such entry.
+     */
+    public Long idOf( String value )
+    {
+        ensureLoaded();
+        return ids.get( value );
+    }
+
+    /**
+     * Reserves {@code value} for an entry to be written by the calling transaction.
+     *
+     * @return {@code false} if there already is an entry for the value, or another transaction is about to write one.
+     */
+    public boolean reserve( String value )
+    {
+        ensureLoaded();
+        return !ids.containsKey( value ) && reserved.add( value );
+    }
+
+    /**
+     * Allocates the records of a new entry for {@code value}, which must have been {@link #reserve(String) reserved}.
+     * The value of the entry can be read by its id right away, by the transaction writing it.
+     */
+    public Collection<DynamicRecord> allocateRecords( String value )
+    {
+        Collection<DynamicRecord> records = store.allocateRecordsFromBytes( PropertyStore.encodeString( value ) );
+        for ( DynamicRecord record : records )
+        {
+            record.setType( PropertyType.DICTIONARY_STRING.intValue() );
+        }
+        values.put( records.iterator().next().getId(), value );
+        return records;
+    }
+
+    /**
+     * Makes the entry of {@code value}, with the records just written to the store, available to all transactions.
+     */
+    public void register( String value, long id )
+    {
+        String previous = values.putIfAbsent( id, value );
+        ids.putIfAbsent( previous != null ? previous : value, id );
+        reserved.remove( value );
+    }
+
+    /**
+     * Lets go of the reservation of a value whose entry, with the given id, is never going to be written.
+     */
+    public void release( String value, long id )
+    {
+        values.remove( id );
+        reserved.remove( value );
+    }
+
+    public String valueOf( long id )
+    {
+        String value = values.get( id );
+        if ( value == null )
+        {
+            value = readValue( id );
+            String previous = values.putIfAbsent( id, value );
+            if ( previous != null )
+            {
+                value = previous;
+            }
+            ids.putIfAbsent( value, id );
+        }
+        return value;
+    }
+
+    public void freeBlockId( long blockId )
+    {
+        store.freeId( blockId );
+    }
+
+    private String readValue( long id )
+    {
+        return PropertyStore.decodeString(
+                store.readFullByteArray( store.getRecords( id ), PropertyType.STRING ).other() );
+    }
+
+    /*
+     * The entries are read on first use rather than when the store is opened, so that they're read after
+     * recovery. Entries written concurrently with this, f.ex. by transactions pulled from an HA master,
+     * may not be complete yet. Those are skipped here and registered by the transaction writing them.
+     */
+    private void ensureLoaded()
+    {
+        if ( loaded )
+        {
+            return;
+        }
+        synchronized ( this )
+        {
+            if ( loaded )
+            {
+                return;
+            }
+            long highId = store.getHighId();
+            for ( long id = 1; id < highId; id++ )
+            {
+                DynamicRecord record = store.forceGetRecord( id );
+                if ( record.inUse() && record.isStartRecord() )
+                {
+                    try
+                    {
+                        valueOf( id );
+                    }
+                    catch ( InvalidRecordException e )
+                    {
+                        // An entry being written right now
+                    }
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * The entries a transaction is writing, along with the property blocks of that transaction referring to them.
+     * The first block setting a value carries the records of its entry, the others refer to it by id like they
+     * would to any existing entry. If the carrying block is removed, or changed to another value, the records are
+     * handed over to the next block referring to the entry. The entry is only dropped, and the value released,
+     * when no block of the transaction refers to it anymore.
+     */
+    public static class NewEntries
+    {
+        private Map<String, List<PropertyBlock>> blocksByValue;
+        private Map<Long, String> valuesById;
+
+        /**
+         * @return the id of the entry this transaction is writing for {@code value}, or {@code null} if none.
+         */
+        public Long idOf( String value )
+        {
+            if ( blocksByValue == null )
+            {
+                return null;
+            }
+            List<PropertyBlock> blocks = blocksByValue.get( value );
+            return blocks == null ? null : blocks.get( 0 ).getSingleValueLong();
+        }
+
+        /**
+         * Adds {@code block} as a reference to the entry of {@code value}, the first one added for a value being
+         * the block carrying the records of the entry.
+         */
+        public void add( String value, PropertyBlock block )
+        {
+            if ( blocksByValue == null )
+            {
+                blocksByValue = new HashMap<>();
+                valuesById = new HashMap<>();
+            }
+            List<PropertyBlock> blocks = blocksByValue.get( value );
+            if ( blocks == null )
+            {
+                blocks = new ArrayList<>( 2 );
+                blocksByValue.put( value, blocks );
+                valuesById.put( block.getSingleValueLong(), value );
+            }
+            blocks.add( block );
+        }
+
+        /**
+         * Called before {@code block} is removed, or set to another value. If it carries the records of a new entry
+         * still referred to by other blocks, those records are moved to one of them, so that the caller doesn't
+         * delete them. Blocks referring to entries written by earlier transactions are left alone.
+         */
+        public void remove( PropertyBlock block, StringDictionary dictionary )
+        {
+            if ( valuesById == null )
+            {
+                return;
+            }
+            long id = block.getSingleValueLong();
+            String value = valuesById.get( id );
+            if ( value == null )
+            {
+                return;
+            }
+            List<PropertyBlock> blocks = blocksByValue.get( value );
+            for ( Iterator<PropertyBlock> iterator = blocks.iterator(); iterator.hasNext(); )
+            {
+                if ( iterator.next() == block )
+                {
+                    iterator.remove();
+                    break;
+                }
+            }
+            if ( blocks.isEmpty() )
+            {
+                blocksByValue.remove( value );
+                valuesById.remove( id );
+                dictionary.release( value, id );
+            }
+            else if ( !block.isLight() )
+            {
+                PropertyBlock carrier = blocks.get( 0 );
+                for ( DynamicRecord record : block.getValueRecords() )
+                {
+                    carrier.addValueRecord( record );
+                }
+                block.getValueRecords().clear();
+            }
+        }
+
+        /**
+         * Releases the values of all entries, when the transaction rolls back.
+         */
+        public void release( StringDictionary dictionary )
+        {
+            if ( valuesById == null )
+            {
+                return;
+            }
+            for ( Map.Entry<Long, String> entry : valuesById.entrySet() )
+            {
+                dictionary.release( entry.getValue(), entry.getKey() );
+            }
+            blocksByValue = null;
+            valuesById = null;
+        }
+    }
+}
@@ -29,13 +29,19 @@ public class UniquenessConstraintRule extends AbstractSchemaRule
     private final int[] propertyKeyIds;
     private final long ownedIndexRule;
 
-    /** We currently only support uniqueness constraints on a single property. */
     public static UniquenessConstraintRule uniquenessConstraintRule( long id, int labelId, int propertyKeyId,
                                                                      long ownedIndexRule )
     {
         return new UniquenessConstraintRule( id, labelId, new int[] {propertyKeyId}, ownedIndexRule );
     }
 
+    /** A constraint on more than one property asserts that the tuple of their values is unique. */
+    public static UniquenessConstraintRule uniquenessConstraintRule( long id, int labelId, int[] propertyKeyIds,
+                                                                     long ownedIndexRule )
+    {
+        return new UniquenessConstraintRule( id, labelId, propertyKeyIds.clone(), ownedIndexRule );
+    }
+
     public static UniquenessConstraintRule readUniquenessConstraintRule( long id, int labelId, ByteBuffer buffer )
     {
         return new UniquenessConstraintRule( id, labelId, readPropertyKeys( buffer ), readOwnedIndexRule( buffer ) );
@@ -45,7 +51,10 @@ public class UniquenessConstraintRule extends AbstractSchemaRule
     {
         super( id, labelId, Kind.UNIQUENESS_CONSTRAINT );
         this.ownedIndexRule = ownedIndexRule;
-        assert propertyKeyIds.length == 1; // Only uniqueness of a single property supported for now
+        if ( propertyKeyIds.length == 0 || propertyKeyIds.length > Byte.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Unsupported number of property keys: " + propertyKeyIds.length );
+        }
         this.propertyKeyIds = propertyKeyIds;
     }
 
@@ -115,13 +124,24 @@ public class UniquenessConstraintRule extends AbstractSchemaRule
         return false;
     }
 
-    // This method exists as long as only single property keys are supported
+    /**
+     * @return the property key of a single property constraint, or the first property key of a composite one.
+     */
     public int getPropertyKey()
     {
-        // Property key "singleness" is checked elsewhere, in the constructor and when deserializing.
         return propertyKeyIds[0];
     }
 
+    public int[] getPropertyKeys()
+    {
+        return propertyKeyIds.clone();
+    }
+
+    public boolean hasPropertyKeys( int... propertyKeyIds )
+    {
+        return Arrays.equals( this.propertyKeyIds, propertyKeyIds );
+    }
+
     public long getOwnedIndex()
     {
         return ownedIndexRule;
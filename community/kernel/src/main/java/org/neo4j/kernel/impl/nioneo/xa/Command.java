@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import javax.transaction.xa.Xid;
 
 import org.neo4j.kernel.api.exceptions.index.IndexActivationFailedKernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
@@ -50,6 +51,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -57,6 +60,8 @@ import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
 import org.neo4j.kernel.impl.nioneo.store.UniquenessConstraintRule;
+import org.neo4j.kernel.impl.transaction.XidImpl;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBuffer;
 import org.neo4j.kernel.impl.transaction.xaframework.XaCommand;
 
@@ -196,6 +201,10 @@ public abstract class Command extends XaCommand
             {
                 inUse |= Record.FIRST_IN_CHAIN.byteValue();
             }
+            if ( record.isCompressed() )
+            {
+                inUse |= Record.COMPRESSED.byteValue();
+            }
             buffer.putLong( record.getId() ).putInt( record.getType() ).put(
                     inUse ).putInt( record.getLength() ).putLong(
                     record.getNextBlock() );
@@ -311,6 +320,7 @@ public abstract class Command extends XaCommand
         if ( inUse )
         {
             record.setStartRecord( ( inUseFlag & Record.FIRST_IN_CHAIN.byteValue() ) != 0 );
+            record.setCompressed( ( inUseFlag & Record.COMPRESSED.byteValue() ) != 0 );
             if ( !readAndFlip( byteChannel, buffer, 12 ) )
             {
                 return null;
@@ -356,6 +366,8 @@ public abstract class Command extends XaCommand
     private static final byte NEOSTORE_COMMAND = (byte) 6;
     private static final byte SCHEMA_RULE_COMMAND = (byte) 7;
     private static final byte LABEL_KEY_COMMAND = (byte) 8;
+    private static final byte REL_GROUP_COMMAND = (byte) 9;
+    private static final byte BRANCH_COPY_COMMAND = (byte) 10;
 
     abstract void removeFromCache( CacheAccessBackDoor cacheAccess );
 
@@ -437,6 +449,7 @@ public abstract class Command extends XaCommand
             buffer.put( inUse );
             if ( record.inUse() )
             {
+                buffer.put( NodeStore.denseAndDegree( record ) );
                 buffer.putLong( record.getNextRel() ).putLong( record.getNextProp() );
                 
                 // labels
@@ -494,11 +507,13 @@ public abstract class Command extends XaCommand
             NodeRecord record;
             if ( inUse )
             {
-                if ( !readAndFlip( byteChannel, buffer, 8*3 ) )
+                if ( !readAndFlip( byteChannel, buffer, 1 + 8*3 ) )
                 {
                     return null;
                 }
+                byte denseAndDegree = buffer.get();
                 record = new NodeRecord( id, buffer.getLong(), buffer.getLong() );
+                NodeStore.setDenseAndDegree( record, denseAndDegree );
                 
                 // labels
                 long labelField = buffer.getLong();
@@ -665,6 +680,86 @@ public abstract class Command extends XaCommand
         }
     }
     
+    static class RelationshipGroupCommand extends Command
+    {
+        private final RelationshipGroupRecord record;
+        private final RelationshipGroupStore store;
+
+        RelationshipGroupCommand( RelationshipGroupStore store, RelationshipGroupRecord record )
+        {
+            super( record.getId(), Mode.fromRecordState( record ) );
+            this.record = record;
+            this.store = store;
+        }
+
+        @Override
+        public void accept( CommandRecordVisitor visitor )
+        {
+            visitor.visitRelationshipGroup( record );
+        }
+
+        @Override
+        public String toString()
+        {
+            return record.toString();
+        }
+
+        @Override
+        void removeFromCache( CacheAccessBackDoor cacheAccess )
+        {
+            cacheAccess.removeNodeFromCache( record.getOwningNode() );
+        }
+
+        @Override
+        public void execute()
+        {
+            store.updateRecord( record );
+        }
+
+        @Override
+        public void writeToFile( LogBuffer buffer ) throws IOException
+        {
+            buffer.put( REL_GROUP_COMMAND );
+            buffer.putLong( record.getId() );
+            buffer.put( record.inUse() ? Record.IN_USE.byteValue() : Record.NOT_IN_USE.byteValue() );
+            buffer.putInt( record.getType() );
+            buffer.putLong( record.getNext() );
+            buffer.putLong( record.getFirstOut() );
+            buffer.putLong( record.getFirstIn() );
+            buffer.putLong( record.getFirstLoop() );
+            buffer.putLong( record.getOwningNode() );
+        }
+
+        public static Command readFromFile( NeoStore neoStore, ReadableByteChannel byteChannel, ByteBuffer buffer )
+                throws IOException
+        {
+            if ( !readAndFlip( byteChannel, buffer, 8 + 1 + 4 + 8 * 5 ) )
+            {
+                return null;
+            }
+            long id = buffer.getLong();
+            byte inUseFlag = buffer.get();
+            boolean inUse = false;
+            if ( inUseFlag == Record.IN_USE.byteValue() )
+            {
+                inUse = true;
+            }
+            else if ( inUseFlag != Record.NOT_IN_USE.byteValue() )
+            {
+                throw new IOException( "Illegal in use flag: " + inUseFlag );
+            }
+            RelationshipGroupRecord record = new RelationshipGroupRecord( id, buffer.getInt() );
+            record.setInUse( inUse );
+            record.setNext( buffer.getLong() );
+            record.setFirstOut( buffer.getLong() );
+            record.setFirstIn( buffer.getLong() );
+            record.setFirstLoop( buffer.getLong() );
+            record.setOwningNode( buffer.getLong() );
+            return new RelationshipGroupCommand( neoStore == null ? null : neoStore.getRelationshipGroupStore(),
+                    record );
+        }
+    }
+
     static class NeoStoreCommand extends Command
     {
         private final NeoStoreRecord record;
@@ -722,6 +817,94 @@ public abstract class Command extends XaCommand
         }
     }
 
+    /**
+     * Carries a transaction prepared by another resource, see {@link BranchCopy}. Nothing to execute here, the
+     * copy is only redone by recovery if that resource lost the transaction.
+     */
+    static class BranchCopyCommand extends Command implements BranchCopy.Carrier
+    {
+        private final BranchCopy copy;
+
+        BranchCopyCommand( BranchCopy copy )
+        {
+            super( copy.getLogVersion(), Mode.CREATE );
+            this.copy = copy;
+        }
+
+        @Override
+        public BranchCopy getBranchCopy()
+        {
+            return copy;
+        }
+
+        @Override
+        public void execute()
+        {
+            // no-op
+        }
+
+        @Override
+        public void accept( CommandRecordVisitor visitor )
+        {
+            // no-op
+        }
+
+        @Override
+        public String toString()
+        {
+            return copy.toString();
+        }
+
+        @Override
+        void removeFromCache( CacheAccessBackDoor cacheAccess )
+        {
+            // no-op
+        }
+
+        @Override
+        public void writeToFile( LogBuffer buffer ) throws IOException
+        {
+            Xid xid = copy.getXid();
+            byte[] globalId = xid.getGlobalTransactionId();
+            byte[] branchId = xid.getBranchQualifier();
+            byte[] transaction = copy.getTransaction();
+            buffer.put( BRANCH_COPY_COMMAND ).put( (byte) globalId.length ).put( (byte) branchId.length )
+                  .put( globalId ).put( branchId ).putLong( copy.getLogVersion() )
+                  .putInt( transaction.length ).put( transaction );
+        }
+
+        public static Command readFromFile( ReadableByteChannel byteChannel, ByteBuffer buffer ) throws IOException
+        {
+            if ( !readAndFlip( byteChannel, buffer, 2 ) )
+            {
+                return null;
+            }
+            byte[] globalId = new byte[buffer.get()];
+            byte[] branchId = new byte[buffer.get()];
+            if ( !readAndFlip( byteChannel, buffer, globalId.length + branchId.length + 12 ) )
+            {
+                return null;
+            }
+            buffer.get( globalId );
+            buffer.get( branchId );
+            long logVersion = buffer.getLong();
+            byte[] transaction = new byte[buffer.getInt()];
+            // The transaction may not fit in the buffer, so read it in chunks
+            for ( int offset = 0; offset < transaction.length; )
+            {
+                int chunk = Math.min( buffer.capacity(), transaction.length - offset );
+                if ( !readAndFlip( byteChannel, buffer, chunk ) )
+                {
+                    return null;
+                }
+                buffer.get( transaction, offset, chunk );
+                offset += chunk;
+            }
+            return new BranchCopyCommand(
+                    new BranchCopy( new XidImpl( globalId, branchId ), logVersion, transaction ) );
+        }
+    }
+
     static class PropertyKeyTokenCommand extends Command
     {
         private final PropertyKeyTokenRecord record;
@@ -1458,6 +1641,8 @@ public abstract class Command extends XaCommand
                 return PropertyKeyTokenCommand.readFromFile( neoStore, byteChannel, buffer );
             case REL_COMMAND:
                 return RelationshipCommand.readFromFile( neoStore, byteChannel, buffer );
+            case REL_GROUP_COMMAND:
+                return RelationshipGroupCommand.readFromFile( neoStore, byteChannel, buffer );
             case REL_TYPE_COMMAND:
                 return RelationshipTypeTokenCommand.readFromFile( neoStore, byteChannel, buffer );
             case LABEL_KEY_COMMAND:
@@ -1466,6 +1651,8 @@ public abstract class Command extends XaCommand
                 return NeoStoreCommand.readFromFile( neoStore, byteChannel, buffer );
             case SCHEMA_RULE_COMMAND:
                 return SchemaRuleCommand.readFromFile( neoStore, indexes, byteChannel, buffer );
+            case BRANCH_COPY_COMMAND:
+                return BranchCopyCommand.readFromFile( byteChannel, buffer );
             case NONE: return null;
             default:
                 throw new IOException( "Unknown command type[" + commandType + "]" );
@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.xa;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
+
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.IN;
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.LOOP;
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.OUT;
+
+/**
+ * Position in the relationship chains of a dense node, one chain per type and direction as laid out by
+ * its {@link RelationshipGroupRecord relationship groups}. Only the chains matching the requested direction
+ * and types are visited, so loading relationships of one type doesn't touch relationships of other types.
+ */
+public class DenseNodeChainPosition implements RelationshipLoadingPosition
+{
+    private static final int[] OUTGOING_CHAINS = { OUT, LOOP }, INCOMING_CHAINS = { IN, LOOP },
+            ALL_CHAINS = { OUT, IN, LOOP };
+
+    // Sorted, and positions[i] holds the out, in and loop chain positions of types[i]
+    private final int[] types;
+    private final long[][] positions;
+    private int currentType = -1;
+    private int currentChain = -1;
+
+    public DenseNodeChainPosition( List<RelationshipGroupRecord> groups )
+    {
+        RelationshipGroupRecord[] sorted = groups.toArray( new RelationshipGroupRecord[groups.size()] );
+        Arrays.sort( sorted, new Comparator<RelationshipGroupRecord>()
+        {
+            @Override
+            public int compare( RelationshipGroupRecord o1, RelationshipGroupRecord o2 )
+            {
+                return o1.getType() - o2.getType();
+            }
+        } );
+        this.types = new int[sorted.length];
+        this.positions = new long[sorted.length][];
+        for ( int i = 0; i < sorted.length; i++ )
+        {
+            types[i] = sorted[i].getType();
+            positions[i] = new long[] { sorted[i].getFirstOut(), sorted[i].getFirstIn(), sorted[i].getFirstLoop() };
+        }
+    }
+
+    private DenseNodeChainPosition( int[] types, long[][] positions )
+    {
+        this.types = types;
+        this.positions = positions;
+    }
+
+    @Override
+    public long position( DirectionWrapper direction, int[] types )
+    {
+        int[] chains = chains( direction );
+        for ( int i = 0; i < this.types.length; i++ )
+        {
+            if ( !requested( this.types[i], types ) )
+            {
+                continue;
+            }
+            for ( int chain : chains )
+            {
+                if ( positions[i][chain] != Record.NO_NEXT_RELATIONSHIP.intValue() )
+                {
+                    currentType = i;
+                    currentChain = chain;
+                    return positions[i][chain];
+                }
+            }
+        }
+        currentType = currentChain = -1;
+        return Record.NO_NEXT_RELATIONSHIP.intValue();
+    }
+
+    @Override
+    public long nextPosition( long position, DirectionWrapper direction, int[] types )
+    {
+        if ( currentType != -1 )
+        {
+            positions[currentType][currentChain] = position;
+            if ( position != Record.NO_NEXT_RELATIONSHIP.intValue() )
+            {
+                return position;
+            }
+        }
+        return position( direction, types );
+    }
+
+    @Override
+    public boolean hasMore( DirectionWrapper direction, int[] types )
+    {
+        int[] chains = chains( direction );
+        for ( int i = 0; i < this.types.length; i++ )
+        {
+            if ( requested( this.types[i], types ) )
+            {
+                for ( int chain : chains )
+                {
+                    if ( positions[i][chain] != Record.NO_NEXT_RELATIONSHIP.intValue() )
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean compareAndAdvance( long relIdDeleted, long nextRelId )
+    {
+        boolean changed = false;
+        for ( long[] chains : positions )
+        {
+            for ( int chain = 0; chain < chains.length; chain++ )
+            {
+                if ( chains[chain] == relIdDeleted )
+                {
+                    chains[chain] = nextRelId;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public RelationshipLoadingPosition clone()
+    {
+        long[][] positionsCopy = new long[positions.length][];
+        for ( int i = 0; i < positions.length; i++ )
+        {
+            positionsCopy[i] = positions[i].clone();
+        }
+        return new DenseNodeChainPosition( types, positionsCopy );
+    }
+
+    private static int[] chains( DirectionWrapper direction )
+    {
+        switch ( direction )
+        {
+        case OUTGOING:
+            return OUTGOING_CHAINS;
+        case INCOMING:
+            return INCOMING_CHAINS;
+        default:
+            return ALL_CHAINS;
+        }
+    }
+
+    private static boolean requested( int type, int[] types )
+    {
+        if ( types.length == 0 )
+        {
+            return true;
+        }
+        for ( int requested : types )
+        {
+            if ( requested == type )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder( "DenseNodeChainPosition[" );
+        for ( int i = 0; i < types.length; i++ )
+        {
+            builder.append( i > 0 ? ", " : "" ).append( types[i] ).append( ':' )
+                   .append( Arrays.toString( positions[i] ) );
+        }
+        return builder.append( ']' ).toString();
+    }
+}
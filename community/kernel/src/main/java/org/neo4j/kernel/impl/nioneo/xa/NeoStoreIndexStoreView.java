@@ -20,14 +20,28 @@
 package org.neo4j.kernel.impl.nioneo.xa;
 
 import java.util.ArrayList;
-
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.Predicates;
 import org.neo4j.helpers.PrimitiveIntPredicate;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.api.index.StoreScan;
@@ -41,6 +55,10 @@ import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore.Processor;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
 import static org.neo4j.kernel.api.index.NodePropertyUpdate.EMPTY_LONG_ARRAY;
 import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
 import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLabelsField;
@@ -48,33 +66,40 @@ import static org.neo4j.kernel.impl.util.IoPrimitiveUtils.safeCastLongToInt;
 
 public class NeoStoreIndexStoreView implements IndexStoreView
 {
+    /**
+     * The node store is read in partitions of this many node ids, one partition at a time per thread.
+     */
+    private static final int PARTITION_SIZE = 10_000;
+
     private final PropertyStore propertyStore;
     private final NodeStore nodeStore;
+    private final int scanThreads;
 
     public NeoStoreIndexStoreView( NeoStore neoStore )
+    {
+        this( neoStore, Runtime.getRuntime().availableProcessors() );
+    }
+
+    public NeoStoreIndexStoreView( NeoStore neoStore, int scanThreads )
     {
         this.propertyStore = neoStore.getPropertyStore();
         this.nodeStore = neoStore.getNodeStore();
+        this.scanThreads = scanThreads;
     }
 
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
             IndexDescriptor descriptor, Visitor<NodePropertyUpdate, FAILURE> visitor )
     {
-        // Create a processor that for each accepted node (containing the desired label) looks through its properties,
-        // getting the desired one (if any) and feeds to the index manipulator.
-        LabelsReference labelsReference = new LabelsReference();
-        RecordStore.Processor<FAILURE> processor = new NodePropertyUpdateProcessor<>( propertyStore,
-                singleIntPredicate( descriptor.getPropertyKeyId() ),
-                labelsReference, visitor );
-
-        // Run the processor for the nodes containing the given label.
-        // TODO When we've got a decent way of getting nodes with a label, use that instead.
-        Predicate<NodeRecord> predicate = new NodeLabelFilterPredicate( nodeStore,
-                singleIntPredicate( descriptor.getLabelId() ), labelsReference );
+        return visitNodesWithPropertyAndLabel(
+                Collections.<IndexDescriptor, Visitor<NodePropertyUpdate, FAILURE>>singletonMap( descriptor, visitor ) );
+    }
 
-        // Run the processor, be sure that the predicate filters out removed nodes by checking in-use
-        return new ProcessStoreScan<>( processor, predicate );
+    @Override
+    public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
+            Map<IndexDescriptor, ? extends Visitor<NodePropertyUpdate, FAILURE>> visitors )
+    {
+        return new PartitionedIndexStoreScan<>( visitors );
     }
 
     @Override
@@ -133,6 +158,30 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         return updates;
     }
 
+    @Override
+    public Property nodeGetProperty( long nodeId, int propertyKeyId )
+    {
+        NodeRecord node = nodeStore.forceGetRecord( nodeId );
+        if ( !node.inUse() )
+        {
+            return Property.noNodeProperty( nodeId, propertyKeyId );
+        }
+        long firstPropertyId = node.getCommittedNextProp();
+        if ( firstPropertyId == Record.NO_NEXT_PROPERTY.intValue() )
+        {
+            return Property.noNodeProperty( nodeId, propertyKeyId );
+        }
+        for ( PropertyRecord propertyRecord : propertyStore.getPropertyRecordChain( firstPropertyId ) )
+        {
+            PropertyBlock property = propertyRecord.getPropertyBlock( propertyKeyId );
+            if ( property != null )
+            {
+                return property.newPropertyData( propertyStore );
+            }
+        }
+        return Property.noNodeProperty( nodeId, propertyKeyId );
+    }
+
     /**
      * Used for sharing the extracted labels from the last processed node between the label and property key filter.
      * First the label predicate will be run (which will set the labels).
@@ -155,18 +204,6 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         }
     }
 
-    private static PrimitiveIntPredicate singleIntPredicate( final int acceptedValue )
-    {
-        return new PrimitiveIntPredicate()
-        {
-            @Override
-            public boolean accept( int value )
-            {
-                return value == acceptedValue;
-            }
-        };
-    }
-
     private static PrimitiveIntPredicate multipleIntPredicate( final int... acceptedValues )
     {
         return new PrimitiveIntPredicate()
@@ -331,4 +368,299 @@ public class NeoStoreIndexStoreView implements IndexStoreView
             processor.stopScanning();
         }
     }
+
+    /**
+     * Reads the node store for many indexes at once. Partitions of the store are read by up to
+     * {@link #scanThreads} threads, while the visitors are called from the thread running the scan, in node id
+     * order. Partitions read ahead of the one being visited are bounded to a few per thread, which bounds the
+     * memory the scan needs.
+     */
+    private class PartitionedIndexStoreScan<FAILURE extends Exception> implements StoreScan<FAILURE>
+    {
+        private final IndexDescriptor[] descriptors;
+        private final List<Visitor<NodePropertyUpdate, FAILURE>> visitors;
+        private volatile boolean stopped;
+        private long highId;
+
+        PartitionedIndexStoreScan( Map<IndexDescriptor, ? extends Visitor<NodePropertyUpdate, FAILURE>> visitors )
+        {
+            this.descriptors = visitors.keySet().toArray( new IndexDescriptor[visitors.size()] );
+            this.visitors = new ArrayList<>( visitors.values() );
+        }
+
+        @Override
+        public void run() throws FAILURE
+        {
+            highId = nodeStore.getHighId();
+            long partitions = highId / PARTITION_SIZE + 1;
+            int threads = (int) Math.min( scanThreads, partitions );
+            try
+            {
+                if ( threads <= 1 )
+                {
+                    for ( long partition = 0; partition < partitions && !stopped; partition++ )
+                    {
+                        visit( read( partition ) );
+                    }
+                }
+                else
+                {
+                    runInParallel( partitions, threads );
+                }
+            }
+            finally
+            {
+                stopped = true;
+            }
+        }
+
+        @Override
+        public void stop()
+        {
+            stopped = true;
+        }
+
+        private void runInParallel( final long partitions, int threads ) throws FAILURE
+        {
+            final Semaphore readAhead = new Semaphore( threads * 2 );
+            final AtomicLong nextPartition = new AtomicLong();
+            final BlockingQueue<Partition> readPartitions = new LinkedBlockingQueue<>();
+            ExecutorService executor = Executors.newFixedThreadPool( threads,
+                    new NamedThreadFactory( "Index population store scan" ) );
+            try
+            {
+                for ( int i = 0; i < threads; i++ )
+                {
+                    executor.submit( new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            while ( !stopped )
+                            {
+                                readAhead.acquireUninterruptibly();
+                                long partition = nextPartition.getAndIncrement();
+                                if ( partition >= partitions )
+                                {
+                                    return;
+                                }
+                                readPartitions.add( read( partition ) );
+                            }
+                        }
+                    } );
+                }
+
+                // Partitions are claimed in order, but may be done out of order
+                Map<Long, Partition> doneAhead = new HashMap<>();
+                for ( long partition = 0; partition < partitions && !stopped; partition++ )
+                {
+                    Partition read;
+                    while ( (read = doneAhead.remove( partition )) == null && !stopped )
+                    {
+                        Partition done = readPartitions.poll( 10, MILLISECONDS );
+                        if ( done != null )
+                        {
+                            doneAhead.put( done.id, done );
+                        }
+                    }
+                    if ( read != null )
+                    {
+                        visit( read );
+                        readAhead.release();
+                    }
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while scanning the node store", e );
+            }
+            finally
+            {
+                // Let waiting threads see that the scan is over
+                stopped = true;
+                readAhead.release( threads );
+                executor.shutdown();
+                awaitTermination( executor );
+            }
+        }
+
+        private void awaitTermination( ExecutorService executor )
+        {
+            boolean interrupted = false;
+            while ( !executor.isTerminated() )
+            {
+                try
+                {
+                    executor.awaitTermination( 1, SECONDS );
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void visit( Partition partition ) throws FAILURE
+        {
+            if ( partition.failure != null )
+            {
+                throw launderedException( partition.failure );
+            }
+            for ( int i = 0; i < partition.updates.size(); i++ )
+            {
+                visitors.get( partition.targets[i] ).visit( partition.updates.get( i ) );
+            }
+        }
+
+        private Partition read( long id )
+        {
+            Partition partition = new Partition( id );
+            try
+            {
+                long toNodeId = Math.min( (id + 1) * PARTITION_SIZE, highId + 1 );
+                for ( long nodeId = id * PARTITION_SIZE; nodeId < toNodeId && !stopped; nodeId++ )
+                {
+                    read( nodeStore.forceGetRecord( nodeId ), partition );
+                }
+            }
+            catch ( Throwable e )
+            {
+                partition.failure = e;
+            }
+            return partition;
+        }
+
+        private void read( NodeRecord node, Partition partition )
+        {
+            if ( !node.inUse() )
+            {
+                return;
+            }
+            long firstPropertyId = node.getCommittedNextProp();
+            if ( firstPropertyId == Record.NO_NEXT_PROPERTY.intValue() )
+            {
+                return;
+            }
+
+            long[] labels = parseLabelsField( node ).get( nodeStore );
+            boolean[] matches = new boolean[descriptors.length];
+            boolean anyMatch = false;
+            for ( int i = 0; i < descriptors.length; i++ )
+            {
+                matches[i] = contains( labels, descriptors[i].getLabelId() );
+                anyMatch |= matches[i];
+            }
+            if ( !anyMatch )
+            {
+                return;
+            }
+
+            // Only load the values of the properties that any of the indexes for the labels of this node need
+            Map<Integer, Object> values = new HashMap<>();
+            for ( PropertyRecord propertyRecord : propertyStore.getPropertyRecordChain( firstPropertyId ) )
+            {
+                for ( PropertyBlock property : propertyRecord.getPropertyBlocks() )
+                {
+                    int propertyKeyId = property.getKeyIndexId();
+                    if ( !values.containsKey( propertyKeyId ) && isWanted( matches, propertyKeyId ) )
+                    {
+                        // Make sure the value is loaded, even if it's of a "heavy" kind.
+                        propertyStore.ensureHeavy( property );
+                        values.put( propertyKeyId, property.getType().getValue( property, propertyStore ) );
+                    }
+                }
+            }
+
+            for ( int i = 0; i < descriptors.length; i++ )
+            {
+                if ( matches[i] )
+                {
+                    Object value = valueOf( descriptors[i], values );
+                    if ( value != null )
+                    {
+                        partition.add( i, NodePropertyUpdate.add( node.getId(), descriptors[i].getPropertyKeyId(),
+                                value, labels ) );
+                    }
+                }
+            }
+        }
+
+        private boolean isWanted( boolean[] matches, int propertyKeyId )
+        {
+            for ( int i = 0; i < descriptors.length; i++ )
+            {
+                if ( matches[i] && descriptors[i].containsPropertyKeyId( propertyKeyId ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the value to index for the given descriptor, a {@link CompositeValue} for composite indexes,
+         * or {@code null} if the node doesn't have all properties of the index.
+         */
+        private Object valueOf( IndexDescriptor descriptor, Map<Integer, Object> values )
+        {
+            if ( !descriptor.isComposite() )
+            {
+                return values.get( descriptor.getPropertyKeyId() );
+            }
+            int[] propertyKeyIds = descriptor.getPropertyKeyIds();
+            Object[] compositeValues = new Object[propertyKeyIds.length];
+            for ( int i = 0; i < propertyKeyIds.length; i++ )
+            {
+                compositeValues[i] = values.get( propertyKeyIds[i] );
+                if ( compositeValues[i] == null )
+                {
+                    return null;
+                }
+            }
+            return CompositeValue.of( compositeValues );
+        }
+
+        private boolean contains( long[] labels, int labelId )
+        {
+            for ( long label : labels )
+            {
+                if ( label == labelId )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The updates read from one partition of the node store, each with the index of the visitor it is for.
+     */
+    private static class Partition
+    {
+        private final long id;
+        private final List<NodePropertyUpdate> updates = new ArrayList<>();
+        private int[] targets = new int[16];
+        private Throwable failure;
+
+        Partition( long id )
+        {
+            this.id = id;
+        }
+
+        void add( int target, NodePropertyUpdate update )
+        {
+            if ( updates.size() == targets.length )
+            {
+                targets = Arrays.copyOf( targets, targets.length * 2 );
+            }
+            targets[updates.size()] = target;
+            updates.add( update );
+        }
+    }
 }
@@ -27,6 +27,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
 
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.Label;
@@ -34,6 +36,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.TransactionFailureException;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Exceptions;
@@ -82,6 +85,7 @@ import org.neo4j.kernel.impl.persistence.PersistenceManager;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.LockManager;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBackedXaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.TransactionInterceptor;
 import org.neo4j.kernel.impl.transaction.xaframework.XaCommand;
@@ -357,15 +361,29 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource implements NeoSt
                     new NeoStoreInjectedTransactionValidator(integrityValidator), tf,
                     stateFactory, providers, readOnly  );
 
-            labelScanStore = life.add( dependencyResolver.resolveDependency( LabelScanStoreProvider.class,
-                    LabelScanStoreProvider.HIGHEST_PRIORITIZED ).getLabelScanStore() );
+            LabelScanStoreProvider labelScanStoreProvider = dependencyResolver.resolveDependency(
+                    LabelScanStoreProvider.class, LabelScanStoreProvider.HIGHEST_PRIORITIZED );
+            if ( !readOnly )
+            {
+                // The store may not have been recovered yet, which is fine for the record kept here
+                neoStore.setRecoveredStatus( true );
+                try
+                {
+                    labelScanStoreProvider.makeAuthoritative( neoStore.getLastCommittedTx(), msgLog );
+                }
+                finally
+                {
+                    neoStore.setRecoveredStatus( false );
+                }
+            }
+            labelScanStore = life.add( labelScanStoreProvider.getLabelScanStore() );
 
             fileListing = new NeoStoreFileListing( xaContainer, storeDir, labelScanStore, indexingService );
 
             kernel = life.add( new Kernel( txManager, propertyKeyTokens, labelTokens, relationshipTypeTokens,
                     persistenceManager, lockManager, updateableSchemaState, schemaWriteGuard,
                     indexingService, nodeManager, neoStore, persistenceCache, schemaCache, providerMap, labelScanStore,
-                    readOnly ));
+                    readOnly, config.get( GraphDatabaseSettings.tx_state_id_set_memory_budget ) ));
 
             life.init();
 
@@ -667,6 +685,42 @@ public class NeoStoreXaDataSource extends LogBackedXaDataSource implements NeoSt
         return xaContainer;
     }
 
+    @Override
+    public boolean hasRecoveredOnePhaseCommit( Xid xid )
+    {
+        return xaContainer.getLogicalLog().hasRecoveredOnePhaseCommit( xid );
+    }
+
+    @Override
+    public List<BranchCopy> getRecoveredBranchCopies()
+    {
+        return xaContainer.getLogicalLog().getRecoveredBranchCopies();
+    }
+
+    @Override
+    public void lastResourceCommitStarting( Xid xid, List<BranchCopy> branchCopies )
+    {
+        if ( !branchCopies.isEmpty() )
+        {
+            try
+            {
+                WriteTransaction tx = (WriteTransaction) xaContainer.getResourceManager().getXaTransaction( xid );
+                tx.carryBranchCopies( branchCopies );
+            }
+            catch ( XAException e )
+            {
+                throw new TransactionFailureException( "Unable to carry the other branches of " + xid, e );
+            }
+        }
+        xaContainer.getLogicalLog().lastResourceCommitStarting( xid );
+    }
+
+    @Override
+    public void lastResourceCommitRecorded( Xid xid )
+    {
+        xaContainer.getLogicalLog().lastResourceCommitRecorded( xid );
+    }
+
     @Override
     public boolean setRecovered( boolean recovered )
     {
@@ -28,9 +28,11 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import javax.transaction.SystemException;
 import javax.transaction.Transaction;
@@ -51,6 +53,8 @@ import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
+import org.neo4j.kernel.impl.core.SingleChainPosition;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
@@ -70,18 +74,22 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
+import org.neo4j.kernel.impl.nioneo.store.StringDictionary;
 import org.neo4j.kernel.impl.nioneo.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.nioneo.store.labels.NodeLabels;
 import org.neo4j.kernel.impl.nioneo.xa.Command.NodeCommand;
 import org.neo4j.kernel.impl.nioneo.xa.Command.SchemaRuleCommand;
 import org.neo4j.kernel.impl.nioneo.xa.RecordChanges.RecordChange;
 import org.neo4j.kernel.impl.persistence.NeoStoreTransaction;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.XaCommand;
 import org.neo4j.kernel.impl.transaction.xaframework.XaConnection;
 import org.neo4j.kernel.impl.transaction.xaframework.XaLogicalLog;
@@ -218,6 +226,33 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 }
             }, false );
 
+    private final RecordChanges<Long, RelationshipGroupRecord, Integer> relGroupRecords =
+            new RecordChanges<>( new RecordChanges.Loader<Long, RelationshipGroupRecord, Integer>()
+            {
+                @Override
+                public RelationshipGroupRecord newUnused( Long key, Integer type )
+                {
+                    return new RelationshipGroupRecord( key, type );
+                }
+
+                @Override
+                public RelationshipGroupRecord load( Long key, Integer type )
+                {
+                    return getRelationshipGroupStore().getRecord( key );
+                }
+
+                @Override
+                public void ensureHeavy( RelationshipGroupRecord record )
+                {
+                }
+
+                @Override
+                public RelationshipGroupRecord clone( RelationshipGroupRecord record )
+                {
+                    // Not needed because we don't manage before state for relationship group records.
+                    throw new UnsupportedOperationException( "Unexpected call to clone on a relationshipGroupRecord" );
+                }
+            }, false );
     private final RecordChanges<Long, Collection<DynamicRecord>, SchemaRule> schemaRuleChanges = new RecordChanges<>(new RecordChanges.Loader<Long, Collection<DynamicRecord>, SchemaRule>() {
         @Override
         public Collection<DynamicRecord> newUnused(Long key, SchemaRule additionalData)
@@ -259,11 +294,20 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     private final Map<Long, Command.NodeCommand> nodeCommands = new TreeMap<>();
     private final ArrayList<Command.PropertyCommand> propCommands = new ArrayList<>();
     private final ArrayList<Command.RelationshipCommand> relCommands = new ArrayList<>();
+    private final ArrayList<Command.RelationshipGroupCommand> relGroupCommands = new ArrayList<>();
     private final ArrayList<Command.SchemaRuleCommand> schemaRuleCommands = new ArrayList<>();
     private ArrayList<Command.RelationshipTypeTokenCommand> relationshipTypeTokenCommands;
     private ArrayList<Command.LabelTokenCommand> labelTokenCommands;
     private ArrayList<Command.PropertyKeyTokenCommand> propertyKeyTokenCommands;
     private Command.NeoStoreCommand neoStoreCommand;
+    // Other branches of the transaction this transaction decides with its one phase commit, see carryBranchCopies()
+    private final ArrayList<Command.BranchCopyCommand> branchCopyCommands = new ArrayList<>();
+
+    // Nodes which got their relationship chain split up into groups in this transaction
+    private final Set<Long> upgradedDenseNodes = new HashSet<>();
+
+    // Entries written to the string dictionary by this transaction
+    private final StringDictionary.NewEntries newDictionaryEntries = new StringDictionary.NewEntries();
 
     private boolean committed = false;
     private boolean prepared = false;
@@ -318,12 +362,15 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         if ( isRecovered() )
         {
             return nodeCommands.size() == 0 && propCommands.size() == 0 &&
-                   relCommands.size() == 0 && schemaRuleCommands.size() == 0 && relationshipTypeTokenCommands == null &&
-                   labelTokenCommands == null && propertyKeyTokenCommands == null && kernelTransaction.isReadOnly();
+                   relCommands.size() == 0 && relGroupCommands.size() == 0 && schemaRuleCommands.size() == 0 &&
+                   relationshipTypeTokenCommands == null &&
+                   labelTokenCommands == null && propertyKeyTokenCommands == null && branchCopyCommands.isEmpty() &&
+                   kernelTransaction.isReadOnly();
         }
-        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && schemaRuleChanges.changeSize() == 0 &&
+        return nodeRecords.changeSize() == 0 && relRecords.changeSize() == 0 && relGroupRecords.changeSize() == 0 &&
+               schemaRuleChanges.changeSize() == 0 &&
                propertyRecords.changeSize() == 0 && relationshipTypeTokenRecords == null && labelTokenRecords == null &&
-               propertyKeyTokenRecords == null && kernelTransaction.isReadOnly();
+               propertyKeyTokenRecords == null && branchCopyCommands.isEmpty() && kernelTransaction.isReadOnly();
     }
 
     // Make this accessible in this package
@@ -360,6 +407,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
 
         int noOfCommands = nodeRecords.changeSize() +
                            relRecords.changeSize() +
+                           relGroupRecords.changeSize() +
                            propertyRecords.changeSize() +
                            schemaRuleChanges.changeSize() +
                            (propertyKeyTokenRecords != null ? propertyKeyTokenRecords.size() : 0) +
@@ -406,6 +454,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             relCommands.add( command );
             commands.add( command );
         }
+        for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+        {
+            Command.RelationshipGroupCommand command = new Command.RelationshipGroupCommand(
+                    neoStore.getRelationshipGroupStore(), change.forReadingLinkage() );
+            relGroupCommands.add( command );
+            commands.add( command );
+        }
         if ( neoStoreRecord != null )
         {
             for ( RecordChange<Long, NeoStoreRecord, Void> change : neoStoreRecord.changes() )
@@ -456,10 +511,26 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         {
             addCommand( command );
         }
+        for ( Command.BranchCopyCommand command : branchCopyCommands )
+        {
+            addCommand( command );
+        }
 
         integrityValidator.validateTransactionStartKnowledge( lastCommittedTxWhenTransactionStarted );
     }
 
+    /**
+     * Makes the one phase commit of this transaction carry transactions prepared by other resources, so that
+     * they don't need forces of their own, see {@link BranchCopy}.
+     */
+    void carryBranchCopies( List<BranchCopy> copies )
+    {
+        for ( BranchCopy copy : copies )
+        {
+            branchCopyCommands.add( new Command.BranchCopyCommand( copy ) );
+        }
+    }
+
     protected void intercept( List<Command> commands )
     {
         // default no op
@@ -477,6 +548,10 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         {
             relCommands.add( (Command.RelationshipCommand) xaCommand );
         }
+        else if ( xaCommand instanceof Command.RelationshipGroupCommand )
+        {
+            relGroupCommands.add( (Command.RelationshipGroupCommand) xaCommand );
+        }
         else if ( xaCommand instanceof Command.PropertyCommand )
         {
             propCommands.add( (Command.PropertyCommand) xaCommand );
@@ -514,6 +589,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         {
             schemaRuleCommands.add( (Command.SchemaRuleCommand) xaCommand );
         }
+        else if ( xaCommand instanceof Command.BranchCopyCommand )
+        {
+            // Only recovery of the logical log looks at these, see XaLogicalLog#getRecoveredBranchCopies()
+            branchCopyCommands.add( (Command.BranchCopyCommand) xaCommand );
+        }
         else
         {
             throw new IllegalArgumentException( "Unknown command " + xaCommand );
@@ -575,6 +655,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 patchDeletedRelationshipNodes( id, record.getFirstNode(), record.getFirstNextRel(),
                                                record.getSecondNode(), record.getSecondNextRel() );
             }
+            for ( RecordChange<Long, RelationshipGroupRecord, Integer> change : relGroupRecords.changes() )
+            {
+                if ( freeIds && change.isCreated() )
+                {
+                    getRelationshipGroupStore().freeId( change.getKey() );
+                }
+            }
             if ( neoStoreRecord != null )
             {
                 removeGraphPropertiesFromCache();
@@ -600,6 +687,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                     }
                 }
             }
+            getPropertyStore().releaseDictionaryEntries( newDictionaryEntries );
             for ( RecordChange<Long, PropertyRecord, PrimitiveRecord> change : propertyRecords.changes() )
             {
                 PropertyRecord record = change.forReadingLinkage();
@@ -633,6 +721,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                                     getPropertyStore().freeArrayBlockId(
                                             dynamicRecord.getId() );
                                 }
+                                else if ( dynamicRecord.getType() == PropertyType.DICTIONARY_STRING.intValue() )
+                                {
+                                    getPropertyStore().freeDictionaryBlockId(
+                                            dynamicRecord.getId() );
+                                }
                                 else
                                 {
                                     throw new InvalidRecordException(
@@ -794,10 +887,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
 
             // primitives
             java.util.Collections.sort( relCommands, sorter );
+            java.util.Collections.sort( relGroupCommands, sorter );
             java.util.Collections.sort( propCommands, sorter );
-            executeCreated( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeModified( isRecovered, propCommands, relCommands, nodeCommands.values() );
-            executeDeleted( propCommands, relCommands, nodeCommands.values() );
+            executeCreated( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeModified( isRecovered, propCommands, relCommands, relGroupCommands, nodeCommands.values() );
+            executeDeleted( propCommands, relCommands, relGroupCommands, nodeCommands.values() );
 
             // property change set for index updates
             Collection<NodeLabelUpdate> labelUpdates = gatherLabelUpdates();
@@ -849,6 +943,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             {
                 updateFirstRelationships();
                 state.commitCows(); // updates the cached primitives
+                for ( long nodeId : upgradedDenseNodes )
+                {
+                    // The relationship chain position of a cached version of it refers to the old chain
+                    removeNodeFromCache( nodeId );
+                }
             }
             neoStore.setLastCommittedTx( getCommitTxId() );
             if ( isRecovered )
@@ -1040,6 +1139,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         nodeRecords.clear();
         propertyRecords.clear();
         relRecords.clear();
+        relGroupRecords.clear();
         schemaRuleChanges.clear();
         relationshipTypeTokenRecords = null;
         propertyKeyTokenRecords = null;
@@ -1049,10 +1149,12 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         propCommands.clear();
         propertyKeyTokenCommands = null;
         relCommands.clear();
+        relGroupCommands.clear();
         schemaRuleCommands.clear();
         relationshipTypeTokenCommands = null;
         labelTokenCommands = null;
         neoStoreCommand = null;
+        upgradedDenseNodes.clear();
     }
 
     private RelationshipTypeTokenStore getRelationshipTypeStore()
@@ -1085,6 +1187,11 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private PropertyStore getPropertyStore()
     {
         return neoStore.getPropertyStore();
@@ -1164,6 +1271,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             }
             for ( PropertyBlock block : propRecord.getPropertyBlocks() )
             {
+                getPropertyStore().releaseDictionaryEntry( block, newDictionaryEntries );
                 for ( DynamicRecord valueRecord : block.getValueRecords() )
                 {
                     assert valueRecord.inUse();
@@ -1279,29 +1387,108 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     }
 
     @Override
-    public long getRelationshipChainPosition( long nodeId )
+    public RelationshipLoadingPosition getRelationshipChainPosition( long nodeId )
     {
-        return nodeRecords.getOrLoad( nodeId, null ).getBefore().getNextRel();
+        // Committed state only, just like the relationship records read when loading
+        NodeRecord node = nodeRecords.getOrLoad( nodeId, null ).getBefore();
+        long firstRel = node.getNextRel();
+        if ( firstRel == Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            return RelationshipLoadingPosition.EMPTY;
+        }
+        if ( !node.isDense() )
+        {
+            return new SingleChainPosition( firstRel );
+        }
+        RelationshipGroupStore groupStore = getRelationshipGroupStore();
+        RelationshipGroupRecord group = groupStore.getRecord( firstRel );
+        List<RelationshipGroupRecord> groups = new ArrayList<>();
+        groups.add( group );
+        while ( group.getNext() != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            group = groupStore.getRecord( group.getNext() );
+            groups.add( group );
+        }
+        return new DenseNodeChainPosition( groups );
     }
 
     @Override
-    public Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships( long nodeId,
-                                                                                                 long position )
+    public Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, RelationshipLoadingPosition> getMoreRelationships(
+            long nodeId, RelationshipLoadingPosition position, DirectionWrapper direction, int[] types )
     {
-        return getMoreRelationships( nodeId, position, getRelGrabSize(), getRelationshipStore() );
+        return getMoreRelationships( nodeId, position, direction, types, getRelGrabSize(), getRelationshipStore() );
     }
 
     private void updateNodes( RelationshipRecord rel )
     {
         if ( rel.getFirstPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
         {
-            NodeRecord firstNode = nodeRecords.getOrLoad( rel.getFirstNode(), null ).forChangingLinkage();
-            firstNode.setNextRel( rel.getFirstNextRel() );
+            updateFirstInChain( rel.getFirstNode(), rel, rel.getFirstNextRel() );
+        }
+        // A loop is first in the chain on both sides, or on neither
+        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() &&
+             rel.getSecondNode() != rel.getFirstNode() )
+        {
+            updateFirstInChain( rel.getSecondNode(), rel, rel.getSecondNextRel() );
         }
-        if ( rel.getSecondPrevRel() == Record.NO_PREV_RELATIONSHIP.intValue() )
+        decrementDegreeHint( rel.getFirstNode() );
+        if ( rel.getSecondNode() != rel.getFirstNode() )
         {
-            NodeRecord secondNode = nodeRecords.getOrLoad( rel.getSecondNode(), null ).forChangingLinkage();
-            secondNode.setNextRel( rel.getSecondNextRel() );
+            decrementDegreeHint( rel.getSecondNode() );
+        }
+    }
+
+    private void updateFirstInChain( long nodeId, RelationshipRecord rel, long nextRel )
+    {
+        RecordChange<Long, NodeRecord, Void> nodeChange = nodeRecords.getOrLoad( nodeId, null );
+        NodeRecord node = nodeChange.forReadingLinkage();
+        if ( !node.isDense() )
+        {
+            nodeChange.forChangingLinkage().setNextRel( nextRel );
+            return;
+        }
+
+        // The relationship is first in one of the chains of its group, which may become empty
+        RecordChange<Long, RelationshipGroupRecord, Integer> previousGroup = null;
+        RecordChange<Long, RelationshipGroupRecord, Integer> groupChange = null;
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RecordChange<Long, RelationshipGroupRecord, Integer> change = relGroupRecords.getOrLoad( groupId, null );
+            if ( change.forReadingLinkage().getType() == rel.getType() )
+            {
+                groupChange = change;
+                break;
+            }
+            previousGroup = change;
+            groupId = change.forReadingLinkage().getNext();
+        }
+        if ( groupChange == null )
+        {
+            throw new InvalidRecordException( "No relationship group of type " + rel.getType() + " for " + node +
+                                              " which is the owner of " + rel );
+        }
+
+        RelationshipGroupRecord group = groupChange.forChangingLinkage();
+        group.setFirstInChain( RelationshipGroupRecord.chainOf( rel, nodeId ), nextRel );
+        if ( group.isEmpty() )
+        {
+            if ( previousGroup == null )
+            {
+                NodeRecord changedNode = nodeChange.forChangingLinkage();
+                changedNode.setNextRel( group.getNext() );
+                if ( group.getNext() == Record.NO_NEXT_RELATIONSHIP.intValue() )
+                {
+                    // No groups left means the node is back to being a sparse node with an empty chain
+                    changedNode.setDense( false );
+                    changedNode.setDegreeHint( 0 );
+                }
+            }
+            else
+            {
+                previousGroup.forChangingLinkage().setNext( group.getNext() );
+            }
+            group.setInUse( false );
         }
     }
 
@@ -1405,6 +1592,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                                              + propertyId + "]" );
         }
 
+        getPropertyStore().releaseDictionaryEntry( block, newDictionaryEntries );
         for ( DynamicRecord valueRecord : block.getValueRecords() )
         {
             assert valueRecord.inUse();
@@ -1538,13 +1726,14 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                                              + propertyId + "]" );
         }
         propertyRecord.setChanged( primitive );
+        getPropertyStore().releaseDictionaryEntry( block, newDictionaryEntries );
         for ( DynamicRecord record : block.getValueRecords() )
         {
             assert record.inUse();
             record.setInUse( false, block.getType().intValue() );
             propertyRecord.addDeletedRecord( record );
         }
-        getPropertyStore().encodeValue( block, propertyKey, value );
+        getPropertyStore().encodeValue( block, propertyKey, value, newDictionaryEntries );
         if ( propertyRecord.size() > PropertyType.getPayloadSize() )
         {
             propertyRecord.removePropertyBlock( propertyKey );
@@ -1570,7 +1759,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         P record = node.forReadingLinkage();
         assert assertPropertyChain( record );
         PropertyBlock block = new PropertyBlock();
-        getPropertyStore().encodeValue( block, propertyKey, value );
+        getPropertyStore().encodeValue( block, propertyKey, value, newDictionaryEntries );
         addPropertyBlockToPrimitive( block, node );
         assert assertPropertyChain( record );
         return Property.property( propertyKey, value );
@@ -1683,6 +1872,13 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
     {
         assert firstNode.getNextRel() != rel.getId();
         assert secondNode.getNextRel() != rel.getId();
+        boolean firstDense = upgradeToDenseIfNeeded( firstNode );
+        boolean secondDense = secondNode == firstNode ? firstDense : upgradeToDenseIfNeeded( secondNode );
+        if ( firstDense || secondDense )
+        {
+            connectRelationshipToGroups( firstNode, firstDense, secondNode, secondDense, rel );
+            return;
+        }
         rel.setFirstNextRel( firstNode.getNextRel() );
         rel.setSecondNextRel( secondNode.getNextRel() );
         connect( firstNode, rel );
@@ -1716,12 +1912,192 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         }
     }
 
+    private void connectRelationshipToGroups( NodeRecord firstNode, boolean firstDense,
+                                              NodeRecord secondNode, boolean secondDense, RelationshipRecord rel )
+    {
+        if ( firstDense )
+        {
+            connectToGroup( firstNode, rel );
+        }
+        else
+        {
+            rel.setFirstNextRel( firstNode.getNextRel() );
+            connect( firstNode, rel );
+            firstNode.setNextRel( rel.getId() );
+        }
+        if ( secondNode == firstNode )
+        {
+            return;
+        }
+        if ( secondDense )
+        {
+            connectToGroup( secondNode, rel );
+        }
+        else
+        {
+            rel.setSecondNextRel( secondNode.getNextRel() );
+            connect( secondNode, rel );
+            secondNode.setNextRel( rel.getId() );
+        }
+    }
+
+    /**
+     * Inserts {@code rel} first in the chain of its type and direction for the dense {@code node},
+     * creating a group for that type if the node hasn't got one already.
+     */
+    private void connectToGroup( NodeRecord node, RelationshipRecord rel )
+    {
+        long nodeId = node.getId();
+        RelationshipGroupRecord group = getOrCreateGroup( node, rel.getType() );
+        int chain = RelationshipGroupRecord.chainOf( rel, nodeId );
+        long firstInChain = group.getFirstInChain( chain );
+        rel.setNextRel( nodeId, firstInChain );
+        if ( firstInChain != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            getWriteLock( new LockableRelationship( firstInChain ) );
+            RelationshipRecord nextRel = relRecords.getOrLoad( firstInChain, null ).forChangingLinkage();
+            if ( nextRel.getFirstNode() != nodeId && nextRel.getSecondNode() != nodeId )
+            {
+                throw new InvalidRecordException( group + " dont match " + nextRel );
+            }
+            nextRel.setPrevRel( nodeId, rel.getId() );
+        }
+        group.setFirstInChain( chain, rel.getId() );
+    }
+
+    private RelationshipGroupRecord getOrCreateGroup( NodeRecord node, int type )
+    {
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RecordChange<Long, RelationshipGroupRecord, Integer> change = relGroupRecords.getOrLoad( groupId, null );
+            RelationshipGroupRecord group = change.forReadingLinkage();
+            if ( group.getType() == type )
+            {
+                return change.forChangingLinkage();
+            }
+            groupId = group.getNext();
+        }
+        // New groups go first, so that the node doesn't need to be updated for each new relationship
+        return createGroup( node, type );
+    }
+
+    private RelationshipGroupRecord createGroup( NodeRecord node, int type )
+    {
+        long id = getRelationshipGroupStore().nextId();
+        RelationshipGroupRecord group = relGroupRecords.create( id, type ).forChangingData();
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( node.getNextRel() );
+        node.setNextRel( id );
+        return group;
+    }
+
+    /**
+     * Checks whether or not {@code node} is dense, and if it isn't but reaches the dense node threshold with the
+     * relationship about to be connected its relationship chain is split up into one chain per type and direction,
+     * referenced from groups. Otherwise the degree hint of {@code node} is updated to include that relationship.
+     *
+     * @return whether or not {@code node} is dense after this call.
+     */
+    private boolean upgradeToDenseIfNeeded( NodeRecord node )
+    {
+        if ( node.isDense() )
+        {
+            return true;
+        }
+
+        int threshold = neoStore.getDenseNodeThreshold();
+        int degree = node.getDegreeHint();
+        if ( degree == NodeRecord.UNKNOWN_DEGREE && threshold > 0 )
+        {
+            // Count the relationships, but not more than needed to know whether or not the threshold is reached
+            degree = 0;
+            long nodeId = node.getId();
+            long relId = node.getNextRel();
+            while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() && degree < threshold )
+            {
+                RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forReadingLinkage();
+                relId = rel.getNextRel( nodeId );
+                degree++;
+            }
+        }
+        if ( degree != NodeRecord.UNKNOWN_DEGREE )
+        {
+            degree++; // for the relationship about to be connected
+        }
+        if ( threshold > 0 && degree >= threshold )
+        {
+            upgradeToDense( node );
+            return true;
+        }
+        node.setDegreeHint( degree );
+        return false;
+    }
+
+    private void upgradeToDense( NodeRecord node )
+    {
+        long nodeId = node.getId();
+        // Groups by type, and per group the last relationship of each of its chains
+        Map<Integer, RelationshipGroupRecord> groups = new HashMap<>();
+        Map<Integer, RelationshipRecord[]> lastInChains = new HashMap<>();
+        long relId = node.getNextRel();
+        node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            getWriteLock( new LockableRelationship( relId ) );
+            RelationshipRecord rel = relRecords.getOrLoad( relId, null ).forChangingLinkage();
+            long nextRelId = rel.getNextRel( nodeId );
+
+            int type = rel.getType();
+            RelationshipGroupRecord group = groups.get( type );
+            RelationshipRecord[] lastInChain = lastInChains.get( type );
+            if ( group == null )
+            {
+                group = createGroup( node, type );
+                groups.put( type, group );
+                lastInChain = new RelationshipRecord[3];
+                lastInChains.put( type, lastInChain );
+            }
+            int chain = RelationshipGroupRecord.chainOf( rel, nodeId );
+            RelationshipRecord previous = lastInChain[chain];
+            if ( previous == null )
+            {
+                group.setFirstInChain( chain, relId );
+                rel.setPrevRel( nodeId, Record.NO_PREV_RELATIONSHIP.intValue() );
+            }
+            else
+            {
+                previous.setNextRel( nodeId, relId );
+                rel.setPrevRel( nodeId, previous.getId() );
+            }
+            rel.setNextRel( nodeId, Record.NO_NEXT_RELATIONSHIP.intValue() );
+            lastInChain[chain] = rel;
+            relId = nextRelId;
+        }
+        node.setDense( true );
+        node.setDegreeHint( NodeRecord.UNKNOWN_DEGREE );
+        upgradedDenseNodes.add( nodeId );
+    }
+
+    private void decrementDegreeHint( long nodeId )
+    {
+        RecordChange<Long, NodeRecord, Void> nodeChange = nodeRecords.getOrLoad( nodeId, null );
+        NodeRecord node = nodeChange.forReadingLinkage();
+        if ( !node.isDense() && node.getDegreeHint() > 0 )
+        {
+            nodeChange.forChangingLinkage().setDegreeHint( node.getDegreeHint() - 1 );
+        }
+    }
+
     @Override
     public void nodeCreate( long nodeId )
     {
         NodeRecord nodeRecord = nodeRecords.create( nodeId, null ).forChangingData();
         nodeRecord.setInUse( true );
         nodeRecord.setCreated();
+        nodeRecord.setDegreeHint( 0 );
     }
 
     @Override
@@ -2039,7 +2415,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
          * since an exception could be thrown in encodeValue now and tx not marked
          * rollback only.
          */
-        getPropertyStore().encodeValue( block, propertyKey, value );
+        getPropertyStore().encodeValue( block, propertyKey, value, newDictionaryEntries );
         RecordChange<Long, NeoStoreRecord, Void> change = getOrLoadNeoStoreRecord();
         addPropertyBlockToPrimitive( block, change );
         assert assertPropertyChain( change.forReadingLinkage() );
@@ -2123,8 +2499,9 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         records.addAll( getSchemaStore().allocateFrom( indexRule ) );
     }
 
-    private Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships(
-            long nodeId, long position, int grabSize, RelationshipStore relStore )
+    private Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, RelationshipLoadingPosition>
+    getMoreRelationships( long nodeId, RelationshipLoadingPosition chainPosition, DirectionWrapper direction,
+                          int[] types, int grabSize, RelationshipStore relStore )
     {
         // initialCapacity=grabSize saves the lists the trouble of resizing
         List<RelationshipRecord> out = new ArrayList<>();
@@ -2133,6 +2510,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
         Map<DirectionWrapper, Iterable<RelationshipRecord>> result = new EnumMap<>( DirectionWrapper.class );
         result.put( DirectionWrapper.OUTGOING, out );
         result.put( DirectionWrapper.INCOMING, in );
+        long position = chainPosition.position( direction, types );
         for ( int i = 0; i < grabSize &&
                 position != Record.NO_NEXT_RELATIONSHIP.intValue(); i++ )
         {
@@ -2140,7 +2518,7 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
             if ( relRecord == null )
             {
                 // return what we got so far
-                return Pair.of( result, position );
+                return Pair.of( result, chainPosition );
             }
             long firstNode = relRecord.getFirstNode();
             long secondNode = relRecord.getSecondNode();
@@ -2171,13 +2549,14 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                 i--;
             }
 
+            long next;
             if ( firstNode == nodeId )
             {
-                position = relRecord.getFirstNextRel();
+                next = relRecord.getFirstNextRel();
             }
             else if ( secondNode == nodeId )
             {
-                position = relRecord.getSecondNextRel();
+                next = relRecord.getSecondNextRel();
             }
             else
             {
@@ -2185,8 +2564,9 @@ public class WriteTransaction extends XaTransaction implements NeoStoreTransacti
                         "] is neither firstNode[" + firstNode +
                         "] nor secondNode[" + secondNode + "] for Relationship[" + relRecord.getId() + "]" );
             }
+            position = chainPosition.nextPosition( next, direction, types );
         }
-        return Pair.of( result, position );
+        return Pair.of( result, chainPosition );
     }
 
     private static void loadPropertyChain( Collection<PropertyRecord> chain, PropertyStore propertyStore,
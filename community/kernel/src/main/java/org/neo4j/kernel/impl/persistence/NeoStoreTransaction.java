@@ -27,6 +27,7 @@ import org.neo4j.helpers.Pair;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.core.RelationshipLoadingPosition;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
@@ -251,7 +252,7 @@ public interface NeoStoreTransaction
      */
     void createRelationshipTypeToken( int id, String name );
 
-    long getRelationshipChainPosition( long nodeId );
+    RelationshipLoadingPosition getRelationshipChainPosition( long nodeId );
 
     /*
      * List<Iterable<RelationshipRecord>> is a list with three items:
@@ -259,11 +260,13 @@ public interface NeoStoreTransaction
      * 1: incoming relationships
      * 2: loop relationships
      *
-     * Long is the relationship chain position as it stands after this
-     * batch of relationships has been loaded.
+     * The position is advanced while loading, and as it stands afterwards
+     * it's returned alongside this batch of relationships. Only relationships
+     * in the given direction and of the given types (all types if empty) are
+     * guaranteed to be loaded, for dense nodes only those are read.
      */
-    Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, Long> getMoreRelationships(
-            long nodeId, long position );
+    Pair<Map<DirectionWrapper, Iterable<RelationshipRecord>>, RelationshipLoadingPosition> getMoreRelationships(
+            long nodeId, RelationshipLoadingPosition position, DirectionWrapper direction, int[] types );
 
     boolean delistResource( Transaction tx, int tmsuccess ) throws SystemException;
 
@@ -22,6 +22,8 @@ package org.neo4j.kernel.impl.storemigration;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.helpers.Predicate;
+import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 
 public class DatabaseFiles
@@ -43,7 +45,22 @@ public class DatabaseFiles
                     backupDirectory.getAbsolutePath() ) );
         }
         fs.mkdir( backupDirectory );
-        move( workingDirectory, backupDirectory, StoreFile.legacyStoreFiles() );
+        move( workingDirectory, backupDirectory, existingStoreFiles( workingDirectory ) );
+    }
+
+    /**
+     * The store files found in {@code directory}, which are different for each version that can be upgraded.
+     */
+    private Iterable<StoreFile> existingStoreFiles( final File directory )
+    {
+        return Iterables.filter( new Predicate<StoreFile>()
+        {
+            @Override
+            public boolean accept( StoreFile item )
+            {
+                return fs.fileExists( new File( directory, item.storeFileName() ) );
+            }
+        }, StoreFile.currentStoreFiles() );
     }
 
     public void moveToWorkingDirectory( File upgradeDirectory, File workingDirectory )
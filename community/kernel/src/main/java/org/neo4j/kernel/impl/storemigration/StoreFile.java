@@ -21,50 +21,76 @@ package org.neo4j.kernel.impl.storemigration;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.collection.Iterables;
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 
 public enum StoreFile
 {
     NEO_STORE( "NeoStore", "" ),
     NODE_STORE( "NodeStore", StoreFactory.NODE_STORE_NAME ),
-    NODE_LABEL_STORE( "NodeLabelStore", StoreFactory.NODE_LABELS_STORE_NAME, false ),
+    NODE_LABEL_STORE( "ArrayPropertyStore", StoreFactory.NODE_LABELS_STORE_NAME, Legacy20Store.LEGACY_VERSION ),
     PROPERTY_STORE( "PropertyStore", StoreFactory.PROPERTY_STORE_NAME ),
     PROPERTY_ARRAY_STORE( "ArrayPropertyStore", StoreFactory.PROPERTY_ARRAYS_STORE_NAME ),
     PROPERTY_STRING_STORE( "StringPropertyStore", StoreFactory.PROPERTY_STRINGS_STORE_NAME ),
+    PROPERTY_STRING_DICTIONARY_STORE( "StringPropertyStore", StoreFactory.PROPERTY_STRING_DICTIONARY_STORE_NAME,
+            CommonAbstractStore.ALL_STORES_VERSION ),
     PROPERTY_INDEX_STORE( "PropertyIndexStore", StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME ),
     PROPERTY_INDEX_KEYS_STORE( "StringPropertyStore", StoreFactory.PROPERTY_KEY_TOKEN_NAMES_STORE_NAME ),
     RELATIONSHIP_STORE( "RelationshipStore", StoreFactory.RELATIONSHIP_STORE_NAME ),
+    RELATIONSHIP_GROUP_STORE( "RelationshipGroupStore", StoreFactory.RELATIONSHIP_GROUP_STORE_NAME,
+            CommonAbstractStore.ALL_STORES_VERSION ),
     RELATIONSHIP_TYPE_STORE( "RelationshipTypeStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_STORE_NAME ),
     RELATIONSHIP_TYPE_NAMES_STORE( "StringPropertyStore", StoreFactory.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME ),
-    LABEL_NAME_STORE( "LabelNameStore", StoreFactory.LABEL_TOKEN_STORE_NAME, false ),
-    LABEL_NAME_NAMES_STORE( "StringPropertyStore", StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME, false ),
-    SCHEMA_STORE( "SchemaStore", StoreFactory.SCHEMA_STORE_NAME, false );
-    
+    LABEL_NAME_STORE( "LabelTokenStore", StoreFactory.LABEL_TOKEN_STORE_NAME, Legacy20Store.LEGACY_VERSION ),
+    LABEL_NAME_NAMES_STORE( "StringPropertyStore", StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME,
+            Legacy20Store.LEGACY_VERSION ),
+    SCHEMA_STORE( "SchemaStore", StoreFactory.SCHEMA_STORE_NAME, Legacy20Store.LEGACY_VERSION );
+
+    // All store versions that files are listed for here, oldest first
+    private static final List<String> VERSIONS = Arrays.asList(
+            LegacyStore.LEGACY_VERSION, Legacy20Store.LEGACY_VERSION, CommonAbstractStore.ALL_STORES_VERSION );
+
     private final String typeDescriptor;
     private final String storeFileNamePart;
-    private final boolean existsInBoth;
+    private final String sinceVersion;
 
     private StoreFile( String typeDescriptor, String storeFileNamePart )
     {
-        this( typeDescriptor, storeFileNamePart, true );
+        this( typeDescriptor, storeFileNamePart, LegacyStore.LEGACY_VERSION );
     }
-    
-    private StoreFile( String typeDescriptor, String storeFileNamePart, boolean existsInBoth )
+
+    private StoreFile( String typeDescriptor, String storeFileNamePart, String sinceVersion )
     {
         this.typeDescriptor = typeDescriptor;
         this.storeFileNamePart = storeFileNamePart;
-        this.existsInBoth = existsInBoth;
+        this.sinceVersion = sinceVersion;
     }
-    
+
     public String legacyVersion()
     {
-        return typeDescriptor + " " + LegacyStore.LEGACY_VERSION;
+        return versionString( LegacyStore.LEGACY_VERSION );
+    }
+
+    /**
+     * The trailing version String of this file in a store of the given version.
+     */
+    public String versionString( String storeVersion )
+    {
+        return typeDescriptor + " " + storeVersion;
+    }
+
+    public boolean existsIn( String storeVersion )
+    {
+        return VERSIONS.indexOf( sinceVersion ) <= VERSIONS.indexOf( storeVersion );
     }
 
     /**
@@ -86,19 +112,32 @@ public enum StoreFile
     }
     
     public static Iterable<StoreFile> legacyStoreFiles()
+    {
+        return storeFiles( LegacyStore.LEGACY_VERSION );
+    }
+
+    public static Iterable<StoreFile> legacy20StoreFiles()
+    {
+        return storeFiles( Legacy20Store.LEGACY_VERSION );
+    }
+
+    /**
+     * @return the files making up a store of the given version.
+     */
+    public static Iterable<StoreFile> storeFiles( final String storeVersion )
     {
         Predicate<StoreFile> predicate = new Predicate<StoreFile>()
         {
             @Override
             public boolean accept( StoreFile item )
             {
-                return item.existsInBoth;
+                return item.existsIn( storeVersion );
             }
         };
         Iterable<StoreFile> storeFiles = currentStoreFiles();
         return Iterables.filter( predicate, storeFiles );
     }
-    
+
     public static Iterable<StoreFile> currentStoreFiles()
     {
         return Iterables.iterable( values() );
@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.storemigration.monitoring.MigrationProgressMonitor;
 
@@ -43,10 +44,10 @@ import static org.neo4j.helpers.collection.IteratorUtil.loop;
 
 /**
  * Migrates a neo4j database from one version to the next. Instantiated with a {@link LegacyStore}
- * representing the old version and a {@link NeoStore} representing the new version.
+ * or a {@link Legacy20Store} representing the old version and a {@link NeoStore} representing the new version.
  * 
- * Since only one store migration is supported at any given version (migration from the previous store version)
- * the migration code is specific for the current upgrade and changes with each store format version.
+ * Migrations are supported from the two previous store versions, so the migration code is specific for the
+ * current upgrade and changes with each store format version.
  */
 public class StoreMigrator
 {
@@ -64,6 +65,13 @@ public class StoreMigrator
         progressMonitor.finished();
     }
     
+    public void migrate( Legacy20Store legacyStore, NeoStore neoStore ) throws IOException
+    {
+        progressMonitor.started();
+        new Legacy20Migration( legacyStore, neoStore ).migrate();
+        progressMonitor.finished();
+    }
+
     protected class Migration
     {
         private final LegacyStore legacyStore;
@@ -196,4 +204,65 @@ public class StoreMigrator
             }
         }
     }
+
+    /**
+     * Node records got a dense flag and a degree hint, and the relationship group store and the string
+     * dictionary store are new. All other store files are just copied.
+     */
+    protected class Legacy20Migration
+    {
+        private final Legacy20Store legacyStore;
+        private final NeoStore neoStore;
+        private final long totalEntities;
+        private int percentComplete;
+
+        public Legacy20Migration( Legacy20Store legacyStore, NeoStore neoStore )
+        {
+            this.legacyStore = legacyStore;
+            this.neoStore = neoStore;
+            totalEntities = legacyStore.getNodeStoreReader().getMaxId();
+        }
+
+        private void migrate() throws IOException
+        {
+            // Migrate
+            legacyStore.copyNeoStore( neoStore );
+            neoStore.setStoreVersion( NeoStore.versionStringToLong( NeoStore.ALL_STORES_VERSION ) );
+            migrateNodes( neoStore.getNodeStore() );
+
+            // Close
+            neoStore.close();
+            legacyStore.close();
+
+            // Just copy unchanged stores that doesn't need migration
+            legacyStore.copyUnchangedStores( neoStore );
+        }
+
+        private void migrateNodes( NodeStore nodeStore ) throws IOException
+        {
+            for ( NodeRecord nodeRecord : loop( legacyStore.getNodeStoreReader().readNodeStore() ) )
+            {
+                reportProgress( nodeRecord.getId() );
+                nodeStore.setHighId( nodeRecord.getId() + 1 );
+                if ( nodeRecord.inUse() )
+                {
+                    nodeStore.updateRecord( nodeRecord );
+                }
+                else
+                {
+                    nodeStore.freeId( nodeRecord.getId() );
+                }
+            }
+        }
+
+        private void reportProgress( long id )
+        {
+            int newPercent = totalEntities == 0 ? 100 : (int) (id * 100 / totalEntities);
+            if ( newPercent > percentComplete )
+            {
+                percentComplete = newPercent;
+                progressMonitor.percentComplete( percentComplete );
+            }
+        }
+    }
 }
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.util.StringLogger;
 
@@ -69,13 +70,13 @@ public class StoreUpgrader
     public void attemptUpgrade( File storageFileName )
     {
         upgradeConfiguration.checkConfigurationAllowsAutomaticUpgrade();
-        upgradableDatabase.checkUpgradeable( storageFileName );
+        String version = upgradableDatabase.checkUpgradeable( storageFileName );
 
         File workingDirectory = storageFileName.getParentFile();
         File upgradeDirectory = new File( workingDirectory, "upgrade" );
         File backupDirectory = new File( workingDirectory, "upgrade_backup" );
 
-        migrateToIsolatedDirectory( storageFileName, upgradeDirectory );
+        migrateToIsolatedDirectory( storageFileName, upgradeDirectory, version );
 
         databaseFiles.moveToBackupDirectory( workingDirectory, backupDirectory );
         backupMessagesLogLeavingInPlaceForNewDatabaseMessages( workingDirectory, backupDirectory );
@@ -98,7 +99,7 @@ public class StoreUpgrader
         }
     }
 
-    private void migrateToIsolatedDirectory( File storageFileName, File upgradeDirectory )
+    private void migrateToIsolatedDirectory( File storageFileName, File upgradeDirectory, String version )
     {
         if (upgradeDirectory.exists()) {
             try
@@ -122,8 +123,14 @@ public class StoreUpgrader
                 fileSystem, StringLogger.DEV_NULL, null ).createNeoStore( upgradeFileName );
         try
         {
-            storeMigrator.migrate( new LegacyStore( fileSystem, storageFileName ),
-                    neoStore );
+            if ( Legacy20Store.LEGACY_VERSION.equals( version ) )
+            {
+                storeMigrator.migrate( new Legacy20Store( fileSystem, storageFileName ), neoStore );
+            }
+            else
+            {
+                storeMigrator.migrate( new LegacyStore( fileSystem, storageFileName ), neoStore );
+            }
         }
         catch ( IOException e )
         {
@@ -26,6 +26,8 @@ import java.nio.channels.FileChannel;
 
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
+import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 
 /**
  * Logic to check whether a database version is upgradable to the current version. It looks at the
@@ -56,56 +58,79 @@ public class UpgradableDatabase
         }
     }
 
-    public void checkUpgradeable( File neoStoreFile )
+    /**
+     * @return the version of the store to upgrade, {@link LegacyStore#LEGACY_VERSION} or
+     * {@link Legacy20Store#LEGACY_VERSION}.
+     * @throws StoreUpgrader.UnableToUpgradeException if the store can't be upgraded.
+     */
+    public String checkUpgradeable( File neoStoreFile )
     {
         File storeDirectory = neoStoreFile.getParentFile();
-        for ( StoreFile store : StoreFile.legacyStoreFiles() )
+        String version = hasVersion( new File( storeDirectory, StoreFile.NEO_STORE.storeFileName() ),
+                StoreFile.NEO_STORE.versionString( Legacy20Store.LEGACY_VERSION ) ) ?
+                Legacy20Store.LEGACY_VERSION : LegacyStore.LEGACY_VERSION;
+        for ( StoreFile store : StoreFile.storeFiles( version ) )
         {
-            String expectedVersion = store.legacyVersion();
-            FileChannel fileChannel = null;
-            byte[] expectedVersionBytes = UTF8.encode( expectedVersion );
-            try
+            String expectedVersion = store.versionString( version );
+            File storeFile = new File( storeDirectory, store.storeFileName() );
+            if ( !fs.fileExists( storeFile ) )
             {
-                File storeFile = new File( storeDirectory, store.storeFileName() );
-                if ( !fs.fileExists( storeFile ) )
-                {
-                    throw new StoreUpgrader.UpgradeMissingStoreFilesException( storeFile.getName() );
-                }
-                fileChannel = fs.open( storeFile, "r" );
-                if ( fileChannel.size() < expectedVersionBytes.length )
-                {
-                    throw new StoreUpgrader.UpgradingStoreVersionNotFoundException( storeFile.getName() );
-                }
-                fileChannel.position( fileChannel.size() - expectedVersionBytes.length );
-                byte[] foundVersionBytes = new byte[expectedVersionBytes.length];
-                fileChannel.read( ByteBuffer.wrap( foundVersionBytes ) );
-                String actualVersion = UTF8.decode( foundVersionBytes );
-                if ( !actualVersion.startsWith( store.typeDescriptor() ) )
-                {
-                    throw new StoreUpgrader.UpgradingStoreVersionNotFoundException( store.storeFileName() );
-                }
-                if ( !expectedVersion.equals( actualVersion ) )
-                {
-                    throw new StoreUpgrader.UnexpectedUpgradingStoreVersionException(
-                            storeFile.getName(), expectedVersion, actualVersion );
-                }
+                throw new StoreUpgrader.UpgradeMissingStoreFilesException( storeFile.getName() );
             }
-            catch ( IOException e )
+            String actualVersion = readVersion( storeFile, expectedVersion );
+            if ( actualVersion == null || !actualVersion.startsWith( store.typeDescriptor() ) )
             {
-                throw new RuntimeException( e );
+                throw new StoreUpgrader.UpgradingStoreVersionNotFoundException( storeFile.getName() );
             }
-            finally
+            if ( !expectedVersion.equals( actualVersion ) )
             {
-                if ( fileChannel != null )
+                throw new StoreUpgrader.UnexpectedUpgradingStoreVersionException(
+                        storeFile.getName(), expectedVersion, actualVersion );
+            }
+        }
+        return version;
+    }
+
+    private boolean hasVersion( File storeFile, String version )
+    {
+        return fs.fileExists( storeFile ) && version.equals( readVersion( storeFile, version ) );
+    }
+
+    /**
+     * @return the trailer of {@code storeFile} with the same encoded length as {@code expectedVersion},
+     * or {@code null} if the file is shorter than that.
+     */
+    private String readVersion( File storeFile, String expectedVersion )
+    {
+        byte[] expectedVersionBytes = UTF8.encode( expectedVersion );
+        FileChannel fileChannel = null;
+        try
+        {
+            fileChannel = fs.open( storeFile, "r" );
+            if ( fileChannel.size() < expectedVersionBytes.length )
+            {
+                return null;
+            }
+            fileChannel.position( fileChannel.size() - expectedVersionBytes.length );
+            byte[] foundVersionBytes = new byte[expectedVersionBytes.length];
+            fileChannel.read( ByteBuffer.wrap( foundVersionBytes ) );
+            return UTF8.decode( foundVersionBytes );
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        finally
+        {
+            if ( fileChannel != null )
+            {
+                try
+                {
+                    fileChannel.close();
+                }
+                catch ( IOException e )
                 {
-                    try
-                    {
-                        fileChannel.close();
-                    }
-                    catch ( IOException e )
-                    {
-                        return;
-                    }
+                    // nothing to do about it
                 }
             }
         }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration.legacystore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.nioneo.store.DynamicArrayStore;
+import org.neo4j.kernel.impl.nioneo.store.DynamicStringStore;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.LabelTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenStore;
+import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
+import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+
+import static org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore.buildTypeDescriptorAndVersion;
+import static org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore.assertLegacyAndCurrentVersionHaveSameLength;
+
+/**
+ * Reader for a database in the store format version without relationship groups, where node records
+ * have neither a dense flag nor a degree hint. All other store files have the same format as in the current
+ * version and are just copied.
+ *
+ * {@link #LEGACY_VERSION} marks which version it's able to read.
+ */
+public class Legacy20Store implements Closeable
+{
+    public static final String LEGACY_VERSION = "v0.A.1";
+
+    // Store files with the same format in both versions, along with the type descriptors of their trailers
+    private static final String[][] UNCHANGED_STORES = {
+            {StoreFactory.NODE_LABELS_STORE_NAME, DynamicArrayStore.TYPE_DESCRIPTOR},
+            {StoreFactory.PROPERTY_STORE_NAME, PropertyStore.TYPE_DESCRIPTOR},
+            {StoreFactory.PROPERTY_ARRAYS_STORE_NAME, DynamicArrayStore.TYPE_DESCRIPTOR},
+            {StoreFactory.PROPERTY_STRINGS_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR},
+            {StoreFactory.PROPERTY_KEY_TOKEN_STORE_NAME, PropertyKeyTokenStore.TYPE_DESCRIPTOR},
+            {StoreFactory.PROPERTY_KEY_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR},
+            {StoreFactory.RELATIONSHIP_STORE_NAME, RelationshipStore.TYPE_DESCRIPTOR},
+            {StoreFactory.RELATIONSHIP_TYPE_TOKEN_STORE_NAME, RelationshipTypeTokenStore.TYPE_DESCRIPTOR},
+            {StoreFactory.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR},
+            {StoreFactory.LABEL_TOKEN_STORE_NAME, LabelTokenStore.TYPE_DESCRIPTOR},
+            {StoreFactory.LABEL_TOKEN_NAMES_STORE_NAME, DynamicStringStore.TYPE_DESCRIPTOR},
+            {StoreFactory.SCHEMA_STORE_NAME, SchemaStore.TYPE_DESCRIPTOR},
+    };
+
+    private final FileSystemAbstraction fs;
+    private final File storageFileName;
+    private final Legacy20NodeStoreReader nodeStoreReader;
+
+    public Legacy20Store( FileSystemAbstraction fs, File storageFileName ) throws IOException
+    {
+        this.fs = fs;
+        this.storageFileName = storageFileName;
+        assertLegacyAndCurrentVersionHaveSameLength( LEGACY_VERSION, CommonAbstractStore.ALL_STORES_VERSION );
+        this.nodeStoreReader = new Legacy20NodeStoreReader( fs,
+                new File( storageFileName.getPath() + StoreFactory.NODE_STORE_NAME ) );
+    }
+
+    public File getStorageFileName()
+    {
+        return storageFileName;
+    }
+
+    public Legacy20NodeStoreReader getNodeStoreReader()
+    {
+        return nodeStoreReader;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        nodeStoreReader.close();
+    }
+
+    public void copyNeoStore( NeoStore neoStore ) throws IOException
+    {
+        LegacyStore.copyStore( fs, storageFileName, neoStore.getStorageFileName(), "",
+                neoStore.getTypeAndVersionDescriptor() );
+    }
+
+    /**
+     * Copies all store files but the neo store and the node store, replacing their trailing versions.
+     */
+    public void copyUnchangedStores( NeoStore neoStore ) throws IOException
+    {
+        for ( String[] store : UNCHANGED_STORES )
+        {
+            LegacyStore.copyStore( fs, storageFileName, neoStore.getStorageFileName(), store[0],
+                    buildTypeDescriptorAndVersion( store[1] ) );
+        }
+    }
+}
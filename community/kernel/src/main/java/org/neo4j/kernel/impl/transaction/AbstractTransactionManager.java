@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.transaction;
 
+import java.io.IOException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
@@ -26,6 +27,7 @@ import javax.transaction.TransactionManager;
 import org.neo4j.graphdb.NotInTransactionException;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.PendingCommitForce;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 
 /**
@@ -55,6 +57,35 @@ public abstract class AbstractTransactionManager implements TransactionManager,
     {
         return ForceMode.forced;
     }
+
+    /**
+     * Makes the records written to the log of this transaction manager so far durable. Called before a logical
+     * log is rotated, since after that the log of the transaction manager may be the only place left recording
+     * that a transaction was decided to commit.
+     */
+    public void forceLog() throws IOException
+    {
+    }
+
+    /**
+     * Called before the logical log of the resource with the given branch id is rotated, see {@link #forceLog()}.
+     */
+    public void logRotating( byte[] branchId ) throws IOException
+    {
+        forceLog();
+    }
+
+    /**
+     * Lets the transaction tied to the calling thread wait for {@code force} once it has been committed and the
+     * monitor the commit happens under has been released, so that the force can be shared with transactions
+     * committing meanwhile.
+     *
+     * @return {@code false} if the caller has to wait for {@code force} itself.
+     */
+    public boolean deferCommitForce( PendingCommitForce force )
+    {
+        return false;
+    }
     
     /**
      * Returns the {@link TransactionState} associated with the current transaction.
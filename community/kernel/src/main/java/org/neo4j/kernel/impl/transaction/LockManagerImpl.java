@@ -320,7 +320,7 @@ public class LockManagerImpl implements LockManager
         }
     }
     
-    private static class DumpVisitor implements Visitor<LockInfo, RuntimeException>
+    static class DumpVisitor implements Visitor<LockInfo, RuntimeException>
     {
         private final StringLogger logger;
         
@@ -0,0 +1,667 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.transaction.Transaction;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.util.StringLogger.LineLogger;
+import org.neo4j.kernel.info.LockInfo;
+import org.neo4j.kernel.info.LockingTransaction;
+import org.neo4j.kernel.info.ResourceType;
+import org.neo4j.kernel.info.WaitingThread;
+import org.neo4j.kernel.logging.Logging;
+
+/**
+ * A {@link LockManager} with the same semantics as {@link LockManagerImpl}, but which doesn't serialize all
+ * lock operations through a few monitors.
+ * <p>
+ * Locks are kept in striped lock tables and the state of each lock, whether or not it is write locked and how
+ * many transactions have it read locked, is a single atomic integer. Acquiring an uncontended lock is a table
+ * lookup and a compare-and-set, releasing it a decrement. Which locks each transaction holds, and how many
+ * times, is kept per transaction.
+ * <p>
+ * Only a transaction that has to wait for a lock touches the monitor of that lock. It then registers itself in
+ * the wait-for graph and checks it for a cycle back to itself before waiting, which makes the last transaction
+ * to close a cycle get a {@link DeadlockDetectedException}. The holders of a lock aren't kept in any shared
+ * structure, so they are found by looking through the locks of all transactions, which is only done for
+ * deadlock detection and diagnostics.
+ */
+public class StripedLockManager implements LockManager
+{
+    private static final int WRITE_LOCKED = 1 << 30;
+    private static final int DEAD = -1;
+
+    private final ConcurrentMap<Object,ResourceLock>[] stripes;
+    private final int stripeMask;
+    private final ConcurrentMap<Transaction,TxLocks> txLocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Transaction,WaitElement> waitingTxs = new ConcurrentHashMap<>();
+    private final AtomicLong deadlockCount = new AtomicLong();
+
+    public StripedLockManager()
+    {
+        this( Runtime.getRuntime().availableProcessors() * 4 );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( int minimumStripes )
+    {
+        int stripeCount = Integer.highestOneBit( Math.max( 1, minimumStripes - 1 ) ) << 1;
+        this.stripes = new ConcurrentMap[stripeCount];
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            stripes[i] = new ConcurrentHashMap<>( 64, 0.75f, 1 );
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * The state of a lock on a resource. The lock is dead once it has been unlocked with no one waiting for it,
+     * and is then removed from its table. Anyone that looked it up before that will see it as dead and look
+     * up, or create, a new lock for the resource.
+     */
+    private static class ResourceLock
+    {
+        final Object resource;
+        // WRITE_LOCKED | number of transactions holding read locks, or DEAD
+        final AtomicInteger state = new AtomicInteger();
+        // Guarded by this
+        final LinkedList<WaitElement> waitingThreads = new LinkedList<>();
+        volatile int waitingCount;
+
+        ResourceLock( Object resource )
+        {
+            this.resource = resource;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ResourceLock[" + resource + "]";
+        }
+    }
+
+    // keeps track of a transactions read and write lock count on a lock
+    private static class Holding
+    {
+        int readCount;
+        int writeCount;
+    }
+
+    // the locks held by a transaction, only modified by the thread running that transaction
+    private static class TxLocks
+    {
+        private final Map<ResourceLock,Holding> holdings = new IdentityHashMap<>();
+
+        synchronized Holding get( ResourceLock lock )
+        {
+            return holdings.get( lock );
+        }
+
+        synchronized void acquired( ResourceLock lock, LockType type )
+        {
+            Holding holding = holdings.get( lock );
+            if ( holding == null )
+            {
+                holding = new Holding();
+                holdings.put( lock, holding );
+            }
+            if ( type == LockType.READ )
+            {
+                holding.readCount++;
+            }
+            else
+            {
+                holding.writeCount++;
+            }
+        }
+
+        /**
+         * @return {@code true} if this was the last lock of {@code type} on {@code lock}.
+         */
+        synchronized boolean released( ResourceLock lock, LockType type, Transaction tx )
+                throws LockNotFoundException
+        {
+            Holding holding = holdings.get( lock );
+            int count = holding == null ? 0 : type == LockType.READ ? holding.readCount : holding.writeCount;
+            if ( count == 0 )
+            {
+                throw new LockNotFoundException( "" + tx + " don't have " +
+                        (type == LockType.READ ? "readLock" : "writeLock") + " on " + lock.resource );
+            }
+            count = type == LockType.READ ? --holding.readCount : --holding.writeCount;
+            if ( holding.readCount == 0 && holding.writeCount == 0 )
+            {
+                holdings.remove( lock );
+            }
+            return count == 0;
+        }
+
+        synchronized boolean isEmpty()
+        {
+            return holdings.isEmpty();
+        }
+
+        synchronized LockingTransaction info( Transaction tx, ResourceLock lock )
+        {
+            Holding holding = holdings.get( lock );
+            return holding == null ? null : new LockingTransaction( tx.toString(), holding.readCount,
+                    holding.writeCount );
+        }
+    }
+
+    // keeps track of what type of lock a thread is waiting for
+    private static class WaitElement
+    {
+        final Transaction tx;
+        final ResourceLock lock;
+        final LockType lockType;
+        final Thread waitingThread;
+        final long since = System.currentTimeMillis();
+
+        WaitElement( Transaction tx, ResourceLock lock, LockType lockType, Thread thread )
+        {
+            this.tx = tx;
+            this.lock = lock;
+            this.lockType = lockType;
+            this.waitingThread = thread;
+        }
+    }
+
+    @Override
+    public long getDetectedDeadlockCount()
+    {
+        return deadlockCount.get();
+    }
+
+    @Override
+    public void getReadLock( Object resource, Transaction tx )
+            throws DeadlockDetectedException, IllegalResourceException
+    {
+        acquire( resource, tx, LockType.READ );
+    }
+
+    @Override
+    public void getWriteLock( Object resource, Transaction tx )
+            throws DeadlockDetectedException, IllegalResourceException
+    {
+        acquire( resource, tx, LockType.WRITE );
+    }
+
+    @Override
+    public void releaseReadLock( Object resource, Transaction tx )
+            throws LockNotFoundException, IllegalResourceException
+    {
+        release( resource, tx, LockType.READ );
+    }
+
+    @Override
+    public void releaseWriteLock( Object resource, Transaction tx )
+            throws LockNotFoundException, IllegalResourceException
+    {
+        release( resource, tx, LockType.WRITE );
+    }
+
+    private void assertValidArguments( Object resource, Transaction tx )
+    {
+        if ( resource == null || tx == null )
+        {
+            throw new IllegalResourceException( "Null parameter" );
+        }
+    }
+
+    private ConcurrentMap<Object,ResourceLock> stripeFor( Object resource )
+    {
+        int hash = resource.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return stripes[hash & stripeMask];
+    }
+
+    private ResourceLock lockFor( Object resource )
+    {
+        ConcurrentMap<Object,ResourceLock> stripe = stripeFor( resource );
+        ResourceLock lock = stripe.get( resource );
+        if ( lock == null )
+        {
+            ResourceLock created = new ResourceLock( resource );
+            lock = stripe.putIfAbsent( resource, created );
+            if ( lock == null )
+            {
+                lock = created;
+            }
+        }
+        return lock;
+    }
+
+    private TxLocks txLocksFor( Transaction tx )
+    {
+        TxLocks locks = txLocks.get( tx );
+        if ( locks == null )
+        {
+            TxLocks created = new TxLocks();
+            locks = txLocks.putIfAbsent( tx, created );
+            if ( locks == null )
+            {
+                locks = created;
+            }
+        }
+        return locks;
+    }
+
+    private void acquire( Object resource, Transaction tx, LockType type ) throws DeadlockDetectedException
+    {
+        assertValidArguments( resource, tx );
+        TxLocks locks = txLocksFor( tx );
+        while ( true )
+        {
+            ResourceLock lock = lockFor( resource );
+            Holding holding = locks.get( lock );
+            if ( tryAcquire( lock, holding, type ) )
+            {
+                locks.acquired( lock, type );
+                return;
+            }
+            if ( lock.state.get() != DEAD && awaitAndAcquire( lock, locks, tx, type ) )
+            {
+                return;
+            }
+            // The lock died before we got it, try again with the lock that replaced it
+        }
+    }
+
+    /**
+     * Acquires {@code lock} without waiting, if possible. Locks held by the transaction itself, given by
+     * {@code holding}, don't prevent it from getting a lock, so a transaction can upgrade its read lock to
+     * a write lock as long as no other transaction holds a read lock.
+     */
+    private boolean tryAcquire( ResourceLock lock, Holding holding, LockType type )
+    {
+        int heldReads = holding == null ? 0 : holding.readCount;
+        int heldWrites = holding == null ? 0 : holding.writeCount;
+        if ( type == LockType.READ )
+        {
+            if ( heldReads > 0 )
+            {
+                return true;
+            }
+            if ( heldWrites > 0 )
+            {
+                lock.state.incrementAndGet();
+                return true;
+            }
+            while ( true )
+            {
+                int state = lock.state.get();
+                if ( state == DEAD || (state & WRITE_LOCKED) != 0 )
+                {
+                    return false;
+                }
+                if ( lock.state.compareAndSet( state, state + 1 ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        if ( heldWrites > 0 )
+        {
+            return true;
+        }
+        int readers = heldReads > 0 ? 1 : 0;
+        return lock.state.compareAndSet( readers, readers | WRITE_LOCKED );
+    }
+
+    /**
+     * @return {@code false} if the lock died while waiting for it, in which case the caller should try again
+     * with a new lock for the resource.
+     */
+    private boolean awaitAndAcquire( ResourceLock lock, TxLocks locks, Transaction tx, LockType type )
+            throws DeadlockDetectedException
+    {
+        boolean interrupted = false;
+        synchronized ( lock )
+        {
+            WaitElement waiter = new WaitElement( tx, lock, type, Thread.currentThread() );
+            lock.waitingThreads.addFirst( waiter );
+            lock.waitingCount++;
+            waitingTxs.put( tx, waiter );
+            try
+            {
+                while ( true )
+                {
+                    // Checked again after registering as waiting, since releasers only notify if someone waits
+                    if ( tryAcquire( lock, locks.get( lock ), type ) )
+                    {
+                        locks.acquired( lock, type );
+                        return true;
+                    }
+                    if ( lock.state.get() == DEAD )
+                    {
+                        return false;
+                    }
+                    checkWaitOn( waiter );
+                    try
+                    {
+                        lock.wait();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        interrupted = true;
+                    }
+                }
+            }
+            finally
+            {
+                waitingTxs.remove( tx );
+                lock.waitingThreads.remove( waiter );
+                lock.waitingCount--;
+                if ( lock.waitingCount == 0 && lock.state.compareAndSet( 0, DEAD ) )
+                {   // Gave up waiting, f.ex. on deadlock, after the last holder had released the lock
+                    stripeFor( lock.resource ).remove( lock.resource, lock );
+                }
+                if ( interrupted )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void release( Object resource, Transaction tx, LockType type ) throws LockNotFoundException
+    {
+        assertValidArguments( resource, tx );
+        TxLocks locks = txLocks.get( tx );
+        ConcurrentMap<Object,ResourceLock> stripe = stripeFor( resource );
+        ResourceLock lock = stripe.get( resource );
+        if ( locks == null || lock == null )
+        {
+            throw new LockNotFoundException( "Lock not found for: " + resource + " tx:" + tx );
+        }
+
+        if ( locks.released( lock, type, tx ) )
+        {
+            int state = type == LockType.READ ? lock.state.decrementAndGet() :
+                    lock.state.addAndGet( -WRITE_LOCKED );
+            if ( lock.waitingCount > 0 )
+            {
+                synchronized ( lock )
+                {
+                    lock.notifyAll();
+                }
+            }
+            else if ( state == 0 && lock.state.compareAndSet( 0, DEAD ) )
+            {
+                stripe.remove( resource, lock );
+                if ( lock.waitingCount > 0 )
+                {   // Someone started waiting just now and needs to be told that the lock died
+                    synchronized ( lock )
+                    {
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+        if ( locks.isEmpty() )
+        {
+            txLocks.remove( tx, locks );
+        }
+    }
+
+    /**
+     * Checks if the transaction of {@code waiter} can wait without deadlocking. The waiter is registered in
+     * the wait-for graph before this is called, so of two transactions closing a cycle concurrently at least
+     * the last one to register will see the other.
+     */
+    private void checkWaitOn( WaitElement waiter ) throws DeadlockDetectedException
+    {
+        List<Object> circle = new ArrayList<>();
+        if ( waitsFor( waiter, waiter.tx, new HashSet<Transaction>(), circle ) )
+        {
+            deadlockCount.incrementAndGet();
+            StringBuilder description = new StringBuilder();
+            for ( int i = 0; i < circle.size(); i += 2 )
+            {
+                if ( i > 0 )
+                {
+                    description.append( " <-[:WAITING_FOR]- " );
+                }
+                description.append( circle.get( i + 1 ) ).append( " <-[:HELD_BY]- " ).append( circle.get( i ) );
+            }
+            throw new DeadlockDetectedException( waiter.tx + " can't wait on resource " + waiter.lock.resource +
+                    " since => " + description );
+        }
+    }
+
+    /**
+     * @return {@code true} if any transaction blocking {@code waiter}, directly or by waiting in turn, is
+     * {@code target}. In that case {@code circle} contains the resources and blocking transactions on the way,
+     * starting with the resource held by {@code target}.
+     */
+    private boolean waitsFor( WaitElement waiter, Transaction target, Set<Transaction> visited, List<Object> circle )
+    {
+        for ( Transaction holder : holdersBlocking( waiter ) )
+        {
+            boolean found = holder.equals( target );
+            if ( !found && visited.add( holder ) )
+            {
+                WaitElement awaited = waitingTxs.get( holder );
+                found = awaited != null && waitsFor( awaited, target, visited, circle );
+            }
+            if ( found )
+            {
+                circle.add( waiter.lock.resource );
+                circle.add( holder );
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Transaction> holdersBlocking( WaitElement waiter )
+    {
+        List<Transaction> holders = new ArrayList<>();
+        for ( Map.Entry<Transaction,TxLocks> entry : txLocks.entrySet() )
+        {
+            if ( entry.getKey().equals( waiter.tx ) )
+            {
+                continue;
+            }
+            Holding holding = entry.getValue().get( waiter.lock );
+            if ( holding != null && (waiter.lockType == LockType.WRITE || holding.writeCount > 0) )
+            {
+                holders.add( entry.getKey() );
+            }
+        }
+        return holders;
+    }
+
+    @Override
+    public void dumpLocksOnResource( Object resource, Logging logging )
+    {
+        ResourceLock lock = stripeFor( resource ).get( resource );
+        if ( lock == null )
+        {
+            logging.getMessagesLog( LockManager.class ).info( "No locks on " + resource );
+            return;
+        }
+        LockManagerImpl.DumpVisitor dump = new LockManagerImpl.DumpVisitor( logging );
+        dump.visit( info( lock ) );
+    }
+
+    @Override
+    public List<LockInfo> getAllLocks()
+    {
+        List<LockInfo> result = new ArrayList<>();
+        for ( ResourceLock lock : allLocks() )
+        {
+            result.add( info( lock ) );
+        }
+        return result;
+    }
+
+    @Override
+    public List<LockInfo> getAwaitedLocks( long minWaitTime )
+    {
+        long waitStart = System.currentTimeMillis() - minWaitTime;
+        List<LockInfo> result = new ArrayList<>();
+        for ( ResourceLock lock : allLocks() )
+        {
+            if ( lock.waitingCount > 0 && waitedSinceBefore( lock, waitStart ) )
+            {
+                result.add( info( lock ) );
+            }
+        }
+        return result;
+    }
+
+    private List<ResourceLock> allLocks()
+    {
+        List<ResourceLock> locks = new ArrayList<>();
+        for ( ConcurrentMap<Object,ResourceLock> stripe : stripes )
+        {
+            locks.addAll( stripe.values() );
+        }
+        return locks;
+    }
+
+    private boolean waitedSinceBefore( ResourceLock lock, long waitStart )
+    {
+        synchronized ( lock )
+        {
+            for ( WaitElement waiter : lock.waitingThreads )
+            {
+                if ( waiter.since < waitStart )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private LockInfo info( ResourceLock lock )
+    {
+        List<LockingTransaction> lockingTxs = new ArrayList<>();
+        int readCount = 0, writeCount = 0;
+        for ( Map.Entry<Transaction,TxLocks> entry : txLocks.entrySet() )
+        {
+            LockingTransaction locking = entry.getValue().info( entry.getKey(), lock );
+            if ( locking != null )
+            {
+                lockingTxs.add( locking );
+                readCount += locking.getReadCount();
+                writeCount += locking.getWriteCount();
+            }
+        }
+        List<WaitingThread> waitingThreads = new ArrayList<>();
+        synchronized ( lock )
+        {
+            for ( WaitElement waiter : lock.waitingThreads )
+            {
+                TxLocks locks = txLocks.get( waiter.tx );
+                Holding holding = locks == null ? null : locks.get( lock );
+                waitingThreads.add( WaitingThread.create( waiter.tx.toString(),
+                        holding == null ? 0 : holding.readCount, holding == null ? 0 : holding.writeCount,
+                        waiter.waitingThread, waiter.since, waiter.lockType == LockType.WRITE ) );
+            }
+        }
+
+        Object resource = lock.resource;
+        ResourceType type;
+        String id;
+        if ( resource instanceof Node )
+        {
+            type = ResourceType.NODE;
+            id = Long.toString( ((Node) resource).getId() );
+        }
+        else if ( resource instanceof Relationship )
+        {
+            type = ResourceType.RELATIONSHIP;
+            id = Long.toString( ((Relationship) resource).getId() );
+        }
+        else
+        {
+            type = ResourceType.OTHER;
+            id = resource.toString();
+        }
+        return new LockInfo( type, id, readCount, writeCount, lockingTxs, waitingThreads );
+    }
+
+    /**
+     * Utility method for debugging. Dumps the wait-for graph.
+     */
+    @Override
+    public void dumpRagStack( Logging logging )
+    {
+        logging.getMessagesLog( getClass() ).logLongMessage( "Wait-for graph",
+                new Visitor<LineLogger, RuntimeException>()
+        {
+            @Override
+            public boolean visit( LineLogger logger )
+            {
+                Map<Transaction,Object> waiting = new HashMap<>();
+                for ( WaitElement waiter : waitingTxs.values() )
+                {
+                    waiting.put( waiter.tx, waiter.lock.resource );
+                }
+                if ( waiting.isEmpty() )
+                {
+                    logger.logLine( "No transactions waiting on resources" );
+                }
+                for ( Map.Entry<Transaction,Object> entry : waiting.entrySet() )
+                {
+                    logger.logLine( "" + entry.getKey() + "->" + entry.getValue() );
+                }
+                return true;
+            }
+        } );
+    }
+
+    /**
+     * Utility method for debugging. Dumps info about each lock.
+     */
+    @Override
+    public void dumpAllLocks( Logging logging )
+    {
+        LockManagerImpl.DumpVisitor dump = new LockManagerImpl.DumpVisitor( logging );
+        for ( ResourceLock lock : allLocks() )
+        {
+            dump.visit( info( lock ) );
+        }
+        dump.done();
+    }
+}
@@ -40,7 +40,9 @@ import javax.transaction.xa.Xid;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.PendingCommitForce;
 import org.neo4j.kernel.impl.util.MultipleCauseException;
 import org.neo4j.kernel.impl.util.StringLogger;
 
@@ -64,6 +66,9 @@ class TransactionImpl implements Transaction
     private final TxManager txManager;
     private final StringLogger logger;
     private final ForceMode forceMode;
+    private boolean remainingBranchesUnforced;
+    private boolean commitForcesDeferred;
+    private final List<PendingCommitForce> pendingCommitForces = new ArrayList<>();
     private Thread owner;
 
     private final TransactionState state;
@@ -477,84 +482,292 @@ class TransactionImpl implements Transaction
     void doCommit() throws XAException, SystemException
     {
         boolean onePhase = isOnePhase();
-        boolean readOnly = true;
         if ( !onePhase )
         {
+            ResourceElement lastResource = lastResource();
+            if ( lastResource != null )
+            {
+                doLastResourceCommit( lastResource );
+                return;
+            }
+
             // prepare
             status = Status.STATUS_PREPARING;
-            LinkedList<Xid> preparedXids = new LinkedList<>();
+            if ( !prepare( null ) )
+            {
+                return;
+            }
+            markAsCommitting();
+        }
+        commitForcesDeferred = true;
+        try
+        {
+            commitEnlisted( onePhase );
+        }
+        finally
+        {
+            commitForcesDeferred = false;
+        }
+    }
+
+    /**
+     * Called by resources committing as part of {@link #doCommit()}. Only the commits made after the outcome of
+     * this transaction has been decided can wait for their forces later, which rules out the commit of the last
+     * resource in {@link #doLastResourceCommit(ResourceElement)}.
+     *
+     * @return {@code false} if the caller has to wait for {@code force} itself.
+     */
+    boolean deferCommitForce( PendingCommitForce force )
+    {
+        if ( !commitForcesDeferred )
+        {
+            return false;
+        }
+        pendingCommitForces.add( force );
+        return true;
+    }
+
+    /**
+     * Waits for the forces deferred during {@link #doCommit()}. Called by the transaction manager once it has
+     * released the monitor that commits happen under.
+     */
+    void awaitCommitForces() throws XAException
+    {
+        try
+        {
+            for ( PendingCommitForce force : pendingCommitForces )
+            {
+                force.await();
+            }
+        }
+        finally
+        {
+            pendingCommitForces.clear();
+        }
+    }
+
+    /**
+     * Commits a transaction spanning several resources with a single force, that of the one phase commit of the
+     * last resource. All resources but one are prepared without forcing their logs. Instead their prepared
+     * transactions are copied into the commit of the last resource, see {@link BranchCopy}. That commit is what
+     * decides the outcome of the transaction. The commit record still goes into the log of the transaction
+     * manager, but without a force. Until it is durable, recovery finds the decision in the logical log of the
+     * last resource instead, and redoes the copied transactions the other resources lost, see
+     * {@link XaDataSourceManager#recover(java.util.Iterator)}. Once the decision has been made, the other
+     * resources commit without forcing their logs. Resources that can't copy their prepared transactions have
+     * their logs forced instead.
+     */
+    private void doLastResourceCommit( ResourceElement lastResource ) throws XAException, SystemException
+    {
+        status = Status.STATUS_PREPARING;
+        if ( !prepare( lastResource.getXid() ) )
+        {
+            return;
+        }
+
+        boolean forced = true;
+        List<BranchCopy> branchCopies = new ArrayList<>();
+        List<Xid> copiedXids = new ArrayList<>();
+        try
+        {
             for ( ResourceElement re : resourceList )
             {
-                if ( !preparedXids.contains( re.getXid() ) )
+                Xid xid = re.getXid();
+                if ( re.getStatus() != RS_READONLY && !xid.equals( lastResource.getXid() ) &&
+                     !copiedXids.contains( xid ) )
                 {
-                    preparedXids.add( re.getXid() );
-                    int vote = re.getResource().prepare( re.getXid() );
-                    if ( vote == XAResource.XA_OK )
+                    BranchCopy copy = txManager.copyPreparedTransaction( xid );
+                    if ( copy != null )
                     {
-                        readOnly = false;
-                    }
-                    else if ( vote == XAResource.XA_RDONLY )
-                    {
-                        re.setStatus( RS_READONLY );
+                        branchCopies.add( copy );
+                        copiedXids.add( xid );
                     }
                     else
                     {
-                        // rollback tx
-                        status = Status.STATUS_MARKED_ROLLBACK;
-                        return;
+                        forced &= txManager.forcePreparedTransactions( xid.getBranchQualifier() );
                     }
                 }
-                else
+            }
+        }
+        catch ( IOException e )
+        {
+            throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), e );
+        }
+        if ( !forced )
+        {
+            // Some resource can't make its prepared transactions durable, so do a regular two phase commit
+            if ( !prepare( null ) )
+            {
+                return;
+            }
+            markAsCommitting();
+            commitEnlisted( false );
+            return;
+        }
+
+        status = Status.STATUS_COMMITTING;
+        Xid lastResourceXid = lastResource.getXid();
+        txManager.lastResourceCommitStarting( lastResourceXid, branchCopies );
+        try
+        {
+            commit( lastResource, true );
+            for ( ResourceElement re : resourceList )
+            {
+                if ( re.getXid().equals( lastResourceXid ) )
                 {
-                    // set it to readonly, only need to commit once
                     re.setStatus( RS_READONLY );
                 }
             }
-            if ( readOnly )
+            // The last resource doesn't rotate its log until this is written, so recovery will find the decision
+            // in one of the two logs
+            txManager.getTxLog().markAsCommitting( getGlobalId(), ForceMode.unforced );
+        }
+        catch ( IOException e )
+        {
+            logger.error( "Error writing transaction log", e );
+            txManager.setTmNotOk( e );
+            throw Exceptions.withCause( new SystemException( "TM encountered a problem, "
+                                                             + " error writing transaction log" ), e );
+        }
+        finally
+        {
+            txManager.lastResourceCommitRecorded( lastResourceXid );
+        }
+
+        remainingBranchesUnforced = true;
+        try
+        {
+            commitEnlisted( false );
+        }
+        finally
+        {
+            remainingBranchesUnforced = false;
+        }
+    }
+
+    /**
+     * @return the enlisted resource that can decide the outcome of this transaction with its one phase commit, or
+     * {@code null} if this transaction should be committed with a regular two phase commit.
+     */
+    private ResourceElement lastResource()
+    {
+        byte[] branchId = txManager.getLastResourceBranchId();
+        if ( branchId == null )
+        {
+            return null;
+        }
+        for ( ResourceElement re : resourceList )
+        {
+            if ( Arrays.equals( branchId, re.getXid().getBranchQualifier() ) )
+            {
+                return re;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Prepares all enlisted resources not yet prepared, except those with the given xid.
+     *
+     * @return {@code false} if a resource voted for rolling back, in which case the status is set accordingly.
+     */
+    private boolean prepare( Xid except ) throws XAException
+    {
+        boolean readOnly = true;
+        LinkedList<Xid> preparedXids = new LinkedList<>();
+        for ( ResourceElement re : resourceList )
+        {
+            if ( re.getXid().equals( except ) )
             {
-                status = Status.STATUS_COMMITTED;
-                return;
+                continue;
             }
-            else
+            if ( re.isPrepared() )
             {
-                status = Status.STATUS_PREPARED;
+                preparedXids.add( re.getXid() );
+                readOnly &= re.getStatus() == RS_READONLY;
+                continue;
             }
-            // everyone has prepared - mark as committing
-            try
+            if ( !preparedXids.contains( re.getXid() ) )
             {
-                txManager.getTxLog().markAsCommitting( getGlobalId(), forceMode );
+                preparedXids.add( re.getXid() );
+                int vote = re.getResource().prepare( re.getXid() );
+                re.markAsPrepared();
+                if ( vote == XAResource.XA_OK )
+                {
+                    readOnly = false;
+                }
+                else if ( vote == XAResource.XA_RDONLY )
+                {
+                    re.setStatus( RS_READONLY );
+                }
+                else
+                {
+                    // rollback tx
+                    status = Status.STATUS_MARKED_ROLLBACK;
+                    return false;
+                }
             }
-            catch ( IOException e )
+            else
             {
-                logger.error( "Error writing transaction log", e );
-                txManager.setTmNotOk( e );
-                throw Exceptions.withCause( new SystemException( "TM encountered a problem, "
-                                                                 + " error writing transaction log" ), e );
+                // set it to readonly, only need to commit once
+                re.setStatus( RS_READONLY );
             }
         }
+        if ( readOnly && except == null )
+        {
+            status = Status.STATUS_COMMITTED;
+            return false;
+        }
+        status = Status.STATUS_PREPARED;
+        return true;
+    }
+
+    private void markAsCommitting() throws SystemException
+    {
+        // everyone has prepared - mark as committing
+        try
+        {
+            txManager.getTxLog().markAsCommitting( getGlobalId(), forceMode );
+        }
+        catch ( IOException e )
+        {
+            logger.error( "Error writing transaction log", e );
+            txManager.setTmNotOk( e );
+            throw Exceptions.withCause( new SystemException( "TM encountered a problem, "
+                                                             + " error writing transaction log" ), e );
+        }
+    }
+
+    private void commitEnlisted( boolean onePhase ) throws XAException
+    {
         // commit
         status = Status.STATUS_COMMITTING;
         for ( ResourceElement re : resourceList )
         {
             if ( re.getStatus() != RS_READONLY )
             {
-                try
-                {
-                    re.getResource().commit( re.getXid(), onePhase );
-                }
-                catch ( XAException e )
-                {
-                    throw e;
-                }
-                catch ( Throwable e )
-                {
-                    throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), e );
-                }
+                commit( re, onePhase );
             }
         }
         status = Status.STATUS_COMMITTED;
     }
 
+    private void commit( ResourceElement re, boolean onePhase ) throws XAException
+    {
+        try
+        {
+            re.getResource().commit( re.getXid(), onePhase );
+        }
+        catch ( XAException e )
+        {
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            throw Exceptions.withCause( new XAException( XAException.XAER_RMERR ), e );
+        }
+    }
+
     void doRollback() throws XAException
     {
         status = Status.STATUS_ROLLING_BACK;
@@ -575,6 +788,7 @@ class TransactionImpl implements Transaction
         private Xid xid = null;
         private XAResource resource = null;
         private int status;
+        private boolean prepared;
 
         ResourceElement( Xid xid, XAResource resource )
         {
@@ -603,6 +817,16 @@ class TransactionImpl implements Transaction
             this.status = status;
         }
 
+        boolean isPrepared()
+        {
+            return prepared;
+        }
+
+        void markAsPrepared()
+        {
+            prepared = true;
+        }
+
         @Override
         public String toString()
         {
@@ -658,7 +882,7 @@ class TransactionImpl implements Transaction
 
     public ForceMode getForceMode()
     {
-        return forceMode;
+        return remainingBranchesUnforced ? ForceMode.unforced : forceMode;
     }
 
     public Throwable getRollbackCause()
@@ -46,8 +46,11 @@ import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.kernel.impl.core.KernelPanicEventGenerator;
 import org.neo4j.kernel.impl.core.TransactionState;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
+import org.neo4j.kernel.impl.transaction.xaframework.PendingCommitForce;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.XaResource;
 import org.neo4j.kernel.impl.util.ExceptionCauseSetter;
@@ -123,6 +126,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
     private final TransactionStateFactory stateFactory;
 
     private final Monitor monitor;
+    private final boolean lastResourceCommit;
 
     public TxManager( File txLogDir,
                       XaDataSourceManager xaDataSourceManager,
@@ -143,6 +147,19 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                       TransactionStateFactory stateFactory,
                       Monitor monitor
     )
+    {
+        this( txLogDir, xaDataSourceManager, kpe, log, fileSystem, stateFactory, monitor, false );
+    }
+
+    public TxManager( File txLogDir,
+                      XaDataSourceManager xaDataSourceManager,
+                      KernelPanicEventGenerator kpe,
+                      StringLogger log,
+                      FileSystemAbstraction fileSystem,
+                      TransactionStateFactory stateFactory,
+                      Monitor monitor,
+                      boolean lastResourceCommit
+    )
     {
         this.txLogDir = txLogDir;
         this.xaDataSourceManager = xaDataSourceManager;
@@ -151,6 +168,7 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         this.kpe = kpe;
         this.stateFactory = stateFactory;
         this.monitor = monitor;
+        this.lastResourceCommit = lastResourceCommit;
     }
 
     int getNextEventIdentifier()
@@ -347,6 +365,75 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
     }
 
     // called when a resource gets enlisted
+    /**
+     * @return the branch id of the resource whose one phase commit decides the outcome of transactions spanning
+     * several resources, or {@code null} if such transactions should go through a regular two phase commit.
+     * See {@link TransactionImpl#doCommit()}.
+     */
+    byte[] getLastResourceBranchId()
+    {
+        if ( !lastResourceCommit )
+        {
+            return null;
+        }
+        XaDataSource neoStore = xaDataSourceManager.getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME );
+        return neoStore != null ? neoStore.getBranchId() : null;
+    }
+
+    void lastResourceCommitStarting( Xid xid, List<BranchCopy> branchCopies )
+    {
+        xaDataSourceManager.getXaDataSource( xid.getBranchQualifier() )
+                .lastResourceCommitStarting( xid, branchCopies );
+    }
+
+    void lastResourceCommitRecorded( Xid xid )
+    {
+        xaDataSourceManager.getXaDataSource( xid.getBranchQualifier() ).lastResourceCommitRecorded( xid );
+    }
+
+    /**
+     * @return {@code null} if the resource of the given branch can't copy its prepared transaction.
+     */
+    BranchCopy copyPreparedTransaction( Xid xid ) throws IOException
+    {
+        return xaDataSourceManager.getXaDataSource( xid.getBranchQualifier() ).copyPreparedTransaction( xid );
+    }
+
+    /**
+     * @return {@code false} if the resource with the given branch id can't make its prepared transactions durable.
+     */
+    boolean forcePreparedTransactions( byte branchId[] ) throws IOException
+    {
+        return xaDataSourceManager.getXaDataSource( branchId ).forcePreparedTransactions();
+    }
+
+    @Override
+    public void forceLog() throws IOException
+    {
+        TxLog currentLog = txLog;
+        if ( currentLog != null )
+        {
+            currentLog.force();
+        }
+    }
+
+    @Override
+    public void logRotating( byte[] branchId ) throws IOException
+    {
+        forceLog();
+        if ( Arrays.equals( branchId, getLastResourceBranchId() ) )
+        {
+            // The log about to be rotated may hold the only copies of transactions prepared by other resources
+            for ( XaDataSource dataSource : xaDataSourceManager.getAllRegisteredDataSources() )
+            {
+                if ( !Arrays.equals( dataSource.getBranchId(), branchId ) )
+                {
+                    dataSource.forcePreparedTransactions();
+                }
+            }
+        }
+    }
+
     void writeStartRecord( byte globalId[] ) throws SystemException
     {
         try
@@ -573,6 +660,18 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
                 }
             }
         }
+
+        try
+        {
+            tx.awaitCommitForces();
+        }
+        catch ( XAException e )
+        {
+            // The transaction has been applied, but may not be durable
+            setTmNotOk( e );
+            throw logAndReturn( "TM error tx commit", new TransactionFailureException(
+                    "Unable to force the logical log", e ) );
+        }
         tx.doAfterCompletion();
 
         try
@@ -951,6 +1050,13 @@ public class TxManager extends AbstractTransactionManager implements Lifecycle
         return -1;
     }
 
+    @Override
+    public boolean deferCommitForce( PendingCommitForce force )
+    {
+        TransactionImpl tx = txThreadMap.get();
+        return tx != null && tx.deferCommitForce( force );
+    }
+
     @Override
     public ForceMode getForceMode()
     {
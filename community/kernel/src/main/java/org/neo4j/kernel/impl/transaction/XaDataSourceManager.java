@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.transaction;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,6 +41,7 @@ import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.UTF8;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.XaResource;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -307,6 +309,11 @@ public class XaDataSourceManager
                 "Unable to find mapping for XAResource[" + xaResource + "]" );
     }
 
+    public XaDataSource getXaDataSource( byte branchId[] )
+    {
+        return getDataSource( branchId );
+    }
+
     private XaDataSource getDataSource( byte branchId[] )
     {
         XaDataSource dataSource = branchIdMapping.get( UTF8.decode( branchId ) );
@@ -347,6 +354,7 @@ public class XaDataSourceManager
 
         try
         {
+            redoBranchCopies();
 
             for ( XaDataSource xaDataSource : dataSources.values() )
             {
@@ -357,8 +365,20 @@ public class XaDataSourceManager
                 {
                     if ( XidImpl.isThisTm( xid.getGlobalTransactionId() ) )
                     {
+                        if ( isCommittedByLastResource( xid ) )
+                        {
+                            msgLog.logMessage( "TM: Found " + xid + " committed by last resource, committing ...",
+                                    true );
+                            rollbackList.remove( xid );
+                            xaRes.commit( xid, false );
+                            Resource resource = new Resource( xid.getBranchQualifier() );
+                            if ( !resourceMap.containsKey( resource ) )
+                            {
+                                resourceMap.put( resource, xaDataSource );
+                            }
+                        }
                         // linear search
-                        if ( rollbackList.contains( xid ) )
+                        else if ( rollbackList.contains( xid ) )
                         {
                             msgLog.logMessage( "TM: Found pre commit " + xid + " rolling back ... ", true );
                             rollbackList.remove( xid );
@@ -450,6 +470,43 @@ public class XaDataSourceManager
         }
     }
 
+    /**
+     * A prepared branch whose transaction has no durable commit record in the log of the transaction manager may
+     * still have been committed, if the neo store committed its own branch of that transaction in one phase, see
+     * {@link TransactionImpl#doCommit()}.
+     */
+    private boolean isCommittedByLastResource( Xid xid )
+    {
+        XaDataSource neoStore = getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME );
+        if ( neoStore == null || Arrays.equals( neoStore.getBranchId(), xid.getBranchQualifier() ) )
+        {
+            return false;
+        }
+        return neoStore.hasRecoveredOnePhaseCommit(
+                new XidImpl( xid.getGlobalTransactionId(), neoStore.getBranchId() ) );
+    }
+
+    /**
+     * The other branches of a transaction committed by the one phase commit of the neo store aren't forced when
+     * prepared, but copied into that commit, see {@link TransactionImpl#doCommit()}. Redoes the copies of those
+     * which the resources they were prepared in lost.
+     */
+    private void redoBranchCopies() throws IOException
+    {
+        XaDataSource neoStore = getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME );
+        if ( neoStore == null )
+        {
+            return;
+        }
+        for ( BranchCopy copy : neoStore.getRecoveredBranchCopies() )
+        {
+            if ( getXaDataSource( copy.getXid().getBranchQualifier() ).redoBranchCopy( copy ) )
+            {
+                msgLog.logMessage( "TM: Redid " + copy + " committed by last resource", true );
+            }
+        }
+    }
+
     private void buildRecoveryInfo( List<NonCompletedTransaction> commitList,
                                     List<Xid> rollbackList, Map<Resource, XaDataSource> resourceMap,
                                     Iterator<List<TxLog.Record>> danglingRecordList
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import javax.transaction.xa.Xid;
+
+/**
+ * A transaction prepared in one data source, copied into the logical log of the data source whose one phase
+ * commit decides it, see {@link XaDataSource#copyPreparedTransaction(Xid)}. That way the prepare doesn't need a
+ * force of its own, since recovery redoes the copy if the data source it was prepared in lost it, see
+ * {@link XaDataSource#redoBranchCopy(BranchCopy)}.
+ */
+public class BranchCopy
+{
+    /**
+     * A command carrying a {@link BranchCopy} in the logical log of the data source deciding the transaction.
+     */
+    public interface Carrier
+    {
+        BranchCopy getBranchCopy();
+    }
+
+    private final Xid xid;
+    private final long logVersion;
+    private final byte[] transaction;
+
+    public BranchCopy( Xid xid, long logVersion, byte[] transaction )
+    {
+        this.xid = xid;
+        this.logVersion = logVersion;
+        this.transaction = transaction;
+    }
+
+    /**
+     * @return the xid of the transaction in the data source it was prepared in.
+     */
+    public Xid getXid()
+    {
+        return xid;
+    }
+
+    /**
+     * @return the version of the logical log the transaction was prepared in.
+     */
+    public long getLogVersion()
+    {
+        return logVersion;
+    }
+
+    /**
+     * @return the start and command entries of the transaction, as written to the log it was prepared in.
+     */
+    public byte[] getTransaction()
+    {
+        return transaction;
+    }
+
+    public ReadableByteChannel readTransaction() throws IOException
+    {
+        InMemoryLogBuffer buffer = new InMemoryLogBuffer();
+        buffer.put( transaction );
+        return buffer;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BranchCopy[" + xid + ", log version " + logVersion + ", " + transaction.length + " bytes]";
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+
+/**
+ * Lets transactions committing at the same time share one force of the logical log. Instead of forcing
+ * the log itself, a committing transaction writes out its commit entry, gets a ticket from
+ * {@link #appended()} and waits in {@link #awaitForced(long)} while the flusher thread forces the log
+ * once for all the tickets handed out since the previous force.
+ * <p>
+ * Transactions arriving while a force is in progress naturally end up in the next batch. The flusher can
+ * also be told to wait a short while for more transactions to join a batch before forcing, which trades
+ * some latency for fewer forces.
+ */
+public class GroupCommitter
+{
+    public static final long NO_TICKET = -1;
+
+    /**
+     * Where the flusher finds the channel to force. The channel may be rotated or closed after it has been
+     * handed out, which is fine since the log is forced before rotating or closing.
+     */
+    public interface LogChannelSource
+    {
+        FileChannel currentLogChannel();
+    }
+
+    private final String name;
+    private final LogChannelSource channelSource;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final StringLogger msgLog;
+
+    // All guarded by this
+    private long appendedTicket = 0;
+    private long forcedTicket = 0;
+    private long durableTicket = 0;
+    private IOException failure;
+    private boolean running;
+    private Thread flusher;
+    private long batchCount;
+    private long batchedCommitCount;
+    private int largestBatch;
+
+    public GroupCommitter( String name, LogChannelSource channelSource, long maxDelayMillis, int maxBatchSize,
+                           StringLogger msgLog )
+    {
+        if ( maxBatchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Max batch size must be at least 1, was " + maxBatchSize );
+        }
+        this.name = name;
+        this.channelSource = channelSource;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos( maxDelayMillis );
+        this.maxBatchSize = maxBatchSize;
+        this.msgLog = msgLog;
+    }
+
+    public synchronized void start()
+    {
+        if ( running )
+        {
+            return;
+        }
+        running = true;
+        if ( flusher != null )
+        {   // Stopped, but still forcing what was appended before that
+            return;
+        }
+        flusher = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flushLoop();
+            }
+        }, "Logical log flusher [" + name + "]" );
+        flusher.setDaemon( true );
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher once it has forced what has been appended so far. Doesn't wait for that to happen
+     * since the caller may hold the monitor of the log, which the flusher needs to get the channel.
+     */
+    public synchronized void stop()
+    {
+        running = false;
+        notifyAll();
+    }
+
+    /**
+     * Called after a commit entry has been written out to the log channel.
+     *
+     * @return the ticket to pass to {@link #awaitForced(long)}.
+     */
+    public synchronized long appended()
+    {
+        if ( !running )
+        {
+            throw new IllegalStateException( "Group commit for " + name + " isn't running" );
+        }
+        appendedTicket++;
+        notifyAll();
+        return appendedTicket;
+    }
+
+    /**
+     * Waits until the log has been forced up to and including the commit entry that got {@code ticket}.
+     *
+     * @throws IOException if the force covering {@code ticket} failed.
+     */
+    public synchronized void awaitForced( long ticket ) throws IOException
+    {
+        boolean interrupted = false;
+        try
+        {
+            while ( forcedTicket < ticket )
+            {
+                try
+                {
+                    wait();
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+            }
+            if ( ticket > durableTicket )
+            {
+                throw new IOException( "Unable to force logical log " + name, failure );
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flushLoop()
+    {
+        while ( true )
+        {
+            long target = awaitBatch();
+            if ( target == NO_TICKET )
+            {
+                return;
+            }
+
+            IOException error = null;
+            try
+            {
+                force( channelSource.currentLogChannel() );
+            }
+            catch ( IOException e )
+            {
+                error = e;
+            }
+            batchForced( target, error );
+        }
+    }
+
+    private synchronized long awaitBatch()
+    {
+        try
+        {
+            while ( running && appendedTicket == forcedTicket )
+            {
+                wait();
+            }
+            if ( appendedTicket == forcedTicket )
+            {
+                flusher = null;
+                return NO_TICKET;
+            }
+            long deadline = System.nanoTime() + maxDelayNanos;
+            while ( running && appendedTicket - forcedTicket < maxBatchSize )
+            {
+                long remaining = deadline - System.nanoTime();
+                if ( remaining <= 0 )
+                {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait( this, remaining );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.interrupted();
+        }
+        return appendedTicket;
+    }
+
+    private static void force( FileChannel channel ) throws IOException
+    {
+        if ( channel == null )
+        {   // Closed, and forced when closing
+            return;
+        }
+        try
+        {
+            channel.force( false );
+        }
+        catch ( ClosedChannelException e )
+        {
+            // Rotated or closed after we got it, either of which forces the log first
+        }
+    }
+
+    private synchronized void batchForced( long target, IOException error )
+    {
+        int batchSize = (int) (target - forcedTicket);
+        forcedTicket = target;
+        if ( error == null )
+        {
+            durableTicket = target;
+        }
+        else
+        {
+            failure = error;
+            msgLog.error( "Unable to force logical log " + name + " for " + batchSize + " transaction(s)", error );
+        }
+        batchCount++;
+        batchedCommitCount += batchSize;
+        largestBatch = Math.max( largestBatch, batchSize );
+        notifyAll();
+    }
+
+    public synchronized long getBatchCount()
+    {
+        return batchCount;
+    }
+
+    public synchronized long getBatchedCommitCount()
+    {
+        return batchedCommitCount;
+    }
+
+    public synchronized int getLargestBatch()
+    {
+        return largestBatch;
+    }
+
+    public synchronized double getAverageBatchSize()
+    {
+        return batchCount == 0 ? 0 : (double) batchedCommitCount / batchCount;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "GroupCommitter[" + name + ", batches=" + batchCount + ", commits=" + batchedCommitCount +
+                ", average batch=" + String.format( "%.2f", getAverageBatchSize() ) +
+                ", largest batch=" + largestBatch + "]";
+    }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
 
 public class InMemoryLogBuffer implements LogBuffer, ReadableByteChannel
 {
@@ -151,6 +152,14 @@ public class InMemoryLogBuffer implements LogBuffer, ReadableByteChannel
     {
     }
 
+    /**
+     * @return a copy of what has been written to this buffer and not yet read.
+     */
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOfRange( bytes, readIndex, writeIndex );
+    }
+
     public int read( ByteBuffer dst ) throws IOException
     {
         if ( readIndex >= writeIndex )
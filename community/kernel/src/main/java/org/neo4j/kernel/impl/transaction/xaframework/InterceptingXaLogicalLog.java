@@ -40,9 +40,22 @@ public class InterceptingXaLogicalLog extends XaLogicalLog
                                      FileSystemAbstraction fileSystem, Logging logging,
                                      LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
                                      long rotateAtSize, InjectedTransactionValidator injectedTxValidator )
+    {
+        this( fileName, xaRm, cf, xaTf, providers, logBufferFactory, fileSystem, logging, pruneStrategy,
+                stateFactory, rotateAtSize, injectedTxValidator, false, 0, 1 );
+    }
+
+    public InterceptingXaLogicalLog( File fileName, XaResourceManager xaRm,
+                                     XaCommandFactory cf, XaTransactionFactory xaTf,
+                                     TransactionInterceptorProviders providers, LogBufferFactory logBufferFactory,
+                                     FileSystemAbstraction fileSystem, Logging logging,
+                                     LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
+                                     long rotateAtSize, InjectedTransactionValidator injectedTxValidator,
+                                     boolean groupCommit, long groupCommitMaxDelay, int groupCommitMaxBatchSize )
     {
         super( fileName, xaRm, cf, xaTf, logBufferFactory, fileSystem, logging, pruneStrategy,
-                stateFactory, rotateAtSize, injectedTxValidator);
+                stateFactory, rotateAtSize, injectedTxValidator, groupCommit, groupCommitMaxDelay,
+                groupCommitMaxBatchSize );
         this.providers = providers;
         this.ds = xaRm.getDataSource();
     }
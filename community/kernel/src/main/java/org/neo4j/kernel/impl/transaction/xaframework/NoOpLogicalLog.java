@@ -79,6 +79,12 @@ public class NoOpLogicalLog extends XaLogicalLog
 
     }
 
+    @Override
+    public synchronized long appendCommitOnePhase( int identifier, long txId, ForceMode forceMode ) throws XAException
+    {
+        return GroupCommitter.NO_TICKET;
+    }
+
     @Override
     public synchronized void done( int identifier ) throws XAException
     {
@@ -97,6 +103,12 @@ public class NoOpLogicalLog extends XaLogicalLog
 
     }
 
+    @Override
+    public synchronized long appendCommitTwoPhase( int identifier, long txId, ForceMode forceMode ) throws XAException
+    {
+        return GroupCommitter.NO_TICKET;
+    }
+
     @Override
     public synchronized void writeCommand( XaCommand command, int identifier ) throws IOException
     {
@@ -212,6 +224,12 @@ public class NoOpLogicalLog extends XaLogicalLog
 
     }
 
+    @Override
+    public synchronized void force( ForceMode forceMode ) throws IOException
+    {
+
+    }
+
     @Override
     public synchronized long rotate() throws IOException
     {
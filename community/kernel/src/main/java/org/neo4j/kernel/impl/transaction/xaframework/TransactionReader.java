@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.xa.Command;
@@ -240,6 +241,13 @@ public class TransactionReader
             }
         }
 
+        @Override
+        public void visitRelationshipGroup( RelationshipGroupRecord record )
+        {
+            // Relationship groups only index the relationship chains of dense nodes,
+            // the relationship records themselves are visited separately.
+        }
+
         @Override
         public void visitSchemaRule( Collection<DynamicRecord> records )
         {
@@ -22,6 +22,9 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import javax.transaction.xa.Xid;
 
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
@@ -246,11 +249,96 @@ public abstract class XaDataSource implements Lifecycle
         getXaContainer().getResourceManager().applyCommittedTransaction( transaction, txId );
     }
 
+    /**
+     * Forces the transactions applied by {@link #applyCommittedTransaction(long, ReadableByteChannel)} since the
+     * last force. Applied transactions aren't forced one by one, so that a batch of them can share one force.
+     */
+    public void forceAppliedTransactions() throws IOException
+    {
+        getXaContainer().getResourceManager().forceAppliedTransactions();
+    }
+
     public long applyPreparedTransaction( ReadableByteChannel transaction ) throws IOException
     {
         return getXaContainer().getResourceManager().applyPreparedTransaction( transaction );
     }
 
+    /**
+     * Makes the transactions prepared in this data source durable, which lets it take part in transactions
+     * committed by the one phase commit of another resource, see
+     * {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#last_resource_commit}.
+     *
+     * @return {@code false} if this data source can't do that.
+     */
+    public boolean forcePreparedTransactions() throws IOException
+    {
+        return false;
+    }
+
+    /**
+     * Copies the transaction with the given xid, which has been prepared in this data source, so that the one
+     * phase commit of another resource can carry it and this data source doesn't have to make it durable itself,
+     * see {@link BranchCopy}.
+     *
+     * @return {@code null} if this data source can't do that.
+     */
+    public BranchCopy copyPreparedTransaction( Xid xid ) throws IOException
+    {
+        return null;
+    }
+
+    /**
+     * Redoes a transaction copied by {@link #copyPreparedTransaction(Xid)} if this data source lost it in a crash.
+     *
+     * @return whether the transaction was redone.
+     */
+    public boolean redoBranchCopy( BranchCopy copy ) throws IOException
+    {
+        return false;
+    }
+
+    /**
+     * @return the copies of transactions prepared in other data sources which were carried by transactions found
+     * committed in one phase when this data source last recovered its logical log, see
+     * {@link #lastResourceCommitStarting(Xid, List)}.
+     */
+    public List<BranchCopy> getRecoveredBranchCopies()
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return whether the transaction with the given xid was found committed in one phase when this data source
+     * last recovered its logical log.
+     */
+    public boolean hasRecoveredOnePhaseCommit( Xid xid )
+    {
+        return false;
+    }
+
+    /**
+     * Called before the one phase commit of the transaction with the given xid, when that commit decides a
+     * transaction spanning several resources. Until {@link #lastResourceCommitRecorded(Xid)} is called the
+     * decision must stay where {@link #hasRecoveredOnePhaseCommit(Xid)} will find it. The commit has to carry
+     * {@code branchCopies}, the other branches of the transaction, so that recovery can find them in
+     * {@link #getRecoveredBranchCopies()}.
+     */
+    public void lastResourceCommitStarting( Xid xid, List<BranchCopy> branchCopies )
+    {
+        if ( !branchCopies.isEmpty() )
+        {
+            throw new UnsupportedOperationException( getClass().getName() );
+        }
+    }
+
+    /**
+     * Called when the decision of a last resource commit has been written to the transaction log,
+     * see {@link #lastResourceCommitStarting(Xid, List)}.
+     */
+    public void lastResourceCommitRecorded( Xid xid )
+    {
+    }
+
     public long getLastCommittedTxId()
     {
         throw new UnsupportedOperationException( getClass().getName() );
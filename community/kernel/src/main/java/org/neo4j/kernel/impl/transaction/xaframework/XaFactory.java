@@ -28,6 +28,9 @@ import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
 import org.neo4j.kernel.logging.Logging;
 
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit_enabled;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit_max_batch_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.group_commit_max_delay;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
 
 /**
@@ -74,6 +77,9 @@ public class XaFactory
         XaResourceManager rm = new XaResourceManager( xaDataSource, tf, txIdGenerator, txManager, recoveryVerifier, logicalLog.getName() );
 
         long rotateAtSize = config.get( logical_log_rotation_threshold );
+        boolean groupCommit = config.get( group_commit_enabled );
+        long groupCommitMaxDelay = config.get( group_commit_max_delay );
+        int groupCommitMaxBatchSize = config.get( group_commit_max_batch_size );
         XaLogicalLog log;
         if( readOnly)
         {
@@ -82,12 +88,14 @@ public class XaFactory
         else if ( providers.shouldInterceptDeserialized() && providers.hasAnyInterceptorConfigured() )
         {
             log = new InterceptingXaLogicalLog( logicalLog, rm, cf, tf, providers, logBufferFactory,
-                    fileSystemAbstraction, logging, pruneStrategy, stateFactory, rotateAtSize, injectedTxValidator);
+                    fileSystemAbstraction, logging, pruneStrategy, stateFactory, rotateAtSize, injectedTxValidator,
+                    groupCommit, groupCommitMaxDelay, groupCommitMaxBatchSize );
         }
         else
         {
             log = new XaLogicalLog( logicalLog, rm, cf, tf, logBufferFactory, fileSystemAbstraction,
-                    logging, pruneStrategy, stateFactory, rotateAtSize, injectedTxValidator );
+                    logging, pruneStrategy, stateFactory, rotateAtSize, injectedTxValidator,
+                    groupCommit, groupCommitMaxDelay, groupCommitMaxBatchSize );
         }
 
         // TODO These setters should be removed somehow
@@ -21,13 +21,17 @@ package org.neo4j.kernel.impl.transaction.xaframework;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.transaction.xa.XAException;
@@ -77,9 +81,20 @@ public class XaLogicalLog implements LogLoader
 {
     private FileChannel fileChannel = null;
     private final ByteBuffer sharedBuffer;
-    private LogBuffer writeBuffer = null;
+    // Volatile since the group commit flusher reads it without holding the monitor of this log
+    private volatile LogBuffer writeBuffer = null;
     private long previousLogLastCommittedTx = -1;
     private long logVersion = 0;
+    // Transactions committed in one phase found when recovering the current log, see hasRecoveredOnePhaseCommit()
+    private final Set<Xid> recoveredOnePhaseCommits = new HashSet<>();
+    // Prepared or committed transactions, and copies of other branches carried by one phase commits, found when
+    // recovering the current log, see lostPreparedTransaction() and getRecoveredBranchCopies()
+    private final Set<Xid> recoveredPreparesAndCommits = new HashSet<>();
+    private final Map<Integer, List<BranchCopy>> recoveringBranchCopies = new HashMap<>();
+    private final List<BranchCopy> recoveredBranchCopies = new ArrayList<>();
+    // Last resource commits, see lastResourceCommitStarting(), and those of them whose decision is only in this log
+    private final Set<Xid> lastResourceCommits = new HashSet<>();
+    private final Set<Xid> unrecordedLastResourceCommits = new HashSet<>();
     private final ArrayMap<Integer, LogEntry.Start> xidIdentMap =
             new ArrayMap<Integer, LogEntry.Start>( (byte) 4, false, true );
     private final Map<Integer, XaTransaction> recoveredTxMap =
@@ -111,11 +126,29 @@ public class XaLogicalLog implements LogLoader
     private final InjectedTransactionValidator injectedTxValidator;
 
     private final TransactionStateFactory stateFactory;
+    private final GroupCommitter groupCommitter;
 
     public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
                          XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
                          Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
                          long rotateAtSize, InjectedTransactionValidator injectedTxValidator )
+    {
+        this( fileName, xaRm, cf, xaTf, logBufferFactory, fileSystem, logging, pruneStrategy, stateFactory,
+                rotateAtSize, injectedTxValidator, false, 0, 1 );
+    }
+
+    /**
+     * @param groupCommit whether or not forced commits should share forces of the log with other transactions
+     * committing at the same time, see {@link GroupCommitter}.
+     * @param groupCommitMaxDelay the longest time, in milliseconds, to wait for more transactions to join a group
+     * commit.
+     * @param groupCommitMaxBatchSize the number of transactions after which a group commit is forced right away.
+     */
+    public XaLogicalLog( File fileName, XaResourceManager xaRm, XaCommandFactory cf,
+                         XaTransactionFactory xaTf, LogBufferFactory logBufferFactory, FileSystemAbstraction fileSystem,
+                         Logging logging, LogPruneStrategy pruneStrategy, TransactionStateFactory stateFactory,
+                         long rotateAtSize, InjectedTransactionValidator injectedTxValidator, boolean groupCommit,
+                         long groupCommitMaxDelay, int groupCommitMaxBatchSize )
     {
         this.fileName = fileName;
         this.xaRm = xaRm;
@@ -135,10 +168,23 @@ public class XaLogicalLog implements LogLoader
 
         this.partialTransactionCopier = new PartialTransactionCopier( sharedBuffer, cf, msgLog, positionCache, this, xidIdentMap );
         this.injectedTxValidator = injectedTxValidator;
+        this.groupCommitter = groupCommit ? new GroupCommitter( fileName.getName(), new GroupCommitter.LogChannelSource()
+        {
+            @Override
+            public FileChannel currentLogChannel()
+            {
+                LogBuffer buffer = writeBuffer;
+                return buffer != null ? buffer.getFileChannel() : null;
+            }
+        }, groupCommitMaxDelay, groupCommitMaxBatchSize, msgLog ) : null;
     }
 
     synchronized void open() throws IOException
     {
+        if ( groupCommitter != null )
+        {
+            groupCommitter.start();
+        }
         switch ( logFiles.determineState() )
         {
             case LEGACY_WITHOUT_LOG_ROTATION:
@@ -380,7 +426,22 @@ public class XaLogicalLog implements LogLoader
     }
 
     // [TX_1P_COMMIT][identifier]
-    public synchronized void commitOnePhase( int identifier, long txId, ForceMode forceMode )
+    public void commitOnePhase( int identifier, long txId, ForceMode forceMode )
+            throws XAException
+    {
+        awaitCommitForced( identifier, appendCommitOnePhase( identifier, txId, forceMode ) );
+    }
+
+    /**
+     * Writes the one phase commit entry for a transaction. With group commit the entry is only written out
+     * and the transaction isn't durable until {@link #awaitCommitForced(int, long)} has returned for the
+     * returned ticket. Waiting for that must be done without holding any monitor that committing
+     * transactions need, or there will be no other transactions to share the force with.
+     *
+     * @return the ticket to wait for, or {@link GroupCommitter#NO_TICKET} if the commit entry has already been
+     * written according to {@code forceMode}.
+     */
+    public synchronized long appendCommitOnePhase( int identifier, long txId, ForceMode forceMode )
             throws XAException
     {
         LogEntry.Start startEntry = xidIdentMap.get( identifier );
@@ -390,7 +451,11 @@ public class XaLogicalLog implements LogLoader
         {
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             LogIoUtils.writeCommit( false, writeBuffer, identifier, txId, System.currentTimeMillis() );
-            forceMode.force( writeBuffer );
+            if ( lastResourceCommits.contains( startEntry.getXid() ) )
+            {
+                unrecordedLastResourceCommits.add( startEntry.getXid() );
+            }
+            return forceCommit( forceMode );
         }
         catch ( IOException e )
         {
@@ -400,7 +465,16 @@ public class XaLogicalLog implements LogLoader
     }
 
     // [TX_2P_COMMIT][identifier]
-    public synchronized void commitTwoPhase( int identifier, long txId, ForceMode forceMode )
+    public void commitTwoPhase( int identifier, long txId, ForceMode forceMode )
+            throws XAException
+    {
+        awaitCommitForced( identifier, appendCommitTwoPhase( identifier, txId, forceMode ) );
+    }
+
+    /**
+     * Writes the two phase commit entry for a transaction, see {@link #appendCommitOnePhase(int, long, ForceMode)}.
+     */
+    public synchronized long appendCommitTwoPhase( int identifier, long txId, ForceMode forceMode )
             throws XAException
     {
         LogEntry.Start startEntry = xidIdentMap.get( identifier );
@@ -410,7 +484,7 @@ public class XaLogicalLog implements LogLoader
         {
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             LogIoUtils.writeCommit( true, writeBuffer, identifier, txId, System.currentTimeMillis() );
-            forceMode.force( writeBuffer );
+            return forceCommit( forceMode );
         }
         catch ( IOException e )
         {
@@ -418,6 +492,137 @@ public class XaLogicalLog implements LogLoader
         }
     }
 
+    private long forceCommit( ForceMode forceMode ) throws IOException
+    {
+        if ( groupCommitter != null && forceMode == ForceMode.forced )
+        {
+            writeBuffer.writeOut();
+            return groupCommitter.appended();
+        }
+        forceMode.force( writeBuffer );
+        return GroupCommitter.NO_TICKET;
+    }
+
+    /**
+     * Waits for a commit entry written by {@link #appendCommitOnePhase(int, long, ForceMode)} or
+     * {@link #appendCommitTwoPhase(int, long, ForceMode)} to be forced.
+     */
+    public void awaitCommitForced( int identifier, long ticket ) throws XAException
+    {
+        if ( ticket == GroupCommitter.NO_TICKET )
+        {
+            return;
+        }
+        try
+        {
+            groupCommitter.awaitForced( ticket );
+        }
+        catch ( IOException e )
+        {
+            throw Exceptions.withCause(
+                    new XAException( "Logical log unable to force commit [" + identifier + "] " ), e );
+        }
+    }
+
+    /**
+     * Forces what has been written to this log so far. Transactions applied through
+     * {@link #applyTransaction(ReadableByteChannel)} are only written out, so that a batch of them can share
+     * one force.
+     */
+    public synchronized void force( ForceMode forceMode ) throws IOException
+    {
+        forceMode.force( writeBuffer );
+    }
+
+    /**
+     * @return the group committer of this log, or {@code null} if group commit isn't enabled.
+     */
+    public GroupCommitter getGroupCommitter()
+    {
+        return groupCommitter;
+    }
+
+    /**
+     * @return whether a transaction with the given xid was committed in one phase according to the entries found
+     * when this log was recovered. Only covers the current log, since rotating the log forgets about them.
+     */
+    public synchronized boolean hasRecoveredOnePhaseCommit( Xid xid )
+    {
+        return recoveredOnePhaseCommits.contains( xid );
+    }
+
+    /**
+     * @return the copies of transactions prepared in other data sources carried by transactions committed in one
+     * phase, found when this log was recovered. Only covers the current log, like
+     * {@link #hasRecoveredOnePhaseCommit(Xid)}.
+     */
+    public synchronized List<BranchCopy> getRecoveredBranchCopies()
+    {
+        return new ArrayList<>( recoveredBranchCopies );
+    }
+
+    /**
+     * @return whether the transaction copied from this log, see {@link #copyPreparedTransaction(Xid, int)}, may
+     * have been lost. That is when this log was recovered without finding it prepared or committed in the log
+     * version it was copied from. Older log versions were forced when they were rotated.
+     */
+    public synchronized boolean lostPreparedTransaction( BranchCopy copy )
+    {
+        return nonCleanShutdown && copy.getLogVersion() == logVersion &&
+               !recoveredPreparesAndCommits.contains( copy.getXid() );
+    }
+
+    /**
+     * Copies the prepared transaction with the given xid and identifier, so that the log of another data source
+     * can carry it instead of this log having to be forced, see {@link BranchCopy}.
+     */
+    public synchronized BranchCopy copyPreparedTransaction( Xid xid, int identifier ) throws IOException
+    {
+        InMemoryLogBuffer transaction = new InMemoryLogBuffer();
+        getPreparedTransaction( identifier, transaction );
+        return new BranchCopy( xid, logVersion, transaction.toByteArray() );
+    }
+
+    /**
+     * Tells this log that the one phase commit of the transaction with the given xid decides a transaction
+     * spanning several resources. Once its commit entry has been written this log won't rotate until
+     * {@link #lastResourceCommitRecorded(Xid)} has been called for it, since recovery only looks for the decision
+     * in the current log.
+     */
+    public synchronized void lastResourceCommitStarting( Xid xid )
+    {
+        lastResourceCommits.add( xid );
+    }
+
+    /**
+     * Tells this log that the transaction manager has recorded the decision of a last resource commit, so it may
+     * rotate again, see {@link #lastResourceCommitStarting(Xid)}.
+     */
+    public synchronized void lastResourceCommitRecorded( Xid xid )
+    {
+        lastResourceCommits.remove( xid );
+        if ( unrecordedLastResourceCommits.remove( xid ) )
+        {
+            notifyAll();
+        }
+    }
+
+    private void awaitLastResourceCommitsRecorded() throws IOException
+    {
+        while ( !unrecordedLastResourceCommits.isEmpty() )
+        {
+            try
+            {
+                wait();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException( "Interrupted waiting for last resource commits to be recorded" );
+            }
+        }
+    }
+
     // [COMMAND][identifier][COMMAND_DATA]
     public synchronized void writeCommand( XaCommand command, int identifier )
             throws IOException
@@ -489,6 +694,10 @@ public class XaLogicalLog implements LogLoader
             throw new IOException( "Unknown xid for identifier " + identifier );
         }
         Xid xid = entry.getXid();
+        if ( doingRecovery )
+        {
+            recoveredPreparesAndCommits.add( xid );
+        }
         if ( xaRm.injectPrepare( xid ) )
         {
             // read only we can remove
@@ -515,6 +724,16 @@ public class XaLogicalLog implements LogLoader
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             xaRm.injectOnePhaseCommit( xid );
             registerRecoveredTransaction( txId );
+            if ( doingRecovery )
+            {
+                recoveredOnePhaseCommits.add( xid );
+                recoveredPreparesAndCommits.add( xid );
+                List<BranchCopy> copies = recoveringBranchCopies.remove( identifier );
+                if ( copies != null )
+                {
+                    recoveredBranchCopies.addAll( copies );
+                }
+            }
         }
         catch ( XAException e )
         {
@@ -574,6 +793,10 @@ public class XaLogicalLog implements LogLoader
             positionCache.cacheStartPosition( txId, startEntry, logVersion );
             xaRm.injectTwoPhaseCommit( xid );
             registerRecoveredTransaction( txId );
+            if ( doingRecovery )
+            {
+                recoveredPreparesAndCommits.add( xid );
+            }
         }
         catch ( XAException e )
         {
@@ -590,6 +813,16 @@ public class XaLogicalLog implements LogLoader
             throw new IOException( "Null command for identifier " + identifier );
         }
         command.setRecovered();
+        if ( doingRecovery && command instanceof BranchCopy.Carrier )
+        {
+            List<BranchCopy> copies = recoveringBranchCopies.get( identifier );
+            if ( copies == null )
+            {
+                copies = new ArrayList<>();
+                recoveringBranchCopies.put( identifier, copies );
+            }
+            copies.add( ((BranchCopy.Carrier) command).getBranchCopy() );
+        }
         XaTransaction xaTx = recoveredTxMap.get( identifier );
         xaTx.injectCommand( command );
     }
@@ -597,7 +830,7 @@ public class XaLogicalLog implements LogLoader
     private void checkLogRotation() throws IOException
     {
         if ( autoRotate &&
-                writeBuffer.getFileChannelPosition() >= rotateAtSize )
+                writeBuffer.getFileChannelPosition() >= rotateAtSize && unrecordedLastResourceCommits.isEmpty() )
         {
             long currentPos = writeBuffer.getFileChannelPosition();
             long firstStartEntry = getFirstStartEntry( currentPos );
@@ -693,6 +926,11 @@ public class XaLogicalLog implements LogLoader
 
     public synchronized void close() throws IOException
     {
+        if ( groupCommitter != null )
+        {
+            groupCommitter.stop();
+            msgLog.info( groupCommitter.toString() );
+        }
         if ( fileChannel == null || !fileChannel.isOpen() )
         {
             msgLog.debug( "Logical log: " + fileName + " already closed" );
@@ -831,6 +1069,7 @@ public class XaLogicalLog implements LogLoader
             }
         }
         recoveredTxMap.clear();
+        recoveringBranchCopies.clear();
     }
 
     // for testing, do not use!
@@ -1365,6 +1604,9 @@ public class XaLogicalLog implements LogLoader
      * <li>Update the log version stored</li>
      * <p/>
      * <li>Instantiate the new log buffer</li>
+     * <p/>
+     * Waits for the decisions of last resource commits in the current log to be recorded by the transaction
+     * manager first, see {@link #lastResourceCommitStarting(Xid)}.
      *
      * @return the last tx in the produced log
      * @throws IOException I/O error.
@@ -1372,7 +1614,12 @@ public class XaLogicalLog implements LogLoader
     public synchronized long rotate() throws IOException
     {
 //        if ( writeBuffer.getFileChannelPosition() == LogIoUtils.LOG_HEADER_SIZE ) return xaTf.getLastCommittedTx();
+        awaitLastResourceCommitsRecorded();
         xaTf.flushAll();
+        xaRm.logRotating();
+        recoveredOnePhaseCommits.clear();
+        recoveredPreparesAndCommits.clear();
+        recoveredBranchCopies.clear();
         File newLogFile = logFiles.getLog2FileName();
         File currentLogFile = logFiles.getLog1FileName();
         char newActiveLog = LOG2;
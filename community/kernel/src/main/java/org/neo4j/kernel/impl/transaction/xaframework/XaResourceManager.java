@@ -405,7 +405,7 @@ public class XaResourceManager
         xaTransaction.commit();
     }
 
-    synchronized XaTransaction getXaTransaction( Xid xid ) throws XAException
+    public synchronized XaTransaction getXaTransaction( Xid xid ) throws XAException
     {
         XidStatus status = xidMap.get( xid );
         if ( status == null )
@@ -417,11 +417,25 @@ public class XaResourceManager
         return xaTransaction;
     }
 
+    /**
+     * Copies the prepared transaction with the given xid, see {@link XaLogicalLog#copyPreparedTransaction(Xid, int)}.
+     */
+    public synchronized BranchCopy copyPreparedTransaction( Xid xid ) throws IOException
+    {
+        XidStatus status = xidMap.get( xid );
+        if ( status == null || !status.getTransactionStatus().prepared() )
+        {
+            throw new IOException( "No prepared transaction for xid[" + xid + "]" );
+        }
+        return log.copyPreparedTransaction( xid, status.getTransactionStatus().getTransaction().getIdentifier() );
+    }
+
     /*synchronized(this) in the method*/ XaTransaction commit( Xid xid, boolean onePhase )
             throws XAException
     {
         XaTransaction xaTransaction;
         boolean isReadOnly;
+        long ticket = GroupCommitter.NO_TICKET;
 
         synchronized ( this )
         {
@@ -443,10 +457,16 @@ public class XaResourceManager
             }
             else
             {
-                commitWriteTx( xid, onePhase, xaTransaction, isReadOnly, txStatus, txIdGenerator );
+                ticket = appendWriteTx( onePhase, xaTransaction, txStatus, txIdGenerator );
+                applyWriteTx( xid, onePhase, xaTransaction, txStatus );
             }
         }
 
+        if ( ticket != GroupCommitter.NO_TICKET )
+        {
+            awaitCommitForced( xaTransaction.getIdentifier(), ticket );
+        }
+
         commitKernelTx( xaTransaction );
 
         if ( !xaTransaction.isRecovered() && !isReadOnly )
@@ -454,6 +474,28 @@ public class XaResourceManager
         return xaTransaction;
     }
 
+    /*
+     * With group commit a transaction is applied, and so becomes the last committed one, right after its commit
+     * entry has been written out. The force of the log comes after that, outside of the monitor of this resource
+     * manager, so that other transactions can append their commit entries meanwhile and share the force. If the
+     * transaction manager can, it waits for the force once it has released its own monitor as well.
+     */
+    private void awaitCommitForced( final int identifier, final long ticket ) throws XAException
+    {
+        PendingCommitForce force = new PendingCommitForce()
+        {
+            @Override
+            public void await() throws XAException
+            {
+                log.awaitCommitForced( identifier, ticket );
+            }
+        };
+        if ( transactionManager == null || !transactionManager.deferCommitForce( force ) )
+        {
+            force.await();
+        }
+    }
+
     private void commitReadTx( Xid xid, boolean onePhase, XaTransaction xaTransaction,
                                TransactionStatus txStatus ) throws XAException
     {
@@ -480,22 +522,29 @@ public class XaResourceManager
         }
     }
 
-    private void commitWriteTx( Xid xid, boolean onePhase, XaTransaction xaTransaction, boolean readOnly,
-                                TransactionStatus txStatus, TxIdGenerator txIdGenerator ) throws XAException
+    /**
+     * Writes the commit entry of a write transaction to the logical log.
+     *
+     * @return the ticket to wait for before the transaction is durable, see
+     * {@link XaLogicalLog#awaitCommitForced(int, long)}.
+     */
+    private long appendWriteTx( boolean onePhase, XaTransaction xaTransaction, TransactionStatus txStatus,
+                                TxIdGenerator txIdGenerator ) throws XAException
     {
         checkStartWritten( txStatus, xaTransaction );
 
+        long ticket = GroupCommitter.NO_TICKET;
         if ( onePhase )
         {
             txStatus.markAsPrepared();
-            if ( !readOnly && !xaTransaction.isRecovered() )
+            if ( !xaTransaction.isRecovered() )
             {
                 xaTransaction.prepare();
 
                 long txId = txIdGenerator.generate( dataSource,
                         xaTransaction.getIdentifier() );
                 xaTransaction.setCommitTxId( txId );
-                log.commitOnePhase( xaTransaction.getIdentifier(),
+                ticket = log.appendCommitOnePhase( xaTransaction.getIdentifier(),
                         xaTransaction.getCommitTxId(), getForceMode() );
             }
         }
@@ -504,31 +553,34 @@ public class XaResourceManager
             throw new XAException( "Transaction not prepared or "
                     + "(marked as) rolledbacked" );
         }
-        if ( !readOnly )
+        if ( !onePhase && !xaTransaction.isRecovered() )
         {
-            if ( !onePhase && !xaTransaction.isRecovered() )
+            long txId = txIdGenerator.generate( dataSource,
+                    xaTransaction.getIdentifier() );
+            xaTransaction.setCommitTxId( txId );
+            ticket = log.appendCommitTwoPhase( xaTransaction.getIdentifier(),
+                    xaTransaction.getCommitTxId(), getForceMode() );
+        }
+        return ticket;
+    }
+
+    private void applyWriteTx( Xid xid, boolean onePhase, XaTransaction xaTransaction,
+                               TransactionStatus txStatus ) throws XAException
+    {
+        txStatus.markCommitStarted();
+        if ( xaTransaction.isRecovered() && xaTransaction.getCommitTxId() == -1 )
+        {
+            boolean previousRecoveredValue = dataSource.setRecovered( true );
+            try
             {
-                long txId = txIdGenerator.generate( dataSource,
-                        xaTransaction.getIdentifier() );
-                xaTransaction.setCommitTxId( txId );
-                log.commitTwoPhase( xaTransaction.getIdentifier(),
-                        xaTransaction.getCommitTxId(), getForceMode() );
+                xaTransaction.setCommitTxId( dataSource.getLastCommittedTxId() + 1 );
             }
-            txStatus.markCommitStarted();
-            if ( xaTransaction.isRecovered() && xaTransaction.getCommitTxId() == -1 )
+            finally
             {
-                boolean previousRecoveredValue = dataSource.setRecovered( true );
-                try
-                {
-                    xaTransaction.setCommitTxId( dataSource.getLastCommittedTxId() + 1 );
-                }
-                finally
-                {
-                    dataSource.setRecovered( previousRecoveredValue );
-                }
+                dataSource.setRecovered( previousRecoveredValue );
             }
-            xaTransaction.commit();
         }
+        xaTransaction.commit();
         if ( !xaTransaction.isRecovered() )
         {
             log.done( xaTransaction.getIdentifier() );
@@ -553,6 +605,17 @@ public class XaResourceManager
         return transactionManager.getForceMode();
     }
 
+    /**
+     * Called before the logical log rotates away transactions which are no longer active.
+     */
+    void logRotating() throws IOException
+    {
+        if ( transactionManager != null )
+        {
+            transactionManager.logRotating( dataSource.getBranchId() );
+        }
+    }
+
     synchronized XaTransaction rollback( Xid xid ) throws XAException
     {
         XidStatus status = xidMap.get( xid );
@@ -788,6 +851,15 @@ public class XaResourceManager
         }
     }
 
+    /**
+     * Forces the transactions applied by {@link #applyCommittedTransaction(ReadableByteChannel, long)} since the
+     * last force, according to the configured force mode.
+     */
+    public synchronized void forceAppliedTransactions() throws IOException
+    {
+        log.force( getForceMode() );
+    }
+
     public synchronized long applyPreparedTransaction(
             ReadableByteChannel transaction ) throws IOException
     {
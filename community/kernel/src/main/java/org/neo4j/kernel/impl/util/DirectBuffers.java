@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees direct and mapped buffers right away, instead of whenever the garbage collector gets around to finalizing
+ * them, which for buffers that are released often may be long after the memory, or the address space, ran out.
+ */
+public class DirectBuffers
+{
+    private static final Method CLEANER = directBufferMethod( "sun.nio.ch.DirectBuffer", "cleaner" );
+    private static final Method CLEAN = CLEANER == null ? null : directBufferMethod( CLEANER.getReturnType().getName(), "clean" );
+
+    private DirectBuffers()
+    {
+    }
+
+    /**
+     * Frees the memory of a direct buffer, or unmaps a mapped one. The buffer must not be used after this, by anyone.
+     * Does nothing for heap buffers, or if this JVM doesn't let buffers be freed explicitly.
+     */
+    public static void free( ByteBuffer buffer )
+    {
+        if ( CLEAN == null || !buffer.isDirect() )
+        {
+            return;
+        }
+        try
+        {
+            Object cleaner = CLEANER.invoke( buffer );
+            if ( cleaner != null )
+            {
+                CLEAN.invoke( cleaner );
+            }
+        }
+        catch ( Exception e )
+        {   // Leave it to the garbage collector
+        }
+    }
+
+    private static Method directBufferMethod( String className, String methodName )
+    {
+        try
+        {
+            Method method = Class.forName( className ).getMethod( methodName );
+            method.setAccessible( true );
+            return method;
+        }
+        catch ( Exception | LinkageError e )
+        {   // Not available on this JVM, leave freeing to the garbage collector
+            return null;
+        }
+    }
+}
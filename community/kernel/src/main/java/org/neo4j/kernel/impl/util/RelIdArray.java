@@ -40,6 +40,7 @@ public class RelIdArray implements SizeOfObject
             new DirectionWrapper[] { DirectionWrapper.INCOMING, DirectionWrapper.BOTH };
     private static final DirectionWrapper[] DIRECTIONS_FOR_BOTH =
             new DirectionWrapper[] { DirectionWrapper.OUTGOING, DirectionWrapper.INCOMING, DirectionWrapper.BOTH };
+    private static final long[] EMPTY_IDS = new long[0];
 
     public static class EmptyRelIdArray extends RelIdArray
     {
@@ -238,6 +239,26 @@ public class RelIdArray implements SizeOfObject
         return direction.iterator( this );
     }
 
+    /**
+     * @return the ids added with exactly {@code direction}, where {@link DirectionWrapper#BOTH} are the loops.
+     * Unlike {@link #iterator(DirectionWrapper)} this doesn't include loops for the other directions.
+     */
+    public long[] getIds( DirectionWrapper direction )
+    {
+        IdBlock block = direction.getBlock( this );
+        if ( block == null )
+        {
+            return EMPTY_IDS;
+        }
+        long[] ids = new long[block.length()];
+        IteratorState state = new IteratorState( block, 0 );
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            ids[i] = block.get( i, state );
+        }
+        return ids;
+    }
+
     protected RelIdArray newSimilarInstance()
     {
         return new RelIdArray( type );
@@ -352,6 +373,10 @@ public class RelIdArray implements SizeOfObject
          */
         IdBlock shrink()
         {
+            if ( length() >= CompressedIdBlock.MIN_LENGTH )
+            {
+                return new CompressedIdBlock( this );
+            }
             return length() == capacity() ? this : copyAndShrink();
         }
 
@@ -410,6 +435,15 @@ public class RelIdArray implements SizeOfObject
 
         protected abstract long get( int index );
 
+        /**
+         * Same as {@link #get(int)}, but may use and update a decoding position kept in {@code state}
+         * when iterating sequentially.
+         */
+        long get( int index, IteratorState state )
+        {
+            return get( index );
+        }
+
         protected abstract void set( long id, int index );
     }
 
@@ -553,11 +587,19 @@ public class RelIdArray implements SizeOfObject
             {
                 arraycopy( ((LowIdBlock)source).ids, 1, ids, targetStartIndex, itemsToCopy );
             }
-            else
+            else if ( source instanceof HighIdBlock )
             {
                 arraycopy( ((HighIdBlock)source).ids, 1, ids, targetStartIndex, itemsToCopy );
                 arraycopy( ((HighIdBlock)source).highBits, 1, highBits, targetStartIndex, itemsToCopy );
             }
+            else
+            {
+                IteratorState state = new IteratorState( source, 0 );
+                for ( int i = 0; i < itemsToCopy; i++ )
+                {
+                    set( source.get( i, state ), targetStartIndex - 1 + i );
+                }
+            }
         }
 
         @Override
@@ -619,10 +661,229 @@ public class RelIdArray implements SizeOfObject
         }
     }
 
+    /**
+     * An {@link IdBlock} for blocks that are done loading, see {@link IdBlock#shrink()}. Each id is stored as the
+     * zig-zag var-int encoded difference to the previous one, which for the mostly increasing ids of a relationship
+     * chain typically takes a single byte. Every {@link #CHECKPOINT_INTERVAL}th id is stored in full and its
+     * position in {@link #data} is kept in {@link #checkpoints}, to not have to decode from the start for every
+     * {@link #get(int)}. Iteration decodes sequentially using the position kept in the {@link IteratorState}.
+     * <p>
+     * The encoded ids never change, ids added afterwards, f.ex. when committing new relationships, go into
+     * a regular block, the tail, until this block gets {@link #shrink() shrunk} again.
+     */
+    private static class CompressedIdBlock extends IdBlock
+    {
+        static final int MIN_LENGTH = 64;
+        private static final int CHECKPOINT_SHIFT = 6;
+        private static final int CHECKPOINT_INTERVAL = 1 << CHECKPOINT_SHIFT;
+        private static final int CHECKPOINT_MASK = CHECKPOINT_INTERVAL - 1;
+
+        private final byte[] data;
+        private final int[] checkpoints;
+        private final int count;
+        private IdBlock tail;
+
+        CompressedIdBlock( IdBlock source )
+        {
+            int length = source.length();
+            byte[] buffer = new byte[length * 2 + 10];
+            int[] checkpoints = new int[(length + CHECKPOINT_MASK) >>> CHECKPOINT_SHIFT];
+            int position = 0;
+            long previous = 0;
+            IteratorState sourceState = new IteratorState( source, 0 );
+            for ( int i = 0; i < length; i++ )
+            {
+                if ( buffer.length - position < 10 )
+                {
+                    buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+                }
+                long id = source.get( i, sourceState );
+                if ( (i & CHECKPOINT_MASK) == 0 )
+                {
+                    checkpoints[i >>> CHECKPOINT_SHIFT] = position;
+                    position = write( id, buffer, position );
+                }
+                else
+                {
+                    long delta = id - previous;
+                    position = write( (delta << 1) ^ (delta >> 63), buffer, position );
+                }
+                previous = id;
+            }
+            this.data = Arrays.copyOf( buffer, position );
+            this.checkpoints = checkpoints;
+            this.count = length;
+        }
+
+        private static int write( long value, byte[] target, int position )
+        {
+            while ( (value & ~0x7FL) != 0 )
+            {
+                target[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            target[position++] = (byte) value;
+            return position;
+        }
+
+        @Override
+        public int sizeOfObjectInBytesIncludingOverhead()
+        {
+            return withObjectOverhead( withReference( withArrayOverhead( data.length ) ) +
+                    withReference( withArrayOverhead( 4*checkpoints.length ) ) + 4/*count*/ +
+                    sizeOfBlockWithReference( tail ) );
+        }
+
+        @Override
+        protected boolean accepts( long id )
+        {
+            return true;
+        }
+
+        @Override
+        protected boolean accepts( IdBlock block )
+        {
+            return true;
+        }
+
+        @Override
+        void add( long id )
+        {
+            IdBlock localTail = tail;
+            if ( localTail == null )
+            {
+                localTail = LowIdBlock.idIsLow( id ) ? new LowIdBlock() : new HighIdBlock();
+            }
+            else if ( !localTail.accepts( id ) )
+            {
+                localTail = localTail.upgradeToHighIdBlock();
+            }
+            localTail.add( id );
+            tail = localTail;
+        }
+
+        @Override
+        void addAll( IdBlock block )
+        {
+            IteratorState state = new IteratorState( block, 0 );
+            for ( int i = 0, length = block.length(); i < length; i++ )
+            {
+                add( block.get( i, state ) );
+            }
+        }
+
+        @Override
+        IdBlock shrink()
+        {
+            IdBlock localTail = tail;
+            return localTail == null || localTail.length() == 0 ? this : new CompressedIdBlock( this );
+        }
+
+        @Override
+        protected IdBlock copyAndShrink()
+        {
+            // Copies are for modifying, so decompress
+            int length = length();
+            IdBlock copy = new HighIdBlock();
+            copy.extendArrayTo( 0, length );
+            IteratorState state = new IteratorState( this, 0 );
+            for ( int i = 0; i < length; i++ )
+            {
+                copy.set( get( i, state ), i );
+            }
+            copy.setLength( length );
+            return copy;
+        }
+
+        @Override
+        IdBlock upgradeToHighIdBlock()
+        {
+            return this;
+        }
+
+        @Override
+        protected void extendArrayTo( int numberOfItemsToCopy, int newLength )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void setLength( int length )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected int length()
+        {
+            IdBlock localTail = tail;
+            return localTail == null ? count : count + localTail.length();
+        }
+
+        @Override
+        protected int capacity()
+        {
+            return length();
+        }
+
+        @Override
+        protected void append( IdBlock source, int targetStartIndex, int itemsToCopy )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected long get( int index )
+        {
+            return get( index, new IteratorState( this, 0 ) );
+        }
+
+        @Override
+        long get( int index, IteratorState state )
+        {
+            if ( index >= count )
+            {
+                return tail.get( index - count );
+            }
+            int checkpointIndex = index & ~CHECKPOINT_MASK;
+            if ( state.decodedIndex < checkpointIndex - 1 || state.decodedIndex >= index )
+            {   // Not decoding sequentially, start from the closest checkpoint
+                state.decodedIndex = checkpointIndex - 1;
+                state.decodedPosition = checkpoints[checkpointIndex >>> CHECKPOINT_SHIFT];
+            }
+            while ( state.decodedIndex < index )
+            {
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do
+                {
+                    b = data[state.decodedPosition++];
+                    value |= (b & 0x7FL) << shift;
+                    shift += 7;
+                }
+                while ( b < 0 );
+                state.decodedId = (++state.decodedIndex & CHECKPOINT_MASK) == 0 ? value :
+                        state.decodedId + ((value >>> 1) ^ -(value & 1));
+            }
+            return state.decodedId;
+        }
+
+        @Override
+        protected void set( long id, int index )
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private static class IteratorState
     {
         private IdBlock block;
         private int relativePosition;
+        // Decoding position in a CompressedIdBlock
+        private int decodedIndex = -1;
+        private int decodedPosition;
+        private long decodedId;
 
         public IteratorState( IdBlock block, int relativePosition )
         {
@@ -640,13 +901,14 @@ public class RelIdArray implements SizeOfObject
          */
         long next()
         {
-            long id = block.get( relativePosition++ );
+            long id = block.get( relativePosition++, this );
             return id;
         }
 
         public void update( IdBlock block )
         {
             this.block = block;
+            this.decodedIndex = -1;
         }
     }
 
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -69,6 +70,7 @@ import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.extension.KernelExtensions;
 import org.neo4j.kernel.extension.UnsatisfiedDependencyStrategies;
 import org.neo4j.kernel.impl.api.SchemaCache;
+import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.index.StoreScan;
@@ -94,6 +96,8 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
@@ -213,8 +217,17 @@ public class BatchInserterImpl implements BatchInserter
         SchemaIndexProvider provider = extensions.resolveDependency( SchemaIndexProvider.class,
                 SchemaIndexProvider.HIGHEST_PRIORITIZED_OR_NONE );
         schemaIndexProviders = new DefaultSchemaIndexProviderMap( provider );
-        labelScanStore = life.add( extensions.resolveDependency( LabelScanStoreProvider.class,
-                LabelScanStoreProvider.HIGHEST_PRIORITIZED ).getLabelScanStore() );
+        LabelScanStoreProvider labelScanStoreProvider = extensions.resolveDependency( LabelScanStoreProvider.class,
+                LabelScanStoreProvider.HIGHEST_PRIORITIZED );
+        try
+        {
+            labelScanStoreProvider.makeAuthoritative( neoStore.getLastCommittedTx(), msgLog );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Could not select the label scan store", e );
+        }
+        labelScanStore = life.add( labelScanStoreProvider.getLabelScanStore() );
         actions = new BatchSchemaActions();
     }
 
@@ -294,13 +307,18 @@ public class BatchInserterImpl implements BatchInserter
         return new IndexCreatorImpl( actions, label );
     }
 
-    private void createIndexRule( Label label, String propertyKey )
+    private void createIndexRule( Label label, String... propertyKeys )
     {
         // TODO: Do not create duplicate index
 
+        int[] propertyKeyIds = new int[propertyKeys.length];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            propertyKeyIds[i] = getOrCreatePropertyKeyId( propertyKeys[i] );
+        }
         SchemaStore schemaStore = getSchemaStore();
         IndexRule schemaRule = IndexRule.indexRule( schemaStore.nextId(), getOrCreateLabelId( label.name() ),
-                                                    getOrCreatePropertyKeyId( propertyKey ),
+                                                    propertyKeyIds,
                                                     this.schemaIndexProviders.getDefaultProvider()
                                                                              .getProviderDescriptor() );
         for ( DynamicRecord record : schemaStore.allocateFrom( schemaRule ) )
@@ -312,7 +330,13 @@ public class BatchInserterImpl implements BatchInserter
 
     private void repopulateAllIndexes() throws IOException
     {
-        final IndexRule[] rules = getIndexesNeedingPopulation();
+        List<IndexRule> singleRules = new ArrayList<>();
+        List<IndexRule> compositeRules = new ArrayList<>();
+        for ( IndexRule rule : getIndexesNeedingPopulation() )
+        {
+            (rule.isComposite() ? compositeRules : singleRules).add( rule );
+        }
+        final IndexRule[] rules = singleRules.toArray( new IndexRule[singleRules.size()] );
         final IndexPopulator[] populators = new IndexPopulator[rules.length];
         IndexStoreView storeView = new NeoStoreIndexStoreView( neoStore );
 
@@ -368,6 +392,47 @@ public class BatchInserterImpl implements BatchInserter
             populator.close( true );
         }
         labelUpdateVisitor.close();
+
+        // Composite indexes need all of their properties at once, they share a scan of their own
+        if ( !compositeRules.isEmpty() )
+        {
+            populateCompositeIndexes( storeView, compositeRules );
+        }
+    }
+
+    private void populateCompositeIndexes( IndexStoreView storeView, List<IndexRule> rules ) throws IOException
+    {
+        Map<IndexDescriptor, Visitor<NodePropertyUpdate, IOException>> visitors = new LinkedHashMap<>();
+        List<IndexPopulator> populators = new ArrayList<>();
+        for ( IndexRule rule : rules )
+        {
+            final IndexDescriptor descriptor = new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
+            final IndexPopulator populator = schemaIndexProviders.apply( rule.getProviderDescriptor() ).getPopulator(
+                    rule.getId(), new IndexConfiguration( rule.isConstraintIndex() ) );
+            populator.create();
+            populators.add( populator );
+            visitors.put( descriptor, new Visitor<NodePropertyUpdate, IOException>()
+            {
+                @Override
+                public boolean visit( NodePropertyUpdate update ) throws IOException
+                {
+                    try
+                    {
+                        populator.add( update.getNodeId(), update.getValueAfter() );
+                    }
+                    catch ( IndexEntryConflictException conflict )
+                    {
+                        throw conflict.notAllowed( descriptor );
+                    }
+                    return false;
+                }
+            } );
+        }
+        storeView.visitNodesWithPropertyAndLabel( visitors ).run();
+        for ( IndexPopulator populator : populators )
+        {
+            populator.close( true );
+        }
     }
 
     private class NodeLabelUpdateVisitor implements Visitor<NodeLabelUpdate, IOException>
@@ -629,7 +694,7 @@ public class BatchInserterImpl implements BatchInserter
         return result;
     }
 
-    private int getOrCreatePropertyKeyId( String name )
+    int getOrCreatePropertyKeyId( String name )
     {
         int propertyKeyId = getPropertyKeyId( name );
         if ( propertyKeyId == -1 )
@@ -644,7 +709,7 @@ public class BatchInserterImpl implements BatchInserter
         return propertyKeyTokens.idOf( name );
     }
 
-    private int getOrCreateLabelId( String name )
+    int getOrCreateLabelId( String name )
     {
         int labelId = getLabelId( name );
         if ( labelId == -1 )
@@ -654,6 +719,16 @@ public class BatchInserterImpl implements BatchInserter
         return labelId;
     }
 
+    int getOrCreateRelationshipTypeId( String name )
+    {
+        int typeId = relationshipTypeTokens.idOf( name );
+        if ( typeId == -1 )
+        {
+            typeId = createNewRelationshipType( name );
+        }
+        return typeId;
+    }
+
     private int getLabelId( String name )
     {
         return labelTokens.idOf( name );
@@ -703,6 +778,7 @@ public class BatchInserterImpl implements BatchInserter
                                                 Record.NO_NEXT_PROPERTY.intValue() );
         nodeRecord.setInUse( true );
         nodeRecord.setCreated();
+        nodeRecord.setDegreeHint( 0 );
         nodeRecord.setNextProp( createPropertyChain( properties ) );
 
         setNodeLabels( nodeRecord, labels );
@@ -799,19 +875,18 @@ public class BatchInserterImpl implements BatchInserter
             type, Map<String, Object> properties )
     {
         NodeRecord firstNode = getNodeRecord( node1 );
-        NodeRecord secondNode = getNodeRecord( node2 );
-        int typeId = relationshipTypeTokens.idOf( type.name() );
-        if ( typeId == -1 )
-        {
-            typeId = createNewRelationshipType( type.name() );
-        }
+        NodeRecord secondNode = node1 == node2 ? firstNode : getNodeRecord( node2 );
+        int typeId = getOrCreateRelationshipTypeId( type.name() );
         long id = getRelationshipStore().nextId();
         RelationshipRecord record = new RelationshipRecord( id, node1, node2, typeId );
         record.setInUse( true );
         record.setCreated();
         connectRelationship( firstNode, secondNode, record );
         getNodeStore().updateRecord( firstNode );
-        getNodeStore().updateRecord( secondNode );
+        if ( secondNode != firstNode )
+        {
+            getNodeStore().updateRecord( secondNode );
+        }
         record.setNextProp( createPropertyChain( properties ) );
         getRelationshipStore().updateRecord( record );
         return id;
@@ -822,12 +897,171 @@ public class BatchInserterImpl implements BatchInserter
     {
         assert firstNode.getNextRel() != rel.getId();
         assert secondNode.getNextRel() != rel.getId();
-        rel.setFirstNextRel( firstNode.getNextRel() );
-        rel.setSecondNextRel( secondNode.getNextRel() );
-        connect( firstNode, rel );
-        connect( secondNode, rel );
-        firstNode.setNextRel( rel.getId() );
-        secondNode.setNextRel( rel.getId() );
+        boolean firstDense = upgradeToDenseIfNeeded( firstNode );
+        boolean secondDense = secondNode == firstNode ? firstDense : upgradeToDenseIfNeeded( secondNode );
+        if ( firstDense )
+        {
+            connectToGroup( firstNode, rel );
+        }
+        else
+        {
+            rel.setNextRel( firstNode.getId(), firstNode.getNextRel() );
+            connect( firstNode, rel );
+            firstNode.setNextRel( rel.getId() );
+        }
+        if ( secondNode == firstNode )
+        {
+            return;
+        }
+        if ( secondDense )
+        {
+            connectToGroup( secondNode, rel );
+        }
+        else
+        {
+            rel.setNextRel( secondNode.getId(), secondNode.getNextRel() );
+            connect( secondNode, rel );
+            secondNode.setNextRel( rel.getId() );
+        }
+    }
+
+    /**
+     * Same as in {@link org.neo4j.kernel.impl.nioneo.xa.WriteTransaction}, nodes reaching the dense node threshold
+     * get their relationship chain split up into one chain per type and direction, referenced from groups.
+     *
+     * @return whether or not {@code node} is dense after this call.
+     */
+    private boolean upgradeToDenseIfNeeded( NodeRecord node )
+    {
+        if ( node.isDense() )
+        {
+            return true;
+        }
+
+        int threshold = neoStore.getDenseNodeThreshold();
+        int degree = node.getDegreeHint();
+        if ( degree == NodeRecord.UNKNOWN_DEGREE && threshold > 0 )
+        {
+            degree = 0;
+            long relId = node.getNextRel();
+            while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() && degree < threshold )
+            {
+                relId = getRelationshipRecord( relId ).getNextRel( node.getId() );
+                degree++;
+            }
+        }
+        if ( degree != NodeRecord.UNKNOWN_DEGREE )
+        {
+            degree++; // for the relationship about to be connected
+        }
+        if ( threshold > 0 && degree >= threshold )
+        {
+            upgradeToDense( node );
+            return true;
+        }
+        node.setDegreeHint( degree );
+        return false;
+    }
+
+    private void upgradeToDense( NodeRecord node )
+    {
+        long nodeId = node.getId();
+        // Groups by type, and per group the last relationship of each of its chains, written when it gets a next
+        Map<Integer, RelationshipGroupRecord> groups = new HashMap<>();
+        Map<Integer, RelationshipRecord[]> lastInChains = new HashMap<>();
+        long relId = node.getNextRel();
+        node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
+        while ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord rel = getRelationshipRecord( relId );
+            long nextRelId = rel.getNextRel( nodeId );
+
+            int type = rel.getType();
+            RelationshipGroupRecord group = groups.get( type );
+            RelationshipRecord[] lastInChain = lastInChains.get( type );
+            if ( group == null )
+            {
+                group = createGroup( node, type );
+                groups.put( type, group );
+                lastInChain = new RelationshipRecord[3];
+                lastInChains.put( type, lastInChain );
+            }
+            int chain = RelationshipGroupRecord.chainOf( rel, nodeId );
+            RelationshipRecord previous = lastInChain[chain];
+            if ( previous == null )
+            {
+                group.setFirstInChain( chain, relId );
+                rel.setPrevRel( nodeId, Record.NO_PREV_RELATIONSHIP.intValue() );
+            }
+            else
+            {
+                previous.setNextRel( nodeId, relId );
+                getRelationshipStore().updateRecord( previous );
+                rel.setPrevRel( nodeId, previous.getId() );
+            }
+            rel.setNextRel( nodeId, Record.NO_NEXT_RELATIONSHIP.intValue() );
+            lastInChain[chain] = rel;
+            relId = nextRelId;
+        }
+        for ( RelationshipRecord[] lastInChain : lastInChains.values() )
+        {
+            for ( RelationshipRecord rel : lastInChain )
+            {
+                if ( rel != null )
+                {
+                    getRelationshipStore().updateRecord( rel );
+                }
+            }
+        }
+        for ( RelationshipGroupRecord group : groups.values() )
+        {
+            getRelationshipGroupStore().updateRecord( group );
+        }
+        node.setDense( true );
+        node.setDegreeHint( NodeRecord.UNKNOWN_DEGREE );
+    }
+
+    private void connectToGroup( NodeRecord node, RelationshipRecord rel )
+    {
+        long nodeId = node.getId();
+        RelationshipGroupRecord group = getOrCreateGroup( node, rel.getType() );
+        int chain = RelationshipGroupRecord.chainOf( rel, nodeId );
+        long firstInChain = group.getFirstInChain( chain );
+        rel.setNextRel( nodeId, firstInChain );
+        if ( firstInChain != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord nextRel = getRelationshipRecord( firstInChain );
+            nextRel.setPrevRel( nodeId, rel.getId() );
+            getRelationshipStore().updateRecord( nextRel );
+        }
+        group.setFirstInChain( chain, rel.getId() );
+        getRelationshipGroupStore().updateRecord( group );
+    }
+
+    private RelationshipGroupRecord getOrCreateGroup( NodeRecord node, int type )
+    {
+        long groupId = node.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = getRelationshipGroupStore().getRecord( groupId );
+            if ( group.getType() == type )
+            {
+                return group;
+            }
+            groupId = group.getNext();
+        }
+        return createGroup( node, type );
+    }
+
+    private RelationshipGroupRecord createGroup( NodeRecord node, int type )
+    {
+        RelationshipGroupRecord group = new RelationshipGroupRecord( getRelationshipGroupStore().nextId(), type );
+        group.setInUse( true );
+        group.setCreated();
+        group.setOwningNode( node.getId() );
+        group.setNext( node.getNextRel() );
+        node.setNextRel( group.getId() );
+        return group;
     }
 
     private void connect( NodeRecord node, RelationshipRecord rel )
@@ -916,29 +1150,10 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<Long> getRelationshipIds( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<Long> ids = new ArrayList<>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             ids.add( relRecord.getId() );
-            long firstNode = relRecord.getFirstNode();
-            long secondNode = relRecord.getSecondNode();
-            if ( firstNode == nodeId )
-            {
-                nextRel = relRecord.getFirstNextRel();
-            }
-            else if ( secondNode == nodeId )
-            {
-                nextRel = relRecord.getSecondNextRel();
-            }
-            else
-            {
-                throw new InvalidRecordException( "Node[" + nodeId +
-                                                  "] not part of firstNode[" + firstNode +
-                                                  "] or secondNode[" + secondNode + "]" );
-            }
         }
         return ids;
     }
@@ -946,16 +1161,44 @@ public class BatchInserterImpl implements BatchInserter
     @Override
     public Iterable<BatchRelationship> getRelationships( long nodeId )
     {
-        NodeRecord nodeRecord = getNodeRecord( nodeId );
-        long nextRel = nodeRecord.getNextRel();
         List<BatchRelationship> rels = new ArrayList<>();
-        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        for ( RelationshipRecord relRecord : getRelationshipRecords( nodeId ) )
         {
-            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
             RelationshipType type = new RelationshipTypeImpl(
                     relationshipTypeTokens.nameOf( relRecord.getType() ) );
             rels.add( new BatchRelationship( relRecord.getId(),
                                              relRecord.getFirstNode(), relRecord.getSecondNode(), type ) );
+        }
+        return rels;
+    }
+
+    private List<RelationshipRecord> getRelationshipRecords( long nodeId )
+    {
+        NodeRecord nodeRecord = getNodeRecord( nodeId );
+        List<RelationshipRecord> rels = new ArrayList<>();
+        if ( !nodeRecord.isDense() )
+        {
+            addRelationshipRecords( nodeId, nodeRecord.getNextRel(), rels );
+            return rels;
+        }
+        long groupId = nodeRecord.getNextRel();
+        while ( groupId != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipGroupRecord group = getRelationshipGroupStore().getRecord( groupId );
+            addRelationshipRecords( nodeId, group.getFirstOut(), rels );
+            addRelationshipRecords( nodeId, group.getFirstIn(), rels );
+            addRelationshipRecords( nodeId, group.getFirstLoop(), rels );
+            groupId = group.getNext();
+        }
+        return rels;
+    }
+
+    private void addRelationshipRecords( long nodeId, long nextRel, List<RelationshipRecord> rels )
+    {
+        while ( nextRel != Record.NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            RelationshipRecord relRecord = getRelationshipRecord( nextRel );
+            rels.add( relRecord );
             long firstNode = relRecord.getFirstNode();
             long secondNode = relRecord.getSecondNode();
             if ( firstNode == nodeId )
@@ -973,7 +1216,6 @@ public class BatchInserterImpl implements BatchInserter
                                                   "] or secondNode[" + secondNode + "]" );
             }
         }
-        return rels;
     }
 
     @Override
@@ -1203,6 +1445,11 @@ public class BatchInserterImpl implements BatchInserter
         return id;
     }
 
+    NeoStore getNeoStore()
+    {
+        return neoStore;
+    }
+
     private NodeStore getNodeStore()
     {
         return neoStore.getNodeStore();
@@ -1223,6 +1470,11 @@ public class BatchInserterImpl implements BatchInserter
         return neoStore.getRelationshipStore();
     }
 
+    private RelationshipGroupStore getRelationshipGroupStore()
+    {
+        return neoStore.getRelationshipGroupStore();
+    }
+
     private RelationshipTypeTokenStore getRelationshipTypeStore()
     {
         return neoStore.getRelationshipTypeStore();
@@ -1304,14 +1556,14 @@ public class BatchInserterImpl implements BatchInserter
     private class BatchSchemaActions implements InternalSchemaActions
     {
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
-            createIndexRule( label, propertyKey );
-            return new IndexDefinitionImpl( this, label, propertyKey, false );
+            createIndexRule( label, propertyKeys );
+            return new IndexDefinitionImpl( this, label, propertyKeys, false );
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
             throw unsupportedException();
         }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.batchinsert;
+
+import java.util.Map;
+
+import org.neo4j.graphdb.Label;
+
+/**
+ * A node to import with a {@link ParallelBatchImporter}. Nodes don't carry ids, the n:th imported
+ * node gets id n.
+ */
+public final class InputNode
+{
+    private final Map<String, Object> properties;
+    private final Label[] labels;
+
+    public InputNode( Map<String, Object> properties, Label... labels )
+    {
+        this.properties = properties;
+        this.labels = labels;
+    }
+
+    public Map<String, Object> getProperties()
+    {
+        return properties;
+    }
+
+    public Label[] getLabels()
+    {
+        return labels;
+    }
+}
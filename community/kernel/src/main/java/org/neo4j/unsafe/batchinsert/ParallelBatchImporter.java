@@ -0,0 +1,566 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.batchinsert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.IdGeneratorImpl;
+import org.neo4j.kernel.impl.nioneo.store.IdRange;
+import org.neo4j.kernel.impl.nioneo.store.NeoStore;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.nioneo.store.PrimitiveRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
+import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.PropertyStore;
+import org.neo4j.kernel.impl.nioneo.store.PropertyType;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipStore;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
+import static org.neo4j.kernel.impl.nioneo.store.labels.NodeLabelsField.parseLabelsField;
+import static org.neo4j.kernel.impl.util.IoPrimitiveUtils.safeCastLongToInt;
+
+/**
+ * Imports a whole graph into an empty store, using several threads. Compared to creating the
+ * nodes and relationships one by one with a {@link BatchInserter} the import is staged:
+ * <ol>
+ * <li>Nodes are read in batches, each batch gets a range of node ids and its records,
+ * properties and labels are encoded on one of the import threads. Property record ids are
+ * allocated in batches by each thread. Encoded batches are written in id order.</li>
+ * <li>Relationships are imported the same way, except that relationship chains are built
+ * while writing, without reading back any node records, by keeping the latest relationship
+ * of each node in memory. This sets the next pointers of each relationship.</li>
+ * <li>The first relationship of each node is written to the node store in one pass.</li>
+ * <li>The previous pointers of each relationship are set in one pass over the relationship
+ * store in reverse id order.</li>
+ * </ol>
+ * All store files are thereby written sequentially, at the cost of keeping one {@code long}
+ * per node in memory.
+ * <p>
+ * The batch inserter mustn't be used while importing, and should be {@link BatchInserter#shutdown() shut down}
+ * afterwards as usual, which is when indexes and the label scan store are populated. Nodes are imported
+ * with a single relationship chain regardless of their degree.
+ */
+public class ParallelBatchImporter
+{
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+    private static final int PROPERTY_ID_BATCH_SIZE = 1000;
+    private static final int BATCHES_IN_FLIGHT_PER_THREAD = 2;
+
+    private final BatchInserterImpl inserter;
+    private final NeoStore neoStore;
+    private final int numberOfThreads;
+    private final int batchSize;
+    private final Object tokenLock = new Object();
+    private final ConcurrentMap<String, Integer> propertyKeyIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> labelIds = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> relationshipTypeIds = new ConcurrentHashMap<>();
+    private final ThreadLocal<IdBatch> propertyIds = new ThreadLocal<>();
+    private final Collection<IdBatch> allPropertyIds = new ConcurrentLinkedQueue<>();
+
+    public ParallelBatchImporter( BatchInserter inserter, int numberOfThreads )
+    {
+        this( inserter, numberOfThreads, DEFAULT_BATCH_SIZE );
+    }
+
+    public ParallelBatchImporter( BatchInserter inserter, int numberOfThreads, int batchSize )
+    {
+        if ( !(inserter instanceof BatchInserterImpl) )
+        {
+            throw new IllegalArgumentException( "Can't import into " + inserter );
+        }
+        if ( numberOfThreads < 1 || batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "numberOfThreads=" + numberOfThreads + ", batchSize=" + batchSize );
+        }
+        this.inserter = (BatchInserterImpl) inserter;
+        this.neoStore = this.inserter.getNeoStore();
+        this.numberOfThreads = numberOfThreads;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports the given nodes and relationships. The n:th node gets id n and relationships refer to
+     * nodes by those ids.
+     *
+     * @param nodes the nodes to import.
+     * @param relationships the relationships to import.
+     * @throws IllegalStateException if the store already contains nodes or relationships.
+     */
+    public void doImport( Iterator<InputNode> nodes, Iterator<InputRelationship> relationships )
+    {
+        NodeStore nodeStore = neoStore.getNodeStore();
+        RelationshipStore relationshipStore = neoStore.getRelationshipStore();
+        if ( nodeStore.getHighId() != 0 || relationshipStore.getHighId() != 0 )
+        {
+            throw new IllegalStateException( "Can only import into an empty store, but " +
+                                             inserter.getStoreDir() + " has nodes or relationships" );
+        }
+
+        long[] relationshipHeads;
+        ExecutorService executor = Executors.newFixedThreadPool( numberOfThreads,
+                                                                  new NamedThreadFactory( "Batch import" ) );
+        try
+        {
+            runStage( executor, nodes, nodeStore, new NodeEncoder(), new NodeWriter() );
+
+            relationshipHeads = new long[safeCastLongToInt( nodeStore.getHighId() )];
+            Arrays.fill( relationshipHeads, Record.NO_NEXT_RELATIONSHIP.intValue() );
+            runStage( executor, relationships, relationshipStore, new RelationshipEncoder( relationshipHeads.length ),
+                      new RelationshipWriter( relationshipHeads ) );
+        }
+        finally
+        {
+            executor.shutdownNow();
+            freeUnusedPropertyIds();
+        }
+
+        linkNodesToRelationships( relationshipHeads );
+        linkPreviousRelationships( relationshipHeads );
+    }
+
+    private <INPUT, RECORD extends PrimitiveRecord> void runStage( ExecutorService executor, Iterator<INPUT> input,
+            CommonAbstractStore store, final Encoder<INPUT, RECORD> encoder, Writer<RECORD> writer )
+    {
+        Deque<Future<Batch<RECORD>>> inFlight = new ArrayDeque<>();
+        while ( input.hasNext() )
+        {
+            final List<INPUT> items = new ArrayList<>( batchSize );
+            while ( input.hasNext() && items.size() < batchSize )
+            {
+                items.add( input.next() );
+            }
+            final long firstId = firstIdOf( store.nextIdBatch( items.size() ) );
+            inFlight.addLast( executor.submit( new Callable<Batch<RECORD>>()
+            {
+                @Override
+                public Batch<RECORD> call()
+                {
+                    return encoder.encode( firstId, items );
+                }
+            } ) );
+
+            // Batches are written in order, while later batches are being encoded
+            if ( inFlight.size() >= numberOfThreads * BATCHES_IN_FLIGHT_PER_THREAD )
+            {
+                writer.write( await( inFlight.removeFirst() ) );
+            }
+        }
+        while ( !inFlight.isEmpty() )
+        {
+            writer.write( await( inFlight.removeFirst() ) );
+        }
+    }
+
+    private static long firstIdOf( IdRange ids )
+    {
+        long lastId = ids.getRangeStart() + ids.getRangeLength() - 1;
+        if ( ids.getDefragIds().length > 0 ||
+             (ids.getRangeStart() <= IdGeneratorImpl.INTEGER_MINUS_ONE && lastId >= IdGeneratorImpl.INTEGER_MINUS_ONE) )
+        {
+            throw new IllegalStateException( "Can't import records into non-sequential ids " + ids );
+        }
+        return ids.getRangeStart();
+    }
+
+    private static <T> T await( Future<T> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while importing", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw launderedException( e.getCause() );
+        }
+    }
+
+    private void linkNodesToRelationships( long[] relationshipHeads )
+    {
+        NodeStore nodeStore = neoStore.getNodeStore();
+        for ( int nodeId = 0; nodeId < relationshipHeads.length; nodeId++ )
+        {
+            if ( relationshipHeads[nodeId] != Record.NO_NEXT_RELATIONSHIP.intValue() )
+            {
+                NodeRecord node = nodeStore.getRecord( nodeId );
+                node.setNextRel( relationshipHeads[nodeId] );
+                nodeStore.updateRecord( node );
+            }
+        }
+    }
+
+    /**
+     * Going through the relationships backwards the previous relationship in the chain of a node is
+     * the one last seen for that node.
+     */
+    private void linkPreviousRelationships( long[] nextRelationships )
+    {
+        Arrays.fill( nextRelationships, Record.NO_PREV_RELATIONSHIP.intValue() );
+        RelationshipStore relationshipStore = neoStore.getRelationshipStore();
+        for ( long id = relationshipStore.getHighId() - 1; id >= 0; id-- )
+        {
+            RelationshipRecord relationship = relationshipStore.getRecord( id );
+            int firstNode = (int) relationship.getFirstNode();
+            int secondNode = (int) relationship.getSecondNode();
+            relationship.setFirstPrevRel( nextRelationships[firstNode] );
+            relationship.setSecondPrevRel( nextRelationships[secondNode] );
+            nextRelationships[firstNode] = id;
+            nextRelationships[secondNode] = id;
+            if ( relationship.getFirstPrevRel() != Record.NO_PREV_RELATIONSHIP.intValue() ||
+                 relationship.getSecondPrevRel() != Record.NO_PREV_RELATIONSHIP.intValue() )
+            {
+                relationshipStore.updateRecord( relationship );
+            }
+        }
+    }
+
+    private long createPropertyChain( Map<String, Object> properties, List<PropertyRecord> records )
+    {
+        if ( properties == null || properties.isEmpty() )
+        {
+            return Record.NO_NEXT_PROPERTY.intValue();
+        }
+        PropertyStore propertyStore = neoStore.getPropertyStore();
+        IdBatch ids = propertyIds();
+        PropertyRecord first = newPropertyRecord( ids.next() );
+        PropertyRecord current = first;
+        records.add( current );
+        for ( Entry<String, Object> property : properties.entrySet() )
+        {
+            PropertyBlock block = new PropertyBlock();
+            propertyStore.encodeValue( block, propertyKeyId( property.getKey() ), property.getValue() );
+            if ( current.size() + block.getSize() > PropertyType.getPayloadSize() )
+            {
+                PropertyRecord previous = current;
+                current = newPropertyRecord( ids.next() );
+                previous.setNextProp( current.getId() );
+                current.setPrevProp( previous.getId() );
+                records.add( current );
+            }
+            current.addPropertyBlock( block );
+        }
+        return first.getId();
+    }
+
+    private static PropertyRecord newPropertyRecord( long id )
+    {
+        PropertyRecord record = new PropertyRecord( id );
+        record.setInUse( true );
+        record.setCreated();
+        return record;
+    }
+
+    private IdBatch propertyIds()
+    {
+        IdBatch ids = propertyIds.get();
+        if ( ids == null )
+        {
+            ids = new IdBatch( neoStore.getPropertyStore(), PROPERTY_ID_BATCH_SIZE );
+            propertyIds.set( ids );
+            allPropertyIds.add( ids );
+        }
+        return ids;
+    }
+
+    private void freeUnusedPropertyIds()
+    {
+        for ( IdBatch ids : allPropertyIds )
+        {
+            ids.freeRemaining();
+        }
+        allPropertyIds.clear();
+    }
+
+    private int propertyKeyId( String name )
+    {
+        Integer id = propertyKeyIds.get( name );
+        if ( id == null )
+        {
+            synchronized ( tokenLock )
+            {
+                id = inserter.getOrCreatePropertyKeyId( name );
+            }
+            propertyKeyIds.put( name, id );
+        }
+        return id;
+    }
+
+    private long[] labelIds( Label[] labels )
+    {
+        long[] ids = new long[labels.length];
+        for ( int i = 0; i < labels.length; i++ )
+        {
+            Integer id = labelIds.get( labels[i].name() );
+            if ( id == null )
+            {
+                synchronized ( tokenLock )
+                {
+                    id = inserter.getOrCreateLabelId( labels[i].name() );
+                }
+                labelIds.put( labels[i].name(), id );
+            }
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private int relationshipTypeId( String name )
+    {
+        Integer id = relationshipTypeIds.get( name );
+        if ( id == null )
+        {
+            synchronized ( tokenLock )
+            {
+                id = inserter.getOrCreateRelationshipTypeId( name );
+            }
+            relationshipTypeIds.put( name, id );
+        }
+        return id;
+    }
+
+    /**
+     * Records encoded from one batch of input, along with their property records and any dynamic
+     * label records.
+     */
+    private static class Batch<RECORD extends PrimitiveRecord>
+    {
+        final List<RECORD> records;
+        final List<PropertyRecord> properties = new ArrayList<>();
+        final List<DynamicRecord> labels = new ArrayList<>();
+
+        Batch( int size )
+        {
+            records = new ArrayList<>( size );
+        }
+    }
+
+    private interface Encoder<INPUT, RECORD extends PrimitiveRecord>
+    {
+        Batch<RECORD> encode( long firstId, List<INPUT> input );
+    }
+
+    private interface Writer<RECORD extends PrimitiveRecord>
+    {
+        void write( Batch<RECORD> batch );
+    }
+
+    private class NodeEncoder implements Encoder<InputNode, NodeRecord>
+    {
+        @Override
+        public Batch<NodeRecord> encode( long firstId, List<InputNode> input )
+        {
+            NodeStore nodeStore = neoStore.getNodeStore();
+            Batch<NodeRecord> batch = new Batch<>( input.size() );
+            for ( int i = 0; i < input.size(); i++ )
+            {
+                InputNode node = input.get( i );
+                NodeRecord record = new NodeRecord( firstId + i, Record.NO_NEXT_RELATIONSHIP.intValue(),
+                                                    Record.NO_NEXT_PROPERTY.intValue() );
+                record.setInUse( true );
+                record.setCreated();
+                record.setNextProp( createPropertyChain( node.getProperties(), batch.properties ) );
+                batch.labels.addAll( parseLabelsField( record ).put( labelIds( node.getLabels() ), nodeStore ) );
+                batch.records.add( record );
+            }
+            return batch;
+        }
+    }
+
+    private class RelationshipEncoder implements Encoder<InputRelationship, RelationshipRecord>
+    {
+        private final long nodeCount;
+
+        RelationshipEncoder( long nodeCount )
+        {
+            this.nodeCount = nodeCount;
+        }
+
+        @Override
+        public Batch<RelationshipRecord> encode( long firstId, List<InputRelationship> input )
+        {
+            Batch<RelationshipRecord> batch = new Batch<>( input.size() );
+            for ( int i = 0; i < input.size(); i++ )
+            {
+                InputRelationship relationship = input.get( i );
+                RelationshipRecord record = new RelationshipRecord( firstId + i,
+                        checkNode( relationship.getStartNode() ), checkNode( relationship.getEndNode() ),
+                        relationshipTypeId( relationship.getType().name() ) );
+                record.setInUse( true );
+                record.setCreated();
+                record.setNextProp( createPropertyChain( relationship.getProperties(), batch.properties ) );
+                batch.records.add( record );
+            }
+            return batch;
+        }
+
+        private long checkNode( long nodeId )
+        {
+            if ( nodeId < 0 || nodeId >= nodeCount )
+            {
+                throw new NotFoundException( "id=" + nodeId );
+            }
+            return nodeId;
+        }
+    }
+
+    private class NodeWriter implements Writer<NodeRecord>
+    {
+        @Override
+        public void write( Batch<NodeRecord> batch )
+        {
+            writeProperties( batch );
+            NodeStore nodeStore = neoStore.getNodeStore();
+            nodeStore.updateDynamicLabelRecords( batch.labels );
+            for ( NodeRecord record : batch.records )
+            {
+                nodeStore.updateRecord( record );
+            }
+        }
+    }
+
+    /**
+     * Writes relationships in id order, each one becoming the first relationship in the chains
+     * of its nodes.
+     */
+    private class RelationshipWriter implements Writer<RelationshipRecord>
+    {
+        private final long[] relationshipHeads;
+
+        RelationshipWriter( long[] relationshipHeads )
+        {
+            this.relationshipHeads = relationshipHeads;
+        }
+
+        @Override
+        public void write( Batch<RelationshipRecord> batch )
+        {
+            writeProperties( batch );
+            RelationshipStore relationshipStore = neoStore.getRelationshipStore();
+            for ( RelationshipRecord record : batch.records )
+            {
+                int firstNode = (int) record.getFirstNode();
+                int secondNode = (int) record.getSecondNode();
+                record.setFirstNextRel( relationshipHeads[firstNode] );
+                record.setSecondNextRel( relationshipHeads[secondNode] );
+                relationshipHeads[firstNode] = record.getId();
+                relationshipHeads[secondNode] = record.getId();
+                relationshipStore.updateRecord( record );
+            }
+        }
+    }
+
+    private void writeProperties( Batch<?> batch )
+    {
+        PropertyStore propertyStore = neoStore.getPropertyStore();
+        for ( PropertyRecord record : batch.properties )
+        {
+            propertyStore.updateRecord( record );
+        }
+    }
+
+    /**
+     * Hands out ids from batches allocated from a store.
+     */
+    private static class IdBatch
+    {
+        private final CommonAbstractStore store;
+        private final int size;
+        private long[] defragIds = new long[0];
+        private long next;
+        private long end;
+        private int defragPosition;
+
+        IdBatch( CommonAbstractStore store, int size )
+        {
+            this.store = store;
+            this.size = size;
+        }
+
+        long next()
+        {
+            while ( true )
+            {
+                if ( defragPosition < defragIds.length )
+                {
+                    return defragIds[defragPosition++];
+                }
+                if ( next < end )
+                {
+                    long id = next++;
+                    if ( id != IdGeneratorImpl.INTEGER_MINUS_ONE )
+                    {
+                        return id;
+                    }
+                }
+                else
+                {
+                    IdRange range = store.nextIdBatch( size );
+                    defragIds = range.getDefragIds();
+                    defragPosition = 0;
+                    next = range.getRangeStart();
+                    end = next + range.getRangeLength();
+                }
+            }
+        }
+
+        void freeRemaining()
+        {
+            while ( defragPosition < defragIds.length )
+            {
+                store.freeId( defragIds[defragPosition++] );
+            }
+            for ( ; next < end; next++ )
+            {
+                if ( next != IdGeneratorImpl.INTEGER_MINUS_ONE )
+                {
+                    store.freeId( next );
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.test.ImpermanentDatabaseRule;
 
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -48,6 +49,7 @@ import static org.neo4j.graphdb.Neo4jMatchers.getConstraints;
 import static org.neo4j.graphdb.Neo4jMatchers.getIndexes;
 import static org.neo4j.graphdb.Neo4jMatchers.isEmpty;
 import static org.neo4j.graphdb.Neo4jMatchers.waitForIndex;
+import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 
 public class SchemaAcceptanceTest
@@ -167,22 +169,72 @@ public class SchemaAcceptanceTest
     }
 
     @Test
-    public void shouldThrowConstraintViolationIfAskedToCreateCompoundIdex() throws Exception
+    public void shouldCreateCompositeIndexOnMultiplePropertyKeys() throws Exception
     {
         // WHEN
+        IndexDefinition index;
         Transaction tx = db.beginTx();
         try
         {
-            Schema schema = db.schema();
-            schema.indexFor( label )
+            index = db.schema().indexFor( label )
                     .on( "my_property_key" )
                     .on( "other_property" ).create();
             tx.success();
-            fail( "Should not be able to create index on multiple propertyKey keys" );
         }
-        catch ( UnsupportedOperationException e )
+        finally
+        {
+            tx.finish();
+        }
+        waitForIndex( db, index );
+
+        // THEN
+        assertThat( getIndexes( db, label ), containsOnly( index ) );
+        try ( Transaction ignored = db.beginTx() )
+        {
+            assertEquals( asList( "my_property_key", "other_property" ), asCollection( index.getPropertyKeys() ) );
+            assertEquals( Schema.IndexState.ONLINE, db.schema().getIndexState( index ) );
+        }
+    }
+
+    @Test
+    public void shouldDropCompositeIndex() throws Exception
+    {
+        // GIVEN
+        IndexDefinition index;
+        Transaction tx = db.beginTx();
+        try
+        {
+            index = db.schema().indexFor( label ).on( "my_property_key" ).on( "other_property" ).create();
+            tx.success();
+        }
+        finally
+        {
+            tx.finish();
+        }
+
+        // WHEN
+        dropIndex( index );
+
+        // THEN
+        assertThat( getIndexes( db, label ), isEmpty() );
+    }
+
+    @Test
+    public void shouldThrowConstraintViolationIfAskedToIndexTheSamePropertyKeyTwice() throws Exception
+    {
+        // WHEN
+        Transaction tx = db.beginTx();
+        try
+        {
+            db.schema().indexFor( label )
+                    .on( "my_property_key" )
+                    .on( "my_property_key" ).create();
+            tx.success();
+            fail( "Should not be able to create index on the same property key twice" );
+        }
+        catch ( ConstraintViolationException e )
         {
-            assertThat( e.getMessage(), containsString( "Compound indexes" ) );
+            assertThat( e.getMessage(), containsString( "same property key more than once" ) );
         }
         finally
         {
@@ -23,6 +23,7 @@ import org.mockito.Mockito;
 
 import org.neo4j.kernel.api.operations.LegacyKernelOperations;
 import org.neo4j.kernel.impl.api.SchemaWriteGuard;
+import org.neo4j.kernel.impl.api.state.TxStateMemory;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 
@@ -34,6 +35,7 @@ public class KernelTransactionFactory
     {
         return new KernelTransactionImplementation( Mockito.mock( StatementOperationParts.class ),
                 Mockito.mock( LegacyKernelOperations.class ) , false, mock( SchemaWriteGuard.class ), null, null,
-                mock( AbstractTransactionManager.class ), null, null, null, null, null, mock( NeoStore.class ), null );
+                mock( AbstractTransactionManager.class ), null, null, null, null, null, mock( NeoStore.class ), null,
+                TxStateMemory.DEFAULT_BUDGET );
     }
 }
@@ -22,6 +22,7 @@ package org.neo4j.kernel.api;
 import org.junit.Test;
 
 import org.neo4j.kernel.impl.api.LockHolder;
+import org.neo4j.kernel.impl.api.state.TxStateMemory;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
@@ -39,7 +40,7 @@ public class KernelTransactionImplementationTest
         // given
         KernelTransactionImplementation tx = new KernelTransactionImplementation( null, null, false, null, null,
                 null, txm, null, null, mock(LockHolder.class), null, null, mock( NeoStore.class ),
-                mock(TransactionState.class) );
+                mock(TransactionState.class), TxStateMemory.DEFAULT_BUDGET );
         // when
         tx.prepare();
 
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class CompositeValueTest
+{
+    @Test
+    public void shouldCompareNumbersByTheirValueRegardlessOfType() throws Exception
+    {
+        // given
+        CompositeValue value = CompositeValue.of( 42, "Steven" );
+
+        // then
+        assertEquals( value, CompositeValue.of( 42L, "Steven" ) );
+        assertEquals( value, CompositeValue.of( 42.0d, "Steven" ) );
+        assertEquals( value.hashCode(), CompositeValue.of( 42.0d, "Steven" ).hashCode() );
+    }
+
+    @Test
+    public void shouldRespectTheOrderOfTheValues() throws Exception
+    {
+        assertFalse( CompositeValue.of( "a", "b" ).equals( CompositeValue.of( "b", "a" ) ) );
+    }
+
+    @Test
+    public void shouldNotConfuseValuesOfDifferentTypes() throws Exception
+    {
+        assertFalse( CompositeValue.of( "1", true ).equals( CompositeValue.of( 1, true ) ) );
+        assertFalse( CompositeValue.of( "true", 1 ).equals( CompositeValue.of( true, 1 ) ) );
+        assertFalse( CompositeValue.of( new int[]{1}, 2 ).equals( CompositeValue.of( 1, 2 ) ) );
+    }
+
+    @Test
+    public void shouldNotConfuseWhereOneValueEndsAndTheNextBegins() throws Exception
+    {
+        assertFalse( CompositeValue.of( "ab", "c" ).equals( CompositeValue.of( "a", "bc" ) ) );
+        assertFalse( CompositeValue.of( "a;", "b" ).equals( CompositeValue.of( "a", ";b" ) ) );
+    }
+
+    @Test
+    public void shouldRejectNullValues() throws Exception
+    {
+        try
+        {
+            CompositeValue.of( "a", null );
+            fail( "Should have thrown exception" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // good
+        }
+    }
+}
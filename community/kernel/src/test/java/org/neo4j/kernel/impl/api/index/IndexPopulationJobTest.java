@@ -47,6 +47,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.impl.api.KernelSchemaStateStore;
+import org.neo4j.kernel.impl.api.index.IndexPopulationJob.IndexPopulation;
 import org.neo4j.kernel.impl.coreapi.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreIndexStoreView;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
@@ -157,7 +158,7 @@ public class IndexPopulationJobTest
         NodeChangingWriter populator = new NodeChangingWriter( changeNode, propertyKeyId, value1, changedValue,
                 labelId );
         IndexPopulationJob job = newIndexPopulationJob( FIRST, name, populator, new FlippableIndexProxy() );
-        populator.setJob( job );
+        populator.setPopulation( population );
 
         // WHEN
         job.run();
@@ -182,7 +183,7 @@ public class IndexPopulationJobTest
         int propertyKeyId = getPropertyKeyForName( name );
         NodeDeletingWriter populator = new NodeDeletingWriter( node2, propertyKeyId, value2, labelId );
         IndexPopulationJob job = newIndexPopulationJob( FIRST, name, populator, new FlippableIndexProxy() );
-        populator.setJob( job );
+        populator.setPopulation( population );
 
         // WHEN
         job.run();
@@ -222,8 +223,9 @@ public class IndexPopulationJobTest
         FlippableIndexProxy index = mock( FlippableIndexProxy.class );
         IndexStoreView storeView = mock( IndexStoreView.class );
         ControlledStoreScan storeScan = new ControlledStoreScan();
-        when( storeView.visitNodesWithPropertyAndLabel( any( IndexDescriptor.class ),
-                Matchers.<Visitor<NodePropertyUpdate, RuntimeException>>any() ) ).thenReturn( storeScan );
+        when( storeView.visitNodesWithPropertyAndLabel(
+                Matchers.<Map<IndexDescriptor, Visitor<NodePropertyUpdate, RuntimeException>>>any() ) )
+                .thenReturn( storeScan );
 
 
         final IndexPopulationJob job = newIndexPopulationJob( FIRST, name, populator, index, storeView,
@@ -336,6 +338,54 @@ public class IndexPopulationJobTest
         verify( populator ).markAsFailed( Matchers.contains( failureMessage ) );
     }
 
+    @Test
+    public void shouldPopulateManyIndexesInOneScan() throws Exception
+    {
+        // GIVEN
+        long node1 = createNode( map( name, "Mattias", age, 31 ), FIRST );
+        long node2 = createNode( map( age, 35 ), FIRST );
+        createNode( map( name, "Jacob" ), SECOND );
+        IndexPopulator agePopulator = mock( IndexPopulator.class );
+        IndexPopulationJob job = newIndexPopulationJob( FIRST, name, populator, new FlippableIndexProxy() );
+        addPopulator( job, FIRST, age, agePopulator, new FlippableIndexProxy(),
+                mock( FailedIndexProxyFactory.class ) );
+
+        // WHEN
+        job.run();
+
+        // THEN
+        verify( populator ).create();
+        verify( populator ).add( node1, "Mattias" );
+        verify( populator ).close( true );
+        verifyNoMoreInteractions( populator );
+
+        verify( agePopulator ).create();
+        verify( agePopulator ).add( node1, 31 );
+        verify( agePopulator ).add( node2, 35 );
+        verify( agePopulator ).close( true );
+        verifyNoMoreInteractions( agePopulator );
+    }
+
+    @Test
+    public void shouldKeepPopulatingOtherIndexesWhenOneFails() throws Exception
+    {
+        // GIVEN
+        long node = createNode( map( name, "Taylor", age, 31 ), FIRST );
+        IndexPopulator failingPopulator = mock( IndexPopulator.class );
+        doThrow( new RuntimeException( "BORK BORK" ) ).when( failingPopulator ).add( anyLong(), any() );
+        FlippableIndexProxy failingIndex = new FlippableIndexProxy();
+        IndexPopulationJob job = newIndexPopulationJob( FIRST, name, failingPopulator, failingIndex );
+        addPopulator( job, FIRST, age, populator, new FlippableIndexProxy(), mock( FailedIndexProxyFactory.class ) );
+
+        // WHEN
+        job.run();
+
+        // THEN
+        assertThat( failingIndex.getState(), equalTo( InternalIndexState.FAILED ) );
+        verify( populator ).add( node, 31 );
+        verify( populator ).close( true );
+    }
+
     private static class ControlledStoreScan implements StoreScan<RuntimeException>
     {
         private final DoubleLatch latch = new DoubleLatch();
@@ -356,7 +406,7 @@ public class IndexPopulationJobTest
     private class NodeChangingWriter extends IndexPopulator.Adapter
     {
         private final Set<Pair<Long, Object>> added = new HashSet<>();
-        private IndexPopulationJob job;
+        private IndexPopulation population;
         private final long nodeToChange;
         private final Object newValue;
         private final Object previousValue;
@@ -378,7 +428,7 @@ public class IndexPopulationJobTest
             if ( nodeId == 2 )
             {
                 long[] labels = new long[]{label};
-                job.update( change( nodeToChange, propertyKeyId, previousValue, labels, newValue, labels ) );
+                population.update( change( nodeToChange, propertyKeyId, previousValue, labels, newValue, labels ) );
             }
             added.add( Pair.of( nodeId, propertyValue ) );
         }
@@ -416,9 +466,9 @@ public class IndexPopulationJobTest
             };
         }
 
-        public void setJob( IndexPopulationJob job )
+        public void setPopulation( IndexPopulation population )
         {
-            this.job = job;
+            this.population = population;
         }
     }
 
@@ -427,7 +477,7 @@ public class IndexPopulationJobTest
         private final Map<Long, Object> added = new HashMap<>();
         private final Map<Long, Object> removed = new HashMap<>();
         private final long nodeToDelete;
-        private IndexPopulationJob job;
+        private IndexPopulation population;
         private final int propertyKeyId;
         private final Object valueToDelete;
         private final int label;
@@ -440,9 +490,9 @@ public class IndexPopulationJobTest
             this.label = label;
         }
 
-        public void setJob( IndexPopulationJob job )
+        public void setPopulation( IndexPopulation population )
         {
-            this.job = job;
+            this.population = population;
         }
 
         @Override
@@ -450,7 +500,7 @@ public class IndexPopulationJobTest
         {
             if ( nodeId == 2 )
             {
-                job.update( remove( nodeToDelete, propertyKeyId, valueToDelete, new long[] { label } ) );
+                population.update( remove( nodeToDelete, propertyKeyId, valueToDelete, new long[] { label } ) );
             }
             added.put( nodeId, propertyValue );
         }
@@ -502,6 +552,7 @@ public class IndexPopulationJobTest
     private KernelSchemaStateStore stateHolder;
 
     private int labelId;
+    private IndexPopulation population;
 
     @Before
     public void before() throws Exception
@@ -549,6 +600,15 @@ public class IndexPopulationJobTest
                                                       IndexPopulator populator,
                                                       FlippableIndexProxy flipper, IndexStoreView storeView,
                                                       StringLogger logger )
+    {
+        IndexPopulationJob job = new IndexPopulationJob( storeView, stateHolder, new SingleLoggingService( logger ) );
+        population = addPopulator( job, label, propertyKey, populator, flipper, failureDelegateFactory );
+        return job;
+    }
+
+    private IndexPopulation addPopulator( IndexPopulationJob job, Label label, String propertyKey,
+                                          IndexPopulator populator, FlippableIndexProxy flipper,
+                                          FailedIndexProxyFactory failureDelegateFactory )
     {
         IndexDescriptor descriptor;
         try ( Transaction tx = db.beginTx() )
@@ -560,12 +620,8 @@ public class IndexPopulationJobTest
         }
 
         flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
-        return new IndexPopulationJob(
-                descriptor, PROVIDER_DESCRIPTOR,
-                format( ":%s(%s)", label.name(), propertyKey ),
-                failureDelegateFactory,
-                populator, flipper, storeView,
-                stateHolder, new SingleLoggingService( logger ) );
+        return job.addPopulator( populator, descriptor, PROVIDER_DESCRIPTOR,
+                format( ":%s(%s)", label.name(), propertyKey ), flipper, failureDelegateFactory );
     }
 
     private long createNode( Map<String, Object> properties, Label... labels )
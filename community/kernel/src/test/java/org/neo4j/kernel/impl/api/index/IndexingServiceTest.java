@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.Before;
@@ -487,14 +488,14 @@ public class IndexingServiceTest
 
         void getsProcessedByStoreScanFrom( IndexStoreView mock )
         {
-            when( mock.visitNodesWithPropertyAndLabel( any( IndexDescriptor.class ), visitor( any( Visitor.class ) ) ) )
-                    .thenAnswer( this );
+            when( mock.visitNodesWithPropertyAndLabel( visitors( any( Map.class ) ) ) ).thenAnswer( this );
         }
 
         @Override
         public StoreScan<RuntimeException> answer( InvocationOnMock invocation ) throws Throwable
         {
-            final Visitor<NodePropertyUpdate, RuntimeException> visitor = visitor( invocation.getArguments()[1] );
+            final Map<IndexDescriptor, Visitor<NodePropertyUpdate, RuntimeException>> visitors =
+                    visitors( invocation.getArguments()[0] );
             return new StoreScan<RuntimeException>()
             {
                 @Override
@@ -502,7 +503,10 @@ public class IndexingServiceTest
                 {
                     for ( NodePropertyUpdate update : updates )
                     {
-                        visitor.visit( update );
+                        for ( Visitor<NodePropertyUpdate, RuntimeException> visitor : visitors.values() )
+                        {
+                            visitor.visit( update );
+                        }
                     }
                 }
 
@@ -515,9 +519,9 @@ public class IndexingServiceTest
         }
 
         @SuppressWarnings({ "unchecked", "rawtypes" })
-        private static Visitor<NodePropertyUpdate, RuntimeException> visitor( Object v )
+        private static Map<IndexDescriptor, Visitor<NodePropertyUpdate, RuntimeException>> visitors( Object v )
         {
-            return (Visitor) v;
+            return (Map) v;
         }
 
         @Override
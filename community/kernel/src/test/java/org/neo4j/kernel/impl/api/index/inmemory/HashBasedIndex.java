@@ -19,10 +19,13 @@
  */
 package org.neo4j.kernel.impl.api.index.inmemory;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -54,6 +57,20 @@ class HashBasedIndex extends InMemoryIndexImplementation
         return nodes == null ? emptyPrimitiveLongIterator() : toPrimitiveLongIterator( nodes.iterator() );
     }
 
+    @Override
+    Iterable<Map.Entry<Object, Long>> entries()
+    {
+        List<Map.Entry<Object, Long>> entries = new ArrayList<>();
+        for ( Map.Entry<Object, Set<Long>> entry : data.entrySet() )
+        {
+            for ( Long nodeId : entry.getValue() )
+            {
+                entries.add( new AbstractMap.SimpleImmutableEntry<>( entry.getKey(), nodeId ) );
+            }
+        }
+        return entries;
+    }
+
     @Override
     void doAdd( Object propertyValue, long nodeId, boolean applyIdempotently )
     {
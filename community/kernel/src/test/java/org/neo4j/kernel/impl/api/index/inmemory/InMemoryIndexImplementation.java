@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api.index.inmemory;
 
+import java.util.Map;
+
 import org.neo4j.kernel.api.direct.BoundedIterable;
 import org.neo4j.kernel.api.index.ArrayEncoder;
 import org.neo4j.kernel.api.index.IndexReader;
@@ -34,6 +36,32 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
         return doLookup( encode( value ) );
     }
 
+    @Override
+    public final PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                          Number upper, boolean includeUpper )
+    {
+        return InMemoryRangeSeeks.rangeSeekByNumber( entries(), lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public final PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower,
+                                                          String upper, boolean includeUpper )
+    {
+        return InMemoryRangeSeeks.rangeSeekByString( entries(), lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public final PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+    {
+        return InMemoryRangeSeeks.rangeSeekByPrefix( entries(), prefix );
+    }
+
+    @Override
+    public final PrimitiveLongIterator scan()
+    {
+        return InMemoryRangeSeeks.scan( entries() );
+    }
+
     final void add( long nodeId, Object propertyValue, boolean applyIdempotently )
     {
         doAdd( encode( propertyValue ), nodeId, applyIdempotently );
@@ -46,6 +74,11 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
 
     abstract PrimitiveLongIterator doLookup( Object propertyValue );
 
+    /**
+     * @return all (encoded value, node id) pairs in this index.
+     */
+    abstract Iterable<Map.Entry<Object, Long>> entries();
+
     abstract void doAdd( Object propertyValue, long nodeId, boolean applyIdempotently );
 
     abstract void doRemove( Object propertyValue, long nodeId );
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.helpers.Predicate;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.neo4j.helpers.collection.IteratorUtil.toPrimitiveLongIterator;
+
+/**
+ * Range, prefix and ordered seeks over the entries of an in-memory index, answered by filtering and
+ * sorting all entries. Good enough for tests, mirrors the ordering guarantees of the Lucene index.
+ */
+class InMemoryRangeSeeks
+{
+    private InMemoryRangeSeeks()
+    {
+    }
+
+    static PrimitiveLongIterator rangeSeekByNumber( Iterable<Map.Entry<Object, Long>> entries,
+                                                    final Number lower, final boolean includeLower,
+                                                    final Number upper, final boolean includeUpper )
+    {
+        return seek( entries, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                if ( !(value instanceof Number) )
+                {
+                    return false;
+                }
+                double number = ((Number) value).doubleValue();
+                if ( lower != null )
+                {
+                    int compare = Double.compare( number, lower.doubleValue() );
+                    if ( compare < 0 || (compare == 0 && !includeLower) )
+                    {
+                        return false;
+                    }
+                }
+                if ( upper != null )
+                {
+                    int compare = Double.compare( number, upper.doubleValue() );
+                    if ( compare > 0 || (compare == 0 && !includeUpper) )
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        } );
+    }
+
+    static PrimitiveLongIterator rangeSeekByString( Iterable<Map.Entry<Object, Long>> entries,
+                                                    final String lower, final boolean includeLower,
+                                                    final String upper, final boolean includeUpper )
+    {
+        return seek( entries, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                if ( !(value instanceof String) )
+                {
+                    return false;
+                }
+                String string = (String) value;
+                if ( lower != null )
+                {
+                    int compare = string.compareTo( lower );
+                    if ( compare < 0 || (compare == 0 && !includeLower) )
+                    {
+                        return false;
+                    }
+                }
+                if ( upper != null )
+                {
+                    int compare = string.compareTo( upper );
+                    if ( compare > 0 || (compare == 0 && !includeUpper) )
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        } );
+    }
+
+    static PrimitiveLongIterator rangeSeekByPrefix( Iterable<Map.Entry<Object, Long>> entries, final String prefix )
+    {
+        return seek( entries, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return value instanceof String && ((String) value).startsWith( prefix );
+            }
+        } );
+    }
+
+    static PrimitiveLongIterator scan( Iterable<Map.Entry<Object, Long>> entries )
+    {
+        return seek( entries, new Predicate<Object>()
+        {
+            @Override
+            public boolean accept( Object value )
+            {
+                return true;
+            }
+        } );
+    }
+
+    private static PrimitiveLongIterator seek( Iterable<Map.Entry<Object, Long>> entries, Predicate<Object> filter )
+    {
+        List<Map.Entry<Object, Long>> matches = new ArrayList<>();
+        for ( Map.Entry<Object, Long> entry : entries )
+        {
+            if ( filter.accept( entry.getKey() ) )
+            {
+                matches.add( entry );
+            }
+        }
+        Collections.sort( matches, VALUE_ORDER );
+        List<Long> nodeIds = new ArrayList<>( matches.size() );
+        for ( Map.Entry<Object, Long> match : matches )
+        {
+            nodeIds.add( match.getValue() );
+        }
+        return toPrimitiveLongIterator( nodeIds.iterator() );
+    }
+
+    private static final Comparator<Map.Entry<Object, Long>> VALUE_ORDER = new Comparator<Map.Entry<Object, Long>>()
+    {
+        @Override
+        public int compare( Map.Entry<Object, Long> o1, Map.Entry<Object, Long> o2 )
+        {
+            Object left = o1.getKey(), right = o2.getKey();
+            int leftRank = rank( left ), rightRank = rank( right );
+            if ( leftRank != rightRank )
+            {
+                return leftRank - rightRank;
+            }
+            switch ( leftRank )
+            {
+            case 0:
+                return Double.compare( ((Number) left).doubleValue(), ((Number) right).doubleValue() );
+            case 1:
+                return ((String) left).compareTo( (String) right );
+            default:
+                return 0;
+            }
+        }
+
+        private int rank( Object value )
+        {
+            return value instanceof Number ? 0 : value instanceof String ? 1 : 2;
+        }
+    };
+}
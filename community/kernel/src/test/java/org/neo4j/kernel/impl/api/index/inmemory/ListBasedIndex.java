@@ -19,9 +19,11 @@
  */
 package org.neo4j.kernel.impl.api.index.inmemory;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.helpers.collection.PrefetchingIterator;
@@ -43,6 +45,17 @@ class ListBasedIndex extends InMemoryIndexImplementation
         return IteratorUtil.toPrimitiveLongIterator( find( data.iterator(), propertyValue ) );
     }
 
+    @Override
+    Iterable<Map.Entry<Object, Long>> entries()
+    {
+        List<Map.Entry<Object, Long>> entries = new ArrayList<>( data.size() );
+        for ( Entry entry : data )
+        {
+            entries.add( new AbstractMap.SimpleImmutableEntry<>( entry.propertyValue, entry.nodeId ) );
+        }
+        return entries;
+    }
+
     @Override
     void doAdd( Object propertyValue, long nodeId, boolean applyIdempotently )
     {
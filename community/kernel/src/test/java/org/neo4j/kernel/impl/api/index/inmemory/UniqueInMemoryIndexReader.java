@@ -44,6 +44,32 @@ class UniqueInMemoryIndexReader implements IndexReader
         return result != null ? singletonPrimitiveLongIterator( result ) : emptyPrimitiveLongIterator();
     }
 
+    @Override
+    public PrimitiveLongIterator rangeSeekByNumber( Number lower, boolean includeLower,
+                                                    Number upper, boolean includeUpper )
+    {
+        return InMemoryRangeSeeks.rangeSeekByNumber( indexData.entrySet(), lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByString( String lower, boolean includeLower,
+                                                    String upper, boolean includeUpper )
+    {
+        return InMemoryRangeSeeks.rangeSeekByString( indexData.entrySet(), lower, includeLower, upper, includeUpper );
+    }
+
+    @Override
+    public PrimitiveLongIterator rangeSeekByPrefix( String prefix )
+    {
+        return InMemoryRangeSeeks.rangeSeekByPrefix( indexData.entrySet(), prefix );
+    }
+
+    @Override
+    public PrimitiveLongIterator scan()
+    {
+        return InMemoryRangeSeeks.scan( indexData.entrySet() );
+    }
+
     @Override
     public void close()
     {
@@ -87,6 +87,50 @@ public class UniquenessConstraintValidationIT extends KernelIntegrationTest
         }
     }
 
+    @Test
+    public void shouldEnforceCompositeUniquenessConstraintOnSetProperty() throws Exception
+    {
+        // given
+        compositeConstrainedNode( "Label1", "key1", "value1", "key2", "value2" );
+
+        dataWriteOperationsInNewTransaction();
+
+        // when
+        Node node = db.createNode( label( "Label1" ) );
+        node.setProperty( "key1", "value1" );
+        try
+        {
+            node.setProperty( "key2", "value2" );
+
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( ConstraintViolationException e )
+        {
+            assertThat( e.getMessage(), containsString( "(\"key1\", \"key2\")=(value1, value2)" ) );
+        }
+    }
+
+    @Test
+    public void shouldAllowNodesSharingSomeOfTheCompositeConstrainedValues() throws Exception
+    {
+        // given
+        compositeConstrainedNode( "Label1", "key1", "value1", "key2", "value2" );
+
+        dataWriteOperationsInNewTransaction();
+
+        // when
+        Node node = db.createNode( label( "Label1" ) );
+        node.setProperty( "key1", "value1" );
+        node.setProperty( "key2", "other" );
+        commit();
+
+        // then
+        dataWriteOperationsInNewTransaction();
+        assertEquals( 2, count( GlobalGraphOperations.at( db ).getAllNodesWithLabel( label( "Label1" ) ) ) );
+        commit();
+    }
+
     @Test
     public void shouldAllowRemoveAndAddConflictingDataInOneTransaction_DeleteNode() throws Exception
     {
@@ -284,6 +328,31 @@ public class UniquenessConstraintValidationIT extends KernelIntegrationTest
         return node;
     }
 
+    private Node compositeConstrainedNode( String labelName, String propertyKey1, Object propertyValue1,
+                                           String propertyKey2, Object propertyValue2 ) throws KernelException
+    {
+        Node node;
+        int labelId;
+        int[] propertyKeyIds;
+        {
+            DataWriteOperations statement = dataWriteOperationsInNewTransaction();
+            node = db.createNode( label( labelName ) );
+            node.setProperty( propertyKey1, propertyValue1 );
+            node.setProperty( propertyKey2, propertyValue2 );
+            labelId = statement.labelGetForName( labelName );
+            propertyKeyIds = new int[]{statement.propertyKeyGetForName( propertyKey1 ),
+                                       statement.propertyKeyGetForName( propertyKey2 )};
+            commit();
+        }
+
+        {
+            SchemaWriteOperations statement = schemaWriteOperationsInNewTransaction();
+            statement.uniquenessConstraintCreate( labelId, propertyKeyIds );
+            commit();
+        }
+        return node;
+    }
+
     private void createConstraint( String label, String propertyKey ) throws KernelException
     {
         int labelId, propertyKeyId;
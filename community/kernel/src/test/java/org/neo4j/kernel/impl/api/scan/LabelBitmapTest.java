@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LabelBitmapTest
+{
+    @Test
+    public void shouldIterateAddedNodesInOrder() throws Exception
+    {
+        // GIVEN
+        LabelBitmap bitmap = new LabelBitmap( 1 );
+        long[] nodes = {1 << 30, 5, 1, 70_000, 3L << 32};
+
+        // WHEN
+        for ( long node : nodes )
+        {
+            bitmap.add( node );
+        }
+
+        // THEN
+        assertEquals( asList( 1, 5, 70_000, 1 << 30, 3L << 32 ), asList( bitmap.iterator() ) );
+        assertEquals( 5, bitmap.cardinality() );
+        assertTrue( bitmap.contains( 70_000 ) );
+        assertFalse( bitmap.contains( 70_001 ) );
+    }
+
+    @Test
+    public void shouldSwitchBetweenArrayAndBitsContainers() throws Exception
+    {
+        // GIVEN
+        LabelBitmap bitmap = new LabelBitmap( 1 );
+        int count = Container.MAX_ARRAY_SIZE * 2;
+
+        // WHEN
+        for ( long node = 0; node < count; node++ )
+        {
+            bitmap.add( node * 2 );
+        }
+
+        // THEN
+        assertEquals( Container.BITS, bitmap.container( 0 ).kind() );
+        assertEquals( count, bitmap.cardinality() );
+
+        // WHEN
+        for ( long node = 0; node < count; node += 2 )
+        {
+            bitmap.remove( node * 2 );
+        }
+
+        // THEN
+        assertEquals( Container.ARRAY, bitmap.container( 0 ).kind() );
+        List<Long> nodes = asList( bitmap.iterator() );
+        assertEquals( count / 2, nodes.size() );
+        for ( int i = 0; i < nodes.size(); i++ )
+        {
+            assertEquals( (long) (i * 2 + 1) * 2, (long) nodes.get( i ) );
+        }
+    }
+
+    @Test
+    public void shouldDropEmptyContainers() throws Exception
+    {
+        // GIVEN
+        LabelBitmap bitmap = new LabelBitmap( 1 );
+        bitmap.add( 10 );
+
+        // WHEN
+        bitmap.remove( 10 );
+        bitmap.remove( 11 );
+
+        // THEN
+        assertTrue( bitmap.isEmpty() );
+        assertEquals( null, bitmap.container( 0 ) );
+        assertFalse( bitmap.iterator().hasNext() );
+    }
+
+    @Test
+    public void shouldNotChangeOriginalWhenChangingWritableCopy() throws Exception
+    {
+        // GIVEN
+        LabelBitmap original = new LabelBitmap( 1 );
+        for ( long node = 0; node < Container.MAX_ARRAY_SIZE + 10; node++ )
+        {
+            original.add( node );
+        }
+        original.add( 100_000 );
+
+        // WHEN
+        LabelBitmap copy = original.writableCopy( 2 );
+        copy.remove( 3 );
+        copy.add( 100_001 );
+        copy.add( 1L << 40 );
+
+        // THEN
+        assertTrue( original.contains( 3 ) );
+        assertFalse( original.contains( 100_001 ) );
+        assertFalse( original.contains( 1L << 40 ) );
+        assertEquals( Container.MAX_ARRAY_SIZE + 11, original.cardinality() );
+        assertFalse( copy.contains( 3 ) );
+        assertTrue( copy.contains( 100_001 ) );
+        assertTrue( copy.contains( 1L << 40 ) );
+        assertEquals( Container.MAX_ARRAY_SIZE + 12, copy.cardinality() );
+    }
+
+    private static List<Long> asList( long... nodes )
+    {
+        List<Long> list = new ArrayList<>();
+        for ( long node : nodes )
+        {
+            list.add( node );
+        }
+        return list;
+    }
+
+    private static List<Long> asList( PrimitiveLongIterator iterator )
+    {
+        List<Long> list = new ArrayList<>();
+        while ( iterator.hasNext() )
+        {
+            list.add( iterator.next() );
+        }
+        return list;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.Writer;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.AUTHORITATIVE_FILE_NAME;
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.directoryOf;
+
+public class LabelScanStoreProviderTest
+{
+    @Test
+    public void shouldRebuildStoreReplacingAnotherOne() throws Exception
+    {
+        // GIVEN
+        provider( "lucene" ).makeAuthoritative( 5, StringLogger.DEV_NULL );
+        File nativeFile = createFileIn( directoryOf( storeDir, "native" ) );
+
+        // WHEN
+        provider( "native" ).makeAuthoritative( 10, StringLogger.DEV_NULL );
+
+        // THEN
+        assertFalse( fs.get().fileExists( nativeFile ) );
+        assertEquals( "native", authoritative()[0] );
+        assertEquals( "10", authoritative()[1] );
+    }
+
+    @Test
+    public void shouldKeepStoreThatAlreadyIsTheAuthoritativeOne() throws Exception
+    {
+        // GIVEN
+        provider( "native" ).makeAuthoritative( 5, StringLogger.DEV_NULL );
+        File nativeFile = createFileIn( directoryOf( storeDir, "native" ) );
+
+        // WHEN
+        provider( "native" ).makeAuthoritative( 10, StringLogger.DEV_NULL );
+
+        // THEN
+        assertTrue( fs.get().fileExists( nativeFile ) );
+        assertEquals( "5", authoritative()[1] );
+    }
+
+    @Test
+    public void shouldConsiderLuceneStoreAuthoritativeInStoresFromBeforeTheFileWasWritten() throws Exception
+    {
+        // GIVEN
+        File luceneFile = createFileIn( directoryOf( storeDir, "lucene" ) );
+        File nativeFile = createFileIn( directoryOf( storeDir, "native" ) );
+
+        // WHEN
+        provider( "lucene" ).makeAuthoritative( 10, StringLogger.DEV_NULL );
+
+        // THEN
+        assertTrue( fs.get().fileExists( luceneFile ) );
+        assertTrue( fs.get().fileExists( nativeFile ) );
+        assertEquals( "lucene", authoritative()[0] );
+    }
+
+    @Test
+    public void shouldRebuildStoreIfTheAuthoritativeFileIsUnreadable() throws Exception
+    {
+        // GIVEN
+        File luceneFile = createFileIn( directoryOf( storeDir, "lucene" ) );
+        try ( Writer writer = fs.get().openAsWriter( authoritativeFile(), "UTF-8", false ) )
+        {
+            writer.write( "lucene\n" );
+        }
+
+        // WHEN
+        provider( "lucene" ).makeAuthoritative( 10, StringLogger.DEV_NULL );
+
+        // THEN
+        assertFalse( fs.get().fileExists( luceneFile ) );
+        assertEquals( "lucene", authoritative()[0] );
+        assertEquals( "10", authoritative()[1] );
+    }
+
+    @Rule
+    public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final File storeDir = new File( "db" );
+
+    private LabelScanStoreProvider provider( String name )
+    {
+        return new LabelScanStoreProvider( name, storeDir, fs.get(), null, 1 );
+    }
+
+    private File createFileIn( File directory ) throws Exception
+    {
+        fs.get().mkdirs( directory );
+        File file = new File( directory, "file" );
+        fs.get().create( file ).close();
+        return file;
+    }
+
+    private File authoritativeFile()
+    {
+        File labelDirectory = new File( new File( storeDir, "schema" ), "label" );
+        fs.get().mkdirs( labelDirectory );
+        return new File( labelDirectory, AUTHORITATIVE_FILE_NAME );
+    }
+
+    private String[] authoritative() throws Exception
+    {
+        try ( BufferedReader reader = new BufferedReader( fs.get().openAsReader( authoritativeFile(), "UTF-8" ) ) )
+        {
+            return new String[]{reader.readLine(), reader.readLine()};
+        }
+    }
+}
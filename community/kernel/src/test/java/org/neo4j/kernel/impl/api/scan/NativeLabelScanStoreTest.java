@@ -0,0 +1,338 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.kernel.api.direct.AllEntriesLabelScanReader;
+import org.neo4j.kernel.api.direct.NodeLabelRange;
+import org.neo4j.kernel.api.labelscan.LabelScanReader;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
+import org.neo4j.kernel.impl.api.PrimitiveLongIteratorForArray;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.FullStoreChangeStream;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
+
+public class NativeLabelScanStoreTest
+{
+    @Test
+    public void shouldFindNodesWithLabel() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+
+        // WHEN
+        store.updateAndCommit( asList(
+                labelChanges( 0, NO_LABELS, new long[]{1, 2} ),
+                labelChanges( 5, NO_LABELS, new long[]{1} ),
+                labelChanges( 100_000, NO_LABELS, new long[]{2} ) ).iterator() );
+
+        // THEN
+        assertNodesForLabel( 1, 0, 5 );
+        assertNodesForLabel( 2, 0, 100_000 );
+        assertNodesForLabel( 3 );
+        LabelScanReader reader = store.newReader();
+        assertEquals( asSet( 1L, 2L ), asSet( reader.labelsForNode( 0 ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void shouldRemoveLabelsFromNodes() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList(
+                labelChanges( 1, NO_LABELS, new long[]{1, 2} ),
+                labelChanges( 2, NO_LABELS, new long[]{1} ) ).iterator() );
+
+        // WHEN
+        store.updateAndCommit( asList(
+                labelChanges( 1, new long[]{1, 2}, new long[]{2} ),
+                labelChanges( 2, new long[]{1}, NO_LABELS ) ).iterator() );
+
+        // THEN
+        assertNodesForLabel( 1 );
+        assertNodesForLabel( 2, 1 );
+    }
+
+    @Test
+    public void shouldNotSeeChangesInReaderCreatedBeforeThem() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ).iterator() );
+        LabelScanReader reader = store.newReader();
+
+        // WHEN
+        store.updateAndCommit( asList( labelChanges( 2, NO_LABELS, new long[]{1} ) ).iterator() );
+
+        // THEN
+        assertArrayEquals( new long[]{1}, toArray( reader.nodesWithLabel( 1 ) ) );
+        reader.close();
+        assertNodesForLabel( 1, 1, 2 );
+    }
+
+    @Test
+    public void shouldRebuildFromFullStoreStreamOnFirstStart() throws Exception
+    {
+        // WHEN
+        start( asList(
+                labelChanges( 1, NO_LABELS, new long[]{1} ),
+                labelChanges( 3, NO_LABELS, new long[]{1, 2} ) ) );
+
+        // THEN
+        assertNodesForLabel( 1, 1, 3 );
+        assertNodesForLabel( 2, 3 );
+        assertTrue( fs.get().fileExists( new File( dir, NativeLabelScanStore.SNAPSHOT_FILE_NAME ) ) );
+    }
+
+    @Test
+    public void shouldReplayLogAfterCrash() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ).iterator() );
+        store.force();
+        store.updateAndCommit( asList(
+                labelChanges( 2, NO_LABELS, new long[]{1} ),
+                labelChanges( 1, new long[]{1}, NO_LABELS ) ).iterator() );
+
+        // WHEN
+        fs.snapshot( new Runnable()
+        {
+            @Override
+            public void run()
+            {   // crash, i.e. don't shut down the store
+            }
+        } );
+        store = null;
+        start( Collections.<NodeLabelUpdate>emptyList() );
+
+        // THEN
+        assertNodesForLabel( 1, 2 );
+    }
+
+    @Test
+    public void shouldIgnoreGarbageAtTheEndOfTheLog() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ).iterator() );
+        fs.snapshot( new Runnable()
+        {
+            @Override
+            public void run()
+            {   // crash, i.e. don't shut down the store
+            }
+        } );
+        store = null;
+        File log = new File( dir, NativeLabelScanStore.LOG_FILE_NAME );
+        long logSize = fs.get().getFileSize( log );
+        try ( FileChannel channel = fs.get().open( log, "rw" ) )
+        {   // an entry claiming a lot more labels than there's room for in the log
+            ByteBuffer entry = ByteBuffer.allocate( 16 );
+            entry.putLong( 2 ).putInt( Integer.MAX_VALUE ).putInt( 1 ).flip();
+            channel.position( logSize );
+            channel.write( entry );
+        }
+
+        // WHEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+
+        // THEN
+        assertNodesForLabel( 1, 1 );
+        assertEquals( logSize, fs.get().getFileSize( log ) );
+    }
+
+    @Test
+    public void shouldKeepContentsAfterRestart() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        for ( long node = 0; node < 10_000; node++ )
+        {
+            updates.add( labelChanges( node * 3, NO_LABELS, new long[]{node % 2} ) );
+        }
+        store.updateAndCommit( updates.iterator() );
+
+        // WHEN
+        restart();
+
+        // THEN
+        LabelScanReader reader = store.newReader();
+        assertEquals( 5_000, toArray( reader.nodesWithLabel( 0 ) ).length );
+        assertEquals( 5_000, toArray( reader.nodesWithLabel( 1 ) ).length );
+        assertEquals( asSet( 1L ), asSet( reader.labelsForNode( 3 ) ) );
+        reader.close();
+        assertTrue( fs.get().getFileSize( new File( dir, NativeLabelScanStore.LOG_FILE_NAME ) ) == 0 );
+    }
+
+    @Test
+    public void shouldPresentAllEntriesInRanges() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList(
+                labelChanges( 1, NO_LABELS, new long[]{1, 2} ),
+                labelChanges( 70_000, NO_LABELS, new long[]{2} ) ).iterator() );
+
+        // WHEN
+        List<long[]> nodes = new ArrayList<>();
+        AllEntriesLabelScanReader reader = store.newAllEntriesReader();
+        for ( NodeLabelRange range : reader )
+        {
+            if ( range.nodes().length > 0 )
+            {
+                nodes.add( range.nodes() );
+                for ( long node : range.nodes() )
+                {
+                    assertArrayEquals( node == 1 ? new long[]{1, 2} : new long[]{2}, range.labels( node ) );
+                }
+            }
+        }
+        reader.close();
+
+        // THEN
+        assertEquals( 2, nodes.size() );
+        assertArrayEquals( new long[]{1}, nodes.get( 0 ) );
+        assertArrayEquals( new long[]{70_000}, nodes.get( 1 ) );
+    }
+
+    @Test
+    public void shouldNotRewriteSnapshotWhileSnapshotFilesAreOpen() throws Exception
+    {
+        // GIVEN
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        store.updateAndCommit( asList( labelChanges( 1, NO_LABELS, new long[]{1} ) ).iterator() );
+        File snapshot = new File( dir, NativeLabelScanStore.SNAPSHOT_FILE_NAME );
+
+        // WHEN
+        ResourceIterator<File> files = store.snapshotStoreFiles();
+        long sizeBefore = fs.get().getFileSize( snapshot );
+        store.updateAndCommit( asList( labelChanges( 2, NO_LABELS, new long[]{2} ) ).iterator() );
+        store.shutdown();
+
+        // THEN
+        assertEquals( sizeBefore, fs.get().getFileSize( snapshot ) );
+        assertTrue( fs.get().getFileSize( new File( dir, NativeLabelScanStore.LOG_FILE_NAME ) ) > 0 );
+        files.close();
+        store = null;
+        start( Collections.<NodeLabelUpdate>emptyList() );
+        assertNodesForLabel( 2, 2 );
+    }
+
+    private static final long[] NO_LABELS = new long[0];
+
+    @Rule
+    public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final File dir = new File( "labelscan" );
+    private NativeLabelScanStore store;
+
+    private void start( final List<NodeLabelUpdate> existingData ) throws Exception
+    {
+        store = new NativeLabelScanStore( dir, fs.get(), new FullStoreChangeStream()
+        {
+            @Override
+            public PrimitiveLongIterator labelIds()
+            {
+                return PrimitiveLongIteratorForArray.EMPTY;
+            }
+
+            @Override
+            public long highestNodeId()
+            {
+                return existingData.size();
+            }
+
+            @Override
+            public Iterator<NodeLabelUpdate> iterator()
+            {
+                return existingData.iterator();
+            }
+        }, StringLogger.DEV_NULL );
+        store.init();
+        store.start();
+    }
+
+    private void restart() throws Exception
+    {
+        store.stop();
+        store.shutdown();
+        start( Collections.<NodeLabelUpdate>emptyList() );
+    }
+
+    @After
+    public void shutdown() throws Exception
+    {
+        if ( store != null )
+        {
+            store.stop();
+            store.shutdown();
+        }
+    }
+
+    private void assertNodesForLabel( int labelId, long... expectedNodes )
+    {
+        LabelScanReader reader = store.newReader();
+        try
+        {
+            assertArrayEquals( expectedNodes, toArray( reader.nodesWithLabel( labelId ) ) );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    private static long[] toArray( PrimitiveLongIterator iterator )
+    {
+        List<Long> list = new ArrayList<>();
+        while ( iterator.hasNext() )
+        {
+            list.add( iterator.next() );
+        }
+        long[] array = new long[list.size()];
+        for ( int i = 0; i < array.length; i++ )
+        {
+            array[i] = list.get( i );
+        }
+        return array;
+    }
+}
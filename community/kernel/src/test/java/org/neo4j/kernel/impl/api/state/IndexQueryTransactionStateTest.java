@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.api.state;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -81,6 +83,31 @@ public class IndexQueryTransactionStateTest
         assertThat( asSet( result ), equalTo( asSet( 1l, 3l ) ) );
     }
 
+    @Test
+    public void shouldApplyChangedValuesToIndexRangeSeek() throws Exception
+    {
+        // Given
+        int labelId = 2, propertyKeyId = 3;
+
+        IndexDescriptor indexDescriptor = new IndexDescriptor( labelId, propertyKeyId );
+        when( store.nodesGetFromIndexRangeSeekByNumber( state, indexDescriptor, 10, true, 20, true ) )
+                .then( answerAsPrimitiveLongIteratorFrom( asList( 1l, 2l ) ) );
+        when( store.nodeHasLabel( state, 2l, labelId ) ).thenReturn( true );
+        when( store.nodeHasLabel( state, 3l, labelId ) ).thenReturn( true );
+        Map<Long, Object> changes = new HashMap<>();
+        changes.put( 2l, 100 );
+        changes.put( 3l, 15L );
+        when( oldTxState.getNodesWithChangedProperty( propertyKeyId ) ).thenReturn( changes );
+        when( oldTxState.hasChanges() ).thenReturn( true );
+
+        // When
+        PrimitiveLongIterator result =
+                txContext.nodesGetFromIndexRangeSeekByNumber( state, indexDescriptor, 10, true, 20, true );
+
+        // Then
+        assertThat( asSet( result ), equalTo( asSet( 1l, 3l ) ) );
+    }
+
     @Test
     public void shouldExcludeRemovedNodeFromUniqueIndexQuery() throws Exception
     {
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffHeapLongSetTest
+{
+    private final TxStateMemory memory = new TxStateMemory( 64 * 1024 );
+
+    @After
+    public void closeMemory()
+    {
+        memory.close();
+    }
+
+    @Test
+    public void shouldAddAndRemoveIds() throws Exception
+    {
+        // given
+        OffHeapLongSet set = new OffHeapLongSet( memory );
+
+        // when
+        assertTrue( set.add( 0l ) );
+        assertTrue( set.add( 42l ) );
+        assertFalse( set.add( 42l ) );
+        assertTrue( set.remove( 0l ) );
+        assertFalse( set.remove( 7l ) );
+
+        // then
+        assertEquals( 1, set.size() );
+        assertTrue( set.contains( 42l ) );
+        assertFalse( set.contains( 0l ) );
+        assertFalse( set.contains( "42" ) );
+    }
+
+    @Test
+    public void shouldBehaveLikeAHashSetWhenGrowingPastTheMemoryBudget() throws Exception
+    {
+        // given
+        OffHeapLongSet set = new OffHeapLongSet( memory );
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random( 1234 );
+
+        // when
+        for ( int i = 0; i < 100000; i++ )
+        {
+            long id = random.nextInt( 200000 );
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                assertEquals( expected.remove( id ), set.remove( id ) );
+            }
+            else
+            {
+                assertEquals( expected.add( id ), set.add( id ) );
+            }
+        }
+
+        // then
+        assertEquals( expected, new HashSet<>( set ) );
+        assertTrue( memory.spilledBytes() > 0 );
+    }
+
+    @Test
+    public void shouldRemoveThroughIterator() throws Exception
+    {
+        // given
+        OffHeapLongSet set = new OffHeapLongSet( memory );
+        for ( long id = 0; id < 100; id++ )
+        {
+            set.add( id );
+        }
+
+        // when
+        for ( Iterator<Long> iterator = set.iterator(); iterator.hasNext(); )
+        {
+            if ( iterator.next() % 2 == 0 )
+            {
+                iterator.remove();
+            }
+        }
+
+        // then
+        assertEquals( 50, set.size() );
+        assertFalse( set.contains( 10l ) );
+        assertTrue( set.contains( 11l ) );
+    }
+
+    @Test
+    public void shouldGiveBackDirectMemoryWhenGrowing() throws Exception
+    {
+        // given
+        TxStateMemory unlimited = new TxStateMemory( Long.MAX_VALUE );
+        OffHeapLongSet set = new OffHeapLongSet( unlimited );
+
+        // when
+        for ( long id = 0; id < 10000; id++ )
+        {
+            set.add( id );
+        }
+
+        // then only the current table is accounted for
+        assertEquals( 16384 * 8, unlimited.allocatedBytes() );
+        unlimited.close();
+    }
+
+    @Test
+    public void shouldGiveBackAllMemoryWhenClosed() throws Exception
+    {
+        // given
+        TxStateMemory small = new TxStateMemory( 64 * 1024 );
+        OffHeapLongSet inMemory = new OffHeapLongSet( small );
+        OffHeapLongSet spilled = new OffHeapLongSet( small );
+        for ( long id = 0; id < 1000; id++ )
+        {
+            inMemory.add( id );
+        }
+        for ( long id = 0; id < 100000; id++ )
+        {
+            spilled.add( id );
+        }
+        assertTrue( small.allocatedBytes() > 0 );
+        assertTrue( small.spilledBytes() > 0 );
+
+        // when
+        small.close();
+
+        // then
+        assertEquals( 0, small.allocatedBytes() );
+        assertEquals( 0, small.spilledBytes() );
+    }
+
+    @Test
+    public void shouldFailRatherThanReadFreedMemoryOnceClosed() throws Exception
+    {
+        // given
+        TxStateMemory unlimited = new TxStateMemory( Long.MAX_VALUE );
+        OffHeapLongSet set = new OffHeapLongSet( unlimited );
+        for ( long id = 0; id < 10000; id++ )
+        {
+            set.add( id );
+        }
+        Iterator<Long> iterator = set.iterator();
+        iterator.next();
+
+        // when
+        unlimited.close();
+
+        // then
+        try
+        {
+            iterator.next();
+            fail( "Should not be able to iterate over a closed set" );
+        }
+        catch ( IllegalStateException e )
+        {   // Good
+        }
+        try
+        {
+            set.contains( 42l );
+            fail( "Should not be able to read a closed set" );
+        }
+        catch ( IllegalStateException e )
+        {   // Good
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import static org.neo4j.kernel.impl.util.StringLogger.DEV_NULL;
+
+public class OffHeapCacheTest
+{
+    // One entity on the heap per stripe, and ids that are multiples of 16 all end up in the same stripe
+    private final OffHeapCache<Entity> cache =
+            new OffHeapCache<>( "test", new EntitySerializer(), 1024 * 1024, 16, DEV_NULL );
+
+    @Test
+    public void shouldHonorPutSemantics() throws Exception
+    {
+        // GIVEN
+        Entity version1 = new Entity( 10, "one" );
+        assertSame( version1, cache.put( version1 ) );
+
+        // WHEN
+        Entity version2 = new Entity( 10, "two" );
+
+        // THEN
+        assertSame( version1, cache.put( version2 ) );
+    }
+
+    @Test
+    public void shouldMoveEvictedEntitiesOffHeapAndBack() throws Exception
+    {
+        // GIVEN
+        Entity first = new Entity( 0, "first" );
+        cache.put( first );
+
+        // WHEN
+        cache.put( new Entity( 16, "second" ) );
+
+        // THEN
+        assertEquals( 2, cache.size() );
+        Entity restored = cache.get( 0 );
+        assertNotSame( first, restored );
+        assertEquals( "first", restored.value );
+        assertSame( restored, cache.get( 0 ) );
+        assertEquals( "second", cache.get( 16 ).value );
+        assertEquals( 3, cache.hitCount() );
+    }
+
+    @Test
+    public void shouldForgetEntityChangedAfterLeavingTheHeap() throws Exception
+    {
+        // GIVEN
+        Entity first = new Entity( 0, "first" );
+        cache.put( first );
+        cache.put( new Entity( 16, "second" ) );
+
+        // WHEN someone still holding on to it changes it
+        first.value = "changed";
+        cache.updateSize( first, 0 );
+
+        // THEN
+        assertNull( cache.get( 0 ) );
+        assertEquals( 1, cache.missCount() );
+    }
+
+    @Test
+    public void shouldForgetStaleCopyWhenOriginalChanges() throws Exception
+    {
+        // GIVEN
+        Entity first = new Entity( 0, "first" );
+        cache.put( first );
+        cache.put( new Entity( 16, "second" ) );
+        assertNotNull( cache.get( 0 ) );
+
+        // WHEN
+        first.value = "changed";
+        cache.updateSize( first, 0 );
+
+        // THEN
+        assertNull( cache.get( 0 ) );
+    }
+
+    @Test
+    public void shouldLeaveOutEntitiesThatCanNotBeSerialized() throws Exception
+    {
+        // GIVEN
+        cache.put( new Entity( 0, null ) );
+
+        // WHEN
+        cache.put( new Entity( 16, "second" ) );
+
+        // THEN
+        assertNull( cache.get( 0 ) );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void shouldRemoveFromAllTiers() throws Exception
+    {
+        // GIVEN
+        Entity first = new Entity( 0, "first" );
+        Entity second = new Entity( 16, "second" );
+        cache.put( first );
+        cache.put( second );
+
+        // WHEN
+        Entity removedFromOffHeap = cache.remove( 0 );
+        Entity removedFromHeap = cache.remove( 16 );
+
+        // THEN
+        assertNull( removedFromOffHeap );
+        assertSame( second, removedFromHeap );
+        assertNull( cache.get( 0 ) );
+        assertNull( cache.get( 16 ) );
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void shouldClearAllTiers() throws Exception
+    {
+        // GIVEN
+        for ( int id = 0; id < 100; id++ )
+        {
+            cache.put( new Entity( id, "" + id ) );
+        }
+
+        // WHEN
+        cache.clear();
+
+        // THEN
+        assertEquals( 0, cache.size() );
+        assertNull( cache.get( 0 ) );
+        assertNull( cache.get( 99 ) );
+    }
+
+    private static class Entity extends TestCacheTypes.Entity
+    {
+        private String value;
+
+        Entity( long id, String value )
+        {
+            super( id );
+            this.value = value;
+        }
+    }
+
+    private static class EntitySerializer implements OffHeapCache.Serializer<Entity>
+    {
+        @Override
+        public void write( Entity entity, DataOutput out ) throws IOException
+        {
+            if ( entity.value == null )
+            {
+                throw new IOException( "Can't serialize " + entity.getId() );
+            }
+            out.writeUTF( entity.value );
+        }
+
+        @Override
+        public Entity read( long id, DataInput in ) throws IOException
+        {
+            return new Entity( id, in.readUTF() );
+        }
+    }
+}
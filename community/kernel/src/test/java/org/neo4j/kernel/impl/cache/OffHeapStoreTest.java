@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapStoreTest
+{
+    @Test
+    public void shouldGetWhatWasPut() throws Exception
+    {
+        // GIVEN
+        OffHeapStore store = new OffHeapStore( 1024, 4 );
+
+        // WHEN
+        store.put( 1, bytes( 1, 10 ), 10 );
+        store.put( 2, bytes( 2, 20 ), 20 );
+
+        // THEN
+        assertArrayEquals( bytes( 1, 10 ), store.get( 1 ) );
+        assertArrayEquals( bytes( 2, 20 ), store.get( 2 ) );
+        assertNull( store.get( 3 ) );
+        assertEquals( 2, store.entryCount() );
+        assertEquals( 30, store.entryBytes() );
+    }
+
+    @Test
+    public void shouldReplaceAndRemoveEntries() throws Exception
+    {
+        // GIVEN
+        OffHeapStore store = new OffHeapStore( 1024, 4 );
+        store.put( 1, bytes( 1, 10 ), 10 );
+
+        // WHEN
+        store.put( 1, bytes( 5, 5 ), 5 );
+
+        // THEN
+        assertArrayEquals( bytes( 5, 5 ), store.get( 1 ) );
+        assertEquals( 1, store.entryCount() );
+        assertEquals( 5, store.entryBytes() );
+
+        // and WHEN
+        assertTrue( store.remove( 1 ) );
+
+        // THEN
+        assertFalse( store.contains( 1 ) );
+        assertFalse( store.remove( 1 ) );
+        assertEquals( 0, store.entryCount() );
+    }
+
+    @Test
+    public void shouldDropOldestEntriesWhenFull() throws Exception
+    {
+        // GIVEN 4 segments fitting 4 entries each
+        int entrySize = 100;
+        OffHeapStore store = new OffHeapStore( 4 * (entrySize + 12), 4 );
+
+        // WHEN
+        for ( int id = 0; id < 24; id++ )
+        {
+            store.put( id, bytes( id, entrySize ), entrySize );
+        }
+
+        // THEN the oldest segments have been recycled
+        for ( int id = 0; id < 8; id++ )
+        {
+            assertNull( store.get( id ) );
+        }
+        for ( int id = 8; id < 24; id++ )
+        {
+            assertArrayEquals( bytes( id, entrySize ), store.get( id ) );
+        }
+        assertEquals( 16, store.entryCount() );
+        assertEquals( 4 * 4 * (entrySize + 12), store.allocatedBytes() );
+    }
+
+    @Test
+    public void shouldNotDropEntriesMovedOutOfRecycledSegment() throws Exception
+    {
+        // GIVEN
+        int entrySize = 100;
+        OffHeapStore store = new OffHeapStore( 2 * (entrySize + 12), 2 );
+        store.put( 0, bytes( 0, entrySize ), entrySize );
+        store.put( 1, bytes( 1, entrySize ), entrySize );
+        store.put( 2, bytes( 2, entrySize ), entrySize );
+        store.put( 0, bytes( 9, entrySize ), entrySize );
+
+        // WHEN the first segment gets recycled
+        store.put( 3, bytes( 3, entrySize ), entrySize );
+
+        // THEN
+        assertArrayEquals( bytes( 9, entrySize ), store.get( 0 ) );
+        assertNull( store.get( 1 ) );
+        assertEquals( 3, store.entryCount() );
+    }
+
+    @Test
+    public void shouldRefuseEntriesBiggerThanASegment() throws Exception
+    {
+        // GIVEN
+        OffHeapStore store = new OffHeapStore( 64, 2 );
+        store.put( 1, bytes( 1, 10 ), 10 );
+
+        // WHEN
+        boolean stored = store.put( 1, bytes( 1, 100 ), 100 );
+
+        // THEN
+        assertFalse( stored );
+        assertNull( store.get( 1 ) );
+    }
+
+    @Test
+    public void shouldKeepEntriesWhenGrowingIndex() throws Exception
+    {
+        // GIVEN
+        OffHeapStore store = new OffHeapStore( 1024 * 1024, 2 );
+
+        // WHEN
+        for ( int id = 0; id < 10_000; id++ )
+        {
+            store.put( id, bytes( id, 4 ), 4 );
+            if ( id % 3 == 0 )
+            {
+                store.remove( id );
+            }
+        }
+
+        // THEN
+        for ( int id = 0; id < 10_000; id++ )
+        {
+            if ( id % 3 == 0 )
+            {
+                assertNull( store.get( id ) );
+            }
+            else
+            {
+                assertArrayEquals( bytes( id, 4 ), store.get( id ) );
+            }
+        }
+    }
+
+    private static byte[] bytes( int seed, int length )
+    {
+        byte[] bytes = new byte[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes[i] = (byte) (seed + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.RelIdArrayWithLoops;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import static org.neo4j.helpers.collection.IteratorUtil.asList;
+import static org.neo4j.kernel.api.properties.Property.property;
+import static org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper.BOTH;
+import static org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper.INCOMING;
+import static org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper.OUTGOING;
+
+public class NodeImplSerializerTest
+{
+    private final NodeImplSerializer serializer = new NodeImplSerializer();
+
+    @Test
+    public void shouldRestoreEverythingLoaded() throws Exception
+    {
+        // GIVEN
+        RelIdArray withLoops = new RelIdArrayWithLoops( 1 );
+        withLoops.add( 10, OUTGOING );
+        withLoops.add( 11, INCOMING );
+        withLoops.add( 12, BOTH );
+        RelIdArray highIds = new RelIdArray( 3 );
+        highIds.add( 5, OUTGOING );
+        highIds.add( 1L << 36, OUTGOING );
+        NodeImpl node = new NodeImpl( 7, new RelIdArray[] { withLoops, highIds }, new SingleChainPosition( 42 ),
+                new int[] { 1, 5 } );
+        node.setProperties( Arrays.asList(
+                property( 0, "a string" ),
+                property( 1, 123 ),
+                property( 2, 1.5d ),
+                property( 3, new long[] { 1, 2, 3 } ),
+                property( 4, new String[] { "a", "b" } ),
+                property( 5, true ) ).iterator() );
+
+        // WHEN
+        NodeImpl restored = roundTrip( node );
+
+        // THEN
+        assertEquals( 7, restored.getId() );
+        assertEquals( 42, restored.getRelChainPosition().position( BOTH, new int[0] ) );
+        assertArrayEquals( new int[] { 1, 5 }, restored.getLabelsIfLoaded() );
+        RelIdArray[] relationships = restored.getRelationshipIds();
+        assertEquals( 2, relationships.length );
+        assertEquals( 1, relationships[0].getType() );
+        assertArrayEquals( new long[] { 10 }, relationships[0].getIds( OUTGOING ) );
+        assertArrayEquals( new long[] { 11 }, relationships[0].getIds( INCOMING ) );
+        assertArrayEquals( new long[] { 12 }, relationships[0].getIds( BOTH ) );
+        assertEquals( 3, relationships[1].getType() );
+        assertArrayEquals( new long[] { 5, 1L << 36 }, relationships[1].getIds( OUTGOING ) );
+        assertEquals( asList( node.getCachedProperties() ), asList( restored.getCachedProperties() ) );
+    }
+
+    @Test
+    public void shouldRestoreNodeWithNothingLoaded() throws Exception
+    {
+        // GIVEN
+        NodeImpl node = new NodeImpl( 3 );
+
+        // WHEN
+        NodeImpl restored = roundTrip( node );
+
+        // THEN
+        assertNull( restored.getRelationshipIds() );
+        assertNull( restored.getLabelsIfLoaded() );
+        assertFalse( restored.hasLoadedProperties() );
+    }
+
+    @Test
+    public void shouldRestoreNewNode() throws Exception
+    {
+        // GIVEN
+        NodeImpl node = new NodeImpl( 3, true );
+
+        // WHEN
+        NodeImpl restored = roundTrip( node );
+
+        // THEN
+        assertEquals( 0, restored.getRelationshipIds().length );
+        assertTrue( restored.hasLoadedProperties() );
+        List<DefinedProperty> properties = asList( restored.getCachedProperties() );
+        assertTrue( properties.isEmpty() );
+    }
+
+    private NodeImpl roundTrip( NodeImpl node ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.write( node, new DataOutputStream( bytes ) );
+        return serializer.read( node.getId(),
+                new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+    }
+}
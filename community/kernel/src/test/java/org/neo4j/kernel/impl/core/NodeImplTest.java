@@ -33,10 +33,13 @@ import org.neo4j.helpers.Triplet;
 import org.neo4j.kernel.impl.coreapi.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.RelIdArray;
+import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 
 import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -71,7 +74,7 @@ public class NodeImplTest
         when( relLookup.lookupRelationship( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID ) )
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ), any( int[].class ) ) ).thenReturn( tripletWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID
         ) ).thenReturn( noMoreRelationshipsTriplet() );
         when( nodeManager.getTransactionState() ).thenReturn( txState );
@@ -111,7 +114,7 @@ public class NodeImplTest
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
 
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ), any( int[].class ) ) ).thenReturn( tripletWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1
         ) ).thenReturn( noMoreRelationshipsTriplet() );
         when( nodeManager.getTransactionState() ).thenReturn( txState );
@@ -134,9 +137,11 @@ public class NodeImplTest
         }
     }
 
-    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, Long> noMoreRelationshipsTriplet()
+    private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>, RelationshipLoadingPosition>
+            noMoreRelationshipsTriplet()
     {
-        return Triplet.of( new ArrayMap<Integer, RelIdArray>(), Collections.<RelationshipImpl>emptyList(), 0l );
+        return Triplet.of( new ArrayMap<Integer, RelIdArray>(), Collections.<RelationshipImpl>emptyList(),
+                (RelationshipLoadingPosition) new SingleChainPosition( 0 ) );
     }
 
     @Test
@@ -163,7 +168,7 @@ public class NodeImplTest
                 .thenReturn( new RelationshipImpl( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1, 1, 2,
                         TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, false ) );
 
-        when( nodeManager.getMoreRelationships( nodeImpl ) ).thenReturn( tripletWithValues(
+        when( nodeManager.getMoreRelationships( eq( nodeImpl ), any( DirectionWrapper.class ), any( int[].class ) ) ).thenReturn( tripletWithValues(
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID, TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID,
                 TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_ID + 1
         ) ).thenReturn( noMoreRelationshipsTriplet() );
@@ -189,7 +194,7 @@ public class NodeImplTest
     }
 
     private Triplet<ArrayMap<Integer, RelIdArray>, List<RelationshipImpl>,
-            Long> tripletWithValues( long... ids )
+            RelationshipLoadingPosition> tripletWithValues( long... ids )
     {
 
         final RelIdArray relIdArray = createRelIdArrayWithValues( ids );
@@ -198,7 +203,7 @@ public class NodeImplTest
         arrayMap.put( TOTALLY_ARBITRARY_VALUE_DENOTING_RELATIONSHIP_TYPE, relIdArray );
 
         return Triplet.of( arrayMap,
-                Collections.<RelationshipImpl>emptyList(), 0l );
+                Collections.<RelationshipImpl>emptyList(), (RelationshipLoadingPosition) new SingleChainPosition( 0 ) );
     }
 
 
@@ -48,6 +48,8 @@ import static org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper.OUTGOING;
  */
 public class RelationshipIteratorIssuesTest
 {
+    private static final int[] TYPES = { 0 };
+
     @Test
     public void arrayIndexOutOfBoundsInRelTypeArrayWhenCreatingRelationshipsConcurrently() throws Exception
     {
@@ -58,12 +60,12 @@ public class RelationshipIteratorIssuesTest
         
         // -- a node that says it cannot load any more relationships
         NodeImpl node = mock( NodeImpl.class );
-        when( node.getMoreRelationships( nodeManager ) ).thenReturn( LoadStatus.NOTHING );
+        when( node.getMoreRelationships( nodeManager, OUTGOING, TYPES ) ).thenReturn( LoadStatus.NOTHING );
         
         // -- a type iterator that at this point contains one relationship (0)
         ControlledRelIdIterator typeIterator = new ControlledRelIdIterator( 0L );
         RelationshipIterator iterator = new RelationshipIterator( new RelIdIterator[] { typeIterator },
-                node, OUTGOING, nodeManager, false, false );
+                node, OUTGOING, TYPES, nodeManager, false );
         // -- go forth one step in the iterator
         iterator.next();
         
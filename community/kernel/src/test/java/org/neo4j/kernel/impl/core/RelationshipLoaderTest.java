@@ -51,18 +51,21 @@ public class RelationshipLoaderTest
         Cache relCache = mock( Cache.class );
 
         NodeImpl node = new NodeImpl( 1337l );
-        node.setRelChainPosition( 0l );
+        node.setRelChainPosition( new SingleChainPosition( 0l ) );
 
         Map<RelIdArray.DirectionWrapper, Iterable<RelationshipRecord>> relsFromDisk = new HashMap<>();
         relsFromDisk.put( RelIdArray.DirectionWrapper.OUTGOING, asList( new RelationshipRecord( fromDiskRelId ) ));
         relsFromDisk.put( RelIdArray.DirectionWrapper.INCOMING, Collections.<RelationshipRecord>emptyList() );
 
-        when( persistenceManager.getMoreRelationships( 1337l, 0l ) ).thenReturn(Pair.of( relsFromDisk, -1l));
+        when( persistenceManager.getMoreRelationships( eq( 1337l ), any( RelationshipLoadingPosition.class ),
+                eq( RelIdArray.DirectionWrapper.BOTH ), any( int[].class ) ) )
+                .thenReturn( Pair.of( relsFromDisk, RelationshipLoadingPosition.EMPTY ) );
 
         RelationshipLoader loader = new RelationshipLoader( persistenceManager, relCache );
 
         // When
-        Triplet<ArrayMap<Integer,RelIdArray>,List<RelationshipImpl>,Long> result = loader.getMoreRelationships( node );
+        Triplet<ArrayMap<Integer,RelIdArray>,List<RelationshipImpl>,RelationshipLoadingPosition> result =
+                loader.getMoreRelationships( node, RelIdArray.DirectionWrapper.BOTH, new int[0] );
 
         // Then
         List<RelationshipImpl> relsThatWereNotInCache = result.second();
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+
+public class TestDenseNodes
+{
+    private static final int DENSE_NODE_THRESHOLD = 10;
+    private static final RelationshipType TYPE_A = DynamicRelationshipType.withName( "A" );
+    private static final RelationshipType TYPE_B = DynamicRelationshipType.withName( "B" );
+
+    @Rule
+    public ImpermanentDatabaseRule dbRule = new ImpermanentDatabaseRule()
+    {
+        @Override
+        protected void configure( GraphDatabaseBuilder builder )
+        {
+            builder.setConfig( GraphDatabaseSettings.dense_node_threshold, "" + DENSE_NODE_THRESHOLD );
+            builder.setConfig( GraphDatabaseSettings.relationship_grab_size, "3" );
+        }
+    };
+    private GraphDatabaseAPI db;
+
+    @Before
+    public void setup()
+    {
+        db = dbRule.getGraphDatabaseAPI();
+    }
+
+    @Test
+    public void shouldSplitUpRelationshipChainWhenReachingThreshold() throws Exception
+    {
+        // GIVEN
+        Node node = createNode();
+        createRelationships( node, TYPE_A, DENSE_NODE_THRESHOLD - 2 );
+        assertEquals( 0, groupStore().getHighId() );
+
+        // WHEN
+        Set<Relationship> expected = createRelationships( node, TYPE_B, 2 );
+        expected.addAll( createRelationships( node, TYPE_A, 2 ) );
+
+        // THEN
+        assertEquals( 2, groupStore().getHighId() );
+        clearCache();
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( DENSE_NODE_THRESHOLD + 2, count( node.getRelationships() ) );
+            assertEquals( DENSE_NODE_THRESHOLD, count( node.getRelationships( TYPE_A ) ) );
+            assertEquals( 2, count( node.getRelationships( TYPE_B ) ) );
+            for ( Relationship relationship : expected )
+            {
+                assertEquals( node, relationship.getStartNode() );
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldLoadOnlyRelationshipsOfRequestedTypeAndDirection() throws Exception
+    {
+        // GIVEN
+        Node node = createNode();
+        Set<Relationship> outgoingA = createRelationships( node, TYPE_A, DENSE_NODE_THRESHOLD );
+        Set<Relationship> incomingA = new HashSet<>();
+        Set<Relationship> loopsB = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 5; i++ )
+            {
+                incomingA.add( db.createNode().createRelationshipTo( node, TYPE_A ) );
+                loopsB.add( node.createRelationshipTo( node, TYPE_B ) );
+            }
+            tx.success();
+        }
+        clearCache();
+
+        // WHEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( outgoingA, asSet( node.getRelationships( TYPE_A, Direction.OUTGOING ) ) );
+
+            // THEN
+            NodeImpl nodeImpl = nodeManager().getNodeIfCached( node.getId() );
+            assertNull( nodeImpl.getRelationshipIds( typeId( TYPE_B ) ) );
+            assertEquals( incomingA, asSet( node.getRelationships( TYPE_A, Direction.INCOMING ) ) );
+            assertNull( nodeImpl.getRelationshipIds( typeId( TYPE_B ) ) );
+            assertEquals( loopsB, asSet( node.getRelationships( TYPE_B ) ) );
+            assertNotNull( nodeImpl.getRelationshipIds( typeId( TYPE_B ) ) );
+            assertEquals( outgoingA.size() + incomingA.size() + loopsB.size(),
+                    count( node.getRelationships() ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldDeleteRelationshipsOfDenseNode() throws Exception
+    {
+        // GIVEN
+        Node node = createNode();
+        Set<Relationship> relationshipsA = createRelationships( node, TYPE_A, DENSE_NODE_THRESHOLD );
+        Set<Relationship> relationshipsB = createRelationships( node, TYPE_B, 3 );
+
+        // WHEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( Relationship relationship : relationshipsA )
+            {
+                relationship.delete();
+            }
+            tx.success();
+        }
+        clearCache();
+
+        // THEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 0, count( node.getRelationships( TYPE_A ) ) );
+            assertEquals( relationshipsB, asSet( node.getRelationships() ) );
+            for ( Relationship relationship : relationshipsB )
+            {
+                relationship.delete();
+            }
+            node.delete();
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldDeleteLoopsOfDenseNode() throws Exception
+    {
+        // GIVEN
+        Node node = createNode();
+        Set<Relationship> loops = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < DENSE_NODE_THRESHOLD + 2; i++ )
+            {
+                loops.add( node.createRelationshipTo( node, TYPE_A ) );
+            }
+            tx.success();
+        }
+        clearCache();
+
+        // WHEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( loops, asSet( node.getRelationships( Direction.OUTGOING ) ) );
+            for ( Relationship loop : loops )
+            {
+                loop.delete();
+            }
+            tx.success();
+        }
+        clearCache();
+
+        // THEN
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 0, count( node.getRelationships() ) );
+            node.delete();
+            tx.success();
+        }
+    }
+
+    private Node createNode()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            tx.success();
+            return node;
+        }
+    }
+
+    private Set<Relationship> createRelationships( Node node, RelationshipType type, int count )
+    {
+        Set<Relationship> relationships = new HashSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                relationships.add( node.createRelationshipTo( db.createNode(), type ) );
+            }
+            tx.success();
+        }
+        return relationships;
+    }
+
+    private Set<Relationship> asSet( Iterable<Relationship> relationships )
+    {
+        Set<Relationship> result = new HashSet<>();
+        for ( Relationship relationship : relationships )
+        {
+            result.add( relationship );
+        }
+        return result;
+    }
+
+    private int typeId( RelationshipType type )
+    {
+        return nodeManager().getRelationshipTypeIdFor( type );
+    }
+
+    private NodeManager nodeManager()
+    {
+        return db.getDependencyResolver().resolveDependency( NodeManager.class );
+    }
+
+    private void clearCache()
+    {
+        nodeManager().clearCache();
+    }
+
+    private RelationshipGroupStore groupStore()
+    {
+        return db.getDependencyResolver().resolveDependency( NeoStoreXaDataSource.class ).getNeoStore()
+                .getRelationshipGroupStore();
+    }
+}
@@ -48,7 +48,8 @@ public class TestOperationsOnDeletedRelationships
         Throwable exceptionCaught = null;
 
         // Given something tries to load relationships, throw InvalidRecordException
-        when( nodeManager.getMoreRelationships( any( NodeImpl.class ) ) ).thenThrow( new InvalidRecordException(
+        when( nodeManager.getMoreRelationships( any( NodeImpl.class ), any( RelIdArray.DirectionWrapper.class ),
+                any( int[].class ) ) ).thenThrow( new InvalidRecordException(
                 "LURING!" ) );
 
         // When
@@ -75,17 +76,18 @@ public class TestOperationsOnDeletedRelationships
         Throwable exceptionCaught = null;
 
         // This makes fromNode think there are more relationships to be loaded
-        fromNode.setRelChainPosition( 1337l );
+        fromNode.setRelChainPosition( new SingleChainPosition( 1337l ) );
 
         // This makes nodeManager pretend that relationships have been deleted
-        when( nodeManager.getMoreRelationships( any( NodeImpl.class ) ) ).thenThrow( new InvalidRecordException(
+        when( nodeManager.getMoreRelationships( any( NodeImpl.class ), any( RelIdArray.DirectionWrapper.class ),
+                any( int[].class ) ) ).thenThrow( new InvalidRecordException(
                 "LURING!" ) );
 
 
         // When
         try
         {
-            fromNode.getMoreRelationships( nodeManager );
+            fromNode.getMoreRelationships( nodeManager, RelIdArray.DirectionWrapper.BOTH, new int[0] );
         }
         catch ( Throwable e )
         {
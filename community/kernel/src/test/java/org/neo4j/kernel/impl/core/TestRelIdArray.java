@@ -176,6 +176,101 @@ public class TestRelIdArray
         arrayTo.add( 2, DirectionWrapper.INCOMING );
     }
 
+    @Test
+    public void shouldKeepIdsAndTheirOrderWhenShrinkingIntoCompressedBlock() throws Exception
+    {
+        // GIVEN
+        RelIdArray array = new RelIdArray( 0 );
+        List<Long> expected = new ArrayList<>();
+        long id = 1_000;
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            id += i % 7 == 0 ? -5 : (i % 100 == 0 ? 0x1_0000_0000L : 3);
+            array.add( id, OUTGOING );
+            expected.add( id );
+        }
+
+        // WHEN
+        RelIdArray shrunk = array.shrink();
+
+        // THEN
+        assertEquals( expected, asList( shrunk ) );
+        long[] ids = shrunk.getIds( OUTGOING );
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            assertEquals( expected.get( i ).longValue(), ids[i] );
+        }
+    }
+
+    @Test
+    public void compressedBlockShouldTakeAFractionOfTheMemory() throws Exception
+    {
+        // GIVEN
+        RelIdArray array = new RelIdArray( 0 );
+        for ( long id = 0; id < 100_000; id++ )
+        {
+            array.add( id * 2, OUTGOING );
+        }
+        int uncompressedSize = array.sizeOfObjectInBytesIncludingOverhead();
+
+        // WHEN
+        RelIdArray shrunk = array.shrink();
+
+        // THEN
+        assertTrue( shrunk.sizeOfObjectInBytesIncludingOverhead() * 4 < uncompressedSize );
+    }
+
+    @Test
+    public void shouldAcceptAddsAfterShrinkingIntoCompressedBlock() throws Exception
+    {
+        // GIVEN
+        RelIdArray array = new RelIdArray( 0 );
+        Set<Long> expected = new HashSet<>();
+        for ( long id = 0; id < 200; id++ )
+        {
+            array.add( id, INCOMING );
+            expected.add( id );
+        }
+        array = array.shrink();
+        RelIdIterator iterator = array.iterator( INCOMING );
+        assertEquals( expected, deplete( iterator ) );
+
+        // WHEN
+        array.add( 1_000, INCOMING );
+        array.add( 0x1_0000_0000L, INCOMING );
+
+        // THEN
+        assertEquals( asSet( 1_000L, 0x1_0000_0000L ), deplete( iterator ) );
+        expected.add( 1_000L );
+        expected.add( 0x1_0000_0000L );
+        assertEquals( expected, new HashSet<>( asList( array.shrink() ) ) );
+    }
+
+    @Test
+    public void shouldRemoveIdsFromCompressedBlock() throws Exception
+    {
+        // GIVEN
+        RelIdArray source = new RelIdArray( 0 );
+        Set<Long> expected = new HashSet<>();
+        for ( long id = 0; id < 200; id++ )
+        {
+            source.add( id, OUTGOING );
+            expected.add( id );
+        }
+        source = source.shrink();
+        RelIdArray add = new RelIdArray( 0 );
+        add.add( 500, OUTGOING );
+        expected.add( 500L );
+
+        // WHEN
+        Collection<Long> remove = new HashSet<>( Arrays.asList( 3L, 100L, 199L ) );
+        expected.removeAll( remove );
+        RelIdArray result = RelIdArray.from( source, add, remove );
+
+        // THEN
+        assertEquals( expected, new HashSet<>( asList( result ) ) );
+    }
+
     private Set<Long> deplete( RelIdIterator iterator )
     {
         HashSet<Long> set = new HashSet<>();
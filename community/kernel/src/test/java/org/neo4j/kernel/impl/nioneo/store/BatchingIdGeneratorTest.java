@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchingIdGeneratorTest
+{
+    @Test
+    public void shouldHandOutDistinctIdsToConcurrentThreads() throws Exception
+    {
+        // GIVEN
+        final IdGenerator generator = new BatchingIdGenerator( open( 0 ), 10, false );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        // WHEN
+        for ( int i = 0; i < 4; i++ )
+        {
+            futures.add( executor.submit( new Callable<List<Long>>()
+            {
+                @Override
+                public List<Long> call()
+                {
+                    List<Long> ids = new ArrayList<>();
+                    for ( int j = 0; j < 1000; j++ )
+                    {
+                        ids.add( generator.nextId() );
+                    }
+                    return ids;
+                }
+            } ) );
+        }
+
+        // THEN
+        Set<Long> ids = new HashSet<>();
+        for ( Future<List<Long>> future : futures )
+        {
+            ids.addAll( future.get() );
+        }
+        executor.shutdown();
+        assertEquals( 4000, ids.size() );
+        assertTrue( generator.getHighId() <= 4000 + 4 * 10 );
+        generator.close();
+    }
+
+    @Test
+    public void shouldGiveBackUnusedIdsOfBatchesOnClose() throws Exception
+    {
+        // GIVEN
+        IdGenerator generator = new BatchingIdGenerator( open( 0 ), 10, false );
+        assertEquals( 0, generator.nextId() );
+        assertEquals( 1, generator.nextId() );
+        assertEquals( 2, generator.getNumberOfIdsInUse() );
+
+        // WHEN
+        generator.close();
+
+        // THEN
+        IdGenerator reopened = open( 0 );
+        assertEquals( 10, reopened.getHighId() );
+        Set<Long> ids = new HashSet<>();
+        for ( int i = 0; i < 8; i++ )
+        {
+            ids.add( reopened.nextId() );
+        }
+        assertEquals( 8, ids.size() );
+        assertEquals( 10, reopened.getHighId() );
+        reopened.close();
+    }
+
+    @Test
+    public void shouldReuseFreedIdsRightAwayIfAllowed() throws Exception
+    {
+        // GIVEN
+        IdGenerator generator = new BatchingIdGenerator( open( 0 ), 10, true );
+        long id = generator.nextId();
+        generator.nextId();
+
+        // WHEN
+        generator.freeId( id );
+
+        // THEN
+        assertEquals( 1, generator.getDefragCount() );
+        assertEquals( id, generator.nextId() );
+        assertEquals( 0, generator.getDefragCount() );
+        generator.close();
+    }
+
+    @Test
+    public void shouldNeverHandOutIntegerMinusOne() throws Exception
+    {
+        // GIVEN
+        IdGenerator generator = new BatchingIdGenerator( open( IdGeneratorImpl.INTEGER_MINUS_ONE - 1 ), 10, false );
+
+        // WHEN
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // THEN
+        assertEquals( IdGeneratorImpl.INTEGER_MINUS_ONE - 1, first );
+        assertEquals( IdGeneratorImpl.INTEGER_MINUS_ONE + 1, second );
+        generator.close();
+    }
+
+    public final @Rule EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+    private final File file = new File( "ids" );
+
+    private IdGenerator open( long highId )
+    {
+        if ( !fs.get().fileExists( file ) )
+        {
+            IdGeneratorImpl.createGenerator( fs.get(), file, highId );
+        }
+        return new IdGeneratorImpl( fs.get(), file, 100, Long.MAX_VALUE, false, highId );
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LzfTest
+{
+    @Test
+    public void shouldCompressRepetitiveData() throws Exception
+    {
+        // GIVEN
+        StringBuilder builder = new StringBuilder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.append( "{\"id\":" ).append( i ).append( ",\"type\":\"person\",\"active\":true}" );
+        }
+        byte[] data = builder.toString().getBytes( "UTF-8" );
+
+        // WHEN
+        byte[] compressed = Lzf.compress( data );
+
+        // THEN
+        assertTrue( compressed.length < data.length / 2 );
+        assertArrayEquals( data, Lzf.decompress( compressed, 0, data.length ) );
+    }
+
+    @Test
+    public void shouldNotCompressRandomData() throws Exception
+    {
+        // GIVEN
+        byte[] data = new byte[1000];
+        new Random( 1 ).nextBytes( data );
+
+        // WHEN
+        byte[] compressed = Lzf.compress( data );
+
+        // THEN
+        assertNull( compressed );
+    }
+
+    @Test
+    public void shouldRoundTripDataOfAllSizes() throws Exception
+    {
+        Random random = new Random( 2 );
+        for ( int length = 4; length < 2000; length += 7 )
+        {
+            // GIVEN data with few distinct values, so that it holds short and long back references
+            byte[] data = new byte[length];
+            for ( int i = 0; i < length; i++ )
+            {
+                data[i] = (byte) (random.nextInt( 8 ) == 0 ? random.nextInt( 4 ) : data[Math.max( 0, i - 300 )]);
+            }
+
+            // WHEN
+            byte[] compressed = Lzf.compress( data );
+
+            // THEN
+            if ( compressed != null )
+            {
+                assertArrayEquals( data, Lzf.decompress( compressed, 0, length ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldCompressThroughDynamicRecordCompression() throws Exception
+    {
+        // GIVEN
+        byte[] data = new byte[500];
+
+        // WHEN
+        byte[] compressed = DynamicRecordCompression.LZF.compress( data );
+
+        // THEN
+        assertTrue( compressed.length < data.length );
+        assertArrayEquals( data, DynamicRecordCompression.decompress( compressed ) );
+        assertNull( DynamicRecordCompression.NONE.compress( data ) );
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.ResourceCollection;
+import org.neo4j.test.TargetDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheWindowPoolTest
+{
+    private static final int RECORD_SIZE = 8;
+    private static final int RECORDS_PER_PAGE = 16;
+    private static final int PAGE_SIZE = RECORD_SIZE * RECORDS_PER_PAGE;
+
+    private static final TargetDirectory target = TargetDirectory.forTest( PageCacheWindowPoolTest.class );
+    @Rule
+    public final ResourceCollection resources = new ResourceCollection();
+    @Rule
+    public final TargetDirectory.TestDirectory directory = target.testDirectory();
+
+    @Test
+    public void shouldLetReadersShareAMappedPage() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool( 10, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, false );
+
+        // when
+        PersistenceWindow first = pool.acquire( 0, OperationType.READ );
+        PersistenceWindow second = pool.acquire( 1, OperationType.READ );
+
+        // then
+        assertNotSame( first, second );
+        assertEquals( 0, first.position() );
+        assertEquals( RECORDS_PER_PAGE, first.size() );
+        assertEquals( first.position(), second.position() );
+        pool.release( first );
+        pool.release( second );
+        pool.close();
+    }
+
+    @Test
+    public void shouldSeeWritesToAPageWhenReadingItLater() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool( 10, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, false );
+
+        // when
+        PersistenceWindow window = pool.acquire( 3, OperationType.WRITE );
+        window.getOffsettedBuffer( 3 ).putLong( 42 );
+        pool.release( window );
+
+        // then
+        window = pool.acquire( 3, OperationType.READ );
+        assertEquals( 42, window.getOffsettedBuffer( 3 ).getLong() );
+        pool.release( window );
+        pool.close();
+    }
+
+    @Test
+    public void shouldEvictPagesWhenStoreIsLargerThanMappedMemory() throws Exception
+    {
+        // given
+        int frames = PageCacheWindowPool.MIN_FRAME_COUNT;
+        int pages = frames * 4;
+        PageCacheWindowPool pool = newPool( pages, PAGE_SIZE * frames, false );
+        for ( long id = 0; id < pages * RECORDS_PER_PAGE; id++ )
+        {
+            PersistenceWindow window = pool.acquire( id, OperationType.WRITE );
+            window.getOffsettedBuffer( id ).putLong( id );
+            pool.release( window );
+        }
+
+        // when
+        for ( long id = 0; id < pages * RECORDS_PER_PAGE; id++ )
+        {
+            PersistenceWindow window = pool.acquire( id, OperationType.READ );
+            // then
+            assertEquals( id, window.getOffsettedBuffer( id ).getLong() );
+            pool.release( window );
+        }
+        WindowPoolStats stats = pool.getStats();
+        assertEquals( frames, stats.getWindowCount() );
+        assertTrue( stats.getMemUsed() <= stats.getMemAvail() );
+        assertTrue( stats.getSwitchCount() > 0 );
+        pool.close();
+    }
+
+    @Test
+    public void shouldFallBackToRowWhenAllFramesArePinned() throws Exception
+    {
+        // given
+        int frames = PageCacheWindowPool.MIN_FRAME_COUNT;
+        PageCacheWindowPool pool = newPool( frames + 1, PAGE_SIZE * frames, false );
+        PersistenceWindow[] pinned = new PersistenceWindow[frames];
+        for ( int i = 0; i < frames; i++ )
+        {
+            pinned[i] = pool.acquire( i * RECORDS_PER_PAGE, OperationType.READ );
+        }
+
+        // when
+        PersistenceWindow window = pool.acquire( frames * RECORDS_PER_PAGE, OperationType.WRITE );
+
+        // then
+        assertTrue( window instanceof PersistenceRow );
+        window.getOffsettedBuffer( frames * RECORDS_PER_PAGE ).putLong( 7 );
+        pool.release( window );
+        for ( PersistenceWindow pinnedWindow : pinned )
+        {
+            pool.release( pinnedWindow );
+        }
+        window = pool.acquire( frames * RECORDS_PER_PAGE, OperationType.READ );
+        assertEquals( 7, window.getOffsettedBuffer( frames * RECORDS_PER_PAGE ).getLong() );
+        pool.release( window );
+        pool.close();
+    }
+
+    @Test
+    public void shouldUseRowsBeyondTheEndOfAReadOnlyStore() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool( 1, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, true );
+
+        // when
+        PersistenceWindow mapped = pool.acquire( 0, OperationType.READ );
+        PersistenceWindow beyondEnd = pool.acquire( RECORDS_PER_PAGE, OperationType.READ );
+
+        // then
+        assertTrue( !(mapped instanceof PersistenceRow) );
+        assertTrue( beyondEnd instanceof PersistenceRow );
+        pool.release( mapped );
+        pool.release( beyondEnd );
+        pool.close();
+    }
+
+    @Test
+    public void shouldOnlyUseRowsWithoutMappedMemory() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool( 1, 0, false );
+
+        // when
+        PersistenceWindow window = pool.acquire( 0, OperationType.READ );
+
+        // then
+        assertTrue( window instanceof PersistenceRow );
+        pool.release( window );
+        PersistenceWindow again = pool.acquire( 0, OperationType.READ );
+        assertNotSame( window, again );
+        pool.release( again );
+        assertEquals( 0, pool.getStats().getWindowCount() );
+        pool.close();
+    }
+
+    @Test( timeout = 10000 )
+    public void shouldLetAReaderOfAPageWriteToItToo() throws Exception
+    {
+        // given
+        PageCacheWindowPool pool = newPool( 1, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, false );
+        PersistenceWindow reader = pool.acquire( 5, OperationType.READ );
+
+        // when
+        PersistenceWindow writer = pool.acquire( 5, OperationType.WRITE );
+        writer.getOffsettedBuffer( 5 ).putLong( 42 );
+
+        // then
+        assertEquals( 42, reader.getOffsettedBuffer( 5 ).getLong() );
+        pool.release( writer );
+        pool.release( reader );
+        PersistenceWindow otherWriter = acquireInOtherThread( pool, 5, OperationType.WRITE );
+        assertEquals( 42, otherWriter.getOffsettedBuffer( 5 ).getLong() );
+        pool.release( otherWriter );
+        pool.close();
+    }
+
+    @Test( timeout = 10000 )
+    public void shouldKeepOtherThreadsOutOfAPageUpgradedForWriting() throws Exception
+    {
+        // given
+        final PageCacheWindowPool pool = newPool( 1, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, false );
+        PersistenceWindow reader = pool.acquire( 5, OperationType.READ );
+        PersistenceWindow writer = pool.acquire( 5, OperationType.WRITE );
+
+        // when
+        Thread otherReader = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                pool.release( pool.acquire( 5, OperationType.READ ) );
+            }
+        };
+        otherReader.start();
+        otherReader.join( 100 );
+
+        // then
+        assertTrue( otherReader.isAlive() );
+        pool.release( writer );
+        otherReader.join( 100 );
+        assertTrue( otherReader.isAlive() );
+        pool.release( reader );
+        otherReader.join();
+        pool.close();
+    }
+
+    @Test
+    public void shouldWaitForPinnedPagesBeforeUnmappingThemOnClose() throws Exception
+    {
+        // given
+        final PageCacheWindowPool pool = newPool( 1, PAGE_SIZE * PageCacheWindowPool.MIN_FRAME_COUNT, false );
+        PersistenceWindow window = pool.acquire( 2, OperationType.WRITE );
+        window.getOffsettedBuffer( 2 ).putLong( 42 );
+
+        // when
+        Thread closer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                pool.close();
+            }
+        };
+        closer.start();
+        closer.join( 100 );
+
+        // then
+        assertTrue( closer.isAlive() );
+        assertEquals( 42, window.getOffsettedBuffer( 2 ).getLong() );
+        pool.release( window );
+        closer.join( 10000 );
+        assertFalse( closer.isAlive() );
+    }
+
+    private static PersistenceWindow acquireInOtherThread( final PageCacheWindowPool pool, final long position,
+                                                           final OperationType operationType ) throws Exception
+    {
+        final PersistenceWindow[] window = new PersistenceWindow[1];
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                window[0] = pool.acquire( position, operationType );
+            }
+        };
+        thread.start();
+        thread.join();
+        return window[0];
+    }
+
+    private PageCacheWindowPool newPool( int pages, long mappedMemory, boolean readOnly ) throws Exception
+    {
+        File file = new File( directory.directory(), "paged.file" );
+        RandomAccessFile raf = resources.add( new RandomAccessFile( file, "rw" ) );
+        raf.setLength( (long) pages * PAGE_SIZE );
+        return new PageCacheWindowPool( new File( "test.store" ), RECORD_SIZE, raf.getChannel(), mappedMemory,
+                PAGE_SIZE, readOnly, new ConcurrentHashMap<Long, PersistenceRow>(), StringLogger.DEV_NULL );
+    }
+}
@@ -35,7 +35,9 @@ import org.neo4j.test.EphemeralFileSystemRule;
 
 import static java.nio.ByteBuffer.wrap;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.first;
@@ -65,6 +67,42 @@ public class SchemaStoreTest
         assertEquals( indexRule.getProviderDescriptor(), readIndexRule.getProviderDescriptor() );
     }
 
+    @Test
+    public void serializationAndDeserializationOfCompositeIndexRule() throws Exception
+    {
+        // GIVEN
+        int[] propertyKeys = {4, 2, 9};
+        int labelId = 1;
+        IndexRule indexRule = IndexRule.indexRule( store.nextId(), labelId, propertyKeys, PROVIDER_DESCRIPTOR );
+
+        // WHEN
+        byte[] serialized = new RecordSerializer().append( indexRule ).serialize();
+        IndexRule readIndexRule = (IndexRule) SchemaRule.Kind.deserialize( indexRule.getId(), wrap( serialized ) );
+
+        // THEN
+        assertEquals( indexRule, readIndexRule );
+        assertArrayEquals( propertyKeys, readIndexRule.getPropertyKeys() );
+        assertTrue( readIndexRule.isComposite() );
+    }
+
+    @Test
+    public void serializationAndDeserializationOfCompositeUniquenessConstraintRule() throws Exception
+    {
+        // GIVEN
+        int[] propertyKeys = {3, 5};
+        UniquenessConstraintRule rule = UniquenessConstraintRule.uniquenessConstraintRule(
+                store.nextId(), 1, propertyKeys, 42 );
+
+        // WHEN
+        byte[] serialized = new RecordSerializer().append( rule ).serialize();
+        UniquenessConstraintRule readRule =
+                (UniquenessConstraintRule) SchemaRule.Kind.deserialize( rule.getId(), wrap( serialized ) );
+
+        // THEN
+        assertArrayEquals( propertyKeys, readRule.getPropertyKeys() );
+        assertEquals( 42, readRule.getOwnedIndex() );
+    }
+
     @Test
     public void storeAndLoadAllShortRules() throws Exception
     {
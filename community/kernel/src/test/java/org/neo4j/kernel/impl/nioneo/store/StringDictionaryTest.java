@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.nioneo.store;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.DefaultTxHook;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.test.TargetDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.string_dictionary_keys;
+import static org.neo4j.helpers.collection.IteratorUtil.first;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class StringDictionaryTest
+{
+    private static final int STATUS = 0;
+    private static final int NAME = 1;
+    private static final String VALUE = "Customer since the early days, eligible for the loyalty programme";
+
+    private File fileName;
+    private StoreFactory factory;
+    private PropertyStore propertyStore;
+
+    @Before
+    public void before() throws Exception
+    {
+        File dir = TargetDirectory.forTest( getClass() ).directory( "db", true );
+        fileName = new File( dir, "propertystore" );
+        factory = new StoreFactory( new Config( stringMap( string_dictionary_keys.name(), "status" ) ),
+                new DefaultIdGeneratorFactory(), new DefaultWindowPoolFactory(), new DefaultFileSystemAbstraction(),
+                StringLogger.DEV_NULL, new DefaultTxHook() );
+        factory.createPropertyStore( fileName );
+        propertyStore = factory.newPropertyStore( fileName );
+        createPropertyKeyToken( STATUS, "status" );
+        createPropertyKeyToken( NAME, "name" );
+    }
+
+    @After
+    public void after() throws Exception
+    {
+        if ( propertyStore != null )
+        {
+            propertyStore.close();
+        }
+    }
+
+    @Test
+    public void shouldStoreEachDistinctValueOnce() throws Exception
+    {
+        // WHEN
+        PropertyRecord first = createProperty( STATUS, VALUE );
+        PropertyRecord second = createProperty( STATUS, new String( VALUE ) );
+
+        // THEN
+        PropertyBlock firstBlock = first.getPropertyBlock( STATUS );
+        PropertyBlock secondBlock = second.getPropertyBlock( STATUS );
+        assertEquals( PropertyType.DICTIONARY_STRING, firstBlock.getType() );
+        assertEquals( PropertyType.DICTIONARY_STRING, secondBlock.getType() );
+        assertEquals( firstBlock.getSingleValueLong(), secondBlock.getSingleValueLong() );
+        assertTrue( secondBlock.isLight() );
+        assertSame( readValue( first, STATUS ), readValue( second, STATUS ) );
+        assertEquals( VALUE, readValue( second, STATUS ) );
+    }
+
+    @Test
+    public void shouldStoreValueReservedByAnotherTransactionAsRegularString() throws Exception
+    {
+        // GIVEN
+        assertTrue( propertyStore.getStringDictionary().reserve( VALUE ) );
+
+        // WHEN
+        PropertyRecord record = createProperty( STATUS, VALUE );
+
+        // THEN
+        assertEquals( PropertyType.STRING, record.getPropertyBlock( STATUS ).getType() );
+        assertEquals( VALUE, readValue( record, STATUS ) );
+    }
+
+    @Test
+    public void shouldOnlyUseDictionaryForConfiguredKeys() throws Exception
+    {
+        // WHEN
+        PropertyRecord first = createProperty( NAME, VALUE );
+        PropertyRecord second = createProperty( NAME, VALUE );
+
+        // THEN
+        assertEquals( PropertyType.STRING, first.getPropertyBlock( NAME ).getType() );
+        assertNotSame( readValue( first, NAME ), readValue( second, NAME ) );
+    }
+
+    @Test
+    public void shouldFindEntriesAfterRestart() throws Exception
+    {
+        // GIVEN
+        long entry = createProperty( STATUS, VALUE ).getPropertyBlock( STATUS ).getSingleValueLong();
+
+        // WHEN
+        propertyStore.close();
+        propertyStore = factory.newPropertyStore( fileName );
+        PropertyRecord record = createProperty( STATUS, VALUE );
+
+        // THEN
+        assertEquals( entry, record.getPropertyBlock( STATUS ).getSingleValueLong() );
+        assertEquals( VALUE, readValue( record, STATUS ) );
+    }
+
+    @Test
+    public void shouldCompareDictionaryPropertiesByEntry() throws Exception
+    {
+        // GIVEN
+        PropertyRecord first = createProperty( STATUS, VALUE );
+        PropertyRecord second = createProperty( STATUS, VALUE );
+        PropertyRecord other = createProperty( STATUS, VALUE + ", twice" );
+
+        // WHEN
+        DefinedProperty firstProperty = readProperty( first, STATUS );
+        DefinedProperty secondProperty = readProperty( second, STATUS );
+        DefinedProperty otherProperty = readProperty( other, STATUS );
+
+        // THEN
+        assertEquals( firstProperty, secondProperty );
+        assertFalse( firstProperty.equals( otherProperty ) );
+        assertTrue( secondProperty.valueEquals( new String( VALUE ) ) );
+        assertFalse( otherProperty.valueEquals( VALUE ) );
+        assertFalse( otherProperty.valueEquals( "not in the dictionary" ) );
+    }
+
+    private void createPropertyKeyToken( int id, String key )
+    {
+        PropertyKeyTokenStore tokenStore = propertyStore.getPropertyKeyTokenStore();
+        PropertyKeyTokenRecord record = new PropertyKeyTokenRecord( id );
+        record.setInUse( true );
+        record.setCreated();
+        Collection<DynamicRecord> nameRecords = tokenStore.allocateNameRecords( PropertyStore.encodeString( key ) );
+        record.setNameId( (int) first( nameRecords ).getId() );
+        record.addNameRecords( nameRecords );
+        tokenStore.setHighId( id + 1 );
+        tokenStore.updateRecord( record );
+    }
+
+    private PropertyRecord createProperty( int keyId, String value )
+    {
+        PropertyRecord record = new PropertyRecord( propertyStore.nextId() );
+        record.setInUse( true );
+        record.setCreated();
+        PropertyBlock block = new PropertyBlock();
+        propertyStore.encodeValue( block, keyId, value );
+        record.addPropertyBlock( block );
+        propertyStore.updateRecord( record );
+        return record;
+    }
+
+    private DefinedProperty readProperty( PropertyRecord record, int keyId )
+    {
+        PropertyBlock block = propertyStore.getRecord( record.getId() ).getPropertyBlock( keyId );
+        return block.getType().readProperty( keyId, block, propertyStore );
+    }
+
+    private Object readValue( PropertyRecord record, int keyId )
+    {
+        PropertyBlock block = propertyStore.getRecord( record.getId() ).getPropertyBlock( keyId );
+        return block.getType().getValue( block, propertyStore );
+    }
+}
@@ -116,6 +116,25 @@ public class TestArrayStore
         }
     }
     
+    @Test
+    public void compressedArraysShouldBeReadBackFromTheirRecords() throws Exception
+    {
+        // GIVEN
+        String[] array = new String[20];
+        Arrays.fill( array, "{\"name\":\"Mattias\",\"age\":37}" );
+        int uncompressedRecordCount = arrayStore.allocateRecords( array ).size();
+        arrayStore.setCompression( DynamicRecordCompression.LZF );
+
+        // WHEN
+        Collection<DynamicRecord> records = storeArray( array );
+
+        // THEN
+        assertTrue( records.size() < uncompressedRecordCount );
+        assertTrue( records.iterator().next().isCompressed() );
+        Collection<DynamicRecord> loaded = arrayStore.getLightRecords( records.iterator().next().getId() );
+        assertTrue( Arrays.equals( array, (String[]) arrayStore.getArrayFor( loaded ) ) );
+    }
+
     private void assertStringHeader( byte[] header, int itemCount )
     {
         assertEquals( PropertyType.STRING.byteValue(), header[0] );
@@ -28,6 +28,8 @@ import org.junit.Test;
 import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.transaction.XidImpl;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBuffer;
 import org.neo4j.kernel.impl.transaction.xaframework.XaCommand;
 
@@ -52,6 +54,9 @@ public class LogTruncationTest
         assertHandlesLogTruncation( new Command.LabelTokenCommand( null, new LabelTokenRecord( 1 )) );
 
         assertHandlesLogTruncation( new Command.NeoStoreCommand( null, new NeoStoreRecord() ) );
+        // Larger than the buffer it's read with
+        assertHandlesLogTruncation( new Command.BranchCopyCommand( new BranchCopy(
+                new XidImpl( XidImpl.getNewGlobalId(), new byte[]{1, 2, 3, 4} ), 5, new byte[250] ) ) );
 //        assertHandlesLogTruncation( new Command.PropertyCommand( null,
 //                new PropertyRecord( 1, true, new NodeRecord(1, 12, 12, true) ),
 //                new PropertyRecord( 1, true, new NodeRecord(1, 12, 12, true) ) ) );
@@ -19,7 +19,11 @@
  */
 package org.neo4j.kernel.impl.nioneo.xa;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.After;
@@ -32,6 +36,7 @@ import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.impl.coreapi.ThreadToStatementContextBridge;
@@ -39,12 +44,16 @@ import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.index.IndexDescriptor;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 import org.neo4j.test.TargetDirectory;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
@@ -106,11 +115,98 @@ public class NeoStoreIndexStoreViewTest
         assertEquals( emptySetOf( NodePropertyUpdate.class ), visitor.getUpdates() );
     }
 
+    @Test
+    public void shouldVisitManyIndexesInNodeIdOrderWhenScanningWithManyThreads() throws Exception
+    {
+        // given
+        Label other = DynamicLabel.label( "Other" );
+        int nodes = 25_000;
+        for ( int i = 0; i < nodes; i += 5_000 )
+        {
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                for ( int j = i; j < i + 5_000; j++ )
+                {
+                    graphDb.createNode( j % 2 == 0 ? label : other ).setProperty( "name", "node" + j );
+                }
+                tx.success();
+            }
+        }
+        int otherLabelId;
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            ThreadToStatementContextBridge bridge =
+                    graphDb.getDependencyResolver().resolveDependency( ThreadToStatementContextBridge.class );
+            try ( Statement statement = bridge.instance() )
+            {
+                otherLabelId = statement.readOperations().labelGetForName( "Other" );
+            }
+            tx.success();
+        }
+        storeView = new NeoStoreIndexStoreView( new StoreAccess( graphDb ).getRawNeoStore(), 4 );
+        NodeIdCollectingVisitor personVisitor = new NodeIdCollectingVisitor();
+        NodeIdCollectingVisitor otherVisitor = new NodeIdCollectingVisitor();
+        Map<IndexDescriptor, Visitor<NodePropertyUpdate, Exception>> visitors = new LinkedHashMap<>();
+        visitors.put( new IndexDescriptor( labelId, propertyKeyId ), personVisitor );
+        visitors.put( new IndexDescriptor( otherLabelId, propertyKeyId ), otherVisitor );
+
+        // when
+        storeView.visitNodesWithPropertyAndLabel( visitors ).run();
+
+        // then
+        assertEquals( nodes / 2 + 2, personVisitor.nodeIds.size() );
+        assertEquals( nodes / 2, otherVisitor.nodeIds.size() );
+        assertAscending( personVisitor.nodeIds );
+        assertAscending( otherVisitor.nodeIds );
+    }
+
+    @Test
+    public void shouldReadSinglePropertyOfNode() throws Exception
+    {
+        // given
+        int statusKeyId;
+        Node unnamed;
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            unnamed = graphDb.createNode( label );
+            alistair.setProperty( "status", "active" );
+            stefan.setProperty( "status", "inactive" );
+            ThreadToStatementContextBridge bridge =
+                    graphDb.getDependencyResolver().resolveDependency( ThreadToStatementContextBridge.class );
+            try ( Statement statement = bridge.instance() )
+            {
+                statusKeyId = statement.readOperations().propertyKeyGetForName( "status" );
+            }
+            tx.success();
+        }
+
+        // when
+        Property name = storeView.nodeGetProperty( alistair.getId(), propertyKeyId );
+        Property status = storeView.nodeGetProperty( alistair.getId(), statusKeyId );
+
+        // then
+        assertEquals( "Alistair", name.value() );
+        assertTrue( status.valueEquals( "active" ) );
+        assertFalse( status.valueEquals( "inactive" ) );
+        assertEquals( status, storeView.nodeGetProperty( alistair.getId(), statusKeyId ) );
+        assertFalse( status.equals( storeView.nodeGetProperty( stefan.getId(), statusKeyId ) ) );
+        assertFalse( storeView.nodeGetProperty( unnamed.getId(), propertyKeyId ).isDefined() );
+    }
+
+    private void assertAscending( List<Long> nodeIds )
+    {
+        for ( int i = 1; i < nodeIds.size(); i++ )
+        {
+            assertTrue( nodeIds.get( i - 1 ) < nodeIds.get( i ) );
+        }
+    }
+
     @Before
     public void before() throws KernelException
     {
         String graphDbPath = testDirectory.directory().getAbsolutePath();
-        graphDb = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabase( graphDbPath );
+        graphDb = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( graphDbPath )
+                .setConfig( GraphDatabaseSettings.string_dictionary_keys, "status" ).newGraphDatabase();
 
         createAlistairAndStefanNodes();
         getOrCreateIds();
@@ -164,6 +260,18 @@ public class NeoStoreIndexStoreViewTest
         }
     }
 
+    class NodeIdCollectingVisitor implements Visitor<NodePropertyUpdate, Exception>
+    {
+        private final List<Long> nodeIds = new ArrayList<>();
+
+        @Override
+        public boolean visit( NodePropertyUpdate element ) throws Exception
+        {
+            nodeIds.add( element.getNodeId() );
+            return false;
+        }
+    }
+
     class NodeUpdateCollectingVisitor implements Visitor<NodePropertyUpdate, Exception>
     {
         private final Set<NodePropertyUpdate> updates = new HashSet<>();
@@ -37,6 +37,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.DefaultTxHook;
@@ -55,6 +56,7 @@ import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
 import org.neo4j.kernel.impl.core.TransactionState;
 import org.neo4j.kernel.impl.nioneo.store.DefaultWindowPoolFactory;
 import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.DynamicStringStore;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
@@ -64,6 +66,7 @@ import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
 import org.neo4j.kernel.impl.nioneo.store.SchemaStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.nioneo.store.StringDictionary;
 import org.neo4j.kernel.impl.nioneo.xa.Command.PropertyCommand;
 import org.neo4j.kernel.impl.nioneo.xa.Command.SchemaRuleCommand;
 import org.neo4j.kernel.impl.transaction.xaframework.DefaultLogBufferFactory;
@@ -76,6 +79,8 @@ import org.neo4j.test.EphemeralFileSystemRule;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -719,6 +724,86 @@ public class WriteTransactionTest
         indexUpdates.assertContent( expectedUpdate );
     }
 
+    @Test
+    public void shouldNotFreeCommittedDictionaryEntryWhenRemovingProperty() throws Exception
+    {
+        // GIVEN
+        int propertyKeyId = useStringDictionaryFor( "colour" );
+        long nodeId = commitNodeWithDictionaryValue( propertyKeyId );
+        long entryId = dictionaryEntryId();
+
+        // WHEN
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        tx.nodeRemoveProperty( nodeId, propertyKeyId );
+        prepareAndCommit( tx );
+
+        // THEN
+        assertDictionaryEntryInUse( entryId );
+        commitNodeWithDictionaryValue( propertyKeyId );
+        assertEquals( entryId, dictionaryEntryId() );
+    }
+
+    @Test
+    public void shouldNotFreeCommittedDictionaryEntryWhenChangingProperty() throws Exception
+    {
+        // GIVEN
+        int propertyKeyId = useStringDictionaryFor( "colour" );
+        long nodeId = commitNodeWithDictionaryValue( propertyKeyId );
+        long entryId = dictionaryEntryId();
+
+        // WHEN
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        tx.nodeChangeProperty( nodeId, propertyKeyId, string( 80 ) );
+        prepareAndCommit( tx );
+
+        // THEN
+        assertDictionaryEntryInUse( entryId );
+        commitNodeWithDictionaryValue( propertyKeyId );
+        assertEquals( entryId, dictionaryEntryId() );
+    }
+
+    @Test
+    public void shouldReleaseReservedDictionaryValueOnRollback() throws Exception
+    {
+        // GIVEN
+        int propertyKeyId = useStringDictionaryFor( "colour" );
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        long nodeId = neoStore.getNodeStore().nextId();
+        tx.nodeCreate( nodeId );
+        tx.nodeAddProperty( nodeId, propertyKeyId, string( 70 ) );
+
+        // WHEN
+        tx.rollback();
+
+        // THEN
+        StringDictionary dictionary = neoStore.getPropertyStore().getStringDictionary();
+        assertNull( dictionary.idOf( string( 70 ) ) );
+        assertTrue( dictionary.reserve( string( 70 ) ) );
+    }
+
+    @Test
+    public void shouldKeepNewDictionaryEntryReferredToByOtherPropertyWhenRemovingTheFirst() throws Exception
+    {
+        // GIVEN
+        int propertyKeyId = useStringDictionaryFor( "colour" );
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        long first = neoStore.getNodeStore().nextId(), second = neoStore.getNodeStore().nextId();
+        tx.nodeCreate( first );
+        tx.nodeCreate( second );
+        tx.nodeAddProperty( first, propertyKeyId, string( 70 ) );
+        tx.nodeAddProperty( second, propertyKeyId, string( 70 ) );
+
+        // WHEN
+        tx.nodeRemoveProperty( first, propertyKeyId );
+        prepareAndCommit( tx );
+
+        // THEN
+        long entryId = dictionaryEntryId();
+        assertDictionaryEntryInUse( entryId );
+        commitNodeWithDictionaryValue( propertyKeyId );
+        assertEquals( entryId, dictionaryEntryId() );
+    }
+
     private String string( int length )
     {
         StringBuilder result = new StringBuilder();
@@ -872,6 +957,45 @@ public class WriteTransactionTest
         prepareAndCommit( tx );
     }
 
+    private int useStringDictionaryFor( String key ) throws Exception
+    {
+        neoStore.close();
+        @SuppressWarnings("deprecation")
+        StoreFactory storeFactory = new StoreFactory(
+                new Config( stringMap( GraphDatabaseSettings.string_dictionary_keys.name(), key ) ),
+                idGeneratorFactory, windowPoolFactory, fs.get(), DEV_NULL, new DefaultTxHook() );
+        neoStore = storeFactory.createNeoStore( new File( "dictionary-neostore" ) );
+        int propertyKeyId = (int) neoStore.getPropertyStore().getPropertyKeyTokenStore().nextId();
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        tx.createPropertyKeyToken( key, propertyKeyId );
+        prepareAndCommit( tx );
+        return propertyKeyId;
+    }
+
+    private long commitNodeWithDictionaryValue( int propertyKeyId ) throws Exception
+    {
+        WriteTransaction tx = newWriteTransaction( mockIndexing );
+        long nodeId = neoStore.getNodeStore().nextId();
+        tx.nodeCreate( nodeId );
+        tx.nodeAddProperty( nodeId, propertyKeyId, string( 70 ) );
+        prepareAndCommit( tx );
+        return nodeId;
+    }
+
+    private long dictionaryEntryId()
+    {
+        Long entryId = neoStore.getPropertyStore().getStringDictionary().idOf( string( 70 ) );
+        assertNotNull( entryId );
+        return entryId;
+    }
+
+    private void assertDictionaryEntryInUse( long entryId )
+    {
+        DynamicStringStore store = neoStore.getPropertyStore().getStringDictionary().getStore();
+        assertTrue( store.forceGetRecord( entryId ).inUse() );
+        assertEquals( string( 70 ), neoStore.getPropertyStore().getStringDictionary().valueOf( entryId ) );
+    }
+
     private void prepareAndCommit( WriteTransaction tx ) throws Exception
     {
         tx.doPrepare();
@@ -31,7 +31,11 @@ import org.neo4j.helpers.UTF8;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.nioneo.store.NodeStore;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20NodeStoreReader;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore;
 import org.neo4j.kernel.impl.util.FileUtils;
 import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
@@ -120,6 +124,47 @@ public class MigrationTestUtils
         FileUtils.copyRecursively( resourceDirectory, workingDirectory );
     }
 
+    /**
+     * Turns a cleanly shut down store of the current version into one of the {@link Legacy20Store} version,
+     * by removing the store files that didn't exist back then, cutting off the dense flag and degree hint
+     * from every node record and changing the version trailers.
+     */
+    public static void downgradeToLegacy20Store( FileSystemAbstraction fileSystem, File storeDirectory )
+            throws IOException
+    {
+        for ( StoreFile storeFile : StoreFile.currentStoreFiles() )
+        {
+            if ( !storeFile.existsIn( Legacy20Store.LEGACY_VERSION ) )
+            {
+                fileSystem.deleteFile( new File( storeDirectory, storeFile.storeFileName() ) );
+                fileSystem.deleteFile( new File( storeDirectory, storeFile.storeFileName() + ".id" ) );
+            }
+        }
+
+        File nodeStore = new File( storeDirectory, StoreFile.NODE_STORE.storeFileName() );
+        String trailer = StoreFile.NODE_STORE.versionString( CommonAbstractStore.ALL_STORES_VERSION );
+        FileChannel channel = fileSystem.open( nodeStore, "rw" );
+        long records = (channel.size() - UTF8.encode( trailer ).length) / NodeStore.RECORD_SIZE;
+        ByteBuffer record = ByteBuffer.allocate( NodeStore.RECORD_SIZE );
+        for ( long id = 0; id < records; id++ )
+        {
+            channel.position( id * NodeStore.RECORD_SIZE );
+            readAndFlip( channel, record, NodeStore.RECORD_SIZE );
+            record.limit( Legacy20NodeStoreReader.RECORD_SIZE );
+            channel.position( id * Legacy20NodeStoreReader.RECORD_SIZE );
+            channel.write( record );
+        }
+        channel.write( ByteBuffer.wrap( UTF8.encode( trailer ) ) );
+        channel.truncate( channel.position() );
+        channel.close();
+
+        for ( StoreFile storeFile : StoreFile.legacy20StoreFiles() )
+        {
+            changeVersionNumber( fileSystem, new File( storeDirectory, storeFile.storeFileName() ),
+                    storeFile.versionString( Legacy20Store.LEGACY_VERSION ) );
+        }
+    }
+
     public static File findOldFormatStoreDirectory()
     {
         return findDatabaseDirectory( LegacyStore.class, "exampledb" );
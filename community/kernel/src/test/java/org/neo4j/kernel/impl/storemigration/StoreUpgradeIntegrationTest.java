@@ -26,18 +26,26 @@ import java.util.Map;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
 import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.kernel.DefaultFileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.storemigration.StoreUpgrader.UnableToUpgradeException;
+import org.neo4j.kernel.impl.storemigration.legacystore.Legacy20Store;
 import org.neo4j.test.TargetDirectory;
 
 import static org.junit.Assert.*;
 import static org.neo4j.kernel.impl.nioneo.store.CommonAbstractStore.ALL_STORES_VERSION;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.allStoreFilesHaveVersion;
+import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.downgradeToLegacy20Store;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.prepareSampleLegacyDatabase;
 import static org.neo4j.kernel.impl.storemigration.MigrationTestUtils.truncateFile;
 import static org.neo4j.kernel.impl.storemigration.legacystore.LegacyStore.LEGACY_VERSION;
@@ -62,6 +70,61 @@ public class StoreUpgradeIntegrationTest
                 allStoreFilesHaveVersion( fileSystem, workingDirectory, ALL_STORES_VERSION ) );
     }
 
+    @Test
+    public void shouldUpgradeStoreWithoutRelationshipGroupsAutomaticallyOnDatabaseStartup() throws IOException
+    {
+        // given
+        fileSystem.deleteRecursively( workingDirectory );
+        GraphDatabaseService database = new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder( workingDirectory.getPath() ).newGraphDatabase();
+        long nodeId;
+        try ( Transaction tx = database.beginTx() )
+        {
+            Node node = database.createNode();
+            node.setProperty( "name", "hub" );
+            for ( int i = 0; i < 10; i++ )
+            {
+                node.createRelationshipTo( database.createNode(), i % 2 == 0 ? KNOWS : LIKES );
+            }
+            nodeId = node.getId();
+            tx.success();
+        }
+        database.shutdown();
+        downgradeToLegacy20Store( fileSystem, workingDirectory );
+        assertTrue( allStoreFilesHaveVersion( fileSystem, workingDirectory, Legacy20Store.LEGACY_VERSION ) );
+
+        // when
+        Map<String, String> params = new HashMap<String, String>();
+        params.put( GraphDatabaseSettings.allow_store_upgrade.name(), "true" );
+        params.put( GraphDatabaseSettings.dense_node_threshold.name(), "5" );
+        database = new GraphDatabaseFactory()
+                .newEmbeddedDatabaseBuilder( workingDirectory.getPath() ).setConfig( params ).newGraphDatabase();
+        try
+        {
+            // then
+            try ( Transaction tx = database.beginTx() )
+            {
+                Node node = database.getNodeById( nodeId );
+                assertEquals( "hub", node.getProperty( "name" ) );
+                assertEquals( 5, count( node.getRelationships( KNOWS, Direction.OUTGOING ) ) );
+                assertEquals( 5, count( node.getRelationships( LIKES, Direction.OUTGOING ) ) );
+                node.createRelationshipTo( database.createNode(), KNOWS );
+                tx.success();
+            }
+            try ( Transaction tx = database.beginTx() )
+            {
+                assertEquals( 11, count( database.getNodeById( nodeId ).getRelationships() ) );
+                tx.success();
+            }
+        }
+        finally
+        {
+            database.shutdown();
+        }
+        assertTrue( "Some store files did not have the correct version",
+                allStoreFilesHaveVersion( fileSystem, workingDirectory, ALL_STORES_VERSION ) );
+    }
+
     @Test
     public void shouldAbortOnNonCleanlyShutdown() throws Throwable
     {
@@ -112,6 +175,9 @@ public class StoreUpgradeIntegrationTest
         }
     }
     
+    private static final RelationshipType KNOWS = DynamicRelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LIKES = DynamicRelationshipType.withName( "LIKES" );
+
     private final FileSystemAbstraction fileSystem = new DefaultFileSystemAbstraction();
     private final File workingDirectory = TargetDirectory.forTest( getClass() ).graphDbDir( true );
 
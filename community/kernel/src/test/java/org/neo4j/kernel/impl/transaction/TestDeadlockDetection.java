@@ -38,6 +38,11 @@ import org.neo4j.kernel.impl.transaction.LockWorker.ResourceObject;
 
 public class TestDeadlockDetection
 {
+    protected LockManager newLockManager()
+    {
+        return new LockManagerImpl( new RagManager() );
+    }
+
     @Test
     public void testDeadlockDetection() throws Exception
     {
@@ -47,7 +52,7 @@ public class TestDeadlockDetection
         ResourceObject r4 = newResourceObject( "R4" );
         
         PlaceboTm tm = new PlaceboTm( null, null );
-        LockManager lm = new LockManagerImpl( new RagManager() );
+        LockManager lm = newLockManager();
         tm.setLockManager( lm );
         
         LockWorker t1 = new LockWorker( "T1", lm );
@@ -251,7 +256,7 @@ public class TestDeadlockDetection
         }
         StressThread stressThreads[] = new StressThread[50];
         PlaceboTm tm = new PlaceboTm( null, null );
-        LockManager lm = new LockManagerImpl( new RagManager() );
+        LockManager lm = newLockManager();
         tm.setLockManager( lm );
         CountDownLatch startSignal = new CountDownLatch( 1 );
         for ( int i = 0; i < stressThreads.length; i++ )
@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
+
+import org.junit.After;
+import org.junit.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
+import org.neo4j.kernel.impl.transaction.xaframework.TxIdGenerator;
+import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
+import org.neo4j.test.ImpermanentGraphDatabase;
+import org.neo4j.test.impl.EphemeralFileSystemAbstraction;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.last_resource_commit;
+
+public class TestLastResourceCommitRecovery
+{
+    @Test
+    public void shouldCommitPreparedBranchAfterCrashWhenLogRotatesDuringLastResourceCommit() throws Exception
+    {
+        // GIVEN
+        // -- a database committing transactions spanning an additional data source in the neo store's one phase commit
+        ImpermanentGraphDatabase db = database( fs, true );
+        PreparingResource resource = new PreparingResource();
+        db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                .registerDataSource( new ForcingDataSource( resource ) );
+
+        // WHEN
+        // -- another thread rotates the neo store log after that commit, and we crash before the commit is
+        //    recorded in the transaction log
+        crashDuringNextCommit = true;
+        Transaction tx = db.beginTx();
+        db.getDependencyResolver().resolveDependency( TransactionManager.class ).getTransaction()
+                .enlistResource( resource );
+        db.createNode();
+        tx.success();
+        tx.finish();
+        rotation.join();
+        db.shutdown();
+
+        // THEN
+        // -- recovery finds the decision and commits the prepared branch
+        assertEquals( 1, crashedPreparedXids.size() );
+        PreparingResource recoveredResource = new PreparingResource();
+        recoveredResource.prepared.addAll( crashedPreparedXids );
+        db = database( crashedFs, false );
+        try
+        {
+            db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                    .registerDataSource( new ForcingDataSource( recoveredResource ) );
+            assertEquals( crashedPreparedXids, recoveredResource.committed );
+            assertTrue( recoveredResource.rolledBack.isEmpty() );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRedoBranchCopiedIntoLastResourceCommitWhenItsResourceLostIt() throws Exception
+    {
+        // GIVEN
+        // -- a database carrying the transactions prepared by an additional data source in its one phase commit
+        ImpermanentGraphDatabase db = database( fs, true );
+        PreparingResource resource = new PreparingResource();
+        db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                .registerDataSource( new CopyingDataSource( resource ) );
+
+        // WHEN
+        // -- we crash before the commit is recorded in the transaction log, and the additional data source loses
+        //    its prepared transaction, since it was never forced
+        crashDuringNextCommit = true;
+        Transaction tx = db.beginTx();
+        db.getDependencyResolver().resolveDependency( TransactionManager.class ).getTransaction()
+                .enlistResource( resource );
+        db.createNode();
+        tx.success();
+        tx.finish();
+        rotation.join();
+        db.shutdown();
+
+        // THEN
+        // -- recovery redoes the copy carried by the one phase commit
+        assertEquals( 1, crashedPreparedXids.size() );
+        CopyingDataSource recoveredDataSource = new CopyingDataSource( new PreparingResource() );
+        db = database( crashedFs, false );
+        try
+        {
+            db.getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                    .registerDataSource( recoveredDataSource );
+            assertEquals( 1, recoveredDataSource.redone.size() );
+            BranchCopy redone = recoveredDataSource.redone.get( 0 );
+            assertEquals( crashedPreparedXids, new HashSet<>( asList( redone.getXid() ) ) );
+            assertArrayEquals( COPIED_TRANSACTION, redone.getTransaction() );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private final EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+    private volatile boolean crashDuringNextCommit;
+    private Thread rotation;
+    private EphemeralFileSystemAbstraction crashedFs;
+    private Set<Xid> crashedPreparedXids;
+    private static final byte[] BRANCH_ID = "forcing".getBytes();
+    private static final byte[] COPIED_TRANSACTION = {1, 2, 3};
+
+    @After
+    public void shutdownFileSystems()
+    {
+        fs.shutdown();
+        if ( crashedFs != null )
+        {
+            crashedFs.shutdown();
+        }
+    }
+
+    @SuppressWarnings( "deprecation" )
+    private ImpermanentGraphDatabase database( final EphemeralFileSystemAbstraction databaseFs,
+                                               boolean crashDuringCommit )
+    {
+        Map<String, String> config = new HashMap<>();
+        config.put( last_resource_commit.name(), "true" );
+        if ( !crashDuringCommit )
+        {
+            return new ImpermanentGraphDatabase( "target/last-resource-commit", config )
+            {
+                @Override
+                protected FileSystemAbstraction createFileSystemAbstraction()
+                {
+                    return databaseFs;
+                }
+            };
+        }
+        return new ImpermanentGraphDatabase( "target/last-resource-commit", config )
+        {
+            @Override
+            protected FileSystemAbstraction createFileSystemAbstraction()
+            {
+                return databaseFs;
+            }
+
+            @Override
+            protected TxIdGenerator createTxIdGenerator()
+            {
+                return new CrashingTxIdGenerator( this );
+            }
+        };
+    }
+
+    /**
+     * Gets called by the neo store at the end of its one phase commit, before the transaction manager has recorded
+     * the commit in its own log.
+     */
+    private class CrashingTxIdGenerator implements TxIdGenerator
+    {
+        private final ImpermanentGraphDatabase db;
+
+        CrashingTxIdGenerator( ImpermanentGraphDatabase db )
+        {
+            this.db = db;
+        }
+
+        @Override
+        public long generate( XaDataSource dataSource, int identifier ) throws XAException
+        {
+            return DEFAULT.generate( dataSource, identifier );
+        }
+
+        @Override
+        public void committed( final XaDataSource dataSource, int identifier, long txId, Integer externalAuthor )
+        {
+            if ( !crashDuringNextCommit )
+            {
+                return;
+            }
+            crashDuringNextCommit = false;
+            rotation = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        dataSource.rotateLogicalLog();
+                    }
+                    catch ( Exception e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                }
+            };
+            rotation.start();
+            try
+            {
+                rotation.join( 500 );
+                // The start and branch records of the transaction may well have been forced by another transaction
+                db.getDependencyResolver().resolveDependency( AbstractTransactionManager.class ).forceLog();
+            }
+            catch ( Exception e )
+            {
+                throw new RuntimeException( e );
+            }
+            crashedFs = fs.snapshot();
+            crashedPreparedXids = new HashSet<>( ((ForcingDataSource) db.getDependencyResolver()
+                    .resolveDependency( XaDataSourceManager.class ).getXaDataSource( BRANCH_ID )).resource.prepared );
+        }
+
+        @Override
+        public int getCurrentMasterId()
+        {
+            return DEFAULT.getCurrentMasterId();
+        }
+
+        @Override
+        public int getMyId()
+        {
+            return DEFAULT.getMyId();
+        }
+    }
+
+    /**
+     * A data source that can make its prepared transactions durable, so it takes part in last resource commits.
+     */
+    private static class ForcingDataSource extends DummyXaDataSource
+    {
+        private final PreparingResource resource;
+
+        ForcingDataSource( PreparingResource resource ) throws InstantiationException
+        {
+            super( "forcing", BRANCH_ID, resource );
+            this.resource = resource;
+        }
+
+        @Override
+        public boolean forcePreparedTransactions()
+        {
+            return true;
+        }
+    }
+
+    /**
+     * A data source that copies its prepared transactions into the last resource commit instead of forcing them.
+     */
+    private static class CopyingDataSource extends ForcingDataSource
+    {
+        private final List<BranchCopy> redone = new ArrayList<>();
+
+        CopyingDataSource( PreparingResource resource ) throws InstantiationException
+        {
+            super( resource );
+        }
+
+        @Override
+        public BranchCopy copyPreparedTransaction( Xid xid )
+        {
+            return new BranchCopy( xid, 0, COPIED_TRANSACTION );
+        }
+
+        @Override
+        public boolean redoBranchCopy( BranchCopy copy )
+        {
+            redone.add( copy );
+            return true;
+        }
+    }
+
+    private static class PreparingResource extends FakeXAResource
+    {
+        private final Set<Xid> prepared = new HashSet<>();
+        private final Set<Xid> committed = new HashSet<>();
+        private final Set<Xid> rolledBack = new HashSet<>();
+
+        PreparingResource()
+        {
+            super( "forcing" );
+        }
+
+        @Override
+        public synchronized int prepare( Xid xid )
+        {
+            prepared.add( xid );
+            return XAResource.XA_OK;
+        }
+
+        @Override
+        public synchronized void commit( Xid xid, boolean onePhase )
+        {
+            prepared.remove( xid );
+            committed.add( xid );
+        }
+
+        @Override
+        public synchronized void rollback( Xid xid )
+        {
+            prepared.remove( xid );
+            rolledBack.add( xid );
+        }
+
+        @Override
+        public synchronized Xid[] recover( int flag )
+        {
+            return prepared.toArray( new Xid[prepared.size()] );
+        }
+    }
+}
@@ -41,12 +41,17 @@ import org.neo4j.kernel.impl.transaction.LockWorker.ResourceObject;
 
 public class TestRWLock
 {
-    private LockManagerImpl lm;
+    private LockManager lm;
     
     @Before
     public void before() throws Exception
     {
-        lm = new LockManagerImpl( new RagManager() );
+        lm = newLockManager();
+    }
+
+    protected LockManager newLockManager()
+    {
+        return new LockManagerImpl( new RagManager() );
     }
 
     @Test
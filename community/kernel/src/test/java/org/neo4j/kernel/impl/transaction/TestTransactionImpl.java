@@ -19,19 +19,37 @@
  */
 package org.neo4j.kernel.impl.transaction;
 
+import java.util.Collections;
+import java.util.List;
 import javax.transaction.RollbackException;
+import javax.transaction.Status;
 import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.xa.XAResource;
+import javax.transaction.xa.Xid;
 
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.neo4j.kernel.impl.core.TransactionState;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
 import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
 import org.neo4j.kernel.impl.util.MultipleCauseException;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.kernel.logging.SystemOutLogging;
 
+import static java.util.Arrays.asList;
+
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class TestTransactionImpl
 {
@@ -122,4 +140,117 @@ public class TestTransactionImpl
 
         assertThat( tx.getRollbackCause(), is( (Throwable) firstException ) );
     }
+
+    @Test
+    public void shouldLetLastResourceDecideCommitOfTransactionSpanningSeveralResources() throws Exception
+    {
+        // given
+        TxManager txManager = mock( TxManager.class );
+        TxLog txLog = mock( TxLog.class );
+        when( txManager.getTxLog() ).thenReturn( txLog );
+        when( txManager.getLastResourceBranchId() ).thenReturn( NEO_BRANCH );
+        BranchCopy indexCopy = mock( BranchCopy.class );
+        when( txManager.copyPreparedTransaction( any( Xid.class ) ) ).thenReturn( indexCopy );
+        XAResource neoResource = resource( txManager, NEO_BRANCH );
+        XAResource indexResource = resource( txManager, INDEX_BRANCH );
+        TransactionImpl tx = transaction( txManager );
+        tx.enlistResource( neoResource );
+        tx.enlistResource( indexResource );
+
+        // when
+        tx.doCommit();
+
+        // then
+        InOrder order = inOrder( indexResource, txManager, neoResource, txLog );
+        order.verify( indexResource ).prepare( any( Xid.class ) );
+        order.verify( txManager ).copyPreparedTransaction( any( Xid.class ) );
+        order.verify( txManager ).lastResourceCommitStarting( any( Xid.class ), eq( asList( indexCopy ) ) );
+        order.verify( neoResource ).commit( any( Xid.class ), eq( true ) );
+        order.verify( txLog ).markAsCommitting( tx.getGlobalId(), ForceMode.unforced );
+        order.verify( txManager ).lastResourceCommitRecorded( any( Xid.class ) );
+        order.verify( indexResource ).commit( any( Xid.class ), eq( false ) );
+        verify( neoResource, never() ).prepare( any( Xid.class ) );
+        verify( txManager, never() ).forcePreparedTransactions( any( byte[].class ) );
+        assertThat( tx.getStatus(), is( Status.STATUS_COMMITTED ) );
+    }
+
+    @Test
+    public void shouldForcePreparedTransactionsOfResourcesThatCantCopyThem() throws Exception
+    {
+        // given
+        TxManager txManager = mock( TxManager.class );
+        TxLog txLog = mock( TxLog.class );
+        when( txManager.getTxLog() ).thenReturn( txLog );
+        when( txManager.getLastResourceBranchId() ).thenReturn( NEO_BRANCH );
+        when( txManager.forcePreparedTransactions( INDEX_BRANCH ) ).thenReturn( true );
+        XAResource neoResource = resource( txManager, NEO_BRANCH );
+        XAResource indexResource = resource( txManager, INDEX_BRANCH );
+        TransactionImpl tx = transaction( txManager );
+        tx.enlistResource( neoResource );
+        tx.enlistResource( indexResource );
+
+        // when
+        tx.doCommit();
+
+        // then
+        InOrder order = inOrder( indexResource, txManager, neoResource );
+        order.verify( indexResource ).prepare( any( Xid.class ) );
+        order.verify( txManager ).forcePreparedTransactions( INDEX_BRANCH );
+        order.verify( txManager ).lastResourceCommitStarting( any( Xid.class ), eq( noCopies() ) );
+        order.verify( neoResource ).commit( any( Xid.class ), eq( true ) );
+        verify( neoResource, never() ).prepare( any( Xid.class ) );
+    }
+
+    @Test
+    public void shouldFallBackToTwoPhaseCommitIfPreparedTransactionsCantBeForced() throws Exception
+    {
+        // given
+        TxManager txManager = mock( TxManager.class );
+        TxLog txLog = mock( TxLog.class );
+        when( txManager.getTxLog() ).thenReturn( txLog );
+        when( txManager.getLastResourceBranchId() ).thenReturn( NEO_BRANCH );
+        when( txManager.forcePreparedTransactions( INDEX_BRANCH ) ).thenReturn( false );
+        XAResource neoResource = resource( txManager, NEO_BRANCH );
+        XAResource indexResource = resource( txManager, INDEX_BRANCH );
+        TransactionImpl tx = transaction( txManager );
+        tx.enlistResource( neoResource );
+        tx.enlistResource( indexResource );
+
+        // when
+        tx.doCommit();
+
+        // then
+        InOrder order = inOrder( neoResource, txLog, indexResource );
+        order.verify( neoResource ).prepare( any( Xid.class ) );
+        order.verify( txLog ).markAsCommitting( tx.getGlobalId(), ForceMode.forced );
+        verify( neoResource ).commit( any( Xid.class ), eq( false ) );
+        verify( indexResource ).commit( any( Xid.class ), eq( false ) );
+        verify( neoResource, never() ).commit( any( Xid.class ), eq( true ) );
+    }
+
+    private static final byte[] NEO_BRANCH = {'1', '6', '2', '3', '7', '4'};
+    private static final byte[] INDEX_BRANCH = {'1', '6', '2', '3', '7', '3'};
+
+    private static List<BranchCopy> noCopies()
+    {
+        return Collections.emptyList();
+    }
+
+    private TransactionImpl transaction( TxManager txManager )
+    {
+        TransactionStateFactory stateFactory = mock( TransactionStateFactory.class );
+        when( stateFactory.create( any( Transaction.class ) ) )
+                .thenReturn( mock( TransactionState.class, RETURNS_MOCKS ) );
+        return new TransactionImpl( txManager, ForceMode.forced, stateFactory,
+                new SystemOutLogging().getMessagesLog( TxManager.class ) );
+    }
+
+    private XAResource resource( TxManager txManager, byte[] branchId ) throws Exception
+    {
+        XAResource resource = mock( XAResource.class );
+        when( resource.prepare( any( Xid.class ) ) ).thenReturn( XAResource.XA_OK );
+        when( resource.isSameRM( any( XAResource.class ) ) ).thenReturn( false );
+        when( txManager.getBranchId( resource ) ).thenReturn( branchId );
+        return resource;
+    }
 }
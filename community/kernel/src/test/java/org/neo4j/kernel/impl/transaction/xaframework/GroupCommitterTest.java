@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.neo4j.kernel.impl.util.StringLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class GroupCommitterTest
+{
+    @Test
+    public void shouldShareForcesBetweenConcurrentCommits() throws Exception
+    {
+        // GIVEN
+        final AtomicInteger forces = new AtomicInteger();
+        FileChannel channel = mock( FileChannel.class );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                forces.incrementAndGet();
+                Thread.sleep( 2 );
+                return null;
+            }
+        } ).when( channel ).force( anyBoolean() );
+        final GroupCommitter committer = start( channel, 1, 100 );
+        int threads = 8, commitsPerThread = 50;
+
+        // WHEN
+        List<Future<Void>> futures = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            futures.add( executor.submit( committingTask( committer, commitsPerThread ) ) );
+        }
+        for ( Future<Void> future : futures )
+        {
+            future.get();
+        }
+
+        // THEN
+        int commits = threads * commitsPerThread;
+        assertEquals( commits, committer.getBatchedCommitCount() );
+        assertEquals( forces.get(), committer.getBatchCount() );
+        assertTrue( "Expected fewer forces than commits, but was " + forces.get(), forces.get() < commits );
+    }
+
+    @Test
+    public void shouldFailCommitsCoveredByFailedForce() throws Exception
+    {
+        // GIVEN
+        FileChannel channel = mock( FileChannel.class );
+        doThrow( new IOException( "Disk on fire" ) ).when( channel ).force( anyBoolean() );
+        GroupCommitter committer = start( channel, 0, 1 );
+
+        // WHEN
+        long ticket = committer.appended();
+
+        // THEN
+        try
+        {
+            committer.awaitForced( ticket );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {   // Good
+        }
+    }
+
+    @Test
+    public void shouldForceWhatWasAppendedBeforeStopping() throws Exception
+    {
+        // GIVEN
+        FileChannel channel = mock( FileChannel.class );
+        GroupCommitter committer = start( channel, 50, 100 );
+        long ticket = committer.appended();
+
+        // WHEN
+        committer.stop();
+
+        // THEN
+        committer.awaitForced( ticket );
+        assertEquals( 1, committer.getBatchedCommitCount() );
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<GroupCommitter> committers = new ArrayList<>();
+
+    @After
+    public void stop()
+    {
+        for ( GroupCommitter committer : committers )
+        {
+            committer.stop();
+        }
+        executor.shutdown();
+    }
+
+    private GroupCommitter start( final FileChannel channel, long maxDelay, int maxBatchSize )
+    {
+        GroupCommitter committer = new GroupCommitter( "test", new GroupCommitter.LogChannelSource()
+        {
+            @Override
+            public FileChannel currentLogChannel()
+            {
+                return channel;
+            }
+        }, maxDelay, maxBatchSize, StringLogger.DEV_NULL );
+        committer.start();
+        committers.add( committer );
+        return committer;
+    }
+
+    private Callable<Void> committingTask( final GroupCommitter committer, final int commits )
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                for ( int i = 0; i < commits; i++ )
+                {
+                    committer.awaitForced( committer.appended() );
+                }
+                return null;
+            }
+        };
+    }
+}
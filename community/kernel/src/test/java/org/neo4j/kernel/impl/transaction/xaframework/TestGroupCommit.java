@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.xaframework;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.DefaultFileSystemAbstraction;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
+import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
+import org.neo4j.test.TargetDirectory;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestGroupCommit
+{
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void after()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCommitsShouldGetUniqueAndConsecutiveTxIds() throws Exception
+    {
+        // GIVEN
+        File storeDir = TargetDirectory.forTest( getClass() ).directory( "db", true );
+        final GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir.getPath() )
+                .setConfig( GraphDatabaseSettings.group_commit_enabled, "true" )
+                .setConfig( GraphDatabaseSettings.group_commit_max_delay, "5ms" )
+                .newGraphDatabase();
+        long lastTxBefore = lastCommittedTxId( db );
+        int threads = 8, commitsPerThread = 50;
+
+        // WHEN
+        List<Future<Void>> futures = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            futures.add( executor.submit( createNodes( db, commitsPerThread ) ) );
+        }
+        for ( Future<Void> future : futures )
+        {
+            future.get();
+        }
+        long lastTxAfter = lastCommittedTxId( db );
+        db.shutdown();
+
+        // THEN
+        int commits = threads * commitsPerThread;
+        assertEquals( lastTxBefore + commits, lastTxAfter );
+        LogExtractor extractor = LogExtractor.from( new DefaultFileSystemAbstraction(), storeDir, lastTxBefore + 1 );
+        try
+        {
+            for ( long expectedTxId = lastTxBefore + 1; expectedTxId <= lastTxAfter; expectedTxId++ )
+            {
+                assertEquals( expectedTxId, extractor.extractNext( new InMemoryLogBuffer() ) );
+            }
+            assertEquals( -1, extractor.extractNext( new InMemoryLogBuffer() ) );
+        }
+        finally
+        {
+            extractor.close();
+        }
+    }
+
+    private Callable<Void> createNodes( final GraphDatabaseService db, final int count )
+    {
+        return new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    try ( Transaction tx = db.beginTx() )
+                    {
+                        db.createNode();
+                        tx.success();
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private long lastCommittedTxId( GraphDatabaseService db )
+    {
+        return ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( XaDataSourceManager.class )
+                .getXaDataSource( NeoStoreXaDataSource.DEFAULT_DATA_SOURCE_NAME ).getLastCommittedTxId();
+    }
+}
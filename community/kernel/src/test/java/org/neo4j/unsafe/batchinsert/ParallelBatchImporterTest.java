@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.batchinsert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.EphemeralFileSystemRule;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class ParallelBatchImporterTest
+{
+    private static final int NODE_COUNT = 1000;
+    private static final int RELATIONSHIP_COUNT = 5000;
+    private static final Label PERSON = DynamicLabel.label( "Person" );
+    private static final RelationshipType[] TYPES = {
+            DynamicRelationshipType.withName( "KNOWS" ), DynamicRelationshipType.withName( "LIKES" ) };
+
+    @Rule public EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+
+    @Test
+    public void shouldImportNodesAndRelationships() throws Exception
+    {
+        // GIVEN
+        List<InputNode> nodes = nodes();
+        List<InputRelationship> relationships = relationships( new Random( 1337 ) );
+        BatchInserter inserter = newBatchInserter();
+
+        // WHEN
+        new ParallelBatchImporter( inserter, 4, 100 ).doImport( nodes.iterator(), relationships.iterator() );
+
+        // THEN
+        GraphDatabaseService db = switchToEmbeddedGraphDatabaseService( inserter );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODE_COUNT; i++ )
+            {
+                Node node = db.getNodeById( i );
+                assertEquals( nodes.get( i ).getProperties().get( "id" ), node.getProperty( "id" ) );
+                assertEquals( nodes.get( i ).getProperties().get( "name" ), node.getProperty( "name", null ) );
+                assertEquals( i % 2 == 0, node.hasLabel( PERSON ) );
+                assertEquals( expectedRelationshipIds( relationships, i ), relationshipIds( node ) );
+            }
+            for ( int i = 0; i < RELATIONSHIP_COUNT; i++ )
+            {
+                Relationship relationship = db.getRelationshipById( i );
+                InputRelationship input = relationships.get( i );
+                assertEquals( input.getStartNode(), relationship.getStartNode().getId() );
+                assertEquals( input.getEndNode(), relationship.getEndNode().getId() );
+                assertEquals( input.getType().name(), relationship.getType().name() );
+                assertEquals( i, relationship.getProperty( "weight" ) );
+            }
+            tx.success();
+        }
+
+        // and the relationship chains should be intact enough to delete from
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < RELATIONSHIP_COUNT; i += 2 )
+            {
+                db.getRelationshipById( i ).delete();
+            }
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODE_COUNT; i++ )
+            {
+                Set<Long> expected = new HashSet<>();
+                for ( long id : expectedRelationshipIds( relationships, i ) )
+                {
+                    if ( id % 2 == 1 )
+                    {
+                        expected.add( id );
+                    }
+                }
+                assertEquals( expected, relationshipIds( db.getNodeById( i ) ) );
+            }
+            tx.success();
+        }
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldOnlyImportIntoEmptyStore() throws Exception
+    {
+        // GIVEN
+        BatchInserter inserter = newBatchInserter();
+        inserter.createNode( null );
+
+        // WHEN
+        try
+        {
+            new ParallelBatchImporter( inserter, 2 ).doImport( nodes().iterator(),
+                    new ArrayList<InputRelationship>().iterator() );
+            fail( "Should have failed" );
+        }
+        catch ( IllegalStateException e )
+        {   // THEN good
+        }
+        finally
+        {
+            inserter.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFailOnRelationshipToMissingNode() throws Exception
+    {
+        // GIVEN
+        BatchInserter inserter = newBatchInserter();
+        List<InputRelationship> relationships = new ArrayList<>();
+        relationships.add( new InputRelationship( 0, NODE_COUNT, TYPES[0], null ) );
+
+        // WHEN
+        try
+        {
+            new ParallelBatchImporter( inserter, 2 ).doImport( nodes().iterator(), relationships.iterator() );
+            fail( "Should have failed" );
+        }
+        catch ( RuntimeException e )
+        {   // THEN good
+            assertFalse( inserter.nodeExists( NODE_COUNT ) );
+            assertTrue( inserter.nodeExists( NODE_COUNT - 1 ) );
+        }
+        finally
+        {
+            inserter.shutdown();
+        }
+    }
+
+    private List<InputNode> nodes()
+    {
+        List<InputNode> nodes = new ArrayList<>();
+        for ( int i = 0; i < NODE_COUNT; i++ )
+        {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put( "id", i );
+            if ( i % 10 == 0 )
+            {
+                properties.put( "name", "A name long enough to not fit in a property block, number " + i );
+            }
+            nodes.add( i % 2 == 0 ? new InputNode( properties, PERSON ) : new InputNode( properties ) );
+        }
+        return nodes;
+    }
+
+    private List<InputRelationship> relationships( Random random )
+    {
+        List<InputRelationship> relationships = new ArrayList<>();
+        for ( int i = 0; i < RELATIONSHIP_COUNT; i++ )
+        {
+            long startNode = random.nextInt( NODE_COUNT );
+            // Every now and then a loop
+            long endNode = i % 20 == 0 ? startNode : random.nextInt( NODE_COUNT );
+            relationships.add( new InputRelationship( startNode, endNode, TYPES[i % TYPES.length],
+                    map( "weight", i ) ) );
+        }
+        return relationships;
+    }
+
+    private Set<Long> expectedRelationshipIds( List<InputRelationship> relationships, long nodeId )
+    {
+        Set<Long> ids = new HashSet<>();
+        for ( int i = 0; i < relationships.size(); i++ )
+        {
+            InputRelationship relationship = relationships.get( i );
+            if ( relationship.getStartNode() == nodeId || relationship.getEndNode() == nodeId )
+            {
+                ids.add( (long) i );
+            }
+        }
+        return ids;
+    }
+
+    private Set<Long> relationshipIds( Node node )
+    {
+        Set<Long> ids = new HashSet<>();
+        for ( Relationship relationship : node.getRelationships() )
+        {
+            assertTrue( "Duplicate " + relationship, ids.add( relationship.getId() ) );
+        }
+        return ids;
+    }
+
+    private BatchInserter newBatchInserter()
+    {
+        return BatchInserters.inserter( "neo-batch-db", fs.get(), stringMap() );
+    }
+
+    private GraphDatabaseService switchToEmbeddedGraphDatabaseService( BatchInserter inserter )
+    {
+        inserter.shutdown();
+        TestGraphDatabaseFactory factory = new TestGraphDatabaseFactory();
+        factory.setFileSystem( fs.get() );
+        return factory.newImpermanentDatabase( inserter.getStoreDir() );
+    }
+}
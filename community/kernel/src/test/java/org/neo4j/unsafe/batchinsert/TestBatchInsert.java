@@ -43,6 +43,7 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.schema.ConstraintDefinition;
 import org.neo4j.graphdb.schema.ConstraintType;
@@ -268,6 +269,50 @@ public class TestBatchInsert
         db.shutdown();
     }
 
+    @Test
+    public void shouldGroupRelationshipsOfNodesReachingTheDenseNodeThreshold() throws Exception
+    {
+        // given
+        BatchInserter inserter = BatchInserters.inserter( "neo-batch-db", fs.get(),
+                stringMap( GraphDatabaseSettings.dense_node_threshold.name(), "5" ) );
+        long hub = inserter.createNode( null );
+        for ( int i = 0; i < 20; i++ )
+        {
+            long other = inserter.createNode( null );
+            RelationshipType type = i % 2 == 0 ? RelTypes.REL_TYPE1 : RelTypes.REL_TYPE2;
+            if ( i % 4 < 2 )
+            {
+                inserter.createRelationship( hub, other, type, null );
+            }
+            else
+            {
+                inserter.createRelationship( other, hub, type, null );
+            }
+        }
+        inserter.createRelationship( hub, hub, RelTypes.REL_TYPE1, null );
+
+        // when
+        int relationships = IteratorUtil.count( inserter.getRelationships( hub ) );
+        GraphDatabaseService db = switchToEmbeddedGraphDatabaseService( inserter );
+
+        // then
+        assertEquals( 21, relationships );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( hub );
+            assertEquals( 21, IteratorUtil.count( node.getRelationships() ) );
+            assertEquals( 6, IteratorUtil.count( node.getRelationships( RelTypes.REL_TYPE1, Direction.OUTGOING ) ) );
+            assertEquals( 6, IteratorUtil.count( node.getRelationships( RelTypes.REL_TYPE1, Direction.INCOMING ) ) );
+            assertEquals( 5, IteratorUtil.count( node.getRelationships( RelTypes.REL_TYPE2, Direction.OUTGOING ) ) );
+            assertEquals( 5, IteratorUtil.count( node.getRelationships( RelTypes.REL_TYPE2, Direction.INCOMING ) ) );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
     private GraphDatabaseService switchToEmbeddedGraphDatabaseService( BatchInserter inserter )
     {
         inserter.shutdown();
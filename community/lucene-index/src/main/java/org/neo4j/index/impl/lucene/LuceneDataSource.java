@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.transaction.TransactionManager;
+import javax.transaction.xa.Xid;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.KeywordAnalyzer;
@@ -85,6 +86,8 @@ import org.neo4j.kernel.impl.index.IndexStore;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.xa.NeoStoreXaDataSource;
 import org.neo4j.kernel.impl.transaction.TransactionStateFactory;
+import org.neo4j.kernel.impl.transaction.xaframework.BranchCopy;
+import org.neo4j.kernel.impl.transaction.xaframework.ForceMode;
 import org.neo4j.kernel.impl.transaction.xaframework.InjectedTransactionValidator;
 import org.neo4j.kernel.impl.transaction.xaframework.LogBackedXaDataSource;
 import org.neo4j.kernel.impl.transaction.xaframework.TransactionInterceptorProvider;
@@ -863,6 +866,30 @@ public class LuceneDataSource extends LogBackedXaDataSource
         return this.xaContainer;
     }
 
+    @Override
+    public boolean forcePreparedTransactions() throws IOException
+    {
+        xaContainer.getLogicalLog().force( ForceMode.forced );
+        return true;
+    }
+
+    @Override
+    public BranchCopy copyPreparedTransaction( Xid xid ) throws IOException
+    {
+        return xaContainer.getResourceManager().copyPreparedTransaction( xid );
+    }
+
+    @Override
+    public boolean redoBranchCopy( BranchCopy copy ) throws IOException
+    {
+        if ( !xaContainer.getLogicalLog().lostPreparedTransaction( copy ) )
+        {
+            return false;
+        }
+        applyPreparedTransaction( copy.readTransaction() );
+        return true;
+    }
+
     @Override
     public ResourceIterator<File> listStoreFiles( boolean includeLogicalLogs ) throws IOException
     {   // Never include logical logs since they are of little importance
@@ -34,11 +34,14 @@ import org.neo4j.kernel.logging.Logging;
 import static org.neo4j.kernel.api.impl.index.IndexWriterFactories.standard;
 import static org.neo4j.kernel.api.impl.index.LuceneKernelExtensions.directoryFactory;
 import static org.neo4j.kernel.api.impl.index.LuceneLabelScanStore.loggerMonitor;
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.directoryOf;
 import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.fullStoreLabelUpdateStream;
 
 @Service.Implementation(KernelExtensionFactory.class)
 public class LuceneLabelScanStoreExtension extends KernelExtensionFactory<LuceneLabelScanStoreExtension.Dependencies>
 {
+    public static final String NAME = "lucene";
+
     private final int priority;
     private final Monitor monitor;
 
@@ -60,7 +63,7 @@ public class LuceneLabelScanStoreExtension extends KernelExtensionFactory<Lucene
 
     LuceneLabelScanStoreExtension( int priority, Monitor monitor )
     {
-        super( "lucene");
+        super( NAME );
         this.priority = priority;
         this.monitor = monitor;
     }
@@ -74,12 +77,12 @@ public class LuceneLabelScanStoreExtension extends KernelExtensionFactory<Lucene
                 new NodeRangeDocumentLabelScanStorageStrategy(),
 
                 // <db>/schema/label/lucene
-                directoryFactory, new File( new File( new File( storeDir, "schema" ), "label" ), "lucene" ),
+                directoryFactory, directoryOf( storeDir, NAME ),
 
                 dependencies.getFileSystem(), standard(),
                 fullStoreLabelUpdateStream( dependencies.getNeoStoreProvider() ),
                 monitor != null ? monitor : loggerMonitor( dependencies.getLogging() ) );
 
-        return new LabelScanStoreProvider( scanStore, priority );
+        return new LabelScanStoreProvider( NAME, storeDir, dependencies.getFileSystem(), scanStore, priority );
     }
 }
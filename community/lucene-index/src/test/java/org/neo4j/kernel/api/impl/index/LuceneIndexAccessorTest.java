@@ -37,6 +37,7 @@ import static org.junit.Assert.*;
 import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.helpers.collection.IteratorUtil.asUniqueSet;
 import static org.neo4j.helpers.collection.IteratorUtil.emptySetOf;
+import static org.neo4j.helpers.collection.IteratorUtil.primitivesList;
 import static org.neo4j.kernel.api.impl.index.IndexWriterFactories.standard;
 
 public class LuceneIndexAccessorTest
@@ -120,6 +121,61 @@ public class LuceneIndexAccessorTest
         reader.close();
     }
 
+    @Test
+    public void shouldSeekNumberRangeInValueOrder() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList(
+                add( 1, 30 ),
+                add( 2, -5.5d ),
+                add( 3, 12L ),
+                add( 4, 100 ),
+                add( 5, "12" ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asList( 2L, 3L, 1L ), primitivesList( reader.rangeSeekByNumber( null, true, 30, true ) ) );
+        assertEquals( asList( 1L, 4L ), primitivesList( reader.rangeSeekByNumber( 12, false, null, true ) ) );
+        assertEquals( asList( 3L ), primitivesList( reader.rangeSeekByNumber( 12, true, 30, false ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void shouldSeekStringRangeAndPrefixInValueOrder() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList(
+                add( 1, "Bob" ),
+                add( 2, "Anna" ),
+                add( 3, "Bobby" ),
+                add( 4, "Carl" ),
+                add( 5, 10 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asList( 2L, 1L, 3L ), primitivesList( reader.rangeSeekByString( null, true, "Bobby", true ) ) );
+        assertEquals( asList( 3L, 4L ), primitivesList( reader.rangeSeekByString( "Bob", false, null, true ) ) );
+        assertEquals( asList( 1L, 3L ), primitivesList( reader.rangeSeekByPrefix( "Bob" ) ) );
+        reader.close();
+    }
+
+    @Test
+    public void shouldScanNumbersThenStringsThenOtherValues() throws Exception
+    {
+        // GIVEN
+        updateAndCommit( asList(
+                add( 1, "b" ),
+                add( 2, true ),
+                add( 3, 7 ),
+                add( 4, "a" ),
+                add( 5, 3 ) ) );
+        IndexReader reader = accessor.newReader();
+
+        // THEN
+        assertEquals( asList( 5L, 3L, 4L, 1L, 2L ), primitivesList( reader.scan() ) );
+        reader.close();
+    }
+
     private final long nodeId = 1, nodeId2 = 2;
     private final Object value = "value", value2 = 40;
     private final LuceneDocumentStructure documentLogic = new LuceneDocumentStructure();
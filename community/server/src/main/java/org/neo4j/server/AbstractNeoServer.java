@@ -68,10 +68,13 @@ import org.neo4j.server.rest.transactional.TransitionalPeriodTransactionMessCont
 import org.neo4j.server.rest.web.DatabaseActions;
 import org.neo4j.server.rrd.RrdDbProvider;
 import org.neo4j.server.rrd.RrdFactory;
+import org.neo4j.server.rrd.Sampleable;
+import org.neo4j.server.rrd.sampler.RequestQueueSampleable;
 import org.neo4j.server.security.KeyStoreFactory;
 import org.neo4j.server.security.KeyStoreInformation;
 import org.neo4j.server.security.SslCertificateFactory;
 import org.neo4j.server.statistic.StatisticCollector;
+import org.neo4j.server.web.RequestExecutors;
 import org.neo4j.server.web.SimpleUriBuilder;
 import org.neo4j.server.web.WebServer;
 import org.neo4j.server.web.WebServerProvider;
@@ -108,6 +111,7 @@ public abstract class AbstractNeoServer implements NeoServer
 
     private RoundRobinJobScheduler rrdDbScheduler = new RoundRobinJobScheduler();
     private RrdDbWrapper rrdDbWrapper;
+    private RequestExecutors requestExecutors;
 
     private TransactionFacade transactionFacade;
     private TransactionHandleRegistry transactionRegistry;
@@ -157,9 +161,11 @@ public abstract class AbstractNeoServer implements NeoServer
     
                 databaseActions = createDatabaseActions();
 
+                requestExecutors = createRequestExecutors();
+
                 // TODO: RrdDb is not needed once we remove the old webadmin
                 rrdDbWrapper = new RrdFactory( configurator.configuration() )
-                        .createRrdDbAndSampler( database, new RoundRobinJobScheduler() );
+                        .createRrdDbAndSampler( database, new RoundRobinJobScheduler(), requestQueueSampleables() );
     
                 transactionFacade = createTransactionalActions();
     
@@ -351,6 +357,10 @@ public abstract class AbstractNeoServer implements NeoServer
         webServer.setPort( webServerPort );
         webServer.setAddress( webServerAddr );
         webServer.setMaxThreads( maxThreads );
+        if ( requestExecutors != null )
+        {
+            webServer.setRequestExecutors( requestExecutors );
+        }
 
         webServer.setEnableHttps( sslEnabled );
         webServer.setHttpsPort( sslPort );
@@ -367,6 +377,40 @@ public abstract class AbstractNeoServer implements NeoServer
         }
     }
 
+    private RequestExecutors createRequestExecutors()
+    {
+        Configuration config = getConfiguration();
+        if ( !config.getBoolean( Configurator.WEBSERVER_ASYNC_ENABLED_PROPERTY_KEY,
+                Configurator.DEFAULT_WEBSERVER_ASYNC_ENABLED ) )
+        {
+            return null;
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new RequestExecutors(
+                config.getInt( Configurator.WEBSERVER_ASYNC_READ_THREADS_PROPERTY_KEY, 4 * processors ),
+                config.getInt( Configurator.WEBSERVER_ASYNC_WRITE_THREADS_PROPERTY_KEY, 2 * processors ),
+                config.getInt( Configurator.WEBSERVER_ASYNC_LONG_RUNNING_THREADS_PROPERTY_KEY, processors ),
+                config.getInt( Configurator.WEBSERVER_ASYNC_QUEUE_SIZE_PROPERTY_KEY,
+                        Configurator.DEFAULT_WEBSERVER_ASYNC_QUEUE_SIZE ),
+                config.getInt( Configurator.WEBSERVER_ASYNC_RETRY_AFTER_PROPERTY_KEY,
+                        Configurator.DEFAULT_WEBSERVER_ASYNC_RETRY_AFTER ) );
+    }
+
+    private Sampleable[] requestQueueSampleables()
+    {
+        if ( requestExecutors == null )
+        {
+            return new Sampleable[0];
+        }
+        RequestExecutors.Kind[] kinds = RequestExecutors.Kind.values();
+        Sampleable[] sampleables = new Sampleable[kinds.length];
+        for ( int i = 0; i < kinds.length; i++ )
+        {
+            sampleables[i] = new RequestQueueSampleable( requestExecutors, kinds[i] );
+        }
+        return sampleables;
+    }
+
     private int getMaxThreads()
     {
         return configurator.configuration()
@@ -556,6 +600,10 @@ public abstract class AbstractNeoServer implements NeoServer
         {
             webServer.stop();
         }
+        if ( requestExecutors != null )
+        {
+            requestExecutors.shutdown();
+        }
     }
 
     private void stopDatabase()
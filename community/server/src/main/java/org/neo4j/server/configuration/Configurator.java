@@ -58,6 +58,16 @@ public interface Configurator
     String WEBSERVER_LIMIT_EXECUTION_TIME_PROPERTY_KEY = "org.neo4j.server.webserver.limit.executiontime";
     String WEBSERVER_ENABLE_STATISTICS_COLLECTION = "org.neo4j.server.webserver.statistics";
 
+    String WEBSERVER_ASYNC_ENABLED_PROPERTY_KEY = "org.neo4j.server.webserver.async.enabled";
+    boolean DEFAULT_WEBSERVER_ASYNC_ENABLED = false;
+    String WEBSERVER_ASYNC_READ_THREADS_PROPERTY_KEY = "org.neo4j.server.webserver.async.read_threads";
+    String WEBSERVER_ASYNC_WRITE_THREADS_PROPERTY_KEY = "org.neo4j.server.webserver.async.write_threads";
+    String WEBSERVER_ASYNC_LONG_RUNNING_THREADS_PROPERTY_KEY = "org.neo4j.server.webserver.async.long_running_threads";
+    String WEBSERVER_ASYNC_QUEUE_SIZE_PROPERTY_KEY = "org.neo4j.server.webserver.async.queue_size";
+    int DEFAULT_WEBSERVER_ASYNC_QUEUE_SIZE = 1000;
+    String WEBSERVER_ASYNC_RETRY_AFTER_PROPERTY_KEY = "org.neo4j.server.webserver.async.retry_after";
+    int DEFAULT_WEBSERVER_ASYNC_RETRY_AFTER = 5/*seconds*/;
+
     String REST_API_PATH_PROPERTY_KEY = "org.neo4j.server.webadmin.data.uri";
     String REST_API_PACKAGE = "org.neo4j.server.rest.web";
     String DEFAULT_DATA_API_PATH = "/db/data";
@@ -0,0 +1,373 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.core.MediaType;
+
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.cypher.javacompat.QueryStatistics;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.server.rest.transactional.error.Neo4jError;
+
+/**
+ * Writes results as a stream of binary frames instead of a JSON document, so that exporting large results is not
+ * held back by JSON encoding. Methods must be invoked in the same order as for {@link ExecutionResultSerializer}.
+ * <p/>
+ * Each frame is a one byte frame type, a four byte payload length and the payload, so that clients can skip frames
+ * they do not care about. Rows are written one frame at a time, as they are pulled from the result. The frames are:
+ * <ul>
+ * <li>{@link #COMMIT}: the commit uri, as a string</li>
+ * <li>{@link #COLUMNS}: starts a statement result; the number of columns as an int, followed by the column names</li>
+ * <li>{@link #ROW}: one value per column</li>
+ * <li>{@link #STATS}: the query statistics, as a map value with the same keys as the JSON format</li>
+ * <li>{@link #ERROR}: the status code and message as strings, followed by the stack trace as a value</li>
+ * <li>{@link #TRANSACTION}: the expiry time of the transaction, in milliseconds since the epoch</li>
+ * <li>{@link #END}: always the last frame, with an empty payload</li>
+ * </ul>
+ * Strings are an int byte count followed by UTF-8. Values start with a one byte type tag, see {@link #NULL} and
+ * onwards. Nodes and relationships are written as their id and properties, and paths as their nodes and relationships
+ * in order. The requested {@link ResultDataContent result data contents} do not apply to this format.
+ */
+public class BinaryExecutionResultSerializer extends ExecutionResultSerializer
+{
+    private static final String TYPE = "application", SUBTYPE = "vnd.neo4j.rows";
+
+    /**
+     * The {@link #MEDIA_TYPE} as a string, for use in annotations.
+     */
+    public static final String MEDIA_TYPE_NAME = TYPE + "/" + SUBTYPE;
+
+    public static final MediaType MEDIA_TYPE = new MediaType( TYPE, SUBTYPE );
+
+    public static final byte COMMIT = 1, COLUMNS = 2, ROW = 3, STATS = 4, ERROR = 5, TRANSACTION = 6, END = 7;
+
+    public static final byte NULL = 0, TRUE = 1, FALSE = 2, INTEGER = 3, FLOAT = 4, STRING = 5, BYTES = 6, LIST = 7,
+            MAP = 8, NODE = 9, RELATIONSHIP = 10, PATH = 11;
+
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+    private final DataOutputStream payload = new DataOutputStream( frame );
+    private final StringLogger log;
+
+    public BinaryExecutionResultSerializer( OutputStream output, URI baseUri, StringLogger log )
+    {
+        super( baseUri, log );
+        this.output = new DataOutputStream( new BufferedOutputStream( output ) );
+        this.log = log;
+    }
+
+    @Override
+    public void transactionCommitUri( URI commitUri )
+    {
+        try
+        {
+            writeString( payload, commitUri.toString() );
+            writeFrame( COMMIT );
+        }
+        catch ( IOException e )
+        {
+            loggedIOException( e );
+        }
+    }
+
+    @Override
+    public void statementResult( ExecutionResult result, boolean includeStats,
+                                 ResultDataContent... resultDataContents ) throws IOException
+    {
+        try
+        {
+            List<String> columns = result.columns();
+            payload.writeInt( columns.size() );
+            for ( String column : columns )
+            {
+                writeString( payload, column );
+            }
+            writeFrame( COLUMNS );
+
+            for ( Map<String, Object> row : result )
+            {
+                try
+                {
+                    for ( String column : columns )
+                    {
+                        writeValue( payload, row.get( column ) );
+                    }
+                    writeFrame( ROW );
+                }
+                finally
+                {   // a value that fails to serialize must not leave half a row in front of the error frames
+                    frame.reset();
+                }
+            }
+
+            if ( includeStats )
+            {
+                writeStats( result.getQueryStatistics() );
+                writeFrame( STATS );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw loggedIOException( e );
+        }
+    }
+
+    @Override
+    public void errors( Iterable<? extends Neo4jError> errors )
+    {
+        try
+        {
+            for ( Neo4jError error : errors )
+            {
+                writeString( payload, error.status().code().getCode() );
+                writeString( payload, error.getMessage() );
+                writeValue( payload, error.shouldSerializeStackTrace() ? error.getStackTraceAsString() : null );
+                writeFrame( ERROR );
+            }
+        }
+        catch ( IOException e )
+        {
+            loggedIOException( e );
+        }
+    }
+
+    @Override
+    public void transactionStatus( long expiryDate )
+    {
+        try
+        {
+            payload.writeLong( expiryDate );
+            writeFrame( TRANSACTION );
+        }
+        catch ( IOException e )
+        {
+            loggedIOException( e );
+        }
+    }
+
+    @Override
+    public void finish()
+    {
+        try
+        {
+            writeFrame( END );
+            output.flush();
+        }
+        catch ( IOException e )
+        {
+            loggedIOException( e );
+        }
+    }
+
+    private void writeFrame( byte type ) throws IOException
+    {
+        try
+        {
+            output.writeByte( type );
+            output.writeInt( frame.size() );
+            frame.writeTo( output );
+        }
+        finally
+        {
+            frame.reset();
+        }
+    }
+
+    private void writeStats( QueryStatistics stats ) throws IOException
+    {
+        payload.writeByte( MAP );
+        payload.writeInt( 12 );
+        writeEntry( "contains_updates", stats.containsUpdates() );
+        writeEntry( "nodes_created", stats.getNodesCreated() );
+        writeEntry( "nodes_deleted", stats.getDeletedNodes() );
+        writeEntry( "properties_set", stats.getPropertiesSet() );
+        writeEntry( "relationships_created", stats.getRelationshipsCreated() );
+        writeEntry( "relationship_deleted", stats.getDeletedRelationships() );
+        writeEntry( "labels_added", stats.getLabelsAdded() );
+        writeEntry( "labels_removed", stats.getLabelsRemoved() );
+        writeEntry( "indexes_added", stats.getIndexesAdded() );
+        writeEntry( "indexes_removed", stats.getIndexesRemoved() );
+        writeEntry( "constraints_added", stats.getConstraintsAdded() );
+        writeEntry( "constraints_removed", stats.getConstraintsRemoved() );
+    }
+
+    private void writeEntry( String key, Object value ) throws IOException
+    {
+        writeString( payload, key );
+        writeValue( payload, value );
+    }
+
+    private static void writeValue( DataOutputStream out, Object value ) throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeByte( NULL );
+        }
+        else if ( value instanceof Boolean )
+        {
+            out.writeByte( (Boolean) value ? TRUE : FALSE );
+        }
+        else if ( value instanceof Double || value instanceof Float )
+        {
+            out.writeByte( FLOAT );
+            out.writeDouble( ((Number) value).doubleValue() );
+        }
+        else if ( value instanceof Number )
+        {
+            out.writeByte( INTEGER );
+            out.writeLong( ((Number) value).longValue() );
+        }
+        else if ( value instanceof String || value instanceof Character )
+        {
+            out.writeByte( STRING );
+            writeString( out, value.toString() );
+        }
+        else if ( value instanceof Node )
+        {
+            out.writeByte( NODE );
+            out.writeLong( ((Node) value).getId() );
+            writeProperties( out, (Node) value );
+        }
+        else if ( value instanceof Relationship )
+        {
+            Relationship relationship = (Relationship) value;
+            out.writeByte( RELATIONSHIP );
+            out.writeLong( relationship.getId() );
+            writeString( out, relationship.getType().name() );
+            out.writeLong( relationship.getStartNode().getId() );
+            out.writeLong( relationship.getEndNode().getId() );
+            writeProperties( out, relationship );
+        }
+        else if ( value instanceof Path )
+        {
+            Path path = (Path) value;
+            out.writeByte( PATH );
+            out.writeInt( path.length() * 2 + 1 );
+            for ( PropertyContainer entity : path )
+            {
+                writeValue( out, entity );
+            }
+        }
+        else if ( value instanceof Map )
+        {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte( MAP );
+            out.writeInt( map.size() );
+            for ( Map.Entry<?, ?> entry : map.entrySet() )
+            {
+                writeString( out, String.valueOf( entry.getKey() ) );
+                writeValue( out, entry.getValue() );
+            }
+        }
+        else if ( value instanceof byte[] )
+        {
+            byte[] bytes = (byte[]) value;
+            out.writeByte( BYTES );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+        else if ( value.getClass().isArray() )
+        {
+            int length = Array.getLength( value );
+            out.writeByte( LIST );
+            out.writeInt( length );
+            for ( int i = 0; i < length; i++ )
+            {
+                writeValue( out, Array.get( value, i ) );
+            }
+        }
+        else if ( value instanceof Iterable )
+        {
+            Collection<?> collection = asCollection( (Iterable<?>) value );
+            out.writeByte( LIST );
+            out.writeInt( collection.size() );
+            for ( Object item : collection )
+            {
+                writeValue( out, item );
+            }
+        }
+        else
+        {
+            out.writeByte( STRING );
+            writeString( out, value.toString() );
+        }
+    }
+
+    private static void writeProperties( DataOutputStream out, PropertyContainer entity ) throws IOException
+    {
+        List<String> keys = new ArrayList<>();
+        for ( String key : entity.getPropertyKeys() )
+        {
+            keys.add( key );
+        }
+        out.writeByte( MAP );
+        out.writeInt( keys.size() );
+        for ( String key : keys )
+        {
+            writeString( out, key );
+            writeValue( out, entity.getProperty( key ) );
+        }
+    }
+
+    private static Collection<?> asCollection( Iterable<?> iterable )
+    {
+        if ( iterable instanceof Collection )
+        {
+            return (Collection<?>) iterable;
+        }
+        List<Object> items = new ArrayList<>();
+        for ( Object item : iterable )
+        {
+            items.add( item );
+        }
+        return items;
+    }
+
+    private static void writeString( DataOutputStream out, String string ) throws IOException
+    {
+        byte[] bytes = string.getBytes( UTF_8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    private IOException loggedIOException( IOException exception )
+    {
+        log.error( "Failed to generate binary output.", exception );
+        return exception;
+    }
+}
@@ -67,6 +67,16 @@ public class ExecutionResultSerializer
         this.out = generator;
     }
 
+    /**
+     * For serializers that write something other than JSON, and so override every public method.
+     */
+    protected ExecutionResultSerializer( URI baseUri, StringLogger log )
+    {
+        this.baseUri = baseUri;
+        this.log = log;
+        this.out = null;
+    }
+
     /**
      * Will always get called at most once once, and is the first method to get called. This method is not allowed
      * to throw exceptions. If there are network errors or similar, the handler should take appropriate action,
@@ -22,6 +22,7 @@ package org.neo4j.server.rest.transactional;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import javax.ws.rs.core.MediaType;
 
 import org.neo4j.cypher.javacompat.ExecutionEngine;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -85,4 +86,13 @@ public class TransactionFacade
     {
         return new ExecutionResultSerializer( output, baseUri, log );
     }
+
+    public ExecutionResultSerializer serializer( OutputStream output, MediaType format )
+    {
+        if ( BinaryExecutionResultSerializer.MEDIA_TYPE.equals( format ) )
+        {
+            return new BinaryExecutionResultSerializer( output, baseUri, log );
+        }
+        return serializer( output );
+    }
 }
@@ -38,6 +38,7 @@ import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
+import org.neo4j.server.rest.transactional.BinaryExecutionResultSerializer;
 import org.neo4j.server.rest.transactional.ExecutionResultSerializer;
 import org.neo4j.server.rest.transactional.TransactionFacade;
 import org.neo4j.server.rest.transactional.TransactionHandle;
@@ -54,6 +55,7 @@ import static java.util.Arrays.asList;
 @Path("/transaction")
 public class TransactionalService
 {
+
     private final TransactionFacade facade;
     private final TransactionUriScheme uriScheme;
 
@@ -65,26 +67,29 @@ public class TransactionalService
 
     @POST
     @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
-    public Response executeStatementsInNewTransaction( final InputStream input )
+    @Produces({MediaType.APPLICATION_JSON, BinaryExecutionResultSerializer.MEDIA_TYPE_NAME})
+    public Response executeStatementsInNewTransaction( final InputStream input, @Context HttpHeaders headers )
     {
+        MediaType format = outputFormat( headers );
         try
         {
             TransactionHandle transactionHandle = facade.newTransactionHandle( uriScheme );
-            return createdResponse( transactionHandle, executeStatements( input, transactionHandle ) );
+            return createdResponse( transactionHandle, format, executeStatements( input, transactionHandle, format ) );
         }
         catch ( TransactionLifecycleException e )
         {
-            return invalidTransaction( e );
+            return invalidTransaction( e, format );
         }
     }
 
     @POST
     @Path("/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
-    public Response executeStatements( @PathParam("id") final long id, final InputStream input )
+    @Produces({MediaType.APPLICATION_JSON, BinaryExecutionResultSerializer.MEDIA_TYPE_NAME})
+    public Response executeStatements( @PathParam("id") final long id, final InputStream input,
+                                       @Context HttpHeaders headers )
     {
+        MediaType format = outputFormat( headers );
         final TransactionHandle transactionHandle;
         try
         {
@@ -92,17 +97,19 @@ public class TransactionalService
         }
         catch ( TransactionLifecycleException e )
         {
-            return invalidTransaction( e );
+            return invalidTransaction( e, format );
         }
-        return okResponse( executeStatements( input, transactionHandle ) );
+        return okResponse( format, executeStatements( input, transactionHandle, format ) );
     }
 
     @POST
     @Path("/{id}/commit")
     @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
-    public Response commitTransaction( @PathParam("id") final long id, final InputStream input )
+    @Produces({MediaType.APPLICATION_JSON, BinaryExecutionResultSerializer.MEDIA_TYPE_NAME})
+    public Response commitTransaction( @PathParam("id") final long id, final InputStream input,
+                                       @Context HttpHeaders headers )
     {
+        MediaType format = outputFormat( headers );
         final TransactionHandle transactionHandle;
         try
         {
@@ -110,17 +117,18 @@ public class TransactionalService
         }
         catch ( TransactionLifecycleException e )
         {
-            return invalidTransaction( e );
+            return invalidTransaction( e, format );
         }
-        return okResponse( executeStatementsAndCommit( input, transactionHandle ) );
+        return okResponse( format, executeStatementsAndCommit( input, transactionHandle, format ) );
     }
 
     @POST
     @Path("/commit")
     @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
-    public Response commitNewTransaction( final InputStream input )
+    @Produces({MediaType.APPLICATION_JSON, BinaryExecutionResultSerializer.MEDIA_TYPE_NAME})
+    public Response commitNewTransaction( final InputStream input, @Context HttpHeaders headers )
     {
+        MediaType format = outputFormat( headers );
         final TransactionHandle transactionHandle;
         try
         {
@@ -128,9 +136,9 @@ public class TransactionalService
         }
         catch ( TransactionLifecycleException e )
         {
-            return invalidTransaction( e );
+            return invalidTransaction( e, format );
         }
-        return okResponse( executeStatementsAndCommit( input, transactionHandle ) );
+        return okResponse( format, executeStatementsAndCommit( input, transactionHandle, format ) );
     }
 
     @DELETE
@@ -145,57 +153,85 @@ public class TransactionalService
         }
         catch ( TransactionLifecycleException e )
         {
-            return invalidTransaction( e );
+            return invalidTransaction( e, MediaType.APPLICATION_JSON_TYPE );
         }
-        return okResponse( rollback( transactionHandle ) );
+        return okResponse( MediaType.APPLICATION_JSON_TYPE, rollback( transactionHandle ) );
     }
 
-    private Response invalidTransaction( TransactionLifecycleException e )
+    private Response invalidTransaction( TransactionLifecycleException e, MediaType format )
     {
-        return defaultResponseBuilder( Response.status( Response.Status.NOT_FOUND ) )
-               .entity( serializeError( e.toNeo4jError() ) )
+        return defaultResponseBuilder( Response.status( Response.Status.NOT_FOUND ), format )
+               .entity( serializeError( e.toNeo4jError(), format ) )
                .build();
     }
 
-    private Response createdResponse( TransactionHandle transactionHandle, StreamingOutput streamingResults  )
+    private Response createdResponse( TransactionHandle transactionHandle, MediaType format,
+                                      StreamingOutput streamingResults )
     {
-        return defaultResponseBuilder( Response.created( transactionHandle.uri() ) )
+        return defaultResponseBuilder( Response.created( transactionHandle.uri() ), format )
                .entity( streamingResults )
                .build();
     }
 
-    private Response okResponse( StreamingOutput streamingResults )
+    private Response okResponse( MediaType format, StreamingOutput streamingResults )
     {
-        return defaultResponseBuilder( Response.ok() )
+        return defaultResponseBuilder( Response.ok(), format )
                 .entity( streamingResults )
                 .build();
     }
 
-    private Response.ResponseBuilder defaultResponseBuilder( Response.ResponseBuilder builder )
+    private Response.ResponseBuilder defaultResponseBuilder( Response.ResponseBuilder builder, MediaType format )
     {
+        if ( BinaryExecutionResultSerializer.MEDIA_TYPE.equals( format ) )
+        {
+            return builder.type( format );
+        }
         return builder.header( HttpHeaders.CONTENT_ENCODING, "UTF-8" );
     }
 
-    private StreamingOutput executeStatements( final InputStream input, final TransactionHandle transactionHandle )
+    /**
+     * Results are written as JSON, unless the client explicitly prefers the binary row format.
+     */
+    private static MediaType outputFormat( HttpHeaders headers )
+    {
+        for ( MediaType acceptable : headers.getAcceptableMediaTypes() )
+        {
+            if ( BinaryExecutionResultSerializer.MEDIA_TYPE.equals(
+                    new MediaType( acceptable.getType(), acceptable.getSubtype() ) ) )
+            {
+                return BinaryExecutionResultSerializer.MEDIA_TYPE;
+            }
+            if ( acceptable.isCompatible( MediaType.APPLICATION_JSON_TYPE ) )
+            {
+                break;
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    private StreamingOutput executeStatements( final InputStream input, final TransactionHandle transactionHandle,
+                                               final MediaType format )
     {
         return new StreamingOutput()
         {
             @Override
             public void write( OutputStream output ) throws IOException, WebApplicationException
             {
-                transactionHandle.execute( facade.deserializer( input ), facade.serializer( output ) );
+                transactionHandle.execute( facade.deserializer( input ), facade.serializer( output, format ) );
             }
         };
     }
 
-    private StreamingOutput executeStatementsAndCommit( final InputStream input, final TransactionHandle transactionHandle )
+    private StreamingOutput executeStatementsAndCommit( final InputStream input,
+                                                        final TransactionHandle transactionHandle,
+                                                        final MediaType format )
     {
         return new StreamingOutput()
         {
             @Override
             public void write( OutputStream output ) throws IOException, WebApplicationException
             {
-                transactionHandle.commit( facade.deserializer( input ), facade.serializer( output ) );
+                transactionHandle.commit( facade.deserializer( input ), facade.serializer( output, format ) );
             }
         };
     }
@@ -212,14 +248,14 @@ public class TransactionalService
         };
     }
 
-    private StreamingOutput serializeError( final Neo4jError neo4jError )
+    private StreamingOutput serializeError( final Neo4jError neo4jError, final MediaType format )
     {
         return new StreamingOutput()
         {
             @Override
             public void write( OutputStream output ) throws IOException, WebApplicationException
             {
-                ExecutionResultSerializer serializer = facade.serializer( output );
+                ExecutionResultSerializer serializer = facade.serializer( output, format );
                 serializer.errors( asList( neo4jError ) );
                 serializer.finish();
             }
@@ -67,7 +67,8 @@ public class RrdFactory
         this.config = config;
     }
 
-    public org.neo4j.server.database.RrdDbWrapper createRrdDbAndSampler( final Database db, JobScheduler scheduler ) throws IOException
+    public org.neo4j.server.database.RrdDbWrapper createRrdDbAndSampler( final Database db, JobScheduler scheduler,
+                                                                         Sampleable... usage ) throws IOException
     {
         NodeManager nodeManager = db.getGraph().getDependencyResolver().resolveDependency( NodeManager.class );
 
@@ -77,14 +78,13 @@ public class RrdFactory
                 new RelationshipCountSampleable( nodeManager )
         };
 
-        Sampleable[] usage = {};
-
         final String rrdPath = config.getString( RRDB_LOCATION_PROPERTY_KEY,
                 getDefaultRrdFile( db.getGraph() ) );
-        final RrdDbWrapper rrdb = createRrdb( rrdPath, isEphemereal( db.getGraph() ), join( primitives, usage ) );
+        Sampleable[] sampleables = join( primitives, usage );
+        final RrdDbWrapper rrdb = createRrdb( rrdPath, isEphemereal( db.getGraph() ), sampleables );
 
         scheduler.scheduleAtFixedRate(
-                new RrdJob( new RrdSamplerImpl( rrdb.get(), primitives ) ),
+                new RrdJob( new RrdSamplerImpl( rrdb.get(), sampleables ) ),
                 RRD_THREAD_NAME + "[primitives]",
                 SECONDS.toMillis( 0 ),
                 SECONDS.toMillis( 3 )
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rrd.sampler;
+
+import org.neo4j.server.rrd.Sampleable;
+import org.neo4j.server.web.RequestExecutors;
+import org.rrd4j.DsType;
+
+public class RequestQueueSampleable implements Sampleable
+{
+    private final RequestExecutors executors;
+    private final RequestExecutors.Kind kind;
+
+    public RequestQueueSampleable( RequestExecutors executors, RequestExecutors.Kind kind )
+    {
+        this.executors = executors;
+        this.kind = kind;
+    }
+
+    @Override
+    public String getName()
+    {
+        switch ( kind )
+        {
+        case READ:
+            return "queued_reads";
+        case WRITE:
+            return "queued_writes";
+        default:
+            return "queued_long_running";
+        }
+    }
+
+    @Override
+    public double getValue()
+    {
+        return executors.getQueueDepth( kind );
+    }
+
+    @Override
+    public DsType getType()
+    {
+        return DsType.GAUGE;
+    }
+}
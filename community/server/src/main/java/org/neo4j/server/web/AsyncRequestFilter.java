@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.web;
+
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.neo4j.server.logging.Logger;
+
+import static javax.servlet.http.HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+/**
+ * Hands requests over to {@link RequestExecutors} so that the servlet thread is free as soon as the request has been
+ * accepted. This filter must come first, so that every other filter runs on the worker thread along with the request
+ * itself. Requests that cannot be queued are answered with 503 Service Unavailable and a Retry-After header.
+ */
+public class AsyncRequestFilter implements Filter
+{
+    private static final Logger log = Logger.getLogger( AsyncRequestFilter.class );
+
+    private final RequestExecutors executors;
+
+    public AsyncRequestFilter( RequestExecutors executors )
+    {
+        this.executors = executors;
+    }
+
+    @Override
+    public void init( FilterConfig filterConfig ) throws ServletException
+    {
+    }
+
+    @Override
+    public void doFilter( final ServletRequest req, final ServletResponse res, final FilterChain chain )
+            throws IOException, ServletException
+    {
+        if ( !(req instanceof HttpServletRequest) || !req.isAsyncSupported() || executors.isWorkerThread() )
+        {
+            chain.doFilter( req, res );
+            return;
+        }
+
+        final AsyncContext async = req.startAsync( req, res );
+        async.setTimeout( 0 );
+        boolean queued = executors.submit( executors.classify( (HttpServletRequest) req ), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    chain.doFilter( req, res );
+                }
+                catch ( IOException | ServletException | RuntimeException e )
+                {
+                    log.error( e );
+                    if ( !res.isCommitted() )
+                    {
+                        ((HttpServletResponse) res).setStatus( SC_INTERNAL_SERVER_ERROR );
+                    }
+                }
+                finally
+                {
+                    async.complete();
+                }
+            }
+        } );
+
+        if ( !queued )
+        {
+            HttpServletResponse response = (HttpServletResponse) res;
+            response.setStatus( SC_SERVICE_UNAVAILABLE );
+            response.setHeader( "Retry-After", String.valueOf( executors.getRetryAfterSeconds() ) );
+            async.complete();
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+}
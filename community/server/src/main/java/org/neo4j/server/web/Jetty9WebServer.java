@@ -114,6 +114,7 @@ public class Jetty9WebServer implements WebServer
     private final List<FilterDefinition> filters = new ArrayList<>();
 
     private int jettyMaxThreads = tenThreadsPerProcessor();
+    private RequestExecutors requestExecutors;
     private boolean httpsEnabled = false;
     private KeyStoreInformation httpsCertificateInformation = null;
     private final SslSocketConnectorFactory sslSocketFactory = new SslSocketConnectorFactory();
@@ -200,6 +201,12 @@ public class Jetty9WebServer implements WebServer
         jettyMaxThreads = maxThreads;
     }
 
+    @Override
+    public void setRequestExecutors( RequestExecutors executors )
+    {
+        requestExecutors = executors;
+    }
+
     @Override
     public void addJAXRSPackages( List<String> packageNames, String mountPoint, Collection<Injectable<?>> injectables )
     {
@@ -529,6 +536,12 @@ public class Jetty9WebServer implements WebServer
         jerseyContext.setContextPath( mountPoint );
         jerseyContext.setSessionHandler( sessionHandler );
         jerseyContext.addServlet( jaxRsServletHolderFactory.create( defaultInjectables, wadlEnabled ), "/*" );
+        if ( requestExecutors != null )
+        {
+            FilterHolder asyncFilter = new FilterHolder( new AsyncRequestFilter( requestExecutors ) );
+            asyncFilter.setAsyncSupported( true );
+            jerseyContext.addFilter( asyncFilter, "/*", EnumSet.of( DispatcherType.REQUEST ) );
+        }
         addFiltersTo(jerseyContext);
         handlers.addHandler(jerseyContext);
     }
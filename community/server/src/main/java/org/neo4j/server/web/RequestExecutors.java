@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.web;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+
+import org.neo4j.helpers.NamedThreadFactory;
+
+/**
+ * Bounded worker pools that REST requests are executed on, instead of on the servlet thread that accepted them.
+ * Reads, writes and long running work each get their own pool, so that a few long Cypher queries cannot hold up
+ * every other request. When the queue of a pool is full, new work for it is refused, rather than piling up.
+ */
+public class RequestExecutors
+{
+    public enum Kind
+    {
+        READ, WRITE, LONG_RUNNING
+    }
+
+    private static final String[] LONG_RUNNING_PREFIXES = { "/cypher", "/transaction", "/batch", "/ext/" };
+
+    private final Map<Kind, ThreadPoolExecutor> executors = new EnumMap<>( Kind.class );
+    private final int retryAfterSeconds;
+    private final ThreadLocal<Boolean> onWorkerThread = new ThreadLocal<Boolean>()
+    {
+        @Override
+        protected Boolean initialValue()
+        {
+            return false;
+        }
+    };
+
+    public RequestExecutors( int readThreads, int writeThreads, int longRunningThreads, int queueSize,
+                             int retryAfterSeconds )
+    {
+        this.retryAfterSeconds = retryAfterSeconds;
+        executors.put( Kind.READ, newExecutor( "read", readThreads, queueSize ) );
+        executors.put( Kind.WRITE, newExecutor( "write", writeThreads, queueSize ) );
+        executors.put( Kind.LONG_RUNNING, newExecutor( "long-running", longRunningThreads, queueSize ) );
+    }
+
+    private static ThreadPoolExecutor newExecutor( String name, int threads, int queueSize )
+    {
+        return new ThreadPoolExecutor( threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>( queueSize ), new NamedThreadFactory( "REST " + name + " worker" ) );
+    }
+
+    public Kind classify( HttpServletRequest request )
+    {
+        String path = request.getPathInfo() == null ? "" : request.getPathInfo();
+        for ( String prefix : LONG_RUNNING_PREFIXES )
+        {
+            if ( path.startsWith( prefix ) )
+            {
+                return Kind.LONG_RUNNING;
+            }
+        }
+        if ( path.contains( "/traverse" ) || path.endsWith( "/path" ) || path.endsWith( "/paths" ) )
+        {
+            return Kind.LONG_RUNNING;
+        }
+
+        String method = request.getMethod();
+        if ( "GET".equals( method ) || "HEAD".equals( method ) || "OPTIONS".equals( method ) )
+        {
+            return Kind.READ;
+        }
+        return Kind.WRITE;
+    }
+
+    /**
+     * @return false if the pool for this kind of work is saturated, in which case the work will not be run.
+     */
+    public boolean submit( Kind kind, final Runnable work )
+    {
+        try
+        {
+            executors.get( kind ).execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    onWorkerThread.set( true );
+                    try
+                    {
+                        work.run();
+                    }
+                    finally
+                    {
+                        onWorkerThread.set( false );
+                    }
+                }
+            } );
+            return true;
+        }
+        catch ( RejectedExecutionException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Requests made from within a request that is already running on a worker, such as the parts of a batch
+     * operation, should run right where they are.
+     */
+    public boolean isWorkerThread()
+    {
+        return onWorkerThread.get();
+    }
+
+    public int getQueueDepth( Kind kind )
+    {
+        return executors.get( kind ).getQueue().size();
+    }
+
+    public int getActiveCount( Kind kind )
+    {
+        return executors.get( kind ).getActiveCount();
+    }
+
+    public int getRetryAfterSeconds()
+    {
+        return retryAfterSeconds;
+    }
+
+    public void shutdown()
+    {
+        for ( ThreadPoolExecutor executor : executors.values() )
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -50,6 +50,11 @@ public interface WebServer
 
     void setMaxThreads( int maxThreads );
 
+    /**
+     * Run REST requests on these executors rather than on the threads that accept them.
+     */
+    void setRequestExecutors( RequestExecutors executors );
+
     void start();
 
     void stop();
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.server.rest.transactional.error.Neo4jError;
+import org.neo4j.server.rest.transactional.error.Status;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.server.rest.transactional.BinaryExecutionResultSerializer.*;
+import static org.neo4j.test.Property.property;
+import static org.neo4j.test.mocking.GraphMock.node;
+import static org.neo4j.test.mocking.Properties.properties;
+
+public class BinaryExecutionResultSerializerTest
+{
+    @Test
+    public void shouldWriteOneFramePerRow() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new BinaryExecutionResultSerializer( output, null,
+                StringLogger.DEV_NULL );
+
+        ExecutionResult executionResult = mockExecutionResult( asList( "name", "age" ),
+                map( "name", "Alice", "age", 42 ),
+                map( "name", "Bob", "age", null ) );
+
+        // when
+        serializer.transactionCommitUri( URI.create( "commit/uri/1" ) );
+        serializer.statementResult( executionResult, false );
+        serializer.finish();
+
+        // then
+        DataInputStream input = new DataInputStream( new ByteArrayInputStream( output.toByteArray() ) );
+
+        assertFrame( input, COMMIT );
+        assertEquals( "commit/uri/1", readString( input ) );
+
+        assertFrame( input, COLUMNS );
+        assertEquals( 2, input.readInt() );
+        assertEquals( "name", readString( input ) );
+        assertEquals( "age", readString( input ) );
+
+        assertFrame( input, ROW );
+        assertEquals( STRING, input.readByte() );
+        assertEquals( "Alice", readString( input ) );
+        assertEquals( INTEGER, input.readByte() );
+        assertEquals( 42, input.readLong() );
+
+        assertFrame( input, ROW );
+        assertEquals( STRING, input.readByte() );
+        assertEquals( "Bob", readString( input ) );
+        assertEquals( NULL, input.readByte() );
+
+        assertFrame( input, END );
+        assertEquals( 0, input.readInt() );
+        assertEquals( -1, input.read() );
+    }
+
+    @Test
+    public void shouldWriteNodesAsIdAndProperties() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new BinaryExecutionResultSerializer( output, null,
+                StringLogger.DEV_NULL );
+
+        ExecutionResult executionResult = mockExecutionResult( asList( "n" ),
+                map( "n", node( 7, properties( property( "name", "node7" ) ) ) ) );
+
+        // when
+        serializer.statementResult( executionResult, false );
+        serializer.finish();
+
+        // then
+        DataInputStream input = new DataInputStream( new ByteArrayInputStream( output.toByteArray() ) );
+        assertFrame( input, COLUMNS );
+        input.readInt();
+        readString( input );
+
+        assertFrame( input, ROW );
+        assertEquals( NODE, input.readByte() );
+        assertEquals( 7, input.readLong() );
+        assertEquals( MAP, input.readByte() );
+        assertEquals( 1, input.readInt() );
+        assertEquals( "name", readString( input ) );
+        assertEquals( STRING, input.readByte() );
+        assertEquals( "node7", readString( input ) );
+    }
+
+    @Test
+    public void shouldWriteErrorsBeforeTheEnd() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new BinaryExecutionResultSerializer( output, null,
+                StringLogger.DEV_NULL );
+
+        // when
+        serializer.errors( asList( new Neo4jError( Status.Request.InvalidFormat, new Exception( "cause1" ) ) ) );
+        serializer.finish();
+
+        // then
+        DataInputStream input = new DataInputStream( new ByteArrayInputStream( output.toByteArray() ) );
+        assertFrame( input, ERROR );
+        assertEquals( Status.Request.InvalidFormat.code().getCode(), readString( input ) );
+        assertEquals( "cause1", readString( input ) );
+        assertEquals( NULL, input.readByte() );
+        assertFrame( input, END );
+    }
+
+    @Test
+    public void shouldNotWriteHalfARowWhenAValueFailsToSerialize() throws Exception
+    {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ExecutionResultSerializer serializer = new BinaryExecutionResultSerializer( output, null,
+                StringLogger.DEV_NULL );
+
+        ExecutionResult executionResult = mockExecutionResult( asList( "name", "broken" ),
+                map( "name", "Alice", "broken", new Object()
+                {
+                    @Override
+                    public String toString()
+                    {
+                        throw new IllegalStateException( "broken" );
+                    }
+                } ) );
+
+        // when
+        try
+        {
+            serializer.statementResult( executionResult, false );
+            fail( "expected exception" );
+        }
+        catch ( IllegalStateException e )
+        {
+            serializer.errors( asList( new Neo4jError( Status.Statement.ExecutionFailure, e ) ) );
+        }
+        serializer.finish();
+
+        // then
+        DataInputStream input = new DataInputStream( new ByteArrayInputStream( output.toByteArray() ) );
+        assertFrame( input, COLUMNS );
+        input.readInt();
+        readString( input );
+        readString( input );
+
+        assertFrame( input, ERROR );
+        assertEquals( Status.Statement.ExecutionFailure.code().getCode(), readString( input ) );
+        assertEquals( "broken", readString( input ) );
+    }
+
+    private static void assertFrame( DataInputStream input, byte type ) throws IOException
+    {
+        assertEquals( type, input.readByte() );
+        if ( type != END )
+        {
+            input.readInt();
+        }
+    }
+
+    private static String readString( DataInputStream input ) throws IOException
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully( bytes );
+        return new String( bytes, "UTF-8" );
+    }
+
+    @SafeVarargs
+    private static ExecutionResult mockExecutionResult( List<String> columns, Map<String, Object>... rows )
+    {
+        ExecutionResult executionResult = mock( ExecutionResult.class );
+        when( executionResult.columns() ).thenReturn( columns );
+        final Iterator<Map<String, Object>> inner = asList( rows ).iterator();
+
+        ResourceIterator<Map<String, Object>> iterator = new ResourceIterator<Map<String, Object>>()
+        {
+            @Override
+            public void close()
+            {
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return inner.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next()
+            {
+                return inner.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                inner.remove();
+            }
+        };
+
+        when( executionResult.iterator() ).thenReturn( iterator );
+        return executionResult;
+    }
+}
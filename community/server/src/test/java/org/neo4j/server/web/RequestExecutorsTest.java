@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.web;
+
+import java.util.concurrent.CountDownLatch;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestExecutorsTest
+{
+    private final RequestExecutors executors = new RequestExecutors( 1, 1, 1, 1, 7 );
+
+    @After
+    public void shutdown()
+    {
+        executors.shutdown();
+    }
+
+    @Test
+    public void shouldClassifyRequestsByMethodAndPath() throws Exception
+    {
+        assertEquals( RequestExecutors.Kind.READ, executors.classify( request( "GET", "/node/1" ) ) );
+        assertEquals( RequestExecutors.Kind.WRITE, executors.classify( request( "POST", "/node" ) ) );
+        assertEquals( RequestExecutors.Kind.WRITE, executors.classify( request( "DELETE", "/node/1" ) ) );
+        assertEquals( RequestExecutors.Kind.LONG_RUNNING, executors.classify( request( "POST", "/cypher" ) ) );
+        assertEquals( RequestExecutors.Kind.LONG_RUNNING, executors.classify( request( "POST", "/transaction/1" ) ) );
+        assertEquals( RequestExecutors.Kind.LONG_RUNNING, executors.classify( request( "POST", "/batch" ) ) );
+        assertEquals( RequestExecutors.Kind.LONG_RUNNING,
+                executors.classify( request( "POST", "/node/1/traverse/node" ) ) );
+        assertEquals( RequestExecutors.Kind.LONG_RUNNING, executors.classify( request( "POST", "/node/1/paths" ) ) );
+    }
+
+    @Test
+    public void shouldRejectWorkWhenPoolAndQueueAreFull() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final CountDownLatch started = new CountDownLatch( 1 );
+        Runnable blocking = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                started.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        assertTrue( executors.submit( RequestExecutors.Kind.READ, blocking ) );
+        started.await();
+        assertTrue( executors.submit( RequestExecutors.Kind.READ, blocking ) );
+        assertEquals( 1, executors.getQueueDepth( RequestExecutors.Kind.READ ) );
+
+        assertFalse( executors.submit( RequestExecutors.Kind.READ, blocking ) );
+        assertTrue( executors.submit( RequestExecutors.Kind.WRITE, blocking ) );
+
+        release.countDown();
+    }
+
+    @Test
+    public void shouldKnowWhenRunningOnWorkerThread() throws Exception
+    {
+        final boolean[] onWorker = new boolean[1];
+        final CountDownLatch done = new CountDownLatch( 1 );
+        executors.submit( RequestExecutors.Kind.WRITE, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                onWorker[0] = executors.isWorkerThread();
+                done.countDown();
+            }
+        } );
+        done.await();
+
+        assertTrue( onWorker[0] );
+        assertFalse( executors.isWorkerThread() );
+    }
+
+    private HttpServletRequest request( String method, String path )
+    {
+        HttpServletRequest request = mock( HttpServletRequest.class );
+        when( request.getMethod() ).thenReturn( method );
+        when( request.getPathInfo() ).thenReturn( path );
+        return request;
+    }
+}
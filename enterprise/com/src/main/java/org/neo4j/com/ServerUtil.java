@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -395,11 +396,16 @@ public class ServerUtil
         }
     };
 
+    /**
+     * Applies the transactions streamed with a response. The transactions are written to the logical logs one
+     * by one, but each log is only forced once, after the whole batch has been applied.
+     */
     public static <T> void applyReceivedTransactions( Response<T> response, XaDataSourceManager xaDsm,
                                                       TxHandler txHandler ) throws IOException
     {
         try
         {
+            Set<XaDataSource> appliedTo = new LinkedHashSet<>();
             for ( Triplet<String, Long, TxExtractor> tx : IteratorUtil.asIterable( response.transactions() ) )
             {
                 String resourceName = tx.first();
@@ -414,6 +420,11 @@ public class ServerUtil
                 {
                     txStream.close();
                 }
+                appliedTo.add( dataSource );
+            }
+            for ( XaDataSource dataSource : appliedTo )
+            {
+                dataSource.forceAppliedTransactions();
             }
             txHandler.done();
         }
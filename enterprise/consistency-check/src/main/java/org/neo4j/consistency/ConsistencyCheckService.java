@@ -40,11 +40,18 @@ import org.neo4j.kernel.api.impl.index.LuceneSchemaIndexProvider;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStore;
+import org.neo4j.kernel.impl.api.scan.NativeLabelScanStoreExtension;
+import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.NeoStore;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 import org.neo4j.kernel.impl.nioneo.store.StoreFactory;
+import org.neo4j.kernel.impl.nioneo.xa.SimpleNeoStoreProvider;
 import org.neo4j.kernel.impl.util.StringLogger;
 
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.directoryOf;
+import static org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider.fullStoreLabelUpdateStream;
+
 public class ConsistencyCheckService
 {
     private final Date timestamp = new Date();
@@ -78,8 +85,8 @@ public class ConsistencyCheckService
             LabelScanStore labelScanStore = null;
             try {
 
-                labelScanStore =
-                    new LuceneLabelScanStoreBuilder( storeDir, store.getRawNeoStore(), fileSystem, logger ).build();
+                labelScanStore = labelScanStore( storeDir, tuningConfiguration, store.getRawNeoStore(), fileSystem,
+                        logger );
                 SchemaIndexProvider indexes = new LuceneSchemaIndexProvider( DirectoryFactory.PERSISTENT, tuningConfiguration );
                 DirectStoreAccess stores = new DirectStoreAccess( store, labelScanStore, indexes );
                 summary = new FullCheck( tuningConfiguration, progressFactory )
@@ -118,6 +125,34 @@ public class ConsistencyCheckService
         }
     }
 
+    /**
+     * The label scan store selected by {@link GraphDatabaseSettings#label_scan_store}, the one the database keeps
+     * up to date when running with the same configuration.
+     */
+    private LabelScanStore labelScanStore( String storeDir, Config tuningConfiguration, NeoStore neoStore,
+                                           FileSystemAbstraction fileSystem, StringLogger logger )
+            throws ConsistencyCheckIncompleteException
+    {
+        if ( !NativeLabelScanStoreExtension.NAME.equals(
+                tuningConfiguration.get( GraphDatabaseSettings.label_scan_store ) ) )
+        {
+            return new LuceneLabelScanStoreBuilder( storeDir, neoStore, fileSystem, logger ).build();
+        }
+        NativeLabelScanStore labelScanStore = new NativeLabelScanStore(
+                directoryOf( new File( storeDir ), NativeLabelScanStoreExtension.NAME ), fileSystem,
+                fullStoreLabelUpdateStream( new SimpleNeoStoreProvider( neoStore ) ), logger );
+        try
+        {
+            labelScanStore.init();
+            labelScanStore.start();
+        }
+        catch ( IOException e )
+        {
+            throw new ConsistencyCheckIncompleteException( e );
+        }
+        return labelScanStore;
+    }
+
     private File chooseReportPath( Config tuningConfiguration )
     {
         File reportPath = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_report_file );
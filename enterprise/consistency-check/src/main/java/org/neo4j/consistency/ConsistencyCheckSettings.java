@@ -28,6 +28,7 @@ import org.neo4j.graphdb.factory.Description;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 
 import static org.neo4j.helpers.Settings.BOOLEAN;
+import static org.neo4j.helpers.Settings.BYTES;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
 import static org.neo4j.helpers.Settings.PATH;
@@ -59,6 +60,11 @@ public class ConsistencyCheckSettings
     public static final Setting<TaskExecutionOrder> consistency_check_execution_order =
             setting( "consistency_check_execution_order", options( TaskExecutionOrder.class ), TaskExecutionOrder.MULTI_PASS.name() );
 
+    @Description("Memory to use for caching nodes off-heap when running the consistency check with the " +
+            "PARALLEL execution order. Nodes beyond what fits in this memory are read from the node store.")
+    public static final Setting<Long> consistency_check_node_cache_memory =
+            setting( "consistency_check_node_cache_memory", BYTES, "1G" );
+
     // On Windows there are problems with memory (un)mapping files, involving
     // relying on GC for unmapping which is error prone. So default back to
     // the a window pool that can switch off memory mapping.
@@ -29,8 +29,10 @@ public enum RecordType
     PROPERTY_KEY_NAME,
     STRING_PROPERTY,
     ARRAY_PROPERTY,
+    STRING_DICTIONARY,
 
     RELATIONSHIP,
+    RELATIONSHIP_GROUP,
     RELATIONSHIP_TYPE,
     RELATIONSHIP_TYPE_NAME,
 
@@ -28,6 +28,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -41,6 +42,7 @@ public abstract class AbstractStoreProcessor extends RecordStore.Processor<Runti
 {
     private final RecordCheck<NodeRecord, ConsistencyReport.NodeConsistencyReport> nodeChecker;
     private final RecordCheck<RelationshipRecord, ConsistencyReport.RelationshipConsistencyReport> relationshipChecker;
+    private final RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> relationshipGroupChecker;
     private final RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> propertyChecker;
     private final RecordCheck<PropertyKeyTokenRecord, ConsistencyReport.PropertyKeyTokenConsistencyReport> propertyKeyTokenChecker;
     private final RecordCheck<RelationshipTypeTokenRecord, ConsistencyReport.RelationshipTypeConsistencyReport> relationshipTypeTokenChecker;
@@ -55,6 +57,7 @@ public abstract class AbstractStoreProcessor extends RecordStore.Processor<Runti
     {
         this.nodeChecker = decorator.decorateNodeChecker( new NodeRecordCheck() );
         this.relationshipChecker = decorator.decorateRelationshipChecker( new RelationshipRecordCheck() );
+        this.relationshipGroupChecker = decorator.decorateRelationshipGroupChecker( new RelationshipGroupRecordCheck() );
         this.propertyChecker = decorator.decoratePropertyChecker( new PropertyRecordCheck() );
         this.propertyKeyTokenChecker = decorator.decoratePropertyKeyTokenChecker( new PropertyKeyTokenRecordCheck() );
         this.relationshipTypeTokenChecker = decorator.decorateRelationshipTypeTokenChecker( new
@@ -70,6 +73,10 @@ public abstract class AbstractStoreProcessor extends RecordStore.Processor<Runti
             RecordStore<RelationshipRecord> store, RelationshipRecord rel,
             RecordCheck<RelationshipRecord, ConsistencyReport.RelationshipConsistencyReport> checker );
 
+    protected abstract void checkRelationshipGroup(
+            RecordStore<RelationshipGroupRecord> store, RelationshipGroupRecord group,
+            RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> checker );
+
     protected abstract void checkProperty(
             RecordStore<PropertyRecord> store, PropertyRecord property,
             RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> checker );
@@ -115,6 +122,13 @@ public abstract class AbstractStoreProcessor extends RecordStore.Processor<Runti
         checkRelationship( store, rel, relationshipChecker );
     }
 
+    @Override
+    public final void processRelationshipGroup( RecordStore<RelationshipGroupRecord> store,
+                                                RelationshipGroupRecord group )
+    {
+        checkRelationshipGroup( store, group, relationshipGroupChecker );
+    }
+
     @Override
     public final void processProperty( RecordStore<PropertyRecord> store, PropertyRecord property )
     {
@@ -132,6 +146,10 @@ public abstract class AbstractStoreProcessor extends RecordStore.Processor<Runti
             type = RecordType.STRING_PROPERTY;
             dereference = DynamicStore.STRING;
             break;
+        case STRING_DICTIONARY_BLOCK:
+            type = RecordType.STRING_DICTIONARY;
+            dereference = DynamicStore.DICTIONARY_STRING;
+            break;
         case RELATIONSHIP_TYPE_TOKEN_NAME:
             type = RecordType.RELATIONSHIP_TYPE_NAME;
             dereference = DynamicStore.RELATIONSHIP_TYPE;
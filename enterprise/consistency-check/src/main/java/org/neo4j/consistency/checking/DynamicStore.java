@@ -69,6 +69,20 @@ public enum DynamicStore
             return records.changedArray( id );
         }
     },
+    DICTIONARY_STRING( RecordType.STRING_DICTIONARY )
+    {
+        @Override
+        RecordReference<DynamicRecord> lookup( RecordAccess records, long block )
+        {
+            return records.dictionaryString( block );
+        }
+
+        @Override
+        DynamicRecord changed( DiffRecordAccess records, long id )
+        {
+            return null; // entries never change
+        }
+    },
     PROPERTY_KEY( RecordType.PROPERTY_KEY_NAME )
     {
         @Override
@@ -19,11 +19,15 @@
  */
 package org.neo4j.consistency.checking;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.RecordAccess;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 
 enum NodeField implements
@@ -199,7 +203,12 @@ enum NodeField implements
         {
             if ( Record.NO_PREV_RELATIONSHIP.is( prev( relationship ) ) )
             {
-                if ( node.getNextRel() != relationship.getId() )
+                if ( node.isDense() && !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                {
+                    engine.comparativeCheck( records.relationshipGroup( node.getNextRel() ),
+                                             new FirstInGroupChain( this, node ) );
+                }
+                else if ( node.getNextRel() != relationship.getId() )
                 {
                     noBackReference( engine.report(), node );
                 }
@@ -244,4 +253,49 @@ enum NodeField implements
     abstract void noChain( ConsistencyReport.RelationshipConsistencyReport report, NodeRecord node );
 
     abstract void notFirstInChain( ConsistencyReport.NodeConsistencyReport report, RelationshipRecord relationship );
+
+    /**
+     * Walks the relationship groups of a dense node to the group of the type of the relationship, which should
+     * have the relationship first in the chain for its direction.
+     */
+    private static class FirstInGroupChain implements
+            ComparativeRecordChecker<RelationshipRecord, RelationshipGroupRecord, ConsistencyReport.RelationshipConsistencyReport>
+    {
+        private final NodeField field;
+        private final NodeRecord node;
+        private final Set<Long> visitedGroups = new HashSet<>();
+
+        FirstInGroupChain( NodeField field, NodeRecord node )
+        {
+            this.field = field;
+            this.node = node;
+        }
+
+        @Override
+        public void checkReference( RelationshipRecord relationship, RelationshipGroupRecord group,
+                                    CheckerEngine<RelationshipRecord, ConsistencyReport.RelationshipConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            if ( !group.inUse() || group.getOwningNode() != node.getId() || !visitedGroups.add( group.getId() ) )
+            {
+                return; // a broken group chain is reported by the node and group checks
+            }
+            if ( group.getType() == relationship.getType() )
+            {
+                int chain = RelationshipGroupRecord.chainOf( relationship, node.getId() );
+                if ( group.getFirstInChain( chain ) != relationship.getId() )
+                {
+                    field.noBackReference( engine.report(), node );
+                }
+            }
+            else if ( Record.NO_NEXT_RELATIONSHIP.is( group.getNext() ) )
+            {
+                field.noBackReference( engine.report(), node );
+            }
+            else
+            {
+                engine.comparativeCheck( records.relationshipGroup( group.getNext() ), this );
+            }
+        }
+    }
 }
@@ -27,6 +27,7 @@ import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
 import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.labels.DynamicNodeLabels;
 import org.neo4j.kernel.impl.nioneo.store.labels.NodeLabels;
@@ -51,7 +52,16 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
                                           CheckerEngine<NodeRecord, ConsistencyReport.NodeConsistencyReport> engine,
                                           RecordAccess records )
             {
-                if ( !Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                if ( Record.NO_NEXT_RELATIONSHIP.is( node.getNextRel() ) )
+                {
+                    return;
+                }
+                if ( node.isDense() )
+                {
+                    engine.comparativeCheck( records.relationshipGroup( node.getNextRel() ),
+                                             RelationshipGroupField.FIRST_GROUP );
+                }
+                else
                 {
                     engine.comparativeCheck( records.relationship( node.getNextRel() ), this );
                 }
@@ -102,7 +112,7 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
             {
                 if ( !newRecord.inUse() || valueFrom( oldRecord ) != valueFrom( newRecord ) )
                 {
-                    if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( oldRecord ) )
+                    if ( !oldRecord.isDense() && !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( oldRecord ) )
                          && records.changedRelationship( valueFrom( oldRecord ) ) == null )
                     {
                         engine.report().relationshipNotUpdated();
@@ -118,6 +128,27 @@ class NodeRecordCheck extends PrimitiveRecordCheck<NodeRecord, ConsistencyReport
         }
     }
 
+    private enum RelationshipGroupField implements
+            ComparativeRecordChecker<NodeRecord, RelationshipGroupRecord, ConsistencyReport.NodeConsistencyReport>
+    {
+        FIRST_GROUP;
+
+        @Override
+        public void checkReference( NodeRecord node, RelationshipGroupRecord group,
+                                    CheckerEngine<NodeRecord, ConsistencyReport.NodeConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            if ( !group.inUse() )
+            {
+                engine.report().relationshipGroupNotInUse( group );
+            }
+            else if ( group.getOwningNode() != node.getId() )
+            {
+                engine.report().relationshipGroupHasOtherOwner( group );
+            }
+        }
+    }
+
     private enum LabelsField implements RecordField<NodeRecord, ConsistencyReport.NodeConsistencyReport>,
             ComparativeRecordChecker<NodeRecord, LabelTokenRecord, ConsistencyReport.NodeConsistencyReport>
     {
@@ -155,6 +155,10 @@ class PropertyRecordCheck
             case ARRAY:
                 engine.comparativeCheck( records.array( block.getSingleValueLong() ), DynamicReference.array( block ) );
                 break;
+            case DICTIONARY_STRING:
+                engine.comparativeCheck( records.dictionaryString( block.getSingleValueLong() ),
+                                         DynamicReference.dictionaryString( block ) );
+                break;
             default:
                 try
                 {
@@ -348,6 +352,24 @@ class PropertyRecordCheck
             };
         }
 
+        public static DynamicReference dictionaryString( PropertyBlock block )
+        {
+            return new DynamicReference( block )
+            {
+                @Override
+                void notUsed( ConsistencyReport.PropertyConsistencyReport report, DynamicRecord value )
+                {
+                    report.dictionaryStringNotInUse( block, value );
+                }
+
+                @Override
+                void empty( ConsistencyReport.PropertyConsistencyReport report, DynamicRecord value )
+                {
+                    report.dictionaryStringEmpty( block, value );
+                }
+            };
+        }
+
         public static DynamicReference array( PropertyBlock block )
         {
             return new DynamicReference( block )
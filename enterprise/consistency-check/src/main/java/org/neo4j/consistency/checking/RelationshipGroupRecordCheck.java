@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.consistency.store.DiffRecordAccess;
+import org.neo4j.consistency.store.RecordAccess;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.IN;
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.LOOP;
+import static org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord.OUT;
+
+class RelationshipGroupRecordCheck
+        implements RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+{
+    private final RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>[] fields;
+
+    @SuppressWarnings("unchecked")
+    RelationshipGroupRecordCheck()
+    {
+        this.fields = new RecordField[]{
+                RelationshipTypeField.RELATIONSHIP_TYPE, OwnerField.OWNER, NextGroupField.NEXT,
+                FirstRelationshipField.FIRST_OUT, FirstRelationshipField.FIRST_IN, FirstRelationshipField.FIRST_LOOP};
+    }
+
+    @Override
+    public void check( RelationshipGroupRecord record,
+                       CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                       RecordAccess records )
+    {
+        if ( !record.inUse() )
+        {
+            return;
+        }
+        for ( RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> field : fields )
+        {
+            field.checkConsistency( record, engine, records );
+        }
+    }
+
+    @Override
+    public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                             CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                             DiffRecordAccess records )
+    {
+        check( newRecord, engine, records );
+    }
+
+    private enum RelationshipTypeField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipTypeTokenRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        RELATIONSHIP_TYPE;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                      RecordAccess records )
+        {
+            if ( record.getType() < 0 )
+            {
+                engine.report().illegalRelationshipType();
+            }
+            else
+            {
+                engine.comparativeCheck( records.relationshipType( record.getType() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getType();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipTypeTokenRecord referred,
+                                    CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            if ( !referred.inUse() )
+            {
+                engine.report().relationshipTypeNotInUse( referred );
+            }
+        }
+    }
+
+    private enum OwnerField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, NodeRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        OWNER;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                      RecordAccess records )
+        {
+            if ( record.getOwningNode() < 0 )
+            {
+                engine.report().illegalOwner();
+            }
+            else
+            {
+                engine.comparativeCheck( records.node( record.getOwningNode() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getOwningNode();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, NodeRecord owner,
+                                    CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            if ( !owner.inUse() )
+            {
+                engine.report().ownerNotInUse( owner );
+            }
+            else if ( !owner.isDense() )
+            {
+                engine.report().ownerNotDense( owner );
+            }
+        }
+    }
+
+    private enum NextGroupField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        NEXT;
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( record.getNext() ) )
+            {
+                engine.comparativeCheck( records.relationshipGroup( record.getNext() ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getNext();
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipGroupRecord next,
+                                    CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            if ( !next.inUse() )
+            {
+                engine.report().nextGroupNotInUse( next );
+            }
+            else if ( next.getOwningNode() != record.getOwningNode() )
+            {
+                engine.report().nextGroupHasOtherOwner( next );
+            }
+        }
+    }
+
+    private enum FirstRelationshipField implements
+            RecordField<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>,
+            ComparativeRecordChecker<RelationshipGroupRecord, RelationshipRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+    {
+        FIRST_OUT( OUT ),
+        FIRST_IN( IN ),
+        FIRST_LOOP( LOOP );
+
+        private final int chain;
+
+        private FirstRelationshipField( int chain )
+        {
+            this.chain = chain;
+        }
+
+        @Override
+        public void checkConsistency( RelationshipGroupRecord record,
+                                      CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                      RecordAccess records )
+        {
+            if ( !Record.NO_NEXT_RELATIONSHIP.is( valueFrom( record ) ) )
+            {
+                engine.comparativeCheck( records.relationship( valueFrom( record ) ), this );
+            }
+        }
+
+        @Override
+        public long valueFrom( RelationshipGroupRecord record )
+        {
+            return record.getFirstInChain( chain );
+        }
+
+        @Override
+        public void checkChange( RelationshipGroupRecord oldRecord, RelationshipGroupRecord newRecord,
+                                 CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                 DiffRecordAccess records )
+        {
+            // nothing to check
+        }
+
+        @Override
+        public void checkReference( RelationshipGroupRecord record, RelationshipRecord relationship,
+                                    CheckerEngine<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> engine,
+                                    RecordAccess records )
+        {
+            NodeField field = NodeField.select( relationship, record.getOwningNode() );
+            if ( !relationship.inUse() )
+            {
+                engine.report().firstRelationshipNotInUse( relationship );
+            }
+            else if ( relationship.getType() != record.getType() )
+            {
+                engine.report().firstRelationshipOfOtherType( relationship );
+            }
+            else if ( field == null || RelationshipGroupRecord.chainOf( relationship, record.getOwningNode() ) != chain )
+            {
+                engine.report().firstRelationshipInOtherChain( relationship );
+            }
+            else if ( !Record.NO_PREV_RELATIONSHIP.is( field.prev( relationship ) ) )
+            {
+                engine.report().firstRelationshipNotFirstInChain( relationship );
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking.full;
+
+import org.neo4j.consistency.store.NodeCache;
+import org.neo4j.helpers.progress.ProgressListener;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+
+/**
+ * Copies the nodes with ids in the range {@code [fromId, toId)} into a {@link NodeCache}.
+ */
+class CacheNodesTask extends RecordStore.Processor<RuntimeException> implements StoppableRunnable
+{
+    private final RecordStore<NodeRecord> store;
+    private final NodeCache cache;
+    private final long fromId;
+    private final long toId;
+    private final ProgressListener progress;
+
+    CacheNodesTask( RecordStore<NodeRecord> store, NodeCache cache, long fromId, long toId, ProgressListener progress )
+    {
+        this.store = store;
+        this.cache = cache;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.progress = progress;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void run()
+    {
+        try
+        {
+            applyFiltered( store, fromId, toId, progress );
+        }
+        catch ( Throwable e )
+        {
+            progress.failed( e );
+        }
+    }
+
+    @Override
+    public void processNode( RecordStore<NodeRecord> store, NodeRecord node )
+    {
+        cache.put( node );
+    }
+}
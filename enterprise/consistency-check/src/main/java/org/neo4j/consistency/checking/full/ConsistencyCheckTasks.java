@@ -44,10 +44,18 @@ import static org.neo4j.consistency.checking.full.MultiPassStore.ARRAYS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.NODES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.PROPERTIES;
 import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIPS;
+import static org.neo4j.consistency.checking.full.MultiPassStore.RELATIONSHIP_GROUPS;
 import static org.neo4j.consistency.checking.full.MultiPassStore.STRINGS;
+import static org.neo4j.consistency.checking.full.MultiPassStore.STRING_DICTIONARY;
 
 public class ConsistencyCheckTasks
 {
+    /**
+     * Stores smaller than this are not worth splitting up, the tasks for the different stores already run
+     * concurrently.
+     */
+    static final long MIN_RECORDS_PER_PARTITION = 100_000;
+
     private final ProgressMonitorFactory.MultiPartBuilder progress;
     private final TaskExecutionOrder order;
     private final StoreProcessor processor;
@@ -67,18 +75,24 @@ public class ConsistencyCheckTasks
     {
         List<StoppableRunnable> tasks = new ArrayList<>();
 
-        tasks.add( create( nativeStores.getNodeStore(),
-                multiPass.processors( PROPERTIES, RELATIONSHIPS ) ) );
+        tasks.addAll( createPartitioned( nativeStores.getNodeStore(),
+                multiPass.processors( PROPERTIES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
 
-        tasks.add( create( nativeStores.getRelationshipStore(),
+        tasks.addAll( createPartitioned( nativeStores.getRelationshipStore(),
                 multiPass.processors(  NODES, PROPERTIES, RELATIONSHIPS  ) ) );
 
-        tasks.add( create( nativeStores.getPropertyStore(),
-                multiPass.processors(  PROPERTIES, STRINGS, ARRAYS  ) ) );
+        tasks.addAll( createPartitioned( nativeStores.getRelationshipGroupStore(),
+                multiPass.processors( NODES, RELATIONSHIPS, RELATIONSHIP_GROUPS ) ) );
+
+        tasks.addAll( createPartitioned( nativeStores.getPropertyStore(),
+                multiPass.processors(  PROPERTIES, STRINGS, ARRAYS, STRING_DICTIONARY  ) ) );
 
-        tasks.add( create( nativeStores.getStringStore(), multiPass.processors( STRINGS ) ) );
+        tasks.addAll( createPartitioned( nativeStores.getStringStore(), multiPass.processors( STRINGS ) ) );
 
-        tasks.add( create( nativeStores.getArrayStore(), multiPass.processors( ARRAYS ) ) );
+        tasks.addAll( createPartitioned( nativeStores.getArrayStore(), multiPass.processors( ARRAYS ) ) );
+
+        tasks.addAll( createPartitioned( nativeStores.getStringDictionaryStore(),
+                multiPass.processors( STRING_DICTIONARY ) ) );
 
         // The schema store is verified in multiple passes that share state since it fits into memory
         // and we care about the consistency of back references (cf. SemanticCheck)
@@ -145,6 +159,35 @@ public class ConsistencyCheckTasks
         return tasks;
     }
 
+    /**
+     * With the {@link TaskExecutionOrder#PARALLEL parallel} execution order, creates one task per id range of the
+     * store, otherwise a single task for the whole store.
+     */
+    <RECORD extends AbstractBaseRecord> List<StoreProcessorTask<RECORD>> createPartitioned(
+            RecordStore<RECORD> input, StoreProcessor[] processors )
+    {
+        List<StoreProcessorTask<RECORD>> tasks = new ArrayList<>();
+        if ( order != TaskExecutionOrder.PARALLEL )
+        {
+            tasks.add( create( input, processors ) );
+            return tasks;
+        }
+
+        long highId = input.getHighId();
+        long recordsPerPartition = recordsPerPartition( highId, Runtime.getRuntime().availableProcessors() );
+        for ( long fromId = 0; fromId <= highId; fromId += recordsPerPartition )
+        {
+            tasks.add( new StoreProcessorTask<>(
+                    input, fromId, fromId + recordsPerPartition, progress, order, processor, processors ) );
+        }
+        return tasks;
+    }
+
+    static long recordsPerPartition( long highId, int partitions )
+    {
+        return Math.max( MIN_RECORDS_PER_PARTITION, (highId + partitions) / partitions );
+    }
+
     <RECORD extends AbstractBaseRecord> StoreProcessorTask<RECORD> create( RecordStore<RECORD> input )
     {
         return new StoreProcessorTask<>(
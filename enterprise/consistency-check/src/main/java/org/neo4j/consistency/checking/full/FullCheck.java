@@ -20,6 +20,7 @@
 package org.neo4j.consistency.checking.full;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.consistency.ConsistencyCheckSettings;
@@ -29,21 +30,26 @@ import org.neo4j.consistency.report.ConsistencyReporter;
 import org.neo4j.consistency.report.ConsistencySummaryStatistics;
 import org.neo4j.consistency.report.InconsistencyMessageLogger;
 import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.consistency.store.CacheNodesRecordAccess;
 import org.neo4j.consistency.store.CacheSmallStoresRecordAccess;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.DirectRecordAccess;
+import org.neo4j.consistency.store.NodeCache;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.progress.ProgressMonitorFactory;
 import org.neo4j.kernel.api.direct.DirectStoreAccess;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.nioneo.store.AbstractBaseRecord;
 import org.neo4j.kernel.impl.nioneo.store.LabelTokenRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
 import org.neo4j.kernel.impl.util.StringLogger;
 
+import static java.lang.String.format;
+
 public class FullCheck
 {
     private final boolean checkPropertyOwners;
@@ -52,6 +58,7 @@ public class FullCheck
     private final TaskExecutionOrder order;
     private final ProgressMonitorFactory progressFactory;
     private final Long totalMappedMemory;
+    private final long nodeCacheMemory;
 
     public FullCheck( Config tuningConfiguration, ProgressMonitorFactory progressFactory )
     {
@@ -60,6 +67,7 @@ public class FullCheck
         this.checkIndexes = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_indexes );
         this.order = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_execution_order );
         this.totalMappedMemory = tuningConfiguration.get( GraphDatabaseSettings.all_stores_total_mapped_memory_size );
+        this.nodeCacheMemory = tuningConfiguration.get( ConsistencyCheckSettings.consistency_check_node_cache_memory );
         this.progressFactory = progressFactory;
     }
 
@@ -69,9 +77,11 @@ public class FullCheck
         ConsistencySummaryStatistics summary = new ConsistencySummaryStatistics();
         InconsistencyReport report = new InconsistencyReport( new InconsistencyMessageLogger( logger ), summary );
 
+        long startTime = System.currentTimeMillis();
         OwnerCheck ownerCheck = new OwnerCheck( checkPropertyOwners );
         execute( stores, ownerCheck, recordAccess( stores.nativeStores() ), report );
         ownerCheck.scanForOrphanChains( progressFactory );
+        logThroughput( stores.nativeStores(), System.currentTimeMillis() - startTime, logger );
 
         if ( !summary.isConsistent() )
         {
@@ -84,16 +94,19 @@ public class FullCheck
                   final InconsistencyReport report )
             throws ConsistencyCheckIncompleteException
     {
-        final ConsistencyReporter reporter = new ConsistencyReporter( recordAccess, report );
+        final StoreAccess nativeStores = directStoreAccess.nativeStores();
+        final DiffRecordAccess records = order == TaskExecutionOrder.PARALLEL
+                ? new CacheNodesRecordAccess( recordAccess, cacheNodes( nativeStores.getNodeStore() ) )
+                : recordAccess;
+        final ConsistencyReporter reporter = new ConsistencyReporter( records, report );
         StoreProcessor processEverything = new StoreProcessor( decorator, reporter );
 
         ProgressMonitorFactory.MultiPartBuilder progress = progressFactory.multipleParts( "Full consistency check" );
 
-        final StoreAccess nativeStores = directStoreAccess.nativeStores();
         try ( IndexAccessors indexes = new IndexAccessors( directStoreAccess.indexes(), nativeStores.getSchemaStore() ) )
         {
             MultiPassStore.Factory multiPass = new MultiPassStore.Factory(
-                    decorator, totalMappedMemory, nativeStores, recordAccess, report );
+                    decorator, totalMappedMemory, nativeStores, records, report );
             List<StoppableRunnable> tasks = new ConsistencyCheckTasks( progress, order, processEverything ).createTasks(
                     nativeStores,
                     directStoreAccess.labelScanStore(),
@@ -113,6 +126,40 @@ public class FullCheck
 
     }
 
+    /**
+     * Reads as much of the node store into an off-heap cache as the configured memory allows, using one task per
+     * id range, so that the random node lookups made when checking relationships, properties, labels and indexes
+     * are cheap and don't contend for the windows of the node store.
+     */
+    private NodeCache cacheNodes( RecordStore<NodeRecord> nodeStore ) throws ConsistencyCheckIncompleteException
+    {
+        NodeCache cache = new NodeCache( nodeStore.getHighId() + 1, nodeCacheMemory );
+        ProgressMonitorFactory.MultiPartBuilder progress = progressFactory.multipleParts( "Caching nodes" );
+        List<StoppableRunnable> tasks = new ArrayList<>();
+        long recordsPerPartition = ConsistencyCheckTasks.recordsPerPartition( cache.capacity(),
+                Runtime.getRuntime().availableProcessors() );
+        for ( long fromId = 0; fromId < cache.capacity(); fromId += recordsPerPartition )
+        {
+            long toId = Math.min( fromId + recordsPerPartition, cache.capacity() );
+            tasks.add( new CacheNodesTask( nodeStore, cache, fromId, toId,
+                    progress.progressForPart( format( "nodes_%d-%d", fromId, toId - 1 ), toId - fromId ) ) );
+        }
+        if ( !tasks.isEmpty() )
+        {
+            order.execute( tasks, progress.build() );
+        }
+        return cache;
+    }
+
+    private static void logThroughput( StoreAccess stores, long elapsedMillis, StringLogger logger )
+    {
+        long records = stores.getNodeStore().getHighId() + stores.getRelationshipStore().getHighId() +
+                stores.getPropertyStore().getHighId() + stores.getStringStore().getHighId() +
+                stores.getArrayStore().getHighId() + stores.getStringDictionaryStore().getHighId();
+        logger.logMessage( format( "Checked %d records in %d ms (%d records/s)", records, elapsedMillis,
+                records * 1000 / Math.max( 1, elapsedMillis ) ) );
+    }
+
     static DiffRecordAccess recordAccess( StoreAccess store )
     {
         return new CacheSmallStoresRecordAccess(
@@ -49,6 +49,15 @@ public enum MultiPassStore
                     return storeAccess.getRelationshipStore();
                 }
 
+            },
+    RELATIONSHIP_GROUPS
+            {
+                @Override
+                RecordStore getRecordStore( StoreAccess storeAccess )
+                {
+                    return storeAccess.getRelationshipGroupStore();
+                }
+
             },
     PROPERTIES
             {
@@ -76,6 +85,15 @@ public enum MultiPassStore
                     return storeAccess.getNodeStore();
                 }
 
+            },
+    STRING_DICTIONARY
+            {
+                @Override
+                RecordStore getRecordStore( StoreAccess storeAccess )
+                {
+                    return storeAccess.getStringDictionaryStore();
+                }
+
             };
 
     public static boolean recordInCurrentPass( long id, int iPass, long recordsPerPass )
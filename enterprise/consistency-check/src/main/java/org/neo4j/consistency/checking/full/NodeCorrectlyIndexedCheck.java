@@ -28,6 +28,7 @@ import org.neo4j.consistency.checking.index.IndexAccessors;
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.consistency.store.DiffRecordAccess;
 import org.neo4j.consistency.store.RecordAccess;
+import org.neo4j.kernel.api.index.CompositeValue;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.impl.api.PrimitiveLongIterator;
 import org.neo4j.kernel.impl.nioneo.store.IndexRule;
@@ -60,22 +61,40 @@ public class NodeCorrectlyIndexedCheck implements RecordCheck<NodeRecord, Consis
             }
 
             List<PropertyBlock> properties = propertyReader.propertyBlocks( record );
-            PropertyBlock property = propertyWithKey( properties, indexRule.getPropertyKey() );
+            Object propertyValue = indexedValue( properties, indexRule );
 
-            if ( property == null )
+            if ( propertyValue == null )
             {
                 continue;
             }
 
             try ( IndexReader reader = indexes.accessorFor( indexRule ).newReader() )
             {
-                Object propertyValue = propertyReader.propertyValue( property ).value();
                 PrimitiveLongIterator indexedNodeIds = reader.lookup( propertyValue );
                 verifyNodeCorrectlyIndexed( record, engine, indexRule, propertyValue, indexedNodeIds );
             }
         }
     }
 
+    /**
+     * @return the value the node should be indexed under, or {@code null} if it lacks any of the indexed properties.
+     */
+    private Object indexedValue( List<PropertyBlock> properties, IndexRule indexRule )
+    {
+        int[] propertyKeys = indexRule.getPropertyKeys();
+        Object[] values = new Object[propertyKeys.length];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            PropertyBlock property = propertyWithKey( properties, propertyKeys[i] );
+            if ( property == null )
+            {
+                return null;
+            }
+            values[i] = propertyReader.propertyValue( property ).value();
+        }
+        return values.length == 1 ? values[0] : CompositeValue.of( values );
+    }
+
     private void verifyNodeCorrectlyIndexed(
             NodeRecord record,
             CheckerEngine<NodeRecord, ConsistencyReport.NodeConsistencyReport> engine,
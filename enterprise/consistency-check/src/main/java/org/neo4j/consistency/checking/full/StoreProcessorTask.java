@@ -28,7 +28,11 @@ import static java.lang.String.format;
 
 class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunnable
 {
+    private static final long WHOLE_STORE = Long.MAX_VALUE;
+
     private final RecordStore<R> store;
+    private final long fromId;
+    private final long toId;
     private final StoreProcessor[] processors;
     private final ProgressListener[] progressListeners;
 
@@ -45,9 +49,36 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
                         ProgressMonitorFactory.MultiPartBuilder builder,
                         TaskExecutionOrder order, StoreProcessor singlePassProcessor,
                         StoreProcessor... multiPassProcessors )
+    {
+        this( store, builderPrefix, 0, WHOLE_STORE, builder, order, singlePassProcessor, multiPassProcessors );
+    }
+
+    /**
+     * Creates a task that only processes the records with ids in the range {@code [fromId, toId)}, so that the
+     * different parts of a store can be processed concurrently by separate tasks.
+     */
+    StoreProcessorTask( RecordStore<R> store, long fromId, long toId,
+                        ProgressMonitorFactory.MultiPartBuilder builder,
+                        TaskExecutionOrder order, StoreProcessor singlePassProcessor,
+                        StoreProcessor... multiPassProcessors )
+    {
+        this( store, "", fromId, toId, builder, order, singlePassProcessor, multiPassProcessors );
+    }
+
+    private StoreProcessorTask( RecordStore<R> store, String builderPrefix, long fromId, long toId,
+                                ProgressMonitorFactory.MultiPartBuilder builder,
+                                TaskExecutionOrder order, StoreProcessor singlePassProcessor,
+                                StoreProcessor... multiPassProcessors )
     {
         this.store = store;
+        this.fromId = fromId;
+        this.toId = toId;
         String storeFileName = store.getStorageFileName().getName();
+        if ( !isWholeStore() )
+        {
+            storeFileName = format( "%s_ids_%d-%d", storeFileName, fromId, toId - 1 );
+        }
+        long records = Math.min( store.getHighId(), toId ) - fromId;
 
         String sanitizedBuilderPrefix = builderPrefix == null ? "" : builderPrefix;
 
@@ -58,7 +89,7 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             for ( int i = 0; i < multiPassProcessors.length; i++ )
             {
                 String partName = indexedPartName( storeFileName, sanitizedBuilderPrefix, i );
-                progressListeners[i] = builder.progressForPart( partName, store.getHighId() );
+                progressListeners[i] = builder.progressForPart( partName, records );
             }
         }
         else
@@ -66,10 +97,15 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             this.processors = new StoreProcessor[]{singlePassProcessor};
             String partName = partName( storeFileName, sanitizedBuilderPrefix );
             this.progressListeners = new ProgressListener[]{
-                    builder.progressForPart( partName, store.getHighId() )};
+                    builder.progressForPart( partName, records )};
         }
     }
 
+    private boolean isWholeStore()
+    {
+        return fromId == 0 && toId == WHOLE_STORE;
+    }
+
     private String partName( String storeFileName, String builderPrefix )
     {
         return builderPrefix.length() == 0 ? storeFileName : format("%s_run_%s", storeFileName, builderPrefix );
@@ -94,7 +130,14 @@ class StoreProcessorTask<R extends AbstractBaseRecord> implements StoppableRunna
             beforeProcessing(processor);
             try
             {
-                processor.applyFiltered( store, progressListeners[i] );
+                if ( isWholeStore() )
+                {
+                    processor.applyFiltered( store, progressListeners[i] );
+                }
+                else
+                {
+                    processor.applyFiltered( store, fromId, toId, progressListeners[i] );
+                }
             }
             catch ( Throwable e )
             {
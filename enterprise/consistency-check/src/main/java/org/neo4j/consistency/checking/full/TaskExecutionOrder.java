@@ -63,6 +63,19 @@ public enum TaskExecutionOrder
             }
         }
     },
+    /**
+     * Like {@link #MULTI_THREADED}, but the larger stores are also partitioned by record id range into separate
+     * tasks, so that all cores can be used throughout the check, and nodes are cached off-heap up front.
+     */
+    PARALLEL
+    {
+        @Override
+        void execute( List<StoppableRunnable> tasks, Completion completion )
+                throws ConsistencyCheckIncompleteException
+        {
+            MULTI_THREADED.execute( tasks, completion );
+        }
+    },
     SINGLE_THREADED
     {
         @Override
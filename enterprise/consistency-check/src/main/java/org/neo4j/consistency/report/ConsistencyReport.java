@@ -37,6 +37,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -75,6 +76,12 @@ public interface ConsistencyReport
         void forRelationshipChange( RelationshipRecord oldRelationship, RelationshipRecord newRelationship,
                                     RecordCheck<RelationshipRecord, RelationshipConsistencyReport> checker );
 
+        void forRelationshipGroup( RelationshipGroupRecord group,
+                                   RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
+        void forRelationshipGroupChange( RelationshipGroupRecord oldGroup, RelationshipGroupRecord newGroup,
+                                         RecordCheck<RelationshipGroupRecord, RelationshipGroupConsistencyReport> checker );
+
         void forProperty( PropertyRecord property,
                           RecordCheck<PropertyRecord, PropertyConsistencyReport> checker );
 
@@ -216,6 +223,14 @@ public interface ConsistencyReport
         @Documented
         void relationshipNotFirstInTargetChain( RelationshipRecord relationship );
 
+        /** The referenced relationship group record of this dense node is not in use. */
+        @Documented
+        void relationshipGroupNotInUse( RelationshipGroupRecord group );
+
+        /** The referenced relationship group record of this dense node is owned by another node. */
+        @Documented
+        void relationshipGroupHasOtherOwner( RelationshipGroupRecord group );
+
         /** The first relationship record reference has changed, but the previous first relationship record has not been updates. */
         @Documented
         @IncrementalOnly
@@ -358,6 +373,53 @@ public interface ConsistencyReport
         void targetNodeNotUpdated();
     }
 
+    interface RelationshipGroupConsistencyReport extends ConsistencyReport
+    {
+        /** The relationship type field has an illegal value. */
+        @Documented
+        void illegalRelationshipType();
+
+        /** The relationship type record is not in use. */
+        @Documented
+        void relationshipTypeNotInUse( RelationshipTypeTokenRecord relationshipType );
+
+        /** The owning node field has an illegal value. */
+        @Documented
+        void illegalOwner();
+
+        /** The owning node is not in use. */
+        @Documented
+        void ownerNotInUse( NodeRecord owner );
+
+        /** The owning node is not marked as dense. */
+        @Documented
+        void ownerNotDense( NodeRecord owner );
+
+        /** The next relationship group record is not in use. */
+        @Documented
+        void nextGroupNotInUse( RelationshipGroupRecord next );
+
+        /** The next relationship group record is owned by another node. */
+        @Documented
+        void nextGroupHasOtherOwner( RelationshipGroupRecord next );
+
+        /** The first relationship of one of the chains of this group is not in use. */
+        @Documented
+        void firstRelationshipNotInUse( RelationshipRecord relationship );
+
+        /** The first relationship of one of the chains of this group is of another type than the group. */
+        @Documented
+        void firstRelationshipOfOtherType( RelationshipRecord relationship );
+
+        /** The first relationship of one of the chains of this group doesn't have the owner in that direction. */
+        @Documented
+        void firstRelationshipInOtherChain( RelationshipRecord relationship );
+
+        /** The first relationship of one of the chains of this group has a previous relationship for the owner. */
+        @Documented
+        void firstRelationshipNotFirstInChain( RelationshipRecord relationship );
+    }
+
     interface PropertyConsistencyReport extends ConsistencyReport
     {
         /** The property key as an invalid value. */
@@ -400,6 +462,14 @@ public interface ConsistencyReport
         @Documented
         void stringEmpty( PropertyBlock block, DynamicRecord value );
 
+        /** The first block of the string dictionary entry is not in use. */
+        @Documented
+        void dictionaryStringNotInUse( PropertyBlock block, DynamicRecord value );
+
+        /** The first block of the string dictionary entry is empty. */
+        @Documented
+        void dictionaryStringEmpty( PropertyBlock block, DynamicRecord value );
+
         /** The array block is empty. */
         @Documented
         void arrayEmpty( PropertyBlock block, DynamicRecord value );
@@ -25,6 +25,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -115,6 +116,12 @@ public class DelegatingRecordAccess implements DiffRecordAccess
         return delegate.relationship( id );
     }
 
+    @Override
+    public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+    {
+        return delegate.relationshipGroup( id );
+    }
+
     @Override
     public RecordReference<PropertyRecord> property( long id )
     {
@@ -145,6 +152,12 @@ public class DelegatingRecordAccess implements DiffRecordAccess
         return delegate.array( id );
     }
 
+    @Override
+    public RecordReference<DynamicRecord> dictionaryString( long id )
+    {
+        return delegate.dictionaryString( id );
+    }
+
     @Override
     public RecordReference<DynamicRecord> relationshipTypeName( int id )
     {
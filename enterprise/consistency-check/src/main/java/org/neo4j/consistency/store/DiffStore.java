@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
 import org.neo4j.kernel.impl.nioneo.store.Record;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -72,7 +73,14 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         if ( record.inUse() )
         {
             markProperty( record.getNextProp(), record.getId(), -1 );
-            markRelationship( record.getNextRel() );
+            if ( record.isDense() )
+            {
+                markRelationshipGroup( record.getNextRel() );
+            }
+            else
+            {
+                markRelationship( record.getNextRel() );
+            }
         }
     }
 
@@ -98,6 +106,11 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         if ( !Record.NO_NEXT_RELATIONSHIP.is( rel ) ) getRelationshipStore().markDirty( rel );
     }
 
+    private void markRelationshipGroup( long group )
+    {
+        if ( !Record.NO_NEXT_RELATIONSHIP.is( group ) ) getRelationshipGroupStore().markDirty( group );
+    }
+
     private void markProperty( long prop, long nodeId, long relId )
     {
         if ( !Record.NO_NEXT_PROPERTY.is( prop ) )
@@ -141,20 +154,23 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
     {
         for ( DynamicRecord record : records )
         {
-            DiffRecordStore<DynamicRecord> store = ( record.getType() == PropertyType.STRING.intValue() )
-                    ? getStringStore() : getArrayStore();
+            DiffRecordStore<DynamicRecord> store = getBlockStore( record.getType() );
             store.forceUpdateRecord( record );
             if ( !Record.NO_NEXT_BLOCK.is( record.getNextBlock() ) )
                 getBlockStore(record.getType()).markDirty( record.getNextBlock() );
         }
     }
 
-    private DiffRecordStore getBlockStore( int type )
+    private DiffRecordStore<DynamicRecord> getBlockStore( int type )
     {
         if ( type == PropertyType.STRING.intValue() )
         {
             return getStringStore();
         }
+        else if ( type == PropertyType.DICTIONARY_STRING.intValue() )
+        {
+            return getStringDictionaryStore();
+        }
         else
         {
             return getArrayStore();
@@ -186,6 +202,21 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
             nameStore.forceUpdateRecord( key );
     }
     
+    @Override
+    public void visitRelationshipGroup( RelationshipGroupRecord record )
+    {
+        getRelationshipGroupStore().forceUpdateRecord( record );
+        record = getRelationshipGroupStore().forceGetRaw( record );
+        if ( record.inUse() )
+        {
+            getNodeStore().markDirty( record.getOwningNode() );
+            markRelationshipGroup( record.getNext() );
+            markRelationship( record.getFirstOut() );
+            markRelationship( record.getFirstIn() );
+            markRelationship( record.getFirstLoop() );
+        }
+    }
+
     @Override
     public void visitNeoStore( NeoStoreRecord record )
     {
@@ -219,6 +250,12 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         return (DiffRecordStore<RelationshipRecord>) super.getRelationshipStore();
     }
 
+    @Override
+    public DiffRecordStore<RelationshipGroupRecord> getRelationshipGroupStore()
+    {
+        return (DiffRecordStore<RelationshipGroupRecord>) super.getRelationshipGroupStore();
+    }
+
     @Override
     public DiffRecordStore<PropertyRecord> getPropertyStore()
     {
@@ -237,6 +274,12 @@ public class DiffStore extends StoreAccess implements CommandRecordVisitor
         return (DiffRecordStore<DynamicRecord>) super.getArrayStore();
     }
 
+    @Override
+    public DiffRecordStore<DynamicRecord> getStringDictionaryStore()
+    {
+        return (DiffRecordStore<DynamicRecord>) super.getStringDictionaryStore();
+    }
+
     @Override
     public DiffRecordStore<RelationshipTypeTokenRecord> getRelationshipTypeTokenStore()
     {
@@ -27,6 +27,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.RecordStore;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -58,6 +59,12 @@ public class DirectRecordAccess implements DiffRecordAccess
         return referenceTo( access.getRelationshipStore(), id );
     }
 
+    @Override
+    public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+    {
+        return referenceTo( access.getRelationshipGroupStore(), id );
+    }
+
     @Override
     public RecordReference<PropertyRecord> property( long id )
     {
@@ -88,6 +95,12 @@ public class DirectRecordAccess implements DiffRecordAccess
         return referenceTo( access.getArrayStore(), id );
     }
 
+    @Override
+    public RecordReference<DynamicRecord> dictionaryString( long id )
+    {
+        return referenceTo( access.getStringDictionaryStore(), id );
+    }
+
     @Override
     public RecordReference<DynamicRecord> relationshipTypeName( int id )
     {
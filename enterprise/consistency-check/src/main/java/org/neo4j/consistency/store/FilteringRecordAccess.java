@@ -26,6 +26,7 @@ import org.neo4j.consistency.checking.full.MultiPassStore;
 import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 
 import static java.util.Arrays.asList;
@@ -76,6 +77,16 @@ public class FilteringRecordAccess extends DelegatingRecordAccess
         return super.relationship( id );
     }
 
+    @Override
+    public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+    {
+        if ( shouldSkip( id, MultiPassStore.RELATIONSHIP_GROUPS ) )
+        {
+            return skipReference();
+        }
+        return super.relationshipGroup( id );
+    }
+
     @Override
     public RecordReference<PropertyRecord> property( long id )
     {
@@ -106,6 +117,16 @@ public class FilteringRecordAccess extends DelegatingRecordAccess
         return super.array( id );
     }
 
+    @Override
+    public RecordReference<DynamicRecord> dictionaryString( long id )
+    {
+        if ( shouldSkip( id, MultiPassStore.STRING_DICTIONARY ) )
+        {
+            return skipReference();
+        }
+        return super.dictionaryString( id );
+    }
+
     private boolean shouldSkip( long id, MultiPassStore store )
     {
         return potentiallySkippableStores.contains( store ) &&
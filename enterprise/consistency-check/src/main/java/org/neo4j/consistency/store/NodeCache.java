@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Collections;
+
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+
+/**
+ * Compact, off-heap copy of the node store, so that the many random node lookups made while checking other stores
+ * don't have to go through the store's window pool. Each node is packed into two longs, which is close to the
+ * size of the record on disk:
+ *
+ * <pre>
+ * [0] bits  0-34: next relationship, bits 35-63: low 29 bits of next property
+ * [1] bits  0- 6: high 7 bits of next property, bits 7-46: label field, bit 47: in use, bit 48: dense
+ * </pre>
+ *
+ * Nodes are only cached up to a given {@link #capacity() capacity}, which is decided by the memory available for the
+ * cache. Writes to different nodes can be made concurrently, but have to be published before the cache is read.
+ */
+public class NodeCache
+{
+    public static final int BYTES_PER_NODE = 16;
+
+    private static final int NODES_PER_CHUNK_SHIFT = 26;
+    private static final int NODES_PER_CHUNK = 1 << NODES_PER_CHUNK_SHIFT;
+    private static final long REL_MASK = (1L << 35) - 1;
+    private static final long PROP_MASK = (1L << 36) - 1;
+    private static final long PROP_LOW_MASK = (1L << 29) - 1;
+    private static final long LABEL_MASK = (1L << 40) - 1;
+    private static final long IN_USE_BIT = 1L << 47;
+    private static final long DENSE_BIT = 1L << 48;
+
+    private final LongBuffer[] chunks;
+    private final long capacity;
+
+    public NodeCache( long nodes, long maxMemory )
+    {
+        this.capacity = Math.max( 0, Math.min( nodes, maxMemory / BYTES_PER_NODE ) );
+        this.chunks = new LongBuffer[(int) ((capacity + NODES_PER_CHUNK - 1) >>> NODES_PER_CHUNK_SHIFT)];
+        for ( int i = 0; i < chunks.length; i++ )
+        {
+            long nodesInChunk = Math.min( NODES_PER_CHUNK, capacity - ((long) i << NODES_PER_CHUNK_SHIFT) );
+            chunks[i] = ByteBuffer.allocateDirect( (int) nodesInChunk * BYTES_PER_NODE )
+                    .order( ByteOrder.nativeOrder() ).asLongBuffer();
+        }
+    }
+
+    public long capacity()
+    {
+        return capacity;
+    }
+
+    public boolean contains( long id )
+    {
+        return id >= 0 && id < capacity;
+    }
+
+    public void put( NodeRecord node )
+    {
+        long id = node.getId();
+        long nextProp = node.getNextProp() & PROP_MASK;
+        long first = (node.getNextRel() & REL_MASK) | ((nextProp & PROP_LOW_MASK) << 35);
+        long second = (nextProp >>> 29) | ((node.getLabelField() & LABEL_MASK) << 7) | (node.inUse() ? IN_USE_BIT : 0)
+                | (node.isDense() ? DENSE_BIT : 0);
+        LongBuffer chunk = chunks[(int) (id >>> NODES_PER_CHUNK_SHIFT)];
+        int offset = offset( id );
+        chunk.put( offset, first );
+        chunk.put( offset + 1, second );
+    }
+
+    public NodeRecord get( long id )
+    {
+        LongBuffer chunk = chunks[(int) (id >>> NODES_PER_CHUNK_SHIFT)];
+        int offset = offset( id );
+        long first = chunk.get( offset );
+        long second = chunk.get( offset + 1 );
+        long nextRel = first & REL_MASK;
+        long nextProp = (first >>> 35) | ((second & 0x7FL) << 29);
+        NodeRecord node = new NodeRecord( id, nextRel == REL_MASK ? -1 : nextRel, nextProp == PROP_MASK ? -1 : nextProp );
+        node.setInUse( (second & IN_USE_BIT) != 0 );
+        node.setDense( (second & DENSE_BIT) != 0 );
+        node.setLabelField( (second >>> 7) & LABEL_MASK, Collections.<DynamicRecord>emptyList() );
+        return node;
+    }
+
+    private static int offset( long id )
+    {
+        return (int) (id & (NODES_PER_CHUNK - 1)) * 2;
+    }
+}
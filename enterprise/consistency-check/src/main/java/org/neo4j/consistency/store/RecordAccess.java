@@ -25,6 +25,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -36,6 +37,8 @@ public interface RecordAccess
 
     RecordReference<RelationshipRecord> relationship( final long id );
 
+    RecordReference<RelationshipGroupRecord> relationshipGroup( final long id );
+
     RecordReference<PropertyRecord> property( final long id );
 
     RecordReference<RelationshipTypeTokenRecord> relationshipType( final int id );
@@ -46,6 +49,8 @@ public interface RecordAccess
 
     RecordReference<DynamicRecord> array( final long id );
 
+    RecordReference<DynamicRecord> dictionaryString( final long id );
+
     RecordReference<DynamicRecord> relationshipTypeName( final int id );
 
     RecordReference<DynamicRecord> nodeLabels( final long id );
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PreAllocatedRecords;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.Record;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.labels.DynamicNodeLabels;
 import org.neo4j.kernel.impl.nioneo.store.labels.InlineNodeLabels;
@@ -107,6 +108,63 @@ public class NodeRecordCheckTest
         verifyNoMoreInteractions( report );
     }
 
+    @Test
+    public void shouldNotReportAnythingForDenseNodeWithConsistentGroup() throws Exception
+    {
+        // given
+        NodeRecord node = dense( inUse( new NodeRecord( 42, 7, NONE ) ) );
+        add( group( 7, 42 ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportRelationshipGroupNotInUse() throws Exception
+    {
+        // given
+        NodeRecord node = dense( inUse( new NodeRecord( 42, 7, NONE ) ) );
+        RelationshipGroupRecord group = add( notInUse( new RelationshipGroupRecord( 7, 0 ) ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).relationshipGroupNotInUse( group );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportRelationshipGroupOfOtherNode() throws Exception
+    {
+        // given
+        NodeRecord node = dense( inUse( new NodeRecord( 42, 7, NONE ) ) );
+        RelationshipGroupRecord group = add( group( 7, 43 ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).relationshipGroupHasOtherOwner( group );
+        verifyNoMoreInteractions( report );
+    }
+
+    private static NodeRecord dense( NodeRecord node )
+    {
+        node.setDense( true );
+        return node;
+    }
+
+    private static RelationshipGroupRecord group( long id, long owner )
+    {
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( id, 0 ) );
+        group.setOwningNode( owner );
+        return group;
+    }
+
     @Test
     public void shouldReportPropertyNotInUse() throws Exception
     {
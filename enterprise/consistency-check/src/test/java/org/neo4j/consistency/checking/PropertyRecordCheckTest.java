@@ -166,6 +166,23 @@ public class PropertyRecordCheckTest
         verifyNoMoreInteractions( report );
     }
 
+    @Test
+    public void shouldReportDictionaryStringRecordNotInUse() throws Exception
+    {
+        // given
+        PropertyRecord property = inUse( new PropertyRecord( 42 ) );
+        PropertyKeyTokenRecord key = add( inUse( new PropertyKeyTokenRecord( 6 ) ) );
+        DynamicRecord value = add( notInUse( dictionaryString( new DynamicRecord( 1001 ) ) ) );
+        PropertyBlock block = propertyBlock( key, PropertyType.DICTIONARY_STRING, value.getId() );
+        property.addPropertyBlock( block );
+
+        // when
+        ConsistencyReport.PropertyConsistencyReport report = check( property );
+        // then
+        verify( report ).dictionaryStringNotInUse( block, value );
+        verifyNoMoreInteractions( report );
+    }
+
     @Test
     public void shouldReportArrayRecordNotInUse() throws Exception
     {
@@ -265,6 +265,12 @@ public abstract class RecordCheckTestBase<RECORD extends AbstractBaseRecord,
         return record;
     }
 
+    public static DynamicRecord dictionaryString( DynamicRecord record )
+    {
+        record.setType( PropertyType.DICTIONARY_STRING.intValue() );
+        return record;
+    }
+
     public static DynamicRecord array( DynamicRecord record )
     {
         record.setType( PropertyType.ARRAY.intValue() );
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.checking;
+
+import org.junit.Test;
+
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class RelationshipGroupRecordCheckTest extends
+        RecordCheckTestBase<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport, RelationshipGroupRecordCheck>
+{
+    public RelationshipGroupRecordCheckTest()
+    {
+        super( new RelationshipGroupRecordCheck(), ConsistencyReport.RelationshipGroupConsistencyReport.class );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = notInUse( new RelationshipGroupRecord( 10, 4 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldNotReportAnythingForGroupWithConsistentReferences() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        group.setNext( 11 );
+        group.setFirstOut( 42 );
+        group.setFirstIn( 43 );
+        group.setFirstLoop( 44 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+        add( group( 11, 1, 5 ) );
+        add( inUse( new RelationshipRecord( 42, 1, 2, 4 ) ) );
+        add( inUse( new RelationshipRecord( 43, 2, 1, 4 ) ) );
+        add( inUse( new RelationshipRecord( 44, 1, 1, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportRelationshipTypeNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        RelationshipTypeTokenRecord type = add( notInUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).relationshipTypeNotInUse( type );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportOwnerNotInUse() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord owner = add( notInUse( new NodeRecord( 1, NONE, NONE ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).ownerNotInUse( owner );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportOwnerNotDense() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord owner = add( inUse( new NodeRecord( 1, 10, NONE ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).ownerNotDense( owner );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportNextGroupOfOtherOwner() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        group.setNext( 11 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+        RelationshipGroupRecord next = add( group( 11, 2, 5 ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).nextGroupHasOtherOwner( next );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipOfOtherType() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        group.setFirstOut( 42 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+        RelationshipRecord relationship = add( inUse( new RelationshipRecord( 42, 1, 2, 5 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstRelationshipOfOtherType( relationship );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipInOtherChain() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        group.setFirstIn( 42 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+        RelationshipRecord relationship = add( inUse( new RelationshipRecord( 42, 1, 2, 4 ) ) );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstRelationshipInOtherChain( relationship );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportFirstRelationshipNotFirstInChain() throws Exception
+    {
+        // given
+        RelationshipGroupRecord group = group( 10, 1, 4 );
+        group.setFirstOut( 42 );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( denseNode( 1 ) );
+        RelationshipRecord relationship = add( inUse( new RelationshipRecord( 42, 1, 2, 4 ) ) );
+        relationship.setFirstPrevRel( 41 );
+
+        // when
+        ConsistencyReport.RelationshipGroupConsistencyReport report = check( group );
+
+        // then
+        verify( report ).firstRelationshipNotFirstInChain( relationship );
+        verifyNoMoreInteractions( report );
+    }
+
+    private static RelationshipGroupRecord group( long id, long owner, int type )
+    {
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( id, type ) );
+        group.setOwningNode( owner );
+        return group;
+    }
+
+    private static NodeRecord denseNode( long id )
+    {
+        NodeRecord node = inUse( new NodeRecord( id, NONE, NONE ) );
+        node.setDense( true );
+        return node;
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.neo4j.consistency.report.ConsistencyReport;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -251,6 +252,77 @@ public class RelationshipRecordCheckTest extends
         verifyNoMoreInteractions( report );
     }
 
+    @Test
+    public void shouldNotReportAnythingForFirstRelationshipInGroupOfDenseNode() throws Exception
+    {
+        // given
+        RelationshipRecord relationship = inUse( new RelationshipRecord( 42, 1, 2, 4 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        add( dense( inUse( new NodeRecord( 1, 10, NONE ) ) ) );
+        add( inUse( new NodeRecord( 2, 42, NONE ) ) );
+        add( group( 10, 1, 3, 11, NONE ) );
+        add( group( 11, 1, 4, NONE, 42 ) );
+
+        // when
+        ConsistencyReport.RelationshipConsistencyReport report = check( relationship );
+
+        // then
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportDenseSourceNodeWithoutGroupReferencingBackForFirstRelationshipInSourceChain()
+            throws Exception
+    {
+        // given
+        RelationshipRecord relationship = inUse( new RelationshipRecord( 42, 1, 2, 4 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord source = add( dense( inUse( new NodeRecord( 1, 10, NONE ) ) ) );
+        add( inUse( new NodeRecord( 2, 42, NONE ) ) );
+        add( group( 10, 1, 4, NONE, 7 ) );
+
+        // when
+        ConsistencyReport.RelationshipConsistencyReport report = check( relationship );
+
+        // then
+        verify( report ).sourceNodeDoesNotReferenceBack( source );
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportDenseSourceNodeWithoutGroupOfTheTypeOfTheFirstRelationshipInSourceChain()
+            throws Exception
+    {
+        // given
+        RelationshipRecord relationship = inUse( new RelationshipRecord( 42, 1, 2, 4 ) );
+        add( inUse( new RelationshipTypeTokenRecord( 4 ) ) );
+        NodeRecord source = add( dense( inUse( new NodeRecord( 1, 10, NONE ) ) ) );
+        add( inUse( new NodeRecord( 2, 42, NONE ) ) );
+        add( group( 10, 1, 3, NONE, 42 ) );
+
+        // when
+        ConsistencyReport.RelationshipConsistencyReport report = check( relationship );
+
+        // then
+        verify( report ).sourceNodeDoesNotReferenceBack( source );
+        verifyNoMoreInteractions( report );
+    }
+
+    private static NodeRecord dense( NodeRecord node )
+    {
+        node.setDense( true );
+        return node;
+    }
+
+    private static RelationshipGroupRecord group( long id, long owner, int type, long next, long firstOut )
+    {
+        RelationshipGroupRecord group = inUse( new RelationshipGroupRecord( id, type ) );
+        group.setOwningNode( owner );
+        group.setNext( next );
+        group.setFirstOut( firstOut );
+        return group;
+    }
+
     @Test
     public void shouldReportTargetNodeNotReferencingBackForFirstRelationshipInTargetChain() throws Exception
     {
@@ -57,6 +57,7 @@ import org.neo4j.kernel.impl.nioneo.store.NeoStoreRecord;
 import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.StoreAccess;
@@ -135,6 +136,41 @@ public class ExecutionOrderIntegrationTest
         }
     }
 
+    @Test
+    public void shouldRunSameChecksInParallelAsInSingleThreadedPass() throws Exception
+    {
+        // given
+        StoreAccess store = fixture.directStoreAccess().nativeStores();
+        DiffRecordAccess access = FullCheck.recordAccess( store );
+
+        FullCheck singlePass = new FullCheck( config( TaskExecutionOrder.SINGLE_THREADED ),
+                ProgressMonitorFactory.NONE );
+        FullCheck parallel = new FullCheck( config( TaskExecutionOrder.PARALLEL ),
+                ProgressMonitorFactory.NONE );
+
+        ConsistencySummaryStatistics parallelSummary = new ConsistencySummaryStatistics();
+        ConsistencySummaryStatistics singlePassSummary = new ConsistencySummaryStatistics();
+        InconsistencyLogger logger = mock( InconsistencyLogger.class );
+        InvocationLog singlePassChecks = new InvocationLog();
+        InvocationLog parallelChecks = new InvocationLog();
+
+        // when
+        singlePass.execute( fixture.directStoreAccess(), new LogDecorator( singlePassChecks ), access,
+                new InconsistencyReport( logger, singlePassSummary ) );
+
+        parallel.execute( fixture.directStoreAccess(), new LogDecorator( parallelChecks ), access,
+                new InconsistencyReport( logger, parallelSummary ) );
+
+        // then
+        verifyZeroInteractions( logger );
+        assertEquals( "Expected no inconsistencies in single pass.",
+                0, singlePassSummary.getTotalInconsistencyCount() );
+        assertEquals( "Expected no inconsistencies in parallel.",
+                0, parallelSummary.getTotalInconsistencyCount() );
+
+        assertSameChecks( singlePassChecks.data, parallelChecks.data );
+    }
+
     static Config config( TaskExecutionOrder executionOrder )
     {
         return new Config( stringMap(
@@ -255,6 +291,14 @@ public class ExecutionOrderIntegrationTest
             return logging( checker );
         }
 
+        @Override
+        public RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport>
+        decorateRelationshipGroupChecker(
+                RecordCheck<RelationshipGroupRecord, ConsistencyReport.RelationshipGroupConsistencyReport> checker )
+        {
+            return logging( checker );
+        }
+
         @Override
         public RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> decoratePropertyChecker(
                 RecordCheck<PropertyRecord, ConsistencyReport.PropertyConsistencyReport> checker )
@@ -487,6 +531,12 @@ public class ExecutionOrderIntegrationTest
             return logging( access.array( id ) );
         }
 
+        @Override
+        public RecordReference<DynamicRecord> dictionaryString( long id )
+        {
+            return logging( access.dictionaryString( id ) );
+        }
+
         @Override
         public RecordReference<DynamicRecord> relationshipTypeName( int id )
         {
@@ -21,12 +21,14 @@ package org.neo4j.consistency.checking.full;
 
 import static org.junit.Assert.assertNotSame;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.consistency.checking.full.TaskExecutionOrder.MULTI_PASS;
+import static org.neo4j.consistency.checking.full.TaskExecutionOrder.PARALLEL;
 import static org.neo4j.consistency.checking.full.TaskExecutionOrder.SINGLE_THREADED;
 
 import java.io.File;
@@ -64,6 +66,28 @@ public class StoreProcessorTaskTest
         verifyZeroInteractions( multiPassProcessor1, multiPassProcessor2 );
     }
 
+    @Test
+    public void partitionedTaskShouldOnlyProcessItsRangeOfTheStore() throws Exception
+    {
+        // given
+        StoreProcessor singlePassProcessor = mock( StoreProcessor.class );
+
+        NodeStore store = mock( NodeStore.class );
+        when( store.getStorageFileName() ).thenReturn( new File("node-store") );
+        when( store.getHighId() ).thenReturn( 1000L );
+
+        StoreProcessorTask<NodeRecord> task = new StoreProcessorTask<NodeRecord>(
+                store, 100, 200, ProgressMonitorFactory.NONE.multipleParts( "check" ), PARALLEL,
+                singlePassProcessor );
+
+        // when
+        task.run();
+
+        // then
+        verify( singlePassProcessor ).applyFiltered( same( store ), eq( 100L ), eq( 200L ),
+                any( ProgressListener.class ) );
+    }
+
     @Test
     public void multiPassShouldProcessTheStoreOnceForEachOfTheSuppliedProcessors() throws Exception
     {
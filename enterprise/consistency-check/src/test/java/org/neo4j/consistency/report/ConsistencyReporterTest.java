@@ -59,6 +59,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyBlock;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.SchemaRule;
@@ -280,6 +281,10 @@ public class ConsistencyReporterTest
             {
                 return new RelationshipRecord( 0, 1, 2, 3 );
             }
+            if ( type == RelationshipGroupRecord.class )
+            {
+                return new RelationshipGroupRecord( 0, 1 );
+            }
             if ( type == PropertyRecord.class )
             {
                 return new PropertyRecord( 0 );
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2002-2013 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.store;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.nioneo.store.DynamicRecord;
+import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
+import org.neo4j.kernel.impl.nioneo.store.Record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NodeCacheTest
+{
+    @Test
+    public void shouldReturnTheCachedNodes() throws Exception
+    {
+        // given
+        NodeCache cache = new NodeCache( 10, 1024 );
+        cache.put( node( 0, 5, 7, 0x1_0000_0003L, true ) );
+        cache.put( node( 9, (1L << 35) - 2, (1L << 36) - 2, (1L << 40) - 1, true ) );
+
+        // then
+        assertSameNode( node( 0, 5, 7, 0x1_0000_0003L, true ), cache.get( 0 ) );
+        assertSameNode( node( 9, (1L << 35) - 2, (1L << 36) - 2, (1L << 40) - 1, true ), cache.get( 9 ) );
+    }
+
+    @Test
+    public void shouldKeepUnsetReferencesAndNodesNotInUse() throws Exception
+    {
+        // given
+        NodeCache cache = new NodeCache( 10, 1024 );
+        NodeRecord node = node( 3, Record.NO_NEXT_RELATIONSHIP.intValue(), Record.NO_NEXT_PROPERTY.intValue(), 0,
+                false );
+
+        // when
+        cache.put( node );
+
+        // then
+        assertSameNode( node, cache.get( 3 ) );
+    }
+
+    @Test
+    public void shouldOnlyCacheAsManyNodesAsFitInTheGivenMemory() throws Exception
+    {
+        // when
+        NodeCache cache = new NodeCache( 100, 10 * NodeCache.BYTES_PER_NODE );
+
+        // then
+        assertEquals( 10, cache.capacity() );
+        assertTrue( cache.contains( 9 ) );
+        assertFalse( cache.contains( 10 ) );
+        assertFalse( cache.contains( -1 ) );
+    }
+
+    private static NodeRecord node( long id, long nextRel, long nextProp, long labelField, boolean inUse )
+    {
+        NodeRecord node = new NodeRecord( id, nextRel, nextProp );
+        node.setLabelField( labelField, Collections.<DynamicRecord>emptyList() );
+        node.setInUse( inUse );
+        return node;
+    }
+
+    private static void assertSameNode( NodeRecord expected, NodeRecord actual )
+    {
+        assertEquals( expected.getId(), actual.getId() );
+        assertEquals( expected.getNextRel(), actual.getNextRel() );
+        assertEquals( expected.getNextProp(), actual.getNextProp() );
+        assertEquals( expected.getLabelField(), actual.getLabelField() );
+        assertEquals( expected.inUse(), actual.inUse() );
+    }
+}
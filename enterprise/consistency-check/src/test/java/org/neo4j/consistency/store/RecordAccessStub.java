@@ -39,6 +39,7 @@ import org.neo4j.kernel.impl.nioneo.store.NodeRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyKeyTokenRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyRecord;
 import org.neo4j.kernel.impl.nioneo.store.PropertyType;
+import org.neo4j.kernel.impl.nioneo.store.RelationshipGroupRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipRecord;
 import org.neo4j.kernel.impl.nioneo.store.RelationshipTypeTokenRecord;
 
@@ -167,9 +168,11 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
     private final Map<Long, Delta<DynamicRecord>> schemata = new HashMap<>();
     private final Map<Long, Delta<NodeRecord>> nodes = new HashMap<>();
     private final Map<Long, Delta<RelationshipRecord>> relationships = new HashMap<>();
+    private final Map<Long, Delta<RelationshipGroupRecord>> relationshipGroups = new HashMap<>();
     private final Map<Long, Delta<PropertyRecord>> properties = new HashMap<>();
     private final Map<Long, Delta<DynamicRecord>> strings = new HashMap<>();
     private final Map<Long, Delta<DynamicRecord>> arrays = new HashMap<>();
+    private final Map<Long, Delta<DynamicRecord>> dictionaryStrings = new HashMap<>();
     private final Map<Long, Delta<RelationshipTypeTokenRecord>> relationshipTypeTokens = new HashMap<>();
     private final Map<Long, Delta<LabelTokenRecord>> labelTokens = new HashMap<>();
     private final Map<Long, Delta<PropertyKeyTokenRecord>> propertyKeyTokens = new HashMap<>();
@@ -252,6 +255,11 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
         return add( arrays, array );
     }
 
+    public DynamicRecord addDictionaryString( DynamicRecord string )
+    {
+        return add( dictionaryStrings, string );
+    }
+
     public DynamicRecord addNodeDynamicLabels( DynamicRecord array )
     {
         return add( nodeDynamicLabels, array );
@@ -282,6 +290,10 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
         {
             add( relationships, (RelationshipRecord) oldRecord, (RelationshipRecord) newRecord );
         }
+        else if ( newRecord instanceof RelationshipGroupRecord )
+        {
+            add( relationshipGroups, (RelationshipGroupRecord) oldRecord, (RelationshipGroupRecord) newRecord );
+        }
         else if ( newRecord instanceof PropertyRecord )
         {
             add( properties, (PropertyRecord) oldRecord, (PropertyRecord) newRecord );
@@ -297,6 +309,10 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
             {
                 add( arrays, (DynamicRecord) oldRecord, dyn );
             }
+            else if ( dyn.getType() == PropertyType.DICTIONARY_STRING.intValue() )
+            {
+                add( dictionaryStrings, (DynamicRecord) oldRecord, dyn );
+            }
             else if ( dyn.getType() == SCHEMA_RECORD_TYPE )
             {
                 add( schemata, (DynamicRecord) oldRecord, dyn );
@@ -335,6 +351,10 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
         {
             add( relationships, (RelationshipRecord) record );
         }
+        else if ( record instanceof RelationshipGroupRecord )
+        {
+            add( relationshipGroups, (RelationshipGroupRecord) record );
+        }
         else if ( record instanceof PropertyRecord )
         {
             add( properties, (PropertyRecord) record );
@@ -350,6 +370,10 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
             {
                 addArray( dyn );
             }
+            else if ( dyn.getType() == PropertyType.DICTIONARY_STRING.intValue() )
+            {
+                addDictionaryString( dyn );
+            }
             else if ( dyn.getType() == SCHEMA_RECORD_TYPE )
             {
                 addSchema( dyn );
@@ -421,6 +445,12 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
         return reference( relationships, id, Version.LATEST );
     }
 
+    @Override
+    public RecordReference<RelationshipGroupRecord> relationshipGroup( long id )
+    {
+        return reference( relationshipGroups, id, Version.LATEST );
+    }
+
     @Override
     public RecordReference<PropertyRecord> property( long id )
     {
@@ -451,6 +481,12 @@ public class RecordAccessStub implements RecordAccess, DiffRecordAccess
         return reference( arrays, id, Version.LATEST );
     }
 
+    @Override
+    public RecordReference<DynamicRecord> dictionaryString( long id )
+    {
+        return reference( dictionaryStrings, id, Version.LATEST );
+    }
+
     @Override
     public RecordReference<DynamicRecord> relationshipTypeName( int id )
     {
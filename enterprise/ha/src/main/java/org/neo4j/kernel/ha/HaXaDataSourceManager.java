@@ -19,15 +19,9 @@
  */
 package org.neo4j.kernel.ha;
 
-import java.nio.channels.ReadableByteChannel;
-
 import org.neo4j.com.Response;
 import org.neo4j.com.ServerUtil;
-import org.neo4j.com.TxExtractor;
-import org.neo4j.helpers.Triplet;
-import org.neo4j.helpers.collection.IteratorUtil;
 import org.neo4j.kernel.impl.transaction.XaDataSourceManager;
-import org.neo4j.kernel.impl.transaction.xaframework.XaDataSource;
 import org.neo4j.kernel.impl.util.StringLogger;
 
 public class HaXaDataSourceManager extends XaDataSourceManager
@@ -46,31 +40,12 @@ public class HaXaDataSourceManager extends XaDataSourceManager
     {
         try
         {
-            for ( Triplet<String, Long, TxExtractor> tx : IteratorUtil.asIterable( response.transactions() ) )
-            {
-                String resourceName = tx.first();
-                XaDataSource dataSource = getXaDataSource( resourceName );
-                txHandler.accept( tx, dataSource );
-                ReadableByteChannel txStream = tx.third().extract();
-                try
-                {
-                    dataSource.applyCommittedTransaction( tx.second(), txStream );
-                }
-                finally
-                {
-                    txStream.close();
-                }
-            }
-            txHandler.done();
+            ServerUtil.applyReceivedTransactions( response, this, txHandler );
         }
         catch (Exception e)
         {
             throw new RuntimeException( e );
         }
-        finally
-        {
-            response.close();
-        }
         return response.response();
     }
 }
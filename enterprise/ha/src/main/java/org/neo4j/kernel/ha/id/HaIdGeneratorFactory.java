@@ -29,6 +29,7 @@ import org.neo4j.kernel.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.IdGeneratorFactory;
 import org.neo4j.kernel.IdType;
 import org.neo4j.kernel.ha.com.master.Master;
+import org.neo4j.kernel.impl.nioneo.store.BatchingIdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.FileSystemAbstraction;
 import org.neo4j.kernel.impl.nioneo.store.IdGenerator;
 import org.neo4j.kernel.impl.nioneo.store.IdRange;
@@ -39,15 +40,24 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
 {
     private final Map<IdType, HaIdGenerator> generators =
             new EnumMap<IdType, HaIdGenerator>( IdType.class );
+    private final Map<IdType, BatchingIdGenerator> batchingGenerators =
+            new EnumMap<IdType, BatchingIdGenerator>( IdType.class );
     private final IdGeneratorFactory localFactory = new DefaultIdGeneratorFactory();
     private final Master master;
     private final StringLogger logger;
+    private final int batchSize;
     private IdGeneratorState globalState = IdGeneratorState.PENDING;
 
     public HaIdGeneratorFactory( Master master, Logging logging )
+    {
+        this( master, logging, 1 );
+    }
+
+    public HaIdGeneratorFactory( Master master, Logging logging, int batchSize )
     {
         this.master = master;
         this.logger = logging.getMessagesLog( getClass() );
+        this.batchSize = batchSize;
     }
 
     @Override
@@ -71,6 +81,17 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         }
         HaIdGenerator haIdGenerator = new HaIdGenerator( initialIdGenerator, fs, fileName, grabSize, idType, globalState );
         generators.put( idType, haIdGenerator );
+        batchingGenerators.remove( idType );
+        if ( batchSize > 1 )
+        {
+            /*
+             * Freed ids are left to the delegate, since a slave mustn't reuse ids that the master
+             * hands out again.
+             */
+            BatchingIdGenerator batchingIdGenerator = new BatchingIdGenerator( haIdGenerator, batchSize, false );
+            batchingGenerators.put( idType, batchingIdGenerator );
+            return batchingIdGenerator;
+        }
         return haIdGenerator;
     }
 
@@ -83,7 +104,8 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
     @Override
     public IdGenerator get( IdType idType )
     {
-        return generators.get( idType );
+        IdGenerator batchingIdGenerator = batchingGenerators.get( idType );
+        return batchingIdGenerator != null ? batchingIdGenerator : generators.get( idType );
     }
 
     public void switchToMaster()
@@ -93,6 +115,7 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         {
             generator.switchToMaster();
         }
+        discardBatches();
     }
     
     public void switchToSlave()
@@ -102,6 +125,16 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         {
             generator.switchToSlave();
         }
+        discardBatches();
+    }
+
+    private void discardBatches()
+    {
+        // Ids batched in the previous role may be handed out by the new master
+        for ( BatchingIdGenerator generator : batchingGenerators.values() )
+        {
+            generator.discardBatches();
+        }
     }
 
     private static final long VALUE_REPRESENTING_NULL = -1;
@@ -304,9 +337,15 @@ public class HaIdGeneratorFactory implements IdGeneratorFactory
         }
 
         @Override
-        public IdRange nextIdBatch( int size )
+        public synchronized IdRange nextIdBatch( int size )
         {
-            throw new UnsupportedOperationException( "Should never be called" );
+            // Hand out ids of the allocations from master, whose ranges needn't be consecutive
+            long[] ids = new long[size];
+            for ( int i = 0; i < size; i++ )
+            {
+                ids[i] = nextId();
+            }
+            return new IdRange( ids, 0, 0 );
         }
 
         private long storeLocally( IdAllocation allocation )
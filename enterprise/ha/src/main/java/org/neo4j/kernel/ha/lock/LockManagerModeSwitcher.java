@@ -21,6 +21,7 @@ package org.neo4j.kernel.ha.lock;
 
 import java.net.URI;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.AvailabilityGuard;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.DelegateInvocationHandler;
@@ -34,6 +35,7 @@ import org.neo4j.kernel.impl.transaction.AbstractTransactionManager;
 import org.neo4j.kernel.impl.transaction.LockManager;
 import org.neo4j.kernel.impl.transaction.LockManagerImpl;
 import org.neo4j.kernel.impl.transaction.RagManager;
+import org.neo4j.kernel.impl.transaction.StripedLockManager;
 import org.neo4j.kernel.impl.transaction.TxHook;
 
 public class LockManagerModeSwitcher extends AbstractModeSwitcher<LockManager>
@@ -66,6 +68,10 @@ public class LockManagerModeSwitcher extends AbstractModeSwitcher<LockManager>
     @Override
     protected LockManager getMasterImpl()
     {
+        if ( "striped".equals( config.get( GraphDatabaseSettings.lock_manager ) ) )
+        {
+            return new StripedLockManager();
+        }
         return new LockManagerImpl( new RagManager() );
     }
 
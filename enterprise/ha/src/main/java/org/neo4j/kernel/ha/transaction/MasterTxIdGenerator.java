@@ -26,7 +26,6 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -35,6 +34,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import javax.transaction.xa.XAException;
@@ -379,8 +379,9 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
             BlockingQueue<PullUpdateFuture> queue = pullUpdateQueues.get( slave.getServerId() );
             if (queue == null)
             {
-                // Create queue and worker
-                queue = new ArrayBlockingQueue<PullUpdateFuture>( 100 );
+                // Create queue and worker. The queue is unbounded, a bounded one would silently drop requests
+                // when full and leave their committers waiting forever.
+                queue = new LinkedBlockingQueue<PullUpdateFuture>();
                 pullUpdateQueues.put(slave.getServerId(), queue);
 
                 final ExecutorService executorService = Executors.newSingleThreadExecutor(new NamedThreadFactory( "pull-worker" ));
@@ -397,20 +398,21 @@ public class MasterTxIdGenerator implements TxIdGenerator, Lifecycle
                         {
                             while (true)
                             {
-                                // Poll queue and call pullUpdate
+                                // Take all requests that queued up while the previous batch was in flight,
+                                // and have the slave pull them all in one round trip
                                 currentPulls.clear();
                                 currentPulls.add( finalQueue.take() );
-
-                                PullUpdateFuture pullRequest;
-                                while ( (pullRequest = finalQueue.poll()) != null )
-                                {
-                                    currentPulls.add( pullRequest );
-                                }
+                                finalQueue.drainTo( currentPulls );
 
                                 try
                                 {
-                                    PullUpdateFuture pullUpdateFuture = currentPulls.get( 0 );
-                                    Response<Void> response = pullUpdateFuture.getSlave().pullUpdates( dataSource.getName(), pullUpdateFuture.getTxId() );
+                                    long upToAndIncludingTxId = 0;
+                                    for ( PullUpdateFuture currentPull : currentPulls )
+                                    {
+                                        upToAndIncludingTxId = Math.max( upToAndIncludingTxId, currentPull.getTxId() );
+                                    }
+                                    Response<Void> response = currentPulls.get( 0 ).getSlave().pullUpdates(
+                                            dataSource.getName(), upToAndIncludingTxId );
                                     response.close();
 
                                     // Notify the futures
@@ -22,6 +22,7 @@ package org.neo4j.kernel.ha;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -52,6 +53,8 @@ import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.logging.LogMarker;
 import org.neo4j.test.TargetDirectory;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -179,6 +182,64 @@ public class TestMasterCommittingAtSlave
         assertFailureLogs();
     }
 
+    @Test
+    public void concurrentCommitsShouldBePulledByTheSlaveInBatches() throws Exception
+    {
+        // given
+        final MasterTxIdGenerator generator = newGenerator( 1, 1, givenOrder() );
+        FakeSlave slave = new FakeSlave( false, 0 )
+        {
+            @Override
+            public Response<Void> pullUpdates( String resource, long txId )
+            {
+                try
+                {
+                    Thread.sleep( 10 );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+                return super.pullUpdates( resource, txId );
+            }
+        };
+        slaves = Arrays.<Slave>asList( slave );
+
+        // when more transactions commit concurrently than used to fit in the queue of pull requests
+        int transactions = 200;
+        List<Thread> committers = new ArrayList<Thread>();
+        for ( int i = 0; i < transactions; i++ )
+        {
+            final long txId = i + 2;
+            Thread committer = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    generator.committed( dataSource, 0, txId, null );
+                }
+            };
+            committer.start();
+            committers.add( committer );
+        }
+        for ( Thread committer : committers )
+        {
+            committer.join( SECONDS.toMillis( 30 ) );
+            assertFalse( "Commit still waiting for the slave", committer.isAlive() );
+        }
+
+        // then
+        long pulls = 0;
+        long highestPulledTx = 0;
+        for ( Long tx; (tx = slave.popCalledTx()) != null; pulls++ )
+        {
+            highestPulledTx = Math.max( highestPulledTx, tx );
+        }
+        assertEquals( transactions + 1, highestPulledTx );
+        assertTrue( "Expected batched pulls, but got " + pulls, pulls < transactions );
+        assertNoFailureLogs();
+    }
+
     @Test
     public void testFixedPriorityStrategy()
     {